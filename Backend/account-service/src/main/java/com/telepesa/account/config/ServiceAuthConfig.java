@@ -0,0 +1,14 @@
+package com.telepesa.account.config;
+
+import com.maelcolium.telepesa.models.auth.ServiceAuthenticationService;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+public class ServiceAuthConfig {
+
+    @Bean
+    public ServiceAuthenticationService serviceAuthenticationService() {
+        return new ServiceAuthenticationService();
+    }
+}
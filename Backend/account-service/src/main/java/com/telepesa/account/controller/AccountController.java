@@ -1,11 +1,13 @@
 package com.telepesa.account.controller;
 
+import com.telepesa.account.dto.AccountBalanceDto;
 import com.telepesa.account.dto.AccountDto;
 import com.telepesa.account.service.AccountService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
 
 import java.math.BigDecimal;
@@ -19,6 +21,8 @@ import java.util.Optional;
 @Slf4j
 public class AccountController {
 
+    private static final int MAX_BALANCE_PAGE = 5000;
+
     private final AccountService accountService;
 
 
@@ -186,6 +190,28 @@ public class AccountController {
         ));
     }
 
+    /**
+     * Balances in account id order, after {@code afterId} and up to {@code toId}; used by ledger
+     * reconciliation to walk the accounts in keyset pages.
+     */
+    @GetMapping("/internal/balances")
+    @PreAuthorize("hasAuthority('SERVICE_ACCOUNT_READ')")
+    public ResponseEntity<List<AccountBalanceDto>> getAccountBalances(
+            @RequestParam(value = "afterId", defaultValue = "0") Long afterId,
+            @RequestParam(value = "toId", defaultValue = "9223372036854775807") Long toId,
+            @RequestParam(value = "limit", defaultValue = "1000") int limit) {
+        if (limit < 1 || limit > MAX_BALANCE_PAGE) {
+            return ResponseEntity.badRequest().build();
+        }
+        return ResponseEntity.ok(accountService.getBalancesPage(afterId, toId, limit));
+    }
+
+    @GetMapping("/internal/id-range")
+    @PreAuthorize("hasAuthority('SERVICE_ACCOUNT_READ')")
+    public ResponseEntity<Map<String, Long>> getAccountIdRange() {
+        return ResponseEntity.ok(accountService.getAccountIdRange());
+    }
+
     @GetMapping("/health")
     public ResponseEntity<Map<String, String>> health() {
         return ResponseEntity.ok(Map.of(
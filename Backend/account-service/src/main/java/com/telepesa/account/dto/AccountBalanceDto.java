@@ -0,0 +1,21 @@
+package com.telepesa.account.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Balance of one account as read by ledger reconciliation.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class AccountBalanceDto {
+    private Long id;
+    private BigDecimal balance;
+    private String status;
+    private LocalDateTime updatedAt;
+}
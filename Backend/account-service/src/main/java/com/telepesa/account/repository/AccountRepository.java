@@ -1,6 +1,8 @@
 package com.telepesa.account.repository;
 
+import com.telepesa.account.dto.AccountBalanceDto;
 import com.telepesa.account.entity.Account;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
@@ -20,4 +22,15 @@ public interface AccountRepository extends JpaRepository<Account, Long> {
 
     @Query("SELECT a FROM Account a WHERE a.userId = :userId AND a.status = :status")
     List<Account> findByUserIdAndStatus(@Param("userId") Long userId, @Param("status") String status);
+
+    // Keyset page of balances in id order, bounded above so callers can scan disjoint id ranges in parallel
+    @Query("SELECT new com.telepesa.account.dto.AccountBalanceDto(a.id, a.balance, a.status, a.updatedAt) " +
+           "FROM Account a WHERE a.id > :afterId AND a.id <= :toId ORDER BY a.id")
+    List<AccountBalanceDto> findBalancesPage(@Param("afterId") Long afterId, @Param("toId") Long toId, Pageable pageable);
+
+    @Query("SELECT MIN(a.id) FROM Account a")
+    Optional<Long> findMinId();
+
+    @Query("SELECT MAX(a.id) FROM Account a")
+    Optional<Long> findMaxId();
 }
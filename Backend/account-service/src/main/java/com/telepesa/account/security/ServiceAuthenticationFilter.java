@@ -0,0 +1,48 @@
+package com.telepesa.account.security;
+
+import com.maelcolium.telepesa.models.auth.ServiceAuthToken;
+import com.maelcolium.telepesa.models.auth.ServiceAuthenticationService;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Authenticates calls from other services by their service token, with a {@code SERVICE_}
+ * authority per permission the token grants
+ */
+@Component
+public class ServiceAuthenticationFilter extends OncePerRequestFilter {
+
+    private final ServiceAuthenticationService serviceAuthService;
+
+    public ServiceAuthenticationFilter(ServiceAuthenticationService serviceAuthService) {
+        this.serviceAuthService = serviceAuthService;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response,
+                                    FilterChain filterChain) throws ServletException, IOException {
+        String authHeader = request.getHeader("Authorization");
+        if (authHeader != null && authHeader.startsWith("Bearer ")) {
+            ServiceAuthToken serviceToken = serviceAuthService.validateServiceToken(authHeader.substring(7));
+            if (serviceToken != null && !serviceToken.isExpired()) {
+                List<SimpleGrantedAuthority> authorities = Arrays.stream(serviceToken.getPermissions())
+                        .map(permission -> new SimpleGrantedAuthority("SERVICE_" + permission))
+                        .toList();
+                SecurityContextHolder.getContext().setAuthentication(
+                        new UsernamePasswordAuthenticationToken(serviceToken.getServiceName(), null, authorities));
+            }
+        }
+        filterChain.doFilter(request, response);
+    }
+}
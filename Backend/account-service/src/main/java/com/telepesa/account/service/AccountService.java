@@ -1,16 +1,20 @@
 package com.telepesa.account.service;
 
+import com.telepesa.account.dto.AccountBalanceDto;
 import com.telepesa.account.dto.AccountDto;
 import com.telepesa.account.entity.Account;
 import com.telepesa.account.repository.AccountRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.UUID;
 import java.util.stream.Collectors;
@@ -75,6 +79,22 @@ public class AccountService {
                 });
     }
 
+    @Transactional(readOnly = true)
+    public List<AccountBalanceDto> getBalancesPage(Long afterId, Long toId, int limit) {
+        return accountRepository.findBalancesPage(afterId, toId, PageRequest.of(0, limit));
+    }
+
+    /**
+     * Lowest and highest account ids, or {@code null}s when there are no accounts.
+     */
+    @Transactional(readOnly = true)
+    public Map<String, Long> getAccountIdRange() {
+        Map<String, Long> range = new HashMap<>();
+        range.put("minId", accountRepository.findMinId().orElse(null));
+        range.put("maxId", accountRepository.findMaxId().orElse(null));
+        return range;
+    }
+
     private AccountDto convertToDto(Account account) {
         return new AccountDto(
                 account.getId(),
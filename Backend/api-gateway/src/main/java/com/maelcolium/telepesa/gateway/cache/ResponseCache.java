@@ -0,0 +1,243 @@
+package com.maelcolium.telepesa.gateway.cache;
+
+import com.maelcolium.telepesa.gateway.config.ResponseCacheProperties;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.stereotype.Component;
+import org.springframework.web.util.pattern.PathPattern;
+import org.springframework.web.util.pattern.PathPatternParser;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Responses of near-static routes, held in gateway memory until their route's TTL passes or
+ * they are purged.
+ *
+ * <p>An entry is keyed by route, path and query, plus the values of the request headers that
+ * select a representation: those configured for the route and those the upstream named in
+ * {@code Vary}. The names learned from {@code Vary} are remembered per path and query, so later
+ * lookups key on them too. Responses with {@code Vary: *}, {@code Set-Cookie} or a
+ * {@code Cache-Control} of {@code no-store}, {@code no-cache} or {@code private} are not
+ * stored.</p>
+ */
+@Component
+public class ResponseCache {
+
+    /**
+     * Upstream headers replayed with a cached body; everything else is per exchange
+     */
+    private static final List<String> STORED_HEADERS = List.of(
+        HttpHeaders.CONTENT_TYPE, HttpHeaders.CONTENT_ENCODING, HttpHeaders.CONTENT_LANGUAGE, HttpHeaders.CACHE_CONTROL);
+    private static final Set<String> UNCACHEABLE_DIRECTIVES = Set.of("no-store", "no-cache", "private");
+
+    /**
+     * A cached response
+     *
+     * @param route     the name of the route it was cached for
+     * @param etag      strong entity tag, derived from the body
+     * @param headers   the stored upstream headers
+     * @param vary      the request headers the entry was keyed on
+     * @param body      the body as sent by the upstream, possibly encoded
+     * @param storedAt  when it was stored
+     * @param expiresAt when it is dropped
+     */
+    public record CachedResponse(String route, String etag, HttpHeaders headers, List<String> vary,
+                                 byte[] body, Instant storedAt, Instant expiresAt) {
+
+        public long ageSeconds(Instant now) {
+            return Math.max(0, Duration.between(storedAt, now).getSeconds());
+        }
+    }
+
+    private record CompiledRoute(String name, List<PathPattern> patterns) {
+    }
+
+    private final ResponseCacheProperties properties;
+    private final List<CompiledRoute> routes;
+    // Vary names learned from upstream responses, by base key
+    private final Map<String, List<String>> varyByBaseKey = new ConcurrentHashMap<>();
+    // Guarded by itself; access order, so the least recently used entry is dropped first
+    private final Map<String, CachedResponse> entries;
+
+    public ResponseCache(ResponseCacheProperties properties, MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.routes = properties.getRoutes().entrySet().stream()
+            .map(route -> new CompiledRoute(route.getKey(),
+                route.getValue().getPaths().stream().map(PathPatternParser.defaultInstance::parse).toList()))
+            .toList();
+        this.entries = new LinkedHashMap<>(64, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, CachedResponse> eldest) {
+                return size() > properties.getMaxEntries();
+            }
+        };
+        meterRegistry.gauge("gateway.response.cache.size", this, ResponseCache::size);
+    }
+
+    /**
+     * The name of the cached route the request's path falls under, or {@code null}
+     */
+    public String routeFor(ServerHttpRequest request) {
+        for (CompiledRoute route : routes) {
+            for (PathPattern pattern : route.patterns()) {
+                if (pattern.matches(request.getPath().pathWithinApplication())) {
+                    return route.name();
+                }
+            }
+        }
+        return null;
+    }
+
+    public boolean hasRoute(String route) {
+        return properties.getRoutes().containsKey(route);
+    }
+
+    public CachedResponse get(String route, ServerHttpRequest request) {
+        String baseKey = baseKey(route, request);
+        List<String> vary = varyByBaseKey.getOrDefault(baseKey, properties.getRoutes().get(route).getVary());
+        String key = key(baseKey, vary, request);
+        synchronized (entries) {
+            CachedResponse cached = entries.get(key);
+            if (cached != null && !cached.expiresAt().isAfter(Instant.now())) {
+                entries.remove(key);
+                return null;
+            }
+            return cached;
+        }
+    }
+
+    /**
+     * Store a 200 response to the request.
+     *
+     * @return the stored entry, or {@code null} if the response may not be cached
+     */
+    public CachedResponse put(String route, ServerHttpRequest request, HttpHeaders responseHeaders, byte[] body) {
+        if (!isStorable(responseHeaders) || body.length > properties.getMaxBodyBytes()) {
+            return null;
+        }
+        Set<String> names = new LinkedHashSet<>();
+        properties.getRoutes().get(route).getVary().forEach(name -> names.add(name.toLowerCase(Locale.ROOT)));
+        responseHeaders.getVary().forEach(name -> names.add(name.toLowerCase(Locale.ROOT)));
+        List<String> vary = List.copyOf(names);
+
+        String baseKey = baseKey(route, request);
+        if (varyByBaseKey.size() >= properties.getMaxEntries()) {
+            // Bounded like the entries; dropped names are learned again from the next response
+            varyByBaseKey.clear();
+        }
+        varyByBaseKey.put(baseKey, vary);
+
+        HttpHeaders headers = new HttpHeaders();
+        STORED_HEADERS.forEach(name -> {
+            List<String> values = responseHeaders.get(name);
+            if (values != null) {
+                headers.put(name, new ArrayList<>(values));
+            }
+        });
+        Instant now = Instant.now();
+        CachedResponse cached = new CachedResponse(route, etag(body), HttpHeaders.readOnlyHttpHeaders(headers), vary,
+            body, now, now.plus(properties.getRoutes().get(route).getTtl()));
+        synchronized (entries) {
+            entries.put(key(baseKey, vary, request), cached);
+        }
+        return cached;
+    }
+
+    /**
+     * Drop every entry of a route
+     *
+     * @return how many entries were dropped
+     */
+    public int purge(String route) {
+        varyByBaseKey.keySet().removeIf(baseKey -> baseKey.startsWith(route + " "));
+        synchronized (entries) {
+            int before = entries.size();
+            entries.values().removeIf(cached -> cached.route().equals(route));
+            return before - entries.size();
+        }
+    }
+
+    public int purgeAll() {
+        varyByBaseKey.clear();
+        synchronized (entries) {
+            int purged = entries.size();
+            entries.clear();
+            return purged;
+        }
+    }
+
+    public int size() {
+        synchronized (entries) {
+            return entries.size();
+        }
+    }
+
+    /**
+     * Whether the request's {@code If-None-Match} matches the entity tag, comparing weakly as
+     * conditional GETs do
+     */
+    public static boolean matchesIfNoneMatch(ServerHttpRequest request, String etag) {
+        for (String candidate : request.getHeaders().getIfNoneMatch()) {
+            if ("*".equals(candidate) || opaqueTag(candidate).equals(opaqueTag(etag))) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    static String etag(byte[] body) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(body);
+            return "\"" + Base64.getUrlEncoder().withoutPadding().encodeToString(digest).substring(0, 32) + "\"";
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    private static boolean isStorable(HttpHeaders headers) {
+        if (headers.containsKey(HttpHeaders.SET_COOKIE) || headers.getVary().contains("*")) {
+            return false;
+        }
+        for (String value : headers.getOrEmpty(HttpHeaders.CACHE_CONTROL)) {
+            for (String directive : value.split(",")) {
+                String name = directive.trim().toLowerCase(Locale.ROOT);
+                int equals = name.indexOf('=');
+                if (UNCACHEABLE_DIRECTIVES.contains(equals < 0 ? name : name.substring(0, equals))) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    private static String opaqueTag(String etag) {
+        return etag.startsWith("W/") ? etag.substring(2) : etag;
+    }
+
+    private static String baseKey(String route, ServerHttpRequest request) {
+        String query = request.getURI().getRawQuery();
+        return route + " " + request.getPath().value() + (query != null ? "?" + query : "");
+    }
+
+    private static String key(String baseKey, List<String> vary, ServerHttpRequest request) {
+        StringBuilder key = new StringBuilder(baseKey);
+        for (String name : vary) {
+            key.append('\n').append(name).append(':')
+                .append(String.join(",", request.getHeaders().getOrEmpty(name)));
+        }
+        return key.toString();
+    }
+}
@@ -0,0 +1,77 @@
+package com.maelcolium.telepesa.gateway.cache;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.redis.core.ReactiveStringRedisTemplate;
+import org.springframework.stereotype.Service;
+import reactor.core.Disposable;
+import reactor.core.publisher.Mono;
+import reactor.util.retry.Retry;
+
+import java.time.Duration;
+
+/**
+ * Purges the {@link ResponseCache} on every gateway instance. A purge is applied locally at once
+ * and published on {@link #CHANNEL} for the other instances, as token revocations are. While
+ * Redis is unreachable a purge only reaches the instance it was made on; the others drop their
+ * entries when the route's TTL passes.
+ */
+@Service
+@Slf4j
+public class ResponseCachePurgeService {
+
+    public static final String CHANNEL = "gateway:response-cache-purges";
+
+    private static final String ALL_ROUTES = "*";
+
+    private final ResponseCache cache;
+    private final ReactiveStringRedisTemplate redisTemplate;
+    private Disposable subscription;
+
+    public ResponseCachePurgeService(ResponseCache cache, ReactiveStringRedisTemplate redisTemplate) {
+        this.cache = cache;
+        this.redisTemplate = redisTemplate;
+    }
+
+    @PostConstruct
+    public void subscribe() {
+        subscription = redisTemplate.listenToChannel(CHANNEL)
+            .doOnNext(message -> apply(message.getMessage()))
+            .doOnError(e -> log.warn("Response cache purge subscription failed; retrying: {}", e.getMessage()))
+            .retryWhen(Retry.backoff(Long.MAX_VALUE, Duration.ofSeconds(1)).maxBackoff(Duration.ofSeconds(30)))
+            .subscribe();
+    }
+
+    /**
+     * @return how many entries this instance dropped
+     */
+    public Mono<Integer> purge(String route) {
+        int purged = cache.purge(route);
+        return publish(route).thenReturn(purged);
+    }
+
+    public Mono<Integer> purgeAll() {
+        int purged = cache.purgeAll();
+        return publish(ALL_ROUTES).thenReturn(purged);
+    }
+
+    private Mono<Void> publish(String message) {
+        return redisTemplate.convertAndSend(CHANNEL, message)
+            .doOnError(e -> log.warn("Failed to publish response cache purge; applied on this instance only", e))
+            .onErrorResume(e -> Mono.empty())
+            .then();
+    }
+
+    private void apply(String message) {
+        int purged = ALL_ROUTES.equals(message) ? cache.purgeAll() : cache.purge(message);
+        log.debug("Purged {} cached responses for {}", purged, message);
+    }
+
+    @PreDestroy
+    public void close() {
+        if (subscription != null) {
+            subscription.dispose();
+        }
+    }
+}
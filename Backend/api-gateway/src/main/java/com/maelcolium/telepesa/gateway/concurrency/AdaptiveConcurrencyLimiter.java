@@ -0,0 +1,128 @@
+package com.maelcolium.telepesa.gateway.concurrency;
+
+import com.maelcolium.telepesa.gateway.config.ConcurrencyLimitProperties;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Concurrency limit of one downstream route, adapted to its measured latency.
+ *
+ * <p>Samples are collected in windows. After each window the limit is recomputed from the
+ * gradient between the long-term and the window's average round-trip time: while responses are
+ * as fast as usual the limit grows by about its square root, and as they slow down it shrinks in
+ * proportion. A window with failed or timed out calls multiplies the limit by the backoff ratio
+ * instead. The limit does not grow while fewer than half of it are in use.</p>
+ */
+public class AdaptiveConcurrencyLimiter {
+
+    /**
+     * Order in which requests are shed, sheddable first
+     */
+    public enum Priority {
+        CRITICAL, NORMAL, SHEDDABLE
+    }
+
+    private final ConcurrencyLimitProperties properties;
+    private final AtomicInteger inflight = new AtomicInteger();
+    private volatile double limit;
+
+    // Guarded by this
+    private double longRttNanos;
+    private long windowStart = System.nanoTime();
+    private int windowSamples;
+    private long windowRttSum;
+    private int windowMaxInflight;
+    private boolean windowDropped;
+
+    public AdaptiveConcurrencyLimiter(ConcurrencyLimitProperties properties) {
+        this.properties = properties;
+        this.limit = properties.getInitialLimit();
+    }
+
+    /**
+     * Take a slot for a request of the priority, unless that would exceed its share of the limit
+     *
+     * @return whether the request may proceed; if so, {@link #release} must follow
+     */
+    public boolean tryAcquire(Priority priority) {
+        double share = switch (priority) {
+            case CRITICAL -> 1.0;
+            case NORMAL -> properties.getNormalShare();
+            case SHEDDABLE -> properties.getSheddableShare();
+        };
+        int allowed = Math.max(1, (int) (limit * share));
+        while (true) {
+            int current = inflight.get();
+            if (current >= allowed) {
+                return false;
+            }
+            if (inflight.compareAndSet(current, current + 1)) {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Give back a slot and record how the request went
+     *
+     * @param rttNanos how long the request took
+     * @param dropped  whether it failed or timed out in a way that suggests overload
+     */
+    public void release(long rttNanos, boolean dropped) {
+        int inflightBefore = inflight.getAndDecrement();
+        sample(rttNanos, inflightBefore, dropped);
+    }
+
+    public int getLimit() {
+        return (int) limit;
+    }
+
+    public int getInflight() {
+        return inflight.get();
+    }
+
+    private synchronized void sample(long rttNanos, int inflightAtEnd, boolean dropped) {
+        windowSamples++;
+        windowRttSum += rttNanos;
+        windowMaxInflight = Math.max(windowMaxInflight, inflightAtEnd);
+        windowDropped |= dropped;
+
+        long now = System.nanoTime();
+        if (now - windowStart < properties.getWindow().toNanos() || windowSamples < properties.getMinWindowSamples()) {
+            return;
+        }
+        double shortRtt = (double) windowRttSum / windowSamples;
+        update(shortRtt);
+
+        windowStart = now;
+        windowSamples = 0;
+        windowRttSum = 0;
+        windowMaxInflight = 0;
+        windowDropped = false;
+    }
+
+    private void update(double shortRtt) {
+        if (longRttNanos == 0) {
+            longRttNanos = shortRtt;
+        } else {
+            longRttNanos = longRttNanos * 0.95 + shortRtt * 0.05;
+        }
+        // After a long slowdown the baseline has crept up; let it recover towards the current latency
+        if (longRttNanos / shortRtt > 2) {
+            longRttNanos *= 0.95;
+        }
+
+        double newLimit;
+        if (windowDropped) {
+            newLimit = limit * properties.getBackoffRatio();
+        } else if (windowMaxInflight < limit / 2) {
+            // Not using the limit, so latency says nothing about whether it could be higher
+            return;
+        } else {
+            double gradient = Math.max(0.5, Math.min(1.0, properties.getRttTolerance() * longRttNanos / shortRtt));
+            double grown = limit * gradient + Math.sqrt(limit);
+            newLimit = limit * (1 - properties.getSmoothing()) + grown * properties.getSmoothing();
+        }
+        limit = Math.max(properties.getMinLimit(), Math.min(properties.getMaxLimit(), newLimit));
+    }
+}
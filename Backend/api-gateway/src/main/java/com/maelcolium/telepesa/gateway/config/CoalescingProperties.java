@@ -0,0 +1,34 @@
+package com.maelcolium.telepesa.gateway.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+@Data
+@Component
+@ConfigurationProperties(prefix = "app.gateway.coalescing")
+public class CoalescingProperties {
+
+    private boolean enabled = true;
+
+    /**
+     * Routes whose identical concurrent GETs share one upstream call, as path patterns by name;
+     * the name tags the metrics.
+     */
+    private Map<String, List<String>> routes = new LinkedHashMap<>();
+
+    /**
+     * Larger responses are not shared; the requests that waited for them go upstream themselves.
+     */
+    private int maxBodyBytes = 1024 * 1024;
+
+    /**
+     * How long a request waits for the call it joined before going upstream itself.
+     */
+    private Duration maxWait = Duration.ofSeconds(10);
+}
@@ -0,0 +1,65 @@
+package com.maelcolium.telepesa.gateway.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+@Data
+@Component
+@ConfigurationProperties(prefix = "app.gateway.concurrency")
+public class ConcurrencyLimitProperties {
+
+    private boolean enabled = true;
+
+    private int initialLimit = 50;
+
+    private int minLimit = 4;
+
+    private int maxLimit = 1_000;
+
+    /**
+     * How much of each new limit estimate is taken on; lower is steadier but slower to react.
+     */
+    private double smoothing = 0.2;
+
+    /**
+     * How much slower than usual responses may get before the limit is lowered.
+     */
+    private double rttTolerance = 1.5;
+
+    /**
+     * Factor the limit is multiplied by after a window with failed or timed out calls.
+     */
+    private double backoffRatio = 0.9;
+
+    /**
+     * Shortest window of samples the limit is recomputed from.
+     */
+    private Duration window = Duration.ofMillis(250);
+
+    private int minWindowSamples = 10;
+
+    /**
+     * Requests shed last; they may use the whole limit.
+     */
+    private List<String> criticalPaths = new ArrayList<>();
+
+    /**
+     * Requests shed first; checked before the critical paths.
+     */
+    private List<String> sheddablePaths = new ArrayList<>();
+
+    /**
+     * Share of the limit normal requests may use, so some is left for critical ones.
+     */
+    private double normalShare = 0.9;
+
+    /**
+     * Share of the limit sheddable requests may use.
+     */
+    private double sheddableShare = 0.7;
+}
@@ -0,0 +1,34 @@
+package com.maelcolium.telepesa.gateway.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+@Data
+@Component
+@ConfigurationProperties(prefix = "app.gateway.dashboard")
+public class DashboardProperties {
+
+    /**
+     * How long each part of the dashboard may take before it is left out of the response.
+     */
+    private Duration timeout = Duration.ofSeconds(2);
+
+    /**
+     * Timeouts of single parts, by part name, overriding {@link #timeout}.
+     */
+    private Map<String, Duration> timeouts = new LinkedHashMap<>();
+
+    /**
+     * How many of the latest transactions the dashboard shows.
+     */
+    private int recentTransactions = 5;
+
+    public Duration timeoutFor(String part) {
+        return timeouts.getOrDefault(part, timeout);
+    }
+}
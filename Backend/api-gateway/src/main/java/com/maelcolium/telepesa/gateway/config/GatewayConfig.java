@@ -1,5 +1,8 @@
 package com.maelcolium.telepesa.gateway.config;
 
+import com.maelcolium.telepesa.gateway.security.CachingReactiveJwtDecoder;
+import com.maelcolium.telepesa.gateway.security.VerifiedTokenCache;
+import io.micrometer.core.instrument.MeterRegistry;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
@@ -9,6 +12,9 @@ import org.springframework.security.config.web.server.ServerHttpSecurity;
 import org.springframework.security.oauth2.jwt.ReactiveJwtDecoder;
 import org.springframework.security.oauth2.jwt.NimbusReactiveJwtDecoder;
 import org.springframework.security.oauth2.jose.jws.MacAlgorithm;
+import org.springframework.security.oauth2.server.resource.authentication.JwtAuthenticationConverter;
+import org.springframework.security.oauth2.server.resource.authentication.JwtGrantedAuthoritiesConverter;
+import org.springframework.security.oauth2.server.resource.authentication.ReactiveJwtAuthenticationConverterAdapter;
 import org.springframework.security.web.server.SecurityWebFilterChain;
 import org.springframework.web.cors.CorsConfiguration;
 import org.springframework.web.cors.reactive.CorsWebFilter;
@@ -34,20 +40,38 @@ public class GatewayConfig {
     @Value("${app.jwt.secret:default-secret-key-for-development}")
     private String jwtSecret;
 
+    /**
+     * Verifies each distinct token's signature once and serves repeats from the verified-token cache
+     */
     @Bean
-    public ReactiveJwtDecoder reactiveJwtDecoder() {
+    public ReactiveJwtDecoder reactiveJwtDecoder(VerifiedTokenCache verifiedTokenCache, MeterRegistry meterRegistry) {
         SecretKey secretKey = new SecretKeySpec(
             jwtSecret.getBytes(StandardCharsets.UTF_8), 
             "HmacSHA512"
         );
-        return NimbusReactiveJwtDecoder.withSecretKey(secretKey).macAlgorithm(MacAlgorithm.HS512).build();
+        ReactiveJwtDecoder verifyingDecoder = NimbusReactiveJwtDecoder.withSecretKey(secretKey).macAlgorithm(MacAlgorithm.HS512).build();
+        return new CachingReactiveJwtDecoder(verifyingDecoder, verifiedTokenCache, meterRegistry);
+    }
+
+    /**
+     * Maps the token's roles claim to ROLE_ authorities, so role checks such as the admin paths apply
+     */
+    private ReactiveJwtAuthenticationConverterAdapter jwtAuthenticationConverter() {
+        JwtGrantedAuthoritiesConverter authoritiesConverter = new JwtGrantedAuthoritiesConverter();
+        authoritiesConverter.setAuthoritiesClaimName("roles");
+        authoritiesConverter.setAuthorityPrefix("ROLE_");
+        JwtAuthenticationConverter converter = new JwtAuthenticationConverter();
+        converter.setJwtGrantedAuthoritiesConverter(authoritiesConverter);
+        return new ReactiveJwtAuthenticationConverterAdapter(converter);
     }
 
     @Bean
-    public SecurityWebFilterChain springSecurityFilterChain(ServerHttpSecurity http) {
+    public SecurityWebFilterChain springSecurityFilterChain(ServerHttpSecurity http, ReactiveJwtDecoder jwtDecoder) {
         return http
             .csrf(csrf -> csrf.disable())
             .authorizeExchange(exchanges -> exchanges
+                // Service-to-service endpoints are only reachable inside the network
+                .pathMatchers("/api/v1/*/internal/**").denyAll()
                 // Allow OPTIONS requests for CORS preflight
                 .pathMatchers(HttpMethod.OPTIONS, "/**").permitAll()
                 // Public endpoints - allow all actuator endpoints
@@ -81,10 +105,13 @@ public class GatewayConfig {
                 .pathMatchers("/api/v1/loans/**").authenticated()
                 .pathMatchers("/api/v1/transfers/**").authenticated()
                 .pathMatchers("/api/v1/notifications/**").authenticated()
+                .pathMatchers("/api/v1/dashboard").authenticated()
                 .pathMatchers("/api/v1/admin/**").hasRole("ADMIN")
                 .anyExchange().authenticated()
             )
-            .oauth2ResourceServer(oauth2 -> oauth2.jwt(jwt -> jwt.jwtDecoder(reactiveJwtDecoder())))
+            .oauth2ResourceServer(oauth2 -> oauth2.jwt(jwt -> jwt
+                .jwtDecoder(jwtDecoder)
+                .jwtAuthenticationConverter(jwtAuthenticationConverter())))
             .httpBasic(httpBasic -> httpBasic.disable())
             .formLogin(formLogin -> formLogin.disable())
             .build();
@@ -0,0 +1,75 @@
+package com.maelcolium.telepesa.gateway.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+@Data
+@Component
+@ConfigurationProperties(prefix = "app.gateway.hedging")
+public class HedgingProperties {
+
+    /**
+     * Whether slow GETs are hedged. Failed GETs of the routes below are retried on another
+     * instance either way.
+     */
+    private boolean enabled = true;
+
+    /**
+     * Ids of the routes whose GETs are routed by the hedging filter, and retried within its
+     * budget when they fail. These routes must not have a Retry filter as well.
+     */
+    private List<String> routes = new ArrayList<>();
+
+    /**
+     * Path patterns of the cheap GETs of those routes that are also hedged when slow. Anything
+     * slow or large to produce, such as exports, is only retried.
+     */
+    private List<String> paths = new ArrayList<>();
+
+    /**
+     * Percentile of a route's latency after which a second request is sent.
+     */
+    private double percentile = 0.95;
+
+    /**
+     * Latencies kept per route to estimate the percentile from.
+     */
+    private int samples = 1_000;
+
+    /**
+     * Fewer latencies than this and requests are not hedged yet.
+     */
+    private int minSamples = 50;
+
+    /**
+     * Requests are never hedged sooner than this.
+     */
+    private Duration minDelay = Duration.ofMillis(20);
+
+    /**
+     * Second requests, hedges and retries alike, allowed per request to the route.
+     */
+    private double budgetRatio = 0.1;
+
+    /**
+     * Second requests allowed per second regardless of traffic, so quiet routes can retry too.
+     */
+    private double budgetMinPerSecond = 1.0;
+
+    /**
+     * Most second requests that may be saved up by a route.
+     */
+    private double budgetMax = 20;
+
+    /**
+     * Responses treated as failures and retried on another instance.
+     */
+    private List<HttpStatus> retryStatuses = new ArrayList<>(List.of(
+        HttpStatus.BAD_GATEWAY, HttpStatus.SERVICE_UNAVAILABLE, HttpStatus.GATEWAY_TIMEOUT));
+}
@@ -0,0 +1,19 @@
+package com.maelcolium.telepesa.gateway.config;
+
+import com.maelcolium.telepesa.gateway.loadbalancer.LatencyAwareLoadBalancerConfiguration;
+import org.springframework.cloud.loadbalancer.annotation.LoadBalancerClients;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Load Balancer Configuration for API Gateway
+ *
+ * Routes to {@code lb://} services, and the gateway's own load-balanced calls, choose instances
+ * by latency and calls in flight instead of round robin.
+ *
+ * @author Telepesa Development Team
+ * @version 1.0.0
+ */
+@Configuration
+@LoadBalancerClients(defaultConfiguration = LatencyAwareLoadBalancerConfiguration.class)
+public class LoadBalancerConfig {
+}
@@ -0,0 +1,30 @@
+package com.maelcolium.telepesa.gateway.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+@Data
+@Component
+@ConfigurationProperties(prefix = "app.gateway.load-balancing")
+public class LoadBalancingProperties {
+
+    /**
+     * How quickly an instance's latency estimate forgets old responses; after this long without
+     * one it has fallen to about a third.
+     */
+    private Duration decay = Duration.ofSeconds(10);
+
+    /**
+     * Latency recorded for a failed call or 5xx response, so an instance failing fast does not
+     * look fast and draw more traffic.
+     */
+    private Duration failurePenalty = Duration.ofSeconds(1);
+
+    /**
+     * Statistics of instances not called for this long are dropped.
+     */
+    private Duration idleExpiry = Duration.ofMinutes(10);
+}
@@ -1,17 +1,26 @@
 package com.maelcolium.telepesa.gateway.config;
 
+import com.maelcolium.telepesa.gateway.ratelimit.HybridRateLimiter;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.cloud.gateway.filter.ratelimit.KeyResolver;
-import org.springframework.cloud.gateway.filter.ratelimit.RedisRateLimiter;
+import org.springframework.cloud.gateway.support.ipresolver.XForwardedRemoteAddressResolver;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.context.annotation.Primary;
+import org.springframework.data.redis.core.ReactiveStringRedisTemplate;
 import reactor.core.publisher.Mono;
 
+import java.net.InetSocketAddress;
+import java.security.Principal;
+import java.time.Duration;
+
 /**
  * Rate Limiting Configuration for API Gateway
  * 
- * This configuration provides rate limiting capabilities using Redis
- * to prevent abuse and ensure fair usage of the API endpoints.
+ * This configuration provides rate limiting capabilities to prevent abuse
+ * and ensure fair usage of the API endpoints. Requests are admitted from
+ * in-memory token buckets that are reconciled with Redis in the background,
+ * see {@link HybridRateLimiter}.
  * 
  * @author Telepesa Development Team
  * @version 1.0
@@ -19,58 +28,75 @@ import reactor.core.publisher.Mono;
 @Configuration
 public class RateLimitingConfig {
 
+    private final ReactiveStringRedisTemplate redisTemplate;
+    private final Duration syncInterval;
+    private final int maxKeys;
+    private final XForwardedRemoteAddressResolver clientAddressResolver;
+
+    public RateLimitingConfig(ReactiveStringRedisTemplate redisTemplate,
+                              @Value("${app.gateway.rate-limit.sync-interval-ms:100}") long syncIntervalMs,
+                              @Value("${app.gateway.rate-limit.max-keys:200000}") int maxKeys,
+                              @Value("${app.gateway.rate-limit.trusted-proxies:1}") int trustedProxies) {
+        this.redisTemplate = redisTemplate;
+        this.syncInterval = Duration.ofMillis(syncIntervalMs);
+        this.maxKeys = maxKeys;
+        this.clientAddressResolver = XForwardedRemoteAddressResolver.maxTrustedIndex(trustedProxies);
+    }
+
     /**
      * Creates a rate limiter for public endpoints
-     * Allows 100 requests per minute for public endpoints
+     * Allows 100 requests per second, in bursts of up to 120
      */
     @Bean
     @Primary
-    public RedisRateLimiter publicRateLimiter() {
-        return new RedisRateLimiter(100, 120, 1);
+    public HybridRateLimiter publicRateLimiter() {
+        return new HybridRateLimiter(100, 120, 1, redisTemplate, syncInterval, maxKeys);
     }
 
     /**
      * Creates a rate limiter for authenticated endpoints
-     * Allows 300 requests per minute for authenticated users
+     * Allows 300 requests per second, in bursts of up to 350
      */
     @Bean
-    public RedisRateLimiter authenticatedRateLimiter() {
-        return new RedisRateLimiter(300, 350, 1);
+    public HybridRateLimiter authenticatedRateLimiter() {
+        return new HybridRateLimiter(300, 350, 1, redisTemplate, syncInterval, maxKeys);
     }
 
     /**
      * Creates a rate limiter for admin endpoints
-     * Allows 500 requests per minute for admin users
+     * Allows 500 requests per second, in bursts of up to 600
      */
     @Bean
-    public RedisRateLimiter adminRateLimiter() {
-        return new RedisRateLimiter(500, 600, 1);
+    public HybridRateLimiter adminRateLimiter() {
+        return new HybridRateLimiter(500, 600, 1, redisTemplate, syncInterval, maxKeys);
     }
 
     /**
      * Key resolver for IP-based rate limiting
-     * Uses client IP address as the key for rate limiting
+     * Uses the client IP address as the key. Behind the load balancer every connection comes from
+     * a proxy, so the address is taken from X-Forwarded-For, counting only the entries appended by
+     * the trusted proxies in front of the gateway; entries before those are set by the client and
+     * could be forged to get a fresh bucket.
      */
     @Bean
     @Primary
     public KeyResolver ipKeyResolver() {
         return exchange -> {
-            String clientIp = exchange.getRequest().getRemoteAddress() != null
-                ? exchange.getRequest().getRemoteAddress().getAddress().getHostAddress()
-                : "unknown";
-            return Mono.just(clientIp);
+            InetSocketAddress client = clientAddressResolver.resolve(exchange);
+            return Mono.just(client != null ? client.getHostString() : "unknown");
         };
     }
 
     /**
      * Key resolver for user-based rate limiting
-     * Uses authenticated user ID as the key for rate limiting
+     * Uses the authenticated user's name as the key, and the client IP for the public paths of
+     * authenticated routes, so anonymous callers do not all share one bucket
      */
     @Bean
     public KeyResolver userKeyResolver() {
+        KeyResolver ipKeyResolver = ipKeyResolver();
         return exchange -> exchange.getPrincipal()
-            .cast(Object.class)
-            .map(Object::toString)
-            .switchIfEmpty(Mono.just("anonymous"));
+            .map(Principal::getName)
+            .switchIfEmpty(Mono.defer(() -> ipKeyResolver.resolve(exchange)));
     }
-} 
\ No newline at end of file
+}
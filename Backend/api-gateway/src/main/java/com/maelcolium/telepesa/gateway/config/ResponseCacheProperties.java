@@ -0,0 +1,53 @@
+package com.maelcolium.telepesa.gateway.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.http.HttpHeaders;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+@Data
+@Component
+@ConfigurationProperties(prefix = "app.gateway.response-cache")
+public class ResponseCacheProperties {
+
+    private boolean enabled = true;
+
+    /**
+     * Most responses held across all routes; the least recently used is dropped first.
+     */
+    private int maxEntries = 1_000;
+
+    /**
+     * Larger responses are passed through without being cached.
+     */
+    private int maxBodyBytes = 256 * 1024;
+
+    /**
+     * Cached routes by name; the name is what the purge API takes.
+     */
+    private Map<String, Route> routes = new LinkedHashMap<>();
+
+    @Data
+    public static class Route {
+
+        /**
+         * Path patterns matched against the path the client called, before any rewrite.
+         */
+        private List<String> paths = new ArrayList<>();
+
+        private Duration ttl = Duration.ofMinutes(5);
+
+        /**
+         * Request headers that select a representation, in addition to those the response
+         * names in its {@code Vary} header.
+         */
+        private List<String> vary = new ArrayList<>(List.of(
+            HttpHeaders.ACCEPT, HttpHeaders.ACCEPT_ENCODING, HttpHeaders.ACCEPT_LANGUAGE));
+    }
+}
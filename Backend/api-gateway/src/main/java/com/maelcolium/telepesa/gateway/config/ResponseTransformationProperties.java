@@ -0,0 +1,25 @@
+package com.maelcolium.telepesa.gateway.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Data
+@Component
+@ConfigurationProperties(prefix = "app.gateway.response-transformation")
+public class ResponseTransformationProperties {
+
+    /**
+     * Whether responses get the request ID, processing time and gateway headers.
+     */
+    private boolean enabled = true;
+
+    /**
+     * Ids of the routes whose JSON object bodies also carry requestId and processingTime fields.
+     * Other routes' bodies are passed through as the service wrote them.
+     */
+    private List<String> envelopeRoutes = new ArrayList<>();
+}
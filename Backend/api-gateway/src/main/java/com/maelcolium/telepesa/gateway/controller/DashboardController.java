@@ -0,0 +1,37 @@
+package com.maelcolium.telepesa.gateway.controller;
+
+import com.maelcolium.telepesa.gateway.service.DashboardService;
+import org.springframework.http.CacheControl;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.oauth2.server.resource.authentication.JwtAuthenticationToken;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Mono;
+
+import java.util.Map;
+
+/**
+ * Serves the home screen in one call instead of one per service. Parts that could not be fetched
+ * in time are null and listed under {@code errors}, with {@code partial} set.
+ */
+@RestController
+@RequestMapping("/api/v1/dashboard")
+public class DashboardController {
+
+    private final DashboardService dashboardService;
+
+    public DashboardController(DashboardService dashboardService) {
+        this.dashboardService = dashboardService;
+    }
+
+    @GetMapping
+    public Mono<ResponseEntity<Map<String, Object>>> getDashboard(JwtAuthenticationToken authentication,
+                                                                  ServerWebExchange exchange) {
+        return dashboardService.getDashboard(authentication.getToken(), exchange.getRequest().getHeaders())
+            .map(dashboard -> ResponseEntity.ok()
+                .cacheControl(CacheControl.noStore())
+                .body(dashboard));
+    }
+}
@@ -0,0 +1,45 @@
+package com.maelcolium.telepesa.gateway.controller;
+
+import com.maelcolium.telepesa.gateway.cache.ResponseCache;
+import com.maelcolium.telepesa.gateway.cache.ResponseCachePurgeService;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import reactor.core.publisher.Mono;
+
+import java.util.Map;
+
+/**
+ * Purges cached catalog responses, such as billers, banks and loan products, on all gateway
+ * instances after the data behind them changed. Admin only, as is everything under
+ * {@code /api/v1/admin}.
+ */
+@RestController
+@RequestMapping("/api/v1/admin/cache/responses")
+public class ResponseCacheController {
+
+    private final ResponseCache cache;
+    private final ResponseCachePurgeService purgeService;
+
+    public ResponseCacheController(ResponseCache cache, ResponseCachePurgeService purgeService) {
+        this.cache = cache;
+        this.purgeService = purgeService;
+    }
+
+    @DeleteMapping
+    public Mono<ResponseEntity<Map<String, Object>>> purgeAll() {
+        return purgeService.purgeAll()
+            .map(purged -> ResponseEntity.accepted().body(Map.of("route", "*", "purged", purged)));
+    }
+
+    @DeleteMapping("/{route}")
+    public Mono<ResponseEntity<Map<String, Object>>> purge(@PathVariable String route) {
+        if (!cache.hasRoute(route)) {
+            return Mono.just(ResponseEntity.notFound().build());
+        }
+        return purgeService.purge(route)
+            .map(purged -> ResponseEntity.accepted().body(Map.of("route", route, "purged", purged)));
+    }
+}
@@ -0,0 +1,41 @@
+package com.maelcolium.telepesa.gateway.controller;
+
+import com.maelcolium.telepesa.gateway.security.TokenRevocationService;
+import org.springframework.http.ResponseEntity;
+import org.springframework.util.StringUtils;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import reactor.core.publisher.Mono;
+
+/**
+ * Revokes a single token, or every token of a subject issued until now, on all gateway instances.
+ * Admin only, as is everything under {@code /api/v1/admin}.
+ */
+@RestController
+@RequestMapping("/api/v1/admin/tokens/revocations")
+public class TokenRevocationController {
+
+    private final TokenRevocationService revocationService;
+
+    public TokenRevocationController(TokenRevocationService revocationService) {
+        this.revocationService = revocationService;
+    }
+
+    public record RevocationRequest(String token, String subject) {
+    }
+
+    @PostMapping
+    public Mono<ResponseEntity<Void>> revoke(@RequestBody RevocationRequest request) {
+        if (StringUtils.hasText(request.token())) {
+            return revocationService.revokeToken(request.token())
+                .thenReturn(ResponseEntity.accepted().build());
+        }
+        if (StringUtils.hasText(request.subject())) {
+            return revocationService.revokeSubject(request.subject())
+                .thenReturn(ResponseEntity.accepted().build());
+        }
+        return Mono.just(ResponseEntity.badRequest().build());
+    }
+}
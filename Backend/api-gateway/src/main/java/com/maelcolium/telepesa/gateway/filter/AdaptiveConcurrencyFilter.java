@@ -0,0 +1,153 @@
+package com.maelcolium.telepesa.gateway.filter;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.maelcolium.telepesa.gateway.concurrency.AdaptiveConcurrencyLimiter;
+import com.maelcolium.telepesa.gateway.concurrency.AdaptiveConcurrencyLimiter.Priority;
+import com.maelcolium.telepesa.gateway.config.ConcurrencyLimitProperties;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.filter.GlobalFilter;
+import org.springframework.cloud.gateway.filter.RouteToRequestUrlFilter;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.cloud.gateway.support.ServerWebExchangeUtils;
+import org.springframework.core.Ordered;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.MediaType;
+import org.springframework.http.server.PathContainer;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.util.pattern.PathPattern;
+import org.springframework.web.util.pattern.PathPatternParser;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.SignalType;
+
+import java.net.URI;
+import java.time.Instant;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Adaptive Concurrency Filter for API Gateway
+ *
+ * Limits the requests in flight to each downstream route with an
+ * {@link AdaptiveConcurrencyLimiter}, so a route that slows down gets less traffic instead of
+ * building queues. Requests over the limit are answered at once with 503 and
+ * {@code Retry-After}. Sheddable requests, such as docs and listings, are refused first, then
+ * normal ones; critical requests, such as authentication and transfers, may use the whole limit.
+ *
+ * Responses served by the gateway itself, from the response cache or a coalesced call, never
+ * reach this filter. Each route exports {@code gateway.concurrency.limit} and
+ * {@code gateway.concurrency.inflight} gauges.
+ *
+ * @author Telepesa Development Team
+ * @version 1.0.0
+ */
+@Slf4j
+@Component
+public class AdaptiveConcurrencyFilter implements GlobalFilter, Ordered {
+
+    private final ConcurrencyLimitProperties properties;
+    private final MeterRegistry meterRegistry;
+    private final ObjectMapper objectMapper;
+    private final List<PathPattern> criticalPaths;
+    private final List<PathPattern> sheddablePaths;
+    private final Map<String, AdaptiveConcurrencyLimiter> limiters = new ConcurrentHashMap<>();
+
+    public AdaptiveConcurrencyFilter(ConcurrencyLimitProperties properties, MeterRegistry meterRegistry,
+                                     ObjectMapper objectMapper) {
+        this.properties = properties;
+        this.meterRegistry = meterRegistry;
+        this.objectMapper = objectMapper;
+        this.criticalPaths = properties.getCriticalPaths().stream().map(PathPatternParser.defaultInstance::parse).toList();
+        this.sheddablePaths = properties.getSheddablePaths().stream().map(PathPatternParser.defaultInstance::parse).toList();
+    }
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, GatewayFilterChain chain) {
+        Route route = exchange.getAttribute(ServerWebExchangeUtils.GATEWAY_ROUTE_ATTR);
+        if (!properties.isEnabled() || route == null) {
+            return chain.filter(exchange);
+        }
+        AdaptiveConcurrencyLimiter limiter = limiters.computeIfAbsent(route.getId(), this::newLimiter);
+        Priority priority = priorityOf(exchange);
+        if (!limiter.tryAcquire(priority)) {
+            meterRegistry.counter("gateway.concurrency.rejected",
+                "route", route.getId(), "priority", priority.name().toLowerCase()).increment();
+            return overloaded(exchange.getResponse(), route.getId());
+        }
+
+        long start = System.nanoTime();
+        return chain.filter(exchange)
+            .doFinally(signal -> {
+                HttpStatusCode status = exchange.getResponse().getStatusCode();
+                boolean dropped = signal == SignalType.ON_ERROR || (status != null && status.is5xxServerError());
+                limiter.release(System.nanoTime() - start, dropped);
+            });
+    }
+
+    @Override
+    public int getOrder() {
+        // After the route's own filters, so only calls that go downstream hold a slot
+        return RouteToRequestUrlFilter.ROUTE_TO_URL_FILTER_ORDER - 1;
+    }
+
+    private AdaptiveConcurrencyLimiter newLimiter(String routeId) {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(properties);
+        Gauge.builder("gateway.concurrency.limit", limiter, AdaptiveConcurrencyLimiter::getLimit)
+            .tag("route", routeId)
+            .register(meterRegistry);
+        Gauge.builder("gateway.concurrency.inflight", limiter, AdaptiveConcurrencyLimiter::getInflight)
+            .tag("route", routeId)
+            .register(meterRegistry);
+        return limiter;
+    }
+
+    private Priority priorityOf(ServerWebExchange exchange) {
+        // The path the client called; route filters may have rewritten the request's since
+        Set<URI> originalUrls = exchange.getAttributeOrDefault(
+            ServerWebExchangeUtils.GATEWAY_ORIGINAL_REQUEST_URL_ATTR, Collections.emptySet());
+        PathContainer path = originalUrls.isEmpty()
+            ? exchange.getRequest().getPath().pathWithinApplication()
+            : PathContainer.parsePath(originalUrls.iterator().next().getRawPath());
+        for (PathPattern pattern : sheddablePaths) {
+            if (pattern.matches(path)) {
+                return Priority.SHEDDABLE;
+            }
+        }
+        for (PathPattern pattern : criticalPaths) {
+            if (pattern.matches(path)) {
+                return Priority.CRITICAL;
+            }
+        }
+        return Priority.NORMAL;
+    }
+
+    private Mono<Void> overloaded(ServerHttpResponse response, String routeId) {
+        Map<String, Object> body = new LinkedHashMap<>();
+        body.put("timestamp", Instant.now().toString());
+        body.put("status", "SERVICE_UNAVAILABLE");
+        body.put("service", routeId);
+        body.put("message", "Service is busy, please retry shortly");
+
+        response.setStatusCode(HttpStatus.SERVICE_UNAVAILABLE);
+        response.getHeaders().setContentType(MediaType.APPLICATION_JSON);
+        response.getHeaders().set(HttpHeaders.RETRY_AFTER, "1");
+        try {
+            byte[] bytes = objectMapper.writeValueAsBytes(body);
+            return response.writeWith(Mono.just(response.bufferFactory().wrap(bytes)));
+        } catch (JsonProcessingException e) {
+            log.error("Error writing overload response", e);
+            return response.setComplete();
+        }
+    }
+}
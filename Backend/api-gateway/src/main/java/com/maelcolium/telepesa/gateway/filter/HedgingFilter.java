@@ -0,0 +1,353 @@
+package com.maelcolium.telepesa.gateway.filter;
+
+import com.maelcolium.telepesa.gateway.config.HedgingProperties;
+import com.maelcolium.telepesa.gateway.loadbalancer.InstanceLoadStats;
+import com.maelcolium.telepesa.gateway.loadbalancer.LatencyAwareLoadBalancer;
+import com.maelcolium.telepesa.gateway.loadbalancer.LatencyWindow;
+import com.maelcolium.telepesa.gateway.loadbalancer.RetryBudget;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.cloud.client.loadbalancer.LoadBalancerUriTools;
+import org.springframework.cloud.client.loadbalancer.Response;
+import org.springframework.cloud.gateway.config.HttpClientProperties;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.filter.GlobalFilter;
+import org.springframework.cloud.gateway.filter.ReactiveLoadBalancerClientFilter;
+import org.springframework.cloud.gateway.filter.headers.HttpHeadersFilter;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.cloud.gateway.support.RouteMetadataUtils;
+import org.springframework.cloud.gateway.support.ServerWebExchangeUtils;
+import org.springframework.cloud.loadbalancer.core.ReactorServiceInstanceLoadBalancer;
+import org.springframework.cloud.loadbalancer.support.LoadBalancerClientFactory;
+import org.springframework.core.Ordered;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
+import org.springframework.http.server.PathContainer;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.util.pattern.PathPattern;
+import org.springframework.web.util.pattern.PathPatternParser;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+import reactor.netty.http.client.HttpClient;
+
+import java.net.URI;
+import java.time.Duration;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Hedging Filter for API Gateway
+ *
+ * Routes GETs of the routes listed under {@code app.gateway.hedging} itself, so it can send a
+ * second request to another instance of the service as soon as the first fails. GETs of the
+ * listed paths, which are cheap to serve twice, also get one when the first has not answered
+ * within the route's p95 latency. Whichever answers first is returned and the other cancelled.
+ * Second requests are limited by a {@link RetryBudget} per route, so they add a bounded share of
+ * traffic however slow or broken the service gets.
+ *
+ * Only GETs and HEADs without a body are sent twice. The listed routes have no {@code Retry}
+ * filter, so their retries all come out of the budget; other methods go through the gateway's
+ * own routing and are never retried.
+ *
+ * @author Telepesa Development Team
+ * @version 1.0.0
+ */
+@Slf4j
+@Component
+public class HedgingFilter implements GlobalFilter, Ordered {
+
+    /**
+     * A response that counts as a failure, kept to be returned if no second request does better
+     */
+    private static class FailedResponse extends RuntimeException {
+
+        private final HttpStatusCode status;
+        private final HttpHeaders headers;
+        private final byte[] body;
+
+        FailedResponse(HttpStatusCode status, HttpHeaders headers, byte[] body) {
+            super("Upstream answered " + status.value(), null, false, false);
+            this.status = status;
+            this.headers = headers;
+            this.body = body;
+        }
+    }
+
+    private final HedgingProperties properties;
+    private final LoadBalancerClientFactory clientFactory;
+    private final InstanceLoadStats stats;
+    private final HttpClientProperties httpClientProperties;
+    private final ObjectProvider<List<HttpHeadersFilter>> headersFiltersProvider;
+    private final MeterRegistry meterRegistry;
+    private final WebClient webClient;
+    private final List<PathPattern> paths;
+    private final Map<String, LatencyWindow> latencies = new ConcurrentHashMap<>();
+    private final Map<String, RetryBudget> budgets = new ConcurrentHashMap<>();
+
+    public HedgingFilter(HedgingProperties properties, LoadBalancerClientFactory clientFactory, InstanceLoadStats stats,
+                         HttpClient httpClient, HttpClientProperties httpClientProperties,
+                         ObjectProvider<List<HttpHeadersFilter>> headersFiltersProvider,
+                         WebClient.Builder webClientBuilder, MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.clientFactory = clientFactory;
+        this.stats = stats;
+        this.httpClientProperties = httpClientProperties;
+        this.headersFiltersProvider = headersFiltersProvider;
+        this.meterRegistry = meterRegistry;
+        this.paths = properties.getPaths().stream().map(PathPatternParser.defaultInstance::parse).toList();
+        // The gateway's own client, so its pool and TLS settings apply as for routed requests
+        this.webClient = webClientBuilder.clientConnector(new ReactorClientHttpConnector(httpClient)).build();
+    }
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, GatewayFilterChain chain) {
+        Route route = exchange.getAttribute(ServerWebExchangeUtils.GATEWAY_ROUTE_ATTR);
+        Response<ServiceInstance> chosen = exchange.getAttribute(ServerWebExchangeUtils.GATEWAY_LOADBALANCER_RESPONSE_ATTR);
+        URI url = exchange.getAttribute(ServerWebExchangeUtils.GATEWAY_REQUEST_URL_ATTR);
+        if (route == null || chosen == null || !chosen.hasServer() || url == null
+                || ServerWebExchangeUtils.isAlreadyRouted(exchange)
+                || !properties.getRoutes().contains(route.getId())
+                || !isHedgeable(exchange.getRequest(), url)) {
+            return chain.filter(exchange);
+        }
+        ReactorServiceInstanceLoadBalancer balancer = clientFactory.getInstance(
+            chosen.getServer().getServiceId(), ReactorServiceInstanceLoadBalancer.class);
+        if (!(balancer instanceof LatencyAwareLoadBalancer latencyAware)) {
+            return chain.filter(exchange);
+        }
+        ServerWebExchangeUtils.setAlreadyRouted(exchange);
+        return route(exchange, route, url, chosen.getServer(), latencyAware, isListedPath(exchange));
+    }
+
+    @Override
+    public int getOrder() {
+        // After the instance is chosen and its load recorded, instead of the Netty routing filter
+        return ReactiveLoadBalancerClientFilter.LOAD_BALANCER_CLIENT_FILTER_ORDER + 2;
+    }
+
+    private static boolean isHedgeable(ServerHttpRequest request, URI url) {
+        HttpMethod method = request.getMethod();
+        return (HttpMethod.GET.equals(method) || HttpMethod.HEAD.equals(method))
+            && request.getHeaders().getContentLength() <= 0
+            && !request.getHeaders().containsKey(HttpHeaders.TRANSFER_ENCODING)
+            && ("http".equals(url.getScheme()) || "https".equals(url.getScheme()));
+    }
+
+    /**
+     * Whether the path the client asked for, before any rewrite, is one of the listed ones
+     */
+    private boolean isListedPath(ServerWebExchange exchange) {
+        Set<URI> originalUrls = exchange.getAttributeOrDefault(
+            ServerWebExchangeUtils.GATEWAY_ORIGINAL_REQUEST_URL_ATTR, Collections.emptySet());
+        PathContainer path = originalUrls.isEmpty()
+            ? exchange.getRequest().getPath().pathWithinApplication()
+            : PathContainer.parsePath(originalUrls.iterator().next().getRawPath());
+        return paths.stream().anyMatch(pattern -> pattern.matches(path));
+    }
+
+    /**
+     * @param hedge whether a slow first request gets a second one, rather than only a failed one
+     */
+    private Mono<Void> route(ServerWebExchange exchange, Route route, URI url, ServiceInstance primaryInstance,
+                             LatencyAwareLoadBalancer balancer, boolean hedge) {
+        String routeId = route.getId();
+        LatencyWindow latency = latencies.computeIfAbsent(routeId, id -> new LatencyWindow(
+            properties.getSamples(), properties.getMinSamples(), properties.getPercentile()));
+        RetryBudget budget = budgets.computeIfAbsent(routeId, id -> new RetryBudget(
+            properties.getBudgetRatio(), properties.getBudgetMinPerSecond(), properties.getBudgetMax()));
+        budget.deposit();
+
+        HttpHeaders headers = requestHeaders(exchange);
+        Duration timeout = responseTimeout(route);
+        AtomicBoolean claimed = new AtomicBoolean();
+        AtomicReference<Throwable> primaryFailure = new AtomicReference<>();
+        AtomicReference<FailedResponse> failedResponse = new AtomicReference<>();
+        Sinks.Empty<Void> primaryFailed = Sinks.empty();
+
+        long start = System.nanoTime();
+        // Only the hedged paths are timed, so slow reads of the route do not delay their hedges
+        Mono<ResponseEntity<Flux<DataBuffer>>> primary = send(exchange, url, headers, timeout, claimed)
+            .doOnNext(entity -> {
+                if (hedge) {
+                    latency.record(System.nanoTime() - start);
+                }
+            })
+            .doOnCancel(() -> {
+                if (hedge) {
+                    latency.record(System.nanoTime() - start);
+                }
+            })
+            .doOnError(e -> {
+                primaryFailure.set(e);
+                if (e instanceof FailedResponse failed) {
+                    failedResponse.compareAndSet(null, failed);
+                }
+                primaryFailed.tryEmitEmpty();
+            });
+
+        long p95 = latency.percentileNanos();
+        Mono<Void> trigger = hedge && properties.isEnabled() && p95 >= 0
+            ? Mono.firstWithSignal(
+                Mono.delay(Duration.ofNanos(Math.max(p95, properties.getMinDelay().toNanos()))).then(),
+                primaryFailed.asMono())
+            : primaryFailed.asMono();
+
+        Mono<ResponseEntity<Flux<DataBuffer>>> second = trigger
+            .then(Mono.defer(() -> {
+                boolean retry = primaryFailure.get() != null;
+                if (!budget.tryWithdraw()) {
+                    record(routeId, "denied");
+                    return Mono.empty();
+                }
+                return balancer.chooseOther(primaryInstance, retry)
+                    .flatMap(instance -> {
+                        record(routeId, retry ? "retried" : "hedged");
+                        return sendTo(exchange, routeId, instance, url, headers, timeout, claimed);
+                    });
+            }))
+            .doOnError(e -> {
+                if (e instanceof FailedResponse failed) {
+                    failedResponse.set(failed);
+                }
+            });
+
+        return Mono.firstWithValue(primary, second)
+            .onErrorResume(e -> {
+                // Neither answered: return the latest failed response, or else why the first failed
+                FailedResponse failed = failedResponse.get();
+                if (failed != null) {
+                    return Mono.just(new ResponseEntity<>(
+                        Flux.just(exchange.getResponse().bufferFactory().wrap(failed.body)), failed.headers, failed.status));
+                }
+                Throwable cause = primaryFailure.get() != null ? primaryFailure.get() : e;
+                if (cause instanceof TimeoutException) {
+                    return Mono.error(new ResponseStatusException(HttpStatus.GATEWAY_TIMEOUT, cause.getMessage(), cause));
+                }
+                return Mono.error(cause);
+            })
+            .flatMap(entity -> write(exchange, entity));
+    }
+
+    /**
+     * Send the second request to another instance, recording its load there
+     */
+    private Mono<ResponseEntity<Flux<DataBuffer>>> sendTo(ServerWebExchange exchange, String routeId,
+                                                        ServiceInstance instance, URI url, HttpHeaders headers,
+                                                        Duration timeout, AtomicBoolean claimed) {
+        InstanceLoadStats.Call call = stats.start(instance);
+        return send(exchange, LoadBalancerUriTools.reconstructURI(instance, url), headers, timeout, claimed)
+            .map(entity -> {
+                record(routeId, "won");
+                call.responded(entity.getStatusCode().is5xxServerError());
+                Flux<DataBuffer> body = entity.getBody() != null ? entity.getBody() : Flux.empty();
+                return new ResponseEntity<>(body.doFinally(signal -> call.end(false)),
+                    entity.getHeaders(), entity.getStatusCode());
+            })
+            .doOnError(e -> call.end(true))
+            .doOnCancel(() -> call.end(false));
+    }
+
+    /**
+     * Send the request, emitting its response when the headers arrive unless the other request's
+     * response already has, and failing if the response counts as a failure
+     */
+    private Mono<ResponseEntity<Flux<DataBuffer>>> send(ServerWebExchange exchange, URI url, HttpHeaders headers,
+                                                      Duration timeout, AtomicBoolean claimed) {
+        Mono<ResponseEntity<Flux<DataBuffer>>> response = webClient.method(exchange.getRequest().getMethod())
+            .uri(url)
+            .headers(forwarded -> forwarded.addAll(headers))
+            .retrieve()
+            // Every status is passed on to the client, as by the gateway's own routing
+            .onStatus(status -> true, clientResponse -> Mono.empty())
+            .toEntityFlux(DataBuffer.class);
+        if (timeout != null) {
+            response = response.timeout(timeout,
+                Mono.error(() -> new TimeoutException("Response took longer than timeout: " + timeout)));
+        }
+        return response.flatMap(entity -> {
+            Flux<DataBuffer> body = entity.getBody() != null ? entity.getBody() : Flux.empty();
+            if (properties.getRetryStatuses().stream().anyMatch(status -> status.value() == entity.getStatusCode().value())) {
+                return DataBufferUtils.join(body)
+                    .map(joined -> {
+                        byte[] bytes = new byte[joined.readableByteCount()];
+                        joined.read(bytes);
+                        DataBufferUtils.release(joined);
+                        return bytes;
+                    })
+                    .defaultIfEmpty(new byte[0])
+                    .flatMap(bytes -> Mono.error(new FailedResponse(entity.getStatusCode(), entity.getHeaders(), bytes)));
+            }
+            if (!claimed.compareAndSet(false, true)) {
+                // The other request answered at the same moment; this one is dropped
+                return body.doOnNext(DataBufferUtils::release).then(Mono.empty());
+            }
+            return Mono.just(entity);
+        });
+    }
+
+    private Mono<Void> write(ServerWebExchange exchange, ResponseEntity<Flux<DataBuffer>> entity) {
+        ServerHttpResponse response = exchange.getResponse();
+        HttpHeaders filtered = HttpHeadersFilter.filter(headersFiltersProvider.getIfAvailable(),
+            entity.getHeaders(), exchange, HttpHeadersFilter.Type.RESPONSE);
+        response.setStatusCode(entity.getStatusCode());
+        response.getHeaders().addAll(filtered);
+        if (filtered.containsKey(HttpHeaders.CONTENT_LENGTH)) {
+            response.getHeaders().remove(HttpHeaders.TRANSFER_ENCODING);
+        }
+        exchange.getAttributes().put(ServerWebExchangeUtils.CLIENT_RESPONSE_HEADER_NAMES, Set.copyOf(filtered.keySet()));
+
+        Flux<DataBuffer> body = entity.getBody() != null ? entity.getBody() : Flux.empty();
+        MediaType contentType = filtered.getContentType();
+        if (contentType != null && (MediaType.TEXT_EVENT_STREAM.isCompatibleWith(contentType)
+                || MediaType.APPLICATION_NDJSON.isCompatibleWith(contentType))) {
+            return response.writeAndFlushWith(body.map(Flux::just));
+        }
+        return response.writeWith(body);
+    }
+
+    private HttpHeaders requestHeaders(ServerWebExchange exchange) {
+        HttpHeaders filtered = HttpHeadersFilter.filterRequest(headersFiltersProvider.getIfAvailable(), exchange);
+        HttpHeaders headers = new HttpHeaders();
+        headers.addAll(filtered);
+        // Set by the client from each instance's address
+        headers.remove(HttpHeaders.HOST);
+        return headers;
+    }
+
+    private Duration responseTimeout(Route route) {
+        Object metadata = route.getMetadata().get(RouteMetadataUtils.RESPONSE_TIMEOUT_ATTR);
+        if (metadata instanceof Number millis) {
+            return millis.longValue() < 0 ? null : Duration.ofMillis(millis.longValue());
+        }
+        if (metadata != null) {
+            long millis = Long.parseLong(metadata.toString());
+            return millis < 0 ? null : Duration.ofMillis(millis);
+        }
+        return httpClientProperties.getResponseTimeout();
+    }
+
+    private void record(String routeId, String result) {
+        meterRegistry.counter("gateway.hedging.requests", "route", routeId, "result", result).increment();
+    }
+}
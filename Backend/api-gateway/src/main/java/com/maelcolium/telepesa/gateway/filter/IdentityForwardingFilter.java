@@ -0,0 +1,100 @@
+package com.maelcolium.telepesa.gateway.filter;
+
+import com.maelcolium.telepesa.gateway.security.GatewayIdentitySigner;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.filter.GlobalFilter;
+import org.springframework.core.Ordered;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.server.resource.authentication.JwtAuthenticationToken;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Mono;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Identity Forwarding Filter for API Gateway
+ *
+ * Replaces any identity headers sent by the client with ones taken from the token the gateway
+ * verified, signed by the {@link GatewayIdentitySigner}. Requests without a verified token are
+ * forwarded with the identity headers removed.
+ *
+ * @author Telepesa Development Team
+ * @version 1.0.0
+ */
+@Component
+public class IdentityForwardingFilter implements GlobalFilter, Ordered {
+
+    private static final List<String> IDENTITY_HEADERS = List.of(
+        GatewayIdentitySigner.USER_ID,
+        GatewayIdentitySigner.USER_NAME,
+        GatewayIdentitySigner.USER_ROLES,
+        GatewayIdentitySigner.AUTHENTICATED,
+        GatewayIdentitySigner.ISSUED_AT,
+        GatewayIdentitySigner.SIGNATURE
+    );
+
+    private final GatewayIdentitySigner signer;
+
+    public IdentityForwardingFilter(GatewayIdentitySigner signer) {
+        this.signer = signer;
+    }
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, GatewayFilterChain chain) {
+        return exchange.getPrincipal()
+            .filter(JwtAuthenticationToken.class::isInstance)
+            .map(principal -> withIdentity(exchange, ((JwtAuthenticationToken) principal).getToken()))
+            .switchIfEmpty(Mono.fromSupplier(() -> withoutIdentity(exchange)))
+            .flatMap(chain::filter);
+    }
+
+    private ServerWebExchange withIdentity(ServerWebExchange exchange, Jwt jwt) {
+        String username = jwt.getSubject() != null ? jwt.getSubject() : "";
+        Object userIdClaim = jwt.getClaims().get("userId");
+        String userId = userIdClaim != null ? userIdClaim.toString() : username;
+        String roles = roles(jwt.getClaims().get("roles"));
+        long issuedAt = Instant.now().getEpochSecond();
+        String signature = signer.sign(userId, username, roles, issuedAt);
+
+        ServerHttpRequest request = exchange.getRequest().mutate()
+            .headers(headers -> {
+                IDENTITY_HEADERS.forEach(headers::remove);
+                headers.set(GatewayIdentitySigner.USER_ID, userId);
+                headers.set(GatewayIdentitySigner.USER_NAME, username);
+                headers.set(GatewayIdentitySigner.USER_ROLES, roles);
+                headers.set(GatewayIdentitySigner.AUTHENTICATED, "true");
+                headers.set(GatewayIdentitySigner.ISSUED_AT, Long.toString(issuedAt));
+                headers.set(GatewayIdentitySigner.SIGNATURE, signature);
+            })
+            .build();
+        return exchange.mutate().request(request).build();
+    }
+
+    private ServerWebExchange withoutIdentity(ServerWebExchange exchange) {
+        HttpHeaders headers = exchange.getRequest().getHeaders();
+        if (IDENTITY_HEADERS.stream().noneMatch(headers::containsKey)) {
+            return exchange;
+        }
+        ServerHttpRequest request = exchange.getRequest().mutate()
+            .headers(mutable -> IDENTITY_HEADERS.forEach(mutable::remove))
+            .build();
+        return exchange.mutate().request(request).build();
+    }
+
+    private static String roles(Object claim) {
+        if (claim instanceof Collection<?> values) {
+            return String.join(",", values.stream().map(String::valueOf).toList());
+        }
+        return claim != null ? claim.toString() : "";
+    }
+
+    @Override
+    public int getOrder() {
+        return Ordered.HIGHEST_PRECEDENCE + 10;
+    }
+}
@@ -0,0 +1,57 @@
+package com.maelcolium.telepesa.gateway.filter;
+
+import com.maelcolium.telepesa.gateway.loadbalancer.InstanceLoadStats;
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.cloud.client.loadbalancer.Response;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.filter.GlobalFilter;
+import org.springframework.cloud.gateway.filter.ReactiveLoadBalancerClientFilter;
+import org.springframework.cloud.gateway.support.ServerWebExchangeUtils;
+import org.springframework.core.Ordered;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.SignalType;
+
+/**
+ * Instance Load Filter for API Gateway
+ *
+ * Records, for the {@code lb://} instance each request was sent to, the call while in flight
+ * and the time to its response, which the latency-aware load balancer chooses instances by. The
+ * time is taken when the response starts, so slow clients do not make an instance look slow.
+ *
+ * @author Telepesa Development Team
+ * @version 1.0.0
+ */
+@Component
+public class InstanceLoadFilter implements GlobalFilter, Ordered {
+
+    private final InstanceLoadStats stats;
+
+    public InstanceLoadFilter(InstanceLoadStats stats) {
+        this.stats = stats;
+    }
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, GatewayFilterChain chain) {
+        Response<ServiceInstance> chosen = exchange.getAttribute(ServerWebExchangeUtils.GATEWAY_LOADBALANCER_RESPONSE_ATTR);
+        if (chosen == null || !chosen.hasServer()) {
+            return chain.filter(exchange);
+        }
+        InstanceLoadStats.Call call = stats.start(chosen.getServer());
+        exchange.getResponse().beforeCommit(() -> {
+            HttpStatusCode status = exchange.getResponse().getStatusCode();
+            call.responded(status != null && status.is5xxServerError());
+            return Mono.empty();
+        });
+        return chain.filter(exchange)
+            .doFinally(signal -> call.end(signal == SignalType.ON_ERROR));
+    }
+
+    @Override
+    public int getOrder() {
+        // Right after the load balancer has chosen the instance
+        return ReactiveLoadBalancerClientFilter.LOAD_BALANCER_CLIENT_FILTER_ORDER + 1;
+    }
+}
@@ -0,0 +1,279 @@
+package com.maelcolium.telepesa.gateway.filter;
+
+import com.maelcolium.telepesa.gateway.config.CoalescingProperties;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.reactivestreams.Publisher;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.filter.GlobalFilter;
+import org.springframework.cloud.gateway.filter.NettyWriteResponseFilter;
+import org.springframework.core.Ordered;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.http.server.reactive.ServerHttpResponseDecorator;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.util.pattern.PathPattern;
+import org.springframework.web.util.pattern.PathPatternParser;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+import java.security.Principal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Request Coalescing Filter for API Gateway
+ *
+ * Collapses identical GETs that are in flight at the same time into one upstream call. The
+ * first request goes upstream; requests with the same route, path, query, authenticated subject
+ * and representation headers that arrive before it is answered wait for its response and are
+ * sent a copy. Only the routes allow-listed under {@code app.gateway.coalescing} take part.
+ *
+ * Waiting requests go upstream themselves when the shared call fails, streams its response, or
+ * answers with cookies or with a body too large to share, as soon as the body outgrows the limit;
+ * the leader's body is only held while it could still be shared.
+ *
+ * @author Telepesa Development Team
+ * @version 1.0.0
+ */
+@Component
+public class RequestCoalescingFilter implements GlobalFilter, Ordered {
+
+    public static final String X_COALESCED = "X-Coalesced";
+
+    /**
+     * Request headers that change the response, so requests only share a call when they match
+     */
+    private static final List<String> KEY_HEADERS = List.of(
+        HttpHeaders.ACCEPT, HttpHeaders.ACCEPT_ENCODING, HttpHeaders.ACCEPT_LANGUAGE,
+        HttpHeaders.IF_NONE_MATCH, HttpHeaders.IF_MODIFIED_SINCE);
+
+    private record SharedResponse(HttpStatusCode status, HttpHeaders headers, byte[] body) {
+    }
+
+    private record AllowedRoute(String name, List<PathPattern> patterns) {
+    }
+
+    private final CoalescingProperties properties;
+    private final MeterRegistry meterRegistry;
+    private final List<AllowedRoute> routes;
+    private final Map<String, Sinks.One<SharedResponse>> inFlight = new ConcurrentHashMap<>();
+
+    public RequestCoalescingFilter(CoalescingProperties properties, MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.meterRegistry = meterRegistry;
+        this.routes = properties.getRoutes().entrySet().stream()
+            .map(route -> new AllowedRoute(route.getKey(),
+                route.getValue().stream().map(PathPatternParser.defaultInstance::parse).toList()))
+            .toList();
+        meterRegistry.gaugeMapSize("gateway.coalescing.in.flight", List.of(), inFlight);
+    }
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, GatewayFilterChain chain) {
+        ServerHttpRequest request = exchange.getRequest();
+        if (!properties.isEnabled() || !HttpMethod.GET.equals(request.getMethod())) {
+            return chain.filter(exchange);
+        }
+        String route = routeFor(request);
+        if (route == null) {
+            return chain.filter(exchange);
+        }
+        return exchange.getPrincipal()
+            .map(Principal::getName)
+            .defaultIfEmpty("")
+            .flatMap(subject -> coalesce(exchange, chain, route, key(route, request, subject)));
+    }
+
+    private Mono<Void> coalesce(ServerWebExchange exchange, GatewayFilterChain chain, String route, String key) {
+        Sinks.One<SharedResponse> sink = Sinks.one();
+        Sinks.One<SharedResponse> leader = inFlight.putIfAbsent(key, sink);
+        if (leader != null) {
+            return follow(exchange, chain, route, leader);
+        }
+
+        record(route, "leader");
+        SharingResponse response = new SharingResponse(exchange.getResponse(), sink, () -> inFlight.remove(key, sink));
+        return chain.filter(exchange.mutate().response(response).build())
+            .doFinally(signal -> response.release());
+    }
+
+    private Mono<Void> follow(ServerWebExchange exchange, GatewayFilterChain chain, String route,
+                              Sinks.One<SharedResponse> leader) {
+        Supplier<Mono<Void>> alone = () -> {
+            record(route, "fallback");
+            return chain.filter(exchange);
+        };
+        return leader.asMono()
+            .timeout(properties.getMaxWait(), Mono.empty())
+            .flatMap(shared -> {
+                record(route, "follower");
+                meterRegistry.counter("gateway.coalescing.saved.bytes", "route", route).increment(shared.body().length);
+                return writeShared(exchange.getResponse(), shared).thenReturn(true);
+            })
+            .switchIfEmpty(Mono.defer(() -> alone.get().thenReturn(true)))
+            .then();
+    }
+
+    private static Mono<Void> writeShared(ServerHttpResponse response, SharedResponse shared) {
+        response.setStatusCode(shared.status());
+        HttpHeaders headers = response.getHeaders();
+        shared.headers().forEach((name, values) -> {
+            if (name.regionMatches(true, 0, "Access-Control-", 0, "Access-Control-".length())) {
+                // Set for this request's origin already
+                return;
+            }
+            if (HttpHeaders.VARY.equalsIgnoreCase(name)) {
+                List<String> present = headers.getVary();
+                shared.headers().getVary().stream()
+                    .filter(value -> present.stream().noneMatch(value::equalsIgnoreCase))
+                    .forEach(value -> headers.add(HttpHeaders.VARY, value));
+                return;
+            }
+            headers.put(name, new ArrayList<>(values));
+        });
+        headers.set(X_COALESCED, "true");
+        if (shared.body().length == 0) {
+            return response.setComplete();
+        }
+        headers.remove(HttpHeaders.TRANSFER_ENCODING);
+        headers.setContentLength(shared.body().length);
+        return response.writeWith(Mono.just(response.bufferFactory().wrap(shared.body())));
+    }
+
+    private String routeFor(ServerHttpRequest request) {
+        for (AllowedRoute route : routes) {
+            for (PathPattern pattern : route.patterns()) {
+                if (pattern.matches(request.getPath().pathWithinApplication())) {
+                    return route.name();
+                }
+            }
+        }
+        return null;
+    }
+
+    private static String key(String route, ServerHttpRequest request, String subject) {
+        String query = request.getURI().getRawQuery();
+        StringBuilder key = new StringBuilder(route).append(' ').append(request.getPath().value());
+        if (query != null) {
+            key.append('?').append(query);
+        }
+        key.append('\n').append(subject);
+        for (String name : KEY_HEADERS) {
+            key.append('\n').append(String.join(",", request.getHeaders().getOrEmpty(name)));
+        }
+        return key.toString();
+    }
+
+    private static byte[] toBytes(DataBuffer joined) {
+        byte[] bytes = new byte[joined.readableByteCount()];
+        joined.read(bytes);
+        DataBufferUtils.release(joined);
+        return bytes;
+    }
+
+    private void record(String route, String result) {
+        meterRegistry.counter("gateway.coalescing.requests", "route", route, "result", result).increment();
+    }
+
+    /**
+     * Copies the leader's response for the requests waiting on it before writing it
+     */
+    private class SharingResponse extends ServerHttpResponseDecorator {
+
+        private final Sinks.One<SharedResponse> sink;
+        private final Runnable unregister;
+
+        SharingResponse(ServerHttpResponse delegate, Sinks.One<SharedResponse> sink, Runnable unregister) {
+            super(delegate);
+            this.sink = sink;
+            this.unregister = unregister;
+        }
+
+        /**
+         * Let requests that arrive from now on go upstream, and those waiting go upstream
+         * themselves unless a response was shared
+         */
+        void release() {
+            unregister.run();
+            sink.tryEmitEmpty();
+        }
+
+        @Override
+        public Mono<Void> writeWith(Publisher<? extends DataBuffer> body) {
+            int maxBodyBytes = properties.getMaxBodyBytes();
+            if (!shareable() || getHeaders().getContentLength() > maxBodyBytes) {
+                release();
+                return super.writeWith(body);
+            }
+            // Held until the body ends or outgrows the limit; past it, the waiting requests are
+            // released and the rest follows as it arrives
+            AtomicLong size = new AtomicLong();
+            return Flux.from(body)
+                .bufferUntil(buffer -> size.addAndGet(buffer.readableByteCount()) > maxBodyBytes)
+                .switchOnFirst((first, parts) -> {
+                    if (first.isOnError()) {
+                        return parts.then();
+                    }
+                    if (size.get() > maxBodyBytes) {
+                        release();
+                        return super.writeWith(parts.concatMapIterable(Function.identity()));
+                    }
+                    return parts.concatMapIterable(Function.identity())
+                        .as(DataBufferUtils::join)
+                        .map(RequestCoalescingFilter::toBytes)
+                        .defaultIfEmpty(new byte[0])
+                        .flatMap(bytes -> {
+                            share(bytes);
+                            return super.writeWith(Mono.just(bufferFactory().wrap(bytes)));
+                        });
+                })
+                .then();
+        }
+
+        @Override
+        public Mono<Void> writeAndFlushWith(Publisher<? extends Publisher<? extends DataBuffer>> body) {
+            // Streamed responses are not shared
+            release();
+            return super.writeAndFlushWith(body);
+        }
+
+        @Override
+        public Mono<Void> setComplete() {
+            share(new byte[0]);
+            return super.setComplete();
+        }
+
+        private boolean shareable() {
+            return getStatusCode() != null && !getHeaders().containsKey(HttpHeaders.SET_COOKIE);
+        }
+
+        private void share(byte[] body) {
+            if (!shareable() || body.length > properties.getMaxBodyBytes()) {
+                release();
+                return;
+            }
+            HttpHeaders headers = new HttpHeaders();
+            getHeaders().forEach((name, values) -> headers.put(name, new ArrayList<>(values)));
+            unregister.run();
+            sink.tryEmitValue(new SharedResponse(getStatusCode(), HttpHeaders.readOnlyHttpHeaders(headers), body));
+        }
+    }
+
+    @Override
+    public int getOrder() {
+        // Ahead of the response cache, so a burst of misses fills it with one call
+        return NettyWriteResponseFilter.WRITE_RESPONSE_FILTER_ORDER - 2;
+    }
+}
@@ -0,0 +1,205 @@
+package com.maelcolium.telepesa.gateway.filter;
+
+import com.maelcolium.telepesa.gateway.cache.ResponseCache;
+import com.maelcolium.telepesa.gateway.cache.ResponseCache.CachedResponse;
+import com.maelcolium.telepesa.gateway.config.ResponseCacheProperties;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.reactivestreams.Publisher;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.filter.GlobalFilter;
+import org.springframework.cloud.gateway.filter.NettyWriteResponseFilter;
+import org.springframework.core.Ordered;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.http.server.reactive.ServerHttpResponseDecorator;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+/**
+ * Response Cache Filter for API Gateway
+ *
+ * Serves GETs of the routes configured under {@code app.gateway.response-cache} from the
+ * {@link ResponseCache}, and stores the 200 responses of those that miss. Responses carry a
+ * strong {@code ETag} and conditional GETs that match it are answered with 304, whether the
+ * response was cached or not. Conditional headers are not forwarded, so the upstream always
+ * returns a body the cache can keep. Bodies are counted as they stream in, and one that grows
+ * past {@code max-body-bytes} is passed through as it arrives instead of being held.
+ *
+ * @author Telepesa Development Team
+ * @version 1.0.0
+ */
+@Component
+public class ResponseCacheFilter implements GlobalFilter, Ordered {
+
+    public static final String X_CACHE = "X-Cache";
+
+    private final ResponseCache cache;
+    private final ResponseCacheProperties properties;
+    private final MeterRegistry meterRegistry;
+
+    public ResponseCacheFilter(ResponseCache cache, ResponseCacheProperties properties, MeterRegistry meterRegistry) {
+        this.cache = cache;
+        this.properties = properties;
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, GatewayFilterChain chain) {
+        ServerHttpRequest request = exchange.getRequest();
+        if (!properties.isEnabled() || !HttpMethod.GET.equals(request.getMethod())) {
+            return chain.filter(exchange);
+        }
+        String route = cache.routeFor(request);
+        if (route == null) {
+            return chain.filter(exchange);
+        }
+
+        CachedResponse cached = cache.get(route, request);
+        if (cached != null) {
+            return writeCached(exchange, cached);
+        }
+        ServerHttpRequest unconditional = request.mutate()
+            .headers(headers -> {
+                headers.remove(HttpHeaders.IF_NONE_MATCH);
+                headers.remove(HttpHeaders.IF_MODIFIED_SINCE);
+            })
+            .build();
+        return chain.filter(exchange.mutate()
+            .request(unconditional)
+            .response(new CachingResponse(exchange.getResponse(), request, route))
+            .build());
+    }
+
+    private Mono<Void> writeCached(ServerWebExchange exchange, CachedResponse cached) {
+        ServerHttpResponse response = exchange.getResponse();
+        HttpHeaders headers = response.getHeaders();
+        headers.addAll(cached.headers());
+        addVary(headers, cached.vary());
+        headers.setETag(cached.etag());
+        headers.set(HttpHeaders.AGE, Long.toString(cached.ageSeconds(Instant.now())));
+        headers.set(X_CACHE, "HIT");
+
+        if (ResponseCache.matchesIfNoneMatch(exchange.getRequest(), cached.etag())) {
+            record(cached.route(), "not_modified");
+            return notModified(response);
+        }
+        record(cached.route(), "hit");
+        response.setStatusCode(HttpStatus.OK);
+        headers.setContentLength(cached.body().length);
+        return response.writeWith(Mono.just(response.bufferFactory().wrap(cached.body())));
+    }
+
+    private static Mono<Void> notModified(ServerHttpResponse response) {
+        response.setStatusCode(HttpStatus.NOT_MODIFIED);
+        response.getHeaders().remove(HttpHeaders.CONTENT_LENGTH);
+        response.getHeaders().remove(HttpHeaders.TRANSFER_ENCODING);
+        response.getHeaders().remove(HttpHeaders.CONTENT_TYPE);
+        return response.setComplete();
+    }
+
+    private static void addVary(HttpHeaders headers, List<String> vary) {
+        List<String> present = headers.getVary();
+        List<String> missing = vary.stream()
+            .filter(name -> present.stream().noneMatch(name::equalsIgnoreCase))
+            .toList();
+        if (!missing.isEmpty()) {
+            headers.add(HttpHeaders.VARY, String.join(", ", missing));
+        }
+    }
+
+    private static byte[] toBytes(DataBuffer joined) {
+        byte[] bytes = new byte[joined.readableByteCount()];
+        joined.read(bytes);
+        DataBufferUtils.release(joined);
+        return bytes;
+    }
+
+    private void record(String route, String result) {
+        meterRegistry.counter("gateway.response.cache.requests", "route", route, "result", result).increment();
+    }
+
+    /**
+     * Buffers a 200 body so it can be stored and tagged before it is written, up to the size
+     * the cache keeps
+     */
+    private class CachingResponse extends ServerHttpResponseDecorator {
+
+        private final ServerHttpRequest request;
+        private final String route;
+
+        CachingResponse(ServerHttpResponse delegate, ServerHttpRequest request, String route) {
+            super(delegate);
+            this.request = request;
+            this.route = route;
+        }
+
+        @Override
+        public Mono<Void> writeWith(Publisher<? extends DataBuffer> body) {
+            if (!HttpStatus.OK.equals(getStatusCode())) {
+                return super.writeWith(body);
+            }
+            int maxBodyBytes = properties.getMaxBodyBytes();
+            if (getHeaders().getContentLength() > maxBodyBytes) {
+                record(route, "uncacheable");
+                return super.writeWith(body);
+            }
+            // Held until the body ends or outgrows the limit; past it, the rest follows as it arrives
+            AtomicLong size = new AtomicLong();
+            return Flux.from(body)
+                .bufferUntil(buffer -> size.addAndGet(buffer.readableByteCount()) > maxBodyBytes)
+                .switchOnFirst((first, parts) -> {
+                    if (first.isOnError()) {
+                        return parts.then();
+                    }
+                    if (size.get() > maxBodyBytes) {
+                        record(route, "uncacheable");
+                        return super.writeWith(parts.concatMapIterable(Function.identity()));
+                    }
+                    return parts.concatMapIterable(Function.identity())
+                        .as(DataBufferUtils::join)
+                        .map(ResponseCacheFilter::toBytes)
+                        .defaultIfEmpty(new byte[0])
+                        .flatMap(this::write);
+                })
+                .then();
+        }
+
+        private Mono<Void> write(byte[] bytes) {
+            CachedResponse stored = cache.put(route, request, getHeaders(), bytes);
+            if (stored == null) {
+                record(route, "uncacheable");
+                return super.writeWith(Mono.just(bufferFactory().wrap(bytes)));
+            }
+            addVary(getHeaders(), stored.vary());
+            getHeaders().setETag(stored.etag());
+            getHeaders().set(X_CACHE, "MISS");
+
+            if (ResponseCache.matchesIfNoneMatch(request, stored.etag())) {
+                record(route, "not_modified");
+                return notModified(getDelegate());
+            }
+            record(route, "miss");
+            getHeaders().remove(HttpHeaders.TRANSFER_ENCODING);
+            getHeaders().setContentLength(bytes.length);
+            return super.writeWith(Mono.just(bufferFactory().wrap(bytes)));
+        }
+    }
+
+    @Override
+    public int getOrder() {
+        // Before the response is written, so the decorator sees the body
+        return NettyWriteResponseFilter.WRITE_RESPONSE_FILTER_ORDER - 1;
+    }
+}
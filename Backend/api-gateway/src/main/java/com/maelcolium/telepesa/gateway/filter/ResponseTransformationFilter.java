@@ -1,129 +1,204 @@
 package com.maelcolium.telepesa.gateway.filter;
 
 import com.fasterxml.jackson.core.JsonProcessingException;
-import com.fasterxml.jackson.databind.JsonNode;
+import com.maelcolium.telepesa.gateway.config.ResponseTransformationProperties;
 import com.fasterxml.jackson.databind.ObjectMapper;
-import com.fasterxml.jackson.databind.node.ObjectNode;
 import lombok.extern.slf4j.Slf4j;
+import org.reactivestreams.Publisher;
 import org.springframework.cloud.gateway.filter.GatewayFilterChain;
 import org.springframework.cloud.gateway.filter.GlobalFilter;
+import org.springframework.cloud.gateway.filter.NettyWriteResponseFilter;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.cloud.gateway.support.ServerWebExchangeUtils;
 import org.springframework.core.Ordered;
 import org.springframework.core.io.buffer.DataBuffer;
-import org.springframework.core.io.buffer.DataBufferUtils;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
+import org.springframework.http.server.reactive.ServerHttpRequest;
 import org.springframework.http.server.reactive.ServerHttpResponse;
-// import org.springframework.stereotype.Component;
+import org.springframework.http.server.reactive.ServerHttpResponseDecorator;
+import org.springframework.stereotype.Component;
 import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
 import java.nio.charset.StandardCharsets;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
+import java.util.UUID;
 
 /**
  * Response Transformation Filter for API Gateway
- * 
+ *
  * Standardizes API responses by adding metadata like request ID,
  * processing time, and gateway information. Ensures consistent
  * response format across all microservices.
- * 
+ *
+ * The metadata is carried in headers. Routes listed under
+ * {@code app.gateway.response-transformation.envelope-routes} also get the
+ * request ID and processing time spliced into JSON object bodies as they
+ * stream through: the opening brace is replaced by one followed by the two
+ * fields, so bodies are neither buffered nor parsed. Arrays and other
+ * bodies keep their shape, as do compressed bodies. Responses are
+ * compressed on the way out by the server, see {@code server.compression}.
+ *
  * @author Telepesa Development Team
  * @version 1.0.0
  */
 @Slf4j
-// @Component
+@Component
 public class ResponseTransformationFilter implements GlobalFilter, Ordered {
 
+    public static final String REQUEST_ID_HEADER = "X-Request-ID";
+
     private final ObjectMapper objectMapper;
+    private final ResponseTransformationProperties properties;
     private static final DateTimeFormatter FORMATTER = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss.SSS");
 
-    public ResponseTransformationFilter(ObjectMapper objectMapper) {
+    public ResponseTransformationFilter(ObjectMapper objectMapper, ResponseTransformationProperties properties) {
         this.objectMapper = objectMapper;
+        this.properties = properties;
     }
 
     @Override
     public Mono<Void> filter(ServerWebExchange exchange, GatewayFilterChain chain) {
+        if (!properties.isEnabled()) {
+            return chain.filter(exchange);
+        }
         long startTime = System.currentTimeMillis();
-        
-        return chain.filter(exchange)
-            .then(Mono.fromRunnable(() -> {
-                try {
-                    transformResponse(exchange, startTime);
-                } catch (Exception e) {
-                    log.error("Error transforming response", e);
-                }
-            }));
+
+        // Forward the client's request ID, or one of our own
+        String clientRequestId = exchange.getRequest().getHeaders().getFirst(REQUEST_ID_HEADER);
+        String requestId = clientRequestId != null ? clientRequestId : generateRequestId();
+        ServerHttpRequest request = clientRequestId != null
+            ? exchange.getRequest()
+            : exchange.getRequest().mutate().header(REQUEST_ID_HEADER, requestId).build();
+
+        ServerHttpResponse response = exchange.getResponse();
+        response.beforeCommit(() -> {
+            addResponseHeaders(response, requestId, System.currentTimeMillis() - startTime);
+            return Mono.empty();
+        });
+        ServerWebExchange.Builder mutated = exchange.mutate().request(request);
+        if (isEnvelopeRoute(exchange)) {
+            mutated.response(new EnvelopeResponse(response, requestId, startTime));
+        }
+        return chain.filter(mutated.build());
     }
 
     @Override
     public int getOrder() {
-        return Ordered.LOWEST_PRECEDENCE - 1;
+        // Outside the coalescing and caching decorators, so shared and cached bodies get this
+        // request's metadata
+        return NettyWriteResponseFilter.WRITE_RESPONSE_FILTER_ORDER - 3;
     }
 
-    private void transformResponse(ServerWebExchange exchange, long startTime) {
-        ServerHttpResponse response = exchange.getResponse();
-        // Only transform JSON responses
-        if (!isJsonResponse(response)) {
-            return;
-        }
-        // Get request ID from headers
-        String requestId = exchange.getRequest().getHeaders().getFirst("X-Request-ID");
-        // Calculate processing time
-        long processingTime = System.currentTimeMillis() - startTime;
-        // Add response headers
-        addResponseHeaders(response, requestId, processingTime);
-        // TODO: For full response body transformation, use ServerHttpResponseDecorator in a WebFilter.
+    private boolean isEnvelopeRoute(ServerWebExchange exchange) {
+        Route route = exchange.getAttribute(ServerWebExchangeUtils.GATEWAY_ROUTE_ATTR);
+        return route != null && properties.getEnvelopeRoutes().contains(route.getId());
     }
 
     private boolean isJsonResponse(ServerHttpResponse response) {
-        String contentType = response.getHeaders().getFirst(HttpHeaders.CONTENT_TYPE);
-        return contentType != null && contentType.contains(MediaType.APPLICATION_JSON_VALUE);
+        MediaType contentType = response.getHeaders().getContentType();
+        return contentType != null
+            && (MediaType.APPLICATION_JSON.isCompatibleWith(contentType)
+                || (contentType.getSubtype() != null && contentType.getSubtype().endsWith("+json")));
+    }
+
+    private boolean isEncoded(ServerHttpResponse response) {
+        String encoding = response.getHeaders().getFirst(HttpHeaders.CONTENT_ENCODING);
+        return encoding != null && !"identity".equalsIgnoreCase(encoding);
     }
 
     private void addResponseHeaders(ServerHttpResponse response, String requestId, long processingTime) {
         HttpHeaders headers = response.getHeaders();
-        
-        if (requestId != null) {
-            headers.add("X-Request-ID", requestId);
-        }
-        
-        headers.add("X-Processing-Time", String.valueOf(processingTime));
-        headers.add("X-Gateway-Timestamp", LocalDateTime.now().format(FORMATTER));
-        headers.add("X-Gateway-Version", "1.0.0");
-        headers.add("X-Gateway-Service", "api-gateway");
+
+        headers.set(REQUEST_ID_HEADER, requestId);
+        headers.set("X-Processing-Time", String.valueOf(processingTime));
+        headers.set("X-Gateway-Timestamp", LocalDateTime.now().format(FORMATTER));
+        headers.set("X-Gateway-Version", "1.0.0");
+        headers.set("X-Gateway-Service", "api-gateway");
     }
 
-    private String transformResponseBody(String responseBody, String requestId, long processingTime) {
+    private String generateRequestId() {
+        return UUID.randomUUID().toString().replace("-", "").substring(0, 16);
+    }
+
+    /**
+     * Opening of an object carrying the metadata, without the closing brace
+     */
+    private byte[] envelopePrefix(String requestId, long processingTime) {
         try {
-            JsonNode jsonNode = objectMapper.readTree(responseBody);
-            
-            if (jsonNode.isObject()) {
-                ObjectNode objectNode = (ObjectNode) jsonNode;
-                
-                // Add metadata
-                objectNode.put("requestId", requestId != null ? requestId : "unknown");
-                objectNode.put("processingTime", processingTime);
-                objectNode.put("gatewayTimestamp", LocalDateTime.now().format(FORMATTER));
-                objectNode.put("gatewayVersion", "1.0.0");
-                objectNode.put("gatewayService", "api-gateway");
-                
-                return objectMapper.writeValueAsString(objectNode);
-            } else {
-                // For non-object responses, wrap in a standard format
-                ObjectNode wrapper = objectMapper.createObjectNode();
-                wrapper.set("data", jsonNode);
-                wrapper.put("requestId", requestId != null ? requestId : "unknown");
-                wrapper.put("processingTime", processingTime);
-                wrapper.put("gatewayTimestamp", LocalDateTime.now().format(FORMATTER));
-                wrapper.put("gatewayVersion", "1.0.0");
-                wrapper.put("gatewayService", "api-gateway");
-                
-                return objectMapper.writeValueAsString(wrapper);
-            }
+            return ("{\"requestId\":" + objectMapper.writeValueAsString(requestId)
+                + ",\"processingTime\":" + processingTime).getBytes(StandardCharsets.UTF_8);
         } catch (JsonProcessingException e) {
-            log.error("Error parsing response body for transformation", e);
-            return responseBody; // Return original response if transformation fails
+            throw new IllegalStateException("Cannot encode request ID", e);
+        }
+    }
+
+    private static boolean isWhitespace(int b) {
+        return b == ' ' || b == '\t' || b == '\n' || b == '\r';
+    }
+
+    /**
+     * Splices the metadata into the first buffer of a JSON object body and passes every other
+     * buffer through as it arrives
+     */
+    private class EnvelopeResponse extends ServerHttpResponseDecorator {
+
+        private final String requestId;
+        private final long startTime;
+
+        EnvelopeResponse(ServerHttpResponse delegate, String requestId, long startTime) {
+            super(delegate);
+            this.requestId = requestId;
+            this.startTime = startTime;
+        }
+
+        @Override
+        public Mono<Void> writeWith(Publisher<? extends DataBuffer> body) {
+            if (!isJsonResponse(getDelegate()) || isEncoded(getDelegate())) {
+                return super.writeWith(body);
+            }
+            Flux<DataBuffer> spliced = Flux.<DataBuffer>from(body).switchOnFirst((first, buffers) -> {
+                if (!first.hasValue()) {
+                    return buffers;
+                }
+                DataBuffer buffer = first.get();
+                int brace = buffer.indexOf(b -> !isWhitespace(b), buffer.readPosition());
+                if (brace < 0 || buffer.getByte(brace) != '{') {
+                    return buffers;
+                }
+                int next = buffer.indexOf(b -> !isWhitespace(b), brace + 1);
+                if (next < 0) {
+                    // Cannot tell an empty object from a full one without buffering
+                    return buffers;
+                }
+                byte[] prefix = envelopePrefix(requestId, System.currentTimeMillis() - startTime);
+                boolean empty = buffer.getByte(next) == '}';
+                byte[] opening = new byte[prefix.length + (empty ? 0 : 1)];
+                System.arraycopy(prefix, 0, opening, 0, prefix.length);
+                if (!empty) {
+                    opening[prefix.length] = ',';
+                }
+                adjustHeaders(opening.length - (brace + 1 - buffer.readPosition()));
+                buffer.readPosition(brace + 1);
+                return Flux.concat(Mono.just(bufferFactory().wrap(opening)), buffers);
+            });
+            return super.writeWith(spliced);
+        }
+
+        private void adjustHeaders(int added) {
+            HttpHeaders headers = getHeaders();
+            long length = headers.getContentLength();
+            if (length >= 0) {
+                headers.setContentLength(length + added);
+            }
+            // The body is no longer byte for byte the one the entity tag was computed over
+            String etag = headers.getETag();
+            if (etag != null && !etag.startsWith("W/")) {
+                headers.setETag("W/" + etag);
+            }
         }
     }
-} 
\ No newline at end of file
+}
@@ -0,0 +1,137 @@
+package com.maelcolium.telepesa.gateway.loadbalancer;
+
+import com.maelcolium.telepesa.gateway.config.LoadBalancingProperties;
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Calls in flight and latency of each service instance the gateway calls, which the
+ * {@link LatencyAwareLoadBalancer} chooses instances by.
+ *
+ * <p>Latency is a peak EWMA: a response slower than the estimate replaces it at once, faster
+ * ones pull it down gradually, and it decays while the instance is not called, so an instance
+ * that was avoided gets tried again.</p>
+ */
+@Component
+public class InstanceLoadStats {
+
+    private final LoadBalancingProperties properties;
+    private final Map<String, InstanceLoad> loads = new ConcurrentHashMap<>();
+    private volatile long lastPruned = System.nanoTime();
+
+    public InstanceLoadStats(LoadBalancingProperties properties) {
+        this.properties = properties;
+    }
+
+    /**
+     * Count a call to the instance as in flight until the returned call is ended
+     */
+    public Call start(ServiceInstance instance) {
+        pruneIdle();
+        InstanceLoad load = loads.computeIfAbsent(key(instance), key -> new InstanceLoad());
+        load.outstanding.incrementAndGet();
+        return new Call(load, System.nanoTime());
+    }
+
+    /**
+     * Estimated latency of the instance in nanoseconds, or -1 before its first response
+     */
+    public double cost(ServiceInstance instance) {
+        InstanceLoad load = loads.get(key(instance));
+        return load != null ? load.cost(System.nanoTime(), properties.getDecay().toNanos()) : -1;
+    }
+
+    public int outstanding(ServiceInstance instance) {
+        InstanceLoad load = loads.get(key(instance));
+        return load != null ? load.outstanding.get() : 0;
+    }
+
+    static String key(ServiceInstance instance) {
+        return instance.getServiceId() + '@' + instance.getHost() + ':' + instance.getPort();
+    }
+
+    private void pruneIdle() {
+        long now = System.nanoTime();
+        if (now - lastPruned < TimeUnit.MINUTES.toNanos(1)) {
+            return;
+        }
+        lastPruned = now;
+        long expiry = properties.getIdleExpiry().toNanos();
+        loads.values().removeIf(load -> load.outstanding.get() == 0 && now - load.lastUsed > expiry);
+    }
+
+    private static class InstanceLoad {
+
+        final AtomicInteger outstanding = new AtomicInteger();
+        volatile long lastUsed = System.nanoTime();
+
+        // Guarded by this
+        private double cost = -1;
+        private long updated;
+
+        synchronized void observe(long rttNanos, long now, long decayNanos) {
+            lastUsed = now;
+            if (cost < 0 || rttNanos > cost) {
+                cost = rttNanos;
+            } else {
+                double weight = Math.exp(-(double) (now - updated) / decayNanos);
+                cost = cost * weight + rttNanos * (1 - weight);
+            }
+            updated = now;
+        }
+
+        synchronized double cost(long now, long decayNanos) {
+            if (cost < 0) {
+                return -1;
+            }
+            return cost * Math.exp(-(double) (now - updated) / decayNanos);
+        }
+    }
+
+    /**
+     * One call to an instance; record its response once it arrives, and end it when done
+     */
+    public final class Call {
+
+        private final InstanceLoad load;
+        private final long startNanos;
+        private final AtomicBoolean responded = new AtomicBoolean();
+        private final AtomicBoolean ended = new AtomicBoolean();
+
+        private Call(InstanceLoad load, long startNanos) {
+            this.load = load;
+            this.startNanos = startNanos;
+        }
+
+        /**
+         * Record the time to the response, penalised if it failed
+         */
+        public void responded(boolean failed) {
+            if (!responded.compareAndSet(false, true)) {
+                return;
+            }
+            long now = System.nanoTime();
+            long rtt = now - startNanos;
+            if (failed) {
+                rtt = Math.max(rtt, properties.getFailurePenalty().toNanos());
+            }
+            load.observe(rtt, now, properties.getDecay().toNanos());
+        }
+
+        /**
+         * No longer in flight; a call ended before its response counts as one that took this long
+         */
+        public void end(boolean failed) {
+            if (ended.compareAndSet(false, true)) {
+                responded(failed);
+                load.outstanding.decrementAndGet();
+            }
+        }
+    }
+}
@@ -0,0 +1,98 @@
+package com.maelcolium.telepesa.gateway.loadbalancer;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.cloud.client.loadbalancer.DefaultResponse;
+import org.springframework.cloud.client.loadbalancer.EmptyResponse;
+import org.springframework.cloud.client.loadbalancer.Request;
+import org.springframework.cloud.client.loadbalancer.Response;
+import org.springframework.cloud.loadbalancer.core.NoopServiceInstanceListSupplier;
+import org.springframework.cloud.loadbalancer.core.ReactorServiceInstanceLoadBalancer;
+import org.springframework.cloud.loadbalancer.core.SelectedInstanceCallback;
+import org.springframework.cloud.loadbalancer.core.ServiceInstanceListSupplier;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Chooses the instance of a service to call by power of two choices: of two instances picked at
+ * random, the one with the lower latency estimate times calls in flight. Slow or busy instances
+ * get less traffic, without every gateway instance piling onto the same fastest one.
+ */
+public class LatencyAwareLoadBalancer implements ReactorServiceInstanceLoadBalancer {
+
+    private final ObjectProvider<ServiceInstanceListSupplier> supplierProvider;
+    private final String serviceId;
+    private final InstanceLoadStats stats;
+
+    public LatencyAwareLoadBalancer(ObjectProvider<ServiceInstanceListSupplier> supplierProvider, String serviceId,
+                                    InstanceLoadStats stats) {
+        this.supplierProvider = supplierProvider;
+        this.serviceId = serviceId;
+        this.stats = stats;
+    }
+
+    @Override
+    public Mono<Response<ServiceInstance>> choose(Request request) {
+        ServiceInstanceListSupplier supplier = supplierProvider.getIfAvailable(NoopServiceInstanceListSupplier::new);
+        return supplier.get(request).next().map(instances -> {
+            Response<ServiceInstance> response = instances.isEmpty()
+                ? new EmptyResponse()
+                : new DefaultResponse(pick(instances));
+            if (supplier instanceof SelectedInstanceCallback callback && response.hasServer()) {
+                callback.selectedServiceInstance(response.getServer());
+            }
+            return response;
+        });
+    }
+
+    /**
+     * Choose an instance other than the one given, for a second request
+     *
+     * @param orSame whether the given instance may be chosen when it is the only one
+     */
+    public Mono<ServiceInstance> chooseOther(ServiceInstance excluded, boolean orSame) {
+        ServiceInstanceListSupplier supplier = supplierProvider.getIfAvailable(NoopServiceInstanceListSupplier::new);
+        String excludedKey = InstanceLoadStats.key(excluded);
+        return supplier.get().next().mapNotNull(instances -> {
+            List<ServiceInstance> others = instances.stream()
+                .filter(instance -> !InstanceLoadStats.key(instance).equals(excludedKey))
+                .toList();
+            if (others.isEmpty()) {
+                return orSame ? excluded : null;
+            }
+            return pick(others);
+        });
+    }
+
+    public String getServiceId() {
+        return serviceId;
+    }
+
+    private ServiceInstance pick(List<ServiceInstance> instances) {
+        if (instances.size() == 1) {
+            return instances.get(0);
+        }
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        int first = random.nextInt(instances.size());
+        int second = random.nextInt(instances.size() - 1);
+        if (second >= first) {
+            second++;
+        }
+        ServiceInstance a = instances.get(first);
+        ServiceInstance b = instances.get(second);
+        double costA = stats.cost(a);
+        double costB = stats.cost(b);
+        // An instance without a response yet is taken to be as fast as the one it is compared with
+        if (costA < 0) {
+            costA = costB;
+        }
+        if (costB < 0) {
+            costB = costA;
+        }
+        double scoreA = Math.max(costA, 1) * (stats.outstanding(a) + 1);
+        double scoreB = Math.max(costB, 1) * (stats.outstanding(b) + 1);
+        return scoreA <= scoreB ? a : b;
+    }
+}
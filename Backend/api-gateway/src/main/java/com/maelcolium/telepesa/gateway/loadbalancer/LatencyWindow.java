@@ -0,0 +1,44 @@
+package com.maelcolium.telepesa.gateway.loadbalancer;
+
+import java.util.Arrays;
+
+/**
+ * The latest latencies of a route, and a percentile of them recomputed every few samples.
+ */
+public class LatencyWindow {
+
+    private final double percentile;
+    private final int minSamples;
+    private final long[] samples;
+    private volatile long percentileNanos = -1;
+
+    // Guarded by this
+    private int next;
+    private int count;
+    private int sinceUpdate;
+
+    public LatencyWindow(int size, int minSamples, double percentile) {
+        this.samples = new long[size];
+        this.minSamples = minSamples;
+        this.percentile = percentile;
+    }
+
+    public synchronized void record(long nanos) {
+        samples[next] = nanos;
+        next = (next + 1) % samples.length;
+        count = Math.min(count + 1, samples.length);
+        if (++sinceUpdate >= Math.max(1, samples.length / 20) && count >= minSamples) {
+            long[] sorted = Arrays.copyOf(samples, count);
+            Arrays.sort(sorted);
+            percentileNanos = sorted[Math.max(0, (int) Math.ceil(percentile * count) - 1)];
+            sinceUpdate = 0;
+        }
+    }
+
+    /**
+     * The percentile in nanoseconds, or -1 until there are enough samples
+     */
+    public long percentileNanos() {
+        return percentileNanos;
+    }
+}
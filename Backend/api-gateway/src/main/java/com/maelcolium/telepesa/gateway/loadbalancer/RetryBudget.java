@@ -0,0 +1,49 @@
+package com.maelcolium.telepesa.gateway.loadbalancer;
+
+/**
+ * Bounds the second requests a route sends, hedges and retries alike, to a share of its
+ * requests plus a small allowance per second. Each request deposits a fraction of a token and
+ * each second request withdraws a whole one, so an overloaded service sees at most that share
+ * more traffic instead of a retry storm.
+ */
+public class RetryBudget {
+
+    private final double ratio;
+    private final double minPerSecond;
+    private final double max;
+
+    // Guarded by this
+    private double balance;
+    private long refilled = System.nanoTime();
+
+    public RetryBudget(double ratio, double minPerSecond, double max) {
+        this.ratio = ratio;
+        this.minPerSecond = minPerSecond;
+        this.max = max;
+        this.balance = Math.min(max, minPerSecond);
+    }
+
+    public synchronized void deposit() {
+        refill();
+        balance = Math.min(max, balance + ratio);
+    }
+
+    /**
+     * @return whether a second request may be sent
+     */
+    public synchronized boolean tryWithdraw() {
+        refill();
+        // Tolerates the rounding of summed fractions, so ten deposits of 0.1 make a whole token
+        if (balance < 1 - 1e-9) {
+            return false;
+        }
+        balance = Math.max(0, balance - 1);
+        return true;
+    }
+
+    private void refill() {
+        long now = System.nanoTime();
+        balance = Math.min(max, balance + minPerSecond * (now - refilled) / 1e9);
+        refilled = now;
+    }
+}
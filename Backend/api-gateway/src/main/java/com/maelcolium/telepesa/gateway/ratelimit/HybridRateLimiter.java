@@ -0,0 +1,309 @@
+package com.maelcolium.telepesa.gateway.ratelimit;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.Data;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.BeansException;
+import org.springframework.cloud.gateway.filter.ratelimit.AbstractRateLimiter;
+import org.springframework.cloud.gateway.support.ConfigurationService;
+import org.springframework.context.ApplicationContext;
+import org.springframework.context.ApplicationContextAware;
+import org.springframework.data.redis.core.ReactiveStringRedisTemplate;
+import org.springframework.data.redis.core.script.RedisScript;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * Token-bucket rate limiter that admits requests from memory and reconciles with Redis in the
+ * background, so admission never waits on a Redis round trip.
+ *
+ * <p>Buckets are kept per route and key in lock stripes, each a bounded LRU, so requests for
+ * different keys rarely contend. Every sync interval the tokens each bucket consumed are added to
+ * a per-second counter in Redis shared by all gateway instances; whatever the other instances
+ * consumed in that second is then taken out of the local bucket. A key can therefore overshoot
+ * its cluster-wide limit by about what the other instances admit within one sync interval.</p>
+ *
+ * <p>While Redis is unreachable each instance enforces the limit on its own, so the cluster
+ * admits up to the limit times the number of instances. What the buckets consume meanwhile is kept
+ * and pushed once reconciliation resumes after a backoff, so the other instances still take it out
+ * of their buckets.</p>
+ */
+@Slf4j
+public class HybridRateLimiter extends AbstractRateLimiter<HybridRateLimiter.Config> implements ApplicationContextAware {
+
+    public static final String CONFIGURATION_PROPERTY_NAME = "hybrid-rate-limiter";
+    public static final String REMAINING_HEADER = "X-RateLimit-Remaining";
+    public static final String REPLENISH_RATE_HEADER = "X-RateLimit-Replenish-Rate";
+    public static final String BURST_CAPACITY_HEADER = "X-RateLimit-Burst-Capacity";
+    public static final String REQUESTED_TOKENS_HEADER = "X-RateLimit-Requested-Tokens";
+
+    private static final int STRIPES = 64;
+    private static final Duration REDIS_BACKOFF = Duration.ofSeconds(5);
+    private static final Duration REDIS_TIMEOUT = Duration.ofSeconds(2);
+    private static final int SYNC_CONCURRENCY = 32;
+
+    // Adds to the counter of a second and returns the total, expiring it once the second is over
+    private static final RedisScript<Long> CONSUME_SCRIPT = RedisScript.of("""
+        local total = redis.call('INCRBY', KEYS[1], ARGV[1])
+        if total == tonumber(ARGV[1]) then
+          redis.call('EXPIRE', KEYS[1], ARGV[2])
+        end
+        return total
+        """, Long.class);
+
+    @Data
+    public static class Config {
+
+        /**
+         * Tokens added to a bucket per second
+         */
+        private int replenishRate;
+
+        /**
+         * Most tokens a bucket holds, and so the largest burst admitted
+         */
+        private int burstCapacity = 1;
+
+        /**
+         * Tokens a request costs
+         */
+        private int requestedTokens = 1;
+    }
+
+    private final Config defaultConfig;
+    private final ReactiveStringRedisTemplate redisTemplate;
+    private final Duration syncInterval;
+    private final Duration redisBackoff;
+    private final Stripe[] stripes = new Stripe[STRIPES];
+    private final LongSupplier nanoTime;
+    // While Redis is unreachable, the nanoTime at which it is tried again
+    private final AtomicBoolean redisDown = new AtomicBoolean();
+    private final AtomicLong redisRetryAt = new AtomicLong();
+    private Disposable sync;
+
+    public HybridRateLimiter(int replenishRate, int burstCapacity, int requestedTokens,
+                             ReactiveStringRedisTemplate redisTemplate, Duration syncInterval, int maxKeys) {
+        this(replenishRate, burstCapacity, requestedTokens, redisTemplate, syncInterval, maxKeys, REDIS_BACKOFF,
+            System::nanoTime);
+    }
+
+    HybridRateLimiter(int replenishRate, int burstCapacity, int requestedTokens,
+                      ReactiveStringRedisTemplate redisTemplate, Duration syncInterval, int maxKeys,
+                      Duration redisBackoff, LongSupplier nanoTime) {
+        super(Config.class, CONFIGURATION_PROPERTY_NAME, null);
+        this.defaultConfig = new Config();
+        this.defaultConfig.setReplenishRate(replenishRate);
+        this.defaultConfig.setBurstCapacity(burstCapacity);
+        this.defaultConfig.setRequestedTokens(requestedTokens);
+        this.redisTemplate = redisTemplate;
+        this.syncInterval = syncInterval;
+        this.redisBackoff = redisBackoff;
+        this.nanoTime = nanoTime;
+        for (int i = 0; i < STRIPES; i++) {
+            stripes[i] = new Stripe(Math.max(1, maxKeys / STRIPES));
+        }
+    }
+
+    @Override
+    public void setApplicationContext(ApplicationContext context) throws BeansException {
+        // Needed to bind per-route configuration given as RequestRateLimiter arguments
+        context.getBeanProvider(ConfigurationService.class).ifAvailable(this::setConfigurationService);
+    }
+
+    @PostConstruct
+    public void start() {
+        sync = Flux.interval(syncInterval)
+            .onBackpressureDrop()
+            .concatMap(tick -> reconcile().onErrorResume(e -> Mono.empty()), 1)
+            .subscribe();
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (sync != null) {
+            sync.dispose();
+        }
+    }
+
+    @Override
+    public Mono<Response> isAllowed(String routeId, String id) {
+        Config config = getConfig().getOrDefault(routeId, defaultConfig);
+        String key = routeId + "." + id;
+        Stripe stripe = stripes[(key.hashCode() & 0x7fffffff) % STRIPES];
+        long remaining;
+        boolean allowed;
+        synchronized (stripe) {
+            long now = nanoTime.getAsLong();
+            Bucket bucket = stripe.buckets.computeIfAbsent(key, k -> new Bucket(k, config, now));
+            bucket.refill(config, now);
+            allowed = bucket.tokens >= config.getRequestedTokens();
+            if (allowed) {
+                bucket.tokens -= config.getRequestedTokens();
+                bucket.pending += config.getRequestedTokens();
+            }
+            if (!bucket.dirty) {
+                bucket.dirty = true;
+                stripe.dirty.add(bucket);
+            }
+            remaining = Math.max(0, (long) bucket.tokens);
+        }
+        return Mono.just(new Response(allowed, headers(config, remaining)));
+    }
+
+    private Map<String, String> headers(Config config, long remaining) {
+        return Map.of(
+            REMAINING_HEADER, Long.toString(remaining),
+            REPLENISH_RATE_HEADER, Integer.toString(config.getReplenishRate()),
+            BURST_CAPACITY_HEADER, Integer.toString(config.getBurstCapacity()),
+            REQUESTED_TOKENS_HEADER, Integer.toString(config.getRequestedTokens()));
+    }
+
+    /**
+     * Push what the buckets used since the last sync and take out what other instances used
+     */
+    Mono<Void> reconcile() {
+        if (redisDown.get() && nanoTime.getAsLong() - redisRetryAt.get() < 0) {
+            // Local only; what is consumed meanwhile stays pending until Redis is back
+            return Mono.empty();
+        }
+        List<Bucket> buckets = new ArrayList<>();
+        List<Long> consumed = new ArrayList<>();
+        for (Stripe stripe : stripes) {
+            synchronized (stripe) {
+                for (Bucket bucket : stripe.dirty) {
+                    buckets.add(bucket);
+                    consumed.add(bucket.pending);
+                    bucket.pending = 0;
+                    bucket.dirty = false;
+                }
+                stripe.dirty.clear();
+            }
+        }
+        if (buckets.isEmpty()) {
+            return Mono.empty();
+        }
+
+        long second = System.currentTimeMillis() / 1000;
+        // Emitted one at a time by flatMap, so it needs no further guard
+        BitSet pushed = new BitSet(buckets.size());
+        return Flux.range(0, buckets.size())
+            .flatMap(i -> {
+                Bucket bucket = buckets.get(i);
+                long delta = consumed.get(i);
+                return redisTemplate.execute(CONSUME_SCRIPT,
+                        List.of("rate_limiter." + bucket.key + "." + second + ".consumed"),
+                        List.of(Long.toString(delta), "2"))
+                    .next()
+                    .doOnNext(total -> applyClusterTotal(bucket, second, delta, total))
+                    .thenReturn(i);
+            }, SYNC_CONCURRENCY)
+            .doOnNext(pushed::set)
+            .timeout(REDIS_TIMEOUT)
+            .then()
+            .doOnError(e -> {
+                for (int i = pushed.nextClearBit(0); i < buckets.size(); i = pushed.nextClearBit(i + 1)) {
+                    restorePending(buckets.get(i), consumed.get(i));
+                }
+                redisRetryAt.set(nanoTime.getAsLong() + redisBackoff.toNanos());
+                if (!redisDown.getAndSet(true)) {
+                    log.warn("Rate limiter cannot reach Redis; limiting per instance until it is back: {}", e.getMessage());
+                }
+            })
+            .doOnSuccess(done -> {
+                if (redisDown.getAndSet(false)) {
+                    log.info("Rate limiter reconciling with Redis again");
+                }
+            });
+    }
+
+    /**
+     * Put back what a failed sync drained, to be pushed with what is consumed until the next one
+     */
+    private void restorePending(Bucket bucket, long delta) {
+        Stripe stripe = stripes[(bucket.key.hashCode() & 0x7fffffff) % STRIPES];
+        synchronized (stripe) {
+            bucket.pending += delta;
+            if (!bucket.dirty) {
+                bucket.dirty = true;
+                stripe.dirty.add(bucket);
+            }
+        }
+    }
+
+    private void applyClusterTotal(Bucket bucket, long second, long delta, long total) {
+        Stripe stripe = stripes[(bucket.key.hashCode() & 0x7fffffff) % STRIPES];
+        synchronized (stripe) {
+            if (bucket.second != second) {
+                bucket.second = second;
+                bucket.ownInSecond = 0;
+                bucket.othersInSecond = 0;
+            }
+            bucket.ownInSecond += delta;
+            long others = total - bucket.ownInSecond;
+            if (others > bucket.othersInSecond) {
+                // Debt is bounded by one burst, so a key is never locked out for longer than a refill
+                bucket.tokens = Math.max(-bucket.burstCapacity, bucket.tokens - (others - bucket.othersInSecond));
+                bucket.othersInSecond = others;
+            }
+        }
+    }
+
+    private static final class Stripe {
+
+        // Access order, so the least recently used bucket is dropped first
+        private final Map<String, Bucket> buckets;
+        private final List<Bucket> dirty = new ArrayList<>();
+
+        Stripe(int maxKeys) {
+            this.buckets = new LinkedHashMap<>(16, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<String, Bucket> eldest) {
+                    return size() > maxKeys;
+                }
+            };
+        }
+    }
+
+    /**
+     * Guarded by its stripe
+     */
+    private static final class Bucket {
+
+        private final String key;
+        private final int burstCapacity;
+        private double tokens;
+        private long refilledAt;
+        // Consumed locally since the last sync
+        private long pending;
+        private boolean dirty;
+        // The second last reconciled, and what this and the other instances consumed in it
+        private long second;
+        private long ownInSecond;
+        private long othersInSecond;
+
+        Bucket(String key, Config config, long now) {
+            this.key = key;
+            this.burstCapacity = config.getBurstCapacity();
+            this.tokens = config.getBurstCapacity();
+            this.refilledAt = now;
+        }
+
+        void refill(Config config, long now) {
+            double added = (now - refilledAt) * config.getReplenishRate() / 1_000_000_000.0;
+            tokens = Math.min(config.getBurstCapacity(), tokens + added);
+            refilledAt = now;
+        }
+    }
+}
@@ -0,0 +1,48 @@
+package com.maelcolium.telepesa.gateway.security;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.security.oauth2.jwt.BadJwtException;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.jwt.JwtException;
+import org.springframework.security.oauth2.jwt.ReactiveJwtDecoder;
+import reactor.core.publisher.Mono;
+
+/**
+ * Verifies each distinct token once: the delegate checks the signature and claims on first use,
+ * and later requests with the same token are answered from the {@link VerifiedTokenCache}.
+ */
+public class CachingReactiveJwtDecoder implements ReactiveJwtDecoder {
+
+    private final ReactiveJwtDecoder delegate;
+    private final VerifiedTokenCache cache;
+    private final Counter hits;
+    private final Counter misses;
+
+    public CachingReactiveJwtDecoder(ReactiveJwtDecoder delegate, VerifiedTokenCache cache, MeterRegistry meterRegistry) {
+        this.delegate = delegate;
+        this.cache = cache;
+        this.hits = Counter.builder("gateway.jwt.decode").tag("result", "hit").register(meterRegistry);
+        this.misses = Counter.builder("gateway.jwt.decode").tag("result", "miss").register(meterRegistry);
+        Gauge.builder("gateway.jwt.cache.size", cache, VerifiedTokenCache::size).register(meterRegistry);
+    }
+
+    @Override
+    public Mono<Jwt> decode(String token) throws JwtException {
+        String tokenHash = VerifiedTokenCache.hash(token);
+        Jwt cached = cache.get(tokenHash);
+        if (cached != null) {
+            hits.increment();
+            return Mono.just(cached);
+        }
+        misses.increment();
+        return delegate.decode(token).flatMap(jwt -> {
+            if (cache.isRevoked(tokenHash, jwt)) {
+                return Mono.error(new BadJwtException("Token has been revoked"));
+            }
+            cache.put(tokenHash, jwt);
+            return Mono.just(jwt);
+        });
+    }
+}
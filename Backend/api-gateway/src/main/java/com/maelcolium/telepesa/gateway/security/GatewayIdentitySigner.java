@@ -0,0 +1,21 @@
+package com.maelcolium.telepesa.gateway.security;
+
+import com.maelcolium.telepesa.security.GatewayIdentity;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Signs the identity headers the gateway forwards, so a downstream service can trust them without
+ * verifying the caller's token again.
+ *
+ * <p>The signing itself is the shared {@link GatewayIdentity}, which the services verify with.
+ * {@code app.gateway.identity.secret} has no default: the gateway does not start without one.</p>
+ */
+@Component
+public class GatewayIdentitySigner extends GatewayIdentity {
+
+    public GatewayIdentitySigner(@Value("${app.gateway.identity.secret}") String secret,
+                                 @Value("${app.gateway.identity.max-age:30}") long maxAgeSeconds) {
+        super(secret, maxAgeSeconds);
+    }
+}
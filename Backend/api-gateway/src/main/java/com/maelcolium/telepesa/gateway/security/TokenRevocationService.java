@@ -0,0 +1,87 @@
+package com.maelcolium.telepesa.gateway.security;
+
+import com.maelcolium.telepesa.security.TokenRevocations;
+import com.maelcolium.telepesa.security.TokenRevocations.Revocation;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.redis.core.ReactiveStringRedisTemplate;
+import org.springframework.stereotype.Service;
+import reactor.core.Disposable;
+import reactor.core.publisher.Mono;
+import reactor.util.retry.Retry;
+
+import java.time.Duration;
+import java.time.Instant;
+
+/**
+ * Revokes tokens on every gateway instance. A revocation is applied to the local
+ * {@link VerifiedTokenCache} at once and published on {@link TokenRevocations#CHANNEL} for the
+ * other instances, which apply it on receipt. Services publish there too, for example when an
+ * account is locked, so the gateway stops accepting that user's cached tokens.
+ *
+ * <p>Raw tokens are never published, only their hashes. While Redis is unreachable the
+ * subscription is retried with backoff, and revocations only reach the instance they were made
+ * on.</p>
+ */
+@Service
+@Slf4j
+public class TokenRevocationService {
+
+    private final VerifiedTokenCache cache;
+    private final ReactiveStringRedisTemplate redisTemplate;
+    private Disposable subscription;
+
+    public TokenRevocationService(VerifiedTokenCache cache, ReactiveStringRedisTemplate redisTemplate) {
+        this.cache = cache;
+        this.redisTemplate = redisTemplate;
+    }
+
+    @PostConstruct
+    public void subscribe() {
+        subscription = redisTemplate.listenToChannel(TokenRevocations.CHANNEL)
+            .doOnNext(message -> apply(message.getMessage()))
+            .doOnError(e -> log.warn("Token revocation subscription failed; retrying: {}", e.getMessage()))
+            .retryWhen(Retry.backoff(Long.MAX_VALUE, Duration.ofSeconds(1)).maxBackoff(Duration.ofSeconds(30)))
+            .subscribe();
+    }
+
+    public Mono<Void> revokeToken(String token) {
+        String tokenHash = VerifiedTokenCache.hash(token);
+        cache.revokeToken(tokenHash);
+        return publish(Revocation.ofToken(tokenHash));
+    }
+
+    public Mono<Void> revokeSubject(String subject) {
+        Instant now = Instant.now();
+        cache.revokeSubject(subject, now);
+        return publish(Revocation.ofSubject(subject, now));
+    }
+
+    private Mono<Void> publish(Revocation revocation) {
+        return redisTemplate.convertAndSend(TokenRevocations.CHANNEL, revocation.toMessage())
+            .doOnError(e -> log.warn("Failed to publish token revocation; applied on this instance only", e))
+            .onErrorResume(e -> Mono.empty())
+            .then();
+    }
+
+    private void apply(String message) {
+        try {
+            Revocation revocation = Revocation.parse(message);
+            if (revocation.tokenHash() != null) {
+                cache.revokeToken(revocation.tokenHash());
+            } else {
+                cache.revokeSubject(revocation.subject(), revocation.revokedAt());
+            }
+        } catch (RuntimeException e) {
+            log.warn("Ignoring malformed token revocation message: {}", message, e);
+        }
+    }
+
+    @PreDestroy
+    public void close() {
+        if (subscription != null) {
+            subscription.dispose();
+        }
+    }
+}
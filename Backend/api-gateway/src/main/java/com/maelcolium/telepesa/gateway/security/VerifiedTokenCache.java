@@ -0,0 +1,224 @@
+package com.maelcolium.telepesa.gateway.security;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Tokens whose signature the gateway has already verified, keyed by a SHA-256 hash of the token
+ * so raw tokens are never held in memory.
+ *
+ * <p>An entry lives until the token expires or {@code max-ttl} passes, whichever is first. The
+ * cache is split into segments by hash, each a small LRU map under its own lock, so lookups on
+ * different tokens rarely contend. Revocations are kept for the longest a token can live: a
+ * revoked token hash is rejected outright, and a revoked subject rejects every token issued
+ * before the revocation.</p>
+ *
+ * <p>A revocation is only dropped once every token it covers has expired. When {@code max-size}
+ * revocations are still in force, a further one cannot be recorded, so every token is rejected
+ * until the tokens it covers have expired, rather than letting a revoked token through.</p>
+ */
+@Component
+@Slf4j
+public class VerifiedTokenCache {
+
+    private static final int SEGMENTS = 16;
+
+    private record Entry(Jwt jwt, long expiresAtMillis) {
+    }
+
+    private final Map<String, Entry>[] segments;
+    private final long maxTtlMillis;
+    private final Revocations revokedTokens;
+    private final Revocations revokedSubjects;
+
+    @SuppressWarnings("unchecked")
+    public VerifiedTokenCache(@Value("${app.gateway.token-cache.max-size:100000}") int maxSize,
+                              @Value("${app.gateway.token-cache.max-ttl:900}") long maxTtlSeconds,
+                              @Value("${app.jwt.expiration:86400}") long tokenLifetimeSeconds) {
+        int segmentSize = Math.max(1, maxSize / SEGMENTS);
+        this.segments = new Map[SEGMENTS];
+        for (int i = 0; i < SEGMENTS; i++) {
+            segments[i] = new LinkedHashMap<>(64, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+                    return size() > segmentSize;
+                }
+            };
+        }
+        this.maxTtlMillis = maxTtlSeconds * 1000L;
+        this.revokedTokens = new Revocations("token", maxSize, tokenLifetimeSeconds * 1000L);
+        this.revokedSubjects = new Revocations("subject", maxSize, tokenLifetimeSeconds * 1000L);
+    }
+
+    /**
+     * Revocation times by key, each kept until every token it covers has expired
+     */
+    private static final class Revocations {
+
+        private final String kind;
+        private final int maxSize;
+        private final long retentionMillis;
+        // Guarded by this; insertion order, which is close to expiry order
+        private final Map<String, Long> revokedAt = new LinkedHashMap<>();
+        private long rejectAllUntil;
+
+        Revocations(String kind, int maxSize, long retentionMillis) {
+            this.kind = kind;
+            this.maxSize = Math.max(1, maxSize);
+            this.retentionMillis = retentionMillis;
+        }
+
+        synchronized void add(String key, long at, long now) {
+            Long previous = revokedAt.remove(key);
+            if (previous != null) {
+                revokedAt.put(key, Math.max(previous, at));
+                return;
+            }
+            if (at + retentionMillis <= now) {
+                return;
+            }
+            if (revokedAt.size() >= maxSize) {
+                removeExpired(now);
+            }
+            if (revokedAt.size() >= maxSize) {
+                if (rejectAllUntil <= now) {
+                    log.warn("{} {} revocations are in force; rejecting every token until {}",
+                        revokedAt.size(), kind, Instant.ofEpochMilli(at + retentionMillis));
+                }
+                rejectAllUntil = Math.max(rejectAllUntil, at + retentionMillis);
+                return;
+            }
+            revokedAt.put(key, at);
+        }
+
+        /**
+         * When {@code key} was revoked, or {@code null} if it was not or every token that covers has expired
+         */
+        synchronized Long revokedAt(String key, long now) {
+            Long at = revokedAt.get(key);
+            if (at != null && at + retentionMillis <= now) {
+                revokedAt.remove(key);
+                return null;
+            }
+            return at;
+        }
+
+        synchronized boolean rejectingAll(long now) {
+            return rejectAllUntil > now;
+        }
+
+        // From the oldest, up to the first still in force
+        private void removeExpired(long now) {
+            Iterator<Long> times = revokedAt.values().iterator();
+            while (times.hasNext() && times.next() + retentionMillis <= now) {
+                times.remove();
+            }
+        }
+    }
+
+    public static String hash(String token) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.US_ASCII));
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(digest);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    /**
+     * Returns the verified token for {@code tokenHash}, or {@code null} when it is not cached, has
+     * expired or has been revoked since it was cached.
+     */
+    public Jwt get(String tokenHash) {
+        long now = System.currentTimeMillis();
+        Map<String, Entry> segment = segment(tokenHash);
+        Entry entry;
+        synchronized (segment) {
+            entry = segment.get(tokenHash);
+            if (entry != null && entry.expiresAtMillis() <= now) {
+                segment.remove(tokenHash);
+                entry = null;
+            }
+        }
+        if (entry == null || isRevoked(tokenHash, entry.jwt())) {
+            return null;
+        }
+        return entry.jwt();
+    }
+
+    public void put(String tokenHash, Jwt jwt) {
+        long now = System.currentTimeMillis();
+        long expiresAt = now + maxTtlMillis;
+        if (jwt.getExpiresAt() != null) {
+            expiresAt = Math.min(expiresAt, jwt.getExpiresAt().toEpochMilli());
+        }
+        if (expiresAt <= now) {
+            return;
+        }
+        Map<String, Entry> segment = segment(tokenHash);
+        synchronized (segment) {
+            segment.put(tokenHash, new Entry(jwt, expiresAt));
+        }
+    }
+
+    public boolean isRevoked(String tokenHash, Jwt jwt) {
+        long now = System.currentTimeMillis();
+        if (revokedTokens.rejectingAll(now) || revokedSubjects.rejectingAll(now)) {
+            return true;
+        }
+        if (revokedTokens.revokedAt(tokenHash, now) != null) {
+            return true;
+        }
+        if (jwt.getSubject() == null) {
+            return false;
+        }
+        Long revokedAt = revokedSubjects.revokedAt(jwt.getSubject(), now);
+        if (revokedAt == null) {
+            return false;
+        }
+        Instant issuedAt = jwt.getIssuedAt();
+        return issuedAt == null || issuedAt.toEpochMilli() <= revokedAt;
+    }
+
+    public void revokeToken(String tokenHash) {
+        long now = System.currentTimeMillis();
+        revokedTokens.add(tokenHash, now, now);
+        Map<String, Entry> segment = segment(tokenHash);
+        synchronized (segment) {
+            segment.remove(tokenHash);
+        }
+    }
+
+    /**
+     * Rejects every token of {@code subject} issued up to {@code revokedAt}. Cached tokens of the
+     * subject are not searched for; {@link #get} checks each against this on its next use.
+     */
+    public void revokeSubject(String subject, Instant revokedAt) {
+        revokedSubjects.add(subject, revokedAt.toEpochMilli(), System.currentTimeMillis());
+    }
+
+    public int size() {
+        int size = 0;
+        for (Map<String, Entry> segment : segments) {
+            synchronized (segment) {
+                size += segment.size();
+            }
+        }
+        return size;
+    }
+
+    private Map<String, Entry> segment(String tokenHash) {
+        return segments[(tokenHash.hashCode() & 0x7fffffff) % SEGMENTS];
+    }
+}
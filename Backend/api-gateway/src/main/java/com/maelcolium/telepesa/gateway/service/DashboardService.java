@@ -0,0 +1,175 @@
+package com.maelcolium.telepesa.gateway.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.maelcolium.telepesa.gateway.config.DashboardProperties;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.cloud.client.loadbalancer.reactive.ReactorLoadBalancerExchangeFilterFunction;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.stereotype.Service;
+import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+import org.springframework.web.server.ResponseStatusException;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Function;
+
+/**
+ * Dashboard Service for API Gateway
+ *
+ * Composes the home screen from the services behind the gateway in one call: the user's
+ * profile, accounts, total balance, recent transactions, active loans and unread notification
+ * count. The parts are fetched concurrently, straight from the service instances, each with
+ * its own timeout. A part that fails or times out is left out and named under {@code errors},
+ * so one slow service does not hold back the rest of the screen.
+ *
+ * @author Telepesa Development Team
+ * @version 1.0.0
+ */
+@Slf4j
+@Service
+public class DashboardService {
+
+    public static final String PROFILE = "profile";
+    public static final String ACCOUNTS = "accounts";
+    public static final String TOTAL_BALANCE = "totalBalance";
+    public static final String RECENT_TRANSACTIONS = "recentTransactions";
+    public static final String ACTIVE_LOANS = "activeLoans";
+    public static final String UNREAD_NOTIFICATIONS = "unreadNotifications";
+
+    private static final List<String> PARTS = List.of(
+        PROFILE, ACCOUNTS, TOTAL_BALANCE, RECENT_TRANSACTIONS, ACTIVE_LOANS, UNREAD_NOTIFICATIONS);
+
+    /**
+     * A part of the dashboard, with either its value or why it is missing
+     */
+    private record Part(String name, JsonNode value, String error) {
+    }
+
+    private final WebClient webClient;
+    private final DashboardProperties properties;
+    private final MeterRegistry meterRegistry;
+
+    public DashboardService(WebClient.Builder webClientBuilder, ReactorLoadBalancerExchangeFilterFunction loadBalancer,
+                            DashboardProperties properties, MeterRegistry meterRegistry) {
+        // Service ids as hosts, resolved to instances by the load balancer
+        this.webClient = webClientBuilder
+            .filter(loadBalancer)
+            .codecs(configurer -> configurer.defaultCodecs().maxInMemorySize(2 * 1024 * 1024))
+            .build();
+        this.properties = properties;
+        this.meterRegistry = meterRegistry;
+    }
+
+    /**
+     * Fetch the dashboard of the token's user
+     *
+     * @param jwt     the verified token of the caller
+     * @param headers the caller's request headers; the token and request ID are passed on
+     * @return the parts by name, with {@code partial} and {@code errors} telling which are missing
+     */
+    public Mono<Map<String, Object>> getDashboard(Jwt jwt, HttpHeaders headers) {
+        Mono<Part> profile = part(PROFILE, "http://user-service/api/users/me/profile", headers, Function.identity())
+            .cache();
+        return userId(jwt, profile)
+            .switchIfEmpty(Mono.error(() -> new ResponseStatusException(HttpStatus.BAD_GATEWAY,
+                "Cannot resolve the user for the dashboard")))
+            .flatMap(userId -> Flux.merge(
+                    profile,
+                    part(ACCOUNTS, "http://account-service/api/v1/accounts/user/" + userId, headers,
+                        page -> page.get("content")),
+                    part(TOTAL_BALANCE, "http://account-service/api/v1/accounts/user/" + userId + "/total-balance",
+                        headers, Function.identity()),
+                    part(RECENT_TRANSACTIONS, "http://transaction-service/api/v1/transactions/user/" + userId
+                        + "?page=0&size=" + properties.getRecentTransactions(), headers, page -> page.get("content")),
+                    part(ACTIVE_LOANS, "http://loan-service/api/v1/loans/user/" + userId + "/active", headers,
+                        Function.identity()),
+                    part(UNREAD_NOTIFICATIONS, "http://notification-service/api/v1/notifications/user/" + userId + "/count",
+                        headers, counts -> counts.get("unreadCount")))
+                .collectList()
+                .map(parts -> assemble(userId, parts)));
+    }
+
+    /**
+     * The user id claim of the token, or for tokens issued without one, the id in the profile
+     */
+    private static Mono<Long> userId(Jwt jwt, Mono<Part> profile) {
+        Object claim = jwt.getClaims().get("userId");
+        if (claim != null) {
+            try {
+                return Mono.just(Long.valueOf(claim.toString()));
+            } catch (NumberFormatException e) {
+                log.warn("Token of {} has a malformed userId claim", jwt.getSubject());
+            }
+        }
+        return profile.mapNotNull(part -> part.value() != null && part.value().hasNonNull("id")
+            ? part.value().get("id").asLong()
+            : null);
+    }
+
+    private Mono<Part> part(String name, String uri, HttpHeaders headers, Function<JsonNode, JsonNode> extract) {
+        return webClient.get()
+            .uri(uri)
+            .accept(MediaType.APPLICATION_JSON)
+            .headers(forwarded -> forward(headers, forwarded))
+            .retrieve()
+            .bodyToMono(JsonNode.class)
+            .timeout(properties.timeoutFor(name))
+            .map(body -> new Part(name, extract.apply(body), null))
+            .defaultIfEmpty(new Part(name, null, null))
+            .onErrorResume(e -> Mono.just(new Part(name, null, reason(name, e))))
+            .doOnNext(part -> meterRegistry.counter("gateway.dashboard.parts",
+                "part", name, "result", part.error() != null ? part.error() : "ok").increment());
+    }
+
+    private static void forward(HttpHeaders from, HttpHeaders to) {
+        String authorization = from.getFirst(HttpHeaders.AUTHORIZATION);
+        if (authorization != null) {
+            to.set(HttpHeaders.AUTHORIZATION, authorization);
+        }
+        String requestId = from.getFirst("X-Request-ID");
+        if (requestId != null) {
+            to.set("X-Request-ID", requestId);
+        }
+    }
+
+    private static String reason(String name, Throwable e) {
+        if (e instanceof TimeoutException) {
+            log.warn("Dashboard part {} timed out", name);
+            return "timeout";
+        }
+        if (e instanceof WebClientResponseException response) {
+            log.warn("Dashboard part {} failed with status {}", name, response.getStatusCode().value());
+            return "status_" + response.getStatusCode().value();
+        }
+        log.warn("Dashboard part {} unavailable: {}", name, e.getMessage());
+        return "unavailable";
+    }
+
+    private static Map<String, Object> assemble(Long userId, List<Part> parts) {
+        Map<String, Part> byName = new LinkedHashMap<>();
+        parts.forEach(part -> byName.put(part.name(), part));
+
+        Map<String, Object> dashboard = new LinkedHashMap<>();
+        Map<String, String> errors = new LinkedHashMap<>();
+        dashboard.put("userId", userId);
+        for (String name : PARTS) {
+            Part part = byName.get(name);
+            dashboard.put(name, part.value());
+            if (part.error() != null) {
+                errors.put(name, part.error());
+            }
+        }
+        dashboard.put("partial", !errors.isEmpty());
+        dashboard.put("errors", errors);
+        return dashboard;
+    }
+}
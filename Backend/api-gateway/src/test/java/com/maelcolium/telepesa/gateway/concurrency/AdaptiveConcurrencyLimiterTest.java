@@ -0,0 +1,152 @@
+package com.maelcolium.telepesa.gateway.concurrency;
+
+import com.maelcolium.telepesa.gateway.concurrency.AdaptiveConcurrencyLimiter.Priority;
+import com.maelcolium.telepesa.gateway.config.ConcurrencyLimitProperties;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class AdaptiveConcurrencyLimiterTest {
+
+    private static final long FAST = Duration.ofMillis(10).toNanos();
+    private static final long SLOW = Duration.ofMillis(100).toNanos();
+
+    private ConcurrencyLimitProperties properties;
+
+    @BeforeEach
+    void setUp() {
+        // Every release closes a window, and each estimate is taken on in full
+        properties = new ConcurrencyLimitProperties();
+        properties.setInitialLimit(10);
+        properties.setMinLimit(4);
+        properties.setMaxLimit(100);
+        properties.setWindow(Duration.ZERO);
+        properties.setMinWindowSamples(1);
+        properties.setSmoothing(1.0);
+    }
+
+    @Test
+    void tryAcquire_ShouldGiveEachPriorityItsShareOfTheLimit() {
+        // Given
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(properties);
+
+        // When
+        int sheddable = acquireAll(limiter, Priority.SHEDDABLE);
+        int normal = acquireAll(limiter, Priority.NORMAL);
+        int critical = acquireAll(limiter, Priority.CRITICAL);
+
+        // Then
+        assertThat(sheddable).isEqualTo(7);
+        assertThat(normal).isEqualTo(2);
+        assertThat(critical).isEqualTo(1);
+        assertThat(limiter.getInflight()).isEqualTo(10);
+    }
+
+    @Test
+    void release_ShouldFreeTheSlot() {
+        // Given
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(properties);
+        acquireAll(limiter, Priority.CRITICAL);
+
+        // When
+        limiter.release(FAST, false);
+
+        // Then
+        assertThat(limiter.getInflight()).isEqualTo(9);
+        assertThat(limiter.tryAcquire(Priority.CRITICAL)).isTrue();
+    }
+
+    @Test
+    void release_WhenTheLimitIsInUseAndLatencySteady_ShouldRaiseTheLimit() {
+        // Given
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(properties);
+        acquireAll(limiter, Priority.CRITICAL);
+
+        // When
+        limiter.release(FAST, false);
+
+        // Then: 10 + sqrt(10)
+        assertThat(limiter.getLimit()).isEqualTo(13);
+    }
+
+    @Test
+    void release_WhenLittleOfTheLimitIsUsed_ShouldKeepTheLimit() {
+        // Given
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(properties);
+        limiter.tryAcquire(Priority.CRITICAL);
+
+        // When
+        limiter.release(FAST, false);
+
+        // Then
+        assertThat(limiter.getLimit()).isEqualTo(10);
+    }
+
+    @Test
+    void release_WhenLatencyRises_ShouldLowerTheLimit() {
+        // Given
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(properties);
+        busyWindow(limiter, FAST);
+        int before = limiter.getLimit();
+
+        // When
+        busyWindow(limiter, SLOW);
+
+        // Then
+        assertThat(limiter.getLimit()).isLessThan(before);
+    }
+
+    @Test
+    void release_WithDroppedCall_ShouldBackOff() {
+        // Given
+        properties.setInitialLimit(20);
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(properties);
+        limiter.tryAcquire(Priority.CRITICAL);
+
+        // When
+        limiter.release(FAST, true);
+
+        // Then
+        assertThat(limiter.getLimit()).isEqualTo(18);
+    }
+
+    @Test
+    void release_ShouldKeepTheLimitWithinItsBounds() {
+        // Given
+        properties.setMaxLimit(12);
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(properties);
+
+        // When
+        busyWindow(limiter, FAST);
+        int raised = limiter.getLimit();
+        for (int i = 0; i < 20; i++) {
+            limiter.tryAcquire(Priority.CRITICAL);
+            limiter.release(FAST, true);
+        }
+
+        // Then
+        assertThat(raised).isEqualTo(12);
+        assertThat(limiter.getLimit()).isEqualTo(4);
+    }
+
+    private static int acquireAll(AdaptiveConcurrencyLimiter limiter, Priority priority) {
+        int acquired = 0;
+        while (limiter.tryAcquire(priority)) {
+            acquired++;
+        }
+        return acquired;
+    }
+
+    /**
+     * Fill the limit, then release every call after the given time
+     */
+    private static void busyWindow(AdaptiveConcurrencyLimiter limiter, long rttNanos) {
+        int acquired = acquireAll(limiter, Priority.CRITICAL);
+        for (int i = 0; i < acquired; i++) {
+            limiter.release(rttNanos, false);
+        }
+    }
+}
@@ -0,0 +1,101 @@
+package com.maelcolium.telepesa.gateway.config;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.cloud.gateway.filter.ratelimit.KeyResolver;
+import org.springframework.data.redis.core.ReactiveStringRedisTemplate;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import org.springframework.security.authentication.TestingAuthenticationToken;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Mono;
+
+import java.net.InetSocketAddress;
+import java.security.Principal;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+
+class RateLimitingConfigTest {
+
+    private static final InetSocketAddress LOAD_BALANCER = new InetSocketAddress("10.0.0.5", 41000);
+
+    private RateLimitingConfig config;
+
+    @BeforeEach
+    void setUp() {
+        config = new RateLimitingConfig(mock(ReactiveStringRedisTemplate.class), 100, 1000, 1);
+    }
+
+    @Test
+    void ipKeyResolver_BehindTheLoadBalancer_ShouldUseTheForwardedClientAddress() {
+        // Given
+        MockServerWebExchange exchange = exchange("203.0.113.7");
+
+        // When
+        String key = config.ipKeyResolver().resolve(exchange).block();
+
+        // Then
+        assertThat(key).isEqualTo("203.0.113.7");
+    }
+
+    @Test
+    void ipKeyResolver_WithForgedForwardedEntries_ShouldUseTheOneTheLoadBalancerAppended() {
+        // Given
+        MockServerWebExchange exchange = exchange("1.2.3.4, 203.0.113.7");
+
+        // When
+        String key = config.ipKeyResolver().resolve(exchange).block();
+
+        // Then
+        assertThat(key).isEqualTo("203.0.113.7");
+    }
+
+    @Test
+    void ipKeyResolver_WithoutForwardedHeader_ShouldUseTheRemoteAddress() {
+        // Given
+        MockServerWebExchange exchange = MockServerWebExchange.from(
+            MockServerHttpRequest.get("/api/v1/billers").remoteAddress(LOAD_BALANCER));
+
+        // When
+        String key = config.ipKeyResolver().resolve(exchange).block();
+
+        // Then
+        assertThat(key).isEqualTo("10.0.0.5");
+    }
+
+    @Test
+    void userKeyResolver_WithAuthenticatedUser_ShouldUseTheUserName() {
+        // Given
+        ServerWebExchange exchange = exchange("203.0.113.7").mutate()
+            .principal(Mono.just(new TestingAuthenticationToken("alice", null)))
+            .build();
+
+        // When
+        String key = config.userKeyResolver().resolve(exchange).block();
+
+        // Then
+        assertThat(key).isEqualTo("alice");
+    }
+
+    @Test
+    void userKeyResolver_WithoutUser_ShouldFallBackToTheClientAddress() {
+        // Given
+        KeyResolver resolver = config.userKeyResolver();
+        ServerWebExchange exchange = exchange("203.0.113.7").mutate()
+            .principal(Mono.<Principal>empty())
+            .build();
+
+        // When
+        String key = resolver.resolve(exchange).block();
+
+        // Then
+        assertThat(key).isEqualTo("203.0.113.7");
+    }
+
+    private MockServerWebExchange exchange(String forwardedFor) {
+        return MockServerWebExchange.from(MockServerHttpRequest.get("/api/v1/billers")
+            .remoteAddress(LOAD_BALANCER)
+            .header("X-Forwarded-For", forwardedFor));
+    }
+}
@@ -0,0 +1,60 @@
+package com.maelcolium.telepesa.gateway.controller;
+
+import com.maelcolium.telepesa.gateway.service.DashboardService;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.server.resource.authentication.JwtAuthenticationToken;
+import reactor.core.publisher.Mono;
+
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.same;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class DashboardControllerTest {
+
+    private final DashboardService dashboardService = mock(DashboardService.class);
+    private final DashboardController controller = new DashboardController(dashboardService);
+
+    @Test
+    void getDashboard_ShouldServeTheUserOfTheTokenNotARequestParameter() {
+        // Given
+        Jwt jwt = Jwt.withTokenValue("token").header("alg", "HS512").subject("alice").claim("userId", 42L).build();
+        MockServerWebExchange exchange = MockServerWebExchange.from(MockServerHttpRequest.get("/api/v1/dashboard")
+            .queryParam("userId", "99")
+            .header(HttpHeaders.AUTHORIZATION, "Bearer token"));
+        when(dashboardService.getDashboard(same(jwt), any())).thenReturn(Mono.just(Map.of("userId", 42L)));
+
+        // When
+        ResponseEntity<Map<String, Object>> response = controller.getDashboard(new JwtAuthenticationToken(jwt), exchange).block();
+
+        // Then
+        verify(dashboardService).getDashboard(same(jwt), eq(exchange.getRequest().getHeaders()));
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(response.getBody()).containsEntry("userId", 42L);
+    }
+
+    @Test
+    void getDashboard_ShouldNotBeCached() {
+        // Given
+        Jwt jwt = Jwt.withTokenValue("token").header("alg", "HS512").subject("alice").claim("userId", 42L).build();
+        when(dashboardService.getDashboard(any(), any())).thenReturn(Mono.just(Map.of("userId", 42L, "partial", true)));
+
+        // When
+        ResponseEntity<Map<String, Object>> response = controller.getDashboard(new JwtAuthenticationToken(jwt),
+            MockServerWebExchange.from(MockServerHttpRequest.get("/api/v1/dashboard"))).block();
+
+        // Then
+        assertThat(response.getHeaders().getCacheControl()).isEqualTo("no-store");
+    }
+}
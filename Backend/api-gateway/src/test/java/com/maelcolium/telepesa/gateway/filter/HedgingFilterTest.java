@@ -0,0 +1,249 @@
+package com.maelcolium.telepesa.gateway.filter;
+
+import com.maelcolium.telepesa.gateway.config.HedgingProperties;
+import com.maelcolium.telepesa.gateway.config.LoadBalancingProperties;
+import com.maelcolium.telepesa.gateway.loadbalancer.InstanceLoadStats;
+import com.maelcolium.telepesa.gateway.loadbalancer.LatencyAwareLoadBalancer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.cloud.client.DefaultServiceInstance;
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.cloud.client.loadbalancer.DefaultResponse;
+import org.springframework.cloud.gateway.config.HttpClientProperties;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.filter.headers.HttpHeadersFilter;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.cloud.gateway.support.ServerWebExchangeUtils;
+import org.springframework.cloud.loadbalancer.core.ReactorServiceInstanceLoadBalancer;
+import org.springframework.cloud.loadbalancer.core.ServiceInstanceListSupplier;
+import org.springframework.cloud.loadbalancer.support.LoadBalancerClientFactory;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import org.springframework.web.reactive.function.client.ClientResponse;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.netty.http.client.HttpClient;
+
+import java.net.URI;
+import java.time.Duration;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class HedgingFilterTest {
+
+    private static final ServiceInstance A = new DefaultServiceInstance("a", "bill-payment-service", "instance-a", 8080, false);
+    private static final ServiceInstance B = new DefaultServiceInstance("b", "bill-payment-service", "instance-b", 8080, false);
+
+    private final Map<String, Function<Integer, Mono<ClientResponse>>> instances = new ConcurrentHashMap<>();
+    private final Map<String, AtomicInteger> calls = new ConcurrentHashMap<>();
+    private final AtomicInteger chainCalls = new AtomicInteger();
+    private final GatewayFilterChain chain = exchange -> {
+        chainCalls.incrementAndGet();
+        return Mono.empty();
+    };
+    private SimpleMeterRegistry meterRegistry;
+    private HedgingFilter filter;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        HedgingProperties properties = new HedgingProperties();
+        properties.setRoutes(List.of("billers-service"));
+        properties.setPaths(List.of("/api/v1/billers/**"));
+        properties.setSamples(1);
+        properties.setMinSamples(1);
+
+        InstanceLoadStats stats = new InstanceLoadStats(new LoadBalancingProperties());
+        ServiceInstanceListSupplier supplier = mock(ServiceInstanceListSupplier.class);
+        when(supplier.get()).thenReturn(Flux.just(List.of(A, B)));
+        ObjectProvider<ServiceInstanceListSupplier> supplierProvider = mock(ObjectProvider.class);
+        when(supplierProvider.getIfAvailable(any())).thenReturn(supplier);
+        LoadBalancerClientFactory clientFactory = mock(LoadBalancerClientFactory.class);
+        when(clientFactory.getInstance(eq("bill-payment-service"), eq(ReactorServiceInstanceLoadBalancer.class)))
+            .thenReturn(new LatencyAwareLoadBalancer(supplierProvider, "bill-payment-service", stats));
+        ObjectProvider<List<HttpHeadersFilter>> headersFilters = mock(ObjectProvider.class);
+        when(headersFilters.getIfAvailable()).thenReturn(List.of());
+
+        // Upstream calls are answered by the instance they are sent to
+        WebClient.Builder webClient = WebClient.builder().exchangeFunction(request -> {
+            String host = request.url().getHost();
+            int call = calls.computeIfAbsent(host, h -> new AtomicInteger()).incrementAndGet();
+            return instances.get(host).apply(call);
+        });
+        meterRegistry = new SimpleMeterRegistry();
+        filter = new HedgingFilter(properties, clientFactory, stats, HttpClient.create(), new HttpClientProperties(),
+            headersFilters, webClient, meterRegistry);
+    }
+
+    @Test
+    void filter_OnListedPath_ShouldRouteTheRequestItself() {
+        // Given
+        instances.put("instance-a", call -> answer(HttpStatus.OK, "a"));
+        MockServerWebExchange exchange = exchange(HttpMethod.GET, "/api/v1/billers/utilities");
+
+        // When
+        filter.filter(exchange, chain).block(Duration.ofSeconds(5));
+
+        // Then
+        assertThat(exchange.getResponse().getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(exchange.getResponse().getBodyAsString().block()).isEqualTo("a");
+        assertThat(chainCalls).hasValue(0);
+        assertThat(ServerWebExchangeUtils.isAlreadyRouted(exchange)).isTrue();
+    }
+
+    @Test
+    void filter_OnRouteNotListed_ShouldLeaveTheRequestToTheRoute() {
+        // Given
+        MockServerWebExchange exchange = exchange("bill-payment-service", HttpMethod.GET, "/api/v1/bills/1");
+
+        // When
+        filter.filter(exchange, chain).block(Duration.ofSeconds(5));
+
+        // Then
+        assertThat(chainCalls).hasValue(1);
+        assertThat(calls).isEmpty();
+    }
+
+    @Test
+    void filter_OnPathNotListed_ShouldRetryAFailureButNotHedge() {
+        // Given: the route's usual latency is known, and the export is slower than that
+        instances.put("instance-a", call -> switch (call) {
+            case 1 -> answer(HttpStatus.OK, "a");
+            case 2 -> Mono.delay(Duration.ofMillis(300)).then(answer(HttpStatus.OK, "export"));
+            default -> answer(HttpStatus.SERVICE_UNAVAILABLE, "down");
+        });
+        instances.put("instance-b", call -> answer(HttpStatus.OK, "b"));
+        filter.filter(exchange(HttpMethod.GET, "/api/v1/billers/utilities"), chain).block(Duration.ofSeconds(5));
+        MockServerWebExchange slow = exchange(HttpMethod.GET, "/api/v1/billers-export");
+        MockServerWebExchange failing = exchange(HttpMethod.GET, "/api/v1/billers-export");
+
+        // When
+        filter.filter(slow, chain).block(Duration.ofSeconds(5));
+        filter.filter(failing, chain).block(Duration.ofSeconds(5));
+
+        // Then
+        assertThat(slow.getResponse().getBodyAsString().block()).isEqualTo("export");
+        assertThat(failing.getResponse().getBodyAsString().block()).isEqualTo("b");
+        assertThat(result("hedged")).isZero();
+        assertThat(result("retried")).isEqualTo(1);
+        assertThat(chainCalls).hasValue(0);
+    }
+
+    @Test
+    void filter_WithPost_ShouldLeaveTheRequestToTheRoute() {
+        // Given
+        MockServerWebExchange exchange = exchange(HttpMethod.POST, "/api/v1/billers/utilities");
+
+        // When
+        filter.filter(exchange, chain).block(Duration.ofSeconds(5));
+
+        // Then
+        assertThat(chainCalls).hasValue(1);
+        assertThat(calls).isEmpty();
+    }
+
+    @Test
+    void filter_ShouldMatchThePathTheClientAskedForRatherThanTheRewrittenOne() {
+        // Given
+        instances.put("instance-a", call -> answer(HttpStatus.OK, "a"));
+        MockServerWebExchange exchange = exchange(HttpMethod.GET, "/api/billers/utilities");
+        LinkedHashSet<URI> original = new LinkedHashSet<>(List.of(URI.create("http://gateway/api/v1/billers/utilities")));
+        exchange.getAttributes().put(ServerWebExchangeUtils.GATEWAY_ORIGINAL_REQUEST_URL_ATTR, original);
+
+        // When
+        filter.filter(exchange, chain).block(Duration.ofSeconds(5));
+
+        // Then
+        assertThat(chainCalls).hasValue(0);
+        assertThat(exchange.getResponse().getBodyAsString().block()).isEqualTo("a");
+    }
+
+    @Test
+    void filter_WhenTheInstanceFails_ShouldRetryOnAnother() {
+        // Given
+        instances.put("instance-a", call -> answer(HttpStatus.SERVICE_UNAVAILABLE, "down"));
+        instances.put("instance-b", call -> answer(HttpStatus.OK, "b"));
+        MockServerWebExchange exchange = exchange(HttpMethod.GET, "/api/v1/billers/utilities");
+
+        // When
+        filter.filter(exchange, chain).block(Duration.ofSeconds(5));
+
+        // Then
+        assertThat(exchange.getResponse().getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(exchange.getResponse().getBodyAsString().block()).isEqualTo("b");
+        assertThat(result("retried")).isEqualTo(1);
+    }
+
+    @Test
+    void filter_WhenEveryInstanceFails_ShouldReturnTheFailedResponse() {
+        // Given
+        instances.put("instance-a", call -> answer(HttpStatus.SERVICE_UNAVAILABLE, "a down"));
+        instances.put("instance-b", call -> answer(HttpStatus.BAD_GATEWAY, "b down"));
+        MockServerWebExchange exchange = exchange(HttpMethod.GET, "/api/v1/billers/utilities");
+
+        // When
+        filter.filter(exchange, chain).block(Duration.ofSeconds(5));
+
+        // Then
+        assertThat(exchange.getResponse().getStatusCode()).isEqualTo(HttpStatus.BAD_GATEWAY);
+        assertThat(exchange.getResponse().getBodyAsString().block()).isEqualTo("b down");
+    }
+
+    @Test
+    void filter_WhenTheInstanceIsSlowerThanUsual_ShouldHedgeOnAnother() {
+        // Given: a first, fast call sets the route's usual latency
+        instances.put("instance-a", call -> call == 1
+            ? answer(HttpStatus.OK, "a")
+            : Mono.delay(Duration.ofSeconds(3)).then(answer(HttpStatus.OK, "slow a")));
+        instances.put("instance-b", call -> answer(HttpStatus.OK, "b"));
+        filter.filter(exchange(HttpMethod.GET, "/api/v1/billers/utilities"), chain).block(Duration.ofSeconds(5));
+        MockServerWebExchange exchange = exchange(HttpMethod.GET, "/api/v1/billers/utilities");
+
+        // When
+        filter.filter(exchange, chain).block(Duration.ofSeconds(2));
+
+        // Then
+        assertThat(exchange.getResponse().getBodyAsString().block()).isEqualTo("b");
+        assertThat(result("hedged")).isEqualTo(1);
+    }
+
+    private static MockServerWebExchange exchange(HttpMethod method, String path) {
+        return exchange("billers-service", method, path);
+    }
+
+    private static MockServerWebExchange exchange(String routeId, HttpMethod method, String path) {
+        MockServerWebExchange exchange = MockServerWebExchange.from(MockServerHttpRequest.method(method, path));
+        Route route = Route.async().id(routeId).uri("lb://bill-payment-service").predicate(ex -> true).build();
+        exchange.getAttributes().put(ServerWebExchangeUtils.GATEWAY_ROUTE_ATTR, route);
+        exchange.getAttributes().put(ServerWebExchangeUtils.GATEWAY_LOADBALANCER_RESPONSE_ATTR, new DefaultResponse(A));
+        exchange.getAttributes().put(ServerWebExchangeUtils.GATEWAY_REQUEST_URL_ATTR, URI.create("http://instance-a:8080" + path));
+        return exchange;
+    }
+
+    private static Mono<ClientResponse> answer(HttpStatus status, String body) {
+        return Mono.just(ClientResponse.create(status)
+            .header("Content-Type", MediaType.TEXT_PLAIN_VALUE)
+            .body(body)
+            .build());
+    }
+
+    private double result(String result) {
+        return meterRegistry.counter("gateway.hedging.requests", "route", "billers-service", "result", result).count();
+    }
+}
@@ -0,0 +1,183 @@
+package com.maelcolium.telepesa.gateway.filter;
+
+import com.maelcolium.telepesa.gateway.config.CoalescingProperties;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.reactivestreams.Publisher;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.http.server.reactive.ServerHttpResponseDecorator;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class RequestCoalescingFilterTest {
+
+    private static final int MAX_BODY_BYTES = 16;
+
+    private RequestCoalescingFilter filter;
+    private final AtomicInteger upstreamCalls = new AtomicInteger();
+
+    @BeforeEach
+    void setUp() {
+        CoalescingProperties properties = new CoalescingProperties();
+        properties.setMaxBodyBytes(MAX_BODY_BYTES);
+        properties.setMaxWait(Duration.ofSeconds(5));
+        properties.setRoutes(Map.of("banks", List.of("/api/v1/banks/**")));
+        filter = new RequestCoalescingFilter(properties, new SimpleMeterRegistry());
+    }
+
+    @Test
+    void filter_WithSmallBody_ShouldSendTheWaitingRequestACopy() {
+        // Given
+        Sinks.Many<DataBuffer> upstreamBody = Sinks.many().unicast().onBackpressureBuffer();
+        MockServerWebExchange leader = exchange();
+        MockServerWebExchange follower = exchange();
+        AtomicBoolean followerDone = new AtomicBoolean();
+        filter.filter(leader, streaming(upstreamBody)).subscribe();
+        filter.filter(follower, upstream("[\"other\"]")).doOnTerminate(() -> followerDone.set(true)).subscribe();
+
+        // When
+        upstreamBody.tryEmitNext(buffer("[\"KCB\"]"));
+        upstreamBody.tryEmitComplete();
+
+        // Then
+        assertThat(followerDone).isTrue();
+        assertThat(leader.getResponse().getBodyAsString().block()).isEqualTo("[\"KCB\"]");
+        assertThat(follower.getResponse().getBodyAsString().block()).isEqualTo("[\"KCB\"]");
+        assertThat(follower.getResponse().getHeaders().getFirst(RequestCoalescingFilter.X_COALESCED)).isEqualTo("true");
+        assertThat(upstreamCalls).hasValue(0);
+    }
+
+    @Test
+    void filter_WithBodyOverTheLimit_ShouldReleaseTheWaitingRequestsBeforeTheUpstreamFinishes() {
+        // Given: a leader response that records chunks as they are written
+        List<String> written = new CopyOnWriteArrayList<>();
+        MockServerWebExchange mock = exchange();
+        ServerWebExchange leader = mock.mutate().response(new ServerHttpResponseDecorator(mock.getResponse()) {
+            @Override
+            public Mono<Void> writeWith(Publisher<? extends DataBuffer> body) {
+                return super.writeWith(Flux.from(body).doOnNext(buffer ->
+                    written.add(buffer.toString(buffer.readPosition(), buffer.readableByteCount(), StandardCharsets.UTF_8))));
+            }
+        }).build();
+        Sinks.Many<DataBuffer> upstreamBody = Sinks.many().unicast().onBackpressureBuffer();
+        MockServerWebExchange follower = exchange();
+        AtomicBoolean leaderDone = new AtomicBoolean();
+        filter.filter(leader, streaming(upstreamBody)).doOnTerminate(() -> leaderDone.set(true)).subscribe();
+        filter.filter(follower, upstream("[\"own\"]")).subscribe();
+
+        // When
+        upstreamBody.tryEmitNext(buffer("0123456789"));
+        assertThat(written).isEmpty();
+        upstreamBody.tryEmitNext(buffer("abcdefghij"));
+
+        // Then: the follower went upstream itself while the leader's body still streams
+        assertThat(upstreamCalls).hasValue(1);
+        assertThat(follower.getResponse().getBodyAsString().block()).isEqualTo("[\"own\"]");
+        assertThat(follower.getResponse().getHeaders().getFirst(RequestCoalescingFilter.X_COALESCED)).isNull();
+        assertThat(written).containsExactly("0123456789", "abcdefghij");
+        assertThat(leaderDone).isFalse();
+        upstreamBody.tryEmitNext(buffer("KLMNOPQRST"));
+        upstreamBody.tryEmitComplete();
+        assertThat(written).containsExactly("0123456789", "abcdefghij", "KLMNOPQRST");
+        assertThat(leaderDone).isTrue();
+    }
+
+    @Test
+    void filter_WithContentLengthOverTheLimit_ShouldReleaseTheWaitingRequestsAtOnce() {
+        // Given
+        Sinks.Many<DataBuffer> upstreamBody = Sinks.many().unicast().onBackpressureBuffer();
+        MockServerWebExchange leader = exchange();
+        MockServerWebExchange follower = exchange();
+        GatewayFilterChain leaderChain = exchange -> {
+            ServerHttpResponse response = exchange.getResponse();
+            response.setStatusCode(HttpStatus.OK);
+            response.getHeaders().setContentLength(30);
+            return response.writeWith(upstreamBody.asFlux());
+        };
+        filter.filter(leader, leaderChain).subscribe();
+
+        // When
+        filter.filter(follower, upstream("[\"own\"]")).subscribe();
+        upstreamBody.tryEmitNext(buffer("0123456789"));
+
+        // Then
+        assertThat(upstreamCalls).hasValue(1);
+        assertThat(follower.getResponse().getBodyAsString().block()).isEqualTo("[\"own\"]");
+        upstreamBody.tryEmitNext(buffer("abcdefghijKLMNOPQRST"));
+        upstreamBody.tryEmitComplete();
+        assertThat(leader.getResponse().getBodyAsString().block()).isEqualTo("0123456789abcdefghijKLMNOPQRST");
+    }
+
+    @Test
+    void filter_WithCookie_ShouldNotShareTheResponse() {
+        // Given
+        Sinks.Many<DataBuffer> upstreamBody = Sinks.many().unicast().onBackpressureBuffer();
+        MockServerWebExchange leader = exchange();
+        MockServerWebExchange follower = exchange();
+        GatewayFilterChain leaderChain = exchange -> {
+            ServerHttpResponse response = exchange.getResponse();
+            response.setStatusCode(HttpStatus.OK);
+            response.getHeaders().add(HttpHeaders.SET_COOKIE, "session=abc");
+            return response.writeWith(upstreamBody.asFlux());
+        };
+        filter.filter(leader, leaderChain).subscribe();
+        filter.filter(follower, upstream("[\"own\"]")).subscribe();
+
+        // When
+        upstreamBody.tryEmitNext(buffer("[]"));
+        upstreamBody.tryEmitComplete();
+
+        // Then
+        assertThat(upstreamCalls).hasValue(1);
+        assertThat(follower.getResponse().getBodyAsString().block()).isEqualTo("[\"own\"]");
+        assertThat(follower.getResponse().getHeaders().containsKey(HttpHeaders.SET_COOKIE)).isFalse();
+    }
+
+    private static MockServerWebExchange exchange() {
+        return MockServerWebExchange.from(MockServerHttpRequest.get("/api/v1/banks").accept(MediaType.APPLICATION_JSON));
+    }
+
+    private GatewayFilterChain upstream(String body) {
+        return exchange -> {
+            upstreamCalls.incrementAndGet();
+            ServerHttpResponse response = exchange.getResponse();
+            response.setStatusCode(HttpStatus.OK);
+            response.getHeaders().setContentType(MediaType.APPLICATION_JSON);
+            return response.writeWith(Mono.just(buffer(body)));
+        };
+    }
+
+    private static GatewayFilterChain streaming(Sinks.Many<DataBuffer> body) {
+        return exchange -> {
+            ServerHttpResponse response = exchange.getResponse();
+            response.setStatusCode(HttpStatus.OK);
+            response.getHeaders().setContentType(MediaType.APPLICATION_JSON);
+            return response.writeWith(body.asFlux());
+        };
+    }
+
+    private static DataBuffer buffer(String text) {
+        return DefaultDataBufferFactory.sharedInstance.wrap(text.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,187 @@
+package com.maelcolium.telepesa.gateway.filter;
+
+import com.maelcolium.telepesa.gateway.cache.ResponseCache;
+import com.maelcolium.telepesa.gateway.config.ResponseCacheProperties;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.reactivestreams.Publisher;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.http.server.reactive.ServerHttpResponseDecorator;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ResponseCacheFilterTest {
+
+    private static final int MAX_BODY_BYTES = 16;
+
+    private ResponseCache cache;
+    private ResponseCacheFilter filter;
+    private final AtomicInteger upstreamCalls = new AtomicInteger();
+
+    @BeforeEach
+    void setUp() {
+        ResponseCacheProperties properties = new ResponseCacheProperties();
+        properties.setMaxBodyBytes(MAX_BODY_BYTES);
+        ResponseCacheProperties.Route route = new ResponseCacheProperties.Route();
+        route.setPaths(List.of("/api/v1/banks/**"));
+        properties.getRoutes().put("banks", route);
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        cache = new ResponseCache(properties, meterRegistry);
+        filter = new ResponseCacheFilter(cache, properties, meterRegistry);
+    }
+
+    @Test
+    void filter_WithSmallBody_ShouldCacheItAndServeTheNextRequest() {
+        // Given
+        MockServerWebExchange first = exchange();
+        filter.filter(first, upstream(HttpStatus.OK, "[\"KCB\"]")).block();
+
+        // When
+        MockServerWebExchange second = exchange();
+        filter.filter(second, upstream(HttpStatus.OK, "[\"other\"]")).block();
+
+        // Then
+        assertThat(first.getResponse().getHeaders().getFirst(ResponseCacheFilter.X_CACHE)).isEqualTo("MISS");
+        assertThat(second.getResponse().getHeaders().getFirst(ResponseCacheFilter.X_CACHE)).isEqualTo("HIT");
+        assertThat(second.getResponse().getBodyAsString().block()).isEqualTo("[\"KCB\"]");
+        assertThat(upstreamCalls).hasValue(1);
+    }
+
+    @Test
+    void filter_WithBodyOverTheLimit_ShouldPassItThroughWithoutCaching() {
+        // Given
+        MockServerWebExchange exchange = exchange();
+
+        // When
+        filter.filter(exchange, upstream(HttpStatus.OK, "0123456789", "abcdefghij", "KLMNOPQRST")).block();
+
+        // Then
+        assertThat(exchange.getResponse().getBodyAsString().block()).isEqualTo("0123456789abcdefghijKLMNOPQRST");
+        assertThat(exchange.getResponse().getHeaders().getFirst(ResponseCacheFilter.X_CACHE)).isNull();
+        assertThat(exchange.getResponse().getHeaders().getETag()).isNull();
+        assertThat(cache.size()).isZero();
+    }
+
+    @Test
+    void filter_WithBodyOverTheLimit_ShouldWriteItBeforeTheUpstreamFinishes() {
+        // Given: a client response that records chunks as they are written
+        List<String> written = new CopyOnWriteArrayList<>();
+        MockServerWebExchange mock = exchange();
+        ServerWebExchange exchange = mock.mutate().response(new ServerHttpResponseDecorator(mock.getResponse()) {
+            @Override
+            public Mono<Void> writeWith(Publisher<? extends DataBuffer> body) {
+                return super.writeWith(Flux.from(body).doOnNext(buffer ->
+                    written.add(buffer.toString(buffer.readPosition(), buffer.readableByteCount(), StandardCharsets.UTF_8))));
+            }
+        }).build();
+        Sinks.Many<DataBuffer> upstreamBody = Sinks.many().unicast().onBackpressureBuffer();
+        AtomicBoolean done = new AtomicBoolean();
+
+        // When
+        filter.filter(exchange, streaming(upstreamBody)).doOnTerminate(() -> done.set(true)).subscribe();
+        upstreamBody.tryEmitNext(buffer("0123456789"));
+        assertThat(written).isEmpty();
+        upstreamBody.tryEmitNext(buffer("abcdefghij"));
+
+        // Then: held while it could still be cached, streamed once it cannot
+        assertThat(written).containsExactly("0123456789", "abcdefghij");
+        assertThat(done).isFalse();
+        upstreamBody.tryEmitNext(buffer("KLMNOPQRST"));
+        upstreamBody.tryEmitComplete();
+        assertThat(written).containsExactly("0123456789", "abcdefghij", "KLMNOPQRST");
+        assertThat(done).isTrue();
+        assertThat(cache.size()).isZero();
+    }
+
+    @Test
+    void filter_WithContentLengthOverTheLimit_ShouldNotBufferTheBody() {
+        // Given
+        MockServerWebExchange exchange = exchange();
+        GatewayFilterChain chain = ex -> {
+            ServerHttpResponse response = ex.getResponse();
+            response.setStatusCode(HttpStatus.OK);
+            response.getHeaders().setContentLength(30);
+            return response.writeWith(Flux.just(buffer("0123456789abcdefghijKLMNOPQRST")));
+        };
+
+        // When
+        filter.filter(exchange, chain).block();
+
+        // Then
+        assertThat(exchange.getResponse().getBodyAsString().block()).isEqualTo("0123456789abcdefghijKLMNOPQRST");
+        assertThat(exchange.getResponse().getHeaders().getContentLength()).isEqualTo(30);
+        assertThat(cache.size()).isZero();
+    }
+
+    @Test
+    void filter_WithBodyAtTheLimit_ShouldCacheIt() {
+        // Given
+        MockServerWebExchange exchange = exchange();
+
+        // When
+        filter.filter(exchange, upstream(HttpStatus.OK, "01234567", "89abcdef")).block();
+
+        // Then
+        assertThat(exchange.getResponse().getBodyAsString().block()).isEqualTo("0123456789abcdef");
+        assertThat(exchange.getResponse().getHeaders().getFirst(ResponseCacheFilter.X_CACHE)).isEqualTo("MISS");
+        assertThat(cache.size()).isEqualTo(1);
+    }
+
+    @Test
+    void filter_WithErrorStatus_ShouldNotCache() {
+        // Given
+        MockServerWebExchange exchange = exchange();
+
+        // When
+        filter.filter(exchange, upstream(HttpStatus.SERVICE_UNAVAILABLE, "down")).block();
+
+        // Then
+        assertThat(exchange.getResponse().getBodyAsString().block()).isEqualTo("down");
+        assertThat(cache.size()).isZero();
+    }
+
+    private static MockServerWebExchange exchange() {
+        return MockServerWebExchange.from(MockServerHttpRequest.get("/api/v1/banks").accept(MediaType.APPLICATION_JSON));
+    }
+
+    private GatewayFilterChain upstream(HttpStatus status, String... chunks) {
+        return exchange -> {
+            upstreamCalls.incrementAndGet();
+            ServerHttpResponse response = exchange.getResponse();
+            response.setStatusCode(status);
+            response.getHeaders().setContentType(MediaType.APPLICATION_JSON);
+            return response.writeWith(Flux.fromArray(chunks).map(ResponseCacheFilterTest::buffer));
+        };
+    }
+
+    private static GatewayFilterChain streaming(Sinks.Many<DataBuffer> body) {
+        return exchange -> {
+            ServerHttpResponse response = exchange.getResponse();
+            response.setStatusCode(HttpStatus.OK);
+            response.getHeaders().setContentType(MediaType.APPLICATION_JSON);
+            return response.writeWith(body.asFlux());
+        };
+    }
+
+    private static DataBuffer buffer(String text) {
+        return DefaultDataBufferFactory.sharedInstance.wrap(text.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,135 @@
+package com.maelcolium.telepesa.gateway.filter;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.maelcolium.telepesa.gateway.config.ResponseTransformationProperties;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.cloud.gateway.support.ServerWebExchangeUtils;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import reactor.core.publisher.Flux;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ResponseTransformationFilterTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private ResponseTransformationFilter filter;
+
+    @BeforeEach
+    void setUp() {
+        ResponseTransformationProperties properties = new ResponseTransformationProperties();
+        properties.setEnvelopeRoutes(List.of("enveloped"));
+        filter = new ResponseTransformationFilter(objectMapper, properties);
+    }
+
+    @Test
+    void filter_OnRouteNotOptedIn_ShouldLeaveTheBodyAndSetTheHeaders() {
+        // Given
+        MockServerWebExchange exchange = exchange("accounts", "req-1");
+
+        // When
+        filter.filter(exchange, upstream("{\"balance\":10}")).block();
+
+        // Then
+        assertThat(exchange.getResponse().getBodyAsString().block()).isEqualTo("{\"balance\":10}");
+        assertThat(exchange.getResponse().getHeaders().getContentLength()).isEqualTo(14);
+        assertThat(exchange.getResponse().getHeaders().getFirst(ResponseTransformationFilter.REQUEST_ID_HEADER)).isEqualTo("req-1");
+        assertThat(exchange.getResponse().getHeaders().getFirst("X-Processing-Time")).isNotNull();
+    }
+
+    @Test
+    void filter_OnEnvelopeRoute_ShouldSpliceTheMetadataIntoTheObject() throws Exception {
+        // Given
+        MockServerWebExchange exchange = exchange("enveloped", "req-1");
+
+        // When
+        filter.filter(exchange, upstream("  {\"balance\":10}")).block();
+
+        // Then
+        String body = exchange.getResponse().getBodyAsString().block();
+        JsonNode json = objectMapper.readTree(body);
+        assertThat(json.get("requestId").asText()).isEqualTo("req-1");
+        assertThat(json.has("processingTime")).isTrue();
+        assertThat(json.get("balance").asInt()).isEqualTo(10);
+        assertThat(exchange.getResponse().getHeaders().getContentLength()).isEqualTo(body.getBytes(StandardCharsets.UTF_8).length);
+    }
+
+    @Test
+    void filter_OnEnvelopeRouteWithEmptyObject_ShouldNotAddATrailingComma() throws Exception {
+        // Given
+        MockServerWebExchange exchange = exchange("enveloped", "req-1");
+
+        // When
+        filter.filter(exchange, upstream("{}")).block();
+
+        // Then
+        JsonNode json = objectMapper.readTree(exchange.getResponse().getBodyAsString().block());
+        assertThat(json.size()).isEqualTo(2);
+        assertThat(json.get("requestId").asText()).isEqualTo("req-1");
+    }
+
+    @Test
+    void filter_OnEnvelopeRouteWithArray_ShouldLeaveTheBody() {
+        // Given
+        MockServerWebExchange exchange = exchange("enveloped", "req-1");
+
+        // When
+        filter.filter(exchange, upstream("[1,2]")).block();
+
+        // Then
+        assertThat(exchange.getResponse().getBodyAsString().block()).isEqualTo("[1,2]");
+    }
+
+    @Test
+    void filter_WithoutRequestId_ShouldForwardAGeneratedOneAndReturnIt() {
+        // Given
+        MockServerWebExchange exchange = exchange("accounts", null);
+        AtomicReference<String> forwarded = new AtomicReference<>();
+        GatewayFilterChain chain = ex -> {
+            forwarded.set(ex.getRequest().getHeaders().getFirst(ResponseTransformationFilter.REQUEST_ID_HEADER));
+            return upstream("{}").filter(ex);
+        };
+
+        // When
+        filter.filter(exchange, chain).block();
+
+        // Then
+        assertThat(forwarded.get()).isNotBlank();
+        assertThat(exchange.getResponse().getHeaders().getFirst(ResponseTransformationFilter.REQUEST_ID_HEADER))
+            .isEqualTo(forwarded.get());
+    }
+
+    private static MockServerWebExchange exchange(String routeId, String requestId) {
+        MockServerHttpRequest.BaseBuilder<?> request = MockServerHttpRequest.get("/api/v1/accounts/1");
+        if (requestId != null) {
+            request.header(ResponseTransformationFilter.REQUEST_ID_HEADER, requestId);
+        }
+        MockServerWebExchange exchange = MockServerWebExchange.from(request);
+        Route route = Route.async().id(routeId).uri("http://localhost").predicate(ex -> true).build();
+        exchange.getAttributes().put(ServerWebExchangeUtils.GATEWAY_ROUTE_ATTR, route);
+        return exchange;
+    }
+
+    private static GatewayFilterChain upstream(String body) {
+        return exchange -> {
+            byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+            ServerHttpResponse response = exchange.getResponse();
+            response.setStatusCode(HttpStatus.OK);
+            response.getHeaders().setContentType(MediaType.APPLICATION_JSON);
+            response.getHeaders().setContentLength(bytes.length);
+            return response.writeWith(Flux.just(DefaultDataBufferFactory.sharedInstance.wrap(bytes)));
+        };
+    }
+}
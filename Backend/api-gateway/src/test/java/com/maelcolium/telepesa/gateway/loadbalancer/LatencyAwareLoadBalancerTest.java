@@ -0,0 +1,110 @@
+package com.maelcolium.telepesa.gateway.loadbalancer;
+
+import com.maelcolium.telepesa.gateway.config.LoadBalancingProperties;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.cloud.client.DefaultServiceInstance;
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.cloud.client.loadbalancer.DefaultRequest;
+import org.springframework.cloud.client.loadbalancer.Response;
+import org.springframework.cloud.loadbalancer.core.ServiceInstanceListSupplier;
+import reactor.core.publisher.Flux;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class LatencyAwareLoadBalancerTest {
+
+    private static final ServiceInstance A = new DefaultServiceInstance("a", "account-service", "10.0.0.1", 8080, false);
+    private static final ServiceInstance B = new DefaultServiceInstance("b", "account-service", "10.0.0.2", 8080, false);
+
+    private InstanceLoadStats stats;
+
+    @BeforeEach
+    void setUp() {
+        stats = new InstanceLoadStats(new LoadBalancingProperties());
+    }
+
+    @Test
+    void choose_ShouldPreferTheInstanceWithFewerCallsInFlight() {
+        // Given
+        LatencyAwareLoadBalancer balancer = balancer(List.of(A, B));
+        for (int i = 0; i < 5; i++) {
+            stats.start(A);
+        }
+
+        // When
+        ServiceInstance chosen = balancer.choose(new DefaultRequest<>()).block().getServer();
+
+        // Then
+        assertThat(chosen).isEqualTo(B);
+    }
+
+    @Test
+    void choose_ShouldPreferTheFasterInstance() {
+        // Given: a failure counts as the one second penalty
+        LatencyAwareLoadBalancer balancer = balancer(List.of(A, B));
+        stats.start(A).end(true);
+        stats.start(B).end(false);
+
+        // When
+        ServiceInstance chosen = balancer.choose(new DefaultRequest<>()).block().getServer();
+
+        // Then
+        assertThat(chosen).isEqualTo(B);
+        assertThat(stats.cost(A)).isGreaterThan(stats.cost(B));
+    }
+
+    @Test
+    void choose_WithoutInstances_ShouldReturnNoServer() {
+        // Given
+        LatencyAwareLoadBalancer balancer = balancer(List.of());
+
+        // When
+        Response<ServiceInstance> response = balancer.choose(new DefaultRequest<>()).block();
+
+        // Then
+        assertThat(response.hasServer()).isFalse();
+    }
+
+    @Test
+    void chooseOther_ShouldNotChooseTheExcludedInstance() {
+        // Given
+        LatencyAwareLoadBalancer balancer = balancer(List.of(A, B));
+
+        // When
+        ServiceInstance other = balancer.chooseOther(A, false).block();
+
+        // Then
+        assertThat(other).isEqualTo(B);
+    }
+
+    @Test
+    void chooseOther_WithOnlyTheExcludedInstance_ShouldChooseItOnlyIfAllowed() {
+        // Given
+        LatencyAwareLoadBalancer balancer = balancer(List.of(A));
+
+        // When
+        ServiceInstance hedge = balancer.chooseOther(A, false).block();
+        ServiceInstance retry = balancer.chooseOther(A, true).block();
+
+        // Then
+        assertThat(hedge).isNull();
+        assertThat(retry).isEqualTo(A);
+    }
+
+    @SuppressWarnings("unchecked")
+    private LatencyAwareLoadBalancer balancer(List<ServiceInstance> instances) {
+        ServiceInstanceListSupplier supplier = mock(ServiceInstanceListSupplier.class);
+        when(supplier.get()).thenReturn(Flux.just(instances));
+        when(supplier.get(any())).thenReturn(Flux.just(instances));
+        ObjectProvider<ServiceInstanceListSupplier> provider = mock(ObjectProvider.class);
+        when(provider.getIfAvailable(any())).thenReturn(supplier);
+        return new LatencyAwareLoadBalancer(provider, "account-service", stats);
+    }
+}
@@ -0,0 +1,71 @@
+package com.maelcolium.telepesa.gateway.loadbalancer;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class RetryBudgetTest {
+
+    @Test
+    void tryWithdraw_ShouldAllowOneSecondRequestPerTenRequests() {
+        // Given
+        RetryBudget budget = new RetryBudget(0.1, 0, 20);
+        for (int i = 0; i < 10; i++) {
+            budget.deposit();
+        }
+
+        // When
+        boolean first = budget.tryWithdraw();
+        boolean second = budget.tryWithdraw();
+
+        // Then
+        assertThat(first).isTrue();
+        assertThat(second).isFalse();
+    }
+
+    @Test
+    void tryWithdraw_WithoutRequests_ShouldAllowTheAllowanceOnly() {
+        // Given
+        RetryBudget budget = new RetryBudget(0.1, 1, 20);
+
+        // When
+        boolean first = budget.tryWithdraw();
+        boolean second = budget.tryWithdraw();
+
+        // Then
+        assertThat(first).isTrue();
+        assertThat(second).isFalse();
+    }
+
+    @Test
+    void deposit_ShouldNotSaveUpMoreThanTheMaximum() {
+        // Given
+        RetryBudget budget = new RetryBudget(1, 0, 3);
+        for (int i = 0; i < 100; i++) {
+            budget.deposit();
+        }
+
+        // When
+        int allowed = 0;
+        while (budget.tryWithdraw()) {
+            allowed++;
+        }
+
+        // Then
+        assertThat(allowed).isEqualTo(3);
+    }
+
+    @Test
+    void tryWithdraw_ShouldRefillTheAllowanceOverTime() throws InterruptedException {
+        // Given
+        RetryBudget budget = new RetryBudget(0, 20, 1);
+        assertThat(budget.tryWithdraw()).isTrue();
+        assertThat(budget.tryWithdraw()).isFalse();
+
+        // When
+        Thread.sleep(100);
+
+        // Then
+        assertThat(budget.tryWithdraw()).isTrue();
+    }
+}
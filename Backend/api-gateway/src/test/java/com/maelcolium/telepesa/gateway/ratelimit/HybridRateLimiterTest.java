@@ -0,0 +1,152 @@
+package com.maelcolium.telepesa.gateway.ratelimit;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.data.redis.RedisConnectionFailureException;
+import org.springframework.data.redis.core.ReactiveStringRedisTemplate;
+import org.springframework.data.redis.core.script.RedisScript;
+import reactor.core.publisher.Flux;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.atLeastOnce;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+class HybridRateLimiterTest {
+
+    private static final String ROUTE = "transfer-service";
+
+    private ReactiveStringRedisTemplate redisTemplate;
+    // Buckets refill and the Redis backoff ends only when a test moves this on
+    private final AtomicLong nanoTime = new AtomicLong();
+
+    @BeforeEach
+    void setUp() {
+        redisTemplate = mock(ReactiveStringRedisTemplate.class);
+    }
+
+    @Test
+    void isAllowed_ShouldAdmitABurstAndThenDeny() {
+        // Given
+        HybridRateLimiter limiter = limiter(Duration.ofSeconds(5));
+
+        // When
+        List<Boolean> admitted = Flux.range(0, 4)
+            .concatMap(i -> limiter.isAllowed(ROUTE, "alice"))
+            .map(response -> response.isAllowed())
+            .collectList()
+            .block();
+
+        // Then
+        assertThat(admitted).containsExactly(true, true, true, false);
+        assertThat(limiter.isAllowed(ROUTE, "bob").block().isAllowed()).isTrue();
+    }
+
+    @Test
+    void isAllowed_ShouldRefillAtTheReplenishRate() {
+        // Given
+        HybridRateLimiter limiter = limiter(Duration.ofSeconds(5));
+        for (int i = 0; i < 3; i++) {
+            limiter.isAllowed(ROUTE, "alice").block();
+        }
+
+        // When
+        boolean beforeRefill = limiter.isAllowed(ROUTE, "alice").block().isAllowed();
+        nanoTime.addAndGet(Duration.ofSeconds(1).toNanos());
+        boolean afterRefill = limiter.isAllowed(ROUTE, "alice").block().isAllowed();
+
+        // Then
+        assertThat(beforeRefill).isFalse();
+        assertThat(afterRefill).isTrue();
+    }
+
+    @Test
+    void reconcile_ShouldPushWhatWasConsumedAndTakeOutWhatOtherInstancesUsed() {
+        // Given
+        HybridRateLimiter limiter = limiter(Duration.ofSeconds(5));
+        limiter.isAllowed(ROUTE, "alice").block();
+        // This instance consumed 1, the others 2
+        doReturn(Flux.just(3L)).when(redisTemplate).execute(any(RedisScript.class), anyList(), anyList());
+
+        // When
+        limiter.reconcile().block();
+
+        // Then
+        assertThat(pushedDeltas()).containsExactly("1");
+        assertThat(limiter.isAllowed(ROUTE, "alice").block().isAllowed()).isFalse();
+    }
+
+    @Test
+    void reconcile_AfterAFailedSync_ShouldPushTheUsageAgainWithWhatWasConsumedSince() {
+        // Given
+        HybridRateLimiter limiter = limiter(Duration.ZERO);
+        limiter.isAllowed(ROUTE, "alice").block();
+        limiter.isAllowed(ROUTE, "alice").block();
+        doReturn(Flux.error(new RedisConnectionFailureException("down")))
+            .doReturn(Flux.just(3L))
+            .when(redisTemplate).execute(any(RedisScript.class), anyList(), anyList());
+        assertThatThrownBy(() -> limiter.reconcile().block()).isInstanceOf(RedisConnectionFailureException.class);
+        limiter.isAllowed(ROUTE, "alice").block();
+
+        // When
+        limiter.reconcile().block();
+
+        // Then
+        assertThat(pushedDeltas()).containsExactly("2", "3");
+    }
+
+    @Test
+    void reconcile_AfterTheBackoff_ShouldPushWhatWasConsumedWhileRedisWasDown() {
+        // Given
+        HybridRateLimiter limiter = limiter(Duration.ofSeconds(5));
+        limiter.isAllowed(ROUTE, "alice").block();
+        doReturn(Flux.error(new RedisConnectionFailureException("down")))
+            .doReturn(Flux.just(2L))
+            .when(redisTemplate).execute(any(RedisScript.class), anyList(), anyList());
+        assertThatThrownBy(() -> limiter.reconcile().block()).isInstanceOf(RedisConnectionFailureException.class);
+        limiter.isAllowed(ROUTE, "alice").block();
+        limiter.reconcile().block();
+        verify(redisTemplate, times(1)).execute(any(RedisScript.class), anyList(), anyList());
+
+        // When
+        nanoTime.addAndGet(Duration.ofSeconds(5).toNanos());
+        limiter.reconcile().block();
+
+        // Then
+        assertThat(pushedDeltas()).containsExactly("1", "2");
+    }
+
+    @Test
+    void reconcile_WithNothingConsumed_ShouldNotCallRedis() {
+        // Given
+        HybridRateLimiter limiter = limiter(Duration.ofSeconds(5));
+
+        // When
+        limiter.reconcile().block();
+
+        // Then
+        verify(redisTemplate, never()).execute(any(RedisScript.class), anyList(), anyList());
+    }
+
+    private HybridRateLimiter limiter(Duration redisBackoff) {
+        return new HybridRateLimiter(1, 3, 1, redisTemplate, Duration.ofMinutes(1), 1000, redisBackoff, nanoTime::get);
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private List<String> pushedDeltas() {
+        ArgumentCaptor<List> args = ArgumentCaptor.forClass(List.class);
+        verify(redisTemplate, atLeastOnce()).execute(any(RedisScript.class), anyList(), args.capture());
+        return args.getAllValues().stream().map(values -> (String) values.get(0)).toList();
+    }
+}
@@ -0,0 +1,101 @@
+package com.maelcolium.telepesa.gateway.security;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.security.oauth2.jwt.Jwt;
+
+import java.time.Instant;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class VerifiedTokenCacheTest {
+
+    @Test
+    void get_ShouldReturnCachedTokenUntilItIsRevoked() {
+        // Given
+        VerifiedTokenCache cache = new VerifiedTokenCache(100, 900, 86400);
+        Jwt jwt = jwt("alice", Instant.now().minusSeconds(10));
+        cache.put("hash-1", jwt);
+
+        // When & Then
+        assertThat(cache.get("hash-1")).isSameAs(jwt);
+        cache.revokeToken("hash-1");
+        assertThat(cache.get("hash-1")).isNull();
+        assertThat(cache.isRevoked("hash-1", jwt)).isTrue();
+    }
+
+    @Test
+    void revokeSubject_ShouldRejectOnlyTokensIssuedUpToTheRevocation() {
+        // Given
+        VerifiedTokenCache cache = new VerifiedTokenCache(100, 900, 86400);
+        Instant revokedAt = Instant.now();
+
+        // When
+        cache.revokeSubject("alice", revokedAt);
+
+        // Then
+        assertThat(cache.isRevoked("hash-1", jwt("alice", revokedAt.minusSeconds(60)))).isTrue();
+        assertThat(cache.isRevoked("hash-2", jwt("alice", revokedAt.plusSeconds(1)))).isFalse();
+        assertThat(cache.isRevoked("hash-3", jwt("bob", revokedAt.minusSeconds(60)))).isFalse();
+    }
+
+    @Test
+    void revokeToken_BeyondMaxSize_ShouldKeepEarlierRevocationsAndRejectEveryToken() {
+        // Given
+        VerifiedTokenCache cache = new VerifiedTokenCache(2, 900, 86400);
+        Jwt jwt = jwt("alice", Instant.now());
+        cache.revokeToken("revoked-1");
+        cache.revokeToken("revoked-2");
+
+        // When: no room for a third revocation still in force
+        cache.revokeToken("revoked-3");
+
+        // Then: nothing was forgotten, and the unrecorded revocation is enforced by rejecting all
+        assertThat(cache.isRevoked("revoked-1", jwt)).isTrue();
+        assertThat(cache.isRevoked("revoked-3", jwt)).isTrue();
+        assertThat(cache.isRevoked("unrelated", jwt)).isTrue();
+    }
+
+    @Test
+    void revokeToken_WhenFull_ShouldAcceptTokensAgainOnceTheRevokedOnesHaveExpired() throws InterruptedException {
+        // Given: tokens live one second
+        VerifiedTokenCache cache = new VerifiedTokenCache(1, 900, 1);
+        Jwt jwt = jwt("alice", Instant.now());
+        cache.revokeToken("revoked-1");
+        cache.revokeToken("revoked-2");
+        assertThat(cache.isRevoked("unrelated", jwt)).isTrue();
+
+        // When
+        Thread.sleep(1_100);
+
+        // Then: expired revocations make room for new ones
+        assertThat(cache.isRevoked("unrelated", jwt)).isFalse();
+        cache.revokeToken("revoked-3");
+        assertThat(cache.isRevoked("revoked-3", jwt)).isTrue();
+        assertThat(cache.isRevoked("unrelated", jwt)).isFalse();
+    }
+
+    @Test
+    void revokeSubject_ForAnAlreadyRevokedSubject_ShouldNotNeedRoom() {
+        // Given
+        VerifiedTokenCache cache = new VerifiedTokenCache(1, 900, 86400);
+        Instant first = Instant.now().minusSeconds(60);
+        cache.revokeSubject("alice", first);
+
+        // When
+        Instant second = Instant.now();
+        cache.revokeSubject("alice", second);
+
+        // Then
+        assertThat(cache.isRevoked("hash-1", jwt("alice", second.minusSeconds(1)))).isTrue();
+        assertThat(cache.isRevoked("hash-2", jwt("bob", second.minusSeconds(1)))).isFalse();
+    }
+
+    private static Jwt jwt(String subject, Instant issuedAt) {
+        return Jwt.withTokenValue("token")
+            .header("alg", "HS512")
+            .subject(subject)
+            .issuedAt(issuedAt)
+            .expiresAt(issuedAt.plusSeconds(3600))
+            .build();
+    }
+}
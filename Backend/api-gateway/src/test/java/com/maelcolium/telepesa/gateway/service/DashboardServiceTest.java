@@ -0,0 +1,176 @@
+package com.maelcolium.telepesa.gateway.service;
+
+import com.maelcolium.telepesa.gateway.config.DashboardProperties;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.cloud.client.loadbalancer.reactive.ReactorLoadBalancerExchangeFilterFunction;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.web.reactive.function.client.ClientRequest;
+import org.springframework.web.reactive.function.client.ClientResponse;
+import org.springframework.web.reactive.function.client.ExchangeFunction;
+import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.server.ResponseStatusException;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Function;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.CALLS_REAL_METHODS;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.withSettings;
+
+class DashboardServiceTest {
+
+    private final Map<String, Function<ClientRequest, Mono<ClientResponse>>> services = new ConcurrentHashMap<>();
+    private final List<String> requested = new CopyOnWriteArrayList<>();
+    private DashboardProperties properties;
+    private DashboardService dashboardService;
+
+    @BeforeEach
+    void setUp() {
+        services.put("user-service", request -> json("{\"id\":42,\"username\":\"alice\"}"));
+        services.put("account-service", request -> request.url().getPath().endsWith("/total-balance")
+            ? json("{\"amount\":1500.00,\"currency\":\"KES\"}")
+            : json("{\"content\":[{\"accountNumber\":\"ACC001\"}]}"));
+        services.put("transaction-service", request -> json("{\"content\":[{\"transactionId\":\"TXN1\"}]}"));
+        services.put("loan-service", request -> json("[{\"loanNumber\":\"LN1\"}]"));
+        services.put("notification-service", request -> json("{\"unreadCount\":3}"));
+
+        properties = new DashboardProperties();
+        properties.setTimeout(Duration.ofSeconds(2));
+
+        // Stands in for the load balancer: service ids are kept as hosts
+        ReactorLoadBalancerExchangeFilterFunction loadBalancer =
+            mock(ReactorLoadBalancerExchangeFilterFunction.class, withSettings().defaultAnswer(CALLS_REAL_METHODS));
+        doAnswer(invocation -> invocation.<ExchangeFunction>getArgument(1).exchange(invocation.getArgument(0)))
+            .when(loadBalancer).filter(any(), any());
+        ExchangeFunction exchange = request -> {
+            requested.add(request.url().toString());
+            return services.get(request.url().getHost()).apply(request);
+        };
+        dashboardService = new DashboardService(WebClient.builder().exchangeFunction(exchange), loadBalancer,
+            properties, new SimpleMeterRegistry());
+    }
+
+    @Test
+    void getDashboard_WhenEveryServiceAnswers_ShouldReturnAllParts() {
+        // When
+        Map<String, Object> dashboard = dashboardService.getDashboard(jwt(42L), new HttpHeaders()).block();
+
+        // Then
+        assertThat(dashboard.get("userId")).isEqualTo(42L);
+        assertThat(dashboard.get("partial")).isEqualTo(false);
+        assertThat(errors(dashboard)).isEmpty();
+        assertThat(dashboard.get(DashboardService.ACCOUNTS).toString()).contains("ACC001");
+        assertThat(dashboard.get(DashboardService.UNREAD_NOTIFICATIONS).toString()).isEqualTo("3");
+    }
+
+    @Test
+    void getDashboard_WhenOneServiceFails_ShouldReturnTheRestAndMarkItUnavailable() {
+        // Given
+        services.put("transaction-service", request -> Mono.just(ClientResponse.create(HttpStatus.SERVICE_UNAVAILABLE).build()));
+        services.put("loan-service", request -> Mono.error(new IllegalStateException("Connection refused")));
+
+        // When
+        Map<String, Object> dashboard = dashboardService.getDashboard(jwt(42L), new HttpHeaders()).block();
+
+        // Then
+        assertThat(dashboard.get("partial")).isEqualTo(true);
+        assertThat(errors(dashboard)).containsOnly(
+            Map.entry(DashboardService.RECENT_TRANSACTIONS, "status_503"),
+            Map.entry(DashboardService.ACTIVE_LOANS, "unavailable"));
+        assertThat(dashboard.get(DashboardService.RECENT_TRANSACTIONS)).isNull();
+        assertThat(dashboard.get(DashboardService.ACTIVE_LOANS)).isNull();
+        assertThat(dashboard.get(DashboardService.PROFILE)).isNotNull();
+        assertThat(dashboard.get(DashboardService.TOTAL_BALANCE).toString()).contains("1500");
+    }
+
+    @Test
+    void getDashboard_WhenOneServiceIsSlowerThanItsTimeout_ShouldLeaveOnlyThatPartOut() {
+        // Given: loans have a tighter timeout of their own than the default the others get
+        properties.getTimeouts().put(DashboardService.ACTIVE_LOANS, Duration.ofMillis(100));
+        services.put("loan-service", request -> json("[]").delayElement(Duration.ofSeconds(5)));
+        services.put("notification-service", request -> json("{\"unreadCount\":1}").delayElement(Duration.ofMillis(300)));
+
+        // When: answers once the loans time out, without waiting for loan-service
+        Map<String, Object> dashboard = dashboardService.getDashboard(jwt(42L), new HttpHeaders())
+            .block(Duration.ofSeconds(2));
+
+        // Then
+        assertThat(errors(dashboard)).containsOnly(Map.entry(DashboardService.ACTIVE_LOANS, "timeout"));
+        assertThat(dashboard.get(DashboardService.ACTIVE_LOANS)).isNull();
+        assertThat(dashboard.get(DashboardService.UNREAD_NOTIFICATIONS).toString()).isEqualTo("1");
+    }
+
+    @Test
+    void getDashboard_ShouldFetchTheUserOfTheToken() {
+        // Given
+        HttpHeaders headers = new HttpHeaders();
+        headers.setBearerAuth("token-of-42");
+
+        // When
+        dashboardService.getDashboard(jwt(42L), headers).block();
+
+        // Then
+        assertThat(requested).filteredOn(uri -> !uri.startsWith("http://user-service"))
+            .hasSize(5)
+            .allMatch(uri -> uri.contains("/user/42"));
+    }
+
+    @Test
+    void getDashboard_WithTokenWithoutUserId_ShouldTakeItFromTheProfile() {
+        // Given
+        services.put("user-service", request -> json("{\"id\":7,\"username\":\"alice\"}"));
+
+        // When
+        Map<String, Object> dashboard = dashboardService.getDashboard(jwt(null), new HttpHeaders()).block();
+
+        // Then
+        assertThat(dashboard.get("userId")).isEqualTo(7L);
+        assertThat(requested).filteredOn(uri -> uri.startsWith("http://account-service"))
+            .allMatch(uri -> uri.contains("/user/7"));
+    }
+
+    @Test
+    void getDashboard_WhenTheUserCannotBeResolved_ShouldFail() {
+        // Given
+        services.put("user-service", request -> Mono.just(ClientResponse.create(HttpStatus.INTERNAL_SERVER_ERROR).build()));
+
+        // When & Then
+        assertThatThrownBy(() -> dashboardService.getDashboard(jwt(null), new HttpHeaders()).block(Duration.ofSeconds(2)))
+            .isInstanceOfSatisfying(ResponseStatusException.class,
+                e -> assertThat(e.getStatusCode()).isEqualTo(HttpStatus.BAD_GATEWAY));
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Map<String, String> errors(Map<String, Object> dashboard) {
+        return (Map<String, String>) dashboard.get("errors");
+    }
+
+    private static Jwt jwt(Long userId) {
+        Jwt.Builder builder = Jwt.withTokenValue("token").header("alg", "HS512").subject("alice");
+        if (userId != null) {
+            builder.claim("userId", userId);
+        }
+        return builder.build();
+    }
+
+    private static Mono<ClientResponse> json(String body) {
+        return Mono.just(ClientResponse.create(HttpStatus.OK)
+            .header(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE)
+            .body(body)
+            .build());
+    }
+}
@@ -1,6 +1,8 @@
 package com.maelcolium.telepesa.bill.payment.config;
 
 import com.maelcolium.telepesa.security.JwtTokenUtil;
+import com.maelcolium.telepesa.security.VerifiedToken;
+import io.jsonwebtoken.JwtException;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
@@ -40,24 +42,24 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
         final String authorizationHeader = request.getHeader("Authorization");
         log.debug("Processing request: {} {}", request.getMethod(), request.getRequestURI());
 
-        String username = null;
-        String jwt = null;
+        VerifiedToken token = null;
 
         if (authorizationHeader != null && authorizationHeader.startsWith("Bearer ")) {
-            jwt = authorizationHeader.substring(7);
             try {
-                username = jwtTokenUtil.getUsernameFromToken(jwt);
-                log.debug("JWT token found for user: {}", username);
-            } catch (Exception e) {
+                // Signature, expiry and claims are all checked in a single parse
+                token = jwtTokenUtil.verify(authorizationHeader.substring(7));
+                log.debug("JWT token found for user: {}", token.subject());
+            } catch (JwtException | IllegalArgumentException e) {
                 log.warn("JWT token is invalid: {}", e.getMessage());
             }
         }
 
+        String username = token != null ? token.subject() : null;
         if (username != null && SecurityContextHolder.getContext().getAuthentication() == null) {
             try {
                 UserDetails userDetails = this.userDetailsService.loadUserByUsername(username);
 
-                if (jwtTokenUtil.validateToken(jwt, userDetails)) {
+                if (username.equals(userDetails.getUsername())) {
                     UsernamePasswordAuthenticationToken authentication = new UsernamePasswordAuthenticationToken(
                         userDetails, null, userDetails.getAuthorities());
                     authentication.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
@@ -0,0 +1,39 @@
+package com.maelcolium.telepesa.loan.config;
+
+import com.maelcolium.telepesa.security.TokenRevocations;
+import com.maelcolium.telepesa.security.TokenRevocations.Revocation;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Applies token revocations published by any instance, so a locked account's tokens are
+ * rejected everywhere
+ */
+@Configuration
+@ConditionalOnProperty(name = "app.security.token-revocation.listen", havingValue = "true", matchIfMissing = true)
+@Slf4j
+public class TokenRevocationListenerConfig {
+
+    @Bean
+    public RedisMessageListenerContainer tokenRevocationListenerContainer(RedisConnectionFactory connectionFactory,
+                                                                          TokenRevocations tokenRevocations) {
+        RedisMessageListenerContainer container = new RedisMessageListenerContainer();
+        container.setConnectionFactory(connectionFactory);
+        container.addMessageListener((message, pattern) -> {
+            String body = new String(message.getBody(), StandardCharsets.UTF_8);
+            try {
+                tokenRevocations.apply(Revocation.parse(body));
+            } catch (RuntimeException e) {
+                log.warn("Ignoring malformed token revocation message: {}", body, e);
+            }
+        }, new ChannelTopic(TokenRevocations.CHANNEL));
+        return container;
+    }
+}
@@ -1,20 +1,22 @@
 package com.maelcolium.telepesa.loan.security;
 
 import com.maelcolium.telepesa.security.JwtTokenUtil;
+import com.maelcolium.telepesa.security.TokenPrincipal;
+import com.maelcolium.telepesa.security.TokenRevocations;
+import com.maelcolium.telepesa.security.VerifiedToken;
+import io.jsonwebtoken.JwtException;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
-import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.web.authentication.WebAuthenticationDetailsSource;
 import org.springframework.stereotype.Component;
 import org.springframework.web.filter.OncePerRequestFilter;
 
 import java.io.IOException;
-import java.util.List;
 
 /**
  * JWT Authentication Filter for Loan Service
@@ -26,49 +28,42 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
     @Autowired
     private JwtTokenUtil jwtTokenUtil;
 
+    @Autowired
+    private TokenRevocations tokenRevocations;
+
     @Override
     protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, 
                                   FilterChain filterChain) throws ServletException, IOException {
         
         final String requestTokenHeader = request.getHeader("Authorization");
         
-        String username = null;
-        String jwtToken = null;
+        VerifiedToken token = null;
         
         // JWT Token is in the form "Bearer token". Remove Bearer word and get only the Token
         if (requestTokenHeader != null && requestTokenHeader.startsWith("Bearer ")) {
-            jwtToken = requestTokenHeader.substring(7);
             try {
-                username = jwtTokenUtil.getUsernameFromToken(jwtToken);
-            } catch (Exception e) {
+                // Signature, expiry and claims are all checked in a single parse
+                token = jwtTokenUtil.verify(requestTokenHeader.substring(7));
+            } catch (JwtException | IllegalArgumentException e) {
                 logger.warn("JWT token validation failed: " + e.getMessage());
             }
         }
         
-        // Once we get the token validate it and set authentication
-        if (username != null && SecurityContextHolder.getContext().getAuthentication() == null) {
-            
-            // Validate token
-            if (jwtTokenUtil.validateToken(jwtToken)) {
-                logger.info("JWT token validated successfully for user: " + username);
-                
-                // Create authentication token with basic user role
-                UsernamePasswordAuthenticationToken authToken = 
-                    new UsernamePasswordAuthenticationToken(
-                        username, 
-                        null, 
-                        List.of(new SimpleGrantedAuthority("ROLE_USER"))
-                    );
-                
+        // Once we have a verified, unrevoked token set authentication
+        if (token != null && tokenRevocations.isRevoked(token)) {
+            logger.warn("Rejected revoked JWT token for user: " + token.subject());
+            token = null;
+        }
+        if (token != null && SecurityContextHolder.getContext().getAuthentication() == null) {
+            // Principal, roles and user id come from the token's claims
+            UsernamePasswordAuthenticationToken authToken = TokenPrincipal.authenticate(token);
+            if (authToken != null) {
+                logger.debug("JWT token validated successfully for user: " + token.subject());
                 authToken.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
                 
                 // Set authentication in security context
                 SecurityContextHolder.getContext().setAuthentication(authToken);
-            } else {
-                logger.warn("JWT token validation failed for user: " + username);
             }
-        } else if (jwtToken != null) {
-            logger.warn("No username extracted from JWT token");
         }
         
         filterChain.doFilter(request, response);
@@ -3,6 +3,7 @@ package com.maelcolium.telepesa.loan.security;
 import com.maelcolium.telepesa.loan.service.UserService;
 import com.maelcolium.telepesa.models.dto.UserDto;
 import com.maelcolium.telepesa.security.JwtTokenUtil;
+import com.maelcolium.telepesa.security.TokenPrincipal;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
@@ -37,9 +38,15 @@ public class SecurityUtils {
 
     /**
      * Extract user ID from the authenticated user context
-     * Calls user service to get user ID by username
+     * Read from the token when it carries one, otherwise calls user service to get user ID by username
      */
     public Long getCurrentUserId() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication != null && authentication.getPrincipal() instanceof TokenPrincipal principal
+                && principal.userId() != null) {
+            return principal.userId();
+        }
+        
         String username = getCurrentUsername();
         if (username == null) {
             return null;
@@ -0,0 +1,32 @@
+package com.maelcolium.telepesa.models.datasource;
+
+import java.time.Duration;
+
+/**
+ * Remembers, per thread, when the current request last wrote to the primary.
+ *
+ * <p>Reads that follow a write in the same request are kept on the primary, so a caller never
+ * reads back an older state than the one it just wrote because a replica has not caught up yet.
+ * {@link ReadYourWritesFilter} clears the state at the end of each request; threads outside a
+ * request, such as schedulers, fall back to replicas once the stickiness window has passed.</p>
+ */
+public final class ReadYourWritesContext {
+
+    private static final ThreadLocal<Long> LAST_WRITE_NANOS = new ThreadLocal<>();
+
+    private ReadYourWritesContext() {
+    }
+
+    public static void markWrite() {
+        LAST_WRITE_NANOS.set(System.nanoTime());
+    }
+
+    public static boolean isPinnedToPrimary(Duration window) {
+        Long lastWrite = LAST_WRITE_NANOS.get();
+        return lastWrite != null && System.nanoTime() - lastWrite < window.toNanos();
+    }
+
+    public static void clear() {
+        LAST_WRITE_NANOS.remove();
+    }
+}
@@ -0,0 +1,177 @@
+package com.maelcolium.telepesa.models.datasource;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.io.Closeable;
+import java.io.IOException;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Sends read-only transactions to read replicas and everything else to the primary.
+ *
+ * <p>Replicas are polled in the background for replication lag; a replica that cannot be reached
+ * or is further behind than {@code maxLag} gets no reads until it recovers, and when no replica
+ * qualifies reads go to the primary. Reads that follow a write on the same thread stay on the
+ * primary (see {@link ReadYourWritesContext}).</p>
+ *
+ * <p>The routing decision is made when a connection is first used, so this data source must sit
+ * behind a {@link org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy}; otherwise
+ * the transaction manager fetches the connection before the read-only flag has been set.</p>
+ */
+@Slf4j
+public class ReplicaRoutingDataSource extends AbstractRoutingDataSource implements DisposableBean {
+
+    static final String PRIMARY = "primary";
+
+    private final DataSource primary;
+    private final List<Replica> replicas;
+    private final Duration maxLag;
+    private final Duration checkInterval;
+    private final Duration readYourWritesWindow;
+    private final String lagQuery;
+    private final AtomicInteger nextReplica = new AtomicInteger();
+    private ScheduledExecutorService lagMonitor;
+
+    public ReplicaRoutingDataSource(DataSource primary, Map<String, DataSource> replicas, Duration maxLag,
+                                    Duration checkInterval, Duration readYourWritesWindow, String lagQuery) {
+        this.primary = primary;
+        this.maxLag = maxLag;
+        this.checkInterval = checkInterval;
+        this.readYourWritesWindow = readYourWritesWindow;
+        this.lagQuery = lagQuery;
+
+        List<Replica> replicaList = new ArrayList<>();
+        Map<Object, Object> targets = new HashMap<>();
+        targets.put(PRIMARY, primary);
+        new LinkedHashMap<>(replicas).forEach((name, dataSource) -> {
+            replicaList.add(new Replica(name, dataSource));
+            targets.put(name, dataSource);
+        });
+        this.replicas = List.copyOf(replicaList);
+        setTargetDataSources(targets);
+        setDefaultTargetDataSource(primary);
+    }
+
+    @Override
+    public void afterPropertiesSet() {
+        super.afterPropertiesSet();
+        if (replicas.isEmpty()) {
+            log.warn("Replica routing enabled without replicas; all reads go to the primary");
+            return;
+        }
+        checkReplicas();
+        lagMonitor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "replica-lag-monitor");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long intervalMillis = checkInterval.toMillis();
+        lagMonitor.scheduleWithFixedDelay(this::checkReplicas, intervalMillis, intervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            if (TransactionSynchronizationManager.isActualTransactionActive()) {
+                ReadYourWritesContext.markWrite();
+            }
+            return PRIMARY;
+        }
+        if (ReadYourWritesContext.isPinnedToPrimary(readYourWritesWindow)) {
+            return PRIMARY;
+        }
+        Replica replica = nextAvailableReplica();
+        return replica != null ? replica.name : PRIMARY;
+    }
+
+    private Replica nextAvailableReplica() {
+        int size = replicas.size();
+        int start = Math.floorMod(nextReplica.getAndIncrement(), Math.max(size, 1));
+        for (int i = 0; i < size; i++) {
+            Replica replica = replicas.get((start + i) % size);
+            if (replica.available) {
+                return replica;
+            }
+        }
+        return null;
+    }
+
+    void checkReplicas() {
+        for (Replica replica : replicas) {
+            boolean available;
+            double lagSeconds = Double.NaN;
+            try (Connection connection = replica.dataSource.getConnection();
+                 Statement statement = connection.createStatement()) {
+                statement.setQueryTimeout((int) Math.max(1, checkInterval.toSeconds()));
+                try (ResultSet result = statement.executeQuery(lagQuery)) {
+                    lagSeconds = result.next() ? result.getDouble(1) : Double.NaN;
+                }
+                available = lagSeconds * 1000 <= maxLag.toMillis();
+            } catch (SQLException | RuntimeException e) {
+                log.debug("Replica {} lag check failed", replica.name, e);
+                available = false;
+            }
+            if (available != replica.available) {
+                log.info("Replica {} is now {} (lag {}s)", replica.name, available ? "in rotation" : "out of rotation", lagSeconds);
+            }
+            replica.available = available;
+        }
+    }
+
+    /**
+     * Replicas currently receiving reads.
+     */
+    public List<String> getAvailableReplicas() {
+        return replicas.stream()
+                .filter(replica -> replica.available)
+                .map(replica -> replica.name)
+                .toList();
+    }
+
+    @Override
+    public void destroy() {
+        if (lagMonitor != null) {
+            lagMonitor.shutdownNow();
+        }
+        close(primary);
+        replicas.forEach(replica -> close(replica.dataSource));
+    }
+
+    private static void close(DataSource dataSource) {
+        if (dataSource instanceof Closeable closeable) {
+            try {
+                closeable.close();
+            } catch (IOException e) {
+                log.warn("Failed to close data source", e);
+            }
+        }
+    }
+
+    private static final class Replica {
+        private final String name;
+        private final DataSource dataSource;
+        private volatile boolean available;
+
+        private Replica(String name, DataSource dataSource) {
+            this.name = name;
+            this.dataSource = dataSource;
+        }
+    }
+}
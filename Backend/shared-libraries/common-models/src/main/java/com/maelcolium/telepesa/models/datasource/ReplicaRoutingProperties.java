@@ -0,0 +1,48 @@
+package com.maelcolium.telepesa.models.datasource;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Read replicas behind {@code spring.datasource}. Credentials default to the primary's.
+ */
+@Data
+@ConfigurationProperties(prefix = "app.datasource.replicas")
+public class ReplicaRoutingProperties {
+
+    /**
+     * Replication lag in seconds, or 0 when the replica has replayed everything it received.
+     * Comparing the receive and replay positions keeps an idle primary from looking like lag.
+     */
+    public static final String POSTGRES_LAG_QUERY = "SELECT CASE WHEN NOT pg_is_in_recovery() "
+            + "OR pg_last_wal_receive_lsn() = pg_last_wal_replay_lsn() THEN 0 "
+            + "ELSE COALESCE(EXTRACT(EPOCH FROM now() - pg_last_xact_replay_timestamp()), 0) END";
+
+    private boolean enabled;
+
+    private List<String> urls = new ArrayList<>();
+
+    private String username;
+
+    private String password;
+
+    /**
+     * Replicas further behind than this are skipped until they catch up.
+     */
+    private Duration maxLag = Duration.ofSeconds(5);
+
+    private Duration checkInterval = Duration.ofSeconds(2);
+
+    /**
+     * How long reads stay on the primary after a write outside a web request.
+     */
+    private Duration readYourWritesWindow = Duration.ofSeconds(10);
+
+    private String lagQuery = POSTGRES_LAG_QUERY;
+
+    private int maximumPoolSize = 10;
+}
@@ -0,0 +1,120 @@
+package com.maelcolium.telepesa.models.datasource;
+
+import org.h2.jdbcx.JdbcDataSource;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ReplicaRoutingDataSourceTest {
+
+    private ReplicaRoutingDataSource routingDataSource;
+    private JdbcTemplate jdbcTemplate;
+    private TransactionTemplate writeTransaction;
+    private TransactionTemplate readOnlyTransaction;
+
+    @AfterEach
+    void tearDown() {
+        ReadYourWritesContext.clear();
+        if (routingDataSource != null) {
+            routingDataSource.destroy();
+        }
+    }
+
+    @Test
+    void readOnlyTransaction_ShouldUseReplica() {
+        route(database("replica"), "SELECT 0");
+
+        assertThat(readOnly()).isEqualTo("replica");
+    }
+
+    @Test
+    void writeTransaction_ShouldUsePrimary() {
+        route(database("replica"), "SELECT 0");
+
+        String node = writeTransaction.execute(status -> jdbcTemplate.queryForObject("SELECT name FROM node", String.class));
+
+        assertThat(node).isEqualTo("primary");
+    }
+
+    @Test
+    void readAfterWrite_ShouldStayOnPrimaryUntilCleared() {
+        route(database("replica"), "SELECT 0");
+
+        writeTransaction.executeWithoutResult(status -> jdbcTemplate.update("UPDATE node SET name = name"));
+
+        assertThat(readOnly()).isEqualTo("primary");
+
+        ReadYourWritesContext.clear();
+
+        assertThat(readOnly()).isEqualTo("replica");
+    }
+
+    @Test
+    void laggingReplica_ShouldFallBackToPrimary() {
+        route(database("replica"), "SELECT 60");
+
+        assertThat(routingDataSource.getAvailableReplicas()).isEmpty();
+        assertThat(readOnly()).isEqualTo("primary");
+    }
+
+    @Test
+    void unreachableReplica_ShouldFallBackToPrimary() {
+        JdbcDataSource missing = new JdbcDataSource();
+        missing.setURL("jdbc:h2:mem:" + UUID.randomUUID() + ";IFEXISTS=TRUE");
+
+        route(missing, "SELECT 0");
+
+        assertThat(readOnly()).isEqualTo("primary");
+    }
+
+    @Test
+    void replicaCatchingUp_ShouldReturnToRotation() {
+        DataSource replica = database("replica");
+        new JdbcTemplate(replica).execute("CREATE TABLE lag (seconds INT)");
+        new JdbcTemplate(replica).update("INSERT INTO lag VALUES (60)");
+        route(replica, "SELECT seconds FROM lag");
+
+        assertThat(readOnly()).isEqualTo("primary");
+
+        new JdbcTemplate(replica).update("UPDATE lag SET seconds = 1");
+        routingDataSource.checkReplicas();
+
+        assertThat(readOnly()).isEqualTo("replica");
+    }
+
+    private String readOnly() {
+        return readOnlyTransaction.execute(status -> jdbcTemplate.queryForObject("SELECT name FROM node", String.class));
+    }
+
+    private void route(DataSource replica, String lagQuery) {
+        routingDataSource = new ReplicaRoutingDataSource(database("primary"), Map.of("replica-1", replica),
+                Duration.ofSeconds(5), Duration.ofHours(1), Duration.ofSeconds(10), lagQuery);
+        routingDataSource.afterPropertiesSet();
+
+        DataSource dataSource = new LazyConnectionDataSourceProxy(routingDataSource);
+        DataSourceTransactionManager transactionManager = new DataSourceTransactionManager(dataSource);
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        writeTransaction = new TransactionTemplate(transactionManager);
+        readOnlyTransaction = new TransactionTemplate(transactionManager);
+        readOnlyTransaction.setReadOnly(true);
+    }
+
+    private static DataSource database(String name) {
+        JdbcDataSource dataSource = new JdbcDataSource();
+        dataSource.setURL("jdbc:h2:mem:" + name + "-" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1");
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.execute("CREATE TABLE node (name VARCHAR(20))");
+        jdbcTemplate.update("INSERT INTO node VALUES (?)", name);
+        return dataSource;
+    }
+}
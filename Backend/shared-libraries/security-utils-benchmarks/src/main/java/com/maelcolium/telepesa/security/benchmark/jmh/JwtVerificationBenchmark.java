@@ -0,0 +1,64 @@
+package com.maelcolium.telepesa.security.benchmark.jmh;
+
+import com.maelcolium.telepesa.security.JwtTokenUtil;
+import com.maelcolium.telepesa.security.VerifiedToken;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Keys;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.security.core.userdetails.User;
+
+import javax.crypto.SecretKey;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-request token handling in the service JWT filters, before and after {@link JwtTokenUtil#verify}.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class JwtVerificationBenchmark {
+
+    private static final String SECRET = "benchmark-secret-key-that-is-long-enough-for-hmac-sha512-signing-0123456789";
+
+    private JwtTokenUtil jwtTokenUtil;
+    private SecretKey key;
+    private String token;
+
+    @Setup
+    public void setUp() {
+        jwtTokenUtil = new JwtTokenUtil(SECRET, 3600);
+        key = Keys.hmacShaKeyFor(SECRET.getBytes());
+        token = jwtTokenUtil.generateToken(
+            User.withUsername("benchmark.user").password("unused").roles("USER").build(),
+            Map.of("userId", 42L, "roles", List.of("USER")));
+    }
+
+    /**
+     * The sequence the filters ran before: validate (parse, then parse again for expiry) and then
+     * parse a third time for the username, building a new parser each time.
+     */
+    @Benchmark
+    public String threeParses() {
+        parse(token);
+        if (parse(token).getExpiration().before(new Date())) {
+            throw new IllegalStateException("Token expired");
+        }
+        return parse(token).getSubject();
+    }
+
+    @Benchmark
+    public VerifiedToken verify() {
+        return jwtTokenUtil.verify(token);
+    }
+
+    private Claims parse(String jwt) {
+        return Jwts.parser().verifyWith(key).build().parseSignedClaims(jwt).getPayload();
+    }
+}
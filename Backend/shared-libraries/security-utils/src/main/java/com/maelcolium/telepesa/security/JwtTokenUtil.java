@@ -7,8 +7,10 @@ import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.stereotype.Component;
 
 import javax.crypto.SecretKey;
+import java.util.Collection;
 import java.util.Date;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.function.Function;
 
@@ -18,13 +20,29 @@ import java.util.function.Function;
 @Component
 public class JwtTokenUtil {
 
+    public static final String USER_ID_CLAIM = "userId";
+    public static final String ROLES_CLAIM = "roles";
+    public static final String STATUS_CLAIM = "status";
+
     private final SecretKey key;
     private final int jwtExpiration;
+    private final JwtParser parser;
 
     public JwtTokenUtil(@Value("${app.jwt.secret:mySecretKey}") String secret,
                        @Value("${app.jwt.expiration:86400}") int jwtExpiration) {
         this.key = Keys.hmacShaKeyFor(secret.getBytes());
         this.jwtExpiration = jwtExpiration;
+        this.parser = Jwts.parser().verifyWith(key).build();
+    }
+
+    /**
+     * Verify token signature and expiry in a single parse and return its claims
+     *
+     * @throws JwtException if the token is malformed, badly signed or expired
+     * @throws IllegalArgumentException if the token is empty
+     */
+    public VerifiedToken verify(String token) {
+        return VerifiedToken.from(getAllClaimsFromToken(token));
     }
 
     /**
@@ -43,6 +61,18 @@ public class JwtTokenUtil {
         return createToken(claims, userDetails.getUsername());
     }
 
+    /**
+     * Generate token carrying the user id, roles and status, so services can authenticate
+     * requests from the token alone
+     */
+    public String generateToken(String username, Long userId, Collection<String> roles, String status) {
+        Map<String, Object> claims = new HashMap<>();
+        claims.put(USER_ID_CLAIM, userId);
+        claims.put(ROLES_CLAIM, List.copyOf(roles));
+        claims.put(STATUS_CLAIM, status);
+        return createToken(claims, username);
+    }
+
     /**
      * Extract username from token
      */
@@ -70,8 +100,7 @@ public class JwtTokenUtil {
      */
     public Boolean validateToken(String token, UserDetails userDetails) {
         try {
-            final String username = getUsernameFromToken(token);
-            return (username.equals(userDetails.getUsername()) && !isTokenExpired(token));
+            return verify(token).subject().equals(userDetails.getUsername());
         } catch (JwtException | IllegalArgumentException e) {
             return false;
         }
@@ -82,11 +111,8 @@ public class JwtTokenUtil {
      */
     public Boolean validateToken(String token) {
         try {
-            Jwts.parser()
-                .verifyWith(key)
-                .build()
-                .parseSignedClaims(token);
-            return !isTokenExpired(token);
+            verify(token);
+            return true;
         } catch (JwtException | IllegalArgumentException e) {
             return false;
         }
@@ -121,10 +147,6 @@ public class JwtTokenUtil {
      * Extract all claims from token
      */
     private Claims getAllClaimsFromToken(String token) {
-        return Jwts.parser()
-                .verifyWith(key)
-                .build()
-                .parseSignedClaims(token)
-                .getPayload();
+        return parser.parseSignedClaims(token).getPayload();
     }
 } 
\ No newline at end of file
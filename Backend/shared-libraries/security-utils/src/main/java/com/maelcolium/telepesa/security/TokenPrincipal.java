@@ -0,0 +1,51 @@
+package com.maelcolium.telepesa.security;
+
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.AuthenticatedPrincipal;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+
+import java.util.List;
+
+/**
+ * Stateless principal built from the claims of a verified token, so services can authenticate a
+ * request without looking the user up
+ *
+ * @param userId   the user's id, or {@code null} for tokens issued without one
+ * @param username the token's subject
+ * @param roles    the user's roles without the {@code ROLE_} prefix
+ */
+public record TokenPrincipal(Long userId, String username, List<String> roles) implements AuthenticatedPrincipal {
+
+    public static final String ACTIVE_STATUS = "ACTIVE";
+    private static final List<String> DEFAULT_ROLES = List.of("USER");
+
+    public TokenPrincipal {
+        roles = List.copyOf(roles);
+    }
+
+    /**
+     * Build the authentication for a verified token. Tokens without roles get the default user
+     * role. Returns {@code null} for a token issued to a user who was not active then, such as a
+     * locked or deactivated account.
+     */
+    public static UsernamePasswordAuthenticationToken authenticate(VerifiedToken token) {
+        if (token.subject() == null || (token.status() != null && !ACTIVE_STATUS.equals(token.status()))) {
+            return null;
+        }
+        List<String> roles = token.roles().isEmpty() ? DEFAULT_ROLES : token.roles();
+        TokenPrincipal principal = new TokenPrincipal(token.userId(), token.subject(), roles);
+        return new UsernamePasswordAuthenticationToken(principal, null, principal.getAuthorities());
+    }
+
+    public List<GrantedAuthority> getAuthorities() {
+        return roles.stream()
+            .map(role -> (GrantedAuthority) new SimpleGrantedAuthority(role.startsWith("ROLE_") ? role : "ROLE_" + role))
+            .toList();
+    }
+
+    @Override
+    public String getName() {
+        return username;
+    }
+}
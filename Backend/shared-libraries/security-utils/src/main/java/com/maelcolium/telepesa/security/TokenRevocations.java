@@ -0,0 +1,109 @@
+package com.maelcolium.telepesa.security;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Subjects whose tokens issued up to a point in time are no longer accepted, for example
+ * because the account was locked or deactivated.
+ *
+ * <p>Revocations are shared between services as messages on {@link #CHANNEL}, in the format of
+ * {@link Revocation}. Each is kept for the longest a token can live, after which every token it
+ * covers has expired anyway.</p>
+ */
+@Component
+public class TokenRevocations {
+
+    public static final String CHANNEL = "auth:token-revocations";
+
+    private static final int MAX_SUBJECTS = 100_000;
+
+    private final long retentionMillis;
+    // Guarded by itself; insertion order, so the oldest revocation is dropped first
+    private final Map<String, Long> revokedSubjects = new LinkedHashMap<>(64, 0.75f, false) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, Long> eldest) {
+            return size() > MAX_SUBJECTS;
+        }
+    };
+
+    public TokenRevocations(@Value("${app.jwt.expiration:86400}") long tokenLifetimeSeconds) {
+        this.retentionMillis = tokenLifetimeSeconds * 1000L;
+    }
+
+    /**
+     * A revocation of one token, by the Base64url SHA-256 hash of the token, or of every token of
+     * a subject issued up to {@code revokedAt}
+     */
+    public record Revocation(String tokenHash, String subject, Instant revokedAt) {
+
+        private static final String TOKEN_PREFIX = "token:";
+        private static final String SUBJECT_PREFIX = "subject:";
+
+        public static Revocation ofToken(String tokenHash) {
+            return new Revocation(tokenHash, null, null);
+        }
+
+        public static Revocation ofSubject(String subject, Instant revokedAt) {
+            return new Revocation(null, subject, revokedAt);
+        }
+
+        /**
+         * Parse a message; the subject may itself contain colons
+         *
+         * @throws IllegalArgumentException if the message is not a revocation
+         */
+        public static Revocation parse(String message) {
+            if (message.startsWith(TOKEN_PREFIX)) {
+                return ofToken(message.substring(TOKEN_PREFIX.length()));
+            }
+            int separator = message.lastIndexOf(':');
+            if (message.startsWith(SUBJECT_PREFIX) && separator > SUBJECT_PREFIX.length()) {
+                return ofSubject(message.substring(SUBJECT_PREFIX.length(), separator),
+                    Instant.ofEpochMilli(Long.parseLong(message.substring(separator + 1))));
+            }
+            throw new IllegalArgumentException("Not a token revocation: " + message);
+        }
+
+        public String toMessage() {
+            return tokenHash != null
+                ? TOKEN_PREFIX + tokenHash
+                : SUBJECT_PREFIX + subject + ":" + revokedAt.toEpochMilli();
+        }
+    }
+
+    /**
+     * Apply a revocation; revocations of single tokens are left to the gateway, which tracks them
+     */
+    public void apply(Revocation revocation) {
+        if (revocation.subject() != null) {
+            revokeSubject(revocation.subject(), revocation.revokedAt());
+        }
+    }
+
+    public void revokeSubject(String subject, Instant revokedAt) {
+        synchronized (revokedSubjects) {
+            Long previous = revokedSubjects.remove(subject);
+            long at = revokedAt.toEpochMilli();
+            revokedSubjects.put(subject, previous != null ? Math.max(previous, at) : at);
+        }
+    }
+
+    public boolean isRevoked(VerifiedToken token) {
+        if (token.subject() == null) {
+            return false;
+        }
+        Long revokedAt;
+        synchronized (revokedSubjects) {
+            revokedAt = revokedSubjects.get(token.subject());
+        }
+        if (revokedAt == null || revokedAt + retentionMillis <= System.currentTimeMillis()) {
+            return false;
+        }
+        return token.issuedAt() == null || token.issuedAt().toEpochMilli() <= revokedAt;
+    }
+}
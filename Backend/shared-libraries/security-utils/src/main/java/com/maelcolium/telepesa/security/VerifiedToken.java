@@ -0,0 +1,55 @@
+package com.maelcolium.telepesa.security;
+
+import io.jsonwebtoken.Claims;
+
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Immutable view of the claims of a token whose signature and expiry have been verified
+ *
+ * @param subject   the username the token was issued to
+ * @param userId    the {@code userId} claim, or {@code null} for tokens issued without one
+ * @param roles     the {@code roles} claim, empty for tokens issued without one
+ * @param status    the {@code status} claim, the user's status when the token was issued, or
+ *                  {@code null} for tokens issued without one
+ * @param issuedAt  when the token was issued, or {@code null} if unknown
+ * @param expiresAt when the token expires
+ */
+public record VerifiedToken(String subject, Long userId, List<String> roles, String status,
+                            Instant issuedAt, Instant expiresAt) {
+
+    public VerifiedToken {
+        roles = roles != null ? List.copyOf(roles) : List.of();
+    }
+
+    static VerifiedToken from(Claims claims) {
+        return new VerifiedToken(
+            claims.getSubject(),
+            userId(claims.get(JwtTokenUtil.USER_ID_CLAIM)),
+            roles(claims.get(JwtTokenUtil.ROLES_CLAIM)),
+            Objects.toString(claims.get(JwtTokenUtil.STATUS_CLAIM), null),
+            claims.getIssuedAt() != null ? claims.getIssuedAt().toInstant() : null,
+            claims.getExpiration() != null ? claims.getExpiration().toInstant() : null);
+    }
+
+    private static Long userId(Object claim) {
+        if (claim instanceof Number number) {
+            return number.longValue();
+        }
+        return claim != null ? Long.valueOf(claim.toString()) : null;
+    }
+
+    private static List<String> roles(Object claim) {
+        if (claim instanceof Collection<?> values) {
+            return values.stream().map(String::valueOf).toList();
+        }
+        if (claim == null || claim.toString().isBlank()) {
+            return List.of();
+        }
+        return Arrays.stream(claim.toString().split("[,\\s]+")).filter(role -> !role.isEmpty()).toList();
+    }
+}
@@ -0,0 +1,60 @@
+package com.maelcolium.telepesa.security;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class GatewayIdentityTest {
+
+    private static final String SECRET = "telepesa-test-gateway-identity-secret-0123456789";
+    private static final long NOW = 1_760_000_000L;
+
+    private final GatewayIdentity identity = new GatewayIdentity(SECRET, 30);
+
+    @Test
+    void verify_WithSignedHeaders_ShouldReturnThePrincipal() {
+        // Given
+        String signature = identity.sign("42", "alice", "USER,ADMIN", NOW);
+
+        // When
+        TokenPrincipal principal = identity.verify("42", "alice", "USER,ADMIN", Long.toString(NOW), signature, NOW + 5);
+
+        // Then
+        assertThat(principal.userId()).isEqualTo(42L);
+        assertThat(principal.username()).isEqualTo("alice");
+        assertThat(principal.roles()).containsExactly("USER", "ADMIN");
+    }
+
+    @Test
+    void verify_WithTamperedHeaders_ShouldReturnNull() {
+        // Given
+        String signature = identity.sign("42", "alice", "USER", NOW);
+
+        // When & Then
+        assertThat(identity.verify("42", "alice", "USER,ADMIN", Long.toString(NOW), signature, NOW)).isNull();
+        assertThat(identity.verify("43", "alice", "USER", Long.toString(NOW), signature, NOW)).isNull();
+        assertThat(identity.verify("42", "alice", "USER", Long.toString(NOW + 1), signature, NOW)).isNull();
+        assertThat(identity.verify("42", "alice", "USER", Long.toString(NOW), "not-base64!", NOW)).isNull();
+        assertThat(new GatewayIdentity(SECRET.replace('t', 'x'), 30)
+            .verify("42", "alice", "USER", Long.toString(NOW), signature, NOW)).isNull();
+    }
+
+    @Test
+    void verify_OutsideTheMaxAge_ShouldReturnNull() {
+        // Given
+        String signature = identity.sign("42", "alice", "USER", NOW);
+
+        // When & Then
+        assertThat(identity.verify("42", "alice", "USER", Long.toString(NOW), signature, NOW + 30)).isNotNull();
+        assertThat(identity.verify("42", "alice", "USER", Long.toString(NOW), signature, NOW + 31)).isNull();
+        assertThat(identity.verify("42", "alice", "USER", Long.toString(NOW), signature, NOW - 31)).isNull();
+    }
+
+    @Test
+    void constructor_WithoutAStrongSecret_ShouldThrow() {
+        assertThatThrownBy(() -> new GatewayIdentity(null, 30)).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> new GatewayIdentity("", 30)).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> new GatewayIdentity("too-short", 30)).isInstanceOf(IllegalArgumentException.class);
+    }
+}
@@ -0,0 +1,155 @@
+package com.maelcolium.telepesa.security;
+
+import io.jsonwebtoken.ExpiredJwtException;
+import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.MalformedJwtException;
+import io.jsonwebtoken.security.Keys;
+import io.jsonwebtoken.security.SignatureException;
+import org.junit.jupiter.api.Test;
+
+import javax.crypto.SecretKey;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.Date;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class JwtTokenUtilTest {
+
+    private static final String SECRET = "telepesa-test-secret-key-that-is-long-enough-for-hs512-signing!";
+
+    private final JwtTokenUtil jwtTokenUtil = new JwtTokenUtil(SECRET, 3600);
+
+    @Test
+    void verify_WithValidToken_ShouldReturnItsClaims() {
+        // Given
+        Instant before = Instant.now().truncatedTo(ChronoUnit.SECONDS);
+        String token = jwtTokenUtil.generateToken("alice", 42L, List.of("USER", "ADMIN"), "ACTIVE");
+
+        // When
+        VerifiedToken verified = jwtTokenUtil.verify(token);
+
+        // Then
+        assertThat(verified.subject()).isEqualTo("alice");
+        assertThat(verified.userId()).isEqualTo(42L);
+        assertThat(verified.roles()).containsExactly("USER", "ADMIN");
+        assertThat(verified.status()).isEqualTo("ACTIVE");
+        assertThat(verified.issuedAt()).isAfterOrEqualTo(before);
+        assertThat(verified.expiresAt()).isEqualTo(verified.issuedAt().plusSeconds(3600));
+    }
+
+    @Test
+    void verify_WithExpiredToken_ShouldThrow() {
+        // Given
+        String token = new JwtTokenUtil(SECRET, -60).generateToken("alice", 42L, List.of("USER"), "ACTIVE");
+
+        // When & Then
+        assertThatThrownBy(() -> jwtTokenUtil.verify(token)).isInstanceOf(ExpiredJwtException.class);
+        assertThat(jwtTokenUtil.validateToken(token)).isFalse();
+    }
+
+    @Test
+    void verify_WithTokenSignedByAnotherKey_ShouldThrow() {
+        // Given
+        String token = new JwtTokenUtil(SECRET.replace('t', 'x'), 3600)
+            .generateToken("alice", 42L, List.of("ADMIN"), "ACTIVE");
+
+        // When & Then
+        assertThatThrownBy(() -> jwtTokenUtil.verify(token)).isInstanceOf(SignatureException.class);
+    }
+
+    @Test
+    void verify_WithTamperedPayload_ShouldThrow() {
+        // Given: the payload swapped for another token's, keeping the original signature
+        String[] user = jwtTokenUtil.generateToken("alice", 42L, List.of("USER"), "ACTIVE").split("\\.");
+        String[] admin = jwtTokenUtil.generateToken("mallory", 7L, List.of("ADMIN"), "ACTIVE").split("\\.");
+        String token = user[0] + "." + admin[1] + "." + user[2];
+
+        // When & Then
+        assertThatThrownBy(() -> jwtTokenUtil.verify(token)).isInstanceOf(SignatureException.class);
+    }
+
+    @Test
+    void verify_WithMalformedInput_ShouldThrow() {
+        assertThatThrownBy(() -> jwtTokenUtil.verify("not-a-token")).isInstanceOf(MalformedJwtException.class);
+        assertThatThrownBy(() -> jwtTokenUtil.verify("a.b.c")).isInstanceOf(JwtException.class);
+        assertThatThrownBy(() -> jwtTokenUtil.verify("")).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> jwtTokenUtil.verify(null)).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void verify_WithUnsignedToken_ShouldThrow() {
+        // Given
+        String token = Jwts.builder().subject("alice").expiration(inOneHour()).compact();
+
+        // When & Then
+        assertThatThrownBy(() -> jwtTokenUtil.verify(token)).isInstanceOf(JwtException.class);
+    }
+
+    @Test
+    void verify_WithoutOptionalClaims_ShouldLeaveThemEmpty() {
+        // Given: a token issued before user id, roles and status were added
+        String token = Jwts.builder().subject("alice").expiration(inOneHour()).signWith(key()).compact();
+
+        // When
+        VerifiedToken verified = jwtTokenUtil.verify(token);
+
+        // Then
+        assertThat(verified.subject()).isEqualTo("alice");
+        assertThat(verified.userId()).isNull();
+        assertThat(verified.roles()).isEmpty();
+        assertThat(verified.status()).isNull();
+        assertThat(verified.issuedAt()).isNull();
+    }
+
+    @Test
+    void verify_WithoutSubject_ShouldNotAuthenticate() {
+        // Given
+        String token = Jwts.builder().claim(JwtTokenUtil.ROLES_CLAIM, List.of("ADMIN"))
+            .expiration(inOneHour()).signWith(key()).compact();
+
+        // When
+        VerifiedToken verified = jwtTokenUtil.verify(token);
+
+        // Then
+        assertThat(verified.subject()).isNull();
+        assertThat(TokenPrincipal.authenticate(verified)).isNull();
+    }
+
+    @Test
+    void verify_WithClaimsInOtherShapes_ShouldNormalizeThem() {
+        // Given: user id as a string and roles as a delimited string
+        String token = Jwts.builder().subject("alice")
+            .claim(JwtTokenUtil.USER_ID_CLAIM, "42")
+            .claim(JwtTokenUtil.ROLES_CLAIM, "USER, ADMIN")
+            .expiration(inOneHour()).signWith(key()).compact();
+
+        // When
+        VerifiedToken verified = jwtTokenUtil.verify(token);
+
+        // Then
+        assertThat(verified.userId()).isEqualTo(42L);
+        assertThat(verified.roles()).containsExactly("USER", "ADMIN");
+    }
+
+    @Test
+    void verify_WithNonNumericUserId_ShouldThrow() {
+        // Given
+        String token = Jwts.builder().subject("alice").claim(JwtTokenUtil.USER_ID_CLAIM, "alice")
+            .expiration(inOneHour()).signWith(key()).compact();
+
+        // When & Then
+        assertThatThrownBy(() -> jwtTokenUtil.verify(token)).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private static SecretKey key() {
+        return Keys.hmacShaKeyFor(SECRET.getBytes());
+    }
+
+    private static Date inOneHour() {
+        return Date.from(Instant.now().plusSeconds(3600));
+    }
+}
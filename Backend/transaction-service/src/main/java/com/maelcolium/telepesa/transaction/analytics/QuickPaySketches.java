@@ -0,0 +1,114 @@
+package com.maelcolium.telepesa.transaction.analytics;
+
+import com.maelcolium.telepesa.models.enums.TransactionType;
+
+import java.io.ByteArrayOutputStream;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+
+/**
+ * One user's most frequent transfer recipients, billers and outgoing amounts, each a
+ * {@link SpaceSavingSketch} of the same capacity. Recipients and billers are keyed by the
+ * destination account of transfers and payments; amounts by their value in cents.
+ */
+public final class QuickPaySketches {
+
+    private static final int FORMAT_VERSION = 1;
+
+    private final SpaceSavingSketch recipients;
+    private final SpaceSavingSketch billers;
+    private final SpaceSavingSketch amounts;
+
+    public QuickPaySketches(int capacity) {
+        this.recipients = new SpaceSavingSketch(capacity);
+        this.billers = new SpaceSavingSketch(capacity);
+        this.amounts = new SpaceSavingSketch(capacity);
+    }
+
+    /**
+     * Whether a completed transaction of this type says anything about what the user pays next.
+     */
+    public static boolean counts(TransactionType type) {
+        return type == TransactionType.TRANSFER || type == TransactionType.PAYMENT;
+    }
+
+    public void record(TransactionType type, Long toAccountId, BigDecimal amount) {
+        if (!counts(type)) {
+            return;
+        }
+        if (toAccountId != null) {
+            (type == TransactionType.TRANSFER ? recipients : billers).offer(toAccountId);
+        }
+        if (amount != null && amount.signum() > 0) {
+            amounts.offer(toCents(amount));
+        }
+    }
+
+    public SpaceSavingSketch recipients() {
+        return recipients;
+    }
+
+    public SpaceSavingSketch billers() {
+        return billers;
+    }
+
+    public SpaceSavingSketch amounts() {
+        return amounts;
+    }
+
+    public boolean isEmpty() {
+        return recipients.isEmpty() && billers.isEmpty() && amounts.isEmpty();
+    }
+
+    public void merge(QuickPaySketches other) {
+        recipients.merge(other.recipients);
+        billers.merge(other.billers);
+        amounts.merge(other.amounts);
+    }
+
+    public QuickPaySketches copy() {
+        QuickPaySketches copy = new QuickPaySketches(recipients.capacity());
+        copy.merge(this);
+        return copy;
+    }
+
+    public byte[] toBytes() {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(64);
+        out.write(FORMAT_VERSION);
+        recipients.writeTo(out);
+        billers.writeTo(out);
+        amounts.writeTo(out);
+        return out.toByteArray();
+    }
+
+    /**
+     * Read sketches written by {@link #toBytes()}, keeping the most frequent keys if {@code capacity}
+     * is now smaller than when they were written.
+     */
+    public static QuickPaySketches fromBytes(byte[] data, int capacity) {
+        QuickPaySketches sketches = new QuickPaySketches(capacity);
+        ByteBuffer in = ByteBuffer.wrap(data);
+        try {
+            int version = in.get();
+            if (version != FORMAT_VERSION) {
+                throw new IllegalArgumentException("Unsupported quick-pay sketch format " + version);
+            }
+            sketches.recipients.readFrom(in);
+            sketches.billers.readFrom(in);
+            sketches.amounts.readFrom(in);
+        } catch (BufferUnderflowException e) {
+            throw new IllegalArgumentException("Truncated quick-pay sketch", e);
+        }
+        return sketches;
+    }
+
+    public static long toCents(BigDecimal amount) {
+        return amount.setScale(2, RoundingMode.HALF_UP).unscaledValue().longValue();
+    }
+
+    public static BigDecimal fromCents(long cents) {
+        return BigDecimal.valueOf(cents, 2);
+    }
+}
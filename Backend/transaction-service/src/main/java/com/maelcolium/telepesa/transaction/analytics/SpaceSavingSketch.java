@@ -0,0 +1,174 @@
+package com.maelcolium.telepesa.transaction.analytics;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Space-Saving top-k counter over {@code long} keys with a fixed number of counters.
+ *
+ * <p>A key that is already counted is incremented; a new key takes a free counter or, when all are
+ * in use, the counter of the least frequent key, inheriting its count as an error bound. Any key
+ * seen more than {@code total / capacity} times is guaranteed to be counted, and a counted key's
+ * true frequency lies between {@code count - error} and {@code count}.</p>
+ *
+ * <p>Counters are kept sorted by count, largest first, in three parallel arrays: the key to evict
+ * is always the last one, and the top {@code n} are the first {@code n}, so reads copy no more
+ * than they return. With the small capacities used here a linear scan beats hashing for lookups.
+ * Not thread-safe.</p>
+ */
+public final class SpaceSavingSketch {
+
+    private final long[] keys;
+    private final long[] counts;
+    private final long[] errors;
+    private int size;
+
+    public SpaceSavingSketch(int capacity) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("capacity must be positive");
+        }
+        this.keys = new long[capacity];
+        this.counts = new long[capacity];
+        this.errors = new long[capacity];
+    }
+
+    public record Entry(long key, long count, long error) {
+    }
+
+    public int capacity() {
+        return keys.length;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public void offer(long key) {
+        offer(key, 1, 0);
+    }
+
+    void offer(long key, long count, long error) {
+        int slot = indexOf(key);
+        if (slot >= 0) {
+            counts[slot] += count;
+            errors[slot] += error;
+        } else if (size < keys.length) {
+            slot = size++;
+            keys[slot] = key;
+            counts[slot] = count;
+            errors[slot] = error;
+        } else {
+            slot = size - 1;
+            long evicted = counts[slot];
+            keys[slot] = key;
+            counts[slot] = evicted + count;
+            errors[slot] = evicted + error;
+        }
+        while (slot > 0 && counts[slot - 1] < counts[slot]) {
+            swap(slot - 1, slot);
+            slot--;
+        }
+    }
+
+    /**
+     * Add another sketch's counters to this one, as if its stream had been offered here too.
+     */
+    public void merge(SpaceSavingSketch other) {
+        for (int i = 0; i < other.size; i++) {
+            offer(other.keys[i], other.counts[i], other.errors[i]);
+        }
+    }
+
+    /**
+     * @return up to {@code n} most frequent keys, most frequent first
+     */
+    public List<Entry> top(int n) {
+        int limit = Math.min(n, size);
+        List<Entry> top = new ArrayList<>(limit);
+        for (int i = 0; i < limit; i++) {
+            top.add(new Entry(keys[i], counts[i], errors[i]));
+        }
+        return top;
+    }
+
+    public SpaceSavingSketch copy() {
+        SpaceSavingSketch copy = new SpaceSavingSketch(keys.length);
+        copy.merge(this);
+        return copy;
+    }
+
+    /**
+     * Append the counters as unsigned varints: the number of counters, then key, count and error of each.
+     */
+    void writeTo(ByteArrayOutputStream out) {
+        writeVarLong(out, size);
+        for (int i = 0; i < size; i++) {
+            writeVarLong(out, keys[i]);
+            writeVarLong(out, counts[i]);
+            writeVarLong(out, errors[i]);
+        }
+    }
+
+    /**
+     * Read counters written by {@link #writeTo} into this empty sketch. They were written most
+     * frequent first, so if this sketch has a smaller capacity the least frequent are dropped.
+     */
+    void readFrom(ByteBuffer in) {
+        long entries = readVarLong(in);
+        for (long i = 0; i < entries; i++) {
+            long key = readVarLong(in);
+            long count = readVarLong(in);
+            long error = readVarLong(in);
+            if (size < keys.length) {
+                offer(key, count, error);
+            }
+        }
+    }
+
+    private static void writeVarLong(ByteArrayOutputStream out, long value) {
+        while ((value & ~0x7FL) != 0) {
+            out.write((int) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        out.write((int) value);
+    }
+
+    private static long readVarLong(ByteBuffer in) {
+        long value = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            byte b = in.get();
+            value |= (long) (b & 0x7F) << shift;
+            if (b >= 0) {
+                return value;
+            }
+        }
+        throw new IllegalArgumentException("Malformed varint");
+    }
+
+    private int indexOf(long key) {
+        for (int i = 0; i < size; i++) {
+            if (keys[i] == key) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private void swap(int a, int b) {
+        long key = keys[a];
+        keys[a] = keys[b];
+        keys[b] = key;
+        long count = counts[a];
+        counts[a] = counts[b];
+        counts[b] = count;
+        long error = errors[a];
+        errors[a] = errors[b];
+        errors[b] = error;
+    }
+}
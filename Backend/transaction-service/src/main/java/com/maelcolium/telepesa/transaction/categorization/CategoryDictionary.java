@@ -0,0 +1,64 @@
+package com.maelcolium.telepesa.transaction.categorization;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Collections;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.regex.Pattern;
+
+/**
+ * Merchant and keyword dictionary, one category per line:
+ *
+ * <pre>
+ * # comment
+ * utilities: kplc, kenya power, nairobi water
+ * airtime: safaricom airtime, airtel airtime
+ * </pre>
+ *
+ * <p>A keyword listed under more than one category keeps the first. The version is a hash of the
+ * content, so reloading an unchanged file is recognised as a no-op.</p>
+ */
+public record CategoryDictionary(Map<String, String> keywords, String version) {
+
+    private static final Pattern CATEGORY = Pattern.compile("[a-z0-9][a-z0-9_-]{0,63}");
+
+    public static CategoryDictionary parse(InputStream input) throws IOException {
+        byte[] content = input.readAllBytes();
+        Map<String, String> keywords = new LinkedHashMap<>();
+        String[] lines = new String(content, StandardCharsets.UTF_8).split("\\R");
+        for (int number = 1; number <= lines.length; number++) {
+            String line = lines[number - 1].strip();
+            if (line.isEmpty() || line.startsWith("#")) {
+                continue;
+            }
+            int colon = line.indexOf(':');
+            if (colon < 0) {
+                throw new IllegalArgumentException("Category dictionary line " + number + " has no ':'");
+            }
+            String category = line.substring(0, colon).strip().toLowerCase(Locale.ROOT);
+            if (!CATEGORY.matcher(category).matches()) {
+                throw new IllegalArgumentException("Category dictionary line " + number + " has an invalid category: " + category);
+            }
+            for (String keyword : line.substring(colon + 1).split(",")) {
+                if (!keyword.isBlank()) {
+                    keywords.putIfAbsent(keyword.strip(), category);
+                }
+            }
+        }
+        return new CategoryDictionary(Collections.unmodifiableMap(keywords), hash(content));
+    }
+
+    private static String hash(byte[] content) {
+        try {
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(content), 0, 8);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
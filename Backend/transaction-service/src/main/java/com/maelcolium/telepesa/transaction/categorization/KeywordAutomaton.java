@@ -0,0 +1,219 @@
+package com.maelcolium.telepesa.transaction.categorization;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.TreeSet;
+
+/**
+ * Aho-Corasick automaton over a keyword dictionary, compiled into a dense transition table so a
+ * description is categorized in one pass over its characters, however many keywords there are.
+ *
+ * <p>Text and keywords are normalised the same way: lower case, with every run of characters that
+ * are not letters or digits read as a single space, and a space on either side. Keywords therefore
+ * only match whole words, and "M-Pesa", "m pesa" and "M.PESA" are the same. When several keywords
+ * match, the longest wins, then the one that appears first.</p>
+ *
+ * <p>Instances are immutable and safe to share between threads.</p>
+ */
+public final class KeywordAutomaton {
+
+    private static final char SPACE = ' ';
+    private static final int ASCII = 128;
+
+    private final String[] categories;
+    // Transition table, states x symbols; symbol 0 is any character that appears in no keyword
+    private final int[] next;
+    private final int symbolCount;
+    private final int[] asciiSymbols;
+    private final char[] otherChars;
+    private final int[] otherSymbols;
+    // Longest keyword ending in each state, directly or through its failure chain; -1 if none
+    private final int[] matchCategory;
+    private final int[] matchLength;
+    private final int keywordCount;
+
+    private KeywordAutomaton(String[] categories, int[] next, int symbolCount, int[] asciiSymbols,
+                             char[] otherChars, int[] otherSymbols, int[] matchCategory, int[] matchLength,
+                             int keywordCount) {
+        this.categories = categories;
+        this.next = next;
+        this.symbolCount = symbolCount;
+        this.asciiSymbols = asciiSymbols;
+        this.otherChars = otherChars;
+        this.otherSymbols = otherSymbols;
+        this.matchCategory = matchCategory;
+        this.matchLength = matchLength;
+        this.keywordCount = keywordCount;
+    }
+
+    /**
+     * @param keywords category for each keyword, in dictionary order; a keyword that normalises to
+     *                 the same text as an earlier one is ignored
+     */
+    public static KeywordAutomaton compile(Map<String, String> keywords) {
+        Map<String, String> normalised = new LinkedHashMap<>();
+        keywords.forEach((keyword, category) -> {
+            String text = normalise(keyword);
+            if (text.length() > 2) {
+                normalised.putIfAbsent(text, category);
+            }
+        });
+
+        TreeSet<Character> alphabet = new TreeSet<>();
+        normalised.keySet().forEach(text -> text.chars().forEach(c -> alphabet.add((char) c)));
+        int[] asciiSymbols = new int[ASCII];
+        List<Character> others = new ArrayList<>();
+        int symbol = 1;
+        for (char c : alphabet) {
+            if (c < ASCII) {
+                asciiSymbols[c] = symbol++;
+            } else {
+                others.add(c);
+            }
+        }
+        char[] otherChars = new char[others.size()];
+        int[] otherSymbols = new int[others.size()];
+        for (int i = 0; i < others.size(); i++) {
+            otherChars[i] = others.get(i);
+            otherSymbols[i] = symbol++;
+        }
+        int symbolCount = symbol;
+
+        // Build the trie with one row of transitions per state
+        List<int[]> rows = new ArrayList<>();
+        List<Integer> depths = new ArrayList<>();
+        List<Integer> terminals = new ArrayList<>();
+        rows.add(new int[symbolCount]);
+        depths.add(0);
+        terminals.add(-1);
+        Map<String, Integer> categoryIndexes = new LinkedHashMap<>();
+        for (Map.Entry<String, String> entry : normalised.entrySet()) {
+            int state = 0;
+            for (char c : entry.getKey().toCharArray()) {
+                int s = symbolOf(c, asciiSymbols, otherChars, otherSymbols);
+                if (rows.get(state)[s] == 0) {
+                    rows.get(state)[s] = rows.size();
+                    rows.add(new int[symbolCount]);
+                    depths.add(depths.get(state) + 1);
+                    terminals.add(-1);
+                }
+                state = rows.get(state)[s];
+            }
+            terminals.set(state, categoryIndexes.computeIfAbsent(entry.getValue(), key -> categoryIndexes.size()));
+        }
+
+        // Breadth-first: resolve failure links into direct transitions and inherit the longest match
+        int states = rows.size();
+        int[] next = new int[states * symbolCount];
+        int[] fail = new int[states];
+        int[] matchCategory = new int[states];
+        int[] matchLength = new int[states];
+        Arrays.fill(matchCategory, -1);
+        Queue<Integer> queue = new ArrayDeque<>();
+        for (int s = 0; s < symbolCount; s++) {
+            int child = rows.get(0)[s];
+            next[s] = child;
+            if (child != 0) {
+                queue.add(child);
+            }
+        }
+        while (!queue.isEmpty()) {
+            int state = queue.poll();
+            if (terminals.get(state) >= 0) {
+                matchCategory[state] = terminals.get(state);
+                matchLength[state] = depths.get(state);
+            } else {
+                matchCategory[state] = matchCategory[fail[state]];
+                matchLength[state] = matchLength[fail[state]];
+            }
+            int[] row = rows.get(state);
+            for (int s = 0; s < symbolCount; s++) {
+                int child = row[s];
+                if (child != 0) {
+                    fail[child] = next[fail[state] * symbolCount + s];
+                    next[state * symbolCount + s] = child;
+                    queue.add(child);
+                } else {
+                    next[state * symbolCount + s] = next[fail[state] * symbolCount + s];
+                }
+            }
+        }
+
+        return new KeywordAutomaton(categoryIndexes.keySet().toArray(new String[0]), next, symbolCount,
+                asciiSymbols, otherChars, otherSymbols, matchCategory, matchLength, normalised.size());
+    }
+
+    /**
+     * @return the category of the best matching keyword, or {@code null} if none matches
+     */
+    public String match(CharSequence text) {
+        if (text == null || keywordCount == 0) {
+            return null;
+        }
+        int state = step(0, SPACE);
+        boolean lastWasSpace = true;
+        int best = -1;
+        int bestLength = 0;
+        for (int i = 0, length = text.length(); i <= length; i++) {
+            char c = i < length ? Character.toLowerCase(text.charAt(i)) : SPACE;
+            if (!Character.isLetterOrDigit(c)) {
+                if (lastWasSpace) {
+                    continue;
+                }
+                c = SPACE;
+            }
+            lastWasSpace = c == SPACE;
+            state = step(state, c);
+            if (matchLength[state] > bestLength) {
+                best = matchCategory[state];
+                bestLength = matchLength[state];
+            }
+        }
+        return best >= 0 ? categories[best] : null;
+    }
+
+    public int keywordCount() {
+        return keywordCount;
+    }
+
+    public List<String> categories() {
+        return List.of(categories);
+    }
+
+    private int step(int state, char c) {
+        return next[state * symbolCount + symbolOf(c, asciiSymbols, otherChars, otherSymbols)];
+    }
+
+    private static int symbolOf(char c, int[] asciiSymbols, char[] otherChars, int[] otherSymbols) {
+        if (c < ASCII) {
+            return asciiSymbols[c];
+        }
+        int index = Arrays.binarySearch(otherChars, c);
+        return index >= 0 ? otherSymbols[index] : 0;
+    }
+
+    /**
+     * Lower case, non-alphanumeric runs as one space, padded with a space on each side; blank
+     * input gives a single space.
+     */
+    static String normalise(String keyword) {
+        StringBuilder text = new StringBuilder(keyword.length() + 2).append(SPACE);
+        for (int i = 0; i < keyword.length(); i++) {
+            char c = Character.toLowerCase(keyword.charAt(i));
+            if (Character.isLetterOrDigit(c)) {
+                text.append(c);
+            } else if (text.charAt(text.length() - 1) != SPACE) {
+                text.append(SPACE);
+            }
+        }
+        if (text.charAt(text.length() - 1) != SPACE) {
+            text.append(SPACE);
+        }
+        return text.toString();
+    }
+}
@@ -0,0 +1,33 @@
+package com.maelcolium.telepesa.transaction.client;
+
+import org.springframework.cloud.openfeign.FeignClient;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Account balances, as held by account-service, for ledger reconciliation.
+ */
+@FeignClient(name = "account-service")
+public interface AccountServiceClient {
+
+    @GetMapping("/api/v1/accounts/internal/id-range")
+    AccountIdRange getAccountIdRange();
+
+    /**
+     * Accounts with {@code afterId < id <= toId}, in id order, at most {@code limit} of them.
+     */
+    @GetMapping("/api/v1/accounts/internal/balances")
+    List<AccountBalance> getAccountBalances(@RequestParam("afterId") long afterId,
+                                            @RequestParam("toId") long toId,
+                                            @RequestParam("limit") int limit);
+
+    record AccountIdRange(Long minId, Long maxId) {
+    }
+
+    record AccountBalance(Long id, BigDecimal balance, String status, LocalDateTime updatedAt) {
+    }
+}
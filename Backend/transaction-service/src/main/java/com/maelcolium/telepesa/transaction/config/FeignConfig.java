@@ -0,0 +1,27 @@
+package com.maelcolium.telepesa.transaction.config;
+
+import com.maelcolium.telepesa.models.auth.ServiceAuthenticationService;
+import feign.RequestInterceptor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+public class FeignConfig {
+
+    private static final String[] PERMISSIONS = {"ACCOUNT_READ"};
+
+    /**
+     * Calls to other services' internal endpoints carry a service token; a fresh one per call,
+     * since a long reconciliation run outlives any single token
+     */
+    @Bean
+    public RequestInterceptor serviceTokenInterceptor(ServiceAuthenticationService serviceAuthService,
+                                                      @Value("${spring.application.name:transaction-service}") String serviceName) {
+        return template -> {
+            if (template.url().contains("/internal")) {
+                template.header("Authorization", "Bearer " + serviceAuthService.generateServiceToken(serviceName, PERMISSIONS));
+            }
+        };
+    }
+}
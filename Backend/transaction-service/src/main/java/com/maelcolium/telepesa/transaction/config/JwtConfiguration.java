@@ -1,6 +1,7 @@
 package com.maelcolium.telepesa.transaction.config;
 
 import com.maelcolium.telepesa.security.JwtTokenUtil;
+import com.maelcolium.telepesa.security.TokenRevocations;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
@@ -18,4 +19,12 @@ public class JwtConfiguration {
             @Value("${app.jwt.expiration:86400}") int jwtExpiration) {
         return new JwtTokenUtil(jwtSecret, jwtExpiration);
     }
+
+    /**
+     * Subjects whose tokens are revoked, kept current by {@link TokenRevocationListenerConfig}
+     */
+    @Bean
+    public TokenRevocations tokenRevocations(@Value("${app.jwt.expiration:86400}") long jwtExpiration) {
+        return new TokenRevocations(jwtExpiration);
+    }
 }
@@ -0,0 +1,43 @@
+package com.maelcolium.telepesa.transaction.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+
+@Data
+@Component
+@ConfigurationProperties(prefix = "app.transactions.reconciliation")
+public class ReconciliationProperties {
+
+    private String cron = "0 0 3 * * *";
+
+    private int threads = 4;
+
+    /**
+     * Account ids per chunk; a chunk is the unit that is claimed, checkpointed and resumed.
+     */
+    private long chunkSize = 100_000;
+
+    /**
+     * Accounts fetched from account-service per page; one page is committed at a time.
+     */
+    private int pageSize = 500;
+
+    /**
+     * Largest difference between the two balances that is not reported.
+     */
+    private BigDecimal tolerance = BigDecimal.ZERO;
+
+    /**
+     * How long one start may keep running; what is left is picked up by the next start.
+     */
+    private Duration maxDuration = Duration.ofHours(3);
+
+    /**
+     * A running chunk whose owner has not checkpointed for this long is taken over by another worker.
+     */
+    private Duration staleAfter = Duration.ofMinutes(10);
+}
@@ -1,31 +1,38 @@
 package com.maelcolium.telepesa.transaction.config;
 
+import com.maelcolium.telepesa.transaction.security.GatewayIdentityFilter;
 import com.maelcolium.telepesa.transaction.security.JwtAuthenticationFilter;
 import com.maelcolium.telepesa.transaction.security.ServiceAuthenticationFilter;
+import com.maelcolium.telepesa.security.GatewayIdentity;
 import com.maelcolium.telepesa.security.JwtTokenUtil;
+import com.maelcolium.telepesa.security.TokenRevocations;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.security.config.annotation.method.configuration.EnableMethodSecurity;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
 import org.springframework.security.config.http.SessionCreationPolicy;
-import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.web.SecurityFilterChain;
 import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
 
 @Configuration
 @EnableWebSecurity
+@EnableMethodSecurity(prePostEnabled = true)
 public class SecurityConfig {
 
     @Autowired
     private JwtTokenUtil jwtTokenUtil;
 
     @Autowired
-    private UserDetailsService userDetailsService;
+    private TokenRevocations tokenRevocations;
 
     @Autowired
     private ServiceAuthenticationFilter serviceAuthenticationFilter;
 
+    @Autowired
+    private GatewayIdentity gatewayIdentity;
+
     @Bean
     public SecurityFilterChain filterChain(HttpSecurity http) throws Exception {
         http
@@ -42,9 +49,12 @@ public class SecurityConfig {
         http.addFilterBefore(serviceAuthenticationFilter, UsernamePasswordAuthenticationFilter.class);
         
         // Add JWT filter for user authentication
-        http.addFilterBefore(new JwtAuthenticationFilter(jwtTokenUtil, userDetailsService), 
+        http.addFilterBefore(new JwtAuthenticationFilter(jwtTokenUtil, tokenRevocations), 
                            UsernamePasswordAuthenticationFilter.class);
 
+        // Verify identity headers forwarded by the gateway against the token, or in place of one
+        http.addFilterAfter(new GatewayIdentityFilter(gatewayIdentity), JwtAuthenticationFilter.class);
+
         return http.build();
     }
 }
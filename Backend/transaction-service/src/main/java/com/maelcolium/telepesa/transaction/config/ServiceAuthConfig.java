@@ -0,0 +1,17 @@
+package com.maelcolium.telepesa.transaction.config;
+
+import com.maelcolium.telepesa.models.auth.ServiceAuthenticationService;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Service tokens, both checked on the internal endpoints and sent to other services' ones
+ */
+@Configuration
+public class ServiceAuthConfig {
+
+    @Bean
+    public ServiceAuthenticationService serviceAuthenticationService() {
+        return new ServiceAuthenticationService();
+    }
+}
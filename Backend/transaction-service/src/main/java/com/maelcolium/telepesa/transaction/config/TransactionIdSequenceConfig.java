@@ -0,0 +1,49 @@
+package com.maelcolium.telepesa.transaction.config;
+
+import com.maelcolium.telepesa.transaction.model.Transaction;
+import jakarta.annotation.PostConstruct;
+import jakarta.persistence.EntityManagerFactory;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.dialect.Dialect;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+/**
+ * Keeps the pooled transaction id sequence ahead of existing rows.
+ *
+ * <p>Transaction ids used to come from an IDENTITY column. On a database that already holds
+ * transactions, the new {@code transactions_seq} starts at 1, so it is moved past the highest
+ * existing id once at startup. The sequence is only ever moved forward, so instances restarting
+ * while others are inserting cannot hand out a block twice.</p>
+ */
+@Configuration
+@RequiredArgsConstructor
+@Slf4j
+public class TransactionIdSequenceConfig {
+
+    static final String SEQUENCE_NAME = "transactions_seq";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final EntityManagerFactory entityManagerFactory;
+
+    @PostConstruct
+    public void alignSequence() {
+        Long maxId = jdbcTemplate.queryForObject("SELECT MAX(id) FROM transactions", Long.class);
+        if (maxId == null) {
+            return;
+        }
+
+        Dialect dialect = entityManagerFactory.unwrap(SessionFactoryImplementor.class).getJdbcServices().getDialect();
+        Long next = jdbcTemplate.queryForObject(
+                dialect.getSequenceSupport().getSequenceNextValString(SEQUENCE_NAME), Long.class);
+
+        // The pooled optimizer hands out the block (next - allocationSize, next]
+        if (next != null && next - Transaction.ID_ALLOCATION_SIZE < maxId) {
+            long restartWith = maxId + Transaction.ID_ALLOCATION_SIZE;
+            jdbcTemplate.execute("ALTER SEQUENCE " + SEQUENCE_NAME + " RESTART WITH " + restartWith);
+            log.info("Moved {} past existing transaction id {} (restart with {})", SEQUENCE_NAME, maxId, restartWith);
+        }
+    }
+}
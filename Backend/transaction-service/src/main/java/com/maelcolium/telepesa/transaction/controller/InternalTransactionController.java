@@ -1,6 +1,8 @@
 package com.maelcolium.telepesa.transaction.controller;
 
+import com.maelcolium.telepesa.transaction.dto.BatchCreateTransactionRequest;
 import com.maelcolium.telepesa.transaction.dto.CreateTransactionRequest;
+import com.maelcolium.telepesa.transaction.dto.TransactionDto;
 import com.maelcolium.telepesa.transaction.dto.TransactionResponse;
 import com.maelcolium.telepesa.transaction.service.TransactionService;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -9,6 +11,7 @@ import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
 
 import jakarta.validation.Valid;
+import java.util.List;
 
 @RestController
 @RequestMapping("/api/v1/transactions/internal")
@@ -21,8 +24,24 @@ public class InternalTransactionController {
     @PreAuthorize("hasAuthority('SERVICE_TRANSACTION_WRITE')")
     public ResponseEntity<TransactionResponse> createTransaction(@Valid @RequestBody CreateTransactionRequest request) {
         var transactionDto = transactionService.createTransaction(request);
-        // Convert TransactionDto to TransactionResponse
-        TransactionResponse response = TransactionResponse.builder()
+        return ResponseEntity.ok(toResponse(transactionDto));
+    }
+
+    /**
+     * Create several transaction records in one call. Records may be created directly in their final
+     * status, which saves producers the follow-up status update per record.
+     */
+    @PostMapping("/batch")
+    @PreAuthorize("hasAuthority('SERVICE_TRANSACTION_WRITE')")
+    public ResponseEntity<List<TransactionResponse>> createTransactions(@Valid @RequestBody BatchCreateTransactionRequest request) {
+        List<TransactionResponse> responses = transactionService.createTransactions(request.getTransactions()).stream()
+                .map(this::toResponse)
+                .toList();
+        return ResponseEntity.ok(responses);
+    }
+
+    private TransactionResponse toResponse(TransactionDto transactionDto) {
+        return TransactionResponse.builder()
                 .id(transactionDto.getId())
                 .transactionId(transactionDto.getTransactionId())
                 .fromAccountId(transactionDto.getFromAccountId())
@@ -39,7 +58,6 @@ public class InternalTransactionController {
                 .feeAmount(transactionDto.getFeeAmount())
                 .totalAmount(transactionDto.getTotalAmount())
                 .build();
-        return ResponseEntity.ok(response);
     }
 
     @GetMapping("/health")
@@ -0,0 +1,62 @@
+package com.maelcolium.telepesa.transaction.controller;
+
+import com.maelcolium.telepesa.transaction.dto.ReconciliationDiscrepancyDto;
+import com.maelcolium.telepesa.transaction.dto.ReconciliationRunDto;
+import com.maelcolium.telepesa.transaction.service.LedgerReconciliationService;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+/**
+ * Runs of the ledger reconciliation against account-service balances and the discrepancies they found.
+ */
+@RestController
+@RequestMapping("/api/v1/transactions/reconciliation")
+public class LedgerReconciliationController {
+
+    private final LedgerReconciliationService reconciliationService;
+
+    public LedgerReconciliationController(LedgerReconciliationService reconciliationService) {
+        this.reconciliationService = reconciliationService;
+    }
+
+    /**
+     * Resume the unfinished run, or start a new one, in the background.
+     */
+    @PostMapping("/runs")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<Void> start() {
+        return ResponseEntity.status(reconciliationService.start() ? HttpStatus.ACCEPTED : HttpStatus.CONFLICT).build();
+    }
+
+    @GetMapping("/runs")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<Page<ReconciliationRunDto>> getRuns(
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "20") int size) {
+        return ResponseEntity.ok(reconciliationService.getRuns(PageRequest.of(page, size)));
+    }
+
+    @GetMapping("/runs/{runId}")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<ReconciliationRunDto> getRun(@PathVariable Long runId) {
+        return ResponseEntity.ok(reconciliationService.getRun(runId));
+    }
+
+    @GetMapping("/runs/{runId}/discrepancies")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<Page<ReconciliationDiscrepancyDto>> getDiscrepancies(
+            @PathVariable Long runId,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "50") int size) {
+        return ResponseEntity.ok(reconciliationService.getDiscrepancies(runId, PageRequest.of(page, size)));
+    }
+}
@@ -0,0 +1,61 @@
+package com.maelcolium.telepesa.transaction.controller;
+
+import com.maelcolium.telepesa.transaction.dto.TransactionArchiveDto;
+import com.maelcolium.telepesa.transaction.service.TransactionArchiveService;
+import com.maelcolium.telepesa.transaction.service.TransactionExportWriter;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.util.List;
+
+/**
+ * Read-only access to months that have been moved out of the database. An archive holds every
+ * account's transactions, so it is for administrators only.
+ */
+@RestController
+@RequestMapping("/api/v1/transactions/archive")
+public class TransactionArchiveController {
+
+    private final TransactionArchiveService archiveService;
+
+    public TransactionArchiveController(TransactionArchiveService archiveService) {
+        this.archiveService = archiveService;
+    }
+
+    @GetMapping
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<List<TransactionArchiveDto>> getArchives() {
+        return ResponseEntity.ok(archiveService.getArchives());
+    }
+
+    /**
+     * Stream an archived month ({@code yyyy-MM}), optionally limited to one account.
+     */
+    @GetMapping("/{period}")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<StreamingResponseBody> exportArchive(
+            @PathVariable String period,
+            @RequestParam(required = false) Long accountId,
+            @RequestParam(defaultValue = "NDJSON") TransactionExportWriter.Format format) {
+        // Resolve the archive up front so an unknown period is a 404 rather than a broken stream
+        archiveService.getArchive(period);
+        StreamingResponseBody body = output -> archiveService.exportArchive(period, accountId, format, output);
+        String fileName = "transactions-" + period + (accountId != null ? "-account-" + accountId : "") + "." + format.getExtension();
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(format.getContentType()))
+                .header(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment()
+                        .filename(fileName)
+                        .build()
+                        .toString())
+                .body(body);
+    }
+}
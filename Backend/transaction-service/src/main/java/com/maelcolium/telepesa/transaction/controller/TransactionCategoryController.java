@@ -0,0 +1,48 @@
+package com.maelcolium.telepesa.transaction.controller;
+
+import com.maelcolium.telepesa.transaction.dto.CategoryDictionaryDto;
+import com.maelcolium.telepesa.transaction.service.TransactionCategoryService;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+/**
+ * Operations on the category dictionary and on the categories already stored.
+ */
+@RestController
+@RequestMapping("/api/v1/transactions/categories")
+public class TransactionCategoryController {
+
+    private final TransactionCategoryService categoryService;
+
+    public TransactionCategoryController(TransactionCategoryService categoryService) {
+        this.categoryService = categoryService;
+    }
+
+    @GetMapping("/dictionary")
+    public ResponseEntity<CategoryDictionaryDto> getDictionary() {
+        return ResponseEntity.ok(categoryService.getDictionary());
+    }
+
+    @PostMapping("/dictionary/reload")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<CategoryDictionaryDto> reloadDictionary() {
+        categoryService.reloadDictionary();
+        return ResponseEntity.ok(categoryService.getDictionary());
+    }
+
+    /**
+     * Categorize stored transactions in the background; with {@code all=true}, re-tag every one
+     * with the current dictionary.
+     */
+    @PostMapping("/backfill")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<Void> backfill(@RequestParam(defaultValue = "false") boolean all) {
+        return ResponseEntity.status(categoryService.backfill(all) ? HttpStatus.ACCEPTED : HttpStatus.CONFLICT).build();
+    }
+}
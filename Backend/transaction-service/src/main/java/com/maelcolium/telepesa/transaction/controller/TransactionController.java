@@ -1,17 +1,25 @@
 package com.maelcolium.telepesa.transaction.controller;
 
 import com.maelcolium.telepesa.transaction.dto.CreateTransactionRequest;
+import com.maelcolium.telepesa.transaction.dto.QuickPaySuggestionsDto;
+import com.maelcolium.telepesa.transaction.dto.SpendingInsightsDto;
 import com.maelcolium.telepesa.transaction.dto.TransactionDto;
+import com.maelcolium.telepesa.transaction.service.TransactionExportWriter;
 import com.maelcolium.telepesa.transaction.service.TransactionService;
 import com.maelcolium.telepesa.models.enums.TransactionStatus;
 import com.maelcolium.telepesa.models.enums.TransactionType;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import jakarta.validation.Valid;
 import java.math.BigDecimal;
@@ -110,12 +118,51 @@ public class TransactionController {
         return ResponseEntity.ok(transaction);
     }
 
+    @GetMapping("/review")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<Page<TransactionDto>> getTransactionsHeldForReview(
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "20") int size) {
+        return ResponseEntity.ok(transactionService.getTransactionsHeldForReview(PageRequest.of(page, size)));
+    }
+
+    @PutMapping("/{id}/review/release")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<TransactionDto> releaseReviewHold(@PathVariable Long id) {
+        return ResponseEntity.ok(transactionService.releaseReviewHold(id));
+    }
+
     @GetMapping("/account/{accountId}/history")
     public ResponseEntity<List<TransactionDto>> getAccountTransactionHistory(@PathVariable Long accountId) {
         List<TransactionDto> transactions = transactionService.getAccountTransactionHistory(accountId);
         return ResponseEntity.ok(transactions);
     }
 
+    /**
+     * Stream the online history of an account as CSV or NDJSON without loading it into memory.
+     * Months that have been archived are served by {@link TransactionArchiveController}.
+     */
+    @GetMapping("/account/{accountId}/history/export")
+    public ResponseEntity<StreamingResponseBody> exportAccountTransactionHistory(
+            @PathVariable Long accountId,
+            @RequestParam(defaultValue = "CSV") TransactionExportWriter.Format format) {
+        StreamingResponseBody body = output -> transactionService.exportAccountTransactionHistory(accountId, format, output);
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(format.getContentType()))
+                .header(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment()
+                        .filename("account-" + accountId + "-transactions." + format.getExtension())
+                        .build()
+                        .toString())
+                .body(body);
+    }
+
+    @GetMapping("/account/{accountId}/recent")
+    public ResponseEntity<List<TransactionDto>> getMiniStatement(
+            @PathVariable Long accountId,
+            @RequestParam(defaultValue = "10") int limit) {
+        return ResponseEntity.ok(transactionService.getMiniStatement(accountId, limit));
+    }
+
     @GetMapping("/account/{accountId}/balance")
     public ResponseEntity<BigDecimal> getAccountBalance(@PathVariable Long accountId) {
         BigDecimal balance = transactionService.getAccountBalance(accountId);
@@ -138,6 +185,27 @@ public class TransactionController {
         return ResponseEntity.ok(total);
     }
 
+    /**
+     * Monthly totals, per-type totals and trends for the last {@code months} calendar months,
+     * answered from the daily rollups.
+     */
+    @GetMapping("/account/{accountId}/insights")
+    public ResponseEntity<SpendingInsightsDto> getSpendingInsights(
+            @PathVariable Long accountId,
+            @RequestParam(defaultValue = "6") int months) {
+        return ResponseEntity.ok(transactionService.getSpendingInsights(accountId, months));
+    }
+
+    /**
+     * The recipients, billers and amounts the user pays most often, answered from memory.
+     */
+    @GetMapping("/user/{userId}/quick-pay")
+    public ResponseEntity<QuickPaySuggestionsDto> getQuickPaySuggestions(
+            @PathVariable Long userId,
+            @RequestParam(defaultValue = "5") int limit) {
+        return ResponseEntity.ok(transactionService.getQuickPaySuggestions(userId, limit));
+    }
+
     @GetMapping("/user/{userId}/count")
     public ResponseEntity<Long> getTransactionCountByUserIdAndStatus(
             @PathVariable Long userId,
@@ -0,0 +1,43 @@
+package com.maelcolium.telepesa.transaction.controller;
+
+import com.maelcolium.telepesa.transaction.dto.TransactionSearchRequest;
+import com.maelcolium.telepesa.transaction.dto.TransactionSearchResultDto;
+import com.maelcolium.telepesa.transaction.service.TransactionSearchService;
+import jakarta.validation.Valid;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.validation.annotation.Validated;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+/**
+ * Full-text and faceted search over a user's transactions, answered from the search index.
+ */
+@RestController
+@RequestMapping("/api/v1/transactions/search")
+@Validated
+public class TransactionSearchController {
+
+    private final TransactionSearchService searchService;
+
+    public TransactionSearchController(TransactionSearchService searchService) {
+        this.searchService = searchService;
+    }
+
+    @GetMapping("/user/{userId}")
+    public ResponseEntity<TransactionSearchResultDto> search(
+            @PathVariable Long userId,
+            @Valid TransactionSearchRequest request) {
+        return ResponseEntity.ok(searchService.search(userId, request));
+    }
+
+    @PostMapping("/rebuild")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<Void> rebuild() {
+        return ResponseEntity.status(searchService.rebuild() ? HttpStatus.ACCEPTED : HttpStatus.CONFLICT).build();
+    }
+}
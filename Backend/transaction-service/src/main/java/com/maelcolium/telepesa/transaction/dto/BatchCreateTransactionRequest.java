@@ -0,0 +1,24 @@
+package com.maelcolium.telepesa.transaction.dto;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BatchCreateTransactionRequest {
+
+    public static final int MAX_BATCH_SIZE = 500;
+
+    @NotEmpty(message = "At least one transaction is required")
+    @Size(max = MAX_BATCH_SIZE, message = "A batch cannot contain more than " + MAX_BATCH_SIZE + " transactions")
+    private List<@Valid BatchTransactionRecord> transactions;
+}
@@ -0,0 +1,22 @@
+package com.maelcolium.telepesa.transaction.dto;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.maelcolium.telepesa.models.enums.TransactionStatus;
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.NoArgsConstructor;
+import lombok.experimental.SuperBuilder;
+
+/**
+ * A transaction record created by another service through the internal batch endpoint, which
+ * may be created directly in its final status.
+ */
+@Data
+@SuperBuilder
+@NoArgsConstructor
+@EqualsAndHashCode(callSuper = true)
+public class BatchTransactionRecord extends CreateTransactionRequest {
+
+    @JsonProperty("status")
+    private TransactionStatus initialStatus; // Optional, defaults to PENDING
+}
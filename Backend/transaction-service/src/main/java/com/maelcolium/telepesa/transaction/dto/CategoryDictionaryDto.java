@@ -0,0 +1,26 @@
+package com.maelcolium.telepesa.transaction.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * The category dictionary currently used to categorize new transactions.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class CategoryDictionaryDto {
+
+    private String location;
+    private String version;
+    private int keywordCount;
+    private List<String> categories;
+    private LocalDateTime loadedAt;
+    private boolean backfilling;
+}
@@ -0,0 +1,8 @@
+package com.maelcolium.telepesa.transaction.dto;
+
+import java.math.BigDecimal;
+
+/**
+ * Completed debits of one account in one category, as aggregated by the database.
+ */
+public record CategoryTotalRow(String category, Long count, BigDecimal amount) {}
@@ -6,14 +6,14 @@ import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
 import jakarta.validation.constraints.Size;
 import lombok.AllArgsConstructor;
-import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import lombok.experimental.SuperBuilder;
 
 import java.math.BigDecimal;
 
 @Data
-@Builder
+@SuperBuilder
 @NoArgsConstructor
 @AllArgsConstructor
 public class CreateTransactionRequest {
@@ -37,4 +37,7 @@ public class CreateTransactionRequest {
     private Long userId;
 
     private BigDecimal feeAmount;
-} 
\ No newline at end of file
+
+    // No status: new transactions start PENDING, and a "status" sent by a client is ignored like
+    // any other unknown field. Only internal batch records may carry another initial status.
+}
@@ -0,0 +1,13 @@
+package com.maelcolium.telepesa.transaction.dto;
+
+import java.math.BigDecimal;
+
+/**
+ * All-time completed credits and debits of one account, summed from the daily rollups.
+ */
+public record LedgerBalanceRow(Long accountId, BigDecimal credits, BigDecimal debits) {
+
+    public BigDecimal balance() {
+        return credits.subtract(debits);
+    }
+}
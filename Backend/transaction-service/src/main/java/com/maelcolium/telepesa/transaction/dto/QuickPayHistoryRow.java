@@ -0,0 +1,10 @@
+package com.maelcolium.telepesa.transaction.dto;
+
+import com.maelcolium.telepesa.models.enums.TransactionType;
+
+import java.math.BigDecimal;
+
+/**
+ * The parts of a completed transaction that quick-pay suggestions are counted from.
+ */
+public record QuickPayHistoryRow(TransactionType transactionType, Long toAccountId, BigDecimal amount) {}
@@ -0,0 +1,45 @@
+package com.maelcolium.telepesa.transaction.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+/**
+ * A user's most frequent recipients, billers and amounts, most frequent first. Counts are
+ * estimates that may exceed the true count by at most {@code maxOvercount}.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class QuickPaySuggestionsDto {
+
+    private Long userId;
+    private List<AccountSuggestion> recipients;
+    private List<AccountSuggestion> billers;
+    private List<AmountSuggestion> amounts;
+
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class AccountSuggestion {
+        private Long accountId;
+        private long count;
+        private long maxOvercount;
+    }
+
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class AmountSuggestion {
+        private BigDecimal amount;
+        private long count;
+        private long maxOvercount;
+    }
+}
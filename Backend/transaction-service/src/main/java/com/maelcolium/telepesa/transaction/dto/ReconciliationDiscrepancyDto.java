@@ -0,0 +1,23 @@
+package com.maelcolium.telepesa.transaction.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ReconciliationDiscrepancyDto {
+
+    private Long accountId;
+    private String type;
+    private BigDecimal accountBalance;
+    private BigDecimal ledgerBalance;
+    private BigDecimal difference;
+    private LocalDateTime detectedAt;
+}
@@ -0,0 +1,6 @@
+package com.maelcolium.telepesa.transaction.dto;
+
+/**
+ * Chunk totals of one reconciliation run, as aggregated by the database.
+ */
+public record ReconciliationProgressRow(Long chunks, Long completedChunks, Long accountsChecked, Long discrepancies) {}
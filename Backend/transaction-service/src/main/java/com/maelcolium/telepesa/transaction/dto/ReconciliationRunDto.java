@@ -0,0 +1,29 @@
+package com.maelcolium.telepesa.transaction.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ReconciliationRunDto {
+
+    private Long id;
+    private String status;
+    private LocalDateTime startedAt;
+    private LocalDateTime finishedAt;
+    private Long minAccountId;
+    private Long maxAccountId;
+    private BigDecimal tolerance;
+    private Integer totalChunks;
+    private Long completedChunks;
+    private Long accountsChecked;
+    private Long discrepancies;
+    private String lastError;
+}
@@ -0,0 +1,76 @@
+package com.maelcolium.telepesa.transaction.dto;
+
+import com.maelcolium.telepesa.models.enums.TransactionType;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Spending summary for one account over the last few calendar months, current month included.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class SpendingInsightsDto {
+
+    private Long accountId;
+    private LocalDate from;
+    private LocalDate to;
+    private BigDecimal totalDebits;
+    private BigDecimal totalCredits;
+    private BigDecimal netFlow;
+    private BigDecimal averageMonthlyDebits;
+    /**
+     * Change in debits from the previous month to the current one, in percent; {@code null} when
+     * nothing was spent in the previous month.
+     */
+    private BigDecimal debitChangePercent;
+    private TransactionType topDebitType;
+    private String topDebitCategory;
+    private List<MonthlyTotal> monthly;
+    private List<TypeTotal> byType;
+    /**
+     * Completed debits per spending category, largest first; covers the months still online.
+     */
+    private List<CategoryTotal> byCategory;
+
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class MonthlyTotal {
+        private String month;
+        private long debitCount;
+        private BigDecimal debitAmount;
+        private long creditCount;
+        private BigDecimal creditAmount;
+    }
+
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class TypeTotal {
+        private TransactionType transactionType;
+        private long debitCount;
+        private BigDecimal debitAmount;
+        private long creditCount;
+        private BigDecimal creditAmount;
+    }
+
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class CategoryTotal {
+        private String category;
+        private long debitCount;
+        private BigDecimal debitAmount;
+    }
+}
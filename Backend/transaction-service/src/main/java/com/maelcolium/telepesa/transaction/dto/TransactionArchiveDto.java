@@ -0,0 +1,23 @@
+package com.maelcolium.telepesa.transaction.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class TransactionArchiveDto {
+
+    private String period;
+    private LocalDateTime periodStart;
+    private LocalDateTime periodEnd;
+    private Long rowCount;
+    private Long sizeBytes;
+    private String checksum;
+    private LocalDateTime archivedAt;
+}
@@ -0,0 +1,6 @@
+package com.maelcolium.telepesa.transaction.dto;
+
+/**
+ * The fields categorization reads, so a backfill never loads whole transactions.
+ */
+public record TransactionCategoryRow(Long id, String description, String category) {}
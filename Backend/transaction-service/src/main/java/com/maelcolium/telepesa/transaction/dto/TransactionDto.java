@@ -31,4 +31,6 @@ public class TransactionDto {
     private BigDecimal totalAmount;
     private LocalDateTime createdAt;
     private LocalDateTime updatedAt;
+    private String category;
+    private boolean heldForReview;
 } 
\ No newline at end of file
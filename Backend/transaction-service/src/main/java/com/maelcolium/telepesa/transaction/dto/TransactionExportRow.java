@@ -0,0 +1,26 @@
+package com.maelcolium.telepesa.transaction.dto;
+
+import com.maelcolium.telepesa.models.enums.TransactionStatus;
+import com.maelcolium.telepesa.models.enums.TransactionType;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Flat projection of a transaction for history exports; read straight from the query result,
+ * so exported rows never enter the persistence context.
+ */
+public record TransactionExportRow(
+    Long id,
+    String transactionId,
+    Long fromAccountId,
+    Long toAccountId,
+    BigDecimal amount,
+    BigDecimal feeAmount,
+    BigDecimal totalAmount,
+    TransactionType transactionType,
+    TransactionStatus status,
+    String description,
+    String referenceNumber,
+    LocalDateTime processedAt
+) {}
@@ -0,0 +1,58 @@
+package com.maelcolium.telepesa.transaction.dto;
+
+import com.maelcolium.telepesa.models.enums.TransactionStatus;
+import com.maelcolium.telepesa.models.enums.TransactionType;
+import jakarta.validation.constraints.DecimalMin;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Set;
+
+/**
+ * Query parameters for searching one user's transactions. Every filter is optional.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class TransactionSearchRequest {
+
+    /**
+     * Free text matched against description, reference, transaction ID and counterparty account.
+     */
+    @Size(max = 200, message = "Search text must not exceed 200 characters")
+    private String q;
+
+    private Set<TransactionType> types;
+
+    private Set<TransactionStatus> statuses;
+
+    @DecimalMin(value = "0.00", message = "Minimum amount must not be negative")
+    private BigDecimal minAmount;
+
+    @DecimalMin(value = "0.00", message = "Maximum amount must not be negative")
+    private BigDecimal maxAmount;
+
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+    private LocalDateTime from;
+
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+    private LocalDateTime to;
+
+    @Builder.Default
+    @Min(value = 0, message = "Page must not be negative")
+    private int page = 0;
+
+    @Builder.Default
+    @Min(value = 1, message = "Size must be at least 1")
+    @Max(value = 100, message = "Size must not exceed 100")
+    private int size = 20;
+}
@@ -0,0 +1,47 @@
+package com.maelcolium.telepesa.transaction.dto;
+
+import com.maelcolium.telepesa.models.enums.TransactionStatus;
+import com.maelcolium.telepesa.models.enums.TransactionType;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * One page of search hits plus facet counts over every match, not just the page.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class TransactionSearchResultDto {
+
+    private List<TransactionDto> content;
+    private long totalHits;
+    private int page;
+    private int size;
+    private Map<TransactionType, Long> types;
+    private Map<TransactionStatus, Long> statuses;
+    private List<AmountRange> amounts;
+    /**
+     * Matches per {@code yyyy-MM} month of {@code processedAt}, oldest first.
+     */
+    private Map<String, Long> months;
+
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class AmountRange {
+        private BigDecimal from;
+        /**
+         * Exclusive; {@code null} for the open-ended top range.
+         */
+        private BigDecimal to;
+        private long count;
+    }
+}
@@ -0,0 +1,13 @@
+package com.maelcolium.telepesa.transaction.exception;
+
+import com.maelcolium.telepesa.exceptions.BusinessException;
+
+/**
+ * Exception thrown when fraud scoring refuses a transaction
+ */
+public class TransactionBlockedException extends BusinessException {
+
+    public TransactionBlockedException(String message) {
+        super(message);
+    }
+}
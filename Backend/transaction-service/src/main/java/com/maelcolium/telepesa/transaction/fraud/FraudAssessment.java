@@ -0,0 +1,15 @@
+package com.maelcolium.telepesa.transaction.fraud;
+
+import java.util.List;
+
+/**
+ * Outcome of scoring one transaction: the summed score of every rule that fired, and their names.
+ */
+public record FraudAssessment(FraudDecision decision, int score, List<String> rules) {
+
+    private static final FraudAssessment ALLOW = new FraudAssessment(FraudDecision.ALLOW, 0, List.of());
+
+    public static FraudAssessment allow() {
+        return ALLOW;
+    }
+}
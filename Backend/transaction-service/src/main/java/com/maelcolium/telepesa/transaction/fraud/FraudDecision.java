@@ -0,0 +1,10 @@
+package com.maelcolium.telepesa.transaction.fraud;
+
+public enum FraudDecision {
+    ALLOW,
+    /**
+     * Accepted, but held as PENDING until someone has looked at it.
+     */
+    REVIEW,
+    BLOCK
+}
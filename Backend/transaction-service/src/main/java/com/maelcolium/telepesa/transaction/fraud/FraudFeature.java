@@ -0,0 +1,58 @@
+package com.maelcolium.telepesa.transaction.fraud;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Streaming features computed for every transaction; rules refer to them by {@link #getKey()}.
+ */
+public enum FraudFeature {
+
+    AMOUNT("amount"),
+    /**
+     * Standard deviations above the account's rolling mean amount; 0 until there is enough history.
+     */
+    AMOUNT_Z_SCORE("amountZScore"),
+    /**
+     * Roughly the number of transactions from the account in the last minute, this one included.
+     */
+    ACCOUNT_VELOCITY_1M("accountVelocity1m"),
+    ACCOUNT_VELOCITY_1H("accountVelocity1h"),
+    USER_VELOCITY_1M("userVelocity1m"),
+    USER_VELOCITY_1H("userVelocity1h"),
+    /**
+     * 1 when the account has not paid this counterparty among its recent counterparties, else 0.
+     */
+    NEW_COUNTERPARTY("newCounterparty"),
+    /**
+     * Hours between now and the account's usual time of day, scaled down when it has no usual time.
+     */
+    HOUR_DEVIATION("hourDeviation"),
+    /**
+     * Transactions seen from the account before this one.
+     */
+    HISTORY("history");
+
+    private static final Map<String, FraudFeature> BY_KEY = Arrays.stream(values())
+            .collect(Collectors.toUnmodifiableMap(FraudFeature::getKey, Function.identity()));
+
+    private final String key;
+
+    FraudFeature(String key) {
+        this.key = key;
+    }
+
+    public String getKey() {
+        return key;
+    }
+
+    public static FraudFeature fromKey(String key) {
+        FraudFeature feature = BY_KEY.get(key);
+        if (feature == null) {
+            throw new IllegalArgumentException("Unknown fraud feature '" + key + "'; expected one of " + BY_KEY.keySet());
+        }
+        return feature;
+    }
+}
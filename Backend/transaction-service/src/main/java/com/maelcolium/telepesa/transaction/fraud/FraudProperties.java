@@ -0,0 +1,44 @@
+package com.maelcolium.telepesa.transaction.fraud;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Data
+@Component
+@ConfigurationProperties(prefix = "app.transactions.fraud")
+public class FraudProperties {
+
+    private boolean enabled = true;
+
+    /**
+     * Accounts and users whose features are kept; the least recently seen are forgotten first.
+     */
+    private int maxAccounts = 1 << 18;
+
+    private int maxUsers = 1 << 18;
+
+    private int reviewScore = 40;
+
+    private int blockScore = 80;
+
+    private List<Rule> rules = new ArrayList<>();
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Rule {
+        private String name;
+        /**
+         * Conditions on {@link FraudFeature} keys joined by {@code and}, e.g.
+         * {@code "amountZScore >= 3 and history >= 5"}.
+         */
+        private String when;
+        private int score;
+    }
+}
@@ -0,0 +1,148 @@
+package com.maelcolium.telepesa.transaction.fraud;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Rules compiled into flat arrays of conditions, so scoring is a branch-light loop over doubles
+ * with no parsing, boxing or allocation unless a rule fires.
+ */
+public final class FraudRuleSet {
+
+    private static final Pattern CONDITION = Pattern.compile("\\s*(\\w+)\\s*(>=|<=|==|!=|>|<)\\s*(-?\\d+(?:\\.\\d+)?)\\s*");
+    private static final Pattern AND = Pattern.compile("(?i)\\s+and\\s+");
+
+    private static final byte GT = 0;
+    private static final byte GE = 1;
+    private static final byte LT = 2;
+    private static final byte LE = 3;
+    private static final byte EQ = 4;
+    private static final byte NE = 5;
+
+    private final String[] names;
+    private final int[] scores;
+    private final int[] conditionEnd;
+    private final int[] features;
+    private final byte[] operators;
+    private final double[] thresholds;
+    private final int reviewScore;
+    private final int blockScore;
+
+    private FraudRuleSet(String[] names, int[] scores, int[] conditionEnd, int[] features, byte[] operators,
+                         double[] thresholds, int reviewScore, int blockScore) {
+        this.names = names;
+        this.scores = scores;
+        this.conditionEnd = conditionEnd;
+        this.features = features;
+        this.operators = operators;
+        this.thresholds = thresholds;
+        this.reviewScore = reviewScore;
+        this.blockScore = blockScore;
+    }
+
+    public static FraudRuleSet compile(List<FraudProperties.Rule> rules, int reviewScore, int blockScore) {
+        if (reviewScore > blockScore) {
+            throw new IllegalArgumentException("Fraud review score must not exceed the block score");
+        }
+        String[] names = new String[rules.size()];
+        int[] scores = new int[rules.size()];
+        int[] conditionEnd = new int[rules.size()];
+        List<FraudFeature> features = new ArrayList<>();
+        List<String> operators = new ArrayList<>();
+        List<Double> thresholds = new ArrayList<>();
+
+        for (int r = 0; r < rules.size(); r++) {
+            FraudProperties.Rule rule = rules.get(r);
+            names[r] = rule.getName();
+            scores[r] = rule.getScore();
+            if (rule.getWhen() == null || rule.getWhen().isBlank()) {
+                throw new IllegalArgumentException("Fraud rule '" + rule.getName() + "' has no condition");
+            }
+            for (String condition : AND.split(rule.getWhen().trim())) {
+                Matcher matcher = CONDITION.matcher(condition);
+                if (!matcher.matches()) {
+                    throw new IllegalArgumentException("Fraud rule '" + rule.getName() + "' has an invalid condition: " + condition);
+                }
+                features.add(FraudFeature.fromKey(matcher.group(1)));
+                operators.add(matcher.group(2));
+                thresholds.add(Double.parseDouble(matcher.group(3)));
+            }
+            conditionEnd[r] = features.size();
+        }
+
+        int[] featureIndexes = new int[features.size()];
+        byte[] operatorCodes = new byte[features.size()];
+        double[] thresholdValues = new double[features.size()];
+        for (int c = 0; c < features.size(); c++) {
+            featureIndexes[c] = features.get(c).ordinal();
+            operatorCodes[c] = operatorCode(operators.get(c));
+            thresholdValues[c] = thresholds.get(c);
+        }
+        return new FraudRuleSet(names, scores, conditionEnd, featureIndexes, operatorCodes, thresholdValues,
+                reviewScore, blockScore);
+    }
+
+    /**
+     * @param values feature values indexed by {@link FraudFeature#ordinal()}
+     */
+    public FraudAssessment evaluate(double[] values) {
+        int score = 0;
+        long fired = 0;
+        int condition = 0;
+        for (int r = 0; r < names.length; r++) {
+            boolean matches = true;
+            for (; condition < conditionEnd[r]; condition++) {
+                if (matches && !test(operators[condition], values[features[condition]], thresholds[condition])) {
+                    matches = false;
+                }
+            }
+            if (matches) {
+                score += scores[r];
+                if (r < Long.SIZE) {
+                    fired |= 1L << r;
+                }
+            }
+        }
+        if (fired == 0) {
+            return FraudAssessment.allow();
+        }
+
+        FraudDecision decision = score >= blockScore ? FraudDecision.BLOCK
+                : score >= reviewScore ? FraudDecision.REVIEW : FraudDecision.ALLOW;
+        List<String> rules = new ArrayList<>(Long.bitCount(fired));
+        for (int r = 0; r < names.length && r < Long.SIZE; r++) {
+            if ((fired & (1L << r)) != 0) {
+                rules.add(names[r]);
+            }
+        }
+        return new FraudAssessment(decision, score, List.copyOf(rules));
+    }
+
+    public int size() {
+        return names.length;
+    }
+
+    private static boolean test(byte operator, double value, double threshold) {
+        return switch (operator) {
+            case GT -> value > threshold;
+            case GE -> value >= threshold;
+            case LT -> value < threshold;
+            case LE -> value <= threshold;
+            case EQ -> value == threshold;
+            default -> value != threshold;
+        };
+    }
+
+    private static byte operatorCode(String operator) {
+        return switch (operator) {
+            case ">" -> GT;
+            case ">=" -> GE;
+            case "<" -> LT;
+            case "<=" -> LE;
+            case "==" -> EQ;
+            default -> NE;
+        };
+    }
+}
@@ -0,0 +1,203 @@
+package com.maelcolium.telepesa.transaction.fraud;
+
+import com.maelcolium.telepesa.transaction.dto.CreateTransactionRequest;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Scores a transaction against per-account and per-user streaming features before it is created.
+ *
+ * <p>Features are updated in the same pass that reads them: exponentially decayed transaction
+ * rates for velocity, an exponentially weighted mean and variance of the amount, a short ring of
+ * recent counterparties and a circular mean of the time of day. All of it lives in
+ * {@link StripedStateTable}s sized at start-up, so scoring allocates nothing beyond the result
+ * and memory stays flat however many accounts pass through. Blocked transactions still count
+ * towards velocity but do not shift the account's amount, time or counterparty profile.</p>
+ */
+@Component
+@Slf4j
+public class FraudScorer {
+
+    private static final int STRIPES = 64;
+    private static final int MIN_HISTORY = 5;
+    private static final double MIN_ALPHA = 0.05;
+    private static final double MINUTE_MILLIS = 60_000d;
+    private static final double HOUR_MILLIS = 3_600_000d;
+    private static final double MINUTES_PER_DAY = 24 * 60;
+
+    // Account state
+    private static final int MEAN_AMOUNT = 0;
+    private static final int AMOUNT_VARIANCE = 1;
+    private static final int ACCOUNT_RATE_1M = 2;
+    private static final int ACCOUNT_RATE_1H = 3;
+    private static final int HOUR_SIN = 4;
+    private static final int HOUR_COS = 5;
+    private static final int ACCOUNT_DOUBLES = 6;
+    private static final int COUNT = 0;
+    private static final int ACCOUNT_LAST_AT = 1;
+    private static final int COUNTERPARTY_CURSOR = 2;
+    private static final int COUNTERPARTIES = 3;
+    private static final int RECENT_COUNTERPARTIES = 8;
+    private static final int ACCOUNT_LONGS = COUNTERPARTIES + RECENT_COUNTERPARTIES;
+
+    // User state
+    private static final int USER_RATE_1M = 0;
+    private static final int USER_RATE_1H = 1;
+    private static final int USER_DOUBLES = 2;
+    private static final int USER_LAST_AT = 0;
+    private static final int USER_LONGS = 1;
+
+    private final boolean enabled;
+    private final FraudRuleSet ruleSet;
+    private final StripedStateTable accounts;
+    private final StripedStateTable users;
+    private final ThreadLocal<double[]> features = ThreadLocal.withInitial(() -> new double[FraudFeature.values().length]);
+    private final Timer scoringTimer;
+    private final Map<FraudDecision, Counter> decisionCounters = new EnumMap<>(FraudDecision.class);
+
+    public FraudScorer(FraudProperties properties, MeterRegistry meterRegistry) {
+        this.enabled = properties.isEnabled();
+        this.ruleSet = FraudRuleSet.compile(properties.getRules(), properties.getReviewScore(), properties.getBlockScore());
+        this.accounts = new StripedStateTable(properties.getMaxAccounts(), STRIPES, ACCOUNT_DOUBLES, ACCOUNT_LONGS);
+        this.users = new StripedStateTable(properties.getMaxUsers(), STRIPES, USER_DOUBLES, USER_LONGS);
+
+        this.scoringTimer = Timer.builder("transactions.fraud.scoring")
+                .description("Time to score a transaction for fraud")
+                .publishPercentiles(0.5, 0.99)
+                .register(meterRegistry);
+        for (FraudDecision decision : FraudDecision.values()) {
+            decisionCounters.put(decision, Counter.builder("transactions.fraud.decisions")
+                    .tag("decision", decision.name())
+                    .register(meterRegistry));
+        }
+        Gauge.builder("transactions.fraud.evictions", accounts, StripedStateTable::evictions)
+                .description("Accounts whose fraud features were evicted to stay within max-accounts")
+                .register(meterRegistry);
+
+        log.info("Fraud scoring {} with {} rules over {} account and {} user slots",
+                enabled ? "enabled" : "disabled", ruleSet.size(), accounts.capacity(), users.capacity());
+    }
+
+    public FraudAssessment assess(CreateTransactionRequest request, LocalDateTime at) {
+        if (!enabled) {
+            return FraudAssessment.allow();
+        }
+        long start = System.nanoTime();
+        FraudAssessment assessment = assess(request.getUserId(), request.getFromAccountId(), request.getToAccountId(),
+                request.getAmount().doubleValue(), at.toInstant(ZoneOffset.UTC).toEpochMilli(),
+                at.getHour() * 60 + at.getMinute());
+        scoringTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        decisionCounters.get(assessment.decision()).increment();
+        return assessment;
+    }
+
+    FraudAssessment assess(long userId, long accountId, Long counterpartyId, double amount, long now, int minuteOfDay) {
+        double[] values = features.get();
+        values[FraudFeature.AMOUNT.ordinal()] = amount;
+
+        int slot = users.lock(userId, now);
+        try {
+            int lastAt = users.longIndex(slot, USER_LAST_AT);
+            long elapsed = users.longs[lastAt] == 0 ? Long.MAX_VALUE : Math.max(0, now - users.longs[lastAt]);
+            users.longs[lastAt] = now;
+            values[FraudFeature.USER_VELOCITY_1M.ordinal()] = decay(users.doubles, users.doubleIndex(slot, USER_RATE_1M), elapsed, MINUTE_MILLIS);
+            values[FraudFeature.USER_VELOCITY_1H.ordinal()] = decay(users.doubles, users.doubleIndex(slot, USER_RATE_1H), elapsed, HOUR_MILLIS);
+        } finally {
+            users.unlock(slot);
+        }
+
+        slot = accounts.lock(accountId, now);
+        try {
+            double[] doubles = accounts.doubles;
+            long[] longs = accounts.longs;
+            long count = longs[accounts.longIndex(slot, COUNT)];
+            int lastAt = accounts.longIndex(slot, ACCOUNT_LAST_AT);
+            long elapsed = longs[lastAt] == 0 ? Long.MAX_VALUE : Math.max(0, now - longs[lastAt]);
+            longs[lastAt] = now;
+
+            values[FraudFeature.HISTORY.ordinal()] = count;
+            values[FraudFeature.ACCOUNT_VELOCITY_1M.ordinal()] = decay(doubles, accounts.doubleIndex(slot, ACCOUNT_RATE_1M), elapsed, MINUTE_MILLIS);
+            values[FraudFeature.ACCOUNT_VELOCITY_1H.ordinal()] = decay(doubles, accounts.doubleIndex(slot, ACCOUNT_RATE_1H), elapsed, HOUR_MILLIS);
+
+            double mean = doubles[accounts.doubleIndex(slot, MEAN_AMOUNT)];
+            double variance = doubles[accounts.doubleIndex(slot, AMOUNT_VARIANCE)];
+            double angle = 2 * Math.PI * minuteOfDay / MINUTES_PER_DAY;
+            double hourSin = doubles[accounts.doubleIndex(slot, HOUR_SIN)];
+            double hourCos = doubles[accounts.doubleIndex(slot, HOUR_COS)];
+            if (count >= MIN_HISTORY) {
+                // Floor the spread so a perfectly regular history does not turn small changes into huge scores
+                double spread = Math.max(Math.sqrt(variance), Math.max(mean * 0.1, 1.0));
+                values[FraudFeature.AMOUNT_Z_SCORE.ordinal()] = (amount - mean) / spread;
+                values[FraudFeature.HOUR_DEVIATION.ordinal()] = hourDeviation(angle, hourSin, hourCos);
+            } else {
+                values[FraudFeature.AMOUNT_Z_SCORE.ordinal()] = 0;
+                values[FraudFeature.HOUR_DEVIATION.ordinal()] = 0;
+            }
+
+            boolean newCounterparty = counterpartyId != null && !recentCounterparty(longs, accounts.longIndex(slot, COUNTERPARTIES), counterpartyId);
+            values[FraudFeature.NEW_COUNTERPARTY.ordinal()] = newCounterparty ? 1 : 0;
+
+            FraudAssessment assessment = ruleSet.evaluate(values);
+            if (assessment.decision() != FraudDecision.BLOCK) {
+                double alpha = Math.max(1.0 / (count + 1), MIN_ALPHA);
+                double delta = amount - mean;
+                doubles[accounts.doubleIndex(slot, MEAN_AMOUNT)] = mean + alpha * delta;
+                doubles[accounts.doubleIndex(slot, AMOUNT_VARIANCE)] = (1 - alpha) * (variance + alpha * delta * delta);
+                doubles[accounts.doubleIndex(slot, HOUR_SIN)] = hourSin + alpha * (Math.sin(angle) - hourSin);
+                doubles[accounts.doubleIndex(slot, HOUR_COS)] = hourCos + alpha * (Math.cos(angle) - hourCos);
+                longs[accounts.longIndex(slot, COUNT)] = count + 1;
+                if (newCounterparty) {
+                    int cursor = accounts.longIndex(slot, COUNTERPARTY_CURSOR);
+                    longs[accounts.longIndex(slot, COUNTERPARTIES) + (int) (longs[cursor] % RECENT_COUNTERPARTIES)] = counterpartyId;
+                    longs[cursor]++;
+                }
+            }
+            return assessment;
+        } finally {
+            accounts.unlock(slot);
+        }
+    }
+
+    /**
+     * Decay an event rate to now, add this event and return the new rate; with time constant
+     * {@code tau} a steady stream settles at roughly the number of events per {@code tau}.
+     */
+    private static double decay(double[] rates, int index, long elapsedMillis, double tau) {
+        double rate = elapsedMillis == Long.MAX_VALUE ? 1 : rates[index] * Math.exp(-elapsedMillis / tau) + 1;
+        rates[index] = rate;
+        return rate;
+    }
+
+    private static boolean recentCounterparty(long[] longs, int start, long counterpartyId) {
+        for (int i = 0; i < RECENT_COUNTERPARTIES; i++) {
+            if (longs[start + i] == counterpartyId) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Hours between the given time of day and the circular mean, weighted by how concentrated the
+     * history is; someone who transacts at all hours gets close to zero.
+     */
+    private static double hourDeviation(double angle, double meanSin, double meanCos) {
+        double concentration = Math.hypot(meanSin, meanCos);
+        if (concentration == 0) {
+            return 0;
+        }
+        double difference = Math.abs(angle - Math.atan2(meanSin, meanCos)) % (2 * Math.PI);
+        difference = Math.min(difference, 2 * Math.PI - difference);
+        return difference * 24 / (2 * Math.PI) * concentration;
+    }
+}
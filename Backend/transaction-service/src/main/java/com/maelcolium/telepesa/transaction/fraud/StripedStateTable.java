@@ -0,0 +1,131 @@
+package com.maelcolium.telepesa.transaction.fraud;
+
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Fixed-capacity map from a {@code long} key to a few doubles and longs of state, laid out in
+ * flat primitive arrays allocated once up front.
+ *
+ * <p>The table is split into stripes, each guarded by its own lock, so threads working on
+ * different keys rarely contend. A key lives within a short probe window of its home slot; when
+ * the window is full the least recently seen key in it is evicted, which bounds memory at the
+ * cost of forgetting idle keys. Slots never become empty again once used, so lookups can stop at
+ * the first empty slot.</p>
+ *
+ * <p>Usage: {@code int slot = table.lock(key, now); try { ... } finally { table.unlock(slot); }},
+ * reading and writing the slot's state through {@link #doubleIndex} and {@link #longIndex}.</p>
+ */
+final class StripedStateTable {
+
+    private static final int MAX_PROBES = 8;
+
+    private final ReentrantLock[] locks;
+    private final int stripeShift;
+    private final int slotMask;
+    private final long[] keys;
+    private final long[] lastSeen;
+    private final int doubleStride;
+    private final int longStride;
+    private final LongAdder evictions = new LongAdder();
+
+    final double[] doubles;
+    final long[] longs;
+
+    StripedStateTable(int capacity, int stripes, int doubleStride, int longStride) {
+        int stripeCount = Integer.highestOneBit(Math.max(1, stripes));
+        int slotsPerStripe = Math.max(MAX_PROBES, Integer.highestOneBit(Math.max(1, capacity / stripeCount)));
+        int totalSlots = stripeCount * slotsPerStripe;
+
+        this.locks = new ReentrantLock[stripeCount];
+        for (int i = 0; i < stripeCount; i++) {
+            locks[i] = new ReentrantLock();
+        }
+        this.stripeShift = Integer.numberOfTrailingZeros(slotsPerStripe);
+        this.slotMask = slotsPerStripe - 1;
+        this.keys = new long[totalSlots];
+        this.lastSeen = new long[totalSlots];
+        this.doubleStride = doubleStride;
+        this.longStride = longStride;
+        this.doubles = new double[totalSlots * doubleStride];
+        this.longs = new long[totalSlots * longStride];
+    }
+
+    /**
+     * Lock the key's stripe and return its slot, claiming one with zeroed state if the key is
+     * not present. The caller must {@link #unlock} the slot.
+     *
+     * @param now a positive timestamp used to pick eviction victims
+     */
+    int lock(long key, long now) {
+        int hash = mix(key);
+        int stripe = hash & (locks.length - 1);
+        locks[stripe].lock();
+
+        int base = stripe << stripeShift;
+        int home = hash >>> Integer.numberOfTrailingZeros(locks.length);
+        int victim = -1;
+        long oldest = Long.MAX_VALUE;
+        for (int probe = 0; probe < MAX_PROBES; probe++) {
+            int slot = base + ((home + probe) & slotMask);
+            if (lastSeen[slot] == 0) {
+                claim(slot, key, now);
+                return slot;
+            }
+            if (keys[slot] == key) {
+                lastSeen[slot] = now;
+                return slot;
+            }
+            if (lastSeen[slot] < oldest) {
+                oldest = lastSeen[slot];
+                victim = slot;
+            }
+        }
+        evictions.increment();
+        claim(victim, key, now);
+        return victim;
+    }
+
+    void unlock(int slot) {
+        locks[slot >>> stripeShift].unlock();
+    }
+
+    int doubleIndex(int slot, int field) {
+        return slot * doubleStride + field;
+    }
+
+    int longIndex(int slot, int field) {
+        return slot * longStride + field;
+    }
+
+    int capacity() {
+        return keys.length;
+    }
+
+    long evictions() {
+        return evictions.sum();
+    }
+
+    private void claim(int slot, long key, long now) {
+        keys[slot] = key;
+        lastSeen[slot] = now;
+        int doubleStart = slot * doubleStride;
+        for (int i = 0; i < doubleStride; i++) {
+            doubles[doubleStart + i] = 0;
+        }
+        int longStart = slot * longStride;
+        for (int i = 0; i < longStride; i++) {
+            longs[longStart + i] = 0;
+        }
+    }
+
+    private static int mix(long key) {
+        // MurmurHash3 finaliser, so sequential ids spread across stripes and slots
+        key ^= key >>> 33;
+        key *= 0xff51afd7ed558ccdL;
+        key ^= key >>> 33;
+        key *= 0xc4ceb9fe1a85ec53L;
+        key ^= key >>> 33;
+        return (int) key;
+    }
+}
@@ -28,6 +28,8 @@ public class TransactionMapper {
                 .totalAmount(transaction.getTotalAmount())
                 .createdAt(transaction.getCreatedAt())
                 .updatedAt(transaction.getUpdatedAt())
+                .category(transaction.getCategory())
+                .heldForReview(transaction.isHeldForReview())
                 .build();
     }
 
@@ -49,6 +51,8 @@ public class TransactionMapper {
                 .userId(transactionDto.getUserId())
                 .feeAmount(transactionDto.getFeeAmount())
                 .totalAmount(transactionDto.getTotalAmount())
+                .category(transactionDto.getCategory())
+                .heldForReview(transactionDto.isHeldForReview())
                 .build();
     }
 } 
\ No newline at end of file
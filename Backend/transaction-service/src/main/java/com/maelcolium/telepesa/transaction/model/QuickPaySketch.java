@@ -0,0 +1,34 @@
+package com.maelcolium.telepesa.transaction.model;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * A user's serialized {@code QuickPaySketches}; a few hundred bytes at the default capacity.
+ */
+@Entity
+@Table(name = "quick_pay_sketches")
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class QuickPaySketch {
+
+    @Id
+    @Column(name = "user_id")
+    private Long userId;
+
+    @Column(name = "data", nullable = false, length = 65535)
+    private byte[] data;
+
+    @Column(name = "updated_at", nullable = false)
+    private LocalDateTime updatedAt;
+}
@@ -0,0 +1,70 @@
+package com.maelcolium.telepesa.transaction.model;
+
+import com.maelcolium.telepesa.models.BaseEntity;
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * A contiguous account id range {@code (fromId, toId]} of a reconciliation run, walked in keyset
+ * pages. {@code checkpointId} is the last account id whose result has been committed, so a chunk
+ * picked up again continues after it.
+ *
+ * <p>Chunk rows are only changed through the conditional updates in
+ * {@code ReconciliationChunkRepository}, which check the owner, so a worker that lost its claim
+ * cannot move a checkpoint that another instance now owns.</p>
+ */
+@Entity
+@Table(name = "reconciliation_chunks",
+        indexes = @Index(name = "idx_reconciliation_chunks_run_status", columnList = "run_id, status"))
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@EqualsAndHashCode(callSuper = false)
+public class ReconciliationChunk extends BaseEntity {
+
+    public enum Status {
+        PENDING,
+        RUNNING,
+        DONE
+    }
+
+    @Column(name = "run_id", nullable = false)
+    private Long runId;
+
+    @Column(name = "from_id", nullable = false)
+    private Long fromId;
+
+    @Column(name = "to_id", nullable = false)
+    private Long toId;
+
+    @Column(name = "checkpoint_id", nullable = false)
+    private Long checkpointId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "status", nullable = false, length = 16)
+    private Status status;
+
+    @Column(name = "owner", length = 64)
+    private String owner;
+
+    @Column(name = "heartbeat_at")
+    private LocalDateTime heartbeatAt;
+
+    @Column(name = "accounts_checked", nullable = false)
+    private long accountsChecked;
+
+    @Column(name = "discrepancy_count", nullable = false)
+    private long discrepancyCount;
+}
@@ -0,0 +1,75 @@
+package com.maelcolium.telepesa.transaction.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * An account whose balance in account-service is not explained by its ledger here.
+ */
+@Entity
+@Table(name = "reconciliation_discrepancies",
+        indexes = @Index(name = "idx_reconciliation_discrepancies_run_account", columnList = "run_id, account_id"))
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ReconciliationDiscrepancy {
+
+    public enum Type {
+        /**
+         * Both sides know the account and disagree on the balance.
+         */
+        BALANCE_MISMATCH,
+        /**
+         * The account has a balance but no completed transactions.
+         */
+        MISSING_LEDGER,
+        /**
+         * Completed transactions reference an account that account-service does not have.
+         */
+        UNKNOWN_ACCOUNT
+    }
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "reconciliation_discrepancies_seq")
+    @SequenceGenerator(name = "reconciliation_discrepancies_seq", sequenceName = "reconciliation_discrepancies_seq",
+            allocationSize = Transaction.ID_ALLOCATION_SIZE)
+    private Long id;
+
+    @Column(name = "run_id", nullable = false)
+    private Long runId;
+
+    @Column(name = "account_id", nullable = false)
+    private Long accountId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "type", nullable = false, length = 32)
+    private Type type;
+
+    /**
+     * Balance held by account-service; {@code null} for an unknown account.
+     */
+    @Column(name = "account_balance", precision = 19, scale = 2)
+    private BigDecimal accountBalance;
+
+    /**
+     * Credits minus debits of the account's completed transactions.
+     */
+    @Column(name = "ledger_balance", nullable = false, precision = 19, scale = 2)
+    private BigDecimal ledgerBalance;
+
+    /**
+     * Account balance minus ledger balance.
+     */
+    @Column(name = "difference", nullable = false, precision = 19, scale = 2)
+    private BigDecimal difference;
+
+    @Column(name = "detected_at", nullable = false)
+    private LocalDateTime detectedAt;
+}
@@ -0,0 +1,71 @@
+package com.maelcolium.telepesa.transaction.model;
+
+import com.maelcolium.telepesa.models.BaseEntity;
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * One pass of ledger reconciliation over every account, split into {@link ReconciliationChunk}s.
+ * Progress and totals are summed from the chunks.
+ */
+@Entity
+@Table(name = "reconciliation_runs")
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@EqualsAndHashCode(callSuper = false)
+public class ReconciliationRun extends BaseEntity {
+
+    public enum Status {
+        RUNNING,
+        /**
+         * Stopped at the end of its window or on an error; the next start picks it up from its checkpoints.
+         */
+        PAUSED,
+        COMPLETED
+    }
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "status", nullable = false, length = 16)
+    private Status status;
+
+    /**
+     * {@code "active"} while the run is unfinished and {@code null} after; the unique constraint
+     * on it keeps instances from starting a second run alongside one that is still going.
+     */
+    @Column(name = "active_key", unique = true, length = 8)
+    private String activeKey;
+
+    @Column(name = "started_at", nullable = false)
+    private LocalDateTime startedAt;
+
+    @Column(name = "finished_at")
+    private LocalDateTime finishedAt;
+
+    @Column(name = "min_account_id", nullable = false)
+    private Long minAccountId;
+
+    @Column(name = "max_account_id", nullable = false)
+    private Long maxAccountId;
+
+    @Column(name = "total_chunks", nullable = false)
+    private Integer totalChunks;
+
+    @Column(name = "tolerance", nullable = false, precision = 19, scale = 2)
+    private BigDecimal tolerance;
+
+    @Column(name = "last_error", length = 1000)
+    private String lastError;
+}
@@ -0,0 +1,46 @@
+package com.maelcolium.telepesa.transaction.model;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * How far a backfill has got. Transactions processed before {@code cutoff} are the backfill's to
+ * roll up, and it has merged those processed before {@code backfilledUntil}; everything from the
+ * cutoff on is rolled up as it completes.
+ *
+ * <p>The row is locked while a slice is merged and while a transaction before the cutoff is
+ * reverted, so a reversal is either read by the backfill or applied to what it wrote, never both.</p>
+ */
+@Entity
+@Table(name = "rollup_backfills")
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class RollupBackfill {
+
+    @Id
+    @Column(name = "name", length = 64)
+    private String name;
+
+    @Column(name = "cutoff", nullable = false)
+    private LocalDateTime cutoff;
+
+    @Column(name = "backfilled_until")
+    private LocalDateTime backfilledUntil;
+
+    @Column(name = "completed_at")
+    private LocalDateTime completedAt;
+
+    public boolean isCompleted() {
+        return completedAt != null;
+    }
+}
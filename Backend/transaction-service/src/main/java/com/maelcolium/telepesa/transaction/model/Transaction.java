@@ -1,6 +1,6 @@
 package com.maelcolium.telepesa.transaction.model;
 
-import com.maelcolium.telepesa.models.BaseEntity;
+import com.maelcolium.telepesa.models.AuditableEntity;
 import com.maelcolium.telepesa.models.enums.TransactionStatus;
 import com.maelcolium.telepesa.models.enums.TransactionType;
 import jakarta.persistence.*;
@@ -20,7 +20,19 @@ import java.time.LocalDateTime;
 @Builder
 @NoArgsConstructor
 @AllArgsConstructor
-public class Transaction extends BaseEntity {
+public class Transaction extends AuditableEntity {
+
+    /**
+     * Sequence allocation size; matches hibernate.jdbc.batch_size so a full JDBC batch needs a single
+     * sequence round trip. IDENTITY would force Hibernate to insert row by row to read back each id.
+     */
+    public static final int ID_ALLOCATION_SIZE = 50;
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "transactions_seq")
+    @SequenceGenerator(name = "transactions_seq", sequenceName = "transactions_seq", allocationSize = ID_ALLOCATION_SIZE)
+    @Column(name = "id")
+    private Long id;
 
     @Column(name = "transaction_id", unique = true, nullable = false)
     private String transactionId;
@@ -48,7 +60,7 @@ public class Transaction extends BaseEntity {
     @Column(name = "reference_number", unique = true)
     private String referenceNumber;
 
-    @Column(name = "processed_at")
+    @Column(name = "processed_at", nullable = false)
     private LocalDateTime processedAt;
 
     @Column(name = "user_id", nullable = false)
@@ -60,6 +72,18 @@ public class Transaction extends BaseEntity {
     @Column(name = "total_amount", precision = 19, scale = 2)
     private BigDecimal totalAmount;
 
+    /**
+     * Spending category matched from the description; {@code null} until categorized.
+     */
+    @Column(name = "category", length = 64)
+    private String category;
+
+    /**
+     * Set when fraud scoring asks for review; the transaction cannot complete until it is released.
+     */
+    @Column(name = "held_for_review", nullable = false)
+    private boolean heldForReview;
+
     @PrePersist
     @Override
     protected void onCreate() {
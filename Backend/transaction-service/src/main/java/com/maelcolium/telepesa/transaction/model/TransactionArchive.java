@@ -0,0 +1,53 @@
+package com.maelcolium.telepesa.transaction.model;
+
+import com.maelcolium.telepesa.models.BaseEntity;
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * One month of transactions moved out of the database into a compressed NDJSON file.
+ */
+@Entity
+@Table(name = "transaction_archives")
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@EqualsAndHashCode(callSuper = false)
+public class TransactionArchive extends BaseEntity {
+
+    /**
+     * Archived month, formatted {@code yyyy-MM}.
+     */
+    @Column(name = "period", unique = true, nullable = false, length = 7)
+    private String period;
+
+    @Column(name = "period_start", nullable = false)
+    private LocalDateTime periodStart;
+
+    @Column(name = "period_end", nullable = false)
+    private LocalDateTime periodEnd;
+
+    @Column(name = "file_name", nullable = false)
+    private String fileName;
+
+    @Column(name = "row_count", nullable = false)
+    private Long rowCount;
+
+    @Column(name = "size_bytes", nullable = false)
+    private Long sizeBytes;
+
+    /**
+     * Hex SHA-256 of the archive file.
+     */
+    @Column(name = "checksum", nullable = false, length = 64)
+    private String checksum;
+}
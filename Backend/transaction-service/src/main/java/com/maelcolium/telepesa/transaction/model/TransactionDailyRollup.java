@@ -0,0 +1,55 @@
+package com.maelcolium.telepesa.transaction.model;
+
+import com.maelcolium.telepesa.models.enums.TransactionType;
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/**
+ * Completed transaction counts and sums for one account, day and transaction type.
+ *
+ * <p>Rows are only ever changed by relative increments in {@code TransactionDailyRollupRepository},
+ * so concurrent completions on the same account never overwrite each other. Rollups outlive the
+ * transactions they summarise, which are moved to the archive tier after the hot window.</p>
+ */
+@Entity
+@Table(name = "transaction_daily_rollups",
+        uniqueConstraints = @UniqueConstraint(name = "uk_rollup_account_date_type",
+                columnNames = {"account_id", "rollup_date", "transaction_type"}))
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class TransactionDailyRollup {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "account_id", nullable = false)
+    private Long accountId;
+
+    @Column(name = "rollup_date", nullable = false)
+    private LocalDate rollupDate;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "transaction_type", nullable = false)
+    private TransactionType transactionType;
+
+    @Column(name = "debit_count", nullable = false)
+    private long debitCount;
+
+    @Column(name = "debit_amount", nullable = false, precision = 19, scale = 2)
+    private BigDecimal debitAmount;
+
+    @Column(name = "credit_count", nullable = false)
+    private long creditCount;
+
+    @Column(name = "credit_amount", nullable = false, precision = 19, scale = 2)
+    private BigDecimal creditAmount;
+}
@@ -0,0 +1,22 @@
+package com.maelcolium.telepesa.transaction.repository;
+
+import com.maelcolium.telepesa.transaction.model.QuickPaySketch;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Optional;
+
+@Repository
+public interface QuickPaySketchRepository extends JpaRepository<QuickPaySketch, Long> {
+
+    /**
+     * Lock the row so that instances merging their counts into it take turns.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT s FROM QuickPaySketch s WHERE s.userId = :userId")
+    Optional<QuickPaySketch> findForUpdate(@Param("userId") Long userId);
+}
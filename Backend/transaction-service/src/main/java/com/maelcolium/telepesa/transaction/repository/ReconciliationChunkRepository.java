@@ -0,0 +1,57 @@
+package com.maelcolium.telepesa.transaction.repository;
+
+import com.maelcolium.telepesa.transaction.dto.ReconciliationProgressRow;
+import com.maelcolium.telepesa.transaction.model.ReconciliationChunk;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Chunks are claimed, checkpointed and released with conditional updates, so workers on different
+ * instances coordinate through the row itself: an update that affects no row means the chunk is
+ * no longer, or was never, the caller's.
+ */
+@Repository
+public interface ReconciliationChunkRepository extends JpaRepository<ReconciliationChunk, Long> {
+
+    @Query("SELECT c.id FROM ReconciliationChunk c WHERE c.runId = :runId " +
+           "AND c.status <> com.maelcolium.telepesa.transaction.model.ReconciliationChunk.Status.DONE ORDER BY c.id")
+    List<Long> findUnfinishedIds(@Param("runId") Long runId);
+
+    /**
+     * Take a pending chunk, or a running one whose owner stopped sending heartbeats before {@code staleBefore}.
+     */
+    @Modifying
+    @Query("UPDATE ReconciliationChunk c SET c.status = com.maelcolium.telepesa.transaction.model.ReconciliationChunk.Status.RUNNING, " +
+           "c.owner = :owner, c.heartbeatAt = :now WHERE c.id = :id " +
+           "AND (c.status = com.maelcolium.telepesa.transaction.model.ReconciliationChunk.Status.PENDING " +
+           "OR (c.status = com.maelcolium.telepesa.transaction.model.ReconciliationChunk.Status.RUNNING AND c.heartbeatAt < :staleBefore))")
+    int claim(@Param("id") Long id, @Param("owner") String owner, @Param("now") LocalDateTime now,
+              @Param("staleBefore") LocalDateTime staleBefore);
+
+    @Modifying
+    @Query("UPDATE ReconciliationChunk c SET c.checkpointId = :checkpointId, " +
+           "c.accountsChecked = c.accountsChecked + :accounts, c.discrepancyCount = c.discrepancyCount + :discrepancies, " +
+           "c.heartbeatAt = :now WHERE c.id = :id AND c.owner = :owner " +
+           "AND c.status = com.maelcolium.telepesa.transaction.model.ReconciliationChunk.Status.RUNNING")
+    int checkpoint(@Param("id") Long id, @Param("owner") String owner, @Param("checkpointId") long checkpointId,
+                   @Param("accounts") long accounts, @Param("discrepancies") long discrepancies,
+                   @Param("now") LocalDateTime now);
+
+    @Modifying
+    @Query("UPDATE ReconciliationChunk c SET c.status = :status, c.owner = NULL, c.heartbeatAt = :now " +
+           "WHERE c.id = :id AND c.owner = :owner")
+    int finish(@Param("id") Long id, @Param("owner") String owner, @Param("status") ReconciliationChunk.Status status,
+               @Param("now") LocalDateTime now);
+
+    @Query("SELECT new com.maelcolium.telepesa.transaction.dto.ReconciliationProgressRow(COUNT(c), " +
+           "COALESCE(SUM(CASE WHEN c.status = com.maelcolium.telepesa.transaction.model.ReconciliationChunk.Status.DONE THEN 1 ELSE 0 END), 0), " +
+           "COALESCE(SUM(c.accountsChecked), 0), COALESCE(SUM(c.discrepancyCount), 0)) " +
+           "FROM ReconciliationChunk c WHERE c.runId = :runId")
+    ReconciliationProgressRow getProgress(@Param("runId") Long runId);
+}
@@ -0,0 +1,13 @@
+package com.maelcolium.telepesa.transaction.repository;
+
+import com.maelcolium.telepesa.transaction.model.ReconciliationDiscrepancy;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface ReconciliationDiscrepancyRepository extends JpaRepository<ReconciliationDiscrepancy, Long> {
+
+    Page<ReconciliationDiscrepancy> findByRunIdOrderByAccountId(Long runId, Pageable pageable);
+}
@@ -0,0 +1,17 @@
+package com.maelcolium.telepesa.transaction.repository;
+
+import com.maelcolium.telepesa.transaction.model.ReconciliationRun;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.Optional;
+
+@Repository
+public interface ReconciliationRunRepository extends JpaRepository<ReconciliationRun, Long> {
+
+    Optional<ReconciliationRun> findByActiveKey(String activeKey);
+
+    Page<ReconciliationRun> findAllByOrderByIdDesc(Pageable pageable);
+}
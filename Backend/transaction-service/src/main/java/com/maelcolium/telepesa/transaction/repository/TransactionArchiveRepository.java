@@ -0,0 +1,18 @@
+package com.maelcolium.telepesa.transaction.repository;
+
+import com.maelcolium.telepesa.transaction.model.TransactionArchive;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface TransactionArchiveRepository extends JpaRepository<TransactionArchive, Long> {
+
+    Optional<TransactionArchive> findByPeriod(String period);
+
+    boolean existsByPeriod(String period);
+
+    List<TransactionArchive> findAllByOrderByPeriodDesc();
+}
@@ -0,0 +1,68 @@
+package com.maelcolium.telepesa.transaction.repository;
+
+import com.maelcolium.telepesa.models.enums.TransactionType;
+import com.maelcolium.telepesa.transaction.dto.LedgerBalanceRow;
+import com.maelcolium.telepesa.transaction.model.TransactionDailyRollup;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface TransactionDailyRollupRepository extends JpaRepository<TransactionDailyRollup, Long> {
+
+    @Modifying(flushAutomatically = true)
+    @Query("UPDATE TransactionDailyRollup r SET r.debitCount = r.debitCount + :debitCount, " +
+           "r.debitAmount = r.debitAmount + :debitAmount, r.creditCount = r.creditCount + :creditCount, " +
+           "r.creditAmount = r.creditAmount + :creditAmount " +
+           "WHERE r.accountId = :accountId AND r.rollupDate = :rollupDate AND r.transactionType = :transactionType")
+    int increment(@Param("accountId") Long accountId,
+                  @Param("rollupDate") LocalDate rollupDate,
+                  @Param("transactionType") TransactionType transactionType,
+                  @Param("debitCount") long debitCount,
+                  @Param("debitAmount") BigDecimal debitAmount,
+                  @Param("creditCount") long creditCount,
+                  @Param("creditAmount") BigDecimal creditAmount);
+
+    /**
+     * Create the zero row for an account, day and type unless it exists. A concurrent insert of the
+     * same row is waited for and then skipped instead of failing, so this runs in the caller's
+     * transaction.
+     */
+    @Modifying(flushAutomatically = true)
+    @Query(value = "INSERT INTO transaction_daily_rollups (account_id, rollup_date, transaction_type, " +
+                   "debit_count, debit_amount, credit_count, credit_amount) " +
+                   "VALUES (:accountId, :rollupDate, :transactionType, 0, 0, 0, 0) ON CONFLICT DO NOTHING",
+           nativeQuery = true)
+    int insertIfAbsent(@Param("accountId") Long accountId,
+                       @Param("rollupDate") LocalDate rollupDate,
+                       @Param("transactionType") String transactionType);
+
+    List<TransactionDailyRollup> findByAccountIdAndRollupDateGreaterThanEqualOrderByRollupDate(Long accountId, LocalDate from);
+
+    @Query("SELECT COALESCE(SUM(r.debitAmount), 0) FROM TransactionDailyRollup r WHERE r.accountId = :accountId AND r.rollupDate >= :from")
+    BigDecimal sumDebitAmount(@Param("accountId") Long accountId, @Param("from") LocalDate from);
+
+    @Query("SELECT COALESCE(SUM(r.creditAmount), 0) FROM TransactionDailyRollup r WHERE r.accountId = :accountId AND r.rollupDate >= :from")
+    BigDecimal sumCreditAmount(@Param("accountId") Long accountId, @Param("from") LocalDate from);
+
+    /**
+     * Ledger balance of every account with {@code afterId < accountId <= toId}, in account id order.
+     */
+    @Query("SELECT new com.maelcolium.telepesa.transaction.dto.LedgerBalanceRow(r.accountId, SUM(r.creditAmount), SUM(r.debitAmount)) " +
+           "FROM TransactionDailyRollup r WHERE r.accountId > :afterId AND r.accountId <= :toId " +
+           "GROUP BY r.accountId ORDER BY r.accountId")
+    List<LedgerBalanceRow> findLedgerBalances(@Param("afterId") long afterId, @Param("toId") long toId);
+
+    @Query("SELECT MIN(r.accountId) FROM TransactionDailyRollup r")
+    Optional<Long> findMinAccountId();
+
+    @Query("SELECT MAX(r.accountId) FROM TransactionDailyRollup r")
+    Optional<Long> findMaxAccountId();
+}
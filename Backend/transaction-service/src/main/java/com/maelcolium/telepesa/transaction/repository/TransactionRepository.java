@@ -1,12 +1,21 @@
 package com.maelcolium.telepesa.transaction.repository;
 
+import com.maelcolium.telepesa.transaction.dto.CategoryTotalRow;
+import com.maelcolium.telepesa.transaction.dto.QuickPayHistoryRow;
+import com.maelcolium.telepesa.transaction.dto.TransactionCategoryRow;
+import com.maelcolium.telepesa.transaction.dto.TransactionDto;
+import com.maelcolium.telepesa.transaction.dto.TransactionExportRow;
 import com.maelcolium.telepesa.transaction.model.Transaction;
 import com.maelcolium.telepesa.models.enums.TransactionStatus;
 import com.maelcolium.telepesa.models.enums.TransactionType;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
@@ -14,22 +23,35 @@ import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
+/**
+ * Transactions are range-partitioned by month on {@code processed_at}. Every list, history and
+ * aggregate query carries a lower bound on {@code processedAt} so PostgreSQL only scans the
+ * partitions inside the hot window; see {@code TransactionRetentionPolicy}.
+ */
 @Repository
 public interface TransactionRepository extends JpaRepository<Transaction, Long> {
 
     // Basic finders
     Optional<Transaction> findByTransactionId(String transactionId);
     Optional<Transaction> findByReferenceNumber(String referenceNumber);
-    
+
     // Pageable finders
-    Page<Transaction> findByUserId(Long userId, Pageable pageable);
-    Page<Transaction> findByFromAccountId(Long fromAccountId, Pageable pageable);
-    Page<Transaction> findByToAccountId(Long toAccountId, Pageable pageable);
-    Page<Transaction> findByFromAccountIdOrToAccountId(Long fromAccountId, Long toAccountId, Pageable pageable);
-    Page<Transaction> findByStatus(TransactionStatus status, Pageable pageable);
-    Page<Transaction> findByTransactionType(TransactionType transactionType, Pageable pageable);
-    
+    Page<Transaction> findByProcessedAtGreaterThanEqual(LocalDateTime since, Pageable pageable);
+    Page<Transaction> findByUserIdAndProcessedAtGreaterThanEqual(Long userId, LocalDateTime since, Pageable pageable);
+    Page<Transaction> findByFromAccountIdAndProcessedAtGreaterThanEqual(Long fromAccountId, LocalDateTime since, Pageable pageable);
+    Page<Transaction> findByToAccountIdAndProcessedAtGreaterThanEqual(Long toAccountId, LocalDateTime since, Pageable pageable);
+    Page<Transaction> findByStatusAndProcessedAtGreaterThanEqual(TransactionStatus status, LocalDateTime since, Pageable pageable);
+    Page<Transaction> findByTransactionTypeAndProcessedAtGreaterThanEqual(TransactionType transactionType, LocalDateTime since, Pageable pageable);
+    Page<Transaction> findByHeldForReviewTrueOrderByProcessedAt(Pageable pageable);
+
+    @Query("SELECT t FROM Transaction t WHERE (t.fromAccountId = :accountId OR t.toAccountId = :accountId) AND t.processedAt >= :since")
+    Page<Transaction> findByAccountIdSince(
+        @Param("accountId") Long accountId,
+        @Param("since") LocalDateTime since,
+        Pageable pageable);
+
     // Date range queries
     @Query("SELECT t FROM Transaction t WHERE (t.fromAccountId = :userId OR t.toAccountId = :userId) AND t.processedAt BETWEEN :startDate AND :endDate ORDER BY t.processedAt DESC")
     Page<Transaction> findByUserIdAndDateRange(
@@ -38,26 +60,113 @@ public interface TransactionRepository extends JpaRepository<Transaction, Long>
         @Param("endDate") LocalDateTime endDate,
         Pageable pageable);
 
-    // List queries  
-    @Query("SELECT t FROM Transaction t WHERE t.fromAccountId = :accountId OR t.toAccountId = :accountId ORDER BY t.processedAt DESC")
-    List<Transaction> findAllByAccountId(@Param("accountId") Long accountId);
-    
-    List<Transaction> findByFromAccountIdOrToAccountIdOrderByProcessedAtDesc(Long fromAccountId, Long toAccountId);
-
-    // Aggregation queries
-    @Query("SELECT COALESCE(SUM(t.amount), 0) FROM Transaction t WHERE t.fromAccountId = :accountId AND t.status = 'COMPLETED' AND t.processedAt >= :since")
-    BigDecimal getTotalDebitsByAccountId(@Param("accountId") Long accountId, @Param("since") LocalDateTime since);
-    
-    @Query("SELECT COALESCE(SUM(t.amount), 0) FROM Transaction t WHERE t.toAccountId = :accountId AND t.status = 'COMPLETED' AND t.processedAt >= :since")
-    BigDecimal getTotalCreditsByAccountId(@Param("accountId") Long accountId, @Param("since") LocalDateTime since);
-    
-    @Query("SELECT COALESCE(SUM(t.amount), 0) FROM Transaction t WHERE (t.fromAccountId = :accountId OR t.toAccountId = :accountId) AND t.status = 'COMPLETED'")
-    BigDecimal calculateAccountBalance(@Param("accountId") Long accountId);
+    // List queries
+    @Query("SELECT t FROM Transaction t WHERE (t.fromAccountId = :accountId OR t.toAccountId = :accountId) AND t.processedAt >= :since ORDER BY t.processedAt DESC")
+    List<Transaction> findAllByAccountId(@Param("accountId") Long accountId, @Param("since") LocalDateTime since);
+
+    // Streaming export: projections read with a JDBC fetch size, so only one fetch window is held at a time
+    @QueryHints({
+        @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+        @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true"),
+        @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "false")
+    })
+    @Query("SELECT new com.maelcolium.telepesa.transaction.dto.TransactionExportRow(t.id, t.transactionId, t.fromAccountId, " +
+           "t.toAccountId, t.amount, t.feeAmount, t.totalAmount, t.transactionType, t.status, t.description, " +
+           "t.referenceNumber, t.processedAt) " +
+           "FROM Transaction t WHERE (t.fromAccountId = :accountId OR t.toAccountId = :accountId) AND t.processedAt >= :since " +
+           "ORDER BY t.processedAt DESC, t.id DESC")
+    Stream<TransactionExportRow> streamAccountHistory(@Param("accountId") Long accountId, @Param("since") LocalDateTime since);
+
+    // Archiving: one month at a time, matching the partition bounds
+    @QueryHints({
+        @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+        @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true"),
+        @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "false")
+    })
+    @Query("SELECT new com.maelcolium.telepesa.transaction.dto.TransactionExportRow(t.id, t.transactionId, t.fromAccountId, " +
+           "t.toAccountId, t.amount, t.feeAmount, t.totalAmount, t.transactionType, t.status, t.description, " +
+           "t.referenceNumber, t.processedAt) " +
+           "FROM Transaction t WHERE t.processedAt >= :from AND t.processedAt < :to ORDER BY t.processedAt, t.id")
+    Stream<TransactionExportRow> streamByProcessedAtRange(@Param("from") LocalDateTime from, @Param("to") LocalDateTime to);
+
+    // Search index rebuild: full rows, including the owner and audit timestamps the export leaves out
+    @QueryHints({
+        @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+        @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true"),
+        @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "false")
+    })
+    @Query("SELECT new com.maelcolium.telepesa.transaction.dto.TransactionDto(t.id, t.transactionId, t.fromAccountId, " +
+           "t.toAccountId, t.amount, t.transactionType, t.status, t.description, t.referenceNumber, t.processedAt, " +
+           "t.userId, t.feeAmount, t.totalAmount, t.createdAt, t.updatedAt, t.category, t.heldForReview) " +
+           "FROM Transaction t WHERE t.processedAt >= :from AND t.processedAt < :to")
+    Stream<TransactionDto> streamDtosByProcessedAtRange(@Param("from") LocalDateTime from, @Param("to") LocalDateTime to);
+
+    // Search index catch-up: rows written since the index was last committed, possibly by another instance
+    @QueryHints({
+        @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+        @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true"),
+        @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "false")
+    })
+    @Query("SELECT new com.maelcolium.telepesa.transaction.dto.TransactionDto(t.id, t.transactionId, t.fromAccountId, " +
+           "t.toAccountId, t.amount, t.transactionType, t.status, t.description, t.referenceNumber, t.processedAt, " +
+           "t.userId, t.feeAmount, t.totalAmount, t.createdAt, t.updatedAt, t.category, t.heldForReview) " +
+           "FROM Transaction t WHERE t.processedAt >= :hotWindowStart AND (t.createdAt >= :since OR t.updatedAt >= :since)")
+    Stream<TransactionDto> streamDtosChangedSince(@Param("hotWindowStart") LocalDateTime hotWindowStart,
+                                                  @Param("since") LocalDateTime since);
+
+    @Query("SELECT MIN(t.processedAt) FROM Transaction t WHERE t.processedAt < :before")
+    Optional<LocalDateTime> findOldestProcessedAtBefore(@Param("before") LocalDateTime before);
+
+    @Modifying(clearAutomatically = true)
+    @Query("DELETE FROM Transaction t WHERE t.processedAt >= :from AND t.processedAt < :to")
+    int deleteByProcessedAtRange(@Param("from") LocalDateTime from, @Param("to") LocalDateTime to);
+
+    // Categorization backfill: keyset pages of the fields the categorizer reads, within an id range
+    @Query("SELECT new com.maelcolium.telepesa.transaction.dto.TransactionCategoryRow(t.id, t.description, t.category) " +
+           "FROM Transaction t WHERE t.id > :afterId AND t.id <= :toId AND (:all = true OR t.category IS NULL) ORDER BY t.id")
+    List<TransactionCategoryRow> findForCategorization(@Param("afterId") long afterId, @Param("toId") long toId,
+                                                       @Param("all") boolean all, Pageable pageable);
+
+    @Query("SELECT MIN(t.id) FROM Transaction t WHERE :all = true OR t.category IS NULL")
+    Optional<Long> findMinIdForCategorization(@Param("all") boolean all);
+
+    @Query("SELECT MAX(t.id) FROM Transaction t WHERE :all = true OR t.category IS NULL")
+    Optional<Long> findMaxIdForCategorization(@Param("all") boolean all);
+
+    // Bumps updatedAt so the search index catch-up picks the new category up
+    @Modifying
+    @Query("UPDATE Transaction t SET t.category = :category, t.updatedAt = CURRENT_TIMESTAMP WHERE t.id IN :ids")
+    int updateCategory(@Param("ids") List<Long> ids, @Param("category") String category);
+
+    @Query("SELECT new com.maelcolium.telepesa.transaction.dto.CategoryTotalRow(COALESCE(t.category, 'other'), COUNT(t), SUM(t.amount)) " +
+           "FROM Transaction t WHERE t.fromAccountId = :accountId AND t.status = 'COMPLETED' AND t.processedAt >= :since " +
+           "GROUP BY COALESCE(t.category, 'other') ORDER BY SUM(t.amount) DESC")
+    List<CategoryTotalRow> sumDebitsByCategory(@Param("accountId") Long accountId, @Param("since") LocalDateTime since);
+
+    /**
+     * A user's completed transfers and payments, to seed quick-pay suggestions the first time they are asked for.
+     */
+    @Query("SELECT new com.maelcolium.telepesa.transaction.dto.QuickPayHistoryRow(t.transactionType, t.toAccountId, t.amount) " +
+           "FROM Transaction t WHERE t.userId = :userId AND t.status = 'COMPLETED' AND t.processedAt >= :since " +
+           "AND t.transactionType IN :types AND t.id <> :excludeId ORDER BY t.processedAt")
+    List<QuickPayHistoryRow> findQuickPayHistory(@Param("userId") Long userId, @Param("types") List<TransactionType> types,
+                                                 @Param("since") LocalDateTime since, @Param("excludeId") Long excludeId);
+
+    // Aggregation queries; whole days are answered from TransactionDailyRollupRepository
+    @Query("SELECT COALESCE(SUM(t.amount), 0) FROM Transaction t WHERE t.fromAccountId = :accountId AND t.status = 'COMPLETED' " +
+           "AND t.processedAt >= :since AND t.processedAt < :until")
+    BigDecimal getTotalDebitsByAccountId(@Param("accountId") Long accountId, @Param("since") LocalDateTime since,
+                                         @Param("until") LocalDateTime until);
+
+    @Query("SELECT COALESCE(SUM(t.amount), 0) FROM Transaction t WHERE t.toAccountId = :accountId AND t.status = 'COMPLETED' " +
+           "AND t.processedAt >= :since AND t.processedAt < :until")
+    BigDecimal getTotalCreditsByAccountId(@Param("accountId") Long accountId, @Param("since") LocalDateTime since,
+                                          @Param("until") LocalDateTime until);
 
     // Count queries
-    long countByUserIdAndStatus(Long userId, TransactionStatus status);
+    long countByUserIdAndStatusAndProcessedAtGreaterThanEqual(Long userId, TransactionStatus status, LocalDateTime since);
 
     // Existence checks
     boolean existsByTransactionId(String transactionId);
     boolean existsByReferenceNumber(String referenceNumber);
-} 
\ No newline at end of file
+}
@@ -0,0 +1,96 @@
+package com.maelcolium.telepesa.transaction.security;
+
+import com.maelcolium.telepesa.security.GatewayIdentity;
+import com.maelcolium.telepesa.security.TokenPrincipal;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.web.authentication.WebAuthenticationDetailsSource;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.time.Clock;
+import java.util.List;
+
+/**
+ * Verifies the identity headers forwarded by the API Gateway.
+ *
+ * <p>Requests without them pass through untouched. Headers that are unsigned, forged or older than
+ * the max age are rejected with 401 rather than ignored, as are headers naming a different user
+ * than the request's token or sent with a token that was rejected, e.g. revoked. Valid headers
+ * authenticate a request that carries no token.</p>
+ */
+@Slf4j
+public class GatewayIdentityFilter extends OncePerRequestFilter {
+
+    private static final List<String> IDENTITY_HEADERS = List.of(
+        GatewayIdentity.USER_ID,
+        GatewayIdentity.USER_NAME,
+        GatewayIdentity.USER_ROLES,
+        GatewayIdentity.AUTHENTICATED,
+        GatewayIdentity.ISSUED_AT,
+        GatewayIdentity.SIGNATURE
+    );
+
+    private final GatewayIdentity gatewayIdentity;
+    private final Clock clock;
+
+    public GatewayIdentityFilter(GatewayIdentity gatewayIdentity) {
+        this(gatewayIdentity, Clock.systemUTC());
+    }
+
+    GatewayIdentityFilter(GatewayIdentity gatewayIdentity, Clock clock) {
+        this.gatewayIdentity = gatewayIdentity;
+        this.clock = clock;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request,
+                                    HttpServletResponse response,
+                                    FilterChain filterChain) throws ServletException, IOException {
+        if (IDENTITY_HEADERS.stream().noneMatch(header -> request.getHeader(header) != null)) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+
+        TokenPrincipal principal = gatewayIdentity.verify(
+            request.getHeader(GatewayIdentity.USER_ID),
+            request.getHeader(GatewayIdentity.USER_NAME),
+            request.getHeader(GatewayIdentity.USER_ROLES),
+            request.getHeader(GatewayIdentity.ISSUED_AT),
+            request.getHeader(GatewayIdentity.SIGNATURE),
+            clock.instant().getEpochSecond());
+        if (principal == null) {
+            log.warn("Rejected unverified gateway identity headers for {} {}", request.getMethod(), request.getRequestURI());
+            response.sendError(HttpServletResponse.SC_UNAUTHORIZED, "Invalid gateway identity");
+            return;
+        }
+
+        Authentication current = SecurityContextHolder.getContext().getAuthentication();
+        String authorization = request.getHeader("Authorization");
+        if (current == null && authorization != null && authorization.startsWith("Bearer ")) {
+            // The token was invalid or revoked; the headers must not stand in for it
+            log.warn("Rejected gateway identity {} sent with a rejected token", principal.username());
+            response.sendError(HttpServletResponse.SC_UNAUTHORIZED, "Invalid gateway identity");
+            return;
+        }
+        if (current == null) {
+            UsernamePasswordAuthenticationToken authentication =
+                new UsernamePasswordAuthenticationToken(principal, null, principal.getAuthorities());
+            authentication.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
+            SecurityContextHolder.getContext().setAuthentication(authentication);
+            log.debug("Authentication set from gateway identity for user: {}", principal.username());
+        } else if (current.getPrincipal() instanceof TokenPrincipal token && !token.username().equals(principal.username())) {
+            log.warn("Rejected gateway identity {} for a token issued to {}", principal.username(), token.username());
+            response.sendError(HttpServletResponse.SC_UNAUTHORIZED, "Invalid gateway identity");
+            return;
+        }
+
+        filterChain.doFilter(request, response);
+    }
+}
@@ -1,6 +1,10 @@
 package com.maelcolium.telepesa.transaction.security;
 
 import com.maelcolium.telepesa.security.JwtTokenUtil;
+import com.maelcolium.telepesa.security.TokenPrincipal;
+import com.maelcolium.telepesa.security.TokenRevocations;
+import com.maelcolium.telepesa.security.VerifiedToken;
+import io.jsonwebtoken.JwtException;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
@@ -8,8 +12,6 @@ import jakarta.servlet.http.HttpServletResponse;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.context.SecurityContextHolder;
-import org.springframework.security.core.userdetails.UserDetails;
-import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.web.authentication.WebAuthenticationDetailsSource;
 import org.springframework.stereotype.Component;
 import org.springframework.web.filter.OncePerRequestFilter;
@@ -25,11 +27,11 @@ import java.io.IOException;
 public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
     private final JwtTokenUtil jwtTokenUtil;
-    private final UserDetailsService userDetailsService;
+    private final TokenRevocations tokenRevocations;
 
-    public JwtAuthenticationFilter(JwtTokenUtil jwtTokenUtil, UserDetailsService userDetailsService) {
+    public JwtAuthenticationFilter(JwtTokenUtil jwtTokenUtil, TokenRevocations tokenRevocations) {
         this.jwtTokenUtil = jwtTokenUtil;
-        this.userDetailsService = userDetailsService;
+        this.tokenRevocations = tokenRevocations;
     }
 
     @Override
@@ -39,35 +41,32 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
         
         final String authorizationHeader = request.getHeader("Authorization");
 
-        String username = null;
-        String jwt = null;
+        VerifiedToken token = null;
 
         if (authorizationHeader != null && authorizationHeader.startsWith("Bearer ")) {
-            jwt = authorizationHeader.substring(7);
             try {
-                username = jwtTokenUtil.getUsernameFromToken(jwt);
-                log.debug("Extracted username from JWT: {}", username);
-            } catch (Exception e) {
+                // Signature, expiry and claims are all checked in a single parse
+                token = jwtTokenUtil.verify(authorizationHeader.substring(7));
+                log.debug("Extracted username from JWT: {}", token.subject());
+            } catch (JwtException | IllegalArgumentException e) {
                 log.warn("JWT token is invalid: {}", e.getMessage());
             }
         }
 
-        if (username != null && SecurityContextHolder.getContext().getAuthentication() == null) {
-            try {
-                UserDetails userDetails = this.userDetailsService.loadUserByUsername(username);
-                log.debug("Loaded user details for: {}", username);
+        if (token != null && tokenRevocations.isRevoked(token)) {
+            log.warn("Rejected revoked JWT token for user: {}", token.subject());
+            token = null;
+        }
 
-                if (jwtTokenUtil.validateToken(jwt, userDetails)) {
-                    UsernamePasswordAuthenticationToken authentication = new UsernamePasswordAuthenticationToken(
-                        userDetails, null, userDetails.getAuthorities());
-                    authentication.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
-                    SecurityContextHolder.getContext().setAuthentication(authentication);
-                    log.debug("Authentication set for user: {}", username);
-                } else {
-                    log.warn("JWT token validation failed for user: {}", username);
-                }
-            } catch (Exception e) {
-                log.error("Error loading user details for username: {}, error: {}", username, e.getMessage());
+        if (token != null && SecurityContextHolder.getContext().getAuthentication() == null) {
+            // Principal, roles and user id come from the token's claims
+            UsernamePasswordAuthenticationToken authentication = TokenPrincipal.authenticate(token);
+            if (authentication != null) {
+                authentication.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
+                SecurityContextHolder.getContext().setAuthentication(authentication);
+                log.debug("Authentication set for user: {}", token.subject());
+            } else {
+                log.warn("JWT token rejected for inactive user: {}", token.subject());
             }
         }
         
@@ -0,0 +1,83 @@
+package com.maelcolium.telepesa.transaction.service;
+
+import com.maelcolium.telepesa.transaction.model.JobLease;
+import com.maelcolium.telepesa.transaction.repository.JobLeaseRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.UUID;
+
+/**
+ * Runs one-off jobs, such as the backfills every instance attempts on startup, on one instance at
+ * a time. The lease is held in the database and expires after its time to live, so a job whose
+ * instance died is taken over by the next one that tries it.
+ */
+@Component
+@Slf4j
+public class JobLeaseManager {
+
+    private final JobLeaseRepository leaseRepository;
+    private final TransactionTemplate leaseTransaction;
+    private final String owner = UUID.randomUUID().toString();
+
+    public JobLeaseManager(JobLeaseRepository leaseRepository, PlatformTransactionManager transactionManager) {
+        this.leaseRepository = leaseRepository;
+        this.leaseTransaction = new TransactionTemplate(transactionManager);
+        this.leaseTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    /**
+     * Run {@code job} unless another instance holds its lease.
+     *
+     * @param timeToLive how long the lease holds; it should outlast the job
+     * @return whether the job ran
+     */
+    public boolean runExclusively(String name, Duration timeToLive, Runnable job) {
+        if (!acquire(name, timeToLive)) {
+            log.info("Skipping {}: another instance holds its lease", name);
+            return false;
+        }
+        try {
+            job.run();
+            return true;
+        } finally {
+            release(name);
+        }
+    }
+
+    /**
+     * Take the lease for a job that outlives the calling thread; the caller must {@link #release} it.
+     *
+     * @return whether the lease was taken
+     */
+    public boolean acquire(String name, Duration timeToLive) {
+        LocalDateTime now = now();
+        if (!leaseRepository.existsById(name)) {
+            try {
+                leaseTransaction.executeWithoutResult(status ->
+                        leaseRepository.saveAndFlush(JobLease.builder().name(name).leasedUntil(now).build()));
+            } catch (DataIntegrityViolationException e) {
+                log.debug("Lease {} created concurrently", name);
+            }
+        }
+        Integer acquired = leaseTransaction.execute(status ->
+                leaseRepository.acquire(name, owner, now, now.plus(timeToLive)));
+        return acquired != null && acquired == 1;
+    }
+
+    public void release(String name) {
+        leaseTransaction.executeWithoutResult(status -> leaseRepository.release(name, owner, now()));
+    }
+
+    // At the columns' precision, so a lease written with it is not rounded up past a later read of the clock
+    private static LocalDateTime now() {
+        return LocalDateTime.now().truncatedTo(ChronoUnit.MICROS);
+    }
+}
@@ -0,0 +1,26 @@
+package com.maelcolium.telepesa.transaction.service;
+
+import com.maelcolium.telepesa.transaction.dto.ReconciliationDiscrepancyDto;
+import com.maelcolium.telepesa.transaction.dto.ReconciliationRunDto;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+
+/**
+ * Compares every account balance held by account-service with the balance its completed
+ * transactions add up to here, and reports the accounts where the two disagree.
+ */
+public interface LedgerReconciliationService {
+
+    /**
+     * Resume the unfinished run, or start a new one, in the background.
+     *
+     * @return {@code false} if this instance is already running one
+     */
+    boolean start();
+
+    ReconciliationRunDto getRun(Long runId);
+
+    Page<ReconciliationRunDto> getRuns(Pageable pageable);
+
+    Page<ReconciliationDiscrepancyDto> getDiscrepancies(Long runId, Pageable pageable);
+}
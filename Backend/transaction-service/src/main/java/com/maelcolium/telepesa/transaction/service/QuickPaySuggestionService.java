@@ -0,0 +1,18 @@
+package com.maelcolium.telepesa.transaction.service;
+
+import com.maelcolium.telepesa.transaction.dto.QuickPaySuggestionsDto;
+import com.maelcolium.telepesa.transaction.model.Transaction;
+
+/**
+ * Per-user counts of the recipients, billers and amounts a user pays most often, kept in bounded
+ * sketches that are updated as transactions complete, so suggestions never query the transactions.
+ */
+public interface QuickPaySuggestionService {
+
+    /**
+     * Count a transaction that has just reached COMPLETED, once its database transaction commits.
+     */
+    void recordCompletion(Transaction transaction);
+
+    QuickPaySuggestionsDto getSuggestions(Long userId, int limit);
+}
@@ -0,0 +1,22 @@
+package com.maelcolium.telepesa.transaction.service;
+
+import com.maelcolium.telepesa.transaction.dto.TransactionDto;
+
+import java.util.List;
+
+/**
+ * Mini-statements: each account's last few transactions, kept in a {@link RecentActivityStore}
+ * as transactions are created and change status, so the home screen does not page through the
+ * transactions table.
+ */
+public interface RecentActivityService {
+
+    /**
+     * Add or update a transaction on the lists of both its accounts once its database transaction commits.
+     *
+     * @param created whether the transaction is new, rather than an existing one whose status changed
+     */
+    void record(TransactionDto transaction, boolean created);
+
+    List<TransactionDto> getMiniStatement(Long accountId, int limit);
+}
@@ -0,0 +1,36 @@
+package com.maelcolium.telepesa.transaction.service;
+
+import com.maelcolium.telepesa.transaction.dto.TransactionDto;
+
+import java.util.List;
+
+/**
+ * Fixed-size lists of each account's most recent transactions, newest first.
+ *
+ * <p>An account's list only exists once it has been filled from the database; writes to an
+ * account without one are not applied, so a list never holds a partial history. Every write bumps
+ * the account's write version, whether or not a list exists, and {@link #fill} only succeeds if the
+ * version has not moved since it was read, so a fill cannot drop a write that raced with it.</p>
+ */
+public interface RecentActivityStore {
+
+    /**
+     * @return up to {@code limit} transactions, newest first; {@code null} if the account has no list
+     */
+    List<TransactionDto> read(Long accountId, int limit);
+
+    /**
+     * Put a new transaction at the head of the account's list, dropping the oldest beyond capacity,
+     * or replace it where it is if it is already listed.
+     *
+     * @param insert whether to add the transaction if it is not listed; status changes only update
+     */
+    void write(Long accountId, TransactionDto transaction, boolean insert);
+
+    long writeVersion(Long accountId);
+
+    /**
+     * Create the account's list, unless one exists or the account was written to since {@code version} was read.
+     */
+    boolean fill(Long accountId, long version, List<TransactionDto> transactions);
+}
@@ -0,0 +1,38 @@
+package com.maelcolium.telepesa.transaction.service;
+
+import com.maelcolium.telepesa.transaction.dto.TransactionArchiveDto;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.time.YearMonth;
+import java.util.List;
+
+/**
+ * Cold tier for transactions older than the hot window of {@link TransactionRetentionPolicy}.
+ */
+public interface TransactionArchiveService {
+
+    /**
+     * Archive every month that has fallen out of the hot window, oldest first.
+     */
+    List<TransactionArchiveDto> archiveExpiredMonths();
+
+    /**
+     * Write one month to a compressed archive file and remove it from the database.
+     *
+     * @return the archive, or {@code null} when the month holds no transactions
+     */
+    TransactionArchiveDto archiveMonth(YearMonth month) throws IOException;
+
+    List<TransactionArchiveDto> getArchives();
+
+    TransactionArchiveDto getArchive(String period);
+
+    /**
+     * Stream an archived month, optionally limited to one account. Archives are read-only.
+     *
+     * @return number of rows written
+     */
+    long exportArchive(String period, Long accountId, TransactionExportWriter.Format format,
+                       OutputStream output) throws IOException;
+}
@@ -0,0 +1,39 @@
+package com.maelcolium.telepesa.transaction.service;
+
+import com.maelcolium.telepesa.transaction.dto.CategoryDictionaryDto;
+
+/**
+ * Tags transactions with a spending category matched from their description, so per-category
+ * totals are a plain group-by on a column rather than text processing at query time.
+ */
+public interface TransactionCategoryService {
+
+    /**
+     * Category of transactions whose description matches no keyword.
+     */
+    String OTHER = "other";
+
+    /**
+     * @return the category for a description; {@link #OTHER} when nothing matches, including when
+     *         there is no description
+     */
+    String categorize(String description);
+
+    CategoryDictionaryDto getDictionary();
+
+    /**
+     * Read the dictionary again and use it for transactions categorized from now on.
+     *
+     * @return whether the dictionary changed
+     */
+    boolean reloadDictionary();
+
+    /**
+     * Categorize stored transactions in parallel chunks, in the background.
+     *
+     * @param recategorizeAll re-tag every transaction with the current dictionary rather than only
+     *                        those that have no category yet
+     * @return {@code false} if a backfill is already running here or on another instance
+     */
+    boolean backfill(boolean recategorizeAll);
+}
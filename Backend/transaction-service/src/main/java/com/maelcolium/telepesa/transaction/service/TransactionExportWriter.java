@@ -0,0 +1,201 @@
+package com.maelcolium.telepesa.transaction.service;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.maelcolium.telepesa.transaction.dto.TransactionExportRow;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Writes transaction history rows as CSV or NDJSON to an output stream, one row at a time.
+ *
+ * <p>Rows are encoded into a fixed-size buffer and flushed to the client every
+ * {@value #FLUSH_EVERY_ROWS} rows, so memory use does not depend on how many rows are exported
+ * and the client starts receiving data straight away.</p>
+ */
+public final class TransactionExportWriter implements AutoCloseable {
+
+    static final int FLUSH_EVERY_ROWS = 1000;
+    private static final int BUFFER_SIZE = 64 * 1024;
+    private static final JsonFactory JSON_FACTORY = new JsonFactory();
+    private static final String CSV_HEADER = "id,transactionId,fromAccountId,toAccountId,amount,feeAmount,totalAmount,"
+            + "transactionType,status,description,referenceNumber,processedAt";
+    // Leading characters that make a spreadsheet treat a cell as a formula
+    private static final String FORMULA_PREFIXES = "=+-@\t\r";
+
+    public enum Format {
+        CSV("text/csv", "csv"),
+        NDJSON("application/x-ndjson", "ndjson");
+
+        private final String contentType;
+        private final String extension;
+
+        Format(String contentType, String extension) {
+            this.contentType = contentType;
+            this.extension = extension;
+        }
+
+        public String getContentType() {
+            return contentType;
+        }
+
+        public String getExtension() {
+            return extension;
+        }
+    }
+
+    private final Format format;
+    private final Writer writer;
+    private final JsonGenerator json;
+    private long rowCount;
+
+    private TransactionExportWriter(Format format, OutputStream output) throws IOException {
+        this.format = format;
+        this.writer = new BufferedWriter(new OutputStreamWriter(output, StandardCharsets.UTF_8), BUFFER_SIZE);
+        if (format == Format.NDJSON) {
+            this.json = JSON_FACTORY.createGenerator(writer);
+            this.json.setRootValueSeparator(null);
+        } else {
+            this.json = null;
+            writer.write(CSV_HEADER);
+            writer.write('\n');
+        }
+    }
+
+    public static TransactionExportWriter open(Format format, OutputStream output) throws IOException {
+        return new TransactionExportWriter(format, output);
+    }
+
+    public void write(TransactionExportRow row) throws IOException {
+        if (format == Format.NDJSON) {
+            writeJson(row);
+        } else {
+            writeCsv(row);
+        }
+        if (++rowCount % FLUSH_EVERY_ROWS == 0) {
+            flush();
+        }
+    }
+
+    public long getRowCount() {
+        return rowCount;
+    }
+
+    private void writeCsv(TransactionExportRow row) throws IOException {
+        writer.write(String.valueOf(row.id()));
+        writer.write(',');
+        writeCsvField(row.transactionId());
+        writer.write(',');
+        writeCsvField(row.fromAccountId());
+        writer.write(',');
+        writeCsvField(row.toAccountId());
+        writer.write(',');
+        writeCsvNumber(row.amount());
+        writer.write(',');
+        writeCsvNumber(row.feeAmount());
+        writer.write(',');
+        writeCsvNumber(row.totalAmount());
+        writer.write(',');
+        writeCsvField(row.transactionType());
+        writer.write(',');
+        writeCsvField(row.status());
+        writer.write(',');
+        writeCsvField(row.description());
+        writer.write(',');
+        writeCsvField(row.referenceNumber());
+        writer.write(',');
+        writeCsvField(row.processedAt());
+        writer.write('\n');
+    }
+
+    private void writeCsvNumber(BigDecimal value) throws IOException {
+        // Never quoted or escaped, so a negative amount stays a number in a spreadsheet
+        if (value != null) {
+            writer.write(value.toPlainString());
+        }
+    }
+
+    /**
+     * Write a text field, quoted if it contains a separator, quote or line break. A value that a
+     * spreadsheet would run as a formula, starting with =, +, -, @, tab or carriage return, is
+     * prefixed with a single quote so it is shown as text.
+     */
+    private void writeCsvField(Object value) throws IOException {
+        if (value == null) {
+            return;
+        }
+        String text = value.toString();
+        if (!text.isEmpty() && FORMULA_PREFIXES.indexOf(text.charAt(0)) >= 0) {
+            text = "'" + text;
+        }
+        boolean quote = false;
+        for (int i = 0; i < text.length() && !quote; i++) {
+            char c = text.charAt(i);
+            quote = c == ',' || c == '"' || c == '\n' || c == '\r';
+        }
+        if (!quote) {
+            writer.write(text);
+            return;
+        }
+        writer.write('"');
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (c == '"') {
+                writer.write('"');
+            }
+            writer.write(c);
+        }
+        writer.write('"');
+    }
+
+    private void writeJson(TransactionExportRow row) throws IOException {
+        json.writeStartObject();
+        json.writeNumberField("id", row.id());
+        json.writeStringField("transactionId", row.transactionId());
+        writeJsonNumber("fromAccountId", row.fromAccountId());
+        writeJsonNumber("toAccountId", row.toAccountId());
+        json.writeStringField("amount", plain(row.amount()));
+        json.writeStringField("feeAmount", plain(row.feeAmount()));
+        json.writeStringField("totalAmount", plain(row.totalAmount()));
+        json.writeStringField("transactionType", row.transactionType() != null ? row.transactionType().name() : null);
+        json.writeStringField("status", row.status() != null ? row.status().name() : null);
+        json.writeStringField("description", row.description());
+        json.writeStringField("referenceNumber", row.referenceNumber());
+        json.writeStringField("processedAt", row.processedAt() != null ? row.processedAt().toString() : null);
+        json.writeEndObject();
+        json.writeRaw('\n');
+    }
+
+    private void writeJsonNumber(String field, Long value) throws IOException {
+        if (value == null) {
+            json.writeNullField(field);
+        } else {
+            json.writeNumberField(field, value);
+        }
+    }
+
+    private static String plain(BigDecimal value) {
+        return value != null ? value.toPlainString() : null;
+    }
+
+    private void flush() throws IOException {
+        if (json != null) {
+            json.flush();
+        }
+        writer.flush();
+    }
+
+    /**
+     * Flush the remaining rows. The underlying stream belongs to the caller and is left open.
+     */
+    @Override
+    public void close() throws IOException {
+        flush();
+    }
+}
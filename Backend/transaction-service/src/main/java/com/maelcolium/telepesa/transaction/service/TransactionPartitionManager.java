@@ -0,0 +1,110 @@
+package com.maelcolium.telepesa.transaction.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.time.format.DateTimeFormatter;
+
+/**
+ * Maintains the monthly partitions of the {@code transactions} table on PostgreSQL.
+ *
+ * <p>Partitions are created a few months ahead so inserts never land in the default partition,
+ * and whole months are detached and dropped once archived, which is far cheaper than deleting
+ * the rows. Databases where the table is not partitioned (H2, or PostgreSQL before the
+ * {@code db/migration} script has been applied) are left alone.</p>
+ */
+@Component
+@Slf4j
+public class TransactionPartitionManager {
+
+    static final String TABLE = "transactions";
+    private static final DateTimeFormatter PARTITION_SUFFIX = DateTimeFormatter.ofPattern("yyyyMM");
+
+    private final JdbcTemplate jdbcTemplate;
+    private final int premakeMonths;
+    private Boolean partitioned;
+
+    public TransactionPartitionManager(JdbcTemplate jdbcTemplate,
+                                       @Value("${app.transactions.premake-months:3}") int premakeMonths) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.premakeMonths = premakeMonths;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onStartup() {
+        ensureUpcomingPartitions();
+    }
+
+    @Scheduled(cron = "${app.transactions.partition-cron:0 15 0 * * *}")
+    public void ensureUpcomingPartitions() {
+        if (!isPartitioned()) {
+            return;
+        }
+        YearMonth current = YearMonth.from(LocalDate.now());
+        for (int i = 0; i <= premakeMonths; i++) {
+            createPartition(current.plusMonths(i));
+        }
+    }
+
+    /**
+     * Whether {@code transactions} is a declaratively partitioned PostgreSQL table.
+     */
+    public synchronized boolean isPartitioned() {
+        if (partitioned == null) {
+            try {
+                Integer count = jdbcTemplate.queryForObject(
+                        "SELECT COUNT(*) FROM pg_partitioned_table WHERE partrelid = to_regclass(?)",
+                        Integer.class, TABLE);
+                partitioned = count != null && count > 0;
+            } catch (DataAccessException e) {
+                partitioned = false;
+            }
+            log.info("Transactions table partitioned by month: {}", partitioned);
+        }
+        return partitioned;
+    }
+
+    public static String partitionName(YearMonth month) {
+        return TABLE + "_p" + month.format(PARTITION_SUFFIX);
+    }
+
+    void createPartition(YearMonth month) {
+        String name = partitionName(month);
+        try {
+            jdbcTemplate.execute("CREATE TABLE IF NOT EXISTS " + name + " PARTITION OF " + TABLE
+                    + " FOR VALUES FROM ('" + month.atDay(1) + "') TO ('" + month.plusMonths(1).atDay(1) + "')");
+        } catch (DataAccessException e) {
+            // The range is still covered by the legacy partition, or rows for it already sit in the default partition
+            log.warn("Could not create partition {}: {}", name, e.getMostSpecificCause().getMessage());
+        }
+    }
+
+    /**
+     * Detach and drop the partition holding {@code month}.
+     *
+     * @return {@code false} if the month has no partition of its own, in which case the caller has
+     * to delete the rows instead
+     */
+    public boolean dropPartition(YearMonth month) {
+        if (!isPartitioned()) {
+            return false;
+        }
+        String name = partitionName(month);
+        String exists = jdbcTemplate.queryForObject("SELECT to_regclass(?)::text", String.class, name);
+        if (exists == null) {
+            return false;
+        }
+        jdbcTemplate.execute("ALTER TABLE " + TABLE + " DETACH PARTITION " + name);
+        jdbcTemplate.execute("DROP TABLE " + name);
+        log.info("Dropped transaction partition {}", name);
+        return true;
+    }
+}
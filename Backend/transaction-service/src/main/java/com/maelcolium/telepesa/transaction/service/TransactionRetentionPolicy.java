@@ -0,0 +1,58 @@
+package com.maelcolium.telepesa.transaction.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+
+/**
+ * Defines the hot window of the monthly-partitioned transactions table.
+ *
+ * <p>The hot window covers the current month and the {@code hot-months - 1} months before it.
+ * Online queries are bounded to it, so PostgreSQL prunes every older partition; months before
+ * it are moved to the cold archive tier by {@link TransactionArchiveService}.</p>
+ */
+@Component
+public class TransactionRetentionPolicy {
+
+    private final int hotMonths;
+
+    public TransactionRetentionPolicy(@Value("${app.transactions.hot-months:12}") int hotMonths) {
+        if (hotMonths < 1) {
+            throw new IllegalArgumentException("app.transactions.hot-months must be at least 1");
+        }
+        this.hotMonths = hotMonths;
+    }
+
+    public int getHotMonths() {
+        return hotMonths;
+    }
+
+    /**
+     * First month that is still online.
+     */
+    public YearMonth firstHotMonth(LocalDate today) {
+        return YearMonth.from(today).minusMonths(hotMonths - 1L);
+    }
+
+    /**
+     * Lower bound on {@code processedAt} for every online query.
+     */
+    public LocalDateTime hotWindowStart() {
+        return hotWindowStart(LocalDate.now());
+    }
+
+    public LocalDateTime hotWindowStart(LocalDate today) {
+        return firstHotMonth(today).atDay(1).atStartOfDay();
+    }
+
+    /**
+     * Clamp a caller-supplied lower bound to the hot window.
+     */
+    public LocalDateTime clamp(LocalDateTime since) {
+        LocalDateTime start = hotWindowStart();
+        return since == null || since.isBefore(start) ? start : since;
+    }
+}
@@ -0,0 +1,46 @@
+package com.maelcolium.telepesa.transaction.service;
+
+import com.maelcolium.telepesa.transaction.dto.SpendingInsightsDto;
+import com.maelcolium.telepesa.transaction.model.Transaction;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Per-account, per-day, per-type totals of completed transactions, kept up to date as
+ * transactions complete so that totals and insights cost O(days) rather than O(transactions).
+ */
+public interface TransactionRollupService {
+
+    /**
+     * Add a transaction that has just reached COMPLETED.
+     */
+    void recordCompletion(Transaction transaction);
+
+    /**
+     * Take back a transaction that has left COMPLETED, e.g. on reversal.
+     */
+    void revertCompletion(Transaction transaction);
+
+    BigDecimal getTotalDebits(Long accountId, LocalDateTime since);
+
+    BigDecimal getTotalCredits(Long accountId, LocalDateTime since);
+
+    /**
+     * Credits minus debits over every rollup, archived months included. Until the backfill has
+     * completed, from the transactions still online instead.
+     */
+    BigDecimal getBalance(Long accountId);
+
+    SpendingInsightsDto getSpendingInsights(Long accountId, int months);
+
+    /**
+     * Roll up the transactions still online that were processed before the cutoff recorded when
+     * the first instance started, resuming where an earlier run stopped; does nothing once that is
+     * done. Months already moved to the archive are not read back, so a backfill after archiving
+     * leaves them out. Runs on one instance at a time.
+     *
+     * @return number of rollup rows merged into
+     */
+    long backfill();
+}
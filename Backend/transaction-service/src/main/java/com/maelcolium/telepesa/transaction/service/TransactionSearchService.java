@@ -0,0 +1,30 @@
+package com.maelcolium.telepesa.transaction.service;
+
+import com.maelcolium.telepesa.transaction.dto.TransactionDto;
+import com.maelcolium.telepesa.transaction.dto.TransactionSearchRequest;
+import com.maelcolium.telepesa.transaction.dto.TransactionSearchResultDto;
+
+import java.util.List;
+
+/**
+ * Full-text and faceted search over the hot window, served from a local index rather than the
+ * database. Writes are indexed once their transaction commits, so a search may briefly lag them.
+ */
+public interface TransactionSearchService {
+
+    /**
+     * Add or replace transactions in the index after the current transaction commits, or straight
+     * away when there is none. Failures are logged and never fail the write.
+     */
+    void index(List<TransactionDto> transactions);
+
+    TransactionSearchResultDto search(Long userId, TransactionSearchRequest request);
+
+    /**
+     * Re-read the hot window from the database in the background. Searches keep being answered
+     * from the current index while it runs.
+     *
+     * @return {@code false} if a rebuild is already running
+     */
+    boolean rebuild();
+}
@@ -1,12 +1,17 @@
 package com.maelcolium.telepesa.transaction.service;
 
+import com.maelcolium.telepesa.transaction.dto.BatchTransactionRecord;
 import com.maelcolium.telepesa.transaction.dto.CreateTransactionRequest;
+import com.maelcolium.telepesa.transaction.dto.QuickPaySuggestionsDto;
+import com.maelcolium.telepesa.transaction.dto.SpendingInsightsDto;
 import com.maelcolium.telepesa.transaction.dto.TransactionDto;
 import com.maelcolium.telepesa.models.enums.TransactionStatus;
 import com.maelcolium.telepesa.models.enums.TransactionType;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 
+import java.io.IOException;
+import java.io.OutputStream;
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.util.List;
@@ -15,6 +20,8 @@ public interface TransactionService {
 
     TransactionDto createTransaction(CreateTransactionRequest request);
 
+    List<TransactionDto> createTransactions(List<BatchTransactionRecord> records);
+
     TransactionDto getTransaction(Long id);
 
     TransactionDto getTransactionByTransactionId(String transactionId);
@@ -31,15 +38,37 @@ public interface TransactionService {
 
     Page<TransactionDto> getTransactionsByDateRange(Long userId, LocalDateTime startDate, LocalDateTime endDate, Pageable pageable);
 
+    /**
+     * Move a transaction to {@code status}. One held for review cannot be processed or completed
+     * until {@link #releaseReviewHold} clears the hold; it can still be failed or cancelled.
+     */
     TransactionDto updateTransactionStatus(Long id, TransactionStatus status);
 
+    /**
+     * Clear the review hold fraud scoring put on a transaction, leaving it PENDING.
+     */
+    TransactionDto releaseReviewHold(Long id);
+
+    Page<TransactionDto> getTransactionsHeldForReview(Pageable pageable);
+
     List<TransactionDto> getAccountTransactionHistory(Long accountId);
 
+    long exportAccountTransactionHistory(Long accountId, TransactionExportWriter.Format format, OutputStream output) throws IOException;
+
     BigDecimal getAccountBalance(Long accountId);
 
     BigDecimal getTotalDebitsByAccountId(Long accountId, LocalDateTime since);
 
     BigDecimal getTotalCreditsByAccountId(Long accountId, LocalDateTime since);
 
+    SpendingInsightsDto getSpendingInsights(Long accountId, int months);
+
+    QuickPaySuggestionsDto getQuickPaySuggestions(Long userId, int limit);
+
+    /**
+     * The account's latest transactions, newest first, normally without touching the database.
+     */
+    List<TransactionDto> getMiniStatement(Long accountId, int limit);
+
     long getTransactionCountByUserIdAndStatus(Long userId, TransactionStatus status);
 } 
\ No newline at end of file
@@ -0,0 +1,100 @@
+package com.maelcolium.telepesa.transaction.service.impl;
+
+import com.maelcolium.telepesa.transaction.dto.TransactionDto;
+import com.maelcolium.telepesa.transaction.service.RecentActivityStore;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Single-instance store for when Redis caching is off: ring buffers in an LRU map of at most
+ * {@code max-accounts} accounts. One write version covers every account, so any write fails the
+ * fills that overlap it, which is cheap at this scale.
+ */
+@Component
+@ConditionalOnExpression("'${spring.cache.type:}' != 'redis'")
+public class InMemoryRecentActivityStore implements RecentActivityStore {
+
+    private final int capacity;
+    // Guarded by itself
+    private final Map<Long, ArrayDeque<TransactionDto>> accounts;
+    private long version;
+
+    public InMemoryRecentActivityStore(@Value("${app.transactions.recent.capacity:20}") int capacity,
+                                       @Value("${app.transactions.recent.max-accounts:100000}") int maxAccounts) {
+        this.capacity = capacity;
+        this.accounts = new LinkedHashMap<>(1024, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, ArrayDeque<TransactionDto>> eldest) {
+                return size() > maxAccounts;
+            }
+        };
+    }
+
+    @Override
+    public List<TransactionDto> read(Long accountId, int limit) {
+        synchronized (accounts) {
+            ArrayDeque<TransactionDto> recent = accounts.get(accountId);
+            return recent != null ? recent.stream().limit(limit).toList() : null;
+        }
+    }
+
+    @Override
+    public void write(Long accountId, TransactionDto transaction, boolean insert) {
+        synchronized (accounts) {
+            version++;
+            ArrayDeque<TransactionDto> recent = accounts.get(accountId);
+            if (recent == null) {
+                return;
+            }
+            List<TransactionDto> replaced = new ArrayList<>(recent.size());
+            boolean found = false;
+            for (Iterator<TransactionDto> it = recent.iterator(); it.hasNext(); ) {
+                TransactionDto listed = it.next();
+                if (!found && Objects.equals(listed.getId(), transaction.getId())) {
+                    replaced.add(transaction);
+                    found = true;
+                } else {
+                    replaced.add(listed);
+                }
+            }
+            if (found) {
+                recent.clear();
+                recent.addAll(replaced);
+            } else if (insert) {
+                recent.addFirst(transaction);
+                while (recent.size() > capacity) {
+                    recent.removeLast();
+                }
+            }
+        }
+    }
+
+    @Override
+    public long writeVersion(Long accountId) {
+        synchronized (accounts) {
+            return version;
+        }
+    }
+
+    @Override
+    public boolean fill(Long accountId, long expectedVersion, List<TransactionDto> transactions) {
+        synchronized (accounts) {
+            if (accounts.containsKey(accountId) || version != expectedVersion) {
+                return false;
+            }
+            ArrayDeque<TransactionDto> recent = new ArrayDeque<>(capacity);
+            transactions.stream().limit(capacity).forEach(recent::addLast);
+            accounts.put(accountId, recent);
+            return true;
+        }
+    }
+}
@@ -0,0 +1,487 @@
+package com.maelcolium.telepesa.transaction.service.impl;
+
+import com.maelcolium.telepesa.exceptions.ResourceNotFoundException;
+import com.maelcolium.telepesa.transaction.client.AccountServiceClient;
+import com.maelcolium.telepesa.transaction.client.AccountServiceClient.AccountBalance;
+import com.maelcolium.telepesa.transaction.config.ReconciliationProperties;
+import com.maelcolium.telepesa.transaction.dto.LedgerBalanceRow;
+import com.maelcolium.telepesa.transaction.dto.ReconciliationDiscrepancyDto;
+import com.maelcolium.telepesa.transaction.dto.ReconciliationProgressRow;
+import com.maelcolium.telepesa.transaction.dto.ReconciliationRunDto;
+import com.maelcolium.telepesa.transaction.model.ReconciliationChunk;
+import com.maelcolium.telepesa.transaction.model.ReconciliationDiscrepancy;
+import com.maelcolium.telepesa.transaction.model.ReconciliationRun;
+import com.maelcolium.telepesa.transaction.repository.ReconciliationChunkRepository;
+import com.maelcolium.telepesa.transaction.repository.ReconciliationDiscrepancyRepository;
+import com.maelcolium.telepesa.transaction.repository.ReconciliationRunRepository;
+import com.maelcolium.telepesa.transaction.repository.TransactionDailyRollupRepository;
+import com.maelcolium.telepesa.transaction.service.LedgerReconciliationService;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Walks the account id space in chunks, each a keyset-paged merge join of account balances
+ * fetched from account-service with ledger balances summed from the daily rollups, which cover
+ * archived months as well.
+ *
+ * <p>Every page commits its discrepancies together with the chunk checkpoint, so a chunk that is
+ * interrupted, by the end of the window, an error or a crash, continues after the last committed
+ * page without reporting an account twice. Chunks are claimed through the database, so several
+ * instances can share one run. An account updated since this start is skipped, as its balance is
+ * moving under the comparison, and a suspected discrepancy is only recorded if a second read of
+ * both sides still shows it, so transactions completing mid-page are not reported.</p>
+ */
+@Service
+@Slf4j
+public class LedgerReconciliationServiceImpl implements LedgerReconciliationService {
+
+    public static final String ACTIVE_KEY = "active";
+    private static final int MAX_ERROR_LENGTH = 1000;
+
+    private final AccountServiceClient accountClient;
+    private final TransactionDailyRollupRepository rollupRepository;
+    private final ReconciliationRunRepository runRepository;
+    private final ReconciliationChunkRepository chunkRepository;
+    private final ReconciliationDiscrepancyRepository discrepancyRepository;
+    private final TransactionTemplate pageTransaction;
+    private final ReconciliationProperties properties;
+    private final String owner = UUID.randomUUID().toString();
+    private final ExecutorService workers;
+    private final AtomicBoolean running = new AtomicBoolean();
+    private final AtomicLong chunksRemaining = new AtomicLong();
+    private final Counter accountsCounter;
+    private final Counter skippedCounter;
+    private final Map<ReconciliationDiscrepancy.Type, Counter> discrepancyCounters = new EnumMap<>(ReconciliationDiscrepancy.Type.class);
+    private final Timer pageTimer;
+
+    public LedgerReconciliationServiceImpl(AccountServiceClient accountClient,
+                                           TransactionDailyRollupRepository rollupRepository,
+                                           ReconciliationRunRepository runRepository,
+                                           ReconciliationChunkRepository chunkRepository,
+                                           ReconciliationDiscrepancyRepository discrepancyRepository,
+                                           PlatformTransactionManager transactionManager,
+                                           ReconciliationProperties properties,
+                                           MeterRegistry meterRegistry) {
+        this.accountClient = accountClient;
+        this.rollupRepository = rollupRepository;
+        this.runRepository = runRepository;
+        this.chunkRepository = chunkRepository;
+        this.discrepancyRepository = discrepancyRepository;
+        this.pageTransaction = new TransactionTemplate(transactionManager);
+        this.properties = properties;
+        AtomicInteger threadNumber = new AtomicInteger();
+        this.workers = Executors.newFixedThreadPool(Math.max(1, properties.getThreads()), runnable -> {
+            Thread thread = new Thread(runnable, "ledger-reconciliation-" + threadNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        this.accountsCounter = Counter.builder("transactions.reconciliation.accounts")
+                .description("Accounts compared with the ledger")
+                .register(meterRegistry);
+        this.skippedCounter = Counter.builder("transactions.reconciliation.skipped")
+                .description("Accounts skipped because they changed while being reconciled")
+                .register(meterRegistry);
+        for (ReconciliationDiscrepancy.Type type : ReconciliationDiscrepancy.Type.values()) {
+            discrepancyCounters.put(type, Counter.builder("transactions.reconciliation.discrepancies")
+                    .tag("type", type.name())
+                    .register(meterRegistry));
+        }
+        this.pageTimer = Timer.builder("transactions.reconciliation.page")
+                .description("Time to fetch, compare and commit one page of accounts")
+                .publishPercentiles(0.5, 0.99)
+                .register(meterRegistry);
+        Gauge.builder("transactions.reconciliation.chunks.remaining", chunksRemaining, AtomicLong::get)
+                .description("Chunks of the current run not yet reconciled")
+                .register(meterRegistry);
+    }
+
+    @Scheduled(cron = "${app.transactions.reconciliation.cron:0 0 3 * * *}")
+    public void scheduledStart() {
+        try {
+            if (!start()) {
+                log.info("Ledger reconciliation is still running; skipping the scheduled start");
+            }
+        } catch (RuntimeException e) {
+            log.error("Failed to start ledger reconciliation", e);
+        }
+    }
+
+    @Override
+    public boolean start() {
+        if (!running.compareAndSet(false, true)) {
+            return false;
+        }
+        try {
+            ReconciliationRun run = findOrCreateRun();
+            if (run == null) {
+                log.info("No accounts or ledger entries to reconcile");
+                running.set(false);
+                return true;
+            }
+            Long runId = run.getId();
+            LocalDateTime executionStart = LocalDateTime.now();
+            long deadline = System.nanoTime() + properties.getMaxDuration().toNanos();
+            chunksRemaining.set(chunkRepository.findUnfinishedIds(runId).size());
+            log.info("Reconciling ledger run {}: {} of {} chunks remaining", runId, chunksRemaining.get(), run.getTotalChunks());
+
+            List<CompletableFuture<Void>> tasks = new ArrayList<>();
+            for (int i = 0; i < Math.max(1, properties.getThreads()); i++) {
+                tasks.add(CompletableFuture.runAsync(() -> work(run, executionStart, deadline), workers));
+            }
+            CompletableFuture.allOf(tasks.toArray(new CompletableFuture[0]))
+                    .whenComplete((ignored, error) -> {
+                        try {
+                            finishExecution(runId, error);
+                        } finally {
+                            running.set(false);
+                        }
+                    });
+            return true;
+        } catch (RuntimeException e) {
+            running.set(false);
+            throw e;
+        }
+    }
+
+    public boolean isRunning() {
+        return running.get();
+    }
+
+    private ReconciliationRun findOrCreateRun() {
+        Optional<ReconciliationRun> active = runRepository.findByActiveKey(ACTIVE_KEY);
+        if (active.isPresent()) {
+            return resume(active.get());
+        }
+
+        AccountServiceClient.AccountIdRange accounts = accountClient.getAccountIdRange();
+        Long minId = min(accounts.minId(), rollupRepository.findMinAccountId().orElse(null));
+        Long maxId = max(accounts.maxId(), rollupRepository.findMaxAccountId().orElse(null));
+        if (minId == null) {
+            return null;
+        }
+        try {
+            return pageTransaction.execute(status -> createRun(minId, maxId));
+        } catch (DataIntegrityViolationException e) {
+            // Another instance created the run between our lookup and insert
+            return resume(runRepository.findByActiveKey(ACTIVE_KEY).orElseThrow(() -> e));
+        }
+    }
+
+    private ReconciliationRun resume(ReconciliationRun run) {
+        if (run.getStatus() == ReconciliationRun.Status.PAUSED) {
+            run.setStatus(ReconciliationRun.Status.RUNNING);
+            run.setLastError(null);
+            try {
+                return runRepository.save(run);
+            } catch (OptimisticLockingFailureException e) {
+                return runRepository.findById(run.getId()).orElseThrow(() -> e);
+            }
+        }
+        return run;
+    }
+
+    private ReconciliationRun createRun(long minId, long maxId) {
+        List<ReconciliationChunk> chunks = new ArrayList<>();
+        for (long from = minId - 1; from < maxId; from += properties.getChunkSize()) {
+            chunks.add(ReconciliationChunk.builder()
+                    .fromId(from)
+                    .toId(Math.min(maxId, from + properties.getChunkSize()))
+                    .checkpointId(from)
+                    .status(ReconciliationChunk.Status.PENDING)
+                    .build());
+        }
+        ReconciliationRun run = runRepository.saveAndFlush(ReconciliationRun.builder()
+                .status(ReconciliationRun.Status.RUNNING)
+                .activeKey(ACTIVE_KEY)
+                .startedAt(LocalDateTime.now())
+                .minAccountId(minId)
+                .maxAccountId(maxId)
+                .totalChunks(chunks.size())
+                .tolerance(properties.getTolerance())
+                .build());
+        chunks.forEach(chunk -> chunk.setRunId(run.getId()));
+        chunkRepository.saveAll(chunks);
+        log.info("Started ledger reconciliation run {} over accounts {}..{} in {} chunks", run.getId(), minId, maxId, chunks.size());
+        return run;
+    }
+
+    private void work(ReconciliationRun run, LocalDateTime executionStart, long deadline) {
+        Long chunkId;
+        while (System.nanoTime() < deadline && (chunkId = claimNext(run.getId())) != null) {
+            reconcileChunk(run, chunkId, executionStart, deadline);
+        }
+    }
+
+    private Long claimNext(Long runId) {
+        for (Long chunkId : chunkRepository.findUnfinishedIds(runId)) {
+            LocalDateTime now = LocalDateTime.now();
+            Integer claimed = pageTransaction.execute(status ->
+                    chunkRepository.claim(chunkId, owner, now, now.minus(properties.getStaleAfter())));
+            if (claimed != null && claimed == 1) {
+                return chunkId;
+            }
+        }
+        return null;
+    }
+
+    private void reconcileChunk(ReconciliationRun run, Long chunkId, LocalDateTime executionStart, long deadline) {
+        ReconciliationChunk chunk = chunkRepository.findById(chunkId).orElseThrow();
+        long cursor = chunk.getCheckpointId();
+        try {
+            while (cursor < chunk.getToId()) {
+                if (System.nanoTime() >= deadline) {
+                    release(chunkId);
+                    return;
+                }
+                long pageStart = System.nanoTime();
+                cursor = reconcilePage(run, chunk, cursor, executionStart);
+                pageTimer.record(System.nanoTime() - pageStart, TimeUnit.NANOSECONDS);
+            }
+            pageTransaction.executeWithoutResult(status ->
+                    chunkRepository.finish(chunkId, owner, ReconciliationChunk.Status.DONE, LocalDateTime.now()));
+            chunksRemaining.decrementAndGet();
+        } catch (RuntimeException e) {
+            log.warn("Ledger reconciliation of accounts ({}, {}] stopped at {}", chunk.getFromId(), chunk.getToId(), cursor, e);
+            release(chunkId);
+            throw e;
+        }
+    }
+
+    private void release(Long chunkId) {
+        pageTransaction.executeWithoutResult(status ->
+                chunkRepository.finish(chunkId, owner, ReconciliationChunk.Status.PENDING, LocalDateTime.now()));
+    }
+
+    /**
+     * @return the last account id the page covered, which is the chunk end once account-service has no more accounts in it
+     */
+    private long reconcilePage(ReconciliationRun run, ReconciliationChunk chunk, long afterId, LocalDateTime executionStart) {
+        List<AccountBalance> accounts = accountClient.getAccountBalances(afterId, chunk.getToId(), properties.getPageSize());
+        long pageEnd = accounts.size() < properties.getPageSize() ? chunk.getToId() : accounts.get(accounts.size() - 1).id();
+        PageResult result = compare(run, accounts, rollupRepository.findLedgerBalances(afterId, pageEnd), executionStart);
+
+        List<ReconciliationDiscrepancy> confirmed = result.discrepancies();
+        if (!confirmed.isEmpty()) {
+            PageResult second = compare(run, accountClient.getAccountBalances(afterId, pageEnd, properties.getPageSize()),
+                    rollupRepository.findLedgerBalances(afterId, pageEnd), executionStart);
+            Set<DiscrepancyKey> seenAgain = new HashSet<>();
+            second.discrepancies().forEach(discrepancy -> seenAgain.add(DiscrepancyKey.of(discrepancy)));
+            confirmed = confirmed.stream().filter(discrepancy -> seenAgain.contains(DiscrepancyKey.of(discrepancy))).toList();
+        }
+
+        List<ReconciliationDiscrepancy> toSave = confirmed;
+        pageTransaction.executeWithoutResult(status -> {
+            discrepancyRepository.saveAll(toSave);
+            if (chunkRepository.checkpoint(chunk.getId(), owner, pageEnd, result.checked(), toSave.size(), LocalDateTime.now()) != 1) {
+                throw new IllegalStateException("Reconciliation chunk " + chunk.getId() + " is no longer owned by this instance");
+            }
+        });
+        accountsCounter.increment(result.checked());
+        skippedCounter.increment(result.skipped());
+        toSave.forEach(discrepancy -> discrepancyCounters.get(discrepancy.getType()).increment());
+        return pageEnd;
+    }
+
+    private record PageResult(long checked, long skipped, List<ReconciliationDiscrepancy> discrepancies) {
+    }
+
+    private record DiscrepancyKey(Long accountId, ReconciliationDiscrepancy.Type type, BigDecimal difference) {
+        static DiscrepancyKey of(ReconciliationDiscrepancy discrepancy) {
+            return new DiscrepancyKey(discrepancy.getAccountId(), discrepancy.getType(), discrepancy.getDifference().stripTrailingZeros());
+        }
+    }
+
+    /**
+     * Merge join of two lists sorted by account id.
+     */
+    private PageResult compare(ReconciliationRun run, List<AccountBalance> accounts, List<LedgerBalanceRow> ledger,
+                               LocalDateTime executionStart) {
+        long checked = 0;
+        long skipped = 0;
+        List<ReconciliationDiscrepancy> discrepancies = new ArrayList<>();
+        int a = 0;
+        int l = 0;
+        while (a < accounts.size() || l < ledger.size()) {
+            AccountBalance account = a < accounts.size() ? accounts.get(a) : null;
+            LedgerBalanceRow row = l < ledger.size() ? ledger.get(l) : null;
+            if (row == null || (account != null && account.id() < row.accountId())) {
+                row = null;
+                a++;
+            } else if (account == null || row.accountId() < account.id()) {
+                account = null;
+                l++;
+            } else {
+                a++;
+                l++;
+            }
+
+            if (account != null && account.updatedAt() != null && account.updatedAt().isAfter(executionStart)) {
+                skipped++;
+                continue;
+            }
+            checked++;
+            ReconciliationDiscrepancy discrepancy = check(run, account, row);
+            if (discrepancy != null) {
+                discrepancies.add(discrepancy);
+            }
+        }
+        return new PageResult(checked, skipped, discrepancies);
+    }
+
+    private ReconciliationDiscrepancy check(ReconciliationRun run, AccountBalance account, LedgerBalanceRow row) {
+        BigDecimal ledgerBalance = row != null ? row.balance() : BigDecimal.ZERO;
+        BigDecimal accountBalance = account != null ? orZero(account.balance()) : null;
+        BigDecimal difference = (accountBalance != null ? accountBalance : BigDecimal.ZERO).subtract(ledgerBalance);
+        if (difference.abs().compareTo(run.getTolerance()) <= 0) {
+            return null;
+        }
+        ReconciliationDiscrepancy.Type type = account == null ? ReconciliationDiscrepancy.Type.UNKNOWN_ACCOUNT
+                : row == null ? ReconciliationDiscrepancy.Type.MISSING_LEDGER
+                : ReconciliationDiscrepancy.Type.BALANCE_MISMATCH;
+        return ReconciliationDiscrepancy.builder()
+                .runId(run.getId())
+                .accountId(account != null ? account.id() : row.accountId())
+                .type(type)
+                .accountBalance(accountBalance)
+                .ledgerBalance(ledgerBalance)
+                .difference(difference)
+                .detectedAt(LocalDateTime.now())
+                .build();
+    }
+
+    private void finishExecution(Long runId, Throwable error) {
+        try {
+            pageTransaction.executeWithoutResult(status -> {
+                ReconciliationRun run = runRepository.findById(runId).orElseThrow();
+                ReconciliationProgressRow progress = chunkRepository.getProgress(runId);
+                if (progress.completedChunks() >= progress.chunks()) {
+                    run.setStatus(ReconciliationRun.Status.COMPLETED);
+                    run.setActiveKey(null);
+                    run.setFinishedAt(LocalDateTime.now());
+                    run.setLastError(null);
+                } else {
+                    run.setStatus(ReconciliationRun.Status.PAUSED);
+                    run.setLastError(error != null ? truncate(rootMessage(error)) : null);
+                }
+                runRepository.save(run);
+                chunksRemaining.set(progress.chunks() - progress.completedChunks());
+                log.info("Ledger reconciliation run {} {}: {} accounts checked, {} discrepancies, {} of {} chunks done",
+                        runId, run.getStatus(), progress.accountsChecked(), progress.discrepancies(),
+                        progress.completedChunks(), progress.chunks());
+            });
+        } catch (RuntimeException e) {
+            // Typically another instance updating the same run; its own finish records the outcome
+            log.warn("Failed to record the outcome of ledger reconciliation run {}", runId, e);
+        }
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public ReconciliationRunDto getRun(Long runId) {
+        return runRepository.findById(runId)
+                .map(this::toDto)
+                .orElseThrow(() -> new ResourceNotFoundException("Reconciliation run not found with id: " + runId));
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Page<ReconciliationRunDto> getRuns(Pageable pageable) {
+        return runRepository.findAllByOrderByIdDesc(pageable).map(this::toDto);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Page<ReconciliationDiscrepancyDto> getDiscrepancies(Long runId, Pageable pageable) {
+        if (!runRepository.existsById(runId)) {
+            throw new ResourceNotFoundException("Reconciliation run not found with id: " + runId);
+        }
+        return discrepancyRepository.findByRunIdOrderByAccountId(runId, pageable)
+                .map(discrepancy -> ReconciliationDiscrepancyDto.builder()
+                        .accountId(discrepancy.getAccountId())
+                        .type(discrepancy.getType().name())
+                        .accountBalance(discrepancy.getAccountBalance())
+                        .ledgerBalance(discrepancy.getLedgerBalance())
+                        .difference(discrepancy.getDifference())
+                        .detectedAt(discrepancy.getDetectedAt())
+                        .build());
+    }
+
+    private ReconciliationRunDto toDto(ReconciliationRun run) {
+        ReconciliationProgressRow progress = chunkRepository.getProgress(run.getId());
+        return ReconciliationRunDto.builder()
+                .id(run.getId())
+                .status(run.getStatus().name())
+                .startedAt(run.getStartedAt())
+                .finishedAt(run.getFinishedAt())
+                .minAccountId(run.getMinAccountId())
+                .maxAccountId(run.getMaxAccountId())
+                .tolerance(run.getTolerance())
+                .totalChunks(run.getTotalChunks())
+                .completedChunks(progress.completedChunks())
+                .accountsChecked(progress.accountsChecked())
+                .discrepancies(progress.discrepancies())
+                .lastError(run.getLastError())
+                .build();
+    }
+
+    private static Long min(Long a, Long b) {
+        return a == null ? b : b == null ? a : Math.min(a, b);
+    }
+
+    private static Long max(Long a, Long b) {
+        return a == null ? b : b == null ? a : Math.max(a, b);
+    }
+
+    private static BigDecimal orZero(BigDecimal value) {
+        return value != null ? value : BigDecimal.ZERO;
+    }
+
+    private static String rootMessage(Throwable error) {
+        Throwable cause = error;
+        while (cause.getCause() != null) {
+            cause = cause.getCause();
+        }
+        return cause.getClass().getSimpleName() + ": " + cause.getMessage();
+    }
+
+    private static String truncate(String message) {
+        return message.length() > MAX_ERROR_LENGTH ? message.substring(0, MAX_ERROR_LENGTH) : message;
+    }
+
+    @PreDestroy
+    public void close() {
+        workers.shutdownNow();
+    }
+}
@@ -0,0 +1,709 @@
+package com.maelcolium.telepesa.transaction.service.impl;
+
+import com.maelcolium.telepesa.models.enums.TransactionStatus;
+import com.maelcolium.telepesa.models.enums.TransactionType;
+import com.maelcolium.telepesa.transaction.dto.TransactionDto;
+import com.maelcolium.telepesa.transaction.dto.TransactionSearchRequest;
+import com.maelcolium.telepesa.transaction.dto.TransactionSearchResultDto;
+import com.maelcolium.telepesa.transaction.repository.TransactionRepository;
+import com.maelcolium.telepesa.transaction.service.TransactionRetentionPolicy;
+import com.maelcolium.telepesa.transaction.service.TransactionSearchService;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.lucene.analysis.Analyzer;
+import org.apache.lucene.analysis.TokenStream;
+import org.apache.lucene.analysis.standard.StandardAnalyzer;
+import org.apache.lucene.analysis.tokenattributes.CharTermAttribute;
+import org.apache.lucene.document.Document;
+import org.apache.lucene.document.Field;
+import org.apache.lucene.document.KeywordField;
+import org.apache.lucene.document.LongField;
+import org.apache.lucene.document.StoredField;
+import org.apache.lucene.document.StringField;
+import org.apache.lucene.document.TextField;
+import org.apache.lucene.index.DocValues;
+import org.apache.lucene.index.IndexWriter;
+import org.apache.lucene.index.IndexWriterConfig;
+import org.apache.lucene.index.IndexableField;
+import org.apache.lucene.index.LeafReaderContext;
+import org.apache.lucene.index.SortedNumericDocValues;
+import org.apache.lucene.index.SortedSetDocValues;
+import org.apache.lucene.index.StoredFields;
+import org.apache.lucene.index.Term;
+import org.apache.lucene.search.BooleanClause;
+import org.apache.lucene.search.BooleanQuery;
+import org.apache.lucene.search.BoostQuery;
+import org.apache.lucene.search.CollectorManager;
+import org.apache.lucene.search.ControlledRealTimeReopenThread;
+import org.apache.lucene.search.IndexSearcher;
+import org.apache.lucene.search.MultiCollectorManager;
+import org.apache.lucene.search.PrefixQuery;
+import org.apache.lucene.search.Query;
+import org.apache.lucene.search.ScoreMode;
+import org.apache.lucene.search.SearcherManager;
+import org.apache.lucene.search.SimpleCollector;
+import org.apache.lucene.search.Sort;
+import org.apache.lucene.search.SortField;
+import org.apache.lucene.search.SortedNumericSelector;
+import org.apache.lucene.search.TermQuery;
+import org.apache.lucene.search.TopFieldCollectorManager;
+import org.apache.lucene.search.TopFieldDocs;
+import org.apache.lucene.store.ByteBuffersDirectory;
+import org.apache.lucene.store.Directory;
+import org.apache.lucene.store.FSDirectory;
+import org.apache.lucene.util.BytesRef;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.util.StringUtils;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+
+/**
+ * Embedded Lucene index of the hot window, one document per transaction.
+ *
+ * <p>Writes are indexed after commit and become searchable within a second. Every index commit
+ * records how far the index has been synced with the database, so on start-up, and every sync
+ * interval after that, rows written since then are read back in; that also picks up rows written
+ * by other instances. A rebuild re-reads the hot window into a new generation of documents and
+ * drops the older generation once it is done, so searches keep working while it runs.</p>
+ */
+@Service
+@Slf4j
+public class LuceneTransactionSearchService implements TransactionSearchService {
+
+    /**
+     * Deepest hit a search can page to; deeper paging should narrow the query instead.
+     */
+    static final int MAX_RESULTS = 1000;
+    private static final int MAX_QUERY_TERMS = 10;
+    private static final long[] AMOUNT_EDGES_CENTS = {100_00L, 1_000_00L, 10_000_00L, 100_000_00L};
+    // Rows are timestamped before they commit, so each sync looks a little further back than the last one ended
+    private static final long SYNC_OVERLAP_MINUTES = 1;
+
+    private static final String ID = "id";
+    private static final String USER_ID = "userId";
+    private static final String GENERATION = "generation";
+    private static final String TYPE = "type";
+    private static final String STATUS = "status";
+    private static final String AMOUNT = "amount";
+    private static final String PROCESSED_AT = "processedAt";
+    private static final String MONTH = "month";
+    private static final String TEXT = "text";
+    private static final String REFERENCE = "reference";
+    private static final String TRANSACTION_ID = "transactionId";
+    private static final String FROM_ACCOUNT_ID = "fromAccountId";
+    private static final String TO_ACCOUNT_ID = "toAccountId";
+    private static final String DESCRIPTION = "description";
+    private static final String REFERENCE_NUMBER = "referenceNumber";
+    private static final String AMOUNT_VALUE = "amountValue";
+    private static final String PROCESSED_AT_VALUE = "processedAtValue";
+    private static final String FEE_AMOUNT = "feeAmount";
+    private static final String TOTAL_AMOUNT = "totalAmount";
+    private static final String CREATED_AT = "createdAt";
+    private static final String UPDATED_AT = "updatedAt";
+    private static final String CATEGORY = "category";
+    private static final String SYNCED_AT = "syncedAt";
+
+    private static final SortField NEWEST_FIRST = LongField.newSortField(PROCESSED_AT, true, SortedNumericSelector.Type.MIN);
+
+    private final TransactionRepository transactionRepository;
+    private final TransactionRetentionPolicy retentionPolicy;
+    private final TransactionTemplate readTransaction;
+    private final Analyzer analyzer = new StandardAnalyzer();
+    private final Directory directory;
+    private final IndexWriter writer;
+    private final SearcherManager searcherManager;
+    private final ControlledRealTimeReopenThread<IndexSearcher> reopenThread;
+    private final ExecutorService rebuildExecutor;
+    private final AtomicBoolean rebuilding = new AtomicBoolean();
+    // Incremental writes hold the read lock; a sync or rebuild takes the write lock to switch generation
+    private final ReadWriteLock generationLock = new ReentrantReadWriteLock();
+    private final Set<Long> writtenDuringSync = ConcurrentHashMap.newKeySet();
+    private volatile boolean syncing;
+    private volatile long generation;
+    private volatile LocalDateTime syncedAt;
+
+    public LuceneTransactionSearchService(TransactionRepository transactionRepository,
+                                          TransactionRetentionPolicy retentionPolicy,
+                                          PlatformTransactionManager transactionManager,
+                                          @Value("${app.transactions.search.index-dir:}") String indexDirectory) throws IOException {
+        this.transactionRepository = transactionRepository;
+        this.retentionPolicy = retentionPolicy;
+        this.readTransaction = new TransactionTemplate(transactionManager);
+        this.readTransaction.setReadOnly(true);
+
+        this.directory = StringUtils.hasText(indexDirectory)
+                ? FSDirectory.open(Files.createDirectories(Paths.get(indexDirectory)))
+                : new ByteBuffersDirectory();
+        this.writer = new IndexWriter(directory, new IndexWriterConfig(analyzer)
+                .setOpenMode(IndexWriterConfig.OpenMode.CREATE_OR_APPEND));
+
+        Map<String, String> commitData = new HashMap<>();
+        if (writer.getLiveCommitData() != null) {
+            writer.getLiveCommitData().forEach(entry -> commitData.put(entry.getKey(), entry.getValue()));
+        }
+        this.generation = Long.parseLong(commitData.getOrDefault(GENERATION, "0"));
+        this.syncedAt = commitData.containsKey(SYNCED_AT) ? LocalDateTime.parse(commitData.get(SYNCED_AT)) : null;
+
+        this.searcherManager = new SearcherManager(writer, null);
+        this.reopenThread = new ControlledRealTimeReopenThread<>(writer, searcherManager, 1.0, 0.05);
+        this.reopenThread.setName("transaction-search-reopen");
+        this.reopenThread.setDaemon(true);
+        this.reopenThread.start();
+        this.rebuildExecutor = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "transaction-search-rebuild");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        if (syncedAt == null || writer.getDocStats().numDocs == 0) {
+            rebuild();
+        } else {
+            rebuildExecutor.execute(this::scheduledSync);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${app.transactions.search.sync-interval:30000}",
+               initialDelayString = "${app.transactions.search.sync-interval:30000}")
+    public void scheduledSync() {
+        if (rebuilding.get()) {
+            return;
+        }
+        try {
+            sync();
+        } catch (IOException | RuntimeException e) {
+            log.error("Failed to sync the transaction search index", e);
+        }
+    }
+
+    @Override
+    public void index(List<TransactionDto> transactions) {
+        if (transactions.isEmpty()) {
+            return;
+        }
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            write(transactions);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                write(transactions);
+            }
+        });
+    }
+
+    @Override
+    public TransactionSearchResultDto search(Long userId, TransactionSearchRequest request) {
+        int page = request.getPage();
+        int size = request.getSize();
+        if ((long) (page + 1) * size > MAX_RESULTS) {
+            throw new IllegalArgumentException("Search results are limited to the first " + MAX_RESULTS + " matches");
+        }
+        Query query = buildQuery(userId, request);
+        Sort sort = StringUtils.hasText(request.getQ()) ? new Sort(SortField.FIELD_SCORE, NEWEST_FIRST) : new Sort(NEWEST_FIRST);
+
+        try {
+            IndexSearcher searcher = searcherManager.acquire();
+            try {
+                Object[] results = searcher.search(query, new MultiCollectorManager(
+                        new TopFieldCollectorManager(sort, (page + 1) * size, null, Integer.MAX_VALUE),
+                        new FacetCollectorManager()));
+                TopFieldDocs topDocs = (TopFieldDocs) results[0];
+                FacetCollector facets = (FacetCollector) results[1];
+
+                StoredFields storedFields = searcher.storedFields();
+                List<TransactionDto> content = new ArrayList<>(size);
+                for (int i = page * size; i < topDocs.scoreDocs.length; i++) {
+                    content.add(toDto(storedFields.document(topDocs.scoreDocs[i].doc)));
+                }
+                return TransactionSearchResultDto.builder()
+                        .content(content)
+                        .totalHits(topDocs.totalHits.value)
+                        .page(page)
+                        .size(size)
+                        .types(counts(TransactionType.class, facets.types))
+                        .statuses(counts(TransactionStatus.class, facets.statuses))
+                        .amounts(amountRanges(facets.amounts))
+                        .months(facets.months)
+                        .build();
+            } finally {
+                searcherManager.release(searcher);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Transaction search failed", e);
+        }
+    }
+
+    @Override
+    public boolean rebuild() {
+        if (!rebuilding.compareAndSet(false, true)) {
+            return false;
+        }
+        rebuildExecutor.execute(() -> {
+            try {
+                doRebuild();
+            } catch (IOException | RuntimeException e) {
+                log.error("Failed to rebuild the transaction search index", e);
+            } finally {
+                rebuilding.set(false);
+            }
+        });
+        return true;
+    }
+
+    public boolean isRebuilding() {
+        return rebuilding.get();
+    }
+
+    /**
+     * Make every write indexed so far visible to searches now rather than within the second.
+     */
+    public void refresh() throws IOException {
+        searcherManager.maybeRefreshBlocking();
+    }
+
+    private synchronized void doRebuild() throws IOException {
+        LocalDateTime startedAt = LocalDateTime.now();
+        long rebuildGeneration = beginSync(true);
+        try {
+            long indexed = 0;
+            YearMonth last = YearMonth.from(startedAt).plusMonths(1);
+            for (YearMonth month = YearMonth.from(retentionPolicy.hotWindowStart()); !month.isAfter(last); month = month.plusMonths(1)) {
+                LocalDateTime from = month.atDay(1).atStartOfDay();
+                LocalDateTime to = month.plusMonths(1).atDay(1).atStartOfDay();
+                indexed += readIntoIndex(() -> transactionRepository.streamDtosByProcessedAtRange(from, to), rebuildGeneration);
+            }
+            writer.deleteDocuments(LongField.newRangeQuery(GENERATION, Long.MIN_VALUE, rebuildGeneration - 1));
+            commit(startedAt);
+            log.info("Rebuilt transaction search index with {} transactions", indexed);
+        } finally {
+            endSync();
+        }
+    }
+
+    private synchronized void sync() throws IOException {
+        LocalDateTime since = syncedAt;
+        if (since == null) {
+            return;
+        }
+        LocalDateTime startedAt = LocalDateTime.now();
+        LocalDateTime hotWindowStart = retentionPolicy.hotWindowStart();
+        long syncGeneration = beginSync(false);
+        try {
+            long indexed = readIntoIndex(() -> transactionRepository.streamDtosChangedSince(
+                    hotWindowStart, since.minusMinutes(SYNC_OVERLAP_MINUTES)), syncGeneration);
+            // Archived months leave the database; take them out of the index as well
+            writer.deleteDocuments(LongField.newRangeQuery(PROCESSED_AT, Long.MIN_VALUE, toMillis(hotWindowStart) - 1));
+            commit(startedAt);
+            log.debug("Synced {} transactions into the search index", indexed);
+        } finally {
+            endSync();
+        }
+    }
+
+    private long beginSync(boolean newGeneration) {
+        generationLock.writeLock().lock();
+        try {
+            if (newGeneration) {
+                generation++;
+            }
+            writtenDuringSync.clear();
+            syncing = true;
+            return generation;
+        } finally {
+            generationLock.writeLock().unlock();
+        }
+    }
+
+    private void endSync() {
+        syncing = false;
+        writtenDuringSync.clear();
+    }
+
+    private long readIntoIndex(Supplier<Stream<TransactionDto>> rows, long documentGeneration) throws IOException {
+        try {
+            Long indexed = readTransaction.execute(status -> {
+                long count = 0;
+                try (Stream<TransactionDto> stream = rows.get()) {
+                    for (Iterator<TransactionDto> it = stream.iterator(); it.hasNext(); ) {
+                        TransactionDto transaction = it.next();
+                        // A write indexed since the sync started is newer than what the sync has read
+                        if (!writtenDuringSync.contains(transaction.getId())) {
+                            writer.updateDocument(idTerm(transaction.getId()), toDocument(transaction, documentGeneration));
+                            count++;
+                        }
+                    }
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+                return count;
+            });
+            return indexed != null ? indexed : 0L;
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    private void write(List<TransactionDto> transactions) {
+        generationLock.readLock().lock();
+        try {
+            for (TransactionDto transaction : transactions) {
+                if (syncing) {
+                    writtenDuringSync.add(transaction.getId());
+                }
+                writer.updateDocument(idTerm(transaction.getId()), toDocument(transaction, generation));
+            }
+        } catch (IOException | RuntimeException e) {
+            // The next sync reads these rows back in from the database
+            log.warn("Failed to index {} transactions", transactions.size(), e);
+        } finally {
+            generationLock.readLock().unlock();
+        }
+    }
+
+    private void commit(LocalDateTime syncedUpTo) throws IOException {
+        writer.setLiveCommitData(Map.of(
+                SYNCED_AT, syncedUpTo.toString(),
+                GENERATION, Long.toString(generation)).entrySet());
+        writer.commit();
+        syncedAt = syncedUpTo;
+    }
+
+    @PreDestroy
+    public void close() throws IOException {
+        rebuildExecutor.shutdownNow();
+        reopenThread.close();
+        searcherManager.close();
+        if (writer.isOpen()) {
+            if (syncedAt != null) {
+                commit(syncedAt);
+            }
+            writer.close();
+        }
+        directory.close();
+    }
+
+    private Query buildQuery(Long userId, TransactionSearchRequest request) {
+        LocalDateTime from = retentionPolicy.clamp(request.getFrom());
+        long to = request.getTo() != null ? toMillis(request.getTo()) : Long.MAX_VALUE;
+        BooleanQuery.Builder query = new BooleanQuery.Builder()
+                .add(LongField.newExactQuery(USER_ID, userId), BooleanClause.Occur.FILTER)
+                .add(LongField.newRangeQuery(PROCESSED_AT, toMillis(from), to), BooleanClause.Occur.FILTER);
+
+        if (StringUtils.hasText(request.getQ())) {
+            List<String> terms = analyze(request.getQ());
+            for (int i = 0; i < terms.size(); i++) {
+                Query term = new TermQuery(new Term(TEXT, terms.get(i)));
+                if (i == terms.size() - 1) {
+                    // The last word may still be being typed
+                    term = new BooleanQuery.Builder()
+                            .add(term, BooleanClause.Occur.SHOULD)
+                            .add(new PrefixQuery(new Term(TEXT, terms.get(i))), BooleanClause.Occur.SHOULD)
+                            .build();
+                }
+                query.add(term, BooleanClause.Occur.MUST);
+            }
+            // An exact reference number ranks first; it is the whole query when the text has no words in it
+            query.add(new BoostQuery(new TermQuery(new Term(REFERENCE, request.getQ().trim().toLowerCase(Locale.ROOT))), 5f),
+                    terms.isEmpty() ? BooleanClause.Occur.MUST : BooleanClause.Occur.SHOULD);
+        }
+        if (request.getTypes() != null && !request.getTypes().isEmpty()) {
+            query.add(KeywordField.newSetQuery(TYPE, names(request.getTypes())), BooleanClause.Occur.FILTER);
+        }
+        if (request.getStatuses() != null && !request.getStatuses().isEmpty()) {
+            query.add(KeywordField.newSetQuery(STATUS, names(request.getStatuses())), BooleanClause.Occur.FILTER);
+        }
+        if (request.getMinAmount() != null || request.getMaxAmount() != null) {
+            long min = request.getMinAmount() != null ? toCents(request.getMinAmount()) : Long.MIN_VALUE;
+            long max = request.getMaxAmount() != null ? toCents(request.getMaxAmount()) : Long.MAX_VALUE;
+            if (min > max) {
+                throw new IllegalArgumentException("Minimum amount must not exceed maximum amount");
+            }
+            query.add(LongField.newRangeQuery(AMOUNT, min, max), BooleanClause.Occur.FILTER);
+        }
+        return query.build();
+    }
+
+    private List<String> analyze(String text) {
+        List<String> terms = new ArrayList<>();
+        try (TokenStream tokens = analyzer.tokenStream(TEXT, text)) {
+            CharTermAttribute term = tokens.addAttribute(CharTermAttribute.class);
+            tokens.reset();
+            while (terms.size() < MAX_QUERY_TERMS && tokens.incrementToken()) {
+                terms.add(term.toString());
+            }
+            tokens.end();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return terms;
+    }
+
+    private static Document toDocument(TransactionDto transaction, long generation) {
+        Document document = new Document();
+        document.add(new StringField(ID, Long.toString(transaction.getId()), Field.Store.YES));
+        document.add(new LongField(USER_ID, transaction.getUserId(), Field.Store.YES));
+        document.add(new LongField(GENERATION, generation));
+        document.add(new KeywordField(TYPE, transaction.getTransactionType().name(), Field.Store.YES));
+        document.add(new KeywordField(STATUS, transaction.getStatus().name(), Field.Store.YES));
+        document.add(new LongField(AMOUNT, toCents(transaction.getAmount())));
+        document.add(new LongField(PROCESSED_AT, toMillis(transaction.getProcessedAt())));
+        document.add(new KeywordField(MONTH, YearMonth.from(transaction.getProcessedAt()).toString(), Field.Store.NO));
+        document.add(new TextField(TEXT, searchableText(transaction), Field.Store.NO));
+        if (transaction.getReferenceNumber() != null) {
+            document.add(new StringField(REFERENCE, transaction.getReferenceNumber().toLowerCase(Locale.ROOT), Field.Store.NO));
+        }
+
+        store(document, TRANSACTION_ID, transaction.getTransactionId());
+        store(document, FROM_ACCOUNT_ID, transaction.getFromAccountId());
+        store(document, TO_ACCOUNT_ID, transaction.getToAccountId());
+        store(document, DESCRIPTION, transaction.getDescription());
+        store(document, REFERENCE_NUMBER, transaction.getReferenceNumber());
+        store(document, AMOUNT_VALUE, transaction.getAmount());
+        store(document, PROCESSED_AT_VALUE, transaction.getProcessedAt());
+        store(document, FEE_AMOUNT, transaction.getFeeAmount());
+        store(document, TOTAL_AMOUNT, transaction.getTotalAmount());
+        store(document, CREATED_AT, transaction.getCreatedAt());
+        store(document, UPDATED_AT, transaction.getUpdatedAt());
+        store(document, CATEGORY, transaction.getCategory());
+        return document;
+    }
+
+    private static String searchableText(TransactionDto transaction) {
+        StringBuilder text = new StringBuilder();
+        for (Object value : new Object[]{transaction.getDescription(), transaction.getReferenceNumber(),
+                transaction.getTransactionId(), transaction.getFromAccountId(), transaction.getToAccountId()}) {
+            if (value != null) {
+                text.append(value).append(' ');
+            }
+        }
+        return text.toString();
+    }
+
+    private static TransactionDto toDto(Document document) {
+        return TransactionDto.builder()
+                .id(Long.parseLong(document.get(ID)))
+                .transactionId(document.get(TRANSACTION_ID))
+                .fromAccountId(storedLong(document, FROM_ACCOUNT_ID))
+                .toAccountId(storedLong(document, TO_ACCOUNT_ID))
+                .amount(storedDecimal(document, AMOUNT_VALUE))
+                .transactionType(TransactionType.valueOf(document.get(TYPE)))
+                .status(TransactionStatus.valueOf(document.get(STATUS)))
+                .description(document.get(DESCRIPTION))
+                .referenceNumber(document.get(REFERENCE_NUMBER))
+                .processedAt(storedTime(document, PROCESSED_AT_VALUE))
+                .userId(storedLong(document, USER_ID))
+                .feeAmount(storedDecimal(document, FEE_AMOUNT))
+                .totalAmount(storedDecimal(document, TOTAL_AMOUNT))
+                .createdAt(storedTime(document, CREATED_AT))
+                .updatedAt(storedTime(document, UPDATED_AT))
+                .category(document.get(CATEGORY))
+                .build();
+    }
+
+    private static void store(Document document, String name, Object value) {
+        if (value instanceof Long number) {
+            document.add(new StoredField(name, number));
+        } else if (value instanceof BigDecimal decimal) {
+            document.add(new StoredField(name, decimal.toPlainString()));
+        } else if (value != null) {
+            document.add(new StoredField(name, value.toString()));
+        }
+    }
+
+    private static Long storedLong(Document document, String name) {
+        IndexableField field = document.getField(name);
+        return field != null ? field.numericValue().longValue() : null;
+    }
+
+    private static BigDecimal storedDecimal(Document document, String name) {
+        String value = document.get(name);
+        return value != null ? new BigDecimal(value) : null;
+    }
+
+    private static LocalDateTime storedTime(Document document, String name) {
+        String value = document.get(name);
+        return value != null ? LocalDateTime.parse(value) : null;
+    }
+
+    private static Term idTerm(Long id) {
+        return new Term(ID, Long.toString(id));
+    }
+
+    private static long toCents(BigDecimal amount) {
+        return amount.setScale(2, RoundingMode.HALF_UP).unscaledValue().longValueExact();
+    }
+
+    private static long toMillis(LocalDateTime time) {
+        return time.toInstant(ZoneOffset.UTC).toEpochMilli();
+    }
+
+    private static List<BytesRef> names(Collection<? extends Enum<?>> values) {
+        return values.stream().map(value -> new BytesRef(value.name())).toList();
+    }
+
+    private static <E extends Enum<E>> Map<E, Long> counts(Class<E> type, long[] counts) {
+        Map<E, Long> result = new EnumMap<>(type);
+        E[] constants = type.getEnumConstants();
+        for (int i = 0; i < counts.length; i++) {
+            if (counts[i] > 0) {
+                result.put(constants[i], counts[i]);
+            }
+        }
+        return result;
+    }
+
+    private static List<TransactionSearchResultDto.AmountRange> amountRanges(long[] counts) {
+        List<TransactionSearchResultDto.AmountRange> ranges = new ArrayList<>(counts.length);
+        for (int i = 0; i < counts.length; i++) {
+            ranges.add(TransactionSearchResultDto.AmountRange.builder()
+                    .from(i == 0 ? BigDecimal.ZERO.setScale(2) : BigDecimal.valueOf(AMOUNT_EDGES_CENTS[i - 1], 2))
+                    .to(i < AMOUNT_EDGES_CENTS.length ? BigDecimal.valueOf(AMOUNT_EDGES_CENTS[i], 2) : null)
+                    .count(counts[i])
+                    .build());
+        }
+        return ranges;
+    }
+
+    private static int amountBucket(long cents) {
+        int bucket = 0;
+        while (bucket < AMOUNT_EDGES_CENTS.length && cents >= AMOUNT_EDGES_CENTS[bucket]) {
+            bucket++;
+        }
+        return bucket;
+    }
+
+    /**
+     * Counts every match by type, status, amount range and month straight from doc values.
+     */
+    private static final class FacetCollector extends SimpleCollector {
+
+        private final long[] types = new long[TransactionType.values().length];
+        private final long[] statuses = new long[TransactionStatus.values().length];
+        private final long[] amounts = new long[AMOUNT_EDGES_CENTS.length + 1];
+        private final Map<String, Long> months = new TreeMap<>();
+
+        private SortedSetDocValues typeValues;
+        private SortedSetDocValues statusValues;
+        private SortedSetDocValues monthValues;
+        private SortedNumericDocValues amountValues;
+        private int[] typeOrdinals;
+        private int[] statusOrdinals;
+        private long[] leafMonthCounts;
+
+        @Override
+        protected void doSetNextReader(LeafReaderContext context) throws IOException {
+            typeValues = DocValues.getSortedSet(context.reader(), TYPE);
+            typeOrdinals = enumOrdinals(typeValues, TransactionType::valueOf);
+            statusValues = DocValues.getSortedSet(context.reader(), STATUS);
+            statusOrdinals = enumOrdinals(statusValues, TransactionStatus::valueOf);
+            monthValues = DocValues.getSortedSet(context.reader(), MONTH);
+            leafMonthCounts = new long[(int) monthValues.getValueCount()];
+            amountValues = DocValues.getSortedNumeric(context.reader(), AMOUNT);
+        }
+
+        @Override
+        public void collect(int doc) throws IOException {
+            if (typeValues.advanceExact(doc)) {
+                types[typeOrdinals[(int) typeValues.nextOrd()]]++;
+            }
+            if (statusValues.advanceExact(doc)) {
+                statuses[statusOrdinals[(int) statusValues.nextOrd()]]++;
+            }
+            if (amountValues.advanceExact(doc)) {
+                amounts[amountBucket(amountValues.nextValue())]++;
+            }
+            if (monthValues.advanceExact(doc)) {
+                leafMonthCounts[(int) monthValues.nextOrd()]++;
+            }
+        }
+
+        @Override
+        public void finish() throws IOException {
+            for (int ord = 0; ord < leafMonthCounts.length; ord++) {
+                if (leafMonthCounts[ord] > 0) {
+                    months.merge(monthValues.lookupOrd(ord).utf8ToString(), leafMonthCounts[ord], Long::sum);
+                }
+            }
+        }
+
+        @Override
+        public ScoreMode scoreMode() {
+            return ScoreMode.COMPLETE_NO_SCORES;
+        }
+
+        private void merge(FacetCollector other) {
+            for (int i = 0; i < types.length; i++) {
+                types[i] += other.types[i];
+            }
+            for (int i = 0; i < statuses.length; i++) {
+                statuses[i] += other.statuses[i];
+            }
+            for (int i = 0; i < amounts.length; i++) {
+                amounts[i] += other.amounts[i];
+            }
+            other.months.forEach((month, count) -> months.merge(month, count, Long::sum));
+        }
+
+        private static <E extends Enum<E>> int[] enumOrdinals(SortedSetDocValues values, Function<String, E> parse) throws IOException {
+            int[] ordinals = new int[(int) values.getValueCount()];
+            for (int ord = 0; ord < ordinals.length; ord++) {
+                ordinals[ord] = parse.apply(values.lookupOrd(ord).utf8ToString()).ordinal();
+            }
+            return ordinals;
+        }
+    }
+
+    private static final class FacetCollectorManager implements CollectorManager<FacetCollector, FacetCollector> {
+
+        @Override
+        public FacetCollector newCollector() {
+            return new FacetCollector();
+        }
+
+        @Override
+        public FacetCollector reduce(Collection<FacetCollector> collectors) {
+            FacetCollector total = new FacetCollector();
+            collectors.forEach(total::merge);
+            return total;
+        }
+    }
+}
@@ -0,0 +1,291 @@
+package com.maelcolium.telepesa.transaction.service.impl;
+
+import com.maelcolium.telepesa.models.enums.TransactionType;
+import com.maelcolium.telepesa.transaction.analytics.QuickPaySketches;
+import com.maelcolium.telepesa.transaction.analytics.SpaceSavingSketch;
+import com.maelcolium.telepesa.transaction.dto.QuickPayHistoryRow;
+import com.maelcolium.telepesa.transaction.dto.QuickPaySuggestionsDto;
+import com.maelcolium.telepesa.transaction.model.QuickPaySketch;
+import com.maelcolium.telepesa.transaction.model.Transaction;
+import com.maelcolium.telepesa.transaction.repository.QuickPaySketchRepository;
+import com.maelcolium.telepesa.transaction.repository.TransactionRepository;
+import com.maelcolium.telepesa.transaction.service.QuickPaySuggestionService;
+import com.maelcolium.telepesa.transaction.service.TransactionRetentionPolicy;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Serves suggestions from per-user {@link QuickPaySketches} held in a bounded LRU map.
+ *
+ * <p>Each cached user has the merged view that reads are answered from and a delta of what this
+ * instance counted since its last flush. Flushes run on a fixed delay and merge each delta into
+ * the stored row under a row lock, so instances counting the same user add up rather than
+ * overwrite each other. A user with no stored row is seeded once from their online history.
+ * Users that have not changed locally are re-read after {@code refresh-after}, to pick up what
+ * other instances counted.</p>
+ */
+@Service
+@Slf4j
+public class QuickPaySuggestionServiceImpl implements QuickPaySuggestionService {
+
+    private static final List<TransactionType> COUNTED_TYPES = List.of(TransactionType.TRANSFER, TransactionType.PAYMENT);
+    private static final long NO_TRANSACTION = -1L;
+
+    private final QuickPaySketchRepository sketchRepository;
+    private final TransactionRepository transactionRepository;
+    private final TransactionRetentionPolicy retentionPolicy;
+    private final TransactionTemplate flushTransaction;
+    private final int capacity;
+    private final long refreshAfterMillis;
+    // Guarded by itself; access order, so the least recently used user is evicted first
+    private final Map<Long, UserSketches> users;
+    // Users evicted with counts not yet flushed
+    private final Map<Long, UserSketches> evicted = new ConcurrentHashMap<>();
+
+    public QuickPaySuggestionServiceImpl(QuickPaySketchRepository sketchRepository,
+                                         TransactionRepository transactionRepository,
+                                         TransactionRetentionPolicy retentionPolicy,
+                                         PlatformTransactionManager transactionManager,
+                                         @Value("${app.transactions.quick-pay.capacity:16}") int capacity,
+                                         @Value("${app.transactions.quick-pay.max-users:100000}") int maxUsers,
+                                         @Value("${app.transactions.quick-pay.refresh-after:300000}") long refreshAfterMillis) {
+        this.sketchRepository = sketchRepository;
+        this.transactionRepository = transactionRepository;
+        this.retentionPolicy = retentionPolicy;
+        this.flushTransaction = new TransactionTemplate(transactionManager);
+        this.capacity = capacity;
+        this.refreshAfterMillis = refreshAfterMillis;
+        this.users = new LinkedHashMap<>(1024, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, UserSketches> eldest) {
+                if (size() <= maxUsers) {
+                    return false;
+                }
+                if (eldest.getValue().isDirty()) {
+                    evicted.put(eldest.getKey(), eldest.getValue());
+                }
+                return true;
+            }
+        };
+    }
+
+    private final class UserSketches {
+        private QuickPaySketches view;
+        private QuickPaySketches delta = new QuickPaySketches(capacity);
+        // History seeded here that is only written if no other instance stored the user first
+        private QuickPaySketches seed;
+        private long loadedAt = System.currentTimeMillis();
+
+        private UserSketches(QuickPaySketches view, QuickPaySketches seed) {
+            this.view = view;
+            this.seed = seed;
+        }
+
+        synchronized boolean isDirty() {
+            return seed != null || !delta.isEmpty();
+        }
+
+        synchronized boolean isStale(long now) {
+            return seed == null && delta.isEmpty() && now - loadedAt > refreshAfterMillis;
+        }
+
+        synchronized void record(Transaction transaction) {
+            view.record(transaction.getTransactionType(), transaction.getToAccountId(), transaction.getAmount());
+            delta.record(transaction.getTransactionType(), transaction.getToAccountId(), transaction.getAmount());
+        }
+    }
+
+    @Override
+    public void recordCompletion(Transaction transaction) {
+        if (!QuickPaySketches.counts(transaction.getTransactionType())) {
+            return;
+        }
+        Long userId = transaction.getUserId();
+        long transactionId = transaction.getId() != null ? transaction.getId() : NO_TRANSACTION;
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            sketches(userId, transactionId).record(transaction);
+            return;
+        }
+        // Load while the transaction is still open, so a seed from history can leave this one out,
+        // and count it only once it has committed
+        sketches(userId, transactionId);
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                sketches(userId, transactionId).record(transaction);
+            }
+        });
+    }
+
+    @Override
+    public QuickPaySuggestionsDto getSuggestions(Long userId, int limit) {
+        if (limit < 1 || limit > capacity) {
+            throw new IllegalArgumentException("limit must be between 1 and " + capacity);
+        }
+        UserSketches sketches = sketches(userId, NO_TRANSACTION);
+        synchronized (sketches) {
+            QuickPaySketches view = sketches.view;
+            return QuickPaySuggestionsDto.builder()
+                    .userId(userId)
+                    .recipients(accounts(view.recipients(), limit))
+                    .billers(accounts(view.billers(), limit))
+                    .amounts(view.amounts().top(limit).stream()
+                            .map(entry -> QuickPaySuggestionsDto.AmountSuggestion.builder()
+                                    .amount(QuickPaySketches.fromCents(entry.key()))
+                                    .count(entry.count())
+                                    .maxOvercount(entry.error())
+                                    .build())
+                            .toList())
+                    .build();
+        }
+    }
+
+    private static List<QuickPaySuggestionsDto.AccountSuggestion> accounts(SpaceSavingSketch sketch, int limit) {
+        return sketch.top(limit).stream()
+                .map(entry -> QuickPaySuggestionsDto.AccountSuggestion.builder()
+                        .accountId(entry.key())
+                        .count(entry.count())
+                        .maxOvercount(entry.error())
+                        .build())
+                .toList();
+    }
+
+    private UserSketches sketches(Long userId, long excludeTransactionId) {
+        UserSketches cached;
+        synchronized (users) {
+            cached = users.get(userId);
+            if (cached == null) {
+                cached = evicted.remove(userId);
+                if (cached != null) {
+                    users.put(userId, cached);
+                }
+            }
+        }
+        if (cached != null && !cached.isStale(System.currentTimeMillis())) {
+            return cached;
+        }
+        UserSketches loaded = load(userId, excludeTransactionId);
+        synchronized (users) {
+            UserSketches current = users.get(userId);
+            // Keep one that was counted into meanwhile; only a stale, unchanged one is replaced
+            if (current != null && current != cached) {
+                return current;
+            }
+            if (current != null && current.isDirty()) {
+                return current;
+            }
+            users.put(userId, loaded);
+            return loaded;
+        }
+    }
+
+    private UserSketches load(Long userId, long excludeTransactionId) {
+        return sketchRepository.findById(userId)
+                .map(row -> new UserSketches(QuickPaySketches.fromBytes(row.getData(), capacity), null))
+                .orElseGet(() -> {
+                    QuickPaySketches seed = new QuickPaySketches(capacity);
+                    for (QuickPayHistoryRow row : transactionRepository.findQuickPayHistory(
+                            userId, COUNTED_TYPES, retentionPolicy.hotWindowStart(), excludeTransactionId)) {
+                        seed.record(row.transactionType(), row.toAccountId(), row.amount());
+                    }
+                    return new UserSketches(seed.copy(), seed.isEmpty() ? null : seed);
+                });
+    }
+
+    @Scheduled(fixedDelayString = "${app.transactions.quick-pay.flush-interval:5000}",
+               initialDelayString = "${app.transactions.quick-pay.flush-interval:5000}")
+    public void flush() {
+        Map<Long, UserSketches> dirty = new LinkedHashMap<>();
+        synchronized (users) {
+            users.forEach((userId, sketches) -> {
+                if (sketches.isDirty()) {
+                    dirty.put(userId, sketches);
+                }
+            });
+        }
+        for (Long userId : new ArrayList<>(evicted.keySet())) {
+            UserSketches sketches = evicted.remove(userId);
+            if (sketches != null) {
+                dirty.putIfAbsent(userId, sketches);
+            }
+        }
+        int failed = 0;
+        for (Map.Entry<Long, UserSketches> entry : dirty.entrySet()) {
+            if (!flush(entry.getKey(), entry.getValue())) {
+                failed++;
+            }
+        }
+        if (failed > 0) {
+            log.warn("Failed to store quick-pay counts of {} of {} users; retrying on the next flush", failed, dirty.size());
+        }
+    }
+
+    private boolean flush(Long userId, UserSketches sketches) {
+        QuickPaySketches delta;
+        QuickPaySketches seed;
+        synchronized (sketches) {
+            delta = sketches.delta;
+            seed = sketches.seed;
+            sketches.delta = new QuickPaySketches(capacity);
+            sketches.seed = null;
+        }
+        try {
+            QuickPaySketches stored = flushTransaction.execute(status -> {
+                QuickPaySketch row = sketchRepository.findForUpdate(userId).orElse(null);
+                QuickPaySketches merged;
+                if (row != null) {
+                    // Another instance stored this user first; its seed already covers the history
+                    merged = QuickPaySketches.fromBytes(row.getData(), capacity);
+                } else {
+                    merged = seed != null ? seed : new QuickPaySketches(capacity);
+                    row = QuickPaySketch.builder().userId(userId).build();
+                }
+                merged.merge(delta);
+                row.setData(merged.toBytes());
+                row.setUpdatedAt(LocalDateTime.now());
+                sketchRepository.save(row);
+                return merged;
+            });
+            synchronized (sketches) {
+                stored.merge(sketches.delta);
+                sketches.view = stored;
+                sketches.loadedAt = System.currentTimeMillis();
+            }
+            return true;
+        } catch (RuntimeException e) {
+            log.debug("Failed to store quick-pay counts of user {}", userId, e);
+            synchronized (sketches) {
+                delta.merge(sketches.delta);
+                sketches.delta = delta;
+                if (sketches.seed == null) {
+                    sketches.seed = seed;
+                }
+            }
+            synchronized (users) {
+                if (!users.containsKey(userId)) {
+                    evicted.putIfAbsent(userId, sketches);
+                }
+            }
+            return false;
+        }
+    }
+
+    @PreDestroy
+    public void close() {
+        flush();
+    }
+}
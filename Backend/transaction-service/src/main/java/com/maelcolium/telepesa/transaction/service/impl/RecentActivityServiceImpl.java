@@ -0,0 +1,115 @@
+package com.maelcolium.telepesa.transaction.service.impl;
+
+import com.maelcolium.telepesa.transaction.dto.TransactionDto;
+import com.maelcolium.telepesa.transaction.mapper.TransactionMapper;
+import com.maelcolium.telepesa.transaction.repository.TransactionRepository;
+import com.maelcolium.telepesa.transaction.service.RecentActivityService;
+import com.maelcolium.telepesa.transaction.service.RecentActivityStore;
+import com.maelcolium.telepesa.transaction.service.TransactionRetentionPolicy;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.List;
+
+/**
+ * Reads mini-statements from the {@link RecentActivityStore}, filling an account's list from the
+ * database the first time it is asked for, and afterwards keeps it current from the writes alone.
+ *
+ * <p>Writes reach the store after commit, so a list never shows a transaction that was rolled
+ * back. A store that cannot be reached does not fail the write that triggered it; the list may
+ * then miss that transaction until it expires, and reads fall back to the database.</p>
+ */
+@Service
+@Slf4j
+public class RecentActivityServiceImpl implements RecentActivityService {
+
+    private final RecentActivityStore store;
+    private final TransactionRepository transactionRepository;
+    private final TransactionMapper transactionMapper;
+    private final TransactionRetentionPolicy retentionPolicy;
+    private final int capacity;
+    private final Counter hits;
+    private final Counter misses;
+
+    public RecentActivityServiceImpl(RecentActivityStore store,
+                                     TransactionRepository transactionRepository,
+                                     TransactionMapper transactionMapper,
+                                     TransactionRetentionPolicy retentionPolicy,
+                                     MeterRegistry meterRegistry,
+                                     @Value("${app.transactions.recent.capacity:20}") int capacity) {
+        this.store = store;
+        this.transactionRepository = transactionRepository;
+        this.transactionMapper = transactionMapper;
+        this.retentionPolicy = retentionPolicy;
+        this.capacity = capacity;
+        this.hits = Counter.builder("transactions.recent.reads").tag("result", "hit").register(meterRegistry);
+        this.misses = Counter.builder("transactions.recent.reads").tag("result", "miss").register(meterRegistry);
+    }
+
+    @Override
+    public void record(TransactionDto transaction, boolean created) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            write(transaction, created);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                write(transaction, created);
+            }
+        });
+    }
+
+    private void write(TransactionDto transaction, boolean created) {
+        try {
+            store.write(transaction.getFromAccountId(), transaction, created);
+            if (transaction.getToAccountId() != null && !transaction.getToAccountId().equals(transaction.getFromAccountId())) {
+                store.write(transaction.getToAccountId(), transaction, created);
+            }
+        } catch (RuntimeException e) {
+            log.warn("Failed to update recent activity for transaction {}", transaction.getTransactionId(), e);
+        }
+    }
+
+    @Override
+    public List<TransactionDto> getMiniStatement(Long accountId, int limit) {
+        if (limit < 1 || limit > capacity) {
+            throw new IllegalArgumentException("limit must be between 1 and " + capacity);
+        }
+        long version;
+        try {
+            List<TransactionDto> recent = store.read(accountId, limit);
+            if (recent != null) {
+                hits.increment();
+                return recent;
+            }
+            version = store.writeVersion(accountId);
+        } catch (RuntimeException e) {
+            log.warn("Recent activity store unavailable; reading account {} from the database", accountId, e);
+            return load(accountId).stream().limit(limit).toList();
+        }
+
+        misses.increment();
+        List<TransactionDto> recent = load(accountId);
+        try {
+            store.fill(accountId, version, recent);
+        } catch (RuntimeException e) {
+            log.warn("Failed to fill recent activity for account {}", accountId, e);
+        }
+        return recent.stream().limit(limit).toList();
+    }
+
+    private List<TransactionDto> load(Long accountId) {
+        return transactionRepository.findByAccountIdSince(accountId, retentionPolicy.hotWindowStart(),
+                        PageRequest.of(0, capacity, Sort.by(Sort.Direction.DESC, "createdAt", "id")))
+                .map(transactionMapper::toDto)
+                .getContent();
+    }
+}
@@ -0,0 +1,149 @@
+package com.maelcolium.telepesa.transaction.service.impl;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.maelcolium.telepesa.transaction.dto.TransactionDto;
+import com.maelcolium.telepesa.transaction.service.RecentActivityStore;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.stereotype.Component;
+
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Keeps each account's recent transactions in a Redis list shared by all instances, with writes
+ * and fills applied by Lua scripts so each is atomic.
+ *
+ * <p>Elements are {@code "<id>:<json>"}, so a status change finds its element by prefix without
+ * decoding JSON. An account with no transactions is filled with a single {@value #EMPTY} element,
+ * as Redis has no empty lists. The list and its write version share a hash tag, so the scripts
+ * also work on a cluster. Both expire after {@code ttl} without writes.</p>
+ */
+@Component
+@ConditionalOnProperty(name = "spring.cache.type", havingValue = "redis")
+public class RedisRecentActivityStore implements RecentActivityStore {
+
+    private static final String EMPTY = "~";
+
+    private static final RedisScript<Long> WRITE = new DefaultRedisScript<>("""
+            redis.call('INCR', KEYS[2])
+            redis.call('EXPIRE', KEYS[2], ARGV[4])
+            if redis.call('EXISTS', KEYS[1]) == 0 then
+              return 0
+            end
+            local prefix = ARGV[1] .. ':'
+            local items = redis.call('LRANGE', KEYS[1], 0, -1)
+            for i, item in ipairs(items) do
+              if string.sub(item, 1, #prefix) == prefix then
+                redis.call('LSET', KEYS[1], i - 1, ARGV[2])
+                return 1
+              end
+            end
+            if ARGV[5] ~= '1' then
+              return 0
+            end
+            redis.call('LREM', KEYS[1], 0, '~')
+            redis.call('LPUSH', KEYS[1], ARGV[2])
+            redis.call('LTRIM', KEYS[1], 0, tonumber(ARGV[3]) - 1)
+            redis.call('EXPIRE', KEYS[1], ARGV[4])
+            return 2
+            """, Long.class);
+
+    private static final RedisScript<Long> FILL = new DefaultRedisScript<>("""
+            if redis.call('EXISTS', KEYS[1]) == 1 then
+              return 0
+            end
+            if (redis.call('GET', KEYS[2]) or '0') ~= ARGV[1] then
+              return 0
+            end
+            if #ARGV > 2 then
+              redis.call('RPUSH', KEYS[1], unpack(ARGV, 3))
+            else
+              redis.call('RPUSH', KEYS[1], '~')
+            end
+            redis.call('EXPIRE', KEYS[1], ARGV[2])
+            return 1
+            """, Long.class);
+
+    private final StringRedisTemplate redisTemplate;
+    private final ObjectMapper objectMapper;
+    private final int capacity;
+    private final String ttlSeconds;
+
+    public RedisRecentActivityStore(StringRedisTemplate redisTemplate,
+                                    ObjectMapper objectMapper,
+                                    @Value("${app.transactions.recent.capacity:20}") int capacity,
+                                    @Value("${app.transactions.recent.ttl:86400}") long ttlSeconds) {
+        this.redisTemplate = redisTemplate;
+        this.objectMapper = objectMapper;
+        this.capacity = capacity;
+        this.ttlSeconds = Long.toString(ttlSeconds);
+    }
+
+    @Override
+    public List<TransactionDto> read(Long accountId, int limit) {
+        List<String> items = redisTemplate.opsForList().range(listKey(accountId), 0, limit - 1L);
+        if (items == null || items.isEmpty()) {
+            return null;
+        }
+        List<TransactionDto> transactions = new ArrayList<>(items.size());
+        for (String item : items) {
+            if (!EMPTY.equals(item)) {
+                transactions.add(decode(item));
+            }
+        }
+        return transactions;
+    }
+
+    @Override
+    public void write(Long accountId, TransactionDto transaction, boolean insert) {
+        redisTemplate.execute(WRITE, List.of(listKey(accountId), versionKey(accountId)),
+                transaction.getId().toString(), encode(transaction), Integer.toString(capacity), ttlSeconds,
+                insert ? "1" : "0");
+    }
+
+    @Override
+    public long writeVersion(Long accountId) {
+        String version = redisTemplate.opsForValue().get(versionKey(accountId));
+        return version != null ? Long.parseLong(version) : 0L;
+    }
+
+    @Override
+    public boolean fill(Long accountId, long version, List<TransactionDto> transactions) {
+        List<String> args = new ArrayList<>(transactions.size() + 2);
+        args.add(Long.toString(version));
+        args.add(ttlSeconds);
+        transactions.stream().limit(capacity).map(this::encode).forEach(args::add);
+        Long filled = redisTemplate.execute(FILL, List.of(listKey(accountId), versionKey(accountId)), args.toArray());
+        return filled != null && filled == 1L;
+    }
+
+    private static String listKey(Long accountId) {
+        return "transactions:recent:{" + accountId + "}";
+    }
+
+    private static String versionKey(Long accountId) {
+        return "transactions:recent:{" + accountId + "}:version";
+    }
+
+    private String encode(TransactionDto transaction) {
+        try {
+            return transaction.getId() + ":" + objectMapper.writeValueAsString(transaction);
+        } catch (JsonProcessingException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private TransactionDto decode(String item) {
+        try {
+            return objectMapper.readValue(item.substring(item.indexOf(':') + 1), TransactionDto.class);
+        } catch (JsonProcessingException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -0,0 +1,253 @@
+package com.maelcolium.telepesa.transaction.service.impl;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.maelcolium.telepesa.exceptions.ResourceNotFoundException;
+import com.maelcolium.telepesa.transaction.dto.TransactionArchiveDto;
+import com.maelcolium.telepesa.transaction.dto.TransactionExportRow;
+import com.maelcolium.telepesa.transaction.model.TransactionArchive;
+import com.maelcolium.telepesa.transaction.repository.TransactionArchiveRepository;
+import com.maelcolium.telepesa.transaction.repository.TransactionRepository;
+import com.maelcolium.telepesa.transaction.service.TransactionArchiveService;
+import com.maelcolium.telepesa.transaction.service.TransactionExportWriter;
+import com.maelcolium.telepesa.transaction.service.TransactionPartitionManager;
+import com.maelcolium.telepesa.transaction.service.TransactionRetentionPolicy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.security.DigestOutputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.HexFormat;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Moves months that have left the hot window into gzip-compressed NDJSON files.
+ *
+ * <p>A month is streamed out of the database through {@link TransactionExportWriter}, written to
+ * a temporary file and moved into place only once it is complete, and its checksum and row count
+ * are recorded before the month is removed from the database. A run interrupted at any point
+ * leaves either the rows or a complete archive behind, and re-running it finishes the job.</p>
+ */
+@Service
+@Slf4j
+public class TransactionArchiveServiceImpl implements TransactionArchiveService {
+
+    private static final ObjectMapper ARCHIVE_MAPPER = JsonMapper.builder()
+            .addModule(new JavaTimeModule())
+            .build();
+    private static final int STREAM_BUFFER_SIZE = 64 * 1024;
+
+    private final TransactionRepository transactionRepository;
+    private final TransactionArchiveRepository archiveRepository;
+    private final TransactionPartitionManager partitionManager;
+    private final TransactionRetentionPolicy retentionPolicy;
+    private final TransactionTemplate readTransaction;
+    private final TransactionTemplate writeTransaction;
+    private final Path archiveDirectory;
+
+    public TransactionArchiveServiceImpl(TransactionRepository transactionRepository,
+                                         TransactionArchiveRepository archiveRepository,
+                                         TransactionPartitionManager partitionManager,
+                                         TransactionRetentionPolicy retentionPolicy,
+                                         PlatformTransactionManager transactionManager,
+                                         @Value("${app.transactions.archive-dir:${java.io.tmpdir}/telepesa/transactions/archive}") String archiveDirectory) {
+        this.transactionRepository = transactionRepository;
+        this.archiveRepository = archiveRepository;
+        this.partitionManager = partitionManager;
+        this.retentionPolicy = retentionPolicy;
+        this.readTransaction = new TransactionTemplate(transactionManager);
+        this.readTransaction.setReadOnly(true);
+        this.writeTransaction = new TransactionTemplate(transactionManager);
+        this.archiveDirectory = Paths.get(archiveDirectory);
+    }
+
+    @Scheduled(cron = "${app.transactions.archive-cron:0 30 2 1 * *}")
+    public void scheduledArchive() {
+        archiveExpiredMonths();
+    }
+
+    @Override
+    public synchronized List<TransactionArchiveDto> archiveExpiredMonths() {
+        LocalDateTime hotWindowStart = retentionPolicy.hotWindowStart();
+        log.info("Archiving transactions processed before {}", hotWindowStart);
+
+        List<TransactionArchiveDto> archived = new ArrayList<>();
+        Optional<LocalDateTime> oldest = transactionRepository.findOldestProcessedAtBefore(hotWindowStart);
+        while (oldest.isPresent()) {
+            try {
+                TransactionArchiveDto archive = archiveMonth(YearMonth.from(oldest.get()));
+                if (archive != null) {
+                    archived.add(archive);
+                }
+            } catch (IOException e) {
+                log.error("Failed to archive transactions for {}", YearMonth.from(oldest.get()), e);
+                break;
+            }
+            oldest = transactionRepository.findOldestProcessedAtBefore(hotWindowStart);
+        }
+        return archived;
+    }
+
+    @Override
+    public synchronized TransactionArchiveDto archiveMonth(YearMonth month) throws IOException {
+        if (!month.isBefore(retentionPolicy.firstHotMonth(LocalDate.now()))) {
+            throw new IllegalArgumentException("Cannot archive " + month + ": it is still inside the hot window");
+        }
+        String period = month.toString();
+        LocalDateTime from = month.atDay(1).atStartOfDay();
+        LocalDateTime to = month.plusMonths(1).atDay(1).atStartOfDay();
+
+        // An earlier run wrote the archive but stopped before the rows were removed
+        Optional<TransactionArchive> existing = archiveRepository.findByPeriod(period);
+        if (existing.isPresent()) {
+            purge(month, from, to);
+            return toDto(existing.get());
+        }
+
+        Files.createDirectories(archiveDirectory);
+        String fileName = "transactions-" + period + ".ndjson.gz";
+        Path target = archiveDirectory.resolve(fileName);
+        Path part = archiveDirectory.resolve(fileName + ".part");
+
+        MessageDigest digest = sha256();
+        long rowCount;
+        try (OutputStream file = Files.newOutputStream(part);
+             DigestOutputStream digestStream = new DigestOutputStream(file, digest);
+             GZIPOutputStream gzip = new GZIPOutputStream(digestStream, STREAM_BUFFER_SIZE)) {
+            rowCount = writeMonth(from, to, gzip);
+        }
+
+        if (rowCount == 0) {
+            Files.deleteIfExists(part);
+            partitionManager.dropPartition(month);
+            log.info("No transactions to archive for {}", period);
+            return null;
+        }
+        Files.move(part, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+
+        TransactionArchive archive = archiveRepository.save(TransactionArchive.builder()
+                .period(period)
+                .periodStart(from)
+                .periodEnd(to)
+                .fileName(fileName)
+                .rowCount(rowCount)
+                .sizeBytes(Files.size(target))
+                .checksum(HexFormat.of().formatHex(digest.digest()))
+                .build());
+        log.info("Archived {} transactions for {} to {}", rowCount, period, target);
+
+        purge(month, from, to);
+        return toDto(archive);
+    }
+
+    @Override
+    public List<TransactionArchiveDto> getArchives() {
+        return archiveRepository.findAllByOrderByPeriodDesc().stream()
+                .map(this::toDto)
+                .toList();
+    }
+
+    @Override
+    public TransactionArchiveDto getArchive(String period) {
+        return toDto(findArchive(period));
+    }
+
+    @Override
+    public long exportArchive(String period, Long accountId, TransactionExportWriter.Format format,
+                              OutputStream output) throws IOException {
+        TransactionArchive archive = findArchive(period);
+
+        try (InputStream file = Files.newInputStream(archiveDirectory.resolve(archive.getFileName()));
+             BufferedReader reader = new BufferedReader(new InputStreamReader(
+                     new GZIPInputStream(file, STREAM_BUFFER_SIZE), StandardCharsets.UTF_8));
+             TransactionExportWriter writer = TransactionExportWriter.open(format, output)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                TransactionExportRow row = ARCHIVE_MAPPER.readValue(line, TransactionExportRow.class);
+                if (accountId == null || accountId.equals(row.fromAccountId()) || accountId.equals(row.toAccountId())) {
+                    writer.write(row);
+                }
+            }
+            return writer.getRowCount();
+        }
+    }
+
+    private long writeMonth(LocalDateTime from, LocalDateTime to, OutputStream output) throws IOException {
+        try {
+            Long written = readTransaction.execute(status -> {
+                try (Stream<TransactionExportRow> rows = transactionRepository.streamByProcessedAtRange(from, to);
+                     TransactionExportWriter writer = TransactionExportWriter.open(TransactionExportWriter.Format.NDJSON, output)) {
+                    for (Iterator<TransactionExportRow> it = rows.iterator(); it.hasNext(); ) {
+                        writer.write(it.next());
+                    }
+                    return writer.getRowCount();
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+            return written != null ? written : 0L;
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    private TransactionArchive findArchive(String period) {
+        return archiveRepository.findByPeriod(period)
+                .orElseThrow(() -> new ResourceNotFoundException("Transaction archive not found for period: " + period));
+    }
+
+    private void purge(YearMonth month, LocalDateTime from, LocalDateTime to) {
+        if (partitionManager.dropPartition(month)) {
+            return;
+        }
+        // Months still inside the legacy or default partition are deleted row by row
+        Integer deleted = writeTransaction.execute(status -> transactionRepository.deleteByProcessedAtRange(from, to));
+        log.info("Deleted {} archived transactions for {}", deleted, month);
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    private TransactionArchiveDto toDto(TransactionArchive archive) {
+        return TransactionArchiveDto.builder()
+                .period(archive.getPeriod())
+                .periodStart(archive.getPeriodStart())
+                .periodEnd(archive.getPeriodEnd())
+                .rowCount(archive.getRowCount())
+                .sizeBytes(archive.getSizeBytes())
+                .checksum(archive.getChecksum())
+                .archivedAt(archive.getCreatedAt())
+                .build();
+    }
+}
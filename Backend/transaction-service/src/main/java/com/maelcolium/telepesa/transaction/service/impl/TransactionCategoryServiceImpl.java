@@ -0,0 +1,266 @@
+package com.maelcolium.telepesa.transaction.service.impl;
+
+import com.maelcolium.telepesa.transaction.categorization.CategoryDictionary;
+import com.maelcolium.telepesa.transaction.categorization.KeywordAutomaton;
+import com.maelcolium.telepesa.transaction.dto.CategoryDictionaryDto;
+import com.maelcolium.telepesa.transaction.dto.TransactionCategoryRow;
+import com.maelcolium.telepesa.transaction.repository.TransactionRepository;
+import com.maelcolium.telepesa.transaction.service.JobLeaseManager;
+import com.maelcolium.telepesa.transaction.service.TransactionCategoryService;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.ResourceLoader;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Categorizes with a {@link KeywordAutomaton} compiled from the configured dictionary.
+ *
+ * <p>The automaton is swapped atomically on reload, so a transaction being categorized always sees
+ * one whole dictionary. The dictionary file is checked for changes on a fixed delay. A backfill
+ * splits the id range into chunks that worker threads walk in keyset pages, each page read,
+ * matched and written back in its own short transaction; only rows whose category actually
+ * changes are updated. A backfill holds a database lease while it runs, so the one every
+ * instance starts on startup runs on one of them only.</p>
+ */
+@Service
+@Slf4j
+public class TransactionCategoryServiceImpl implements TransactionCategoryService {
+
+    static final int PAGE_SIZE = 1000;
+    // More chunks than threads, so one dense id range does not leave the other workers idle
+    private static final int CHUNKS_PER_THREAD = 4;
+    public static final String BACKFILL_JOB = "transaction-category-backfill";
+    // Outlasts a full backfill; if one ever runs longer, a second run only repeats idempotent updates
+    private static final Duration BACKFILL_LEASE = Duration.ofHours(1);
+
+    private final TransactionRepository transactionRepository;
+    private final JobLeaseManager jobLeaseManager;
+    private final TransactionTemplate pageTransaction;
+    private final String location;
+    private final Resource dictionaryResource;
+    private final int backfillThreads;
+    private final ExecutorService backfillExecutor;
+    private final AtomicBoolean backfilling = new AtomicBoolean();
+    private volatile Dictionary current;
+
+    public TransactionCategoryServiceImpl(TransactionRepository transactionRepository,
+                                          PlatformTransactionManager transactionManager,
+                                          JobLeaseManager jobLeaseManager,
+                                          ResourceLoader resourceLoader,
+                                          @Value("${app.transactions.categories.dictionary:classpath:categorization/categories.txt}") String location,
+                                          @Value("${app.transactions.categories.backfill-threads:4}") int backfillThreads) {
+        this.transactionRepository = transactionRepository;
+        this.jobLeaseManager = jobLeaseManager;
+        this.pageTransaction = new TransactionTemplate(transactionManager);
+        this.location = location;
+        this.dictionaryResource = resourceLoader.getResource(location);
+        this.backfillThreads = Math.max(1, backfillThreads);
+        AtomicInteger threadNumber = new AtomicInteger();
+        this.backfillExecutor = Executors.newFixedThreadPool(this.backfillThreads, runnable -> {
+            Thread thread = new Thread(runnable, "transaction-category-backfill-" + threadNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        // A dictionary that cannot be read at start-up is a deployment error; later reloads keep the old one
+        reloadDictionary();
+    }
+
+    private record Dictionary(KeywordAutomaton automaton, String version, LocalDateTime loadedAt, long lastModified) {
+    }
+
+    @Override
+    public String categorize(String description) {
+        String category = current.automaton().match(description);
+        return category != null ? category : OTHER;
+    }
+
+    @Override
+    public CategoryDictionaryDto getDictionary() {
+        Dictionary dictionary = current;
+        return CategoryDictionaryDto.builder()
+                .location(location)
+                .version(dictionary.version())
+                .keywordCount(dictionary.automaton().keywordCount())
+                .categories(dictionary.automaton().categories())
+                .loadedAt(dictionary.loadedAt())
+                .backfilling(backfilling.get())
+                .build();
+    }
+
+    @Override
+    public synchronized boolean reloadDictionary() {
+        long lastModified = lastModified();
+        CategoryDictionary dictionary;
+        try (InputStream input = dictionaryResource.getInputStream()) {
+            dictionary = CategoryDictionary.parse(input);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to read the category dictionary from " + location, e);
+        }
+        Dictionary previous = current;
+        if (previous != null && previous.version().equals(dictionary.version())) {
+            current = new Dictionary(previous.automaton(), previous.version(), previous.loadedAt(), lastModified);
+            return false;
+        }
+        KeywordAutomaton automaton = KeywordAutomaton.compile(dictionary.keywords());
+        current = new Dictionary(automaton, dictionary.version(), LocalDateTime.now(), lastModified);
+        log.info("Loaded category dictionary {} from {}: {} keywords in {} categories",
+                dictionary.version(), location, automaton.keywordCount(), automaton.categories().size());
+        return previous != null;
+    }
+
+    @Scheduled(fixedDelayString = "${app.transactions.categories.reload-interval:60000}",
+               initialDelayString = "${app.transactions.categories.reload-interval:60000}")
+    public void reloadIfModified() {
+        long lastModified = lastModified();
+        if (lastModified == current.lastModified()) {
+            return;
+        }
+        try {
+            if (reloadDictionary()) {
+                log.info("Category dictionary changed; new transactions use version {}. "
+                        + "Run a full backfill to re-tag existing ones", current.version());
+            }
+        } catch (RuntimeException e) {
+            log.error("Failed to reload the category dictionary; keeping version {}", current.version(), e);
+        }
+    }
+
+    private long lastModified() {
+        try {
+            return dictionaryResource.lastModified();
+        } catch (IOException e) {
+            // Not a file, e.g. packaged in the jar; it can only change with a redeploy
+            return 0;
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        backfill(false);
+    }
+
+    @Override
+    public boolean backfill(boolean recategorizeAll) {
+        if (!backfilling.compareAndSet(false, true)) {
+            return false;
+        }
+        try {
+            if (!jobLeaseManager.acquire(BACKFILL_JOB, BACKFILL_LEASE)) {
+                log.info("Skipping category backfill: another instance is running one");
+                backfilling.set(false);
+                return false;
+            }
+        } catch (RuntimeException e) {
+            backfilling.set(false);
+            throw e;
+        }
+        try {
+            Optional<Long> minId = transactionRepository.findMinIdForCategorization(recategorizeAll);
+            Optional<Long> maxId = transactionRepository.findMaxIdForCategorization(recategorizeAll);
+            if (minId.isEmpty() || maxId.isEmpty()) {
+                finishBackfill();
+                return true;
+            }
+
+            long start = System.nanoTime();
+            AtomicLong scanned = new AtomicLong();
+            AtomicLong updated = new AtomicLong();
+            long span = maxId.get() - minId.get() + 1;
+            long chunkSize = Math.max(PAGE_SIZE, (span + backfillThreads * CHUNKS_PER_THREAD - 1) / (backfillThreads * CHUNKS_PER_THREAD));
+            List<CompletableFuture<Void>> chunks = new ArrayList<>();
+            for (long from = minId.get(); from <= maxId.get(); from += chunkSize) {
+                long afterId = from - 1;
+                long toId = Math.min(maxId.get(), from + chunkSize - 1);
+                chunks.add(CompletableFuture.runAsync(
+                        () -> backfillChunk(afterId, toId, recategorizeAll, scanned, updated), backfillExecutor));
+            }
+            CompletableFuture.allOf(chunks.toArray(new CompletableFuture[0])).whenComplete((ignored, error) -> {
+                finishBackfill();
+                long millis = (System.nanoTime() - start) / 1_000_000;
+                if (error != null) {
+                    log.error("Category backfill failed after {} rows ({} updated) in {} ms",
+                            scanned.get(), updated.get(), millis, error);
+                } else {
+                    log.info("Category backfill scanned {} rows and updated {} in {} chunks in {} ms",
+                            scanned.get(), updated.get(), chunks.size(), millis);
+                }
+            });
+            return true;
+        } catch (RuntimeException e) {
+            finishBackfill();
+            throw e;
+        }
+    }
+
+    private void finishBackfill() {
+        try {
+            jobLeaseManager.release(BACKFILL_JOB);
+        } catch (RuntimeException e) {
+            log.warn("Failed to release the category backfill lease; it expires in {}", BACKFILL_LEASE, e);
+        } finally {
+            backfilling.set(false);
+        }
+    }
+
+    public boolean isBackfilling() {
+        return backfilling.get();
+    }
+
+    private void backfillChunk(long afterId, long toId, boolean recategorizeAll, AtomicLong scanned, AtomicLong updated) {
+        long cursor = afterId;
+        while (cursor < toId) {
+            long pageAfter = cursor;
+            Long last = pageTransaction.execute(status -> {
+                List<TransactionCategoryRow> rows = transactionRepository.findForCategorization(
+                        pageAfter, toId, recategorizeAll, PageRequest.ofSize(PAGE_SIZE));
+                if (rows.isEmpty()) {
+                    return null;
+                }
+                Map<String, List<Long>> byCategory = new HashMap<>();
+                for (TransactionCategoryRow row : rows) {
+                    String category = categorize(row.description());
+                    if (!category.equals(row.category())) {
+                        byCategory.computeIfAbsent(category, key -> new ArrayList<>()).add(row.id());
+                    }
+                }
+                byCategory.forEach((category, ids) -> updated.addAndGet(transactionRepository.updateCategory(ids, category)));
+                scanned.addAndGet(rows.size());
+                return rows.get(rows.size() - 1).id();
+            });
+            if (last == null) {
+                return;
+            }
+            cursor = last;
+        }
+    }
+
+    @PreDestroy
+    public void close() {
+        backfillExecutor.shutdownNow();
+    }
+}
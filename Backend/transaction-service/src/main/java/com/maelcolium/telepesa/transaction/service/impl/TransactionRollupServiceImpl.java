@@ -0,0 +1,433 @@
+package com.maelcolium.telepesa.transaction.service.impl;
+
+import com.maelcolium.telepesa.models.enums.TransactionStatus;
+import com.maelcolium.telepesa.models.enums.TransactionType;
+import com.maelcolium.telepesa.transaction.dto.SpendingInsightsDto;
+import com.maelcolium.telepesa.transaction.dto.TransactionExportRow;
+import com.maelcolium.telepesa.transaction.model.RollupBackfill;
+import com.maelcolium.telepesa.transaction.model.Transaction;
+import com.maelcolium.telepesa.transaction.model.TransactionDailyRollup;
+import com.maelcolium.telepesa.transaction.repository.RollupBackfillRepository;
+import com.maelcolium.telepesa.transaction.repository.TransactionArchiveRepository;
+import com.maelcolium.telepesa.transaction.repository.TransactionDailyRollupRepository;
+import com.maelcolium.telepesa.transaction.repository.TransactionRepository;
+import com.maelcolium.telepesa.transaction.service.JobLeaseManager;
+import com.maelcolium.telepesa.transaction.service.TransactionRollupService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.TreeMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+
+@Service
+@Slf4j
+@Transactional
+public class TransactionRollupServiceImpl implements TransactionRollupService, SmartInitializingSingleton {
+
+    static final int MAX_INSIGHT_MONTHS = 24;
+    static final String BACKFILL_JOB = "transaction-rollup-backfill";
+    private static final Duration BACKFILL_LEASE = Duration.ofHours(1);
+
+    private final TransactionDailyRollupRepository rollupRepository;
+    private final TransactionRepository transactionRepository;
+    private final TransactionArchiveRepository archiveRepository;
+    private final JobLeaseManager jobLeaseManager;
+    private final RollupBackfillRepository backfillRepository;
+    private final TransactionTemplate newTransaction;
+    // Transactions processed from here on are rolled up as they complete, earlier ones by the backfill
+    private volatile LocalDateTime cutoff;
+    // Once the backfill is seen complete it stays complete, so the marker is no longer read
+    private volatile boolean backfilled;
+
+    public TransactionRollupServiceImpl(TransactionDailyRollupRepository rollupRepository,
+                                        TransactionRepository transactionRepository,
+                                        TransactionArchiveRepository archiveRepository,
+                                        JobLeaseManager jobLeaseManager,
+                                        RollupBackfillRepository backfillRepository,
+                                        PlatformTransactionManager transactionManager) {
+        this.rollupRepository = rollupRepository;
+        this.transactionRepository = transactionRepository;
+        this.archiveRepository = archiveRepository;
+        this.jobLeaseManager = jobLeaseManager;
+        this.backfillRepository = backfillRepository;
+        this.newTransaction = new TransactionTemplate(transactionManager);
+        this.newTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    @Override
+    public void recordCompletion(Transaction transaction) {
+        apply(transaction, 1);
+    }
+
+    @Override
+    public void revertCompletion(Transaction transaction) {
+        apply(transaction, -1);
+    }
+
+    private void apply(Transaction transaction, int sign) {
+        if (!backfilled && !rolledUpIncrementally(transaction.getProcessedAt())) {
+            // The backfill has yet to reach it and reads the transaction as it is by then
+            return;
+        }
+        LocalDate day = transaction.getProcessedAt().toLocalDate();
+        BigDecimal amount = sign > 0 ? transaction.getAmount() : transaction.getAmount().negate();
+
+        increment(transaction.getFromAccountId(), day, transaction.getTransactionType(), sign, amount, 0, BigDecimal.ZERO);
+        if (transaction.getToAccountId() != null) {
+            increment(transaction.getToAccountId(), day, transaction.getTransactionType(), 0, BigDecimal.ZERO, sign, amount);
+        }
+    }
+
+    private void increment(Long accountId, LocalDate day, TransactionType type,
+                           long debitCount, BigDecimal debitAmount, long creditCount, BigDecimal creditAmount) {
+        if (rollupRepository.increment(accountId, day, type, debitCount, debitAmount, creditCount, creditAmount) > 0) {
+            return;
+        }
+        // First transaction of the day for this account and type: create the zero row in the
+        // caller's transaction; a concurrent creator's row is skipped, not a constraint violation
+        rollupRepository.insertIfAbsent(accountId, day, type.name());
+        rollupRepository.increment(accountId, day, type, debitCount, debitAmount, creditCount, creditAmount);
+    }
+
+    /**
+     * Whether a transaction processed at {@code processedAt} is already in the rollups, so that a
+     * change to it has to be applied to them. Before the cutoff this locks the backfill marker until
+     * the caller commits, so the slice of the backfill covering it runs either wholly before or after.
+     */
+    private boolean rolledUpIncrementally(LocalDateTime processedAt) {
+        LocalDateTime from = cutoff;
+        if (from != null && !processedAt.isBefore(from)) {
+            return true;
+        }
+        Optional<RollupBackfill> progress = backfillRepository.findForUpdate(BACKFILL_JOB);
+        if (progress.isEmpty()) {
+            return false;
+        }
+        if (progress.get().isCompleted()) {
+            backfilled = true;
+            return true;
+        }
+        return !processedAt.isBefore(progress.get().getCutoff())
+                || (progress.get().getBackfilledUntil() != null && processedAt.isBefore(progress.get().getBackfilledUntil()));
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public BigDecimal getTotalDebits(Long accountId, LocalDateTime since) {
+        return sinceTotal(accountId, since, true);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public BigDecimal getTotalCredits(Long accountId, LocalDateTime since) {
+        return sinceTotal(accountId, since, false);
+    }
+
+    private BigDecimal sinceTotal(Long accountId, LocalDateTime since, boolean debits) {
+        if (!isBackfilled()) {
+            LocalDateTime until = LocalDateTime.now().plusDays(1);
+            return orZero(debits
+                    ? transactionRepository.getTotalDebitsByAccountId(accountId, since, until)
+                    : transactionRepository.getTotalCreditsByAccountId(accountId, since, until));
+        }
+        LocalDate firstFullDay = since.toLocalDate();
+        BigDecimal partialDay = BigDecimal.ZERO;
+        if (!since.equals(firstFullDay.atStartOfDay())) {
+            // Rollups are per day; the rest of the first day comes from the transactions themselves
+            firstFullDay = firstFullDay.plusDays(1);
+            LocalDateTime until = firstFullDay.atStartOfDay();
+            partialDay = debits
+                    ? transactionRepository.getTotalDebitsByAccountId(accountId, since, until)
+                    : transactionRepository.getTotalCreditsByAccountId(accountId, since, until);
+        }
+        BigDecimal fullDays = debits
+                ? rollupRepository.sumDebitAmount(accountId, firstFullDay)
+                : rollupRepository.sumCreditAmount(accountId, firstFullDay);
+        return orZero(fullDays).add(orZero(partialDay));
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public BigDecimal getBalance(Long accountId) {
+        if (!isBackfilled()) {
+            // The rollups lack older transactions until the backfill is done; the online ones do not
+            LocalDateTime since = LocalDate.EPOCH.atStartOfDay();
+            LocalDateTime until = LocalDateTime.now().plusDays(1);
+            return orZero(transactionRepository.getTotalCreditsByAccountId(accountId, since, until))
+                    .subtract(orZero(transactionRepository.getTotalDebitsByAccountId(accountId, since, until)));
+        }
+        BigDecimal credits = orZero(rollupRepository.sumCreditAmount(accountId, LocalDate.EPOCH));
+        BigDecimal debits = orZero(rollupRepository.sumDebitAmount(accountId, LocalDate.EPOCH));
+        return credits.subtract(debits);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public SpendingInsightsDto getSpendingInsights(Long accountId, int months) {
+        if (months < 1 || months > MAX_INSIGHT_MONTHS) {
+            throw new IllegalArgumentException("months must be between 1 and " + MAX_INSIGHT_MONTHS);
+        }
+        YearMonth current = YearMonth.now();
+        YearMonth first = current.minusMonths(months - 1L);
+
+        Map<YearMonth, SpendingInsightsDto.MonthlyTotal> monthly = new TreeMap<>();
+        for (YearMonth month = first; !month.isAfter(current); month = month.plusMonths(1)) {
+            monthly.put(month, emptyMonth(month));
+        }
+        Map<TransactionType, SpendingInsightsDto.TypeTotal> byType = new EnumMap<>(TransactionType.class);
+
+        for (TransactionDailyRollup rollup : rollupRepository
+                .findByAccountIdAndRollupDateGreaterThanEqualOrderByRollupDate(accountId, first.atDay(1))) {
+            SpendingInsightsDto.MonthlyTotal month = monthly.get(YearMonth.from(rollup.getRollupDate()));
+            if (month == null) {
+                continue;
+            }
+            month.setDebitCount(month.getDebitCount() + rollup.getDebitCount());
+            month.setDebitAmount(month.getDebitAmount().add(rollup.getDebitAmount()));
+            month.setCreditCount(month.getCreditCount() + rollup.getCreditCount());
+            month.setCreditAmount(month.getCreditAmount().add(rollup.getCreditAmount()));
+
+            SpendingInsightsDto.TypeTotal type = byType.computeIfAbsent(rollup.getTransactionType(), this::emptyType);
+            type.setDebitCount(type.getDebitCount() + rollup.getDebitCount());
+            type.setDebitAmount(type.getDebitAmount().add(rollup.getDebitAmount()));
+            type.setCreditCount(type.getCreditCount() + rollup.getCreditCount());
+            type.setCreditAmount(type.getCreditAmount().add(rollup.getCreditAmount()));
+        }
+
+        // Categories are a column on the transactions, so this is a single indexed group-by
+        List<SpendingInsightsDto.CategoryTotal> byCategory = transactionRepository
+                .sumDebitsByCategory(accountId, first.atDay(1).atStartOfDay()).stream()
+                .map(row -> SpendingInsightsDto.CategoryTotal.builder()
+                        .category(row.category())
+                        .debitCount(row.count())
+                        .debitAmount(row.amount())
+                        .build())
+                .toList();
+
+        BigDecimal totalDebits = monthly.values().stream()
+                .map(SpendingInsightsDto.MonthlyTotal::getDebitAmount)
+                .reduce(BigDecimal.ZERO, BigDecimal::add);
+        BigDecimal totalCredits = monthly.values().stream()
+                .map(SpendingInsightsDto.MonthlyTotal::getCreditAmount)
+                .reduce(BigDecimal.ZERO, BigDecimal::add);
+
+        return SpendingInsightsDto.builder()
+                .accountId(accountId)
+                .from(first.atDay(1))
+                .to(current.atEndOfMonth())
+                .totalDebits(totalDebits)
+                .totalCredits(totalCredits)
+                .netFlow(totalCredits.subtract(totalDebits))
+                .averageMonthlyDebits(totalDebits.divide(BigDecimal.valueOf(months), 2, RoundingMode.HALF_UP))
+                .debitChangePercent(percentChange(monthly.get(current.minusMonths(1)), monthly.get(current)))
+                .topDebitType(byType.values().stream()
+                        .filter(type -> type.getDebitAmount().signum() > 0)
+                        .max(Comparator.comparing(SpendingInsightsDto.TypeTotal::getDebitAmount))
+                        .map(SpendingInsightsDto.TypeTotal::getTransactionType)
+                        .orElse(null))
+                .topDebitCategory(byCategory.isEmpty() ? null : byCategory.get(0).getCategory())
+                .monthly(new ArrayList<>(monthly.values()))
+                .byType(new ArrayList<>(byType.values()))
+                .byCategory(byCategory)
+                .build();
+    }
+
+    private static BigDecimal percentChange(SpendingInsightsDto.MonthlyTotal previous, SpendingInsightsDto.MonthlyTotal current) {
+        if (previous == null || previous.getDebitAmount().signum() == 0) {
+            return null;
+        }
+        return current.getDebitAmount().subtract(previous.getDebitAmount())
+                .multiply(BigDecimal.valueOf(100))
+                .divide(previous.getDebitAmount(), 2, RoundingMode.HALF_UP);
+    }
+
+    @Override
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public void afterSingletonsInstantiated() {
+        // Before the web server starts, so nothing this instance completes falls before the cutoff
+        captureCutoff();
+    }
+
+    @Scheduled(fixedDelayString = "${app.transactions.rollups.backfill-interval:300000}")
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public void resumeBackfill() {
+        if (backfilled) {
+            return;
+        }
+        try {
+            long written = backfill();
+            if (written > 0) {
+                log.info("Backfilled {} transaction rollups", written);
+            }
+        } catch (RuntimeException e) {
+            log.error("Rollup backfill failed; resuming from where it stopped on the next attempt", e);
+        }
+    }
+
+    @Override
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public long backfill() {
+        // Every instance tries this until it is done; the lease keeps the others from merging meanwhile
+        AtomicLong written = new AtomicLong();
+        jobLeaseManager.runExclusively(BACKFILL_JOB, BACKFILL_LEASE, () -> written.set(mergeUntilCutoff()));
+        return written.get();
+    }
+
+    private boolean isBackfilled() {
+        if (!backfilled && backfillRepository.findById(BACKFILL_JOB).map(RollupBackfill::isCompleted).orElse(false)) {
+            backfilled = true;
+        }
+        return backfilled;
+    }
+
+    /**
+     * Record the cutoff unless an instance that started earlier already did.
+     */
+    private LocalDateTime captureCutoff() {
+        if (!backfillRepository.existsById(BACKFILL_JOB)) {
+            LocalDateTime now = LocalDateTime.now().truncatedTo(ChronoUnit.MICROS);
+            try {
+                newTransaction.executeWithoutResult(status -> backfillRepository.saveAndFlush(
+                        RollupBackfill.builder().name(BACKFILL_JOB).cutoff(now).build()));
+            } catch (DataIntegrityViolationException e) {
+                log.debug("Rollup backfill cutoff recorded concurrently");
+            }
+        }
+        cutoff = backfillRepository.findById(BACKFILL_JOB).orElseThrow().getCutoff();
+        return cutoff;
+    }
+
+    private long mergeUntilCutoff() {
+        LocalDateTime until = captureCutoff();
+        RollupBackfill progress = backfillRepository.findById(BACKFILL_JOB).orElseThrow();
+        if (progress.isCompleted()) {
+            backfilled = true;
+            return 0;
+        }
+        if (archiveRepository.count() > 0) {
+            // Archived months are files, not rows, so they cannot be rolled up from here
+            log.warn("Backfilling rollups from online transactions only: archived months stay out of balances and insights");
+        }
+        LocalDateTime from = progress.getBackfilledUntil() != null
+                ? progress.getBackfilledUntil()
+                : transactionRepository.findOldestProcessedAtBefore(until).orElse(until);
+
+        // One month at a time keeps the aggregation map bounded by accounts x days x types in a month,
+        // and a run that stops resumes from the last month it merged
+        long written = 0;
+        while (true) {
+            LocalDateTime next = YearMonth.from(from).plusMonths(1).atDay(1).atStartOfDay();
+            LocalDateTime to = next.isBefore(until) ? next : until;
+            LocalDateTime sliceFrom = from;
+            Long merged = newTransaction.execute(status -> mergeSlice(sliceFrom, to, until));
+            written += merged != null ? merged : 0;
+            if (!to.isBefore(until)) {
+                break;
+            }
+            from = to;
+        }
+        backfilled = true;
+        return written;
+    }
+
+    /**
+     * Add the transactions completed in {@code [from, to)} to the rollups through the same increments
+     * as live completions, so rows those already created are added to rather than collided with.
+     */
+    private long mergeSlice(LocalDateTime from, LocalDateTime to, LocalDateTime until) {
+        RollupBackfill progress = backfillRepository.findForUpdate(BACKFILL_JOB).orElseThrow();
+        LocalDateTime start = from;
+        if (progress.getBackfilledUntil() != null && progress.getBackfilledUntil().isAfter(from)) {
+            // Partly or wholly merged by an instance that held the lease before it expired
+            start = progress.getBackfilledUntil();
+        }
+        Map<RollupKey, TransactionDailyRollup> rollups = new HashMap<>();
+        if (start.isBefore(to)) {
+            try (Stream<TransactionExportRow> rows = transactionRepository.streamByProcessedAtRange(start, to)) {
+                rows.filter(row -> row.status() == TransactionStatus.COMPLETED).forEach(row -> {
+                    LocalDate day = row.processedAt().toLocalDate();
+                    TransactionDailyRollup debit = rollups.computeIfAbsent(
+                            new RollupKey(row.fromAccountId(), day, row.transactionType()),
+                            key -> emptyRollup(key.accountId(), key.day(), key.type()));
+                    debit.setDebitCount(debit.getDebitCount() + 1);
+                    debit.setDebitAmount(debit.getDebitAmount().add(row.amount()));
+                    if (row.toAccountId() != null) {
+                        TransactionDailyRollup credit = rollups.computeIfAbsent(
+                                new RollupKey(row.toAccountId(), day, row.transactionType()),
+                                key -> emptyRollup(key.accountId(), key.day(), key.type()));
+                        credit.setCreditCount(credit.getCreditCount() + 1);
+                        credit.setCreditAmount(credit.getCreditAmount().add(row.amount()));
+                    }
+                });
+            }
+            for (TransactionDailyRollup rollup : rollups.values()) {
+                increment(rollup.getAccountId(), rollup.getRollupDate(), rollup.getTransactionType(),
+                        rollup.getDebitCount(), rollup.getDebitAmount(), rollup.getCreditCount(), rollup.getCreditAmount());
+            }
+        }
+        if (progress.getBackfilledUntil() == null || progress.getBackfilledUntil().isBefore(to)) {
+            progress.setBackfilledUntil(to);
+        }
+        if (!to.isBefore(until)) {
+            progress.setCompletedAt(LocalDateTime.now());
+        }
+        backfillRepository.save(progress);
+        return rollups.size();
+    }
+
+    private record RollupKey(Long accountId, LocalDate day, TransactionType type) {
+    }
+
+    private static TransactionDailyRollup emptyRollup(Long accountId, LocalDate day, TransactionType type) {
+        return TransactionDailyRollup.builder()
+                .accountId(accountId)
+                .rollupDate(day)
+                .transactionType(type)
+                .debitAmount(BigDecimal.ZERO)
+                .creditAmount(BigDecimal.ZERO)
+                .build();
+    }
+
+    private SpendingInsightsDto.MonthlyTotal emptyMonth(YearMonth month) {
+        return SpendingInsightsDto.MonthlyTotal.builder()
+                .month(month.toString())
+                .debitAmount(BigDecimal.ZERO)
+                .creditAmount(BigDecimal.ZERO)
+                .build();
+    }
+
+    private SpendingInsightsDto.TypeTotal emptyType(TransactionType type) {
+        return SpendingInsightsDto.TypeTotal.builder()
+                .transactionType(type)
+                .debitAmount(BigDecimal.ZERO)
+                .creditAmount(BigDecimal.ZERO)
+                .build();
+    }
+
+    private static BigDecimal orZero(BigDecimal value) {
+        return value != null ? value : BigDecimal.ZERO;
+    }
+}
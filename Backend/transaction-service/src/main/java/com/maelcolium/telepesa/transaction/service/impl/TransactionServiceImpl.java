@@ -1,10 +1,25 @@
 package com.maelcolium.telepesa.transaction.service.impl;
 
+import com.maelcolium.telepesa.transaction.dto.BatchTransactionRecord;
 import com.maelcolium.telepesa.transaction.dto.CreateTransactionRequest;
+import com.maelcolium.telepesa.transaction.dto.QuickPaySuggestionsDto;
+import com.maelcolium.telepesa.transaction.dto.SpendingInsightsDto;
 import com.maelcolium.telepesa.transaction.dto.TransactionDto;
+import com.maelcolium.telepesa.transaction.dto.TransactionExportRow;
+import com.maelcolium.telepesa.transaction.exception.TransactionBlockedException;
+import com.maelcolium.telepesa.transaction.fraud.FraudAssessment;
+import com.maelcolium.telepesa.transaction.fraud.FraudDecision;
+import com.maelcolium.telepesa.transaction.fraud.FraudScorer;
 import com.maelcolium.telepesa.transaction.mapper.TransactionMapper;
 import com.maelcolium.telepesa.transaction.model.Transaction;
 import com.maelcolium.telepesa.transaction.repository.TransactionRepository;
+import com.maelcolium.telepesa.transaction.service.QuickPaySuggestionService;
+import com.maelcolium.telepesa.transaction.service.RecentActivityService;
+import com.maelcolium.telepesa.transaction.service.TransactionCategoryService;
+import com.maelcolium.telepesa.transaction.service.TransactionExportWriter;
+import com.maelcolium.telepesa.transaction.service.TransactionRetentionPolicy;
+import com.maelcolium.telepesa.transaction.service.TransactionRollupService;
+import com.maelcolium.telepesa.transaction.service.TransactionSearchService;
 import com.maelcolium.telepesa.transaction.service.TransactionService;
 import com.maelcolium.telepesa.models.enums.TransactionStatus;
 import com.maelcolium.telepesa.models.enums.TransactionType;
@@ -18,10 +33,16 @@ import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.io.IOException;
+import java.io.OutputStream;
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
+import java.util.EnumSet;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Set;
 import java.util.UUID;
+import java.util.stream.Stream;
 
 @Service
 @RequiredArgsConstructor
@@ -29,33 +50,94 @@ import java.util.UUID;
 @Transactional
 public class TransactionServiceImpl implements TransactionService {
 
+    private static final Set<TransactionStatus> INITIAL_STATUSES = EnumSet.of(
+            TransactionStatus.PENDING,
+            TransactionStatus.PROCESSING,
+            TransactionStatus.COMPLETED,
+            TransactionStatus.FAILED
+    );
+
     private final TransactionRepository transactionRepository;
     private final TransactionMapper transactionMapper;
+    private final TransactionRetentionPolicy retentionPolicy;
+    private final TransactionRollupService rollupService;
+    private final TransactionSearchService searchService;
+    private final FraudScorer fraudScorer;
+    private final TransactionCategoryService categoryService;
+    private final QuickPaySuggestionService quickPayService;
+    private final RecentActivityService recentActivityService;
 
     @Override
     @CacheEvict(value = {"transactions", "transaction-history", "account-balances"}, allEntries = true)
     public TransactionDto createTransaction(CreateTransactionRequest request) {
         log.info("Creating transaction for user: {}, amount: {}", request.getUserId(), request.getAmount());
 
-        Transaction transaction = Transaction.builder()
-                .transactionId(generateTransactionId())
-                .fromAccountId(request.getFromAccountId())
-                .toAccountId(request.getToAccountId())
-                .amount(request.getAmount())
-                .transactionType(request.getTransactionType())
-                .status(TransactionStatus.PENDING)
-                .description(request.getDescription())
-                .referenceNumber(generateReferenceNumber())
-                .userId(request.getUserId())
-                .feeAmount(calculateFee(request.getAmount(), request.getTransactionType()))
-                .totalAmount(request.getAmount().add(calculateFee(request.getAmount(), request.getTransactionType())))
-                .processedAt(LocalDateTime.now())
-                .build();
+        Transaction transaction = buildTransaction(request, TransactionStatus.PENDING);
+        FraudAssessment assessment = fraudScorer.assess(request, transaction.getProcessedAt());
+        if (assessment.decision() == FraudDecision.BLOCK) {
+            log.warn("Blocked transaction for user: {}, account: {}, score: {}, rules: {}",
+                    request.getUserId(), request.getFromAccountId(), assessment.score(), assessment.rules());
+            throw new TransactionBlockedException("Transaction declined by risk checks");
+        }
+        if (assessment.decision() == FraudDecision.REVIEW) {
+            holdForReview(transaction, assessment);
+        }
 
         Transaction savedTransaction = transactionRepository.save(transaction);
+        if (savedTransaction.getStatus() == TransactionStatus.COMPLETED) {
+            rollupService.recordCompletion(savedTransaction);
+            quickPayService.recordCompletion(savedTransaction);
+        }
         log.info("Transaction created successfully with ID: {}", savedTransaction.getTransactionId());
 
-        return transactionMapper.toDto(savedTransaction);
+        TransactionDto created = transactionMapper.toDto(savedTransaction);
+        searchService.index(List.of(created));
+        recentActivityService.record(created, true);
+        return created;
+    }
+
+    @Override
+    @CacheEvict(value = {"transactions", "transaction-history", "account-balances"}, allEntries = true)
+    public List<TransactionDto> createTransactions(List<BatchTransactionRecord> records) {
+        log.info("Creating batch of {} transactions", records.size());
+
+        List<Transaction> transactions = records.stream()
+                .map(record -> {
+                    Transaction transaction = buildTransaction(record,
+                            record.getInitialStatus() != null ? record.getInitialStatus() : TransactionStatus.PENDING);
+                    // Batch records report money producers have already moved, so refusing one would
+                    // only lose the ledger entry; a BLOCK is held for review like a REVIEW instead
+                    FraudAssessment assessment = fraudScorer.assess(record, transaction.getProcessedAt());
+                    if (assessment.decision() != FraudDecision.ALLOW && transaction.getStatus() != TransactionStatus.FAILED) {
+                        holdForReview(transaction, assessment);
+                    }
+                    return transaction;
+                })
+                .toList();
+
+        // Sequence ids are assigned up front, so the inserts go out as JDBC batches on flush
+        List<Transaction> savedTransactions = transactionRepository.saveAll(transactions);
+        savedTransactions.stream()
+                .filter(transaction -> transaction.getStatus() == TransactionStatus.COMPLETED)
+                .forEach(transaction -> {
+                    rollupService.recordCompletion(transaction);
+                    quickPayService.recordCompletion(transaction);
+                });
+        log.info("Batch of {} transactions created successfully", savedTransactions.size());
+
+        List<TransactionDto> created = savedTransactions.stream()
+                .map(transactionMapper::toDto)
+                .toList();
+        searchService.index(created);
+        created.forEach(transaction -> recentActivityService.record(transaction, true));
+        return created;
+    }
+
+    private void holdForReview(Transaction transaction, FraudAssessment assessment) {
+        log.warn("Holding transaction {} for review, score: {}, rules: {}",
+                transaction.getTransactionId(), assessment.score(), assessment.rules());
+        transaction.setStatus(TransactionStatus.PENDING);
+        transaction.setHeldForReview(true);
     }
 
     @Override
@@ -79,7 +161,7 @@ public class TransactionServiceImpl implements TransactionService {
     @Override
     @Transactional(readOnly = true)
     public Page<TransactionDto> getTransactions(Pageable pageable) {
-        Page<Transaction> transactions = transactionRepository.findAll(pageable);
+        Page<Transaction> transactions = transactionRepository.findByProcessedAtGreaterThanEqual(retentionPolicy.hotWindowStart(), pageable);
         return transactions.map(transactionMapper::toDto);
     }
 
@@ -87,7 +169,7 @@ public class TransactionServiceImpl implements TransactionService {
     @Transactional(readOnly = true)
     @Cacheable(value = "transaction-history", key = "'user:' + #userId + ':page:' + #pageable.pageNumber + ':size:' + #pageable.pageSize")
     public Page<TransactionDto> getTransactionsByUserId(Long userId, Pageable pageable) {
-        Page<Transaction> transactions = transactionRepository.findByUserId(userId, pageable);
+        Page<Transaction> transactions = transactionRepository.findByUserIdAndProcessedAtGreaterThanEqual(userId, retentionPolicy.hotWindowStart(), pageable);
         return transactions.map(transactionMapper::toDto);
     }
 
@@ -95,7 +177,7 @@ public class TransactionServiceImpl implements TransactionService {
     @Transactional(readOnly = true)
     @Cacheable(value = "transaction-history", key = "'account:' + #accountId + ':page:' + #pageable.pageNumber + ':size:' + #pageable.pageSize")
     public Page<TransactionDto> getTransactionsByAccountId(Long accountId, Pageable pageable) {
-        Page<Transaction> transactions = transactionRepository.findByFromAccountIdOrToAccountId(accountId, accountId, pageable);
+        Page<Transaction> transactions = transactionRepository.findByAccountIdSince(accountId, retentionPolicy.hotWindowStart(), pageable);
         return transactions.map(transactionMapper::toDto);
     }
 
@@ -103,7 +185,7 @@ public class TransactionServiceImpl implements TransactionService {
     @Transactional(readOnly = true)
     @Cacheable(value = "transaction-history", key = "'status:' + #status + ':page:' + #pageable.pageNumber + ':size:' + #pageable.pageSize")
     public Page<TransactionDto> getTransactionsByStatus(TransactionStatus status, Pageable pageable) {
-        Page<Transaction> transactions = transactionRepository.findByStatus(status, pageable);
+        Page<Transaction> transactions = transactionRepository.findByStatusAndProcessedAtGreaterThanEqual(status, retentionPolicy.hotWindowStart(), pageable);
         return transactions.map(transactionMapper::toDto);
     }
 
@@ -111,7 +193,7 @@ public class TransactionServiceImpl implements TransactionService {
     @Transactional(readOnly = true)
     @Cacheable(value = "transaction-history", key = "'type:' + #transactionType + ':page:' + #pageable.pageNumber + ':size:' + #pageable.pageSize")
     public Page<TransactionDto> getTransactionsByType(TransactionType transactionType, Pageable pageable) {
-        Page<Transaction> transactions = transactionRepository.findByTransactionType(transactionType, pageable);
+        Page<Transaction> transactions = transactionRepository.findByTransactionTypeAndProcessedAtGreaterThanEqual(transactionType, retentionPolicy.hotWindowStart(), pageable);
         return transactions.map(transactionMapper::toDto);
     }
 
@@ -119,7 +201,7 @@ public class TransactionServiceImpl implements TransactionService {
     @Transactional(readOnly = true)
     @Cacheable(value = "transaction-history", key = "'user:' + #userId + ':dateRange:' + #startDate + ':' + #endDate + ':page:' + #pageable.pageNumber + ':size:' + #pageable.pageSize")
     public Page<TransactionDto> getTransactionsByDateRange(Long userId, LocalDateTime startDate, LocalDateTime endDate, Pageable pageable) {
-        Page<Transaction> transactions = transactionRepository.findByUserIdAndDateRange(userId, startDate, endDate, pageable);
+        Page<Transaction> transactions = transactionRepository.findByUserIdAndDateRange(userId, retentionPolicy.clamp(startDate), endDate, pageable);
         return transactions.map(transactionMapper::toDto);
     }
 
@@ -129,62 +211,155 @@ public class TransactionServiceImpl implements TransactionService {
         Transaction transaction = transactionRepository.findById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Transaction not found with id: " + id));
 
+        if (transaction.isHeldForReview()
+                && (status == TransactionStatus.PROCESSING || status == TransactionStatus.COMPLETED)) {
+            throw new TransactionBlockedException("Transaction is held for review");
+        }
+
+        TransactionStatus previousStatus = transaction.getStatus();
+        if (previousStatus == TransactionStatus.COMPLETED && status != TransactionStatus.COMPLETED) {
+            rollupService.revertCompletion(transaction);
+        }
+
         transaction.setStatus(status);
-        if (status == TransactionStatus.COMPLETED) {
+        if (status == TransactionStatus.FAILED || status == TransactionStatus.CANCELLED) {
+            // Declining a held transaction settles its review
+            transaction.setHeldForReview(false);
+        }
+        if (status == TransactionStatus.COMPLETED && previousStatus != TransactionStatus.COMPLETED) {
             transaction.setProcessedAt(LocalDateTime.now());
+            rollupService.recordCompletion(transaction);
+            quickPayService.recordCompletion(transaction);
         }
 
         Transaction updatedTransaction = transactionRepository.save(transaction);
         log.info("Transaction status updated to {} for transaction ID: {}", status, updatedTransaction.getTransactionId());
 
-        return transactionMapper.toDto(updatedTransaction);
+        TransactionDto updated = transactionMapper.toDto(updatedTransaction);
+        searchService.index(List.of(updated));
+        recentActivityService.record(updated, false);
+        return updated;
+    }
+
+    @Override
+    @CacheEvict(value = {"transactions", "transaction-history"}, allEntries = true)
+    public TransactionDto releaseReviewHold(Long id) {
+        Transaction transaction = transactionRepository.findById(id)
+                .orElseThrow(() -> new ResourceNotFoundException("Transaction not found with id: " + id));
+        if (!transaction.isHeldForReview()) {
+            return transactionMapper.toDto(transaction);
+        }
+
+        transaction.setHeldForReview(false);
+        Transaction released = transactionRepository.save(transaction);
+        log.info("Review hold released for transaction ID: {}", released.getTransactionId());
+
+        TransactionDto updated = transactionMapper.toDto(released);
+        searchService.index(List.of(updated));
+        return updated;
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Page<TransactionDto> getTransactionsHeldForReview(Pageable pageable) {
+        return transactionRepository.findByHeldForReviewTrueOrderByProcessedAt(pageable).map(transactionMapper::toDto);
     }
 
     @Override
     @Transactional(readOnly = true)
     @Cacheable(value = "transaction-history", key = "'accountHistory:' + #accountId")
     public List<TransactionDto> getAccountTransactionHistory(Long accountId) {
-        List<Transaction> transactions = transactionRepository.findAllByAccountId(accountId);
+        List<Transaction> transactions = transactionRepository.findAllByAccountId(accountId, retentionPolicy.hotWindowStart());
         return transactions.stream()
                 .map(transactionMapper::toDto)
                 .toList();
     }
 
+    @Override
+    @Transactional(readOnly = true)
+    public long exportAccountTransactionHistory(Long accountId, TransactionExportWriter.Format format,
+                                                OutputStream output) throws IOException {
+        log.info("Exporting transaction history for account: {} as {}", accountId, format);
+
+        try (Stream<TransactionExportRow> rows = transactionRepository.streamAccountHistory(accountId, retentionPolicy.hotWindowStart());
+             TransactionExportWriter writer = TransactionExportWriter.open(format, output)) {
+            for (Iterator<TransactionExportRow> it = rows.iterator(); it.hasNext(); ) {
+                writer.write(it.next());
+            }
+            log.info("Exported {} transactions for account: {}", writer.getRowCount(), accountId);
+            return writer.getRowCount();
+        }
+    }
+
     @Override
     @Transactional(readOnly = true)
     @Cacheable(value = "account-balances", key = "#accountId")
     public BigDecimal getAccountBalance(Long accountId) {
-        // Calculate balance by subtracting debits from credits
-        BigDecimal credits = transactionRepository.getTotalCreditsByAccountId(accountId, LocalDateTime.of(2020, 1, 1, 0, 0));
-        BigDecimal debits = transactionRepository.getTotalDebitsByAccountId(accountId, LocalDateTime.of(2020, 1, 1, 0, 0));
-        
-        credits = credits != null ? credits : BigDecimal.ZERO;
-        debits = debits != null ? debits : BigDecimal.ZERO;
-        
-        return credits.subtract(debits);
+        // Credits minus debits from the daily rollups, which also cover archived months
+        return rollupService.getBalance(accountId);
     }
 
     @Override
     @Transactional(readOnly = true)
-    @Cacheable(value = "transaction-limits", key = "'debits:' + #accountId + ':' + #since")
     public BigDecimal getTotalDebitsByAccountId(Long accountId, LocalDateTime since) {
-        BigDecimal total = transactionRepository.getTotalDebitsByAccountId(accountId, since);
-        return total != null ? total : BigDecimal.ZERO;
+        return rollupService.getTotalDebits(accountId, since);
     }
 
     @Override
     @Transactional(readOnly = true)
-    @Cacheable(value = "transaction-limits", key = "'credits:' + #accountId + ':' + #since")
     public BigDecimal getTotalCreditsByAccountId(Long accountId, LocalDateTime since) {
-        BigDecimal total = transactionRepository.getTotalCreditsByAccountId(accountId, since);
-        return total != null ? total : BigDecimal.ZERO;
+        return rollupService.getTotalCredits(accountId, since);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public SpendingInsightsDto getSpendingInsights(Long accountId, int months) {
+        return rollupService.getSpendingInsights(accountId, months);
+    }
+
+    /**
+     * Not read-only, so a missing list is filled from the primary: a lagging replica could leave
+     * out a transaction whose write to the store was skipped because the list did not exist yet.
+     */
+    @Override
+    public List<TransactionDto> getMiniStatement(Long accountId, int limit) {
+        return recentActivityService.getMiniStatement(accountId, limit);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public QuickPaySuggestionsDto getQuickPaySuggestions(Long userId, int limit) {
+        return quickPayService.getSuggestions(userId, limit);
     }
 
     @Override
     @Transactional(readOnly = true)
     @Cacheable(value = "transaction-limits", key = "'count:' + #userId + ':' + #status")
     public long getTransactionCountByUserIdAndStatus(Long userId, TransactionStatus status) {
-        return transactionRepository.countByUserIdAndStatus(userId, status);
+        return transactionRepository.countByUserIdAndStatusAndProcessedAtGreaterThanEqual(userId, status, retentionPolicy.hotWindowStart());
+    }
+
+    private Transaction buildTransaction(CreateTransactionRequest request, TransactionStatus status) {
+        if (!INITIAL_STATUSES.contains(status)) {
+            throw new IllegalArgumentException("Transactions cannot be created with status " + status);
+        }
+
+        BigDecimal fee = calculateFee(request.getAmount(), request.getTransactionType());
+        return Transaction.builder()
+                .transactionId(generateTransactionId())
+                .fromAccountId(request.getFromAccountId())
+                .toAccountId(request.getToAccountId())
+                .amount(request.getAmount())
+                .transactionType(request.getTransactionType())
+                .status(status)
+                .description(request.getDescription())
+                .category(categoryService.categorize(request.getDescription()))
+                .referenceNumber(generateReferenceNumber())
+                .userId(request.getUserId())
+                .feeAmount(fee)
+                .totalAmount(request.getAmount().add(fee))
+                .processedAt(LocalDateTime.now())
+                .build();
     }
 
     private String generateTransactionId() {
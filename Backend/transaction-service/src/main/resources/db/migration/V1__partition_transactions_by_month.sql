@@ -0,0 +1,84 @@
+-- Range-partition transactions by month on processed_at
+-- PostgreSQL only. Run once, during a maintenance window, before deploying the partition-aware release.
+-- Existing rows are kept in place as the transactions_legacy partition, covering everything up to
+-- the end of the current month; TransactionPartitionManager creates the monthly partitions after it.
+
+-- processed_at becomes the partition key and may no longer be null
+DO $$
+BEGIN
+    IF to_regclass('transactions') IS NOT NULL
+       AND NOT EXISTS (SELECT 1 FROM pg_partitioned_table WHERE partrelid = 'transactions'::regclass) THEN
+        UPDATE transactions SET processed_at = created_at WHERE processed_at IS NULL;
+        ALTER TABLE transactions ALTER COLUMN processed_at SET NOT NULL;
+
+        -- Unique keys of a partitioned table must include the partition key; the parent recreates them
+        ALTER TABLE transactions DROP CONSTRAINT IF EXISTS transactions_pkey;
+        EXECUTE (
+            SELECT COALESCE(string_agg('ALTER TABLE transactions DROP CONSTRAINT ' || quote_ident(conname), '; '), 'SELECT 1')
+            FROM pg_constraint
+            WHERE conrelid = 'transactions'::regclass AND contype = 'u'
+        );
+        ALTER TABLE transactions RENAME TO transactions_legacy;
+    END IF;
+END $$;
+
+CREATE TABLE IF NOT EXISTS transactions (
+    id                BIGINT         NOT NULL,
+    transaction_id    VARCHAR(255)   NOT NULL,
+    from_account_id   BIGINT         NOT NULL,
+    to_account_id     BIGINT,
+    amount            NUMERIC(19, 2) NOT NULL,
+    transaction_type  VARCHAR(255)   NOT NULL,
+    status            VARCHAR(255)   NOT NULL,
+    description       VARCHAR(255),
+    reference_number  VARCHAR(255),
+    processed_at      TIMESTAMP(6)   NOT NULL,
+    user_id           BIGINT         NOT NULL,
+    fee_amount        NUMERIC(19, 2),
+    total_amount      NUMERIC(19, 2),
+    created_at        TIMESTAMP(6)   NOT NULL,
+    updated_at        TIMESTAMP(6),
+    version           BIGINT,
+    PRIMARY KEY (id, processed_at),
+    UNIQUE (transaction_id, processed_at),
+    UNIQUE (reference_number, processed_at)
+) PARTITION BY RANGE (processed_at);
+
+-- Every online query filters on processed_at, so it leads or follows each access path
+CREATE INDEX IF NOT EXISTS idx_transactions_from_account_processed ON transactions (from_account_id, processed_at DESC);
+CREATE INDEX IF NOT EXISTS idx_transactions_to_account_processed ON transactions (to_account_id, processed_at DESC);
+CREATE INDEX IF NOT EXISTS idx_transactions_user_processed ON transactions (user_id, processed_at DESC);
+CREATE INDEX IF NOT EXISTS idx_transactions_status_processed ON transactions (status, processed_at DESC);
+CREATE INDEX IF NOT EXISTS idx_transactions_type_processed ON transactions (transaction_type, processed_at DESC);
+-- Lookups by transaction id have no time bound and probe every partition's index
+CREATE INDEX IF NOT EXISTS idx_transactions_transaction_id ON transactions (transaction_id);
+CREATE INDEX IF NOT EXISTS idx_transactions_reference_number ON transactions (reference_number);
+
+DO $$
+BEGIN
+    IF to_regclass('transactions_legacy') IS NOT NULL AND NOT EXISTS (
+        SELECT 1 FROM pg_inherits WHERE inhrelid = 'transactions_legacy'::regclass) THEN
+        EXECUTE format('ALTER TABLE transactions ATTACH PARTITION transactions_legacy FOR VALUES FROM (MINVALUE) TO (%L)',
+                       date_trunc('month', now()) + INTERVAL '1 month');
+    END IF;
+END $$;
+
+-- Catches rows outside every monthly partition instead of failing the insert
+CREATE TABLE IF NOT EXISTS transactions_default PARTITION OF transactions DEFAULT;
+
+-- Pooled id allocation (Transaction.ID_ALLOCATION_SIZE); TransactionIdSequenceConfig moves it past existing ids
+CREATE SEQUENCE IF NOT EXISTS transactions_seq INCREMENT BY 50;
+
+CREATE TABLE IF NOT EXISTS transaction_archives (
+    id           BIGSERIAL PRIMARY KEY,
+    period       VARCHAR(7)   NOT NULL UNIQUE,
+    period_start TIMESTAMP(6) NOT NULL,
+    period_end   TIMESTAMP(6) NOT NULL,
+    file_name    VARCHAR(255) NOT NULL,
+    row_count    BIGINT       NOT NULL,
+    size_bytes   BIGINT       NOT NULL,
+    checksum     VARCHAR(64)  NOT NULL,
+    created_at   TIMESTAMP(6) NOT NULL,
+    updated_at   TIMESTAMP(6),
+    version      BIGINT
+);
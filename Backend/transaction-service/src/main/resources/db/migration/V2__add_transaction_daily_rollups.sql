@@ -0,0 +1,14 @@
+-- Per-account, per-day, per-type totals of completed transactions
+-- Maintained incrementally by TransactionRollupService and backfilled from transactions on first start
+
+CREATE TABLE IF NOT EXISTS transaction_daily_rollups (
+    id               BIGSERIAL PRIMARY KEY,
+    account_id       BIGINT         NOT NULL,
+    rollup_date      DATE           NOT NULL,
+    transaction_type VARCHAR(255)   NOT NULL,
+    debit_count      BIGINT         NOT NULL DEFAULT 0,
+    debit_amount     NUMERIC(19, 2) NOT NULL DEFAULT 0,
+    credit_count     BIGINT         NOT NULL DEFAULT 0,
+    credit_amount    NUMERIC(19, 2) NOT NULL DEFAULT 0,
+    CONSTRAINT uk_rollup_account_date_type UNIQUE (account_id, rollup_date, transaction_type)
+);
@@ -0,0 +1,5 @@
+-- The search index catches up on rows written since its last commit, including rows written by
+-- other instances; these keep that query off a sequential scan of every hot partition
+
+CREATE INDEX IF NOT EXISTS idx_transactions_created_at ON transactions (created_at);
+CREATE INDEX IF NOT EXISTS idx_transactions_updated_at ON transactions (updated_at);
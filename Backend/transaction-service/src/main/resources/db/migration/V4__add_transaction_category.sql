@@ -0,0 +1,9 @@
+-- Spending category matched from the description at insert time; existing rows are categorized
+-- by the backfill TransactionCategoryService runs on start-up
+
+ALTER TABLE transactions ADD COLUMN IF NOT EXISTS category VARCHAR(64);
+
+-- Keeps the backfill's search for rows still to categorize off a sequential scan once they are done
+CREATE INDEX IF NOT EXISTS idx_transactions_uncategorized ON transactions (id) WHERE category IS NULL;
+-- Per-category totals for an account over the insights window
+CREATE INDEX IF NOT EXISTS idx_transactions_from_account_category ON transactions (from_account_id, processed_at, category);
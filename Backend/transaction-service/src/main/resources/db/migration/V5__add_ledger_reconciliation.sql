@@ -0,0 +1,52 @@
+-- Ledger reconciliation against account-service balances, see LedgerReconciliationService.
+-- A run is split into account id chunks that are claimed, checkpointed and resumed independently.
+
+CREATE TABLE IF NOT EXISTS reconciliation_runs (
+    id             BIGSERIAL PRIMARY KEY,
+    status         VARCHAR(16)    NOT NULL,
+    -- 'active' until the run completes; the unique constraint allows one unfinished run at a time
+    active_key     VARCHAR(8)     UNIQUE,
+    started_at     TIMESTAMP(6)   NOT NULL,
+    finished_at    TIMESTAMP(6),
+    min_account_id BIGINT         NOT NULL,
+    max_account_id BIGINT         NOT NULL,
+    total_chunks   INTEGER        NOT NULL,
+    tolerance      NUMERIC(19, 2) NOT NULL,
+    last_error     VARCHAR(1000),
+    created_at     TIMESTAMP(6)   NOT NULL,
+    updated_at     TIMESTAMP(6),
+    version        BIGINT
+);
+
+CREATE TABLE IF NOT EXISTS reconciliation_chunks (
+    id                BIGSERIAL PRIMARY KEY,
+    run_id            BIGINT       NOT NULL REFERENCES reconciliation_runs (id),
+    from_id           BIGINT       NOT NULL,
+    to_id             BIGINT       NOT NULL,
+    checkpoint_id     BIGINT       NOT NULL,
+    status            VARCHAR(16)  NOT NULL,
+    owner             VARCHAR(64),
+    heartbeat_at      TIMESTAMP(6),
+    accounts_checked  BIGINT       NOT NULL DEFAULT 0,
+    discrepancy_count BIGINT       NOT NULL DEFAULT 0,
+    created_at        TIMESTAMP(6) NOT NULL,
+    updated_at        TIMESTAMP(6),
+    version           BIGINT
+);
+
+CREATE INDEX IF NOT EXISTS idx_reconciliation_chunks_run_status ON reconciliation_chunks (run_id, status);
+
+CREATE SEQUENCE IF NOT EXISTS reconciliation_discrepancies_seq INCREMENT BY 50;
+
+CREATE TABLE IF NOT EXISTS reconciliation_discrepancies (
+    id              BIGINT PRIMARY KEY DEFAULT nextval('reconciliation_discrepancies_seq'),
+    run_id          BIGINT         NOT NULL REFERENCES reconciliation_runs (id),
+    account_id      BIGINT         NOT NULL,
+    type            VARCHAR(32)    NOT NULL,
+    account_balance NUMERIC(19, 2),
+    ledger_balance  NUMERIC(19, 2) NOT NULL,
+    difference      NUMERIC(19, 2) NOT NULL,
+    detected_at     TIMESTAMP(6)   NOT NULL
+);
+
+CREATE INDEX IF NOT EXISTS idx_reconciliation_discrepancies_run_account ON reconciliation_discrepancies (run_id, account_id);
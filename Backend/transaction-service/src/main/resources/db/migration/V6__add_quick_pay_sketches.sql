@@ -0,0 +1,8 @@
+-- Per-user Space-Saving counters of recipients, billers and amounts, serialized by QuickPaySketches.
+-- Instances merge their counts into a row under a row lock on each flush.
+
+CREATE TABLE IF NOT EXISTS quick_pay_sketches (
+    user_id    BIGINT PRIMARY KEY,
+    data       BYTEA        NOT NULL,
+    updated_at TIMESTAMP(6) NOT NULL
+);
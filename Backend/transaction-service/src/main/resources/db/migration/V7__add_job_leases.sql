@@ -0,0 +1,8 @@
+-- Leases that keep one-off jobs, such as the backfills run on startup, to one instance at a time.
+-- A lease expires, so a job whose holder died is taken over by the next instance that tries it.
+
+CREATE TABLE IF NOT EXISTS job_leases (
+    name         VARCHAR(64) PRIMARY KEY,
+    owner        VARCHAR(64),
+    leased_until TIMESTAMP(6) NOT NULL
+);
@@ -0,0 +1,10 @@
+-- Progress of the one-off rollup backfill. Transactions processed before the cutoff are rolled up
+-- by the backfill, later ones as they complete; balances are read from the transactions until
+-- completed_at is set.
+
+CREATE TABLE IF NOT EXISTS rollup_backfills (
+    name             VARCHAR(64) PRIMARY KEY,
+    cutoff           TIMESTAMP(6) NOT NULL,
+    backfilled_until TIMESTAMP(6),
+    completed_at     TIMESTAMP(6)
+);
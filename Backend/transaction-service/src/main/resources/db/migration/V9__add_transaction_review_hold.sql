@@ -0,0 +1,6 @@
+-- Transactions fraud scoring held for review; they stay PENDING and cannot complete until released
+
+ALTER TABLE transactions ADD COLUMN IF NOT EXISTS held_for_review BOOLEAN NOT NULL DEFAULT FALSE;
+
+-- The review queue is a handful of rows among millions
+CREATE INDEX IF NOT EXISTS idx_transactions_held_for_review ON transactions (processed_at) WHERE held_for_review;
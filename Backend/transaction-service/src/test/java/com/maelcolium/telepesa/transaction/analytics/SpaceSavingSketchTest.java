@@ -0,0 +1,110 @@
+package com.maelcolium.telepesa.transaction.analytics;
+
+import com.maelcolium.telepesa.models.enums.TransactionType;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.*;
+
+class SpaceSavingSketchTest {
+
+    @Test
+    void offer_WithinCapacity_ShouldCountExactlyMostFrequentFirst() {
+        // Given
+        SpaceSavingSketch sketch = new SpaceSavingSketch(4);
+
+        // When
+        for (long key : new long[]{7, 3, 7, 9, 7, 3}) {
+            sketch.offer(key);
+        }
+
+        // Then
+        assertThat(sketch.top(10)).containsExactly(
+                new SpaceSavingSketch.Entry(7, 3, 0),
+                new SpaceSavingSketch.Entry(3, 2, 0),
+                new SpaceSavingSketch.Entry(9, 1, 0));
+        assertThat(sketch.top(1)).extracting(SpaceSavingSketch.Entry::key).containsExactly(7L);
+    }
+
+    @Test
+    void offer_BeyondCapacity_ShouldKeepHeavyHittersWithBoundedError() {
+        // Given: three frequent keys among many one-off ones
+        SpaceSavingSketch sketch = new SpaceSavingSketch(8);
+        Random random = new Random(42);
+
+        // When
+        for (int i = 0; i < 10_000; i++) {
+            int roll = random.nextInt(20);
+            sketch.offer(roll < 6 ? 1 : roll < 10 ? 2 : roll < 13 ? 3 : 1_000 + random.nextInt(1_000_000));
+        }
+
+        // Then
+        assertThat(sketch.size()).isEqualTo(8);
+        assertThat(sketch.top(3)).extracting(SpaceSavingSketch.Entry::key).containsExactly(1L, 2L, 3L);
+        for (SpaceSavingSketch.Entry entry : sketch.top(3)) {
+            assertThat(entry.error()).isLessThanOrEqualTo(10_000 / 8);
+        }
+    }
+
+    @Test
+    void merge_ShouldAddCountsOfBothStreams() {
+        // Given
+        SpaceSavingSketch first = new SpaceSavingSketch(4);
+        SpaceSavingSketch second = new SpaceSavingSketch(4);
+        first.offer(1);
+        first.offer(2);
+        second.offer(2);
+        second.offer(2);
+
+        // When
+        first.merge(second);
+
+        // Then
+        assertThat(first.top(2)).containsExactly(
+                new SpaceSavingSketch.Entry(2, 3, 0),
+                new SpaceSavingSketch.Entry(1, 1, 0));
+    }
+
+    @Test
+    void toBytes_ShouldRoundTripCompactly() {
+        // Given
+        QuickPaySketches sketches = new QuickPaySketches(16);
+        for (int i = 0; i < 100; i++) {
+            sketches.record(TransactionType.TRANSFER, 5_000L + i % 20, new BigDecimal("250.00"));
+            sketches.record(TransactionType.PAYMENT, 42L, new BigDecimal("1999.99"));
+        }
+        sketches.record(TransactionType.DEPOSIT, 7L, new BigDecimal("1.00"));
+
+        // When
+        byte[] bytes = sketches.toBytes();
+        QuickPaySketches read = QuickPaySketches.fromBytes(bytes, 16);
+
+        // Then
+        assertThat(bytes.length).isLessThan(200);
+        assertThat(read.recipients().top(16)).isEqualTo(sketches.recipients().top(16));
+        assertThat(read.billers().top(1)).containsExactly(new SpaceSavingSketch.Entry(42, 100, 0));
+        assertThat(read.amounts().top(2)).extracting(entry -> QuickPaySketches.fromCents(entry.key()))
+                .containsExactly(new BigDecimal("250.00"), new BigDecimal("1999.99"));
+    }
+
+    @Test
+    void fromBytes_WithSmallerCapacity_ShouldKeepMostFrequent() {
+        // Given
+        QuickPaySketches sketches = new QuickPaySketches(8);
+        for (long recipient = 1; recipient <= 8; recipient++) {
+            for (int i = 0; i < recipient; i++) {
+                sketches.record(TransactionType.TRANSFER, recipient, null);
+            }
+        }
+
+        // When
+        QuickPaySketches read = QuickPaySketches.fromBytes(sketches.toBytes(), 2);
+
+        // Then
+        assertThat(read.recipients().top(2)).extracting(SpaceSavingSketch.Entry::key).containsExactly(8L, 7L);
+        assertThatThrownBy(() -> QuickPaySketches.fromBytes(new byte[]{1, 5}, 2))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+}
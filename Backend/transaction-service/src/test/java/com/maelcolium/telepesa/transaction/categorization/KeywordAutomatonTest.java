@@ -0,0 +1,101 @@
+package com.maelcolium.telepesa.transaction.categorization;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.*;
+
+class KeywordAutomatonTest {
+
+    private KeywordAutomaton automaton;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        automaton = KeywordAutomaton.compile(dictionary("""
+                # test dictionary
+                utilities: kplc, kenya power, nairobi water
+                transfers: transfer to, m-pesa transfer
+                betting: bet, sportpesa
+                airtime: safaricom airtime
+                internet-tv: safaricom home
+                """).keywords());
+    }
+
+    @Test
+    void match_ShouldIgnoreCaseAndPunctuation() {
+        assertThat(automaton.match("KPLC")).isEqualTo("utilities");
+        assertThat(automaton.match("Payment to Kenya-Power, acc 1234")).isEqualTo("utilities");
+        assertThat(automaton.match("M.PESA  TRANSFER to 0712")).isEqualTo("transfers");
+    }
+
+    @Test
+    void match_ShouldOnlyMatchWholeWords() {
+        assertThat(automaton.match("Alphabet books")).isNull();
+        assertThat(automaton.match("kplcx")).isNull();
+        assertThat(automaton.match("Place a bet")).isEqualTo("betting");
+    }
+
+    @Test
+    void match_WithSeveralKeywords_ShouldPreferTheLongest() {
+        // "transfer to" and "safaricom home" both match; the longer keyword decides
+        assertThat(automaton.match("Transfer to Safaricom Home fibre")).isEqualTo("internet-tv");
+        assertThat(automaton.match("Safaricom airtime then sportpesa")).isEqualTo("airtime");
+    }
+
+    @Test
+    void match_WithOverlappingKeywords_ShouldFollowFailureLinks() {
+        // "safaricom a..." first follows the "safaricom home" branch and has to fall back
+        assertThat(automaton.match("safaricom safaricom airtime")).isEqualTo("airtime");
+        assertThat(automaton.match("nairobi kenya power")).isEqualTo("utilities");
+    }
+
+    @Test
+    void match_WithNothingToMatch_ShouldReturnNull() {
+        assertThat(automaton.match(null)).isNull();
+        assertThat(automaton.match("")).isNull();
+        assertThat(automaton.match("Lunch with friends ☕")).isNull();
+        assertThat(KeywordAutomaton.compile(Map.of()).match("kplc")).isNull();
+    }
+
+    @Test
+    void compile_WithNonAsciiKeywords_ShouldMatchThem() {
+        Map<String, String> keywords = new LinkedHashMap<>();
+        keywords.put("Café Délice", "dining");
+        KeywordAutomaton accented = KeywordAutomaton.compile(keywords);
+
+        assertThat(accented.match("CAFÉ DÉLICE Westlands")).isEqualTo("dining");
+        assertThat(accented.match("Cafe Delice")).isNull();
+    }
+
+    @Test
+    void parse_ShouldKeepFirstCategoryForRepeatedKeywordAndHashContent() throws IOException {
+        // Given
+        CategoryDictionary first = dictionary("a: one, two\nb: two, three\n");
+        CategoryDictionary same = dictionary("a: one, two\nb: two, three\n");
+
+        // Then
+        assertThat(first.keywords()).containsExactly(Map.entry("one", "a"), Map.entry("two", "a"), Map.entry("three", "b"));
+        assertThat(first.version()).isEqualTo(same.version()).hasSize(16);
+        assertThat(dictionary("a: one\n").version()).isNotEqualTo(first.version());
+    }
+
+    @Test
+    void parse_WithMalformedLine_ShouldThrowIllegalArgumentException() {
+        assertThatThrownBy(() -> dictionary("utilities kplc\n"))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("line 1");
+        assertThatThrownBy(() -> dictionary("# ok\nBad Category!: x\n"))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("line 2");
+    }
+
+    private static CategoryDictionary dictionary(String content) throws IOException {
+        return CategoryDictionary.parse(new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8)));
+    }
+}
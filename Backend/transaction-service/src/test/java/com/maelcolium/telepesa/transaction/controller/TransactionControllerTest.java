@@ -123,6 +123,20 @@ class TransactionControllerTest {
                 .andExpect(status().isBadRequest());
     }
 
+    @Test
+    void createTransaction_WithInitialStatus_ShouldReturnBadRequest() throws Exception {
+        // Given
+        String body = objectMapper.writeValueAsString(createRequest).replaceFirst("\\{", "{\"status\":\"COMPLETED\",");
+
+        // When & Then
+        mockMvc.perform(post("/api/v1/transactions")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(body))
+                .andExpect(status().isBadRequest());
+
+        verify(transactionService, never()).createTransaction(any(CreateTransactionRequest.class));
+    }
+
     @Test
     void getTransaction_WithValidId_ShouldReturnTransaction() throws Exception {
         // Given
@@ -1,7 +1,10 @@
 package com.maelcolium.telepesa.transaction.dto;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.maelcolium.telepesa.models.enums.TransactionStatus;
 import com.maelcolium.telepesa.models.enums.TransactionType;
 import org.junit.jupiter.api.Test;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
 
 import java.math.BigDecimal;
 
@@ -134,4 +137,31 @@ class CreateTransactionRequestTest {
         assertThat(request.getToAccountId()).isNull();
         assertThat(request.getDescription()).isNull();
     }
-} 
\ No newline at end of file
+
+    @Test
+    void deserialize_WithStatus_ShouldIgnoreIt() throws Exception {
+        // Given
+        String json = "{\"fromAccountId\":1,\"amount\":10.00,\"transactionType\":\"DEPOSIT\",\"userId\":1,\"status\":\"COMPLETED\"}";
+
+        // When: configured as the application's mapper, which ignores unknown fields
+        CreateTransactionRequest request = Jackson2ObjectMapperBuilder.json().build()
+                .readValue(json, CreateTransactionRequest.class);
+
+        // Then
+        assertThat(request).isNotInstanceOf(BatchTransactionRecord.class);
+        assertThat(request.getAmount()).isEqualByComparingTo("10.00");
+    }
+
+    @Test
+    void deserialize_BatchRecordWithStatus_ShouldKeepInitialStatus() throws Exception {
+        // Given
+        String json = "{\"fromAccountId\":1,\"amount\":10.00,\"transactionType\":\"DEPOSIT\",\"userId\":1,\"status\":\"COMPLETED\"}";
+
+        // When
+        BatchTransactionRecord record = new ObjectMapper().readValue(json, BatchTransactionRecord.class);
+
+        // Then
+        assertThat(record.getInitialStatus()).isEqualTo(TransactionStatus.COMPLETED);
+        assertThat(record.getAmount()).isEqualByComparingTo("10.00");
+    }
+}
@@ -0,0 +1,156 @@
+package com.maelcolium.telepesa.transaction.fraud;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.*;
+
+class FraudScorerTest {
+
+    private static final long START = 1_700_000_000_000L;
+    private static final int NOON = 12 * 60;
+
+    private FraudScorer scorer;
+
+    @BeforeEach
+    void setUp() {
+        FraudProperties properties = new FraudProperties();
+        properties.setMaxAccounts(1024);
+        properties.setMaxUsers(1024);
+        properties.setRules(List.of(
+                new FraudProperties.Rule("account-burst", "accountVelocity1m >= 5", 50),
+                new FraudProperties.Rule("amount-spike", "amountZScore >= 4 and history >= 5", 40),
+                new FraudProperties.Rule("new-counterparty-spike", "newCounterparty == 1 and amountZScore >= 2", 40),
+                new FraudProperties.Rule("odd-hour", "hourDeviation >= 6 and history >= 5", 15)));
+        scorer = new FraudScorer(properties, new SimpleMeterRegistry());
+    }
+
+    @Test
+    void assess_WithOrdinaryHistory_ShouldAllow() {
+        // Given
+        long now = regularHistory(1L, 100L, 10);
+
+        // When
+        FraudAssessment assessment = scorer.assess(1L, 100L, 200L, 1050, now + hours(24), NOON);
+
+        // Then
+        assertThat(assessment.decision()).isEqualTo(FraudDecision.ALLOW);
+        assertThat(assessment.rules()).isEmpty();
+    }
+
+    @Test
+    void assess_WithBurstFromOneAccount_ShouldReview() {
+        // Given
+        long now = START;
+        FraudAssessment assessment = null;
+
+        // When
+        for (int i = 0; i < 6; i++) {
+            assessment = scorer.assess(1L, 100L, 200L, 100, now + i * 1_000L, NOON);
+        }
+
+        // Then
+        assertThat(assessment.decision()).isEqualTo(FraudDecision.REVIEW);
+        assertThat(assessment.rules()).containsExactly("account-burst");
+    }
+
+    @Test
+    void assess_WithSpikeToNewCounterparty_ShouldBlockAndNotLearnIt() {
+        // Given
+        long now = regularHistory(1L, 100L, 10);
+
+        // When
+        FraudAssessment spike = scorer.assess(1L, 100L, 999L, 50_000, now + hours(24), NOON);
+        FraudAssessment again = scorer.assess(1L, 100L, 999L, 50_000, now + hours(48), NOON);
+
+        // Then
+        assertThat(spike.decision()).isEqualTo(FraudDecision.BLOCK);
+        assertThat(spike.score()).isEqualTo(80);
+        assertThat(spike.rules()).containsExactly("amount-spike", "new-counterparty-spike");
+        assertThat(again.decision()).isEqualTo(FraudDecision.BLOCK);
+    }
+
+    @Test
+    void assess_AtUnusualHour_ShouldScoreTimeOfDayDeviation() {
+        // Given
+        long now = regularHistory(1L, 100L, 10);
+
+        // When
+        FraudAssessment assessment = scorer.assess(1L, 100L, 200L, 1000, now + hours(24), 0);
+
+        // Then
+        assertThat(assessment.rules()).containsExactly("odd-hour");
+        assertThat(assessment.decision()).isEqualTo(FraudDecision.ALLOW);
+    }
+
+    @Test
+    void assess_ShouldKeepAccountsApart() {
+        // Given
+        regularHistory(1L, 100L, 10);
+
+        // When
+        FraudAssessment otherAccount = scorer.assess(2L, 300L, 999L, 50_000, START + hours(24 * 11), NOON);
+
+        // Then
+        assertThat(otherAccount.decision()).isEqualTo(FraudDecision.ALLOW);
+    }
+
+    @Test
+    void stateTable_WhenFull_ShouldEvictLeastRecentlySeenAndStayBounded() {
+        // Given
+        StripedStateTable table = new StripedStateTable(64, 4, 1, 1);
+
+        // When
+        for (long key = 1; key <= 10_000; key++) {
+            int slot = table.lock(key, key);
+            try {
+                table.longs[table.longIndex(slot, 0)] = key;
+            } finally {
+                table.unlock(slot);
+            }
+        }
+
+        // Then
+        assertThat(table.capacity()).isEqualTo(64);
+        assertThat(table.evictions()).isGreaterThanOrEqualTo(10_000 - 64);
+        int slot = table.lock(10_000, 10_001);
+        try {
+            assertThat(table.longs[table.longIndex(slot, 0)]).isEqualTo(10_000);
+        } finally {
+            table.unlock(slot);
+        }
+    }
+
+    @Test
+    void compile_WithUnknownFeatureOrBadCondition_ShouldThrowIllegalArgumentException() {
+        assertThatThrownBy(() -> FraudRuleSet.compile(List.of(new FraudProperties.Rule("x", "speed > 3", 10)), 40, 80))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("speed");
+        assertThatThrownBy(() -> FraudRuleSet.compile(List.of(new FraudProperties.Rule("x", "amount >> 3", 10)), 40, 80))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> FraudRuleSet.compile(List.of(), 90, 80))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    /**
+     * Ten days of one transaction a day around noon to the same counterparty, amounts near 1000.
+     *
+     * @return the time of the last transaction
+     */
+    private long regularHistory(long userId, long accountId, int days) {
+        long now = START;
+        for (int day = 0; day < days; day++) {
+            now = START + hours(24L * day);
+            FraudAssessment assessment = scorer.assess(userId, accountId, 200L, 1000 + (day % 3) * 50, now, NOON + (day % 3) * 10);
+            assertThat(assessment.decision()).isEqualTo(FraudDecision.ALLOW);
+        }
+        return now;
+    }
+
+    private static long hours(long hours) {
+        return hours * 3_600_000L;
+    }
+}
@@ -1,5 +1,6 @@
 package com.maelcolium.telepesa.transaction.repository;
 
+import com.maelcolium.telepesa.transaction.dto.TransactionExportRow;
 import com.maelcolium.telepesa.transaction.model.Transaction;
 import com.maelcolium.telepesa.models.enums.TransactionStatus;
 import com.maelcolium.telepesa.models.enums.TransactionType;
@@ -13,8 +14,10 @@ import org.springframework.test.context.ActiveProfiles;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 import static org.assertj.core.api.Assertions.*;
 
@@ -22,6 +25,8 @@ import static org.assertj.core.api.Assertions.*;
 @ActiveProfiles("test")
 class TransactionRepositoryTest {
 
+    private static final LocalDateTime SINCE = LocalDateTime.now().minusMonths(1);
+
     @Autowired
     private TestEntityManager entityManager;
 
@@ -42,6 +47,28 @@ class TransactionRepositoryTest {
         assertThat(result.get().getTransactionId()).isEqualTo("TXN-12345678");
     }
 
+    @Test
+    void saveAll_ShouldAssignIdsFromPooledSequence() {
+        // Given
+        List<Transaction> transactions = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            Transaction transaction = createTestTransaction();
+            transaction.setTransactionId("TXN-BATCH-" + i);
+            transaction.setReferenceNumber("REF-BATCH-" + i);
+            transactions.add(transaction);
+        }
+
+        // When
+        List<Transaction> saved = transactionRepository.saveAll(transactions);
+        entityManager.flush();
+
+        // Then
+        assertThat(saved).extracting(Transaction::getId).doesNotContainNull();
+        assertThat(saved.get(1).getId()).isEqualTo(saved.get(0).getId() + 1);
+        assertThat(saved.get(2).getId()).isEqualTo(saved.get(0).getId() + 2);
+        assertThat(transactionRepository.count()).isEqualTo(3);
+    }
+
     @Test
     void findByTransactionId_WithNonExistingTransaction_ShouldReturnEmpty() {
         // When
@@ -80,7 +107,7 @@ class TransactionRepositoryTest {
         entityManager.persistAndFlush(transaction2);
 
         // When
-        Page<Transaction> result = transactionRepository.findByUserId(10L, PageRequest.of(0, 10));
+        Page<Transaction> result = transactionRepository.findByUserIdAndProcessedAtGreaterThanEqual(10L, SINCE, PageRequest.of(0, 10));
 
         // Then
         assertThat(result.getContent()).hasSize(2);
@@ -96,7 +123,7 @@ class TransactionRepositoryTest {
         entityManager.persistAndFlush(transaction);
 
         // When
-        Page<Transaction> result = transactionRepository.findByFromAccountId(1L, PageRequest.of(0, 10));
+        Page<Transaction> result = transactionRepository.findByFromAccountIdAndProcessedAtGreaterThanEqual(1L, SINCE, PageRequest.of(0, 10));
 
         // Then
         assertThat(result.getContent()).hasSize(1);
@@ -112,7 +139,7 @@ class TransactionRepositoryTest {
         entityManager.persistAndFlush(transaction);
 
         // When
-        Page<Transaction> result = transactionRepository.findByToAccountId(2L, PageRequest.of(0, 10));
+        Page<Transaction> result = transactionRepository.findByToAccountIdAndProcessedAtGreaterThanEqual(2L, SINCE, PageRequest.of(0, 10));
 
         // Then
         assertThat(result.getContent()).hasSize(1);
@@ -135,7 +162,7 @@ class TransactionRepositoryTest {
         entityManager.persistAndFlush(transaction2);
 
         // When
-        Page<Transaction> result = transactionRepository.findByFromAccountIdOrToAccountId(1L, 1L, PageRequest.of(0, 10));
+        Page<Transaction> result = transactionRepository.findByAccountIdSince(1L, SINCE, PageRequest.of(0, 10));
 
         // Then
         assertThat(result.getContent()).hasSize(1);
@@ -151,7 +178,7 @@ class TransactionRepositoryTest {
         entityManager.persistAndFlush(transaction);
 
         // When
-        Page<Transaction> result = transactionRepository.findByStatus(TransactionStatus.COMPLETED, PageRequest.of(0, 10));
+        Page<Transaction> result = transactionRepository.findByStatusAndProcessedAtGreaterThanEqual(TransactionStatus.COMPLETED, SINCE, PageRequest.of(0, 10));
 
         // Then
         assertThat(result.getContent()).hasSize(1);
@@ -167,7 +194,7 @@ class TransactionRepositoryTest {
         entityManager.persistAndFlush(transaction);
 
         // When
-        Page<Transaction> result = transactionRepository.findByTransactionType(TransactionType.DEPOSIT, PageRequest.of(0, 10));
+        Page<Transaction> result = transactionRepository.findByTransactionTypeAndProcessedAtGreaterThanEqual(TransactionType.DEPOSIT, SINCE, PageRequest.of(0, 10));
 
         // Then
         assertThat(result.getContent()).hasSize(1);
@@ -209,7 +236,7 @@ class TransactionRepositoryTest {
         entityManager.persistAndFlush(transaction2);
 
         // When
-        List<Transaction> result = transactionRepository.findAllByAccountId(1L);
+        List<Transaction> result = transactionRepository.findAllByAccountId(1L, SINCE);
 
         // Then
         assertThat(result).hasSize(2);
@@ -217,6 +244,25 @@ class TransactionRepositoryTest {
         assertThat(result).anyMatch(t -> t.getToAccountId().equals(1L));
     }
 
+    @Test
+    void findAllByAccountId_ShouldExcludeTransactionsBeforeSince() {
+        // Given
+        Transaction recent = createTestTransaction();
+        recent.setReferenceNumber("REF-BOUND-1");
+        Transaction old = createTestTransaction();
+        old.setTransactionId("TXN-OLD00001");
+        old.setReferenceNumber("REF-BOUND-2");
+        old.setProcessedAt(SINCE.minusDays(1));
+        entityManager.persistAndFlush(recent);
+        entityManager.persistAndFlush(old);
+
+        // When
+        List<Transaction> result = transactionRepository.findAllByAccountId(1L, SINCE);
+
+        // Then
+        assertThat(result).extracting(Transaction::getTransactionId).containsExactly("TXN-12345678");
+    }
+
     @Test
     void countByUserIdAndStatus_ShouldReturnCorrectCount() {
         // Given
@@ -233,7 +279,7 @@ class TransactionRepositoryTest {
         entityManager.persistAndFlush(transaction2);
 
         // When
-        long result = transactionRepository.countByUserIdAndStatus(10L, TransactionStatus.COMPLETED);
+        long result = transactionRepository.countByUserIdAndStatusAndProcessedAtGreaterThanEqual(10L, TransactionStatus.COMPLETED, SINCE);
 
         // Then
         assertThat(result).isEqualTo(2);
@@ -257,7 +303,7 @@ class TransactionRepositoryTest {
         entityManager.persistAndFlush(transaction2);
 
         // When
-        BigDecimal result = transactionRepository.getTotalDebitsByAccountId(1L, LocalDateTime.now().minusDays(1));
+        BigDecimal result = transactionRepository.getTotalDebitsByAccountId(1L, LocalDateTime.now().minusDays(1), LocalDateTime.now().plusDays(1));
 
         // Then
         assertThat(result).isEqualTo(new BigDecimal("300.00"));
@@ -281,12 +327,45 @@ class TransactionRepositoryTest {
         entityManager.persistAndFlush(transaction2);
 
         // When
-        BigDecimal result = transactionRepository.getTotalCreditsByAccountId(1L, LocalDateTime.now().minusDays(1));
+        BigDecimal result = transactionRepository.getTotalCreditsByAccountId(1L, LocalDateTime.now().minusDays(1), LocalDateTime.now().plusDays(1));
 
         // Then
         assertThat(result).isEqualTo(new BigDecimal("300.00"));
     }
 
+    @Test
+    void streamAccountHistory_ShouldStreamProjectionsNewestFirst() {
+        // Given
+        Transaction older = createTestTransaction();
+        older.setReferenceNumber("REF-STREAM-1");
+        older.setProcessedAt(LocalDateTime.now().minusDays(2));
+        Transaction newer = createTestTransaction();
+        newer.setTransactionId("TXN-87654321");
+        newer.setFromAccountId(3L);
+        newer.setToAccountId(1L);
+        newer.setReferenceNumber("REF-STREAM-2");
+        Transaction unrelated = createTestTransaction();
+        unrelated.setTransactionId("TXN-00000000");
+        unrelated.setFromAccountId(5L);
+        unrelated.setToAccountId(6L);
+        unrelated.setReferenceNumber("REF-STREAM-3");
+        entityManager.persist(older);
+        entityManager.persist(newer);
+        entityManager.persist(unrelated);
+        entityManager.flush();
+        entityManager.clear();
+
+        // When
+        List<TransactionExportRow> rows;
+        try (Stream<TransactionExportRow> stream = transactionRepository.streamAccountHistory(1L, SINCE)) {
+            rows = stream.toList();
+        }
+
+        // Then
+        assertThat(rows).extracting(TransactionExportRow::transactionId).containsExactly("TXN-87654321", "TXN-12345678");
+        assertThat(rows.get(1).amount()).isEqualByComparingTo("100.00");
+    }
+
     private Transaction createTestTransaction() {
         return Transaction.builder()
                 .transactionId("TXN-12345678")
@@ -0,0 +1,158 @@
+package com.maelcolium.telepesa.transaction.security;
+
+import com.maelcolium.telepesa.security.GatewayIdentity;
+import com.maelcolium.telepesa.security.TokenPrincipal;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.http.HttpServletResponse;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+class GatewayIdentityFilterTest {
+
+    private static final long NOW = 1_760_000_000L;
+
+    private final GatewayIdentity gatewayIdentity = new GatewayIdentity("telepesa-test-gateway-identity-secret-0123456789", 30);
+    private final GatewayIdentityFilter filter =
+        new GatewayIdentityFilter(gatewayIdentity, Clock.fixed(Instant.ofEpochSecond(NOW), ZoneOffset.UTC));
+    private final FilterChain chain = mock(FilterChain.class);
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void doFilter_WithoutIdentityHeaders_ShouldPassThrough() throws Exception {
+        // Given
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/v1/transactions");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        // When
+        filter.doFilter(request, response, chain);
+
+        // Then
+        verify(chain).doFilter(request, response);
+        assertThat(SecurityContextHolder.getContext().getAuthentication()).isNull();
+    }
+
+    @Test
+    void doFilter_WithSignedHeaders_ShouldAuthenticate() throws Exception {
+        // Given
+        MockHttpServletRequest request = signed("42", "alice", "USER", NOW - 5);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        // When
+        filter.doFilter(request, response, chain);
+
+        // Then
+        verify(chain).doFilter(request, response);
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        assertThat(authentication.getPrincipal()).isEqualTo(new TokenPrincipal(42L, "alice", List.of("USER")));
+        assertThat(authentication.getAuthorities()).extracting(Object::toString).containsExactly("ROLE_USER");
+    }
+
+    @Test
+    void doFilter_WithForgedHeaders_ShouldRejectWith401() throws Exception {
+        // Given
+        MockHttpServletRequest request = signed("42", "alice", "USER", NOW);
+        request.removeHeader(GatewayIdentity.USER_ROLES);
+        request.addHeader(GatewayIdentity.USER_ROLES, "ADMIN");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        // When
+        filter.doFilter(request, response, chain);
+
+        // Then
+        assertThat(response.getStatus()).isEqualTo(HttpServletResponse.SC_UNAUTHORIZED);
+        verify(chain, never()).doFilter(any(), any());
+    }
+
+    @Test
+    void doFilter_WithUnsignedHeaders_ShouldRejectWith401() throws Exception {
+        // Given
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/v1/transactions");
+        request.addHeader(GatewayIdentity.USER_NAME, "alice");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        // When
+        filter.doFilter(request, response, chain);
+
+        // Then
+        assertThat(response.getStatus()).isEqualTo(HttpServletResponse.SC_UNAUTHORIZED);
+        verify(chain, never()).doFilter(any(), any());
+    }
+
+    @Test
+    void doFilter_WithExpiredHeaders_ShouldRejectWith401() throws Exception {
+        // Given
+        MockHttpServletRequest request = signed("42", "alice", "USER", NOW - 31);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        // When
+        filter.doFilter(request, response, chain);
+
+        // Then
+        assertThat(response.getStatus()).isEqualTo(HttpServletResponse.SC_UNAUTHORIZED);
+        verify(chain, never()).doFilter(any(), any());
+    }
+
+    @Test
+    void doFilter_WithHeadersForAnotherUserThanTheToken_ShouldRejectWith401() throws Exception {
+        // Given
+        TokenPrincipal tokenUser = new TokenPrincipal(7L, "bob", List.of("USER"));
+        SecurityContextHolder.getContext().setAuthentication(
+            new UsernamePasswordAuthenticationToken(tokenUser, null, tokenUser.getAuthorities()));
+        MockHttpServletRequest request = signed("42", "alice", "USER", NOW);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        // When
+        filter.doFilter(request, response, chain);
+
+        // Then
+        assertThat(response.getStatus()).isEqualTo(HttpServletResponse.SC_UNAUTHORIZED);
+        verify(chain, never()).doFilter(any(), any());
+    }
+
+    @Test
+    void doFilter_WithHeadersSentWithARejectedToken_ShouldRejectWith401() throws Exception {
+        // Given: the JWT filter left the request unauthenticated, e.g. the token was revoked
+        MockHttpServletRequest request = signed("42", "alice", "USER", NOW);
+        request.addHeader("Authorization", "Bearer revoked.token");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        // When
+        filter.doFilter(request, response, chain);
+
+        // Then
+        assertThat(response.getStatus()).isEqualTo(HttpServletResponse.SC_UNAUTHORIZED);
+        assertThat(SecurityContextHolder.getContext().getAuthentication()).isNull();
+        verify(chain, never()).doFilter(any(), any());
+    }
+
+    private MockHttpServletRequest signed(String userId, String username, String roles, long issuedAt) {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/v1/transactions");
+        request.addHeader(GatewayIdentity.USER_ID, userId);
+        request.addHeader(GatewayIdentity.USER_NAME, username);
+        request.addHeader(GatewayIdentity.USER_ROLES, roles);
+        request.addHeader(GatewayIdentity.AUTHENTICATED, "true");
+        request.addHeader(GatewayIdentity.ISSUED_AT, Long.toString(issuedAt));
+        request.addHeader(GatewayIdentity.SIGNATURE, gatewayIdentity.sign(userId, username, roles, issuedAt));
+        return request;
+    }
+}
@@ -0,0 +1,84 @@
+package com.maelcolium.telepesa.transaction.security;
+
+import com.maelcolium.telepesa.security.JwtTokenUtil;
+import com.maelcolium.telepesa.security.TokenPrincipal;
+import com.maelcolium.telepesa.security.TokenRevocations;
+import com.maelcolium.telepesa.security.TokenRevocations.Revocation;
+import jakarta.servlet.FilterChain;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.time.Instant;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+
+class JwtAuthenticationFilterTest {
+
+    private static final String SECRET = "telepesa-test-secret-key-that-is-long-enough-for-hs512-signing!";
+
+    private final JwtTokenUtil jwtTokenUtil = new JwtTokenUtil(SECRET, 3600);
+    private final TokenRevocations tokenRevocations = new TokenRevocations(3600);
+    private final JwtAuthenticationFilter filter = new JwtAuthenticationFilter(jwtTokenUtil, tokenRevocations);
+    private final FilterChain chain = mock(FilterChain.class);
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void doFilter_WithValidToken_ShouldAuthenticate() throws Exception {
+        // Given
+        MockHttpServletRequest request = withToken(jwtTokenUtil.generateToken("alice", 42L, List.of("USER"), "ACTIVE"));
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        // When
+        filter.doFilter(request, response, chain);
+
+        // Then
+        verify(chain).doFilter(request, response);
+        assertThat(SecurityContextHolder.getContext().getAuthentication().getPrincipal())
+            .isEqualTo(new TokenPrincipal(42L, "alice", List.of("USER")));
+    }
+
+    @Test
+    void doFilter_WithTokenOfRevokedSubject_ShouldNotAuthenticate() throws Exception {
+        // Given
+        MockHttpServletRequest request = withToken(jwtTokenUtil.generateToken("alice", 42L, List.of("USER"), "ACTIVE"));
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        tokenRevocations.apply(Revocation.parse(Revocation.ofSubject("alice", Instant.now().plusSeconds(1)).toMessage()));
+
+        // When
+        filter.doFilter(request, response, chain);
+
+        // Then
+        verify(chain).doFilter(request, response);
+        assertThat(SecurityContextHolder.getContext().getAuthentication()).isNull();
+    }
+
+    @Test
+    void doFilter_WithTokenIssuedAfterTheRevocation_ShouldAuthenticate() throws Exception {
+        // Given
+        tokenRevocations.revokeSubject("alice", Instant.now().minusSeconds(60));
+        MockHttpServletRequest request = withToken(jwtTokenUtil.generateToken("alice", 42L, List.of("USER"), "ACTIVE"));
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        // When
+        filter.doFilter(request, response, chain);
+
+        // Then
+        assertThat(SecurityContextHolder.getContext().getAuthentication()).isNotNull();
+    }
+
+    private MockHttpServletRequest withToken(String token) {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/v1/transactions");
+        request.addHeader("Authorization", "Bearer " + token);
+        return request;
+    }
+}
@@ -0,0 +1,235 @@
+package com.maelcolium.telepesa.transaction.service;
+
+import com.maelcolium.telepesa.models.enums.TransactionType;
+import com.maelcolium.telepesa.transaction.client.AccountServiceClient;
+import com.maelcolium.telepesa.transaction.config.ReconciliationProperties;
+import com.maelcolium.telepesa.transaction.dto.ReconciliationDiscrepancyDto;
+import com.maelcolium.telepesa.transaction.dto.ReconciliationRunDto;
+import com.maelcolium.telepesa.transaction.model.TransactionDailyRollup;
+import com.maelcolium.telepesa.transaction.repository.ReconciliationChunkRepository;
+import com.maelcolium.telepesa.transaction.repository.ReconciliationDiscrepancyRepository;
+import com.maelcolium.telepesa.transaction.repository.ReconciliationRunRepository;
+import com.maelcolium.telepesa.transaction.repository.TransactionDailyRollupRepository;
+import com.maelcolium.telepesa.transaction.service.impl.LedgerReconciliationServiceImpl;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.*;
+
+/**
+ * Runs commit page by page on their own threads, so these tests commit and clean up after themselves.
+ */
+@DataJpaTest
+@ActiveProfiles("test")
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class LedgerReconciliationServiceImplTest {
+
+    @Autowired
+    private TransactionDailyRollupRepository rollupRepository;
+
+    @Autowired
+    private ReconciliationRunRepository runRepository;
+
+    @Autowired
+    private ReconciliationChunkRepository chunkRepository;
+
+    @Autowired
+    private ReconciliationDiscrepancyRepository discrepancyRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private FakeAccountServiceClient accountClient;
+    private final List<LedgerReconciliationServiceImpl> services = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        accountClient = new FakeAccountServiceClient();
+        // Accounts 1..600 whose balance is credits 100 minus debits 40
+        List<TransactionDailyRollup> rollups = new ArrayList<>();
+        for (long id = 1; id <= 600; id++) {
+            accountClient.put(id, "60.00", LocalDateTime.now().minusDays(1));
+            rollups.add(rollup(id, "100.00", "40.00"));
+        }
+        rollupRepository.saveAll(rollups);
+    }
+
+    @AfterEach
+    void tearDown() {
+        services.forEach(LedgerReconciliationServiceImpl::close);
+        discrepancyRepository.deleteAll();
+        chunkRepository.deleteAll();
+        runRepository.deleteAll();
+        rollupRepository.deleteAll();
+    }
+
+    @Test
+    void start_ShouldReportEachKindOfDiscrepancyOnce() throws InterruptedException {
+        // Given
+        accountClient.put(5L, "75.00", LocalDateTime.now().minusDays(1));
+        accountClient.put(700L, "20.00", LocalDateTime.now().minusDays(1));
+        accountClient.put(701L, "0.00", LocalDateTime.now().minusDays(1));
+        rollupRepository.save(rollup(900L, "10.00", "0.00"));
+        // Moving while reconciled: skipped rather than reported
+        accountClient.put(9L, "999.00", LocalDateTime.now().plusMinutes(5));
+        LedgerReconciliationServiceImpl service = service(Duration.ofMinutes(5));
+
+        // When
+        assertThat(service.start()).isTrue();
+        await(service);
+
+        // Then
+        ReconciliationRunDto run = service.getRuns(PageRequest.of(0, 10)).getContent().get(0);
+        assertThat(run.getStatus()).isEqualTo("COMPLETED");
+        assertThat(run.getMaxAccountId()).isEqualTo(900L);
+        assertThat(run.getCompletedChunks()).isEqualTo(run.getTotalChunks().longValue()).isGreaterThan(3L);
+        assertThat(run.getAccountsChecked()).isEqualTo(602L);
+        assertThat(run.getDiscrepancies()).isEqualTo(3L);
+
+        List<ReconciliationDiscrepancyDto> discrepancies = service.getDiscrepancies(run.getId(), PageRequest.of(0, 50)).getContent();
+        assertThat(discrepancies).extracting(ReconciliationDiscrepancyDto::getAccountId, ReconciliationDiscrepancyDto::getType)
+                .containsExactly(tuple(5L, "BALANCE_MISMATCH"), tuple(700L, "MISSING_LEDGER"), tuple(900L, "UNKNOWN_ACCOUNT"));
+        assertThat(discrepancies.get(0).getDifference()).isEqualByComparingTo("15.00");
+        assertThat(discrepancies.get(2).getAccountBalance()).isNull();
+        assertThat(runRepository.findByActiveKey(LedgerReconciliationServiceImpl.ACTIVE_KEY)).isEmpty();
+    }
+
+    @Test
+    void start_AfterAccountServiceFailure_ShouldResumeFromCheckpointsWithoutDuplicates() throws InterruptedException {
+        // Given: a mismatch early in every chunk, and account-service failing part way through
+        for (long id = 1; id <= 600; id += 150) {
+            accountClient.put(id, "61.00", LocalDateTime.now().minusDays(1));
+        }
+        accountClient.failAfter(5);
+        LedgerReconciliationServiceImpl first = service(Duration.ofMinutes(5));
+
+        // When
+        assertThat(first.start()).isTrue();
+        await(first);
+
+        // Then
+        ReconciliationRunDto paused = first.getRuns(PageRequest.of(0, 10)).getContent().get(0);
+        assertThat(paused.getStatus()).isEqualTo("PAUSED");
+        assertThat(paused.getLastError()).contains("account-service unavailable");
+        assertThat(paused.getCompletedChunks()).isLessThan(paused.getTotalChunks().longValue());
+
+        // When
+        accountClient.failAfter(Integer.MAX_VALUE);
+        LedgerReconciliationServiceImpl second = service(Duration.ofMinutes(5));
+        assertThat(second.start()).isTrue();
+        await(second);
+
+        // Then
+        ReconciliationRunDto completed = second.getRun(paused.getId());
+        assertThat(completed.getStatus()).isEqualTo("COMPLETED");
+        assertThat(completed.getAccountsChecked()).isEqualTo(600L);
+        assertThat(runRepository.count()).isEqualTo(1);
+        assertThat(discrepancyRepository.findAll()).extracting(discrepancy -> discrepancy.getAccountId())
+                .containsExactlyInAnyOrder(1L, 151L, 301L, 451L);
+    }
+
+    @Test
+    void start_WithNoTimeLeftInTheWindow_ShouldPauseAndResumeTheSameRunLater() throws InterruptedException {
+        // Given
+        LedgerReconciliationServiceImpl windowClosed = service(Duration.ZERO);
+
+        // When
+        assertThat(windowClosed.start()).isTrue();
+        await(windowClosed);
+
+        // Then
+        ReconciliationRunDto paused = windowClosed.getRuns(PageRequest.of(0, 10)).getContent().get(0);
+        assertThat(paused.getStatus()).isEqualTo("PAUSED");
+        assertThat(paused.getAccountsChecked()).isZero();
+
+        // When
+        LedgerReconciliationServiceImpl windowOpen = service(Duration.ofMinutes(5));
+        assertThat(windowOpen.start()).isTrue();
+        await(windowOpen);
+
+        // Then
+        ReconciliationRunDto completed = windowOpen.getRun(paused.getId());
+        assertThat(completed.getStatus()).isEqualTo("COMPLETED");
+        assertThat(completed.getAccountsChecked()).isEqualTo(600L);
+        assertThat(completed.getDiscrepancies()).isZero();
+    }
+
+    private LedgerReconciliationServiceImpl service(Duration maxDuration) {
+        ReconciliationProperties properties = new ReconciliationProperties();
+        properties.setThreads(3);
+        properties.setChunkSize(150);
+        properties.setPageSize(40);
+        properties.setTolerance(new BigDecimal("0.01"));
+        properties.setMaxDuration(maxDuration);
+        LedgerReconciliationServiceImpl service = new LedgerReconciliationServiceImpl(accountClient, rollupRepository,
+                runRepository, chunkRepository, discrepancyRepository, transactionManager, properties, new SimpleMeterRegistry());
+        services.add(service);
+        return service;
+    }
+
+    private static void await(LedgerReconciliationServiceImpl service) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 30_000;
+        while (service.isRunning() && System.currentTimeMillis() < deadline) {
+            Thread.sleep(20);
+        }
+        assertThat(service.isRunning()).isFalse();
+    }
+
+    private static TransactionDailyRollup rollup(long accountId, String credits, String debits) {
+        return TransactionDailyRollup.builder()
+                .accountId(accountId)
+                .rollupDate(LocalDate.now().minusDays(2))
+                .transactionType(TransactionType.TRANSFER)
+                .creditCount(1)
+                .creditAmount(new BigDecimal(credits))
+                .debitCount(1)
+                .debitAmount(new BigDecimal(debits))
+                .build();
+    }
+
+    private static class FakeAccountServiceClient implements AccountServiceClient {
+
+        private final NavigableMap<Long, AccountBalance> accounts = new TreeMap<>();
+        private final AtomicInteger remainingCalls = new AtomicInteger(Integer.MAX_VALUE);
+
+        synchronized void put(long id, String balance, LocalDateTime updatedAt) {
+            accounts.put(id, new AccountBalance(id, new BigDecimal(balance), "ACTIVE", updatedAt));
+        }
+
+        void failAfter(int calls) {
+            remainingCalls.set(calls);
+        }
+
+        @Override
+        public synchronized AccountIdRange getAccountIdRange() {
+            return new AccountIdRange(accounts.firstKey(), accounts.lastKey());
+        }
+
+        @Override
+        public synchronized List<AccountBalance> getAccountBalances(long afterId, long toId, int limit) {
+            if (remainingCalls.getAndDecrement() <= 0) {
+                throw new IllegalStateException("account-service unavailable");
+            }
+            return accounts.subMap(afterId, false, toId, true).values().stream().limit(limit).toList();
+        }
+    }
+}
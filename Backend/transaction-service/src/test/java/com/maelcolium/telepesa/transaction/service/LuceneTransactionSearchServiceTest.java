@@ -0,0 +1,221 @@
+package com.maelcolium.telepesa.transaction.service;
+
+import com.maelcolium.telepesa.models.enums.TransactionStatus;
+import com.maelcolium.telepesa.models.enums.TransactionType;
+import com.maelcolium.telepesa.transaction.dto.TransactionDto;
+import com.maelcolium.telepesa.transaction.dto.TransactionSearchRequest;
+import com.maelcolium.telepesa.transaction.dto.TransactionSearchResultDto;
+import com.maelcolium.telepesa.transaction.model.Transaction;
+import com.maelcolium.telepesa.transaction.repository.TransactionRepository;
+import com.maelcolium.telepesa.transaction.service.impl.LuceneTransactionSearchService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.*;
+
+/**
+ * Runs against the in-memory index; rows used for rebuilds are committed and cleaned up afterwards.
+ */
+@DataJpaTest
+@ActiveProfiles("test")
+@Import({LuceneTransactionSearchService.class, TransactionRetentionPolicy.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class LuceneTransactionSearchServiceTest {
+
+    @Autowired
+    private LuceneTransactionSearchService searchService;
+
+    @Autowired
+    private TransactionRepository transactionRepository;
+
+    private long sequence;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        awaitRebuild();
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        transactionRepository.deleteAll();
+        // Rebuilding from the now empty table clears the index for the next test
+        assertThat(searchService.rebuild()).isTrue();
+        awaitRebuild();
+    }
+
+    @Test
+    void search_ShouldMatchDescriptionReferenceAndCounterpartyForOwnerOnly() throws IOException {
+        // Given
+        index(dto(10L, "Coffee at Java House", "REF-JAVA-1", 200L, "350.00", TransactionType.PAYMENT, TransactionStatus.COMPLETED, 1),
+              dto(10L, "Rent for March", "REF-RENT-3", 300L, "25000.00", TransactionType.TRANSFER, TransactionStatus.COMPLETED, 2),
+              dto(20L, "Coffee beans", "REF-BEANS-9", 200L, "900.00", TransactionType.PAYMENT, TransactionStatus.COMPLETED, 1));
+
+        // When & Then
+        assertThat(descriptions(search(10L, TransactionSearchRequest.builder().q("coffee").build())))
+                .containsExactly("Coffee at Java House");
+        assertThat(descriptions(search(10L, TransactionSearchRequest.builder().q("ref-rent-3").build())))
+                .containsExactly("Rent for March");
+        assertThat(descriptions(search(10L, TransactionSearchRequest.builder().q("300").build())))
+                .containsExactly("Rent for March");
+        assertThat(search(30L, TransactionSearchRequest.builder().q("coffee").build()).getTotalHits()).isZero();
+    }
+
+    @Test
+    void search_WithPartialLastWord_ShouldMatchByPrefix() throws IOException {
+        // Given
+        index(dto(10L, "Electricity token", "REF-KPLC-1", 200L, "1500.00", TransactionType.PAYMENT, TransactionStatus.COMPLETED, 1));
+
+        // When
+        TransactionSearchResultDto result = search(10L, TransactionSearchRequest.builder().q("electri").build());
+
+        // Then
+        assertThat(descriptions(result)).containsExactly("Electricity token");
+    }
+
+    @Test
+    void search_WithFilters_ShouldApplyTypeStatusAmountAndDate() throws IOException {
+        // Given
+        index(dto(10L, "Lunch", "REF-1", 200L, "450.00", TransactionType.PAYMENT, TransactionStatus.COMPLETED, 1),
+              dto(10L, "Lunch again", "REF-2", 200L, "4500.00", TransactionType.PAYMENT, TransactionStatus.COMPLETED, 1),
+              dto(10L, "Lunch refund", "REF-3", 200L, "450.00", TransactionType.REFUND, TransactionStatus.COMPLETED, 1),
+              dto(10L, "Lunch failed", "REF-4", 200L, "450.00", TransactionType.PAYMENT, TransactionStatus.FAILED, 1),
+              dto(10L, "Old lunch", "REF-5", 200L, "450.00", TransactionType.PAYMENT, TransactionStatus.COMPLETED, 40));
+
+        // When
+        TransactionSearchResultDto result = search(10L, TransactionSearchRequest.builder()
+                .q("lunch")
+                .types(Set.of(TransactionType.PAYMENT))
+                .statuses(Set.of(TransactionStatus.COMPLETED))
+                .minAmount(new BigDecimal("100"))
+                .maxAmount(new BigDecimal("1000"))
+                .from(LocalDateTime.now().minusDays(7))
+                .build());
+
+        // Then
+        assertThat(descriptions(result)).containsExactly("Lunch");
+    }
+
+    @Test
+    void search_ShouldCountFacetsOverEveryMatchAndPageNewestFirst() throws IOException {
+        // Given
+        index(dto(10L, "Airtime", "REF-1", 200L, "50.00", TransactionType.PAYMENT, TransactionStatus.COMPLETED, 3),
+              dto(10L, "Airtime", "REF-2", 200L, "5000.00", TransactionType.PAYMENT, TransactionStatus.PENDING, 2),
+              dto(10L, "Airtime", "REF-3", 200L, "500.00", TransactionType.TRANSFER, TransactionStatus.COMPLETED, 1));
+
+        // When
+        TransactionSearchResultDto result = search(10L, TransactionSearchRequest.builder().page(1).size(1).build());
+
+        // Then
+        assertThat(result.getTotalHits()).isEqualTo(3);
+        assertThat(result.getContent()).extracting(TransactionDto::getReferenceNumber).containsExactly("REF-2");
+        assertThat(result.getTypes()).containsEntry(TransactionType.PAYMENT, 2L).containsEntry(TransactionType.TRANSFER, 1L);
+        assertThat(result.getStatuses()).containsEntry(TransactionStatus.COMPLETED, 2L).containsEntry(TransactionStatus.PENDING, 1L);
+        assertThat(result.getAmounts()).extracting(TransactionSearchResultDto.AmountRange::getCount)
+                .containsExactly(1L, 1L, 1L, 0L, 0L);
+        assertThat(result.getMonths().values().stream().mapToLong(Long::longValue).sum()).isEqualTo(3);
+    }
+
+    @Test
+    void index_WithSameTransaction_ShouldReplaceEarlierVersion() throws IOException {
+        // Given
+        TransactionDto pending = dto(10L, "Top up", "REF-1", 200L, "100.00", TransactionType.DEPOSIT, TransactionStatus.PENDING, 1);
+        index(pending);
+
+        // When
+        pending.setStatus(TransactionStatus.COMPLETED);
+        index(pending);
+
+        // Then
+        TransactionSearchResultDto result = search(10L, TransactionSearchRequest.builder().q("top up").build());
+        assertThat(result.getTotalHits()).isEqualTo(1);
+        assertThat(result.getContent().get(0).getStatus()).isEqualTo(TransactionStatus.COMPLETED);
+        assertThat(result.getContent().get(0).getAmount()).isEqualByComparingTo("100.00");
+    }
+
+    @Test
+    void rebuild_ShouldIndexRowsFromDatabaseAndDropStaleDocuments() throws Exception {
+        // Given
+        index(dto(10L, "Deleted meanwhile", "REF-GONE", 200L, "10.00", TransactionType.PAYMENT, TransactionStatus.COMPLETED, 1));
+        transactionRepository.save(Transaction.builder()
+                .transactionId("TXN-DB-1")
+                .fromAccountId(1L)
+                .toAccountId(2L)
+                .amount(new BigDecimal("75.00"))
+                .transactionType(TransactionType.PAYMENT)
+                .status(TransactionStatus.COMPLETED)
+                .description("Groceries at Naivas")
+                .referenceNumber("REF-DB-1")
+                .userId(10L)
+                .processedAt(LocalDateTime.now().minusDays(3))
+                .build());
+
+        // When
+        assertThat(searchService.rebuild()).isTrue();
+        awaitRebuild();
+
+        // Then
+        TransactionSearchResultDto result = search(10L, new TransactionSearchRequest());
+        assertThat(descriptions(result)).containsExactly("Groceries at Naivas");
+        assertThat(result.getContent().get(0).getTransactionId()).isEqualTo("TXN-DB-1");
+    }
+
+    @Test
+    void search_BeyondMaxResults_ShouldThrowIllegalArgumentException() {
+        assertThatThrownBy(() -> searchService.search(10L, TransactionSearchRequest.builder().page(10).size(100).build()))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private void index(TransactionDto... transactions) throws IOException {
+        searchService.index(List.of(transactions));
+        searchService.refresh();
+    }
+
+    private TransactionSearchResultDto search(Long userId, TransactionSearchRequest request) {
+        return searchService.search(userId, request);
+    }
+
+    private void awaitRebuild() throws Exception {
+        long deadline = System.currentTimeMillis() + 10_000;
+        while (searchService.isRebuilding()) {
+            assertThat(System.currentTimeMillis()).isLessThan(deadline);
+            Thread.sleep(20);
+        }
+        searchService.refresh();
+    }
+
+    private static List<String> descriptions(TransactionSearchResultDto result) {
+        return result.getContent().stream().map(TransactionDto::getDescription).toList();
+    }
+
+    private TransactionDto dto(Long userId, String description, String reference, Long toAccountId, String amount,
+                               TransactionType type, TransactionStatus status, int daysAgo) {
+        long id = ++sequence;
+        return TransactionDto.builder()
+                .id(id)
+                .transactionId("TXN-" + id)
+                .fromAccountId(100L)
+                .toAccountId(toAccountId)
+                .amount(new BigDecimal(amount))
+                .transactionType(type)
+                .status(status)
+                .description(description)
+                .referenceNumber(reference)
+                .processedAt(LocalDateTime.now().minusDays(daysAgo))
+                .userId(userId)
+                .createdAt(LocalDateTime.now().minusDays(daysAgo))
+                .build();
+    }
+}
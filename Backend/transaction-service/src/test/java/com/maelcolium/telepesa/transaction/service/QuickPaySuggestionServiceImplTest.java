@@ -0,0 +1,163 @@
+package com.maelcolium.telepesa.transaction.service;
+
+import com.maelcolium.telepesa.models.enums.TransactionStatus;
+import com.maelcolium.telepesa.models.enums.TransactionType;
+import com.maelcolium.telepesa.transaction.dto.QuickPaySuggestionsDto;
+import com.maelcolium.telepesa.transaction.model.Transaction;
+import com.maelcolium.telepesa.transaction.repository.QuickPaySketchRepository;
+import com.maelcolium.telepesa.transaction.repository.TransactionRepository;
+import com.maelcolium.telepesa.transaction.service.impl.QuickPaySuggestionServiceImpl;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+import static org.assertj.core.api.Assertions.*;
+
+/**
+ * Flushes commit on their own, so these tests commit and clean up after themselves.
+ */
+@DataJpaTest
+@ActiveProfiles("test")
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class QuickPaySuggestionServiceImplTest {
+
+    private static final long USER = 10L;
+
+    @Autowired
+    private QuickPaySketchRepository sketchRepository;
+
+    @Autowired
+    private TransactionRepository transactionRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private final TransactionRetentionPolicy retentionPolicy = new TransactionRetentionPolicy(12);
+    private int sequence;
+
+    @AfterEach
+    void tearDown() {
+        sketchRepository.deleteAll();
+        transactionRepository.deleteAll();
+    }
+
+    @Test
+    void getSuggestions_ShouldRankRecipientsBillersAndAmounts() {
+        // Given
+        QuickPaySuggestionServiceImpl service = service(300_000);
+        for (int i = 0; i < 3; i++) {
+            service.recordCompletion(transaction(TransactionType.TRANSFER, 200L, "500.00"));
+        }
+        service.recordCompletion(transaction(TransactionType.TRANSFER, 300L, "500.00"));
+        service.recordCompletion(transaction(TransactionType.PAYMENT, 900L, "1200.00"));
+        service.recordCompletion(transaction(TransactionType.DEPOSIT, null, "5000.00"));
+
+        // When
+        QuickPaySuggestionsDto suggestions = service.getSuggestions(USER, 5);
+
+        // Then
+        assertThat(suggestions.getRecipients()).extracting(QuickPaySuggestionsDto.AccountSuggestion::getAccountId,
+                QuickPaySuggestionsDto.AccountSuggestion::getCount).containsExactly(tuple(200L, 3L), tuple(300L, 1L));
+        assertThat(suggestions.getBillers()).extracting(QuickPaySuggestionsDto.AccountSuggestion::getAccountId).containsExactly(900L);
+        assertThat(suggestions.getAmounts()).extracting(QuickPaySuggestionsDto.AmountSuggestion::getAmount)
+                .containsExactly(new BigDecimal("500.00"), new BigDecimal("1200.00"));
+        assertThatThrownBy(() -> service.getSuggestions(USER, 17)).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void getSuggestions_ForUserNotYetStored_ShouldSeedFromHistoryOnce() {
+        // Given
+        transactionRepository.save(stored(TransactionType.TRANSFER, 200L, "50.00"));
+        transactionRepository.save(stored(TransactionType.TRANSFER, 200L, "50.00"));
+        QuickPaySuggestionServiceImpl service = service(300_000);
+
+        // When
+        QuickPaySuggestionsDto seeded = service.getSuggestions(USER, 3);
+        service.flush();
+
+        // Then
+        assertThat(seeded.getRecipients()).extracting(QuickPaySuggestionsDto.AccountSuggestion::getCount).containsExactly(2L);
+        assertThat(service(300_000).getSuggestions(USER, 3).getRecipients())
+                .extracting(QuickPaySuggestionsDto.AccountSuggestion::getCount).containsExactly(2L);
+    }
+
+    @Test
+    void recordCompletion_InTransaction_ShouldCountOnlyAfterCommitAndNotTwice() {
+        // Given
+        QuickPaySuggestionServiceImpl service = service(300_000);
+        TransactionTemplate template = new TransactionTemplate(transactionManager);
+
+        // When: the first user record is seeded while the completing transaction is still open
+        template.executeWithoutResult(status -> {
+            Transaction saved = transactionRepository.save(stored(TransactionType.TRANSFER, 200L, "50.00"));
+            service.recordCompletion(saved);
+        });
+        template.executeWithoutResult(status -> {
+            Transaction saved = transactionRepository.save(stored(TransactionType.TRANSFER, 300L, "50.00"));
+            service.recordCompletion(saved);
+            status.setRollbackOnly();
+        });
+
+        // Then
+        assertThat(service.getSuggestions(USER, 3).getRecipients())
+                .extracting(QuickPaySuggestionsDto.AccountSuggestion::getAccountId,
+                        QuickPaySuggestionsDto.AccountSuggestion::getCount)
+                .containsExactly(tuple(200L, 1L));
+    }
+
+    @Test
+    void flush_FromTwoInstances_ShouldAddUpRatherThanOverwrite() {
+        // Given
+        QuickPaySuggestionServiceImpl first = service(0);
+        QuickPaySuggestionServiceImpl second = service(0);
+        first.recordCompletion(transaction(TransactionType.TRANSFER, 200L, "10.00"));
+        second.recordCompletion(transaction(TransactionType.TRANSFER, 200L, "10.00"));
+        second.recordCompletion(transaction(TransactionType.TRANSFER, 300L, "10.00"));
+
+        // When
+        first.flush();
+        second.flush();
+
+        // Then: a third instance, and the first once its copy goes stale, see both
+        assertThat(service(0).getSuggestions(USER, 3).getRecipients())
+                .extracting(QuickPaySuggestionsDto.AccountSuggestion::getAccountId,
+                        QuickPaySuggestionsDto.AccountSuggestion::getCount)
+                .containsExactly(tuple(200L, 2L), tuple(300L, 1L));
+        assertThat(sketchRepository.count()).isEqualTo(1);
+    }
+
+    private QuickPaySuggestionServiceImpl service(long refreshAfterMillis) {
+        return new QuickPaySuggestionServiceImpl(sketchRepository, transactionRepository, retentionPolicy,
+                transactionManager, 16, 1_000, refreshAfterMillis);
+    }
+
+    private Transaction transaction(TransactionType type, Long toAccountId, String amount) {
+        Transaction transaction = stored(type, toAccountId, amount);
+        transaction.setId(100_000L + sequence);
+        return transaction;
+    }
+
+    private Transaction stored(TransactionType type, Long toAccountId, String amount) {
+        sequence++;
+        return Transaction.builder()
+                .transactionId("TXN-QP-" + sequence)
+                .fromAccountId(1L)
+                .toAccountId(toAccountId)
+                .amount(new BigDecimal(amount))
+                .transactionType(type)
+                .status(TransactionStatus.COMPLETED)
+                .referenceNumber("REF-QP-" + sequence)
+                .userId(USER)
+                .processedAt(LocalDateTime.now())
+                .build();
+    }
+}
@@ -0,0 +1,169 @@
+package com.maelcolium.telepesa.transaction.service;
+
+import com.maelcolium.telepesa.models.enums.TransactionStatus;
+import com.maelcolium.telepesa.models.enums.TransactionType;
+import com.maelcolium.telepesa.transaction.dto.TransactionDto;
+import com.maelcolium.telepesa.transaction.mapper.TransactionMapper;
+import com.maelcolium.telepesa.transaction.model.Transaction;
+import com.maelcolium.telepesa.transaction.repository.TransactionRepository;
+import com.maelcolium.telepesa.transaction.service.impl.InMemoryRecentActivityStore;
+import com.maelcolium.telepesa.transaction.service.impl.RecentActivityServiceImpl;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class RecentActivityServiceImplTest {
+
+    private static final long ACCOUNT = 1L;
+
+    @Mock
+    private TransactionRepository transactionRepository;
+
+    private final List<Transaction> stored = new ArrayList<>();
+    private InMemoryRecentActivityStore store;
+    private SimpleMeterRegistry meterRegistry;
+    private RecentActivityServiceImpl service;
+
+    @BeforeEach
+    void setUp() {
+        store = new InMemoryRecentActivityStore(3, 100);
+        meterRegistry = new SimpleMeterRegistry();
+        service = new RecentActivityServiceImpl(store, transactionRepository, new TransactionMapper(),
+                new TransactionRetentionPolicy(12), meterRegistry, 3);
+        lenient().when(transactionRepository.findByAccountIdSince(eq(ACCOUNT), any(LocalDateTime.class), any(Pageable.class)))
+                .thenAnswer(invocation -> {
+                    List<Transaction> newestFirst = new ArrayList<>(stored);
+                    Collections.reverse(newestFirst);
+                    return new PageImpl<>(newestFirst.stream().limit(3).toList());
+                });
+    }
+
+    @Test
+    void getMiniStatement_ShouldFillOnceAndThenServeFromTheStore() {
+        // Given
+        stored.add(transaction(1L, TransactionStatus.COMPLETED));
+        stored.add(transaction(2L, TransactionStatus.COMPLETED));
+
+        // When
+        List<TransactionDto> first = service.getMiniStatement(ACCOUNT, 3);
+        List<TransactionDto> second = service.getMiniStatement(ACCOUNT, 1);
+
+        // Then
+        assertThat(first).extracting(TransactionDto::getId).containsExactly(2L, 1L);
+        assertThat(second).extracting(TransactionDto::getId).containsExactly(2L);
+        verify(transactionRepository, times(1)).findByAccountIdSince(eq(ACCOUNT), any(), any());
+        assertThat(meterRegistry.get("transactions.recent.reads").tag("result", "hit").counter().count()).isEqualTo(1);
+        assertThatThrownBy(() -> service.getMiniStatement(ACCOUNT, 4)).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void record_ShouldKeepTheNewestAndUpdateStatusInPlace() {
+        // Given
+        stored.add(transaction(1L, TransactionStatus.COMPLETED));
+        service.getMiniStatement(ACCOUNT, 3);
+
+        // When
+        service.record(dto(2L, TransactionStatus.PENDING), true);
+        service.record(dto(3L, TransactionStatus.COMPLETED), true);
+        service.record(dto(4L, TransactionStatus.COMPLETED), true);
+        service.record(dto(2L, TransactionStatus.COMPLETED), false);
+        service.record(dto(1L, TransactionStatus.REVERSED), false);
+
+        // Then: 1 fell out of the window, so its status change is not re-added
+        assertThat(service.getMiniStatement(ACCOUNT, 3))
+                .extracting(TransactionDto::getId, TransactionDto::getStatus)
+                .containsExactly(tuple(4L, TransactionStatus.COMPLETED), tuple(3L, TransactionStatus.COMPLETED),
+                        tuple(2L, TransactionStatus.COMPLETED));
+        verify(transactionRepository, times(1)).findByAccountIdSince(eq(ACCOUNT), any(), any());
+    }
+
+    @Test
+    void record_ForAccountNotYetFilled_ShouldLeaveItToTheNextFill() {
+        // Given
+        service.record(dto(7L, TransactionStatus.COMPLETED), true);
+        stored.add(transaction(7L, TransactionStatus.COMPLETED));
+
+        // When
+        List<TransactionDto> recent = service.getMiniStatement(ACCOUNT, 3);
+
+        // Then
+        assertThat(recent).extracting(TransactionDto::getId).containsExactly(7L);
+    }
+
+    @Test
+    void getMiniStatement_WhenWrittenWhileFilling_ShouldNotKeepTheStaleFill() {
+        // Given: a transaction commits between the version read and the database read
+        stored.add(transaction(1L, TransactionStatus.COMPLETED));
+        when(transactionRepository.findByAccountIdSince(eq(ACCOUNT), any(LocalDateTime.class), any(Pageable.class)))
+                .thenAnswer(invocation -> {
+                    List<Transaction> snapshot = List.copyOf(stored);
+                    service.record(dto(2L, TransactionStatus.COMPLETED), true);
+                    return new PageImpl<>(snapshot);
+                })
+                .thenAnswer(invocation -> new PageImpl<>(List.of(transaction(2L, TransactionStatus.COMPLETED),
+                        transaction(1L, TransactionStatus.COMPLETED))));
+
+        // When
+        service.getMiniStatement(ACCOUNT, 3);
+        List<TransactionDto> recent = service.getMiniStatement(ACCOUNT, 3);
+
+        // Then
+        assertThat(recent).extracting(TransactionDto::getId).containsExactly(2L, 1L);
+    }
+
+    @Test
+    void record_InTransaction_ShouldWriteOnlyAfterCommit() {
+        // Given
+        service.getMiniStatement(ACCOUNT, 3);
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            // When
+            service.record(dto(5L, TransactionStatus.COMPLETED), true);
+
+            // Then
+            assertThat(service.getMiniStatement(ACCOUNT, 3)).isEmpty();
+            TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+            assertThat(service.getMiniStatement(ACCOUNT, 3)).extracting(TransactionDto::getId).containsExactly(5L);
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    private static Transaction transaction(Long id, TransactionStatus status) {
+        Transaction transaction = Transaction.builder()
+                .transactionId("TXN-" + id)
+                .fromAccountId(ACCOUNT)
+                .toAccountId(2L)
+                .amount(new BigDecimal("10.00"))
+                .transactionType(TransactionType.TRANSFER)
+                .status(status)
+                .userId(10L)
+                .processedAt(LocalDateTime.now())
+                .build();
+        transaction.setId(id);
+        return transaction;
+    }
+
+    private static TransactionDto dto(Long id, TransactionStatus status) {
+        return new TransactionMapper().toDto(transaction(id, status));
+    }
+}
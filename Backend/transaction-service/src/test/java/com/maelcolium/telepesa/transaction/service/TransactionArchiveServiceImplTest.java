@@ -0,0 +1,146 @@
+package com.maelcolium.telepesa.transaction.service;
+
+import com.maelcolium.telepesa.exceptions.ResourceNotFoundException;
+import com.maelcolium.telepesa.models.enums.TransactionStatus;
+import com.maelcolium.telepesa.models.enums.TransactionType;
+import com.maelcolium.telepesa.transaction.dto.TransactionArchiveDto;
+import com.maelcolium.telepesa.transaction.model.Transaction;
+import com.maelcolium.telepesa.transaction.repository.TransactionArchiveRepository;
+import com.maelcolium.telepesa.transaction.repository.TransactionRepository;
+import com.maelcolium.telepesa.transaction.service.impl.TransactionArchiveServiceImpl;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import javax.sql.DataSource;
+import java.io.ByteArrayOutputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.*;
+
+@DataJpaTest
+@ActiveProfiles("test")
+class TransactionArchiveServiceImplTest {
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private TransactionRepository transactionRepository;
+
+    @Autowired
+    private TransactionArchiveRepository archiveRepository;
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @TempDir
+    Path archiveDirectory;
+
+    private TransactionRetentionPolicy retentionPolicy;
+    private TransactionArchiveService archiveService;
+    private YearMonth expiredMonth;
+
+    @BeforeEach
+    void setUp() {
+        retentionPolicy = new TransactionRetentionPolicy(12);
+        archiveService = new TransactionArchiveServiceImpl(transactionRepository, archiveRepository,
+                new TransactionPartitionManager(new JdbcTemplate(dataSource), 3), retentionPolicy,
+                transactionManager, archiveDirectory.toString());
+        expiredMonth = retentionPolicy.firstHotMonth(LocalDate.now()).minusMonths(1);
+    }
+
+    @Test
+    void archiveExpiredMonths_ShouldMoveOldMonthsToFilesAndKeepHotWindow() throws Exception {
+        // Given
+        persist("TXN-OLD-1", 1L, 2L, expiredMonth.minusMonths(1).atDay(3).atTime(9, 0));
+        persist("TXN-OLD-2", 1L, 3L, expiredMonth.atDay(10).atTime(12, 0));
+        persist("TXN-OLD-3", 4L, 5L, expiredMonth.atEndOfMonth().atTime(23, 59));
+        persist("TXN-HOT-1", 1L, 2L, retentionPolicy.hotWindowStart());
+
+        // When
+        List<TransactionArchiveDto> archives = archiveService.archiveExpiredMonths();
+
+        // Then
+        assertThat(archives).extracting(TransactionArchiveDto::getPeriod)
+                .containsExactly(expiredMonth.minusMonths(1).toString(), expiredMonth.toString());
+        assertThat(archives.get(1).getRowCount()).isEqualTo(2);
+        assertThat(archives.get(1).getChecksum()).hasSize(64);
+        assertThat(Files.exists(archiveDirectory.resolve("transactions-" + expiredMonth + ".ndjson.gz"))).isTrue();
+        assertThat(transactionRepository.findAll()).extracting(Transaction::getTransactionId).containsExactly("TXN-HOT-1");
+        assertThat(archiveService.getArchives()).hasSize(2);
+    }
+
+    @Test
+    void exportArchive_WithAccountId_ShouldReturnOnlyThatAccount() throws Exception {
+        // Given
+        persist("TXN-OLD-2", 1L, 3L, expiredMonth.atDay(10).atTime(12, 0));
+        persist("TXN-OLD-3", 4L, 5L, expiredMonth.atDay(11).atTime(12, 0));
+        archiveService.archiveMonth(expiredMonth);
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+
+        // When
+        long rows = archiveService.exportArchive(expiredMonth.toString(), 3L, TransactionExportWriter.Format.CSV, output);
+
+        // Then
+        String csv = output.toString(StandardCharsets.UTF_8);
+        assertThat(rows).isEqualTo(1);
+        assertThat(csv).contains("TXN-OLD-2").doesNotContain("TXN-OLD-3");
+        assertThat(csv).contains(",250.00,");
+    }
+
+    @Test
+    void archiveMonth_InsideHotWindow_ShouldThrow() {
+        YearMonth current = YearMonth.now();
+
+        assertThatThrownBy(() -> archiveService.archiveMonth(current))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void archiveMonth_WithNoTransactions_ShouldNotCreateArchive() throws Exception {
+        assertThat(archiveService.archiveMonth(expiredMonth)).isNull();
+        assertThat(archiveRepository.count()).isZero();
+    }
+
+    @Test
+    void exportArchive_WithUnknownPeriod_ShouldThrow() {
+        assertThatThrownBy(() -> archiveService.exportArchive("1999-01", null,
+                TransactionExportWriter.Format.NDJSON, new ByteArrayOutputStream()))
+                .isInstanceOf(ResourceNotFoundException.class);
+    }
+
+    private void persist(String transactionId, Long fromAccountId, Long toAccountId, LocalDateTime processedAt) {
+        entityManager.persist(Transaction.builder()
+                .transactionId(transactionId)
+                .fromAccountId(fromAccountId)
+                .toAccountId(toAccountId)
+                .amount(new BigDecimal("250.00"))
+                .transactionType(TransactionType.TRANSFER)
+                .status(TransactionStatus.COMPLETED)
+                .description("Archived transfer")
+                .referenceNumber("REF-" + transactionId)
+                .userId(10L)
+                .feeAmount(new BigDecimal("2.50"))
+                .totalAmount(new BigDecimal("252.50"))
+                .processedAt(processedAt)
+                .build());
+        entityManager.flush();
+    }
+}
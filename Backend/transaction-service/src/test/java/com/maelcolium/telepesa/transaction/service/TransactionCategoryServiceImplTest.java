@@ -0,0 +1,205 @@
+package com.maelcolium.telepesa.transaction.service;
+
+import com.maelcolium.telepesa.models.enums.TransactionStatus;
+import com.maelcolium.telepesa.models.enums.TransactionType;
+import com.maelcolium.telepesa.transaction.model.Transaction;
+import com.maelcolium.telepesa.transaction.repository.JobLeaseRepository;
+import com.maelcolium.telepesa.transaction.repository.TransactionRepository;
+import com.maelcolium.telepesa.transaction.service.impl.TransactionCategoryServiceImpl;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.core.io.DefaultResourceLoader;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.*;
+
+/**
+ * The backfill commits page by page on its own threads, so these tests commit and clean up after themselves.
+ */
+@DataJpaTest
+@ActiveProfiles("test")
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class TransactionCategoryServiceImplTest {
+
+    @Autowired
+    private TransactionRepository transactionRepository;
+
+    @Autowired
+    private JobLeaseRepository leaseRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @TempDir
+    Path directory;
+
+    private Path dictionaryFile;
+    private TransactionCategoryServiceImpl categoryService;
+    private int sequence;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        dictionaryFile = directory.resolve("categories.txt");
+        Files.writeString(dictionaryFile, "utilities: kplc, nairobi water\ntransfers: transfer to\n");
+        categoryService = new TransactionCategoryServiceImpl(transactionRepository, transactionManager,
+                new JobLeaseManager(leaseRepository, transactionManager),
+                new DefaultResourceLoader(), "file:" + dictionaryFile, 3);
+    }
+
+    @AfterEach
+    void tearDown() {
+        categoryService.close();
+        transactionRepository.deleteAll();
+        leaseRepository.deleteAll();
+    }
+
+    @Test
+    void categorize_ShouldFallBackToOther() {
+        assertThat(categoryService.categorize("KPLC tokens")).isEqualTo("utilities");
+        assertThat(categoryService.categorize("Lunch")).isEqualTo(TransactionCategoryService.OTHER);
+        assertThat(categoryService.categorize(null)).isEqualTo(TransactionCategoryService.OTHER);
+    }
+
+    @Test
+    void backfill_ShouldCategorizeOnlyUncategorizedRowsAcrossChunks() throws InterruptedException {
+        // Given: more rows than one page, so several chunks and pages are walked
+        List<Transaction> transactions = new ArrayList<>();
+        for (int i = 0; i < 2_500; i++) {
+            transactions.add(transaction(i % 2 == 0 ? "KPLC prepaid" : "Transfer to 0712", null));
+        }
+        transactions.add(transaction("KPLC prepaid", "rent"));
+        transactionRepository.saveAll(transactions);
+
+        // When
+        assertThat(categoryService.backfill(false)).isTrue();
+        awaitBackfill();
+
+        // Then
+        Map<String, Long> counts = countsByCategory();
+        assertThat(counts).containsEntry("utilities", 1_250L).containsEntry("transfers", 1_250L).containsEntry("rent", 1L);
+        assertThat(transactionRepository.findMinIdForCategorization(false)).isEmpty();
+    }
+
+    @Test
+    void backfill_ShouldBumpUpdatedAtOfReTaggedRows() throws InterruptedException {
+        // Given
+        Transaction transaction = transactionRepository.save(transaction("KPLC prepaid", null));
+        // Set by the database clock, which may be coarser than LocalDateTime.now()
+        LocalDateTime before = LocalDateTime.now().minusSeconds(1);
+
+        // When
+        assertThat(categoryService.backfill(false)).isTrue();
+        awaitBackfill();
+
+        // Then: the search index catch-up reads rows by updatedAt
+        Transaction updated = transactionRepository.findById(transaction.getId()).orElseThrow();
+        assertThat(updated.getCategory()).isEqualTo("utilities");
+        assertThat(updated.getUpdatedAt()).isNotNull().isAfter(before);
+    }
+
+    @Test
+    void backfill_WhenAnotherInstanceHoldsTheLease_ShouldNotStart() throws InterruptedException {
+        // Given
+        transactionRepository.save(transaction("KPLC prepaid", null));
+        JobLeaseManager otherInstance = new JobLeaseManager(leaseRepository, transactionManager);
+        assertThat(otherInstance.acquire(TransactionCategoryServiceImpl.BACKFILL_JOB, Duration.ofMinutes(5))).isTrue();
+
+        // When & Then
+        assertThat(categoryService.backfill(false)).isFalse();
+        assertThat(categoryService.isBackfilling()).isFalse();
+        assertThat(transactionRepository.findMinIdForCategorization(false)).isPresent();
+
+        otherInstance.release(TransactionCategoryServiceImpl.BACKFILL_JOB);
+        assertThat(categoryService.backfill(false)).isTrue();
+        awaitBackfill();
+        assertThat(countsByCategory()).containsOnlyKeys("utilities");
+    }
+
+    @Test
+    void reloadIfModified_ShouldSwapDictionaryAndFullBackfillShouldReTagRows() throws Exception {
+        // Given
+        transactionRepository.save(transaction("Nairobi Water bill", categoryService.categorize("Nairobi Water bill")));
+        String version = categoryService.getDictionary().getVersion();
+
+        // When
+        Files.writeString(dictionaryFile, "water: nairobi water\nutilities: kplc\n");
+        Files.setLastModifiedTime(dictionaryFile, FileTime.from(Instant.now().plusSeconds(5)));
+        categoryService.reloadIfModified();
+
+        // Then
+        assertThat(categoryService.getDictionary().getVersion()).isNotEqualTo(version);
+        assertThat(categoryService.categorize("Nairobi Water bill")).isEqualTo("water");
+        assertThat(countsByCategory()).containsOnlyKeys("utilities");
+
+        assertThat(categoryService.backfill(true)).isTrue();
+        awaitBackfill();
+        assertThat(countsByCategory()).containsOnlyKeys("water");
+    }
+
+    @Test
+    void reloadIfModified_WithBrokenDictionary_ShouldKeepTheCurrentOne() throws IOException {
+        // Given
+        String version = categoryService.getDictionary().getVersion();
+
+        // When
+        Files.writeString(dictionaryFile, "no separator here\n");
+        Files.setLastModifiedTime(dictionaryFile, FileTime.from(Instant.now().plusSeconds(5)));
+        categoryService.reloadIfModified();
+
+        // Then
+        assertThat(categoryService.getDictionary().getVersion()).isEqualTo(version);
+        assertThat(categoryService.categorize("KPLC")).isEqualTo("utilities");
+        assertThatThrownBy(() -> categoryService.reloadDictionary()).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private void awaitBackfill() throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 30_000;
+        while (categoryService.isBackfilling() && System.currentTimeMillis() < deadline) {
+            Thread.sleep(20);
+        }
+        assertThat(categoryService.isBackfilling()).isFalse();
+    }
+
+    private Map<String, Long> countsByCategory() {
+        return transactionRepository.findAll().stream()
+                .map(Transaction::getCategory)
+                .collect(Collectors.groupingBy(Function.identity(), Collectors.counting()));
+    }
+
+    private Transaction transaction(String description, String category) {
+        sequence++;
+        return Transaction.builder()
+                .transactionId("TXN-CAT-" + sequence)
+                .fromAccountId(1L)
+                .amount(new BigDecimal("10.00"))
+                .transactionType(TransactionType.PAYMENT)
+                .status(TransactionStatus.COMPLETED)
+                .description(description)
+                .referenceNumber("REF-CAT-" + sequence)
+                .userId(10L)
+                .processedAt(LocalDateTime.now())
+                .category(category)
+                .build();
+    }
+}
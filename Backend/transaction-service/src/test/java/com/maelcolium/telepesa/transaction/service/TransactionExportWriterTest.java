@@ -0,0 +1,110 @@
+package com.maelcolium.telepesa.transaction.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.maelcolium.telepesa.models.enums.TransactionStatus;
+import com.maelcolium.telepesa.models.enums.TransactionType;
+import com.maelcolium.telepesa.transaction.dto.TransactionExportRow;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TransactionExportWriterTest {
+
+    @Test
+    void csv_ShouldWriteHeaderAndQuoteSpecialCharacters() throws Exception {
+        // Given
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+
+        // When
+        try (TransactionExportWriter writer = TransactionExportWriter.open(TransactionExportWriter.Format.CSV, output)) {
+            writer.write(row(1L, "Rent, March \"flat 4\""));
+            writer.write(row(2L, null));
+        }
+
+        // Then
+        String[] lines = output.toString(StandardCharsets.UTF_8).split("\n");
+        assertThat(lines).hasSize(3);
+        assertThat(lines[0]).startsWith("id,transactionId,fromAccountId");
+        assertThat(lines[1]).isEqualTo("1,TXN-1,1,2,100.00,1.00,101.00,TRANSFER,COMPLETED,"
+                + "\"Rent, March \"\"flat 4\"\"\",REF-1,2024-03-01T09:30");
+        assertThat(lines[2]).isEqualTo("2,TXN-2,1,2,100.00,1.00,101.00,TRANSFER,COMPLETED,,REF-2,2024-03-01T09:30");
+    }
+
+    @Test
+    void csv_ShouldEscapeValuesASpreadsheetWouldRunAsFormulas() throws Exception {
+        // Given
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+
+        // When
+        try (TransactionExportWriter writer = TransactionExportWriter.open(TransactionExportWriter.Format.CSV, output)) {
+            writer.write(row(1L, "=HYPERLINK(\"http://evil.example\",\"Refund\")"));
+            writer.write(row(2L, "+254700000000"));
+            writer.write(row(3L, "-2+3"));
+            writer.write(row(4L, "@SUM(A1:A9)"));
+            writer.write(row(5L, "\tcmd"));
+            writer.write(row(6L, "Rent 2024-03"));
+        }
+
+        // Then
+        String[] lines = output.toString(StandardCharsets.UTF_8).split("\n");
+        assertThat(lines[1]).contains(",\"'=HYPERLINK(\"\"http://evil.example\"\",\"\"Refund\"\")\",");
+        assertThat(lines[2]).contains(",'+254700000000,");
+        assertThat(lines[3]).contains(",'-2+3,");
+        assertThat(lines[4]).contains(",'@SUM(A1:A9),");
+        assertThat(lines[5]).contains(",'\tcmd,");
+        assertThat(lines[6]).contains(",Rent 2024-03,");
+        // Amounts are numbers, not text, and are left as they are
+        assertThat(lines[6]).contains(",100.00,1.00,101.00,");
+    }
+
+    @Test
+    void ndjson_ShouldWriteOneJsonObjectPerLine() throws Exception {
+        // Given
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+
+        // When
+        long count;
+        try (TransactionExportWriter writer = TransactionExportWriter.open(TransactionExportWriter.Format.NDJSON, output)) {
+            writer.write(row(1L, "Line one\nline two"));
+            writer.write(row(2L, null));
+            count = writer.getRowCount();
+        }
+
+        // Then
+        String[] lines = output.toString(StandardCharsets.UTF_8).split("\n");
+        assertThat(count).isEqualTo(2);
+        assertThat(lines).hasSize(2);
+        JsonNode first = new ObjectMapper().readTree(lines[0]);
+        assertThat(first.get("id").asLong()).isEqualTo(1L);
+        assertThat(first.get("amount").asText()).isEqualTo("100.00");
+        assertThat(first.get("description").asText()).isEqualTo("Line one\nline two");
+        assertThat(new ObjectMapper().readTree(lines[1]).get("description").isNull()).isTrue();
+    }
+
+    @Test
+    void write_ShouldFlushToOutputInChunks() throws Exception {
+        // Given
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        TransactionExportWriter writer = TransactionExportWriter.open(TransactionExportWriter.Format.NDJSON, output);
+
+        // When
+        for (long i = 0; i < TransactionExportWriter.FLUSH_EVERY_ROWS; i++) {
+            writer.write(row(i, "Chunked"));
+        }
+
+        // Then - a full chunk reaches the stream before the writer is closed
+        assertThat(output.toString(StandardCharsets.UTF_8).split("\n")).hasSize(TransactionExportWriter.FLUSH_EVERY_ROWS);
+    }
+
+    private TransactionExportRow row(Long id, String description) {
+        return new TransactionExportRow(id, "TXN-" + id, 1L, 2L, new BigDecimal("100.00"), new BigDecimal("1.00"),
+                new BigDecimal("101.00"), TransactionType.TRANSFER, TransactionStatus.COMPLETED, description,
+                "REF-" + id, LocalDateTime.of(2024, 3, 1, 9, 30));
+    }
+}
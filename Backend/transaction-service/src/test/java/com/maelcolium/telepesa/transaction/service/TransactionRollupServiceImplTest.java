@@ -0,0 +1,324 @@
+package com.maelcolium.telepesa.transaction.service;
+
+import com.maelcolium.telepesa.models.enums.TransactionStatus;
+import com.maelcolium.telepesa.models.enums.TransactionType;
+import com.maelcolium.telepesa.transaction.dto.SpendingInsightsDto;
+import com.maelcolium.telepesa.transaction.model.JobLease;
+import com.maelcolium.telepesa.transaction.model.RollupBackfill;
+import com.maelcolium.telepesa.transaction.model.Transaction;
+import com.maelcolium.telepesa.transaction.model.TransactionDailyRollup;
+import com.maelcolium.telepesa.transaction.repository.JobLeaseRepository;
+import com.maelcolium.telepesa.transaction.repository.RollupBackfillRepository;
+import com.maelcolium.telepesa.transaction.repository.TransactionArchiveRepository;
+import com.maelcolium.telepesa.transaction.repository.TransactionDailyRollupRepository;
+import com.maelcolium.telepesa.transaction.repository.TransactionRepository;
+import com.maelcolium.telepesa.transaction.service.impl.TransactionRollupServiceImpl;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.*;
+
+/**
+ * Each service call commits, so these tests clean up after themselves. Rollup rows are created
+ * with PostgreSQL's insert-or-skip, which H2 only accepts in its PostgreSQL mode. Every test starts
+ * with the backfill done, as on a running service, unless it starts one over.
+ */
+@DataJpaTest
+@ActiveProfiles("test")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@TestPropertySource(properties = "spring.datasource.url=jdbc:h2:mem:rollups;MODE=PostgreSQL;DB_CLOSE_DELAY=-1;DB_CLOSE_ON_EXIT=FALSE")
+@Import({TransactionRollupServiceImpl.class, JobLeaseManager.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class TransactionRollupServiceImplTest {
+
+    @Autowired
+    private TransactionRollupService rollupService;
+
+    @Autowired
+    private TransactionRepository transactionRepository;
+
+    @Autowired
+    private TransactionDailyRollupRepository rollupRepository;
+
+    @Autowired
+    private JobLeaseRepository leaseRepository;
+
+    @Autowired
+    private RollupBackfillRepository backfillRepository;
+
+    @Autowired
+    private TransactionArchiveRepository archiveRepository;
+
+    @Autowired
+    private JobLeaseManager jobLeaseManager;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private int sequence;
+
+    @BeforeEach
+    void setUp() {
+        rollupService.backfill();
+    }
+
+    @AfterEach
+    void tearDown() {
+        rollupRepository.deleteAll();
+        transactionRepository.deleteAll();
+        leaseRepository.deleteAll();
+        backfillRepository.deleteAll();
+    }
+
+    @Test
+    void recordCompletion_ShouldAccumulateDebitsAndCreditsPerDay() {
+        // Given
+        LocalDateTime morning = LocalDate.now().minusDays(1).atTime(9, 0);
+
+        // When
+        rollupService.recordCompletion(completed(1L, 2L, "100.00", TransactionType.TRANSFER, morning));
+        rollupService.recordCompletion(completed(1L, 3L, "50.00", TransactionType.TRANSFER, morning.plusHours(2)));
+
+        // Then
+        List<TransactionDailyRollup> rollups = rollupRepository
+                .findByAccountIdAndRollupDateGreaterThanEqualOrderByRollupDate(1L, morning.toLocalDate());
+        assertThat(rollups).hasSize(1);
+        assertThat(rollups.get(0).getDebitCount()).isEqualTo(2);
+        assertThat(rollups.get(0).getDebitAmount()).isEqualByComparingTo("150.00");
+        assertThat(rollupService.getBalance(2L)).isEqualByComparingTo("100.00");
+        assertThat(rollupService.getBalance(1L)).isEqualByComparingTo("-150.00");
+    }
+
+    @Test
+    void revertCompletion_ShouldTakeTransactionBackOut() {
+        // Given
+        Transaction transaction = completed(1L, 2L, "100.00", TransactionType.TRANSFER, LocalDateTime.now().minusHours(1));
+        rollupService.recordCompletion(transaction);
+
+        // When
+        rollupService.revertCompletion(transaction);
+
+        // Then
+        assertThat(rollupService.getBalance(1L)).isEqualByComparingTo("0");
+        assertThat(rollupService.getBalance(2L)).isEqualByComparingTo("0");
+    }
+
+    @Test
+    void getTotalDebits_WithSinceInsideADay_ShouldCombineRollupsAndPartialDay() {
+        // Given
+        LocalDate yesterday = LocalDate.now().minusDays(1);
+        record(completed(1L, 2L, "10.00", TransactionType.TRANSFER, yesterday.atTime(9, 0)));
+        record(completed(1L, 2L, "20.00", TransactionType.TRANSFER, yesterday.atTime(15, 0)));
+        record(completed(1L, 2L, "40.00", TransactionType.WITHDRAWAL, LocalDate.now().atStartOfDay()));
+
+        // When
+        BigDecimal debits = rollupService.getTotalDebits(1L, yesterday.atTime(12, 0));
+        BigDecimal credits = rollupService.getTotalCredits(2L, yesterday.atStartOfDay());
+
+        // Then
+        assertThat(debits).isEqualByComparingTo("60.00");
+        assertThat(credits).isEqualByComparingTo("70.00");
+    }
+
+    @Test
+    void getSpendingInsights_ShouldSummariseMonthsAndTypes() {
+        // Given
+        YearMonth current = YearMonth.now();
+        LocalDateTime previousMonth = current.minusMonths(1).atDay(10).atTime(10, 0);
+        LocalDateTime thisMonth = current.atDay(1).atTime(0, 5);
+        rollupService.recordCompletion(completed(1L, 2L, "100.00", TransactionType.TRANSFER, previousMonth));
+        rollupService.recordCompletion(completed(1L, null, "150.00", TransactionType.WITHDRAWAL, thisMonth));
+        rollupService.recordCompletion(completed(9L, 1L, "500.00", TransactionType.DEPOSIT, thisMonth));
+
+        // When
+        SpendingInsightsDto insights = rollupService.getSpendingInsights(1L, 2);
+
+        // Then
+        assertThat(insights.getMonthly()).extracting(SpendingInsightsDto.MonthlyTotal::getMonth)
+                .containsExactly(current.minusMonths(1).toString(), current.toString());
+        assertThat(insights.getTotalDebits()).isEqualByComparingTo("250.00");
+        assertThat(insights.getTotalCredits()).isEqualByComparingTo("500.00");
+        assertThat(insights.getNetFlow()).isEqualByComparingTo("250.00");
+        assertThat(insights.getAverageMonthlyDebits()).isEqualByComparingTo("125.00");
+        assertThat(insights.getDebitChangePercent()).isEqualByComparingTo("50.00");
+        assertThat(insights.getTopDebitType()).isEqualTo(TransactionType.WITHDRAWAL);
+        assertThat(insights.getByType()).hasSize(3);
+    }
+
+    @Test
+    void getSpendingInsights_ShouldTotalDebitsByCategory() {
+        // Given
+        LocalDateTime today = LocalDate.now().atTime(0, 10);
+        categorized(completed(1L, null, "120.00", TransactionType.PAYMENT, today), "utilities");
+        categorized(completed(1L, null, "30.00", TransactionType.PAYMENT, today), "utilities");
+        categorized(completed(1L, 2L, "200.00", TransactionType.TRANSFER, today), "transfers");
+        completed(1L, null, "5.00", TransactionType.FEE, today);
+        categorized(completed(2L, 1L, "999.00", TransactionType.TRANSFER, today), "transfers");
+
+        // When
+        SpendingInsightsDto insights = rollupService.getSpendingInsights(1L, 1);
+
+        // Then
+        assertThat(insights.getTopDebitCategory()).isEqualTo("transfers");
+        assertThat(insights.getByCategory())
+                .extracting(SpendingInsightsDto.CategoryTotal::getCategory, SpendingInsightsDto.CategoryTotal::getDebitCount)
+                .containsExactly(tuple("transfers", 1L), tuple("utilities", 2L), tuple(TransactionCategoryService.OTHER, 1L));
+        assertThat(insights.getByCategory().get(1).getDebitAmount()).isEqualByComparingTo("150.00");
+    }
+
+    @Test
+    void getSpendingInsights_WithTooManyMonths_ShouldThrow() {
+        assertThatThrownBy(() -> rollupService.getSpendingInsights(1L, 25))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void backfill_ShouldRollUpCompletedTransactionsBeforeTheCutoffOnce() {
+        // Given
+        backfillRepository.deleteAll();
+        completed(1L, 2L, "100.00", TransactionType.TRANSFER, LocalDateTime.now().minusDays(40));
+        completed(1L, 2L, "30.00", TransactionType.TRANSFER, LocalDateTime.now().minusDays(1));
+        Transaction pending = completed(1L, 2L, "999.00", TransactionType.TRANSFER, LocalDateTime.now().minusDays(1));
+        pending.setStatus(TransactionStatus.PENDING);
+        transactionRepository.save(pending);
+
+        // When
+        long written = rollupService.backfill();
+
+        // Then
+        assertThat(written).isPositive();
+        assertThat(rollupService.getBalance(2L)).isEqualByComparingTo("130.00");
+        assertThat(backfillRepository.findAll()).singleElement().satisfies(marker -> assertThat(marker.isCompleted()).isTrue());
+        assertThat(rollupService.backfill()).isZero();
+        assertThat(rollupService.getBalance(2L)).isEqualByComparingTo("130.00");
+    }
+
+    @Test
+    void backfill_ShouldMergeIntoRowsRolledUpSinceTheCutoff() {
+        // Given
+        LocalDate yesterday = LocalDate.now().minusDays(1);
+        startBackfillOver(yesterday.atTime(12, 0));
+        completed(1L, 2L, "100.00", TransactionType.TRANSFER, yesterday.atTime(9, 0));
+        record(completed(1L, 2L, "30.00", TransactionType.TRANSFER, yesterday.atTime(15, 0)));
+
+        // When
+        rollupService.backfill();
+
+        // Then
+        List<TransactionDailyRollup> rollups = rollupRepository
+                .findByAccountIdAndRollupDateGreaterThanEqualOrderByRollupDate(1L, yesterday);
+        assertThat(rollups).hasSize(1);
+        assertThat(rollups.get(0).getDebitCount()).isEqualTo(2);
+        assertThat(rollups.get(0).getDebitAmount()).isEqualByComparingTo("130.00");
+        assertThat(rollupService.getBalance(2L)).isEqualByComparingTo("130.00");
+    }
+
+    @Test
+    void getBalance_BeforeTheBackfillCompletes_ShouldReadTheTransactions() {
+        // Given
+        startBackfillOver(LocalDateTime.now());
+        completed(1L, 2L, "100.00", TransactionType.TRANSFER, LocalDateTime.now().minusDays(40));
+        TransactionRollupServiceImpl instance = instanceBeforeBackfill();
+
+        // When
+        BigDecimal balance = instance.getBalance(2L);
+
+        // Then
+        assertThat(balance).isEqualByComparingTo("100.00");
+        assertThat(instance.getTotalDebits(1L, LocalDateTime.now().minusDays(41))).isEqualByComparingTo("100.00");
+        assertThat(rollupRepository.count()).isZero();
+    }
+
+    @Test
+    void revertCompletion_BeforeTheBackfillReachesIt_ShouldBeLeftToTheBackfill() {
+        // Given
+        startBackfillOver(LocalDateTime.now());
+        Transaction reversed = completed(1L, 2L, "100.00", TransactionType.TRANSFER, LocalDateTime.now().minusDays(40));
+        completed(1L, 2L, "30.00", TransactionType.TRANSFER, LocalDateTime.now().minusDays(1));
+        TransactionRollupServiceImpl instance = instanceBeforeBackfill();
+        reversed.setStatus(TransactionStatus.REVERSED);
+        transactionRepository.save(reversed);
+
+        // When
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> instance.revertCompletion(reversed));
+        instance.backfill();
+
+        // Then
+        assertThat(instance.getBalance(2L)).isEqualByComparingTo("30.00");
+        assertThat(instance.getBalance(1L)).isEqualByComparingTo("-30.00");
+    }
+
+    @Test
+    void backfill_WhileAnotherInstanceHoldsTheLease_ShouldSkip() {
+        // Given
+        backfillRepository.deleteAll();
+        completed(1L, 2L, "100.00", TransactionType.TRANSFER, LocalDateTime.now().minusDays(1));
+        leaseRepository.save(JobLease.builder()
+                .name("transaction-rollup-backfill")
+                .owner("another-instance")
+                .leasedUntil(LocalDateTime.now().plusMinutes(30))
+                .build());
+
+        // When
+        long written = rollupService.backfill();
+
+        // Then
+        assertThat(written).isZero();
+        assertThat(rollupRepository.count()).isZero();
+    }
+
+    private void startBackfillOver(LocalDateTime cutoff) {
+        backfillRepository.deleteAll();
+        backfillRepository.save(RollupBackfill.builder().name("transaction-rollup-backfill").cutoff(cutoff).build());
+    }
+
+    // A separate instance has not seen the backfill complete, as on one started before it did
+    private TransactionRollupServiceImpl instanceBeforeBackfill() {
+        return new TransactionRollupServiceImpl(rollupRepository, transactionRepository, archiveRepository,
+                jobLeaseManager, backfillRepository, transactionManager);
+    }
+
+    private void categorized(Transaction transaction, String category) {
+        transaction.setCategory(category);
+        transactionRepository.save(transaction);
+    }
+
+    private void record(Transaction transaction) {
+        rollupService.recordCompletion(transaction);
+    }
+
+    private Transaction completed(Long fromAccountId, Long toAccountId, String amount,
+                                  TransactionType type, LocalDateTime processedAt) {
+        sequence++;
+        return transactionRepository.save(Transaction.builder()
+                .transactionId("TXN-ROLLUP-" + sequence)
+                .fromAccountId(fromAccountId)
+                .toAccountId(toAccountId)
+                .amount(new BigDecimal(amount))
+                .transactionType(type)
+                .status(TransactionStatus.COMPLETED)
+                .referenceNumber("REF-ROLLUP-" + sequence)
+                .userId(10L)
+                .feeAmount(BigDecimal.ZERO)
+                .totalAmount(new BigDecimal(amount))
+                .processedAt(processedAt)
+                .build());
+    }
+}
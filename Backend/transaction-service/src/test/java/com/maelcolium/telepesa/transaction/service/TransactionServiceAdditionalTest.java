@@ -1,7 +1,10 @@
 package com.maelcolium.telepesa.transaction.service;
 
 import com.maelcolium.telepesa.transaction.dto.CreateTransactionRequest;
+import com.maelcolium.telepesa.transaction.dto.SpendingInsightsDto;
 import com.maelcolium.telepesa.transaction.dto.TransactionDto;
+import com.maelcolium.telepesa.transaction.fraud.FraudAssessment;
+import com.maelcolium.telepesa.transaction.fraud.FraudScorer;
 import com.maelcolium.telepesa.transaction.mapper.TransactionMapper;
 import com.maelcolium.telepesa.transaction.model.Transaction;
 import com.maelcolium.telepesa.transaction.repository.TransactionRepository;
@@ -14,6 +17,7 @@ import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
@@ -40,6 +44,26 @@ class TransactionServiceAdditionalTest {
     private TransactionRepository transactionRepository;
     @Mock
     private TransactionMapper transactionMapper;
+
+    @Mock
+    private TransactionRollupService rollupService;
+
+    @Mock
+    private TransactionSearchService searchService;
+
+    @Mock
+    private FraudScorer fraudScorer;
+
+    @Mock
+    private TransactionCategoryService categoryService;
+
+    @Mock
+    private QuickPaySuggestionService quickPayService;
+
+    @Mock
+    private RecentActivityService recentActivityService;
+    @Spy
+    private TransactionRetentionPolicy retentionPolicy = new TransactionRetentionPolicy(12);
     @InjectMocks
     private TransactionServiceImpl transactionService;
 
@@ -48,6 +72,8 @@ class TransactionServiceAdditionalTest {
 
     @BeforeEach
     void setUp() {
+        lenient().when(fraudScorer.assess(any(CreateTransactionRequest.class), any(LocalDateTime.class)))
+                .thenReturn(FraudAssessment.allow());
         transaction = Transaction.builder()
                 .transactionId("TXN-12345678")
                 .fromAccountId(1L)
@@ -197,7 +223,7 @@ class TransactionServiceAdditionalTest {
         List<Transaction> transactions = Arrays.asList(transaction);
         Page<Transaction> transactionPage = new PageImpl<>(transactions, pageable, 1);
         
-        when(transactionRepository.findAll(pageable)).thenReturn(transactionPage);
+        when(transactionRepository.findByProcessedAtGreaterThanEqual(any(LocalDateTime.class), eq(pageable))).thenReturn(transactionPage);
         when(transactionMapper.toDto(transaction)).thenReturn(transactionDto);
 
         // When
@@ -207,7 +233,7 @@ class TransactionServiceAdditionalTest {
         assertThat(result).isNotNull();
         assertThat(result.getContent()).hasSize(1);
         assertThat(result.getTotalElements()).isEqualTo(1);
-        verify(transactionRepository).findAll(pageable);
+        verify(transactionRepository).findByProcessedAtGreaterThanEqual(any(LocalDateTime.class), eq(pageable));
     }
 
     @Test
@@ -218,7 +244,7 @@ class TransactionServiceAdditionalTest {
         List<Transaction> transactions = Arrays.asList(transaction);
         Page<Transaction> transactionPage = new PageImpl<>(transactions, pageable, 1);
         
-        when(transactionRepository.findByUserId(userId, pageable)).thenReturn(transactionPage);
+        when(transactionRepository.findByUserIdAndProcessedAtGreaterThanEqual(eq(userId), any(LocalDateTime.class), eq(pageable))).thenReturn(transactionPage);
         when(transactionMapper.toDto(transaction)).thenReturn(transactionDto);
 
         // When
@@ -227,7 +253,7 @@ class TransactionServiceAdditionalTest {
         // Then
         assertThat(result).isNotNull();
         assertThat(result.getContent()).hasSize(1);
-        verify(transactionRepository).findByUserId(userId, pageable);
+        verify(transactionRepository).findByUserIdAndProcessedAtGreaterThanEqual(eq(userId), any(LocalDateTime.class), eq(pageable));
     }
 
     @Test
@@ -238,7 +264,7 @@ class TransactionServiceAdditionalTest {
         List<Transaction> transactions = Arrays.asList(transaction);
         Page<Transaction> transactionPage = new PageImpl<>(transactions, pageable, 1);
         
-        when(transactionRepository.findByFromAccountIdOrToAccountId(accountId, accountId, pageable))
+        when(transactionRepository.findByAccountIdSince(eq(accountId), any(LocalDateTime.class), eq(pageable)))
                 .thenReturn(transactionPage);
         when(transactionMapper.toDto(transaction)).thenReturn(transactionDto);
 
@@ -248,7 +274,7 @@ class TransactionServiceAdditionalTest {
         // Then
         assertThat(result).isNotNull();
         assertThat(result.getContent()).hasSize(1);
-        verify(transactionRepository).findByFromAccountIdOrToAccountId(accountId, accountId, pageable);
+        verify(transactionRepository).findByAccountIdSince(eq(accountId), any(LocalDateTime.class), eq(pageable));
     }
 
     @Test
@@ -259,7 +285,7 @@ class TransactionServiceAdditionalTest {
         List<Transaction> transactions = Arrays.asList(transaction);
         Page<Transaction> transactionPage = new PageImpl<>(transactions, pageable, 1);
         
-        when(transactionRepository.findByStatus(status, pageable)).thenReturn(transactionPage);
+        when(transactionRepository.findByStatusAndProcessedAtGreaterThanEqual(eq(status), any(LocalDateTime.class), eq(pageable))).thenReturn(transactionPage);
         when(transactionMapper.toDto(transaction)).thenReturn(transactionDto);
 
         // When
@@ -268,7 +294,7 @@ class TransactionServiceAdditionalTest {
         // Then
         assertThat(result).isNotNull();
         assertThat(result.getContent()).hasSize(1);
-        verify(transactionRepository).findByStatus(status, pageable);
+        verify(transactionRepository).findByStatusAndProcessedAtGreaterThanEqual(eq(status), any(LocalDateTime.class), eq(pageable));
     }
 
     @Test
@@ -279,7 +305,7 @@ class TransactionServiceAdditionalTest {
         List<Transaction> transactions = Arrays.asList(transaction);
         Page<Transaction> transactionPage = new PageImpl<>(transactions, pageable, 1);
         
-        when(transactionRepository.findByTransactionType(type, pageable)).thenReturn(transactionPage);
+        when(transactionRepository.findByTransactionTypeAndProcessedAtGreaterThanEqual(eq(type), any(LocalDateTime.class), eq(pageable))).thenReturn(transactionPage);
         when(transactionMapper.toDto(transaction)).thenReturn(transactionDto);
 
         // When
@@ -288,7 +314,7 @@ class TransactionServiceAdditionalTest {
         // Then
         assertThat(result).isNotNull();
         assertThat(result.getContent()).hasSize(1);
-        verify(transactionRepository).findByTransactionType(type, pageable);
+        verify(transactionRepository).findByTransactionTypeAndProcessedAtGreaterThanEqual(eq(type), any(LocalDateTime.class), eq(pageable));
     }
 
     @Test
@@ -364,7 +390,7 @@ class TransactionServiceAdditionalTest {
         Long accountId = 1L;
         List<Transaction> transactions = Arrays.asList(transaction);
         
-        when(transactionRepository.findAllByAccountId(accountId)).thenReturn(transactions);
+        when(transactionRepository.findAllByAccountId(eq(accountId), any(LocalDateTime.class))).thenReturn(transactions);
         when(transactionMapper.toDto(transaction)).thenReturn(transactionDto);
 
         // When
@@ -373,77 +399,36 @@ class TransactionServiceAdditionalTest {
         // Then
         assertThat(result).isNotNull();
         assertThat(result).hasSize(1);
-        verify(transactionRepository).findAllByAccountId(accountId);
+        verify(transactionRepository).findAllByAccountId(eq(accountId), any(LocalDateTime.class));
     }
 
     @Test
-    void getAccountBalance_WithNullCreditsAndDebits_ShouldReturnZero() {
+    void getAccountBalance_ShouldNotScanTransactions() {
         // Given
         Long accountId = 1L;
-        LocalDateTime since = LocalDateTime.of(2020, 1, 1, 0, 0);
-        
-        when(transactionRepository.getTotalCreditsByAccountId(accountId, since)).thenReturn(null);
-        when(transactionRepository.getTotalDebitsByAccountId(accountId, since)).thenReturn(null);
+        when(rollupService.getBalance(accountId)).thenReturn(BigDecimal.ZERO);
 
         // When
         BigDecimal result = transactionService.getAccountBalance(accountId);
 
         // Then
         assertThat(result).isEqualTo(BigDecimal.ZERO);
-        verify(transactionRepository).getTotalCreditsByAccountId(accountId, since);
-        verify(transactionRepository).getTotalDebitsByAccountId(accountId, since);
+        verify(transactionRepository, never()).getTotalCreditsByAccountId(any(), any(), any());
+        verify(transactionRepository, never()).getTotalDebitsByAccountId(any(), any(), any());
     }
 
     @Test
-    void getAccountBalance_WithValidCreditsAndDebits_ShouldCalculateCorrectly() {
+    void getSpendingInsights_ShouldDelegateToRollups() {
         // Given
         Long accountId = 1L;
-        LocalDateTime since = LocalDateTime.of(2020, 1, 1, 0, 0);
-        BigDecimal credits = new BigDecimal("1000.00");
-        BigDecimal debits = new BigDecimal("300.00");
-        
-        when(transactionRepository.getTotalCreditsByAccountId(accountId, since)).thenReturn(credits);
-        when(transactionRepository.getTotalDebitsByAccountId(accountId, since)).thenReturn(debits);
+        SpendingInsightsDto insights = SpendingInsightsDto.builder().accountId(accountId).build();
+        when(rollupService.getSpendingInsights(accountId, 6)).thenReturn(insights);
 
         // When
-        BigDecimal result = transactionService.getAccountBalance(accountId);
+        SpendingInsightsDto result = transactionService.getSpendingInsights(accountId, 6);
 
         // Then
-        assertThat(result).isEqualTo(new BigDecimal("700.00"));
-        verify(transactionRepository).getTotalCreditsByAccountId(accountId, since);
-        verify(transactionRepository).getTotalDebitsByAccountId(accountId, since);
-    }
-
-    @Test
-    void getTotalDebitsByAccountId_WithNullResult_ShouldReturnZero() {
-        // Given
-        Long accountId = 1L;
-        LocalDateTime since = LocalDateTime.now().minusDays(30);
-        
-        when(transactionRepository.getTotalDebitsByAccountId(accountId, since)).thenReturn(null);
-
-        // When
-        BigDecimal result = transactionService.getTotalDebitsByAccountId(accountId, since);
-
-        // Then
-        assertThat(result).isEqualTo(BigDecimal.ZERO);
-        verify(transactionRepository).getTotalDebitsByAccountId(accountId, since);
-    }
-
-    @Test
-    void getTotalCreditsByAccountId_WithNullResult_ShouldReturnZero() {
-        // Given
-        Long accountId = 1L;
-        LocalDateTime since = LocalDateTime.now().minusDays(30);
-        
-        when(transactionRepository.getTotalCreditsByAccountId(accountId, since)).thenReturn(null);
-
-        // When
-        BigDecimal result = transactionService.getTotalCreditsByAccountId(accountId, since);
-
-        // Then
-        assertThat(result).isEqualTo(BigDecimal.ZERO);
-        verify(transactionRepository).getTotalCreditsByAccountId(accountId, since);
+        assertThat(result).isSameAs(insights);
     }
 
     @Test
@@ -453,13 +438,13 @@ class TransactionServiceAdditionalTest {
         TransactionStatus status = TransactionStatus.COMPLETED;
         long expectedCount = 5L;
         
-        when(transactionRepository.countByUserIdAndStatus(userId, status)).thenReturn(expectedCount);
+        when(transactionRepository.countByUserIdAndStatusAndProcessedAtGreaterThanEqual(eq(userId), eq(status), any(LocalDateTime.class))).thenReturn(expectedCount);
 
         // When
         long result = transactionService.getTransactionCountByUserIdAndStatus(userId, status);
 
         // Then
         assertThat(result).isEqualTo(expectedCount);
-        verify(transactionRepository).countByUserIdAndStatus(userId, status);
+        verify(transactionRepository).countByUserIdAndStatusAndProcessedAtGreaterThanEqual(eq(userId), eq(status), any(LocalDateTime.class));
     }
 }
@@ -1,7 +1,12 @@
 package com.maelcolium.telepesa.transaction.service;
 
+import com.maelcolium.telepesa.transaction.dto.BatchTransactionRecord;
 import com.maelcolium.telepesa.transaction.dto.CreateTransactionRequest;
 import com.maelcolium.telepesa.transaction.dto.TransactionDto;
+import com.maelcolium.telepesa.transaction.exception.TransactionBlockedException;
+import com.maelcolium.telepesa.transaction.fraud.FraudAssessment;
+import com.maelcolium.telepesa.transaction.fraud.FraudDecision;
+import com.maelcolium.telepesa.transaction.fraud.FraudScorer;
 import com.maelcolium.telepesa.transaction.mapper.TransactionMapper;
 import com.maelcolium.telepesa.transaction.model.Transaction;
 import com.maelcolium.telepesa.transaction.repository.TransactionRepository;
@@ -14,6 +19,7 @@ import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
@@ -36,6 +42,27 @@ class TransactionServiceImplTest {
     private TransactionRepository transactionRepository;
     @Mock
     private TransactionMapper transactionMapper;
+
+    @Mock
+    private TransactionRollupService rollupService;
+
+    @Mock
+    private TransactionSearchService searchService;
+
+    @Mock
+    private FraudScorer fraudScorer;
+
+    @Mock
+    private TransactionCategoryService categoryService;
+
+    @Mock
+    private QuickPaySuggestionService quickPayService;
+
+    @Mock
+    private RecentActivityService recentActivityService;
+
+    @Spy
+    private TransactionRetentionPolicy retentionPolicy = new TransactionRetentionPolicy(12);
     @InjectMocks
     private TransactionServiceImpl transactionService;
 
@@ -45,6 +72,8 @@ class TransactionServiceImplTest {
 
     @BeforeEach
     void setUp() {
+        lenient().when(fraudScorer.assess(any(CreateTransactionRequest.class), any(LocalDateTime.class)))
+                .thenReturn(FraudAssessment.allow());
         transaction = Transaction.builder()
                 .transactionId("TXN-12345678")
                 .fromAccountId(1L)
@@ -102,6 +131,172 @@ class TransactionServiceImplTest {
         assertThat(result.getAmount()).isEqualTo(new BigDecimal("100.00"));
         verify(transactionRepository).save(any(Transaction.class));
         verify(transactionMapper).toDto(any(Transaction.class));
+        verify(searchService).index(List.of(transactionDto));
+        verify(recentActivityService).record(transactionDto, true);
+    }
+
+    @Test
+    void createTransaction_ShouldStoreCategoryMatchedFromDescription() {
+        // Given
+        createRequest.setDescription("KPLC prepaid tokens");
+        when(categoryService.categorize("KPLC prepaid tokens")).thenReturn("utilities");
+        when(transactionRepository.save(any(Transaction.class))).thenAnswer(invocation -> invocation.getArgument(0));
+        when(transactionMapper.toDto(any(Transaction.class))).thenReturn(transactionDto);
+
+        // When
+        transactionService.createTransaction(createRequest);
+
+        // Then
+        verify(transactionRepository).save(argThat(saved -> "utilities".equals(saved.getCategory())));
+    }
+
+    @Test
+    void createTransaction_WhenFraudScoringBlocks_ShouldThrowWithoutSaving() {
+        // Given
+        when(fraudScorer.assess(any(CreateTransactionRequest.class), any(LocalDateTime.class)))
+                .thenReturn(new FraudAssessment(FraudDecision.BLOCK, 90, List.of("account-burst", "very-large-amount")));
+
+        // When & Then
+        assertThatThrownBy(() -> transactionService.createTransaction(createRequest))
+                .isInstanceOf(TransactionBlockedException.class);
+        verify(transactionRepository, never()).save(any(Transaction.class));
+        verifyNoInteractions(rollupService, searchService);
+    }
+
+    @Test
+    void createTransaction_WhenFraudScoringAsksForReview_ShouldHoldForReview() {
+        // Given
+        when(fraudScorer.assess(any(CreateTransactionRequest.class), any(LocalDateTime.class)))
+                .thenReturn(new FraudAssessment(FraudDecision.REVIEW, 50, List.of("account-burst")));
+        when(transactionRepository.save(any(Transaction.class))).thenAnswer(invocation -> invocation.getArgument(0));
+        when(transactionMapper.toDto(any(Transaction.class))).thenReturn(transactionDto);
+
+        // When
+        transactionService.createTransaction(createRequest);
+
+        // Then
+        verify(transactionRepository).save(argThat(saved -> saved.getStatus() == TransactionStatus.PENDING
+                && saved.isHeldForReview()));
+        verify(rollupService, never()).recordCompletion(any(Transaction.class));
+    }
+
+    @Test
+    void createTransactions_WhenFraudScoringFlagsARecord_ShouldHoldItInsteadOfCompleting() {
+        // Given
+        BatchTransactionRecord flagged = BatchTransactionRecord.builder()
+                .fromAccountId(1L)
+                .toAccountId(2L)
+                .amount(new BigDecimal("9000.00"))
+                .transactionType(TransactionType.TRANSFER)
+                .userId(10L)
+                .initialStatus(TransactionStatus.COMPLETED)
+                .build();
+        BatchTransactionRecord allowed = BatchTransactionRecord.builder()
+                .fromAccountId(2L)
+                .toAccountId(1L)
+                .amount(new BigDecimal("9000.00"))
+                .transactionType(TransactionType.TRANSFER)
+                .userId(11L)
+                .initialStatus(TransactionStatus.COMPLETED)
+                .build();
+        when(fraudScorer.assess(eq(flagged), any(LocalDateTime.class)))
+                .thenReturn(new FraudAssessment(FraudDecision.BLOCK, 90, List.of("very-large-amount")));
+        when(transactionRepository.saveAll(anyList())).thenAnswer(invocation -> invocation.getArgument(0));
+        when(transactionMapper.toDto(any(Transaction.class))).thenReturn(transactionDto);
+
+        // When
+        transactionService.createTransactions(List.of(flagged, allowed));
+
+        // Then
+        verify(fraudScorer).assess(eq(allowed), any(LocalDateTime.class));
+        verify(transactionRepository).saveAll(argThat((List<Transaction> saved) ->
+                saved.get(0).getStatus() == TransactionStatus.PENDING && saved.get(0).isHeldForReview()
+                        && saved.get(1).getStatus() == TransactionStatus.COMPLETED && !saved.get(1).isHeldForReview()));
+        verify(rollupService).recordCompletion(argThat(t -> t.getFromAccountId().equals(2L)));
+        verify(rollupService, never()).recordCompletion(argThat(t -> t.getFromAccountId().equals(1L)));
+    }
+
+    @Test
+    void updateTransactionStatus_WhenHeldForReview_ShouldRefuseToComplete() {
+        // Given
+        transaction.setHeldForReview(true);
+        when(transactionRepository.findById(1L)).thenReturn(Optional.of(transaction));
+
+        // When & Then
+        assertThatThrownBy(() -> transactionService.updateTransactionStatus(1L, TransactionStatus.COMPLETED))
+                .isInstanceOf(TransactionBlockedException.class);
+        assertThat(transaction.getStatus()).isEqualTo(TransactionStatus.PENDING);
+        verify(transactionRepository, never()).save(any(Transaction.class));
+        verifyNoInteractions(rollupService, quickPayService);
+    }
+
+    @Test
+    void updateTransactionStatus_AfterReviewHoldReleased_ShouldComplete() {
+        // Given
+        transaction.setHeldForReview(true);
+        when(transactionRepository.findById(1L)).thenReturn(Optional.of(transaction));
+        when(transactionRepository.save(any(Transaction.class))).thenReturn(transaction);
+        when(transactionMapper.toDto(any(Transaction.class))).thenReturn(transactionDto);
+
+        // When
+        transactionService.releaseReviewHold(1L);
+        transactionService.updateTransactionStatus(1L, TransactionStatus.COMPLETED);
+
+        // Then
+        assertThat(transaction.isHeldForReview()).isFalse();
+        assertThat(transaction.getStatus()).isEqualTo(TransactionStatus.COMPLETED);
+        verify(rollupService).recordCompletion(transaction);
+    }
+
+    @Test
+    void createTransactions_WithFinalStatus_ShouldSaveAllInThatStatus() {
+        // Given
+        BatchTransactionRecord transferRecord = BatchTransactionRecord.builder()
+                .fromAccountId(1L)
+                .toAccountId(2L)
+                .amount(new BigDecimal("100.00"))
+                .transactionType(TransactionType.TRANSFER)
+                .userId(10L)
+                .initialStatus(TransactionStatus.COMPLETED)
+                .build();
+        BatchTransactionRecord depositRecord = BatchTransactionRecord.builder()
+                .fromAccountId(3L)
+                .amount(new BigDecimal("250.00"))
+                .transactionType(TransactionType.DEPOSIT)
+                .userId(11L)
+                .initialStatus(TransactionStatus.COMPLETED)
+                .build();
+        when(transactionRepository.saveAll(anyList())).thenAnswer(invocation -> invocation.getArgument(0));
+        when(transactionMapper.toDto(any(Transaction.class))).thenReturn(transactionDto);
+
+        // When
+        List<TransactionDto> result = transactionService.createTransactions(List.of(transferRecord, depositRecord));
+
+        // Then
+        assertThat(result).hasSize(2);
+        verify(transactionRepository).saveAll(argThat((List<Transaction> saved) -> saved.size() == 2
+                && saved.stream().allMatch(t -> t.getStatus() == TransactionStatus.COMPLETED)
+                && saved.get(1).getFeeAmount().compareTo(BigDecimal.ZERO) == 0));
+        verify(transactionRepository, never()).save(any(Transaction.class));
+        verify(searchService).index(result);
+    }
+
+    @Test
+    void createTransactions_WithReversedStatus_ShouldThrowIllegalArgumentException() {
+        // Given
+        BatchTransactionRecord record = BatchTransactionRecord.builder()
+                .fromAccountId(1L)
+                .amount(new BigDecimal("100.00"))
+                .transactionType(TransactionType.DEPOSIT)
+                .userId(10L)
+                .initialStatus(TransactionStatus.REVERSED)
+                .build();
+
+        // When & Then
+        assertThatThrownBy(() -> transactionService.createTransactions(List.of(record)))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("REVERSED");
+        verify(transactionRepository, never()).saveAll(anyList());
     }
 
     @Test
@@ -195,7 +390,7 @@ class TransactionServiceImplTest {
     void getTransactions_ShouldReturnPagedResults() {
         // Given
         Page<Transaction> page = new PageImpl<>(List.of(transaction));
-        when(transactionRepository.findAll(any(Pageable.class))).thenReturn(page);
+        when(transactionRepository.findByProcessedAtGreaterThanEqual(any(LocalDateTime.class), any(Pageable.class))).thenReturn(page);
         when(transactionMapper.toDto(any(Transaction.class))).thenReturn(transactionDto);
 
         // When
@@ -211,7 +406,7 @@ class TransactionServiceImplTest {
     void getTransactionsByUserId_ShouldReturnUserTransactions() {
         // Given
         Page<Transaction> page = new PageImpl<>(List.of(transaction));
-        when(transactionRepository.findByUserId(10L, PageRequest.of(0, 10))).thenReturn(page);
+        when(transactionRepository.findByUserIdAndProcessedAtGreaterThanEqual(eq(10L), any(LocalDateTime.class), eq(PageRequest.of(0, 10)))).thenReturn(page);
         when(transactionMapper.toDto(any(Transaction.class))).thenReturn(transactionDto);
 
         // When
@@ -220,14 +415,14 @@ class TransactionServiceImplTest {
         // Then
         assertThat(result).isNotNull();
         assertThat(result.getContent()).hasSize(1);
-        verify(transactionRepository).findByUserId(10L, PageRequest.of(0, 10));
+        verify(transactionRepository).findByUserIdAndProcessedAtGreaterThanEqual(eq(10L), any(LocalDateTime.class), eq(PageRequest.of(0, 10)));
     }
 
     @Test
     void getTransactionsByAccountId_ShouldReturnAccountTransactions() {
         // Given
         Page<Transaction> page = new PageImpl<>(List.of(transaction));
-        when(transactionRepository.findByFromAccountIdOrToAccountId(1L, 1L, PageRequest.of(0, 10))).thenReturn(page);
+        when(transactionRepository.findByAccountIdSince(eq(1L), any(LocalDateTime.class), eq(PageRequest.of(0, 10)))).thenReturn(page);
         when(transactionMapper.toDto(any(Transaction.class))).thenReturn(transactionDto);
 
         // When
@@ -236,14 +431,14 @@ class TransactionServiceImplTest {
         // Then
         assertThat(result).isNotNull();
         assertThat(result.getContent()).hasSize(1);
-        verify(transactionRepository).findByFromAccountIdOrToAccountId(1L, 1L, PageRequest.of(0, 10));
+        verify(transactionRepository).findByAccountIdSince(eq(1L), any(LocalDateTime.class), eq(PageRequest.of(0, 10)));
     }
 
     @Test
     void getTransactionsByStatus_ShouldReturnFilteredTransactions() {
         // Given
         Page<Transaction> page = new PageImpl<>(List.of(transaction));
-        when(transactionRepository.findByStatus(TransactionStatus.PENDING, PageRequest.of(0, 10))).thenReturn(page);
+        when(transactionRepository.findByStatusAndProcessedAtGreaterThanEqual(eq(TransactionStatus.PENDING), any(LocalDateTime.class), eq(PageRequest.of(0, 10)))).thenReturn(page);
         when(transactionMapper.toDto(any(Transaction.class))).thenReturn(transactionDto);
 
         // When
@@ -252,14 +447,14 @@ class TransactionServiceImplTest {
         // Then
         assertThat(result).isNotNull();
         assertThat(result.getContent()).hasSize(1);
-        verify(transactionRepository).findByStatus(TransactionStatus.PENDING, PageRequest.of(0, 10));
+        verify(transactionRepository).findByStatusAndProcessedAtGreaterThanEqual(eq(TransactionStatus.PENDING), any(LocalDateTime.class), eq(PageRequest.of(0, 10)));
     }
 
     @Test
     void getTransactionsByType_ShouldReturnFilteredTransactions() {
         // Given
         Page<Transaction> page = new PageImpl<>(List.of(transaction));
-        when(transactionRepository.findByTransactionType(TransactionType.TRANSFER, PageRequest.of(0, 10))).thenReturn(page);
+        when(transactionRepository.findByTransactionTypeAndProcessedAtGreaterThanEqual(eq(TransactionType.TRANSFER), any(LocalDateTime.class), eq(PageRequest.of(0, 10)))).thenReturn(page);
         when(transactionMapper.toDto(any(Transaction.class))).thenReturn(transactionDto);
 
         // When
@@ -268,7 +463,7 @@ class TransactionServiceImplTest {
         // Then
         assertThat(result).isNotNull();
         assertThat(result.getContent()).hasSize(1);
-        verify(transactionRepository).findByTransactionType(TransactionType.TRANSFER, PageRequest.of(0, 10));
+        verify(transactionRepository).findByTransactionTypeAndProcessedAtGreaterThanEqual(eq(TransactionType.TRANSFER), any(LocalDateTime.class), eq(PageRequest.of(0, 10)));
     }
 
     @Test
@@ -319,102 +514,97 @@ class TransactionServiceImplTest {
     }
 
     @Test
-    void updateTransactionStatus_WithInvalidId_ShouldThrowResourceNotFoundException() {
+    void updateTransactionStatus_ToCompleted_ShouldRecordRollup() {
         // Given
-        when(transactionRepository.findById(999L)).thenReturn(Optional.empty());
-
-        // When & Then
-        assertThatThrownBy(() -> transactionService.updateTransactionStatus(999L, TransactionStatus.COMPLETED))
-                .isInstanceOf(ResourceNotFoundException.class)
-                .hasMessageContaining("Transaction not found with id: 999");
-    }
-
-    @Test
-    void getAccountTransactionHistory_ShouldReturnTransactionList() {
-        // Given
-        when(transactionRepository.findAllByAccountId(1L)).thenReturn(List.of(transaction));
+        transaction.setStatus(TransactionStatus.PENDING);
+        when(transactionRepository.findById(1L)).thenReturn(Optional.of(transaction));
+        when(transactionRepository.save(any(Transaction.class))).thenReturn(transaction);
         when(transactionMapper.toDto(any(Transaction.class))).thenReturn(transactionDto);
 
         // When
-        List<TransactionDto> result = transactionService.getAccountTransactionHistory(1L);
+        transactionService.updateTransactionStatus(1L, TransactionStatus.COMPLETED);
 
         // Then
-        assertThat(result).isNotNull();
-        assertThat(result).hasSize(1);
-        assertThat(result.get(0).getTransactionId()).isEqualTo("TXN-12345678");
-        verify(transactionRepository).findAllByAccountId(1L);
+        verify(rollupService).recordCompletion(transaction);
+        verify(quickPayService).recordCompletion(transaction);
+        verify(recentActivityService).record(transactionDto, false);
+        verify(rollupService, never()).revertCompletion(any());
     }
 
     @Test
-    void getAccountBalance_ShouldReturnCorrectBalance() {
+    void updateTransactionStatus_FromCompletedToReversed_ShouldRevertRollup() {
         // Given
-        when(transactionRepository.getTotalCreditsByAccountId(eq(1L), any(LocalDateTime.class))).thenReturn(new BigDecimal("200.00"));
-        when(transactionRepository.getTotalDebitsByAccountId(eq(1L), any(LocalDateTime.class))).thenReturn(new BigDecimal("50.00"));
+        transaction.setStatus(TransactionStatus.COMPLETED);
+        when(transactionRepository.findById(1L)).thenReturn(Optional.of(transaction));
+        when(transactionRepository.save(any(Transaction.class))).thenReturn(transaction);
+        when(transactionMapper.toDto(any(Transaction.class))).thenReturn(transactionDto);
 
         // When
-        BigDecimal balance = transactionService.getAccountBalance(1L);
+        transactionService.updateTransactionStatus(1L, TransactionStatus.REVERSED);
 
         // Then
-        assertThat(balance).isEqualTo(new BigDecimal("150.00"));
+        verify(rollupService).revertCompletion(transaction);
+        verify(rollupService, never()).recordCompletion(any());
     }
 
     @Test
-    void getAccountBalance_WithNullCredits_ShouldReturnCorrectBalance() {
+    void updateTransactionStatus_WithInvalidId_ShouldThrowResourceNotFoundException() {
         // Given
-        when(transactionRepository.getTotalCreditsByAccountId(eq(1L), any(LocalDateTime.class))).thenReturn(null);
-        when(transactionRepository.getTotalDebitsByAccountId(eq(1L), any(LocalDateTime.class))).thenReturn(new BigDecimal("50.00"));
-
-        // When
-        BigDecimal balance = transactionService.getAccountBalance(1L);
+        when(transactionRepository.findById(999L)).thenReturn(Optional.empty());
 
-        // Then
-        assertThat(balance).isEqualTo(new BigDecimal("-50.00"));
+        // When & Then
+        assertThatThrownBy(() -> transactionService.updateTransactionStatus(999L, TransactionStatus.COMPLETED))
+                .isInstanceOf(ResourceNotFoundException.class)
+                .hasMessageContaining("Transaction not found with id: 999");
     }
 
     @Test
-    void getAccountBalance_WithNullDebits_ShouldReturnCorrectBalance() {
+    void getAccountTransactionHistory_ShouldReturnTransactionList() {
         // Given
-        when(transactionRepository.getTotalCreditsByAccountId(eq(1L), any(LocalDateTime.class))).thenReturn(new BigDecimal("200.00"));
-        when(transactionRepository.getTotalDebitsByAccountId(eq(1L), any(LocalDateTime.class))).thenReturn(null);
+        when(transactionRepository.findAllByAccountId(eq(1L), any(LocalDateTime.class))).thenReturn(List.of(transaction));
+        when(transactionMapper.toDto(any(Transaction.class))).thenReturn(transactionDto);
 
         // When
-        BigDecimal balance = transactionService.getAccountBalance(1L);
+        List<TransactionDto> result = transactionService.getAccountTransactionHistory(1L);
 
         // Then
-        assertThat(balance).isEqualTo(new BigDecimal("200.00"));
+        assertThat(result).isNotNull();
+        assertThat(result).hasSize(1);
+        assertThat(result.get(0).getTransactionId()).isEqualTo("TXN-12345678");
+        verify(transactionRepository).findAllByAccountId(eq(1L), any(LocalDateTime.class));
     }
 
     @Test
-    void getTotalDebitsByAccountId_ShouldReturnCorrectAmount() {
+    void getAccountBalance_ShouldReturnBalanceFromRollups() {
         // Given
-        LocalDateTime since = LocalDateTime.now().minusDays(30);
-        when(transactionRepository.getTotalDebitsByAccountId(1L, since)).thenReturn(new BigDecimal("100.00"));
+        when(rollupService.getBalance(1L)).thenReturn(new BigDecimal("150.00"));
 
         // When
-        BigDecimal result = transactionService.getTotalDebitsByAccountId(1L, since);
+        BigDecimal balance = transactionService.getAccountBalance(1L);
 
         // Then
-        assertThat(result).isEqualTo(new BigDecimal("100.00"));
+        assertThat(balance).isEqualTo(new BigDecimal("150.00"));
+        verifyNoInteractions(transactionRepository);
     }
 
     @Test
-    void getTotalDebitsByAccountId_WithNullResult_ShouldReturnZero() {
+    void getTotalDebitsByAccountId_ShouldReturnTotalFromRollups() {
         // Given
         LocalDateTime since = LocalDateTime.now().minusDays(30);
-        when(transactionRepository.getTotalDebitsByAccountId(1L, since)).thenReturn(null);
+        when(rollupService.getTotalDebits(1L, since)).thenReturn(new BigDecimal("100.00"));
 
         // When
         BigDecimal result = transactionService.getTotalDebitsByAccountId(1L, since);
 
         // Then
-        assertThat(result).isEqualTo(BigDecimal.ZERO);
+        assertThat(result).isEqualTo(new BigDecimal("100.00"));
     }
 
     @Test
-    void getTotalCreditsByAccountId_ShouldReturnCorrectAmount() {
+    void getTotalCreditsByAccountId_ShouldReturnTotalFromRollups() {
         // Given
         LocalDateTime since = LocalDateTime.now().minusDays(30);
-        when(transactionRepository.getTotalCreditsByAccountId(1L, since)).thenReturn(new BigDecimal("200.00"));
+        when(rollupService.getTotalCredits(1L, since)).thenReturn(new BigDecimal("200.00"));
 
         // When
         BigDecimal result = transactionService.getTotalCreditsByAccountId(1L, since);
@@ -423,29 +613,16 @@ class TransactionServiceImplTest {
         assertThat(result).isEqualTo(new BigDecimal("200.00"));
     }
 
-    @Test
-    void getTotalCreditsByAccountId_WithNullResult_ShouldReturnZero() {
-        // Given
-        LocalDateTime since = LocalDateTime.now().minusDays(30);
-        when(transactionRepository.getTotalCreditsByAccountId(1L, since)).thenReturn(null);
-
-        // When
-        BigDecimal result = transactionService.getTotalCreditsByAccountId(1L, since);
-
-        // Then
-        assertThat(result).isEqualTo(BigDecimal.ZERO);
-    }
-
     @Test
     void getTransactionCountByUserIdAndStatus_ShouldReturnCorrectCount() {
         // Given
-        when(transactionRepository.countByUserIdAndStatus(10L, TransactionStatus.COMPLETED)).thenReturn(5L);
+        when(transactionRepository.countByUserIdAndStatusAndProcessedAtGreaterThanEqual(eq(10L), eq(TransactionStatus.COMPLETED), any(LocalDateTime.class))).thenReturn(5L);
 
         // When
         long result = transactionService.getTransactionCountByUserIdAndStatus(10L, TransactionStatus.COMPLETED);
 
         // Then
         assertThat(result).isEqualTo(5L);
-        verify(transactionRepository).countByUserIdAndStatus(10L, TransactionStatus.COMPLETED);
+        verify(transactionRepository).countByUserIdAndStatusAndProcessedAtGreaterThanEqual(eq(10L), eq(TransactionStatus.COMPLETED), any(LocalDateTime.class));
     }
 } 
\ No newline at end of file
@@ -0,0 +1,41 @@
+package com.maelcolium.telepesa.transfer.benchmark.jmh;
+
+import com.maelcolium.telepesa.transfer.entity.Transfer;
+import com.maelcolium.telepesa.transfer.service.impl.TransferServiceImpl;
+import org.openjdk.jmh.annotations.*;
+
+import java.math.BigDecimal;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Fee calculation for each transfer type, at amounts on both sides of the min/max fee clamps.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class FeeCalculationBenchmark {
+
+    @Param({"INTERNAL", "PESALINK", "MPESA", "RTGS", "SWIFT"})
+    private Transfer.TransferType transferType;
+
+    @Param({"150.00", "25000.00", "950000.00"})
+    private String amount;
+
+    private TransferServiceImpl transferService;
+    private BigDecimal value;
+
+    @Setup
+    public void setUp() {
+        // Fee calculation is pure, so the collaborators are never touched
+        transferService = new TransferServiceImpl(null, null, null, null, null);
+        value = new BigDecimal(amount);
+    }
+
+    @Benchmark
+    public BigDecimal calculateTransferFee() {
+        return transferService.calculateTransferFee(value, transferType);
+    }
+}
@@ -0,0 +1,83 @@
+package com.maelcolium.telepesa.transfer.benchmark.jmh;
+
+import com.maelcolium.telepesa.transfer.dto.TransferResponse;
+import com.maelcolium.telepesa.transfer.entity.Transfer;
+import com.maelcolium.telepesa.transfer.service.impl.TransferServiceImpl;
+import org.openjdk.jmh.annotations.*;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Entity-to-response mapping and transfer reference generation, the two per-request helpers
+ * on the transfer hot path that do not touch the database or other services.
+ *
+ * <p>Both helpers are private to {@link TransferServiceImpl}; they are reached through method
+ * handles resolved once in setup, which the JIT inlines like a direct call.</p>
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class TransferMappingBenchmark {
+
+    private static final MethodHandle MAP_TO_RESPONSE;
+    private static final MethodHandle GENERATE_REFERENCE;
+
+    static {
+        try {
+            MethodHandles.Lookup lookup = MethodHandles.privateLookupIn(TransferServiceImpl.class, MethodHandles.lookup());
+            MAP_TO_RESPONSE = lookup.findVirtual(TransferServiceImpl.class, "mapToResponse",
+                    MethodType.methodType(TransferResponse.class, Transfer.class));
+            GENERATE_REFERENCE = lookup.findVirtual(TransferServiceImpl.class, "generateTransferReference",
+                    MethodType.methodType(String.class));
+        } catch (ReflectiveOperationException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+    private TransferServiceImpl transferService;
+    private Transfer transfer;
+
+    @Setup
+    public void setUp() {
+        transferService = new TransferServiceImpl(null, null, null, null, null);
+
+        transfer = new Transfer();
+        transfer.setId("0b8f2f5e-2a8d-4e55-9d55-2f0f5b1c8a11");
+        transfer.setTransferReference("TXN4F1C2B3A9D8E");
+        transfer.setSenderAccountId("ACC1000000001");
+        transfer.setRecipientAccountId("ACC1000000002");
+        transfer.setAmount(new BigDecimal("25000.00"));
+        transfer.setCurrency("KES");
+        transfer.setTransferType(Transfer.TransferType.PESALINK);
+        transfer.setStatus(Transfer.TransferStatus.COMPLETED);
+        transfer.setDescription("Rent for March");
+        transfer.setReference("RENT-0325");
+        transfer.setTransferFee(new BigDecimal("125.00"));
+        transfer.setTotalAmount(new BigDecimal("25125.00"));
+        transfer.setSenderName("Jane Wanjiku");
+        transfer.setRecipientName("Peter Otieno");
+        transfer.setRecipientPhoneNumber("+254712345678");
+        transfer.setPesalinkBankCode("68");
+        transfer.setCreatedAt(LocalDateTime.of(2024, 3, 1, 9, 30));
+        transfer.setUpdatedAt(LocalDateTime.of(2024, 3, 1, 9, 30, 2));
+        transfer.setProcessedAt(LocalDateTime.of(2024, 3, 1, 9, 30, 2));
+    }
+
+    @Benchmark
+    public TransferResponse mapToResponse() throws Throwable {
+        return (TransferResponse) MAP_TO_RESPONSE.invokeExact(transferService, transfer);
+    }
+
+    @Benchmark
+    public String generateTransferReference() throws Throwable {
+        return (String) GENERATE_REFERENCE.invokeExact(transferService);
+    }
+}
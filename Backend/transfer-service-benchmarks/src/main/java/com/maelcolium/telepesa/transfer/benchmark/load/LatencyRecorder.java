@@ -0,0 +1,69 @@
+package com.maelcolium.telepesa.transfer.benchmark.load;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Fixed-capacity latency sink shared by the load workers.
+ *
+ * <p>Each sample claims a slot with one atomic increment, so recording stays off the
+ * measured path's critical section; percentiles are computed once at the end from a sorted
+ * copy rather than approximated from buckets.</p>
+ */
+final class LatencyRecorder {
+
+    private static final double[] PERCENTILES = {50.0, 90.0, 99.0, 99.9};
+
+    private final AtomicLongArray samples;
+    private final AtomicInteger count = new AtomicInteger();
+    private final AtomicInteger errors = new AtomicInteger();
+
+    LatencyRecorder(int capacity) {
+        this.samples = new AtomicLongArray(capacity);
+    }
+
+    void record(long nanos, boolean success) {
+        int slot = count.getAndIncrement();
+        if (slot < samples.length()) {
+            samples.set(slot, nanos);
+        }
+        if (!success) {
+            errors.incrementAndGet();
+        }
+    }
+
+    Map<String, Object> summarize(long elapsedNanos) {
+        int n = Math.min(count.get(), samples.length());
+        long[] sorted = new long[n];
+        for (int i = 0; i < n; i++) {
+            sorted[i] = samples.get(i);
+        }
+        Arrays.sort(sorted);
+
+        Map<String, Object> summary = new LinkedHashMap<>();
+        summary.put("requests", n);
+        summary.put("errors", errors.get());
+        summary.put("elapsedMs", elapsedNanos / 1_000_000.0);
+        summary.put("throughputPerSec", n == 0 ? 0.0 : n / (elapsedNanos / 1_000_000_000.0));
+
+        Map<String, Double> latency = new LinkedHashMap<>();
+        if (n > 0) {
+            latency.put("mean", millis(Arrays.stream(sorted).sum() / n));
+            for (double p : PERCENTILES) {
+                int index = (int) Math.ceil(p / 100.0 * n) - 1;
+                latency.put("p" + (p == Math.rint(p) ? String.valueOf((int) p) : String.valueOf(p)),
+                        millis(sorted[Math.max(0, index)]));
+            }
+            latency.put("max", millis(sorted[n - 1]));
+        }
+        summary.put("latencyMs", latency);
+        return summary;
+    }
+
+    private static double millis(long nanos) {
+        return nanos / 1_000_000.0;
+    }
+}
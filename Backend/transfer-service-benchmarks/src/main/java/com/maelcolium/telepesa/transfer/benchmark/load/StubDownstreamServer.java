@@ -0,0 +1,129 @@
+package com.maelcolium.telepesa.transfer.benchmark.load;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * In-process stand-in for account-service and transaction-service.
+ *
+ * <p>Serves just the endpoints the transfer flow calls, with canned JSON bodies and a fixed
+ * injected latency per request, so the harness measures transfer-service itself against a
+ * known downstream cost instead of whatever the real services happen to do.</p>
+ */
+public final class StubDownstreamServer implements AutoCloseable {
+
+    private static final String ACCOUNT_PREFIX = "/api/v1/accounts/number/";
+    private static final String TRANSACTION_PREFIX = "/api/v1/transactions/";
+
+    private final HttpServer server;
+    private final ExecutorService executor;
+    private final long latencyNanos;
+    private final AtomicLong ids = new AtomicLong(1000);
+    private final AtomicLong requests = new AtomicLong();
+
+    private StubDownstreamServer(HttpServer server, ExecutorService executor, long latencyNanos) {
+        this.server = server;
+        this.executor = executor;
+        this.latencyNanos = latencyNanos;
+    }
+
+    public static StubDownstreamServer start(long latencyMillis, int threads) throws IOException {
+        HttpServer server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 1024);
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        StubDownstreamServer stub = new StubDownstreamServer(server, executor, TimeUnit.MILLISECONDS.toNanos(latencyMillis));
+        server.createContext("/", stub::handle);
+        server.setExecutor(executor);
+        server.start();
+        return stub;
+    }
+
+    public String baseUrl() {
+        return "http://127.0.0.1:" + server.getAddress().getPort();
+    }
+
+    public long requestCount() {
+        return requests.get();
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        try (exchange; InputStream body = exchange.getRequestBody()) {
+            body.readAllBytes();
+            requests.incrementAndGet();
+            if (latencyNanos > 0) {
+                LockSupport.parkNanos(latencyNanos);
+            }
+
+            String path = exchange.getRequestURI().getPath();
+            String method = exchange.getRequestMethod();
+            if (path.startsWith(ACCOUNT_PREFIX)) {
+                String rest = path.substring(ACCOUNT_PREFIX.length());
+                int slash = rest.indexOf('/');
+                String accountNumber = slash < 0 ? rest : rest.substring(0, slash);
+                if (slash < 0 && "GET".equals(method)) {
+                    respond(exchange, 200, account(accountNumber));
+                } else {
+                    respond(exchange, 200, accountTransaction(accountNumber));
+                }
+            } else if (path.equals(TRANSACTION_PREFIX + "internal/batch") && "POST".equals(method)) {
+                // Transfers record at most a debit and a credit per call
+                respond(exchange, 200, "[" + transaction(ids.incrementAndGet()) + "," + transaction(ids.incrementAndGet()) + "]");
+            } else if (path.equals(TRANSACTION_PREFIX + "internal") && "POST".equals(method)) {
+                respond(exchange, 201, transaction(ids.incrementAndGet()));
+            } else if (path.startsWith(TRANSACTION_PREFIX) && path.endsWith("/status") && "PUT".equals(method)) {
+                respond(exchange, 200, null);
+            } else {
+                respond(exchange, 404, "{\"error\":\"Not stubbed: " + method + " " + path + "\"}");
+            }
+        }
+    }
+
+    private static String account(String accountNumber) {
+        // Numeric ids: the transfer flow parses account and user ids as longs
+        long id = Math.abs((long) accountNumber.hashCode()) + 1;
+        return "{\"id\":\"" + id + "\",\"accountNumber\":\"" + accountNumber + "\",\"balance\":1000000000.00,"
+                + "\"currency\":\"KES\",\"status\":\"ACTIVE\",\"userId\":\"" + id + "\","
+                + "\"accountType\":\"SAVINGS\",\"accountName\":\"Load Test " + accountNumber + "\"}";
+    }
+
+    private static String accountTransaction(String accountNumber) {
+        return "{\"transactionId\":\"STUB-" + System.nanoTime() + "\",\"accountId\":\"" + accountNumber + "\","
+                + "\"amount\":0,\"balanceAfter\":1000000000.00,\"status\":\"COMPLETED\",\"reference\":\"STUB\"}";
+    }
+
+    private static String transaction(long id) {
+        return "{\"id\":" + id + ",\"transactionId\":\"TXN-STUB-" + id + "\",\"accountId\":1,\"amount\":0,"
+                + "\"transactionType\":\"TRANSFER\",\"status\":\"PENDING\",\"description\":\"stub\","
+                + "\"referenceNumber\":\"REF" + id + "\",\"feeAmount\":0,\"totalAmount\":0,"
+                + "\"currencyCode\":\"KES\",\"createdAt\":\"2024-01-01T00:00:00\"}";
+    }
+
+    private static void respond(HttpExchange exchange, int status, String json) throws IOException {
+        if (json == null) {
+            exchange.sendResponseHeaders(status, -1);
+            return;
+        }
+        byte[] bytes = json.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "application/json");
+        exchange.sendResponseHeaders(status, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+        executor.shutdownNow();
+    }
+}
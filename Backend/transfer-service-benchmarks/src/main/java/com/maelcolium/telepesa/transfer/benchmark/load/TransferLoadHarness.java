@@ -0,0 +1,223 @@
+package com.maelcolium.telepesa.transfer.benchmark.load;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.maelcolium.telepesa.transfer.TransferServiceApplication;
+import com.maelcolium.telepesa.transfer.entity.Transfer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+
+/**
+ * End-to-end load harness for {@code POST /api/v1/transfers}.
+ *
+ * <p>Boots transfer-service in-process on an in-memory H2 database, points its account and
+ * transaction clients at a {@link StubDownstreamServer} with a configurable injected latency,
+ * then drives each transfer type with a closed-loop pool of workers and writes throughput and
+ * latency percentiles per type as JSON.</p>
+ *
+ * <p>Settings are read from {@code --name=value} arguments or {@code -Dload.name=value}
+ * system properties: {@code concurrency}, {@code requests} (per type), {@code warmup}
+ * (per type), {@code downstream-latency-ms}, {@code types} (comma-separated) and
+ * {@code output}. The commit id comes from {@code commit} or the {@code GIT_COMMIT}
+ * environment variable.</p>
+ */
+@Slf4j
+public final class TransferLoadHarness {
+
+    private static final String SERVICE_SECRET =
+            "load-harness-service-secret-0123456789abcdef0123456789abcdef0123456789abcdef";
+
+    private final Map<String, String> settings;
+    private final HttpClient client = HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_1_1)
+            .connectTimeout(Duration.ofSeconds(5))
+            .build();
+
+    private TransferLoadHarness(Map<String, String> settings) {
+        this.settings = settings;
+    }
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> settings = new LinkedHashMap<>();
+        for (String arg : args) {
+            if (arg.startsWith("--") && arg.contains("=")) {
+                settings.put(arg.substring(2, arg.indexOf('=')), arg.substring(arg.indexOf('=') + 1));
+            }
+        }
+        new TransferLoadHarness(settings).run();
+        System.exit(0);
+    }
+
+    private void run() throws Exception {
+        int concurrency = intSetting("concurrency", 16);
+        int requests = intSetting("requests", 2000);
+        int warmup = intSetting("warmup", 200);
+        long downstreamLatencyMs = intSetting("downstream-latency-ms", 5);
+        List<Transfer.TransferType> types = Arrays.stream(setting("types", "INTERNAL,PESALINK,MPESA,RTGS,SWIFT").split(","))
+                .map(String::strip)
+                .map(Transfer.TransferType::valueOf)
+                .toList();
+        Path output = Paths.get(setting("output", "target/load-results.json"));
+
+        try (StubDownstreamServer stub = StubDownstreamServer.start(downstreamLatencyMs, Math.max(64, concurrency * 4));
+             ConfigurableApplicationContext context = startTransferService(stub.baseUrl())) {
+
+            int port = ((WebServerApplicationContext) context).getWebServer().getPort();
+            URI endpoint = URI.create("http://127.0.0.1:" + port + "/api/v1/transfers");
+            log.info("Transfer service on port {}, stub downstream at {} ({} ms latency)",
+                    port, stub.baseUrl(), downstreamLatencyMs);
+
+            Map<String, Object> results = new LinkedHashMap<>();
+            for (Transfer.TransferType type : types) {
+                drive(endpoint, type, warmup, concurrency, new LatencyRecorder(warmup));
+                LatencyRecorder recorder = new LatencyRecorder(requests);
+                long elapsed = drive(endpoint, type, requests, concurrency, recorder);
+                Map<String, Object> summary = recorder.summarize(elapsed);
+                results.put(type.name(), summary);
+                log.info("{}: {}", type, summary);
+            }
+
+            Map<String, Object> report = new LinkedHashMap<>();
+            report.put("commit", setting("commit", System.getenv().getOrDefault("GIT_COMMIT", "unknown")));
+            report.put("timestamp", Instant.now().toString());
+            report.put("javaVersion", System.getProperty("java.version"));
+            report.put("availableProcessors", Runtime.getRuntime().availableProcessors());
+            report.put("concurrency", concurrency);
+            report.put("requestsPerType", requests);
+            report.put("warmupPerType", warmup);
+            report.put("downstreamLatencyMs", downstreamLatencyMs);
+            report.put("downstreamRequests", stub.requestCount());
+            report.put("results", results);
+            write(output, report);
+            log.info("Wrote load results to {}", output.toAbsolutePath());
+        }
+    }
+
+    private ConfigurableApplicationContext startTransferService(String downstreamUrl) {
+        // Passed as command-line arguments so they override the packaged application.yml
+        String[] overrides = Stream.of(
+                        "server.port=0",
+                        "spring.datasource.url=jdbc:h2:mem:transfer_load;DB_CLOSE_DELAY=-1",
+                        "spring.datasource.driver-class-name=org.h2.Driver",
+                        "spring.datasource.username=sa",
+                        "spring.datasource.password=",
+                        "spring.datasource.hikari.maximum-pool-size=" + Math.max(10, intSetting("concurrency", 16) + 4),
+                        "spring.jpa.hibernate.ddl-auto=create-drop",
+                        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+                        "spring.flyway.enabled=false",
+                        "spring.cache.type=simple",
+                        "eureka.client.enabled=false",
+                        "spring.cloud.discovery.client.simple.instances.account-service[0].uri=" + downstreamUrl,
+                        "services.transaction-service.url=" + downstreamUrl,
+                        "service.auth.secret=" + SERVICE_SECRET,
+                        "app.settlement.cutoff-cron=-",
+                        "management.endpoints.enabled-by-default=false",
+                        "logging.level.root=WARN",
+                        "logging.level.com.maelcolium.telepesa.transfer.benchmark=INFO"
+                )
+                .map(property -> "--" + property)
+                .toArray(String[]::new);
+        return new SpringApplicationBuilder(TransferServiceApplication.class).run(overrides);
+    }
+
+    /**
+     * Send {@code total} transfers of one type from {@code concurrency} workers and return the wall time.
+     */
+    private long drive(URI endpoint, Transfer.TransferType type, int total, int concurrency,
+                       LatencyRecorder recorder) throws Exception {
+        AtomicInteger issued = new AtomicInteger();
+        ExecutorService workers = Executors.newFixedThreadPool(concurrency);
+        long start = System.nanoTime();
+        try {
+            List<Future<?>> futures = new ArrayList<>(concurrency);
+            for (int w = 0; w < concurrency; w++) {
+                futures.add(workers.submit(() -> {
+                    int sequence;
+                    while ((sequence = issued.getAndIncrement()) < total) {
+                        HttpRequest request = HttpRequest.newBuilder(endpoint)
+                                .timeout(Duration.ofSeconds(30))
+                                .header("Content-Type", "application/json")
+                                .header("X-Account-Id", "LT" + String.format("%010d", sequence % 1000))
+                                .POST(HttpRequest.BodyPublishers.ofString(requestBody(type, sequence)))
+                                .build();
+                        long sent = System.nanoTime();
+                        boolean success;
+                        try {
+                            HttpResponse<Void> response = client.send(request, HttpResponse.BodyHandlers.discarding());
+                            success = response.statusCode() / 100 == 2;
+                        } catch (IOException e) {
+                            success = false;
+                        }
+                        recorder.record(System.nanoTime() - sent, success);
+                    }
+                    return null;
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            workers.shutdownNow();
+        }
+        return System.nanoTime() - start;
+    }
+
+    /**
+     * A request body that passes validation, bank routing and sanctions screening for the type.
+     */
+    static String requestBody(Transfer.TransferType type, int sequence) {
+        StringBuilder body = new StringBuilder(256)
+                .append("{\"recipientAccountId\":\"LR").append(String.format("%010d", sequence % 1000)).append('"')
+                .append(",\"amount\":").append(500 + sequence % 50_000).append(".00")
+                .append(",\"transferType\":\"").append(type.name()).append('"')
+                .append(",\"currency\":\"KES\"")
+                .append(",\"description\":\"Load test ").append(sequence).append('"')
+                .append(",\"recipientName\":\"Load Recipient\"");
+        switch (type) {
+            case SWIFT -> body.append(",\"swiftCode\":\"KCBLKENX\",\"recipientBankName\":\"KCB Bank Kenya\"");
+            case RTGS -> body.append(",\"sortCode\":\"01100\"");
+            case PESALINK -> body.append(",\"pesalinkBankCode\":\"68\"");
+            case MPESA -> body.append(",\"mpesaNumber\":\"254712345678\"");
+            default -> { }
+        }
+        return body.append('}').toString();
+    }
+
+    private static void write(Path output, Map<String, Object> report) throws IOException {
+        if (output.getParent() != null) {
+            Files.createDirectories(output.getParent());
+        }
+        new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT).writeValue(output.toFile(), report);
+    }
+
+    private String setting(String name, String defaultValue) {
+        return settings.getOrDefault(name, System.getProperty("load." + name, defaultValue));
+    }
+
+    private int intSetting(String name, int defaultValue) {
+        return Integer.parseInt(setting(name, String.valueOf(defaultValue)));
+    }
+}
@@ -9,6 +9,7 @@ import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.RequestBody;
 
 import java.math.BigDecimal;
+import java.util.List;
 
 @FeignClient(name = "transaction-service", url = "${services.transaction-service.url:http://transaction-service:8083}", configuration = com.maelcolium.telepesa.transfer.config.FeignConfig.class)
 public interface TransactionServiceClient {
@@ -16,6 +17,9 @@ public interface TransactionServiceClient {
     @PostMapping("/api/v1/transactions/internal")
     TransactionResponse createTransaction(@RequestBody CreateTransactionRequest request);
 
+    @PostMapping("/api/v1/transactions/internal/batch")
+    List<TransactionResponse> createTransactions(@RequestBody BatchCreateTransactionRequest request);
+
     @PutMapping("/api/v1/transactions/{id}/status")
     Void updateTransactionStatus(@PathVariable("id") Long id, @RequestBody TransactionStatus status);
 
@@ -26,7 +30,18 @@ public interface TransactionServiceClient {
         TransactionType transactionType,
         String description,
         Long userId,
-        BigDecimal feeAmount
+        BigDecimal feeAmount,
+        TransactionStatus status
+    ) {
+        public CreateTransactionRequest(Long fromAccountId, Long toAccountId, BigDecimal amount,
+                                        TransactionType transactionType, String description,
+                                        Long userId, BigDecimal feeAmount) {
+            this(fromAccountId, toAccountId, amount, transactionType, description, userId, feeAmount, null);
+        }
+    }
+
+    record BatchCreateTransactionRequest(
+        List<CreateTransactionRequest> transactions
     ) {}
 
     record TransactionResponse(
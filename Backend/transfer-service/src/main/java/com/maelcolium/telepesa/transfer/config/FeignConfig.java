@@ -23,8 +23,8 @@ public class FeignConfig {
         return new RequestInterceptor() {
             @Override
             public void apply(RequestTemplate template) {
-                // For internal service calls, use service token
-                if (template.url().contains("/internal/")) {
+                // For internal service calls, including the bare /internal create, use service token
+                if (template.url().contains("/internal")) {
                     template.header("Authorization", "Bearer " + serviceToken);
                     return;
                 }
@@ -0,0 +1,21 @@
+package com.maelcolium.telepesa.transfer.config;
+
+import com.maelcolium.telepesa.security.GatewayIdentity;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Verifier for the identity headers signed by the API Gateway. The secret is shared with the
+ * gateway and has no default, so the service does not start without one.
+ */
+@Configuration
+public class GatewayIdentityConfig {
+
+    @Bean
+    public GatewayIdentity gatewayIdentity(
+            @Value("${app.gateway.identity.secret}") String secret,
+            @Value("${app.gateway.identity.max-age:30}") long maxAgeSeconds) {
+        return new GatewayIdentity(secret, maxAgeSeconds);
+    }
+}
@@ -1,20 +1,35 @@
 package com.maelcolium.telepesa.transfer.config;
 
+import com.maelcolium.telepesa.security.GatewayIdentity;
+import com.maelcolium.telepesa.transfer.security.GatewayIdentityFilter;
+import com.maelcolium.telepesa.transfer.security.JwtAuthenticationFilter;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.security.config.annotation.method.configuration.EnableMethodSecurity;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
 import org.springframework.security.config.annotation.web.configurers.AbstractHttpConfigurer;
 import org.springframework.security.web.SecurityFilterChain;
+import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
 
 /**
  * Security configuration for Transfer Service
- * Disables authentication since API Gateway handles it
+ * Requests are authenticated at the API Gateway; the forwarded JWT is verified here
+ * so operational endpoints can be restricted by role, and the identity headers the gateway
+ * signs are verified against it
  */
 @Configuration
 @EnableWebSecurity
+@EnableMethodSecurity(prePostEnabled = true)
 public class SecurityConfig {
 
+    @Autowired
+    private JwtAuthenticationFilter jwtAuthenticationFilter;
+
+    @Autowired
+    private GatewayIdentity gatewayIdentity;
+
     @Bean
     public SecurityFilterChain filterChain(HttpSecurity http) throws Exception {
         http.csrf(AbstractHttpConfigurer::disable)
@@ -23,7 +38,9 @@ public class SecurityConfig {
                 .permitAll()
                 .anyRequest().permitAll()
             )
-            .headers(headers -> headers.frameOptions().sameOrigin());
+            .headers(headers -> headers.frameOptions().sameOrigin())
+            .addFilterBefore(jwtAuthenticationFilter, UsernamePasswordAuthenticationFilter.class)
+            .addFilterAfter(new GatewayIdentityFilter(gatewayIdentity), JwtAuthenticationFilter.class);
         
         return http.build();
     }
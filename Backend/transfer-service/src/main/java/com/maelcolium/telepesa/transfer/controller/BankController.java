@@ -2,16 +2,24 @@ package com.maelcolium.telepesa.transfer.controller;
 
 import com.maelcolium.telepesa.transfer.dto.BankResponse;
 import com.maelcolium.telepesa.transfer.dto.RecipientResponse;
+import com.maelcolium.telepesa.transfer.service.BankDirectory;
+import com.maelcolium.telepesa.transfer.service.BankDirectoryService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
+import java.time.Duration;
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Map;
 import java.util.stream.IntStream;
 
 @RestController
@@ -21,15 +29,56 @@ import java.util.stream.IntStream;
 @Tag(name = "Bank and Recipients Management", description = "APIs for managing banks and recipients")
 public class BankController {
 
+    private final BankDirectoryService bankDirectoryService;
+
     @GetMapping("/banks")
     @Operation(summary = "Get supported banks by country")
     public ResponseEntity<List<BankResponse>> getSupportedBanks(
             @Parameter(description = "Country code (e.g., KE, UG, TZ)")
-            @RequestParam String country) {
+            @RequestParam String country,
+            WebRequest webRequest) {
+        
+        log.debug("Getting supported banks for country: {}", country);
+        BankDirectory.CountryListing listing = bankDirectoryService.getBanks(country);
+        if (webRequest.checkNotModified(listing.etag())) {
+            return null;
+        }
+        return ResponseEntity.ok()
+                .eTag(listing.etag())
+                .cacheControl(CacheControl.maxAge(Duration.ofHours(1)).cachePublic())
+                .body(listing.banks());
+    }
+
+    @GetMapping("/banks/swift/{swiftCode}")
+    @Operation(summary = "Look up a bank by SWIFT/BIC code")
+    public ResponseEntity<BankResponse> getBankBySwift(
+            @Parameter(description = "SWIFT/BIC code (8 or 11 characters)", required = true)
+            @PathVariable String swiftCode) {
         
-        log.info("Getting supported banks for country: {}", country);
-        List<BankResponse> banks = getSampleBanks(country);
-        return ResponseEntity.ok(banks);
+        return bankDirectoryService.findBySwift(swiftCode)
+                .map(ResponseEntity::ok)
+                .orElseGet(() -> ResponseEntity.notFound().build());
+    }
+
+    @PostMapping("/banks/reload")
+    @PreAuthorize("hasRole('ADMIN')")
+    @Operation(summary = "Reload the bank routing directory from its source")
+    public ResponseEntity<Map<String, Object>> reloadBanks() {
+        BankDirectory directory;
+        try {
+            directory = bankDirectoryService.reload();
+        } catch (IllegalStateException e) {
+            log.error(e.getMessage());
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(Map.of(
+                "error", e.getMessage(),
+                "loadedAt", bankDirectoryService.current().loadedAt().toString()
+            ));
+        }
+        return ResponseEntity.ok(Map.of(
+            "banks", directory.bankCount(),
+            "branches", directory.branchCount(),
+            "loadedAt", directory.loadedAt().toString()
+        ));
     }
 
     @GetMapping("/user/{userId}/recipients")
@@ -76,96 +125,6 @@ public class BankController {
     }
 
     // Sample data methods
-    private List<BankResponse> getSampleBanks(String country) {
-        if ("KE".equalsIgnoreCase(country)) {
-            return List.of(
-                BankResponse.builder()
-                    .id("bank-1")
-                    .bankCode("KCB")
-                    .bankName("Kenya Commercial Bank")
-                    .country("KE")
-                    .swift("KCBLKENX")
-                    .active(true)
-                    .supportedCurrencies(List.of("KES", "USD"))
-                    .features(BankResponse.BankFeatures.builder()
-                        .instantTransfer(true)
-                        .scheduledTransfer(true)
-                        .internationalTransfer(true)
-                        .maxTransferAmount("1000000")
-                        .minTransferAmount("10")
-                        .build())
-                    .build(),
-                BankResponse.builder()
-                    .id("bank-2")
-                    .bankCode("EQB")
-                    .bankName("Equity Bank")
-                    .country("KE")
-                    .swift("EQBLKENA")
-                    .active(true)
-                    .supportedCurrencies(List.of("KES", "USD"))
-                    .features(BankResponse.BankFeatures.builder()
-                        .instantTransfer(true)
-                        .scheduledTransfer(true)
-                        .internationalTransfer(false)
-                        .maxTransferAmount("500000")
-                        .minTransferAmount("1")
-                        .build())
-                    .build(),
-                BankResponse.builder()
-                    .id("bank-3")
-                    .bankCode("COOP")
-                    .bankName("Co-operative Bank")
-                    .country("KE")
-                    .swift("COOPKENX")
-                    .active(true)
-                    .supportedCurrencies(List.of("KES"))
-                    .features(BankResponse.BankFeatures.builder()
-                        .instantTransfer(true)
-                        .scheduledTransfer(false)
-                        .internationalTransfer(false)
-                        .maxTransferAmount("200000")
-                        .minTransferAmount("50")
-                        .build())
-                    .build(),
-                BankResponse.builder()
-                    .id("bank-4")
-                    .bankCode("ABSA")
-                    .bankName("Absa Bank Kenya")
-                    .country("KE")
-                    .swift("BARCKENX")
-                    .active(true)
-                    .supportedCurrencies(List.of("KES", "USD", "EUR"))
-                    .features(BankResponse.BankFeatures.builder()
-                        .instantTransfer(true)
-                        .scheduledTransfer(true)
-                        .internationalTransfer(true)
-                        .maxTransferAmount("2000000")
-                        .minTransferAmount("100")
-                        .build())
-                    .build(),
-                BankResponse.builder()
-                    .id("bank-5")
-                    .bankCode("STDCHRT")
-                    .bankName("Standard Chartered Bank")
-                    .country("KE")
-                    .swift("SCBLKENX")
-                    .active(true)
-                    .supportedCurrencies(List.of("KES", "USD", "GBP", "EUR"))
-                    .features(BankResponse.BankFeatures.builder()
-                        .instantTransfer(true)
-                        .scheduledTransfer(true)
-                        .internationalTransfer(true)
-                        .maxTransferAmount("5000000")
-                        .minTransferAmount("500")
-                        .build())
-                    .build()
-            );
-        }
-        
-        // Return empty list for other countries for now
-        return List.of();
-    }
-
     private List<RecipientResponse> getSampleRecipients(String userId) {
         return IntStream.range(1, 6)
                 .mapToObj(i -> RecipientResponse.builder()
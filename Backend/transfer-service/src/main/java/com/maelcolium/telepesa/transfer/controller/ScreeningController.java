@@ -0,0 +1,57 @@
+package com.maelcolium.telepesa.transfer.controller;
+
+import com.maelcolium.telepesa.transfer.dto.ScreeningResult;
+import com.maelcolium.telepesa.transfer.dto.TransferResponse;
+import com.maelcolium.telepesa.transfer.service.SanctionsScreeningService;
+import com.maelcolium.telepesa.transfer.service.TransferService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/v1/transfers/screening")
+@RequiredArgsConstructor
+@Slf4j
+@Tag(name = "Sanctions Screening", description = "APIs for watch-list screening of cross-border transfers")
+public class ScreeningController {
+
+    private final SanctionsScreeningService sanctionsScreeningService;
+    private final TransferService transferService;
+
+    @GetMapping("/check")
+    @PreAuthorize("hasRole('ADMIN')")
+    @Operation(summary = "Screen a name against the watch list")
+    public ResponseEntity<ScreeningResult> check(
+            @Parameter(description = "Person or entity name", required = true)
+            @RequestParam String name) {
+
+        return ResponseEntity.ok(sanctionsScreeningService.screenName(name));
+    }
+
+    @PostMapping("/reload")
+    @PreAuthorize("hasRole('ADMIN')")
+    @Operation(summary = "Reload the watch list from its source")
+    public ResponseEntity<Map<String, Object>> reload() {
+        int entries = sanctionsScreeningService.reload();
+        log.info("Watch list reloaded with {} entries", entries);
+        return ResponseEntity.ok(Map.of("entries", entries));
+    }
+
+    @PostMapping("/transfers/{transferId}/release")
+    @PreAuthorize("hasRole('ADMIN')")
+    @Operation(summary = "Release a transfer held for compliance review and process it")
+    public ResponseEntity<TransferResponse> release(
+            @Parameter(description = "Transfer ID", required = true)
+            @PathVariable String transferId) {
+
+        log.info("Releasing transfer {} from compliance review", transferId);
+        return ResponseEntity.ok(transferService.releaseScreenedTransfer(transferId));
+    }
+}
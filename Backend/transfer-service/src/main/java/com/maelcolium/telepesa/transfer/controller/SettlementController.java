@@ -0,0 +1,74 @@
+package com.maelcolium.telepesa.transfer.controller;
+
+import com.maelcolium.telepesa.transfer.dto.SettlementBatchResponse;
+import com.maelcolium.telepesa.transfer.entity.Transfer;
+import com.maelcolium.telepesa.transfer.service.SettlementService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/v1/transfers/settlement")
+@RequiredArgsConstructor
+@Slf4j
+@Tag(name = "Settlement", description = "APIs for outbound RTGS/SWIFT/PesaLink settlement batches")
+public class SettlementController {
+
+    private final SettlementService settlementService;
+
+    @PostMapping("/cutoff")
+    @PreAuthorize("hasRole('ADMIN')")
+    @Operation(summary = "Close the settlement window now for all outbound rails")
+    public ResponseEntity<List<SettlementBatchResponse>> runCutoff(
+            @Parameter(description = "Cut-off time (ISO format), defaults to now")
+            @RequestParam(required = false) LocalDateTime cutoff) {
+
+        LocalDateTime cutoffTime = cutoff != null ? cutoff : LocalDateTime.now();
+        log.info("Manual settlement cut-off requested at {}", cutoffTime);
+        return ResponseEntity.ok(settlementService.runCutoff(cutoffTime));
+    }
+
+    @PostMapping("/cutoff/{rail}")
+    @PreAuthorize("hasRole('ADMIN')")
+    @Operation(summary = "Close the settlement window now for a single rail")
+    public ResponseEntity<SettlementBatchResponse> settleRail(
+            @Parameter(description = "Outbound rail (RTGS, SWIFT, PESALINK)", required = true)
+            @PathVariable Transfer.TransferType rail,
+            @Parameter(description = "Cut-off time (ISO format), defaults to now")
+            @RequestParam(required = false) LocalDateTime cutoff) {
+
+        SettlementBatchResponse batch = settlementService.settle(rail, cutoff != null ? cutoff : LocalDateTime.now());
+        return batch != null ? ResponseEntity.ok(batch) : ResponseEntity.noContent().build();
+    }
+
+    @PostMapping("/batches/{batchId}/regenerate")
+    @PreAuthorize("hasRole('ADMIN')")
+    @Operation(summary = "Regenerate the file for a failed settlement batch")
+    public ResponseEntity<SettlementBatchResponse> regenerate(
+            @Parameter(description = "Settlement batch ID", required = true)
+            @PathVariable String batchId) {
+
+        return ResponseEntity.ok(settlementService.regenerate(batchId));
+    }
+
+    @GetMapping("/batches")
+    @Operation(summary = "Get settlement batches, newest first")
+    public ResponseEntity<Page<SettlementBatchResponse>> getBatches(
+            @Parameter(description = "Page number (0-based)")
+            @RequestParam(defaultValue = "0") int page,
+            @Parameter(description = "Page size")
+            @RequestParam(defaultValue = "20") int size) {
+
+        return ResponseEntity.ok(settlementService.getBatches(PageRequest.of(page, size)));
+    }
+}
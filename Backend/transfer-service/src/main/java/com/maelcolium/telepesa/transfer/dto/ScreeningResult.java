@@ -0,0 +1,40 @@
+package com.maelcolium.telepesa.transfer.dto;
+
+import java.util.List;
+
+/**
+ * Outcome of screening a transfer's counterparties against the watch list.
+ */
+public record ScreeningResult(Decision decision, List<ScreeningMatch> matches) {
+
+    public static final ScreeningResult CLEAR = new ScreeningResult(Decision.CLEAR, List.of());
+
+    /**
+     * No watch list has loaded yet, so nothing can be cleared
+     */
+    public static final ScreeningResult UNSCREENED = new ScreeningResult(Decision.REVIEW, List.of());
+
+    public enum Decision {
+        CLEAR,
+        REVIEW,
+        BLOCK
+    }
+
+    public record ScreeningMatch(
+        String field,
+        String entryId,
+        String list,
+        String listedName,
+        String matchedName,
+        double score
+    ) {}
+
+    public String summary() {
+        if (matches.isEmpty()) {
+            return decision == Decision.CLEAR ? decision.name() : decision + ": no watch list loaded";
+        }
+        ScreeningMatch top = matches.get(0);
+        return decision + ": " + top.field() + " matched " + top.list() + "/" + top.entryId()
+                + " (" + String.format("%.2f", top.score()) + ")";
+    }
+}
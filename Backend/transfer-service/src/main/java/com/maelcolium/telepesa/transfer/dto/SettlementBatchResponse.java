@@ -0,0 +1,24 @@
+package com.maelcolium.telepesa.transfer.dto;
+
+import com.maelcolium.telepesa.transfer.entity.SettlementBatch;
+import com.maelcolium.telepesa.transfer.entity.Transfer;
+import lombok.Data;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+@Data
+public class SettlementBatchResponse {
+
+    private String id;
+    private String batchReference;
+    private Transfer.TransferType rail;
+    private LocalDateTime cutoffTime;
+    private SettlementBatch.SettlementStatus status;
+    private Long recordCount;
+    private BigDecimal totalAmount;
+    private String fileName;
+    private String checksum;
+    private String failureReason;
+    private LocalDateTime createdAt;
+}
@@ -0,0 +1,21 @@
+package com.maelcolium.telepesa.transfer.dto;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Read-only projection of a transfer as it appears in an outbound settlement file.
+ */
+public record SettlementRecord(
+    String id,
+    String transferReference,
+    String senderAccountId,
+    String recipientAccountId,
+    String recipientName,
+    String swiftCode,
+    String sortCode,
+    String pesalinkBankCode,
+    String currency,
+    BigDecimal amount,
+    LocalDateTime createdAt
+) {}
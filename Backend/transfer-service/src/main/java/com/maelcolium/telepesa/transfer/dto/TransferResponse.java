@@ -29,4 +29,5 @@ public class TransferResponse {
     private LocalDateTime updatedAt;
     private LocalDateTime processedAt;
     private String failureReason;
+    private String screeningStatus;
 }
@@ -0,0 +1,71 @@
+package com.maelcolium.telepesa.transfer.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.CreatedDate;
+import org.springframework.data.annotation.LastModifiedDate;
+import org.springframework.data.jpa.domain.support.AuditingEntityListener;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+@Entity
+@Table(name = "settlement_batches", indexes = {
+    @Index(name = "idx_settlement_batch_status", columnList = "status"),
+    @Index(name = "idx_settlement_batch_cutoff", columnList = "cutoffTime")
+})
+@EntityListeners(AuditingEntityListener.class)
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class SettlementBatch {
+
+    public static final int FAILURE_REASON_LENGTH = 255;
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.UUID)
+    private String id;
+
+    @Column(nullable = false, unique = true, length = 20)
+    private String batchReference;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private Transfer.TransferType rail;
+
+    @Column(nullable = false)
+    private LocalDateTime cutoffTime;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private SettlementStatus status;
+
+    private Long recordCount = 0L;
+
+    @Column(precision = 19, scale = 2)
+    private BigDecimal totalAmount = BigDecimal.ZERO;
+
+    private String fileName;
+
+    @Column(length = 64)
+    private String checksum;
+
+    @Column(length = FAILURE_REASON_LENGTH)
+    private String failureReason;
+
+    @CreatedDate
+    @Column(nullable = false, updatable = false)
+    private LocalDateTime createdAt;
+
+    @LastModifiedDate
+    @Column(nullable = false)
+    private LocalDateTime updatedAt;
+
+    public enum SettlementStatus {
+        CLAIMED,   // Transfers marked with this batch, file not yet written
+        WRITTEN,   // File and checksum delivered to the outbound directory
+        FAILED     // File generation failed; regenerated on the next cut-off
+    }
+}
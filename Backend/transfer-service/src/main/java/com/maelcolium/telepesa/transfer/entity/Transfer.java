@@ -17,7 +17,8 @@ import java.time.LocalDateTime;
     @Index(name = "idx_recipient_account", columnList = "recipientAccountId"),
     @Index(name = "idx_transfer_reference", columnList = "transferReference"),
     @Index(name = "idx_status", columnList = "status"),
-    @Index(name = "idx_created_at", columnList = "createdAt")
+    @Index(name = "idx_created_at", columnList = "createdAt"),
+    @Index(name = "idx_settlement_batch", columnList = "settlementBatchId, id")
 })
 @EntityListeners(AuditingEntityListener.class)
 @Data
@@ -91,6 +92,14 @@ public class Transfer {
     // M-Pesa specific fields
     private String mpesaNumber;
     
+    // Sanctions screening outcome for cross-border transfers (CLEAR, REVIEW, BLOCK, or RELEASED after review)
+    @Column(length = 10)
+    private String screeningStatus;
+    
+    // Outbound settlement batch this transfer was claimed into
+    @Column(length = 36)
+    private String settlementBatchId;
+    
     @CreatedDate
     @Column(nullable = false, updatable = false)
     private LocalDateTime createdAt;
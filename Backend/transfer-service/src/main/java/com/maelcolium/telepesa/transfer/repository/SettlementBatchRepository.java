@@ -0,0 +1,20 @@
+package com.maelcolium.telepesa.transfer.repository;
+
+import com.maelcolium.telepesa.transfer.entity.SettlementBatch;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface SettlementBatchRepository extends JpaRepository<SettlementBatch, String> {
+
+    Optional<SettlementBatch> findByBatchReference(String batchReference);
+
+    List<SettlementBatch> findByStatusIn(List<SettlementBatch.SettlementStatus> statuses);
+
+    Page<SettlementBatch> findAllByOrderByCreatedAtDesc(Pageable pageable);
+}
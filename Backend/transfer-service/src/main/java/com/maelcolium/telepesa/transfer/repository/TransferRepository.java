@@ -1,12 +1,15 @@
 package com.maelcolium.telepesa.transfer.repository;
 
+import com.maelcolium.telepesa.transfer.dto.SettlementRecord;
 import com.maelcolium.telepesa.transfer.entity.Transfer;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
@@ -48,4 +51,31 @@ public interface TransferRepository extends JpaRepository<Transfer, String> {
     );
     
     boolean existsByTransferReference(String transferReference);
+    
+    /**
+     * Claim every unsettled transfer on a rail up to the cut-off into a settlement batch in one statement
+     */
+    @Modifying
+    @Transactional
+    @Query("UPDATE Transfer t SET t.settlementBatchId = :batchId WHERE t.settlementBatchId IS NULL " +
+           "AND t.transferType = :rail AND t.status IN :statuses AND t.createdAt < :cutoff")
+    int claimForSettlement(
+        @Param("batchId") String batchId,
+        @Param("rail") Transfer.TransferType rail,
+        @Param("statuses") List<Transfer.TransferStatus> statuses,
+        @Param("cutoff") LocalDateTime cutoff
+    );
+    
+    /**
+     * Keyset page of a batch's settlement rows, projected so nothing lands in the persistence context
+     */
+    @Query("SELECT new com.maelcolium.telepesa.transfer.dto.SettlementRecord(" +
+           "t.id, t.transferReference, t.senderAccountId, t.recipientAccountId, t.recipientName, " +
+           "t.swiftCode, t.sortCode, t.pesalinkBankCode, t.currency, t.amount, t.createdAt) " +
+           "FROM Transfer t WHERE t.settlementBatchId = :batchId AND t.id > :afterId ORDER BY t.id")
+    List<SettlementRecord> findSettlementRecords(
+        @Param("batchId") String batchId,
+        @Param("afterId") String afterId,
+        Pageable pageable
+    );
 }
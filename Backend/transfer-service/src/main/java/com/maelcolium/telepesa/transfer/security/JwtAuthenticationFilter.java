@@ -0,0 +1,71 @@
+package com.maelcolium.telepesa.transfer.security;
+
+import com.maelcolium.telepesa.security.JwtTokenUtil;
+import com.maelcolium.telepesa.security.TokenPrincipal;
+import com.maelcolium.telepesa.security.TokenRevocations;
+import com.maelcolium.telepesa.security.VerifiedToken;
+import io.jsonwebtoken.JwtException;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.web.authentication.WebAuthenticationDetailsSource;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+
+/**
+ * JWT Authentication Filter for Transfer Service
+ * Validates JWT tokens and sets authentication context
+ */
+@Component
+public class JwtAuthenticationFilter extends OncePerRequestFilter {
+
+    @Autowired
+    private JwtTokenUtil jwtTokenUtil;
+
+    @Autowired
+    private TokenRevocations tokenRevocations;
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, 
+                                  FilterChain filterChain) throws ServletException, IOException {
+        
+        final String requestTokenHeader = request.getHeader("Authorization");
+        
+        VerifiedToken token = null;
+        
+        // JWT Token is in the form "Bearer token". Remove Bearer word and get only the Token
+        if (requestTokenHeader != null && requestTokenHeader.startsWith("Bearer ")) {
+            try {
+                // Signature, expiry and claims are all checked in a single parse
+                token = jwtTokenUtil.verify(requestTokenHeader.substring(7));
+            } catch (JwtException | IllegalArgumentException e) {
+                logger.warn("JWT token validation failed: " + e.getMessage());
+            }
+        }
+        
+        // Once we have a verified, unrevoked token set authentication
+        if (token != null && tokenRevocations.isRevoked(token)) {
+            logger.warn("Rejected revoked JWT token for user: " + token.subject());
+            token = null;
+        }
+        if (token != null && SecurityContextHolder.getContext().getAuthentication() == null) {
+            // Principal, roles and user id come from the token's claims
+            UsernamePasswordAuthenticationToken authToken = TokenPrincipal.authenticate(token);
+            if (authToken != null) {
+                logger.debug("JWT token validated successfully for user: " + token.subject());
+                authToken.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
+                
+                // Set authentication in security context
+                SecurityContextHolder.getContext().setAuthentication(authToken);
+            }
+        }
+        
+        filterChain.doFilter(request, response);
+    }
+}
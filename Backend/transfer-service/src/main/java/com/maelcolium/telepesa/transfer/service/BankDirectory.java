@@ -0,0 +1,300 @@
+package com.maelcolium.telepesa.transfer.service;
+
+import com.maelcolium.telepesa.transfer.dto.BankResponse;
+import org.springframework.util.DigestUtils;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Immutable, fully indexed snapshot of the bank/branch routing directory.
+ * A snapshot is compiled once per load and swapped atomically by
+ * {@link BankDirectoryService}; every lookup is a single hash probe.
+ */
+public final class BankDirectory {
+
+    private static final BankDirectory EMPTY = new BankDirectory(List.of(), List.of(), Instant.EPOCH);
+
+    private final Map<String, Bank> banksByCode;
+    private final Map<String, Bank> banksBySwift;
+    private final Map<String, Bank> banksByClearingCode;
+    private final Map<String, Branch> branchesBySortCode;
+    private final Map<String, Branch> branchesBySwift;
+    private final Map<String, CountryListing> listingsByCountry;
+    private final int bankCount;
+    private final int branchCount;
+    private final Instant loadedAt;
+
+    private BankDirectory(List<Bank> banks, List<Branch> branches, Instant loadedAt) {
+        Map<String, Bank> byCode = new HashMap<>(banks.size() * 2);
+        Map<String, Bank> bySwift = new HashMap<>(banks.size() * 2);
+        Map<String, Bank> byClearingCode = new HashMap<>(banks.size() * 2);
+        Map<String, List<Bank>> byCountry = new LinkedHashMap<>();
+
+        for (Bank bank : banks) {
+            if (byCode.putIfAbsent(key(bank.country(), bank.bankCode()), bank) != null) {
+                throw new IllegalArgumentException("Duplicate bank code " + bank.bankCode() + " for " + bank.country());
+            }
+            bySwift.put(bic8(bank.swift()), bank);
+            if (bank.clearingCode() != null) {
+                byClearingCode.put(key(bank.country(), bank.clearingCode()), bank);
+            }
+            byCountry.computeIfAbsent(bank.country(), c -> new ArrayList<>()).add(bank);
+        }
+
+        Map<String, Branch> bySortCode = new HashMap<>(branches.size() * 2);
+        Map<String, Branch> branchBySwift = new HashMap<>(branches.size() * 2);
+        for (Branch branch : branches) {
+            if (!byCode.containsKey(key(branch.country(), branch.bankCode()))) {
+                throw new IllegalArgumentException("Branch " + branch.sortCode() + " references unknown bank " + branch.bankCode());
+            }
+            if (bySortCode.putIfAbsent(branch.sortCode(), branch) != null) {
+                throw new IllegalArgumentException("Duplicate sort code " + branch.sortCode());
+            }
+            if (branch.swift() != null) {
+                branchBySwift.put(branch.swift(), branch);
+            }
+        }
+
+        Map<String, CountryListing> listings = new HashMap<>(byCountry.size() * 2);
+        byCountry.forEach((country, countryBanks) -> listings.put(country, CountryListing.of(countryBanks)));
+
+        this.banksByCode = Map.copyOf(byCode);
+        this.banksBySwift = Map.copyOf(bySwift);
+        this.banksByClearingCode = Map.copyOf(byClearingCode);
+        this.branchesBySortCode = Map.copyOf(bySortCode);
+        this.branchesBySwift = Map.copyOf(branchBySwift);
+        this.listingsByCountry = Map.copyOf(listings);
+        this.bankCount = banks.size();
+        this.branchCount = branches.size();
+        this.loadedAt = loadedAt;
+    }
+
+    public static BankDirectory empty() {
+        return EMPTY;
+    }
+
+    public static BankDirectory of(List<Bank> banks, List<Branch> branches) {
+        return new BankDirectory(banks, branches, Instant.now());
+    }
+
+    /**
+     * Parse the CSV directory format ({@code BANK,...} and {@code BRANCH,...} rows,
+     * {@code #} comments) and compile it into a new snapshot.
+     */
+    public static BankDirectory parse(Reader source) throws IOException {
+        List<Bank> banks = new ArrayList<>();
+        List<Branch> branches = new ArrayList<>();
+
+        BufferedReader reader = source instanceof BufferedReader br ? br : new BufferedReader(source);
+        String line;
+        int lineNumber = 0;
+        while ((line = reader.readLine()) != null) {
+            lineNumber++;
+            line = line.strip();
+            if (line.isEmpty() || line.startsWith("#")) {
+                continue;
+            }
+            String[] cols = line.split(",", -1);
+            try {
+                switch (cols[0].toUpperCase(Locale.ROOT)) {
+                    case "BANK" -> banks.add(parseBank(cols));
+                    case "BRANCH" -> branches.add(parseBranch(cols));
+                    default -> throw new IllegalArgumentException("Unknown record type " + cols[0]);
+                }
+            } catch (RuntimeException e) {
+                throw new IllegalArgumentException("Invalid bank directory entry at line " + lineNumber + ": " + e.getMessage(), e);
+            }
+        }
+        return of(banks, branches);
+    }
+
+    public Optional<Bank> findBank(String country, String bankCode) {
+        return Optional.ofNullable(banksByCode.get(key(country, bankCode)));
+    }
+
+    /**
+     * Resolve a BIC8 or BIC11. Branch BICs are matched exactly before falling back to the
+     * owning institution's BIC8.
+     */
+    public Optional<Bank> findBankBySwift(String swift) {
+        if (swift == null || swift.length() < 8) {
+            return Optional.empty();
+        }
+        String normalized = swift.toUpperCase(Locale.ROOT);
+        Branch branch = branchesBySwift.get(normalized);
+        if (branch != null) {
+            return findBank(branch.country(), branch.bankCode());
+        }
+        return Optional.ofNullable(banksBySwift.get(normalized.substring(0, 8)));
+    }
+
+    public Optional<Bank> findBankByClearingCode(String country, String clearingCode) {
+        return Optional.ofNullable(banksByClearingCode.get(key(country, clearingCode)));
+    }
+
+    public Optional<Branch> findBranchBySortCode(String sortCode) {
+        return sortCode == null ? Optional.empty() : Optional.ofNullable(branchesBySortCode.get(sortCode));
+    }
+
+    public boolean coversCountry(String country) {
+        return country != null && listingsByCountry.containsKey(country.toUpperCase(Locale.ROOT));
+    }
+
+    public CountryListing listing(String country) {
+        if (country == null) {
+            return CountryListing.EMPTY;
+        }
+        return listingsByCountry.getOrDefault(country.toUpperCase(Locale.ROOT), CountryListing.EMPTY);
+    }
+
+    public int bankCount() {
+        return bankCount;
+    }
+
+    public int branchCount() {
+        return branchCount;
+    }
+
+    public Instant loadedAt() {
+        return loadedAt;
+    }
+
+    private static Bank parseBank(String[] cols) {
+        require(cols, 12);
+        return new Bank(
+            upper(cols[1]),
+            upper(cols[2]),
+            blankToNull(cols[3]),
+            upper(cols[4]),
+            cols[5].strip(),
+            List.of(upper(cols[6]).split("\\|")),
+            Boolean.parseBoolean(cols[7].strip()),
+            Boolean.parseBoolean(cols[8].strip()),
+            Boolean.parseBoolean(cols[9].strip()),
+            cols[10].strip(),
+            cols[11].strip()
+        );
+    }
+
+    private static Branch parseBranch(String[] cols) {
+        require(cols, 6);
+        String swift = blankToNull(cols[4]);
+        return new Branch(
+            upper(cols[1]),
+            upper(cols[2]),
+            cols[3].strip(),
+            swift != null ? swift.toUpperCase(Locale.ROOT) : null,
+            cols[5].strip()
+        );
+    }
+
+    private static void require(String[] cols, int expected) {
+        if (cols.length != expected) {
+            throw new IllegalArgumentException("expected " + expected + " columns but found " + cols.length);
+        }
+    }
+
+    private static String upper(String value) {
+        return value.strip().toUpperCase(Locale.ROOT);
+    }
+
+    private static String blankToNull(String value) {
+        String stripped = value.strip();
+        return stripped.isEmpty() ? null : stripped;
+    }
+
+    private static String key(String country, String code) {
+        if (country == null || code == null) {
+            return "";
+        }
+        return country.toUpperCase(Locale.ROOT) + ':' + code.toUpperCase(Locale.ROOT);
+    }
+
+    private static String bic8(String swift) {
+        if (swift == null || swift.length() < 8) {
+            throw new IllegalArgumentException("Invalid SWIFT code: " + swift);
+        }
+        return swift.substring(0, 8);
+    }
+
+    public record Bank(
+        String country,
+        String bankCode,
+        String clearingCode,
+        String swift,
+        String bankName,
+        List<String> supportedCurrencies,
+        boolean instantTransfer,
+        boolean scheduledTransfer,
+        boolean internationalTransfer,
+        String maxTransferAmount,
+        String minTransferAmount
+    ) {
+        public BankResponse toResponse() {
+            return BankResponse.builder()
+                .id(country + "-" + bankCode)
+                .bankCode(bankCode)
+                .bankName(bankName)
+                .country(country)
+                .swift(swift)
+                .active(true)
+                .supportedCurrencies(supportedCurrencies)
+                .features(BankResponse.BankFeatures.builder()
+                    .instantTransfer(instantTransfer)
+                    .scheduledTransfer(scheduledTransfer)
+                    .internationalTransfer(internationalTransfer)
+                    .maxTransferAmount(maxTransferAmount)
+                    .minTransferAmount(minTransferAmount)
+                    .build())
+                .build();
+        }
+    }
+
+    public record Branch(
+        String country,
+        String bankCode,
+        String sortCode,
+        String swift,
+        String branchName
+    ) {}
+
+    /**
+     * Pre-rendered bank list for a country with a strong ETag derived from its content.
+     */
+    public record CountryListing(List<BankResponse> banks, String etag) {
+
+        static final CountryListing EMPTY = new CountryListing(List.of(), etagOf(""));
+
+        static CountryListing of(List<Bank> banks) {
+            StringBuilder canonical = new StringBuilder(banks.size() * 96);
+            List<BankResponse> responses = new ArrayList<>(banks.size());
+            for (Bank bank : banks) {
+                canonical.append(bank).append('\n');
+                responses.add(bank.toResponse());
+            }
+            return new CountryListing(List.copyOf(responses), etagOf(canonical.toString()));
+        }
+
+        private static String etagOf(String canonical) {
+            return "\"" + DigestUtils.md5DigestAsHex(canonical.getBytes(StandardCharsets.UTF_8)) + "\"";
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "BankDirectory[banks=" + bankCount + ", branches=" + branchCount
+            + ", countries=" + Arrays.toString(listingsByCountry.keySet().toArray()) + "]";
+    }
+}
@@ -0,0 +1,37 @@
+package com.maelcolium.telepesa.transfer.service;
+
+import com.maelcolium.telepesa.transfer.dto.BankResponse;
+import com.maelcolium.telepesa.transfer.dto.CreateTransferRequest;
+
+import java.util.Optional;
+
+public interface BankDirectoryService {
+
+    /**
+     * Get the current directory snapshot
+     */
+    BankDirectory current();
+
+    /**
+     * Get the pre-rendered bank listing (with ETag) for a country
+     */
+    BankDirectory.CountryListing getBanks(String country);
+
+    /**
+     * Resolve a bank by its SWIFT/BIC code
+     */
+    Optional<BankResponse> findBySwift(String swiftCode);
+
+    /**
+     * Validate the routing fields (SWIFT, sort code, PesaLink code) of a transfer request
+     */
+    void validateRouting(CreateTransferRequest request);
+
+    /**
+     * Reload the directory from its source and swap it in atomically
+     *
+     * @throws IllegalStateException if the source cannot be read or parsed; the current
+     *                               directory is kept
+     */
+    BankDirectory reload();
+}
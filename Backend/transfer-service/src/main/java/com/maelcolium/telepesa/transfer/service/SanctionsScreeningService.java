@@ -0,0 +1,25 @@
+package com.maelcolium.telepesa.transfer.service;
+
+import com.maelcolium.telepesa.transfer.dto.CreateTransferRequest;
+import com.maelcolium.telepesa.transfer.dto.ScreeningResult;
+
+public interface SanctionsScreeningService {
+
+    /**
+     * Screen a cross-border transfer's recipient, recipient bank and BICs against the watch list;
+     * REVIEW while no list has loaded
+     */
+    ScreeningResult screenTransfer(CreateTransferRequest request);
+
+    /**
+     * Screen a single name against the watch list
+     */
+    ScreeningResult screenName(String name);
+
+    /**
+     * Rebuild the watch list index off the request path and swap it in once compiled
+     *
+     * @throws IllegalStateException if the source cannot be read or parsed; the current list stays
+     */
+    int reload();
+}
@@ -0,0 +1,190 @@
+package com.maelcolium.telepesa.transfer.service;
+
+import com.maelcolium.telepesa.transfer.dto.SettlementRecord;
+import com.maelcolium.telepesa.transfer.entity.Transfer;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.Arrays;
+import java.util.HexFormat;
+
+/**
+ * Writes a fixed-width outbound settlement file through a single direct buffer.
+ *
+ * <p>Every record is {@value #RECORD_LENGTH} ASCII bytes including the trailing newline:
+ * one header ({@code H}), one detail ({@code D}) per transfer and a trailer ({@code T})
+ * carrying the record count and control total in minor units. The SHA-256 of the file
+ * is computed over the exact bytes written. Output goes to a {@code .part} file that is
+ * only moved into place once complete, so the clearing side never sees a partial file.</p>
+ */
+public final class SettlementFileWriter implements AutoCloseable {
+
+    public static final int RECORD_LENGTH = 256;
+    private static final int BUFFER_RECORDS = 256;
+    private static final DateTimeFormatter TIMESTAMP = DateTimeFormatter.ofPattern("yyyyMMddHHmmss");
+    private static final DateTimeFormatter DATE = DateTimeFormatter.BASIC_ISO_DATE;
+
+    private final Path target;
+    private final Path partFile;
+    private final FileChannel channel;
+    private final ByteBuffer buffer = ByteBuffer.allocateDirect(RECORD_LENGTH * BUFFER_RECORDS);
+    private final byte[] line = new byte[RECORD_LENGTH];
+    private final MessageDigest digest;
+    private long recordCount;
+    private long totalMinorUnits;
+    private boolean finished;
+
+    private SettlementFileWriter(Path target) throws IOException {
+        this.target = target;
+        this.partFile = target.resolveSibling(target.getFileName() + ".part");
+        try {
+            this.digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+        Files.createDirectories(target.getParent());
+        this.channel = FileChannel.open(partFile, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING);
+    }
+
+    public static SettlementFileWriter open(Path target, String batchReference, Transfer.TransferType rail,
+                                            LocalDateTime cutoff) throws IOException {
+        SettlementFileWriter writer = new SettlementFileWriter(target);
+        try {
+            writer.beginLine('H');
+            writer.field(1, 20, batchReference);
+            writer.field(21, 8, rail.name());
+            writer.field(29, 14, TIMESTAMP.format(cutoff));
+            writer.field(43, 14, TIMESTAMP.format(LocalDateTime.now()));
+            writer.endLine();
+        } catch (IOException | RuntimeException e) {
+            writer.close();
+            throw e;
+        }
+        return writer;
+    }
+
+    public void write(SettlementRecord record) throws IOException {
+        long minorUnits = toMinorUnits(record.amount());
+        recordCount++;
+        totalMinorUnits = Math.addExact(totalMinorUnits, minorUnits);
+
+        beginLine('D');
+        numeric(1, 8, recordCount);
+        field(9, 20, record.transferReference());
+        field(29, 20, record.senderAccountId());
+        field(49, 34, record.recipientAccountId());
+        field(83, 35, record.recipientName());
+        field(118, 11, routingCode(record));
+        field(129, 3, record.currency());
+        numeric(132, 15, minorUnits);
+        field(147, 8, record.createdAt() != null ? DATE.format(record.createdAt()) : null);
+        endLine();
+    }
+
+    /**
+     * Write the trailer, flush, fsync and atomically publish the file.
+     *
+     * @return hex SHA-256 checksum of the published file
+     */
+    public String finish() throws IOException {
+        beginLine('T');
+        numeric(1, 10, recordCount);
+        numeric(11, 18, totalMinorUnits);
+        endLine();
+        drain();
+        channel.force(true);
+        channel.close();
+        Files.move(partFile, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        finished = true;
+
+        String checksum = HexFormat.of().formatHex(digest.digest());
+        Files.writeString(target.resolveSibling(target.getFileName() + ".sha256"),
+                checksum + "  " + target.getFileName() + "\n", StandardCharsets.US_ASCII);
+        return checksum;
+    }
+
+    public long getRecordCount() {
+        return recordCount;
+    }
+
+    public BigDecimal getTotalAmount() {
+        return BigDecimal.valueOf(totalMinorUnits, 2);
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (channel.isOpen()) {
+            channel.close();
+        }
+        if (!finished) {
+            Files.deleteIfExists(partFile);
+        }
+    }
+
+    private static String routingCode(SettlementRecord record) {
+        if (record.swiftCode() != null) {
+            return record.swiftCode();
+        }
+        return record.sortCode() != null ? record.sortCode() : record.pesalinkBankCode();
+    }
+
+    private static long toMinorUnits(BigDecimal amount) {
+        return amount.setScale(2, RoundingMode.HALF_UP).unscaledValue().longValueExact();
+    }
+
+    private void beginLine(char type) {
+        Arrays.fill(line, (byte) ' ');
+        line[0] = (byte) type;
+        line[RECORD_LENGTH - 1] = '\n';
+    }
+
+    private void field(int offset, int width, String value) {
+        if (value == null) {
+            return;
+        }
+        int length = Math.min(width, value.length());
+        for (int i = 0; i < length; i++) {
+            char c = value.charAt(i);
+            line[offset + i] = (byte) (c >= 0x20 && c < 0x7f ? c : '?');
+        }
+    }
+
+    private void numeric(int offset, int width, long value) {
+        for (int i = offset + width - 1; i >= offset; i--) {
+            line[i] = (byte) ('0' + (value % 10));
+            value /= 10;
+        }
+        if (value != 0) {
+            throw new IllegalArgumentException("Value does not fit in " + width + " digits");
+        }
+    }
+
+    private void endLine() throws IOException {
+        if (buffer.remaining() < RECORD_LENGTH) {
+            drain();
+        }
+        buffer.put(line);
+    }
+
+    private void drain() throws IOException {
+        buffer.flip();
+        digest.update(buffer.duplicate());
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        buffer.clear();
+    }
+}
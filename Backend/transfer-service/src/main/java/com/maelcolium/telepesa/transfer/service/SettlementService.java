@@ -0,0 +1,32 @@
+package com.maelcolium.telepesa.transfer.service;
+
+import com.maelcolium.telepesa.transfer.dto.SettlementBatchResponse;
+import com.maelcolium.telepesa.transfer.entity.Transfer;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+public interface SettlementService {
+
+    /**
+     * Close the current cut-off window for every outbound rail and write its settlement files
+     */
+    List<SettlementBatchResponse> runCutoff(LocalDateTime cutoff);
+
+    /**
+     * Claim and write the settlement batch for a single rail
+     */
+    SettlementBatchResponse settle(Transfer.TransferType rail, LocalDateTime cutoff);
+
+    /**
+     * Regenerate the file for a batch that was claimed but not written
+     */
+    SettlementBatchResponse regenerate(String batchId);
+
+    /**
+     * Get settlement batches, newest first
+     */
+    Page<SettlementBatchResponse> getBatches(Pageable pageable);
+}
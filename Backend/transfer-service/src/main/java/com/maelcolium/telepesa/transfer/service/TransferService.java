@@ -62,6 +62,11 @@ public interface TransferService {
      */
     TransferResponse retryTransfer(String transferId);
     
+    /**
+     * Release a transfer held for compliance review and process it
+     */
+    TransferResponse releaseScreenedTransfer(String transferId);
+    
     /**
      * Get transfers by status
      */
@@ -0,0 +1,346 @@
+package com.maelcolium.telepesa.transfer.service;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+/**
+ * Immutable fuzzy-matching index over a sanctions / watch list.
+ *
+ * <p>Every listed name and alias is normalised and broken into character trigrams over a
+ * 37-symbol alphabet, so a trigram packs into an int below {@value #GRAM_SPACE} and the
+ * inverted index is a flat {@code int[][]} of ascending entry positions. A query keeps
+ * only the candidates that share enough trigrams (prefix filtering over the rarest
+ * trigrams, then a galloping merge over the rest) and re-ranks the survivors with
+ * Jaro-Winkler on both the raw and token-sorted forms.</p>
+ */
+public final class WatchListIndex {
+
+    static final int ALPHABET = 37;
+    static final int GRAM_SPACE = ALPHABET * ALPHABET * ALPHABET;
+    private static final Pattern MARKS = Pattern.compile("\\p{M}+");
+    private static final Set<String> NOISE_TOKENS = Set.of(
+        "the", "ltd", "limited", "inc", "plc", "llc", "co", "corp", "company", "sa", "ag", "gmbh", "mr", "mrs", "dr"
+    );
+    private static final WatchListIndex EMPTY = build(List.of());
+
+    private final Entry[] entries;
+    private final int[] nameOwner;
+    private final String[] names;
+    private final String[] sortedNames;
+    private final int[][] postings;
+    private final Map<String, Entry> entriesByBic;
+
+    private WatchListIndex(Entry[] entries, int[] nameOwner, String[] names, String[] sortedNames,
+                           int[][] postings, Map<String, Entry> entriesByBic) {
+        this.entries = entries;
+        this.nameOwner = nameOwner;
+        this.names = names;
+        this.sortedNames = sortedNames;
+        this.postings = postings;
+        this.entriesByBic = entriesByBic;
+    }
+
+    public static WatchListIndex empty() {
+        return EMPTY;
+    }
+
+    /**
+     * Parse {@code id,list,type,name,aliases(|-separated),bic} rows ({@code #} comments allowed).
+     */
+    public static WatchListIndex parse(Reader source) throws IOException {
+        List<Entry> parsed = new ArrayList<>();
+        BufferedReader reader = source instanceof BufferedReader br ? br : new BufferedReader(source);
+        String line;
+        int lineNumber = 0;
+        while ((line = reader.readLine()) != null) {
+            lineNumber++;
+            line = line.strip();
+            if (line.isEmpty() || line.startsWith("#")) {
+                continue;
+            }
+            String[] cols = line.split(",", -1);
+            if (cols.length != 6) {
+                throw new IllegalArgumentException("Invalid watch list entry at line " + lineNumber
+                        + ": expected 6 columns but found " + cols.length);
+            }
+            List<String> aliases = cols[4].isBlank() ? List.of() : List.of(cols[4].strip().split("\\|"));
+            String bic = cols[5].strip();
+            parsed.add(new Entry(cols[0].strip(), cols[1].strip(), cols[2].strip(), cols[3].strip(), aliases,
+                    bic.isEmpty() ? null : bic.toUpperCase(Locale.ROOT)));
+        }
+        return build(parsed);
+    }
+
+    public static WatchListIndex build(List<Entry> source) {
+        Entry[] entries = source.toArray(new Entry[0]);
+
+        List<String> nameList = new ArrayList<>();
+        List<Integer> ownerList = new ArrayList<>();
+        Map<String, Entry> byBic = new HashMap<>();
+        for (int e = 0; e < entries.length; e++) {
+            Entry entry = entries[e];
+            addName(nameList, ownerList, e, entry.name());
+            for (String alias : entry.aliases()) {
+                addName(nameList, ownerList, e, alias);
+            }
+            if (entry.bic() != null) {
+                byBic.put(entry.bic().length() > 8 ? entry.bic().substring(0, 8) : entry.bic(), entry);
+            }
+        }
+
+        String[] names = nameList.toArray(new String[0]);
+        int[] owner = ownerList.stream().mapToInt(Integer::intValue).toArray();
+        String[] sortedNames = new String[names.length];
+
+        // Two passes: size every posting list exactly, then fill in ascending name order
+        int[][] grams = new int[names.length][];
+        int[] sizes = new int[GRAM_SPACE];
+        for (int n = 0; n < names.length; n++) {
+            sortedNames[n] = sortTokens(names[n]);
+            grams[n] = trigrams(names[n]);
+            for (int g : grams[n]) {
+                sizes[g]++;
+            }
+        }
+        int[][] postings = new int[GRAM_SPACE][];
+        for (int g = 0; g < GRAM_SPACE; g++) {
+            postings[g] = sizes[g] == 0 ? null : new int[sizes[g]];
+            sizes[g] = 0;
+        }
+        for (int n = 0; n < names.length; n++) {
+            for (int g : grams[n]) {
+                postings[g][sizes[g]++] = n;
+            }
+            grams[n] = null;
+        }
+        return new WatchListIndex(entries, owner, names, sortedNames, postings, Map.copyOf(byBic));
+    }
+
+    /**
+     * Find listed names similar to {@code query}, best first, one match per listed entry.
+     *
+     * @param minScore     minimum Jaro-Winkler score to report
+     * @param minGramRatio fraction of the query's trigrams a candidate must share
+     */
+    public List<Match> search(String query, double minScore, double minGramRatio, int limit) {
+        String normalized = normalize(query);
+        if (normalized.isEmpty()) {
+            return List.of();
+        }
+        int[] queryGrams = trigrams(normalized);
+        int[][] lists = new int[queryGrams.length][];
+        int present = 0;
+        for (int g : queryGrams) {
+            if (postings[g] != null) {
+                lists[present++] = postings[g];
+            }
+        }
+        int minOverlap = Math.max(1, (int) Math.ceil(queryGrams.length * minGramRatio));
+        if (present < minOverlap) {
+            return List.of();
+        }
+        lists = Arrays.copyOf(lists, present);
+        Arrays.sort(lists, Comparator.comparingInt(l -> l.length));
+
+        // Any candidate reaching minOverlap must appear in one of the (present - minOverlap + 1) rarest
+        // lists. Walk the union of those in ascending order and gallop through the longer lists, whose
+        // cursors only ever move forward.
+        int prefix = present - minOverlap + 1;
+        int[] cursor = new int[present];
+        String sortedQuery = sortTokens(normalized);
+        Map<Integer, Match> best = new HashMap<>();
+        while (true) {
+            int candidate = Integer.MAX_VALUE;
+            for (int p = 0; p < prefix; p++) {
+                if (cursor[p] < lists[p].length && lists[p][cursor[p]] < candidate) {
+                    candidate = lists[p][cursor[p]];
+                }
+            }
+            if (candidate == Integer.MAX_VALUE) {
+                break;
+            }
+            int overlap = 0;
+            for (int p = 0; p < prefix; p++) {
+                if (cursor[p] < lists[p].length && lists[p][cursor[p]] == candidate) {
+                    overlap++;
+                    cursor[p]++;
+                }
+            }
+            for (int s = prefix; s < present && overlap + (present - s) >= minOverlap; s++) {
+                cursor[s] = gallop(lists[s], cursor[s], candidate);
+                if (cursor[s] < lists[s].length && lists[s][cursor[s]] == candidate) {
+                    overlap++;
+                }
+            }
+            if (overlap < minOverlap) {
+                continue;
+            }
+            double score = Math.max(jaroWinkler(normalized, names[candidate]),
+                    jaroWinkler(sortedQuery, sortedNames[candidate]));
+            if (score >= minScore) {
+                Match current = best.get(nameOwner[candidate]);
+                if (current == null || current.score() < score) {
+                    best.put(nameOwner[candidate], new Match(entries[nameOwner[candidate]], names[candidate], score));
+                }
+            }
+        }
+        return best.values().stream()
+                .sorted(Comparator.comparingDouble(Match::score).reversed())
+                .limit(limit)
+                .toList();
+    }
+
+    public Entry findByBic(String bic) {
+        if (bic == null || bic.length() < 8) {
+            return null;
+        }
+        return entriesByBic.get(bic.strip().substring(0, 8).toUpperCase(Locale.ROOT));
+    }
+
+    public int size() {
+        return entries.length;
+    }
+
+    public int nameCount() {
+        return names.length;
+    }
+
+    static String normalize(String value) {
+        if (value == null) {
+            return "";
+        }
+        String stripped = MARKS.matcher(Normalizer.normalize(value, Normalizer.Form.NFD)).replaceAll("");
+        StringBuilder out = new StringBuilder(stripped.length());
+        for (String token : stripped.toLowerCase(Locale.ROOT).split("[^a-z0-9]+")) {
+            if (!token.isEmpty() && !NOISE_TOKENS.contains(token)) {
+                if (!out.isEmpty()) {
+                    out.append(' ');
+                }
+                out.append(token);
+            }
+        }
+        return out.toString();
+    }
+
+    /**
+     * Distinct packed trigrams of a normalised name, padded with a leading and trailing space, ascending.
+     */
+    static int[] trigrams(String normalized) {
+        String padded = " " + normalized + " ";
+        int count = Math.max(0, padded.length() - 2);
+        int[] grams = new int[count];
+        for (int i = 0; i < count; i++) {
+            grams[i] = (symbol(padded.charAt(i)) * ALPHABET + symbol(padded.charAt(i + 1))) * ALPHABET
+                    + symbol(padded.charAt(i + 2));
+        }
+        return Arrays.stream(grams).sorted().distinct().toArray();
+    }
+
+    static double jaroWinkler(String a, String b) {
+        if (a.equals(b)) {
+            return 1.0;
+        }
+        int lenA = a.length();
+        int lenB = b.length();
+        if (lenA == 0 || lenB == 0) {
+            return 0.0;
+        }
+        int window = Math.max(0, Math.max(lenA, lenB) / 2 - 1);
+        boolean[] matchedA = new boolean[lenA];
+        boolean[] matchedB = new boolean[lenB];
+        int matches = 0;
+        for (int i = 0; i < lenA; i++) {
+            int from = Math.max(0, i - window);
+            int to = Math.min(lenB - 1, i + window);
+            for (int j = from; j <= to; j++) {
+                if (!matchedB[j] && a.charAt(i) == b.charAt(j)) {
+                    matchedA[i] = true;
+                    matchedB[j] = true;
+                    matches++;
+                    break;
+                }
+            }
+        }
+        if (matches == 0) {
+            return 0.0;
+        }
+        int transpositions = 0;
+        for (int i = 0, j = 0; i < lenA; i++) {
+            if (matchedA[i]) {
+                while (!matchedB[j]) {
+                    j++;
+                }
+                if (a.charAt(i) != b.charAt(j)) {
+                    transpositions++;
+                }
+                j++;
+            }
+        }
+        double m = matches;
+        double jaro = (m / lenA + m / lenB + (m - transpositions / 2.0) / m) / 3.0;
+        int prefix = 0;
+        while (prefix < Math.min(4, Math.min(lenA, lenB)) && a.charAt(prefix) == b.charAt(prefix)) {
+            prefix++;
+        }
+        return jaro + prefix * 0.1 * (1.0 - jaro);
+    }
+
+    private static void addName(List<String> names, List<Integer> owners, int owner, String raw) {
+        String normalized = normalize(raw);
+        if (!normalized.isEmpty()) {
+            names.add(normalized);
+            owners.add(owner);
+        }
+    }
+
+    private static String sortTokens(String normalized) {
+        String[] tokens = normalized.split(" ");
+        Arrays.sort(tokens);
+        return String.join(" ", tokens);
+    }
+
+    private static int symbol(char c) {
+        if (c >= 'a' && c <= 'z') {
+            return c - 'a' + 1;
+        }
+        if (c >= '0' && c <= '9') {
+            return c - '0' + 27;
+        }
+        return 0;
+    }
+
+    /**
+     * First index at or after {@code from} whose value is {@code >= target}.
+     */
+    private static int gallop(int[] list, int from, int target) {
+        if (from >= list.length || list[from] >= target) {
+            return from;
+        }
+        int step = 1;
+        int low = from;
+        int high = from + 1;
+        while (high < list.length && list[high] < target) {
+            low = high;
+            step <<= 1;
+            high = from + step;
+        }
+        high = Math.min(high, list.length);
+        int found = Arrays.binarySearch(list, low + 1, high, target);
+        return found >= 0 ? found : -found - 1;
+    }
+
+    public record Entry(String id, String list, String type, String name, List<String> aliases, String bic) {}
+
+    public record Match(Entry entry, String matchedName, double score) {}
+}
@@ -0,0 +1,181 @@
+package com.maelcolium.telepesa.transfer.service.impl;
+
+import com.maelcolium.telepesa.transfer.dto.BankResponse;
+import com.maelcolium.telepesa.transfer.dto.CreateTransferRequest;
+import com.maelcolium.telepesa.transfer.service.BankDirectory;
+import com.maelcolium.telepesa.transfer.service.BankDirectoryService;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.ResourceLoader;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.util.Locale;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.regex.Pattern;
+
+@Service
+@Slf4j
+public class BankDirectoryServiceImpl implements BankDirectoryService {
+
+    private static final Pattern BIC_PATTERN = Pattern.compile("^[A-Z]{6}[A-Z0-9]{2}([A-Z0-9]{3})?$");
+    private static final String HOME_COUNTRY = "KE";
+    // The gateway caches the bank listings under this route and purges it on messages on this channel
+    static final String GATEWAY_CACHE_PURGE_CHANNEL = "gateway:response-cache-purges";
+    static final String GATEWAY_CACHE_ROUTE = "banks";
+
+    private final ResourceLoader resourceLoader;
+    private final String location;
+    private final ObjectProvider<StringRedisTemplate> redisTemplate;
+    private final AtomicReference<BankDirectory> directory = new AtomicReference<>(BankDirectory.empty());
+    private volatile long lastModified = -1L;
+
+    public BankDirectoryServiceImpl(ResourceLoader resourceLoader,
+                                    @Value("${app.bank-directory.location:classpath:banks/bank-directory.csv}") String location,
+                                    ObjectProvider<StringRedisTemplate> redisTemplate) {
+        this.resourceLoader = resourceLoader;
+        this.location = location;
+        this.redisTemplate = redisTemplate;
+    }
+
+    @PostConstruct
+    void init() {
+        try {
+            reload();
+        } catch (IllegalStateException e) {
+            // Start with an empty directory rather than not at all; fixing the file reloads it
+            log.error(e.getMessage());
+        }
+    }
+
+    @Override
+    public BankDirectory current() {
+        return directory.get();
+    }
+
+    @Override
+    public BankDirectory.CountryListing getBanks(String country) {
+        return directory.get().listing(country);
+    }
+
+    @Override
+    public Optional<BankResponse> findBySwift(String swiftCode) {
+        return directory.get().findBankBySwift(swiftCode).map(BankDirectory.Bank::toResponse);
+    }
+
+    @Override
+    public void validateRouting(CreateTransferRequest request) {
+        BankDirectory snapshot = directory.get();
+        switch (request.getTransferType()) {
+            case SWIFT -> {
+                validateSwift(snapshot, request.getSwiftCode(), "SWIFT code");
+                if (request.getIntermediaryBankSwift() != null && !request.getIntermediaryBankSwift().isBlank()) {
+                    validateSwift(snapshot, request.getIntermediaryBankSwift(), "Intermediary bank SWIFT code");
+                }
+            }
+            case RTGS -> {
+                if (isBlank(request.getSortCode())) {
+                    throw new IllegalArgumentException("Sort code is required for RTGS transfers");
+                }
+                if (snapshot.findBranchBySortCode(request.getSortCode().strip()).isEmpty()) {
+                    throw new IllegalArgumentException("Unknown sort code: " + request.getSortCode());
+                }
+            }
+            case PESALINK -> {
+                if (isBlank(request.getPesalinkBankCode())) {
+                    throw new IllegalArgumentException("Bank code is required for PesaLink transfers");
+                }
+                BankDirectory.Bank bank = snapshot.findBankByClearingCode(HOME_COUNTRY, request.getPesalinkBankCode().strip())
+                        .orElseThrow(() -> new IllegalArgumentException("Unknown PesaLink bank code: " + request.getPesalinkBankCode()));
+                if (!bank.instantTransfer()) {
+                    throw new IllegalArgumentException(bank.bankName() + " does not support instant PesaLink transfers");
+                }
+            }
+            default -> {
+                // Other transfer types carry no bank routing fields
+            }
+        }
+    }
+
+    @Override
+    public synchronized BankDirectory reload() {
+        Resource resource = resourceLoader.getResource(location);
+        // Remembered for failures too, so a broken file is not parsed again until it changes
+        lastModified = lastModifiedOf(resource);
+        try (Reader reader = new InputStreamReader(resource.getInputStream(), StandardCharsets.UTF_8)) {
+            BankDirectory loaded = BankDirectory.parse(reader);
+            BankDirectory previous = directory.getAndSet(loaded);
+            log.info("Loaded bank directory from {}: {} (previous: {})", location, loaded, previous);
+            purgeGatewayCache();
+            return loaded;
+        } catch (IOException | IllegalArgumentException e) {
+            // Keep serving the last good snapshot; a bad file must never empty the directory
+            throw new IllegalStateException("Failed to load bank directory from " + location + ": " + e.getMessage(), e);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${app.bank-directory.refresh-interval-ms:60000}",
+               initialDelayString = "${app.bank-directory.refresh-interval-ms:60000}")
+    public void reloadIfModified() {
+        long modified = lastModifiedOf(resourceLoader.getResource(location));
+        if (modified > 0 && modified != lastModified) {
+            log.info("Bank directory source {} changed, reloading", location);
+            try {
+                reload();
+            } catch (IllegalStateException e) {
+                log.error("{}; keeping the current directory until the file changes again", e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Drop the gateway's cached bank listings, so clients see the reloaded directory at once
+     */
+    private void purgeGatewayCache() {
+        StringRedisTemplate redis = redisTemplate.getIfAvailable();
+        if (redis == null) {
+            return;
+        }
+        try {
+            redis.convertAndSend(GATEWAY_CACHE_PURGE_CHANNEL, GATEWAY_CACHE_ROUTE);
+        } catch (RuntimeException e) {
+            log.warn("Could not purge the gateway's cached bank listings: {}", e.getMessage());
+        }
+    }
+
+    private void validateSwift(BankDirectory snapshot, String swift, String field) {
+        if (isBlank(swift)) {
+            throw new IllegalArgumentException(field + " is required for SWIFT transfers");
+        }
+        String normalized = swift.strip().toUpperCase(Locale.ROOT);
+        if (!BIC_PATTERN.matcher(normalized).matches()) {
+            throw new IllegalArgumentException("Invalid " + field + " format: " + swift);
+        }
+        // Only countries the directory covers can be checked for membership
+        String country = normalized.substring(4, 6);
+        if (snapshot.coversCountry(country) && snapshot.findBankBySwift(normalized).isEmpty()) {
+            throw new IllegalArgumentException("Unknown " + field + ": " + swift);
+        }
+    }
+
+    private static long lastModifiedOf(Resource resource) {
+        try {
+            return resource.isFile() ? resource.lastModified() : 0L;
+        } catch (IOException e) {
+            return 0L;
+        }
+    }
+
+    private static boolean isBlank(String value) {
+        return value == null || value.isBlank();
+    }
+}
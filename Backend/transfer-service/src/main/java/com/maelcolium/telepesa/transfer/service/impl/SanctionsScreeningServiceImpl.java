@@ -0,0 +1,157 @@
+package com.maelcolium.telepesa.transfer.service.impl;
+
+import com.maelcolium.telepesa.transfer.dto.CreateTransferRequest;
+import com.maelcolium.telepesa.transfer.dto.ScreeningResult;
+import com.maelcolium.telepesa.transfer.service.SanctionsScreeningService;
+import com.maelcolium.telepesa.transfer.service.WatchListIndex;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.ResourceLoader;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+
+@Service
+@Slf4j
+public class SanctionsScreeningServiceImpl implements SanctionsScreeningService {
+
+    private static final int MAX_MATCHES_PER_FIELD = 5;
+
+    private final ResourceLoader resourceLoader;
+    private final String location;
+    private final double reviewThreshold;
+    private final double blockThreshold;
+    private final double minGramRatio;
+    // Null until a list has loaded; screening against nothing would clear every transfer
+    private final AtomicReference<WatchListIndex> index = new AtomicReference<>();
+    private volatile long lastModified = -1L;
+
+    public SanctionsScreeningServiceImpl(ResourceLoader resourceLoader,
+                                         @Value("${app.screening.watch-list-location:classpath:screening/watch-list.csv}") String location,
+                                         @Value("${app.screening.review-threshold:0.88}") double reviewThreshold,
+                                         @Value("${app.screening.block-threshold:0.97}") double blockThreshold,
+                                         @Value("${app.screening.min-gram-ratio:0.5}") double minGramRatio) {
+        this.resourceLoader = resourceLoader;
+        this.location = location;
+        this.reviewThreshold = reviewThreshold;
+        this.blockThreshold = blockThreshold;
+        this.minGramRatio = minGramRatio;
+    }
+
+    @PostConstruct
+    void init() {
+        try {
+            reload();
+        } catch (IllegalStateException e) {
+            // Start anyway; every transfer is held for review until fixing the file reloads it
+            log.error(e.getMessage());
+        }
+    }
+
+    @Override
+    public ScreeningResult screenTransfer(CreateTransferRequest request) {
+        WatchListIndex snapshot = index.get();
+        if (snapshot == null) {
+            return ScreeningResult.UNSCREENED;
+        }
+        List<ScreeningResult.ScreeningMatch> matches = new ArrayList<>();
+        screenName(snapshot, "recipientName", request.getRecipientName(), matches);
+        screenName(snapshot, "recipientBankName", request.getRecipientBankName(), matches);
+        screenBic(snapshot, "swiftCode", request.getSwiftCode(), matches);
+        screenBic(snapshot, "intermediaryBankSwift", request.getIntermediaryBankSwift(), matches);
+        return decide(matches);
+    }
+
+    @Override
+    public ScreeningResult screenName(String name) {
+        WatchListIndex snapshot = index.get();
+        if (snapshot == null) {
+            return ScreeningResult.UNSCREENED;
+        }
+        List<ScreeningResult.ScreeningMatch> matches = new ArrayList<>();
+        screenName(snapshot, "name", name, matches);
+        return decide(matches);
+    }
+
+    @Override
+    public synchronized int reload() {
+        Resource resource = resourceLoader.getResource(location);
+        long started = System.nanoTime();
+        // Remembered for failures too, so a broken file is not parsed again until it changes
+        lastModified = lastModifiedOf(resource);
+        try (BufferedReader reader = new BufferedReader(
+                new InputStreamReader(resource.getInputStream(), StandardCharsets.UTF_8), 1 << 16)) {
+            // Built entirely off the request path; screening keeps using the old index until the swap
+            WatchListIndex loaded = WatchListIndex.parse(reader);
+            index.set(loaded);
+            log.info("Loaded watch list from {}: {} entries, {} names in {} ms", location, loaded.size(),
+                    loaded.nameCount(), (System.nanoTime() - started) / 1_000_000);
+            return loaded.size();
+        } catch (IOException | IllegalArgumentException e) {
+            // Keep screening against the last good list; a bad file must never empty it
+            throw new IllegalStateException("Failed to load watch list from " + location + ": " + e.getMessage(), e);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${app.screening.refresh-interval-ms:300000}",
+               initialDelayString = "${app.screening.refresh-interval-ms:300000}")
+    public void reloadIfModified() {
+        long modified = lastModifiedOf(resourceLoader.getResource(location));
+        if (modified > 0 && modified != lastModified) {
+            log.info("Watch list source {} changed, reloading", location);
+            try {
+                reload();
+            } catch (IllegalStateException e) {
+                log.error("{}; keeping the current list until the file changes again", e.getMessage());
+            }
+        }
+    }
+
+    private void screenName(WatchListIndex snapshot, String field, String value,
+                            List<ScreeningResult.ScreeningMatch> matches) {
+        if (value == null || value.isBlank()) {
+            return;
+        }
+        for (WatchListIndex.Match match : snapshot.search(value, reviewThreshold, minGramRatio, MAX_MATCHES_PER_FIELD)) {
+            matches.add(new ScreeningResult.ScreeningMatch(field, match.entry().id(), match.entry().list(),
+                    match.entry().name(), match.matchedName(), match.score()));
+        }
+    }
+
+    private void screenBic(WatchListIndex snapshot, String field, String bic,
+                           List<ScreeningResult.ScreeningMatch> matches) {
+        WatchListIndex.Entry entry = snapshot.findByBic(bic);
+        if (entry != null) {
+            matches.add(new ScreeningResult.ScreeningMatch(field, entry.id(), entry.list(), entry.name(), bic, 1.0));
+        }
+    }
+
+    private ScreeningResult decide(List<ScreeningResult.ScreeningMatch> matches) {
+        if (matches.isEmpty()) {
+            return ScreeningResult.CLEAR;
+        }
+        matches.sort(Comparator.comparingDouble(ScreeningResult.ScreeningMatch::score).reversed());
+        ScreeningResult.Decision decision = matches.get(0).score() >= blockThreshold
+                ? ScreeningResult.Decision.BLOCK
+                : ScreeningResult.Decision.REVIEW;
+        return new ScreeningResult(decision, List.copyOf(matches));
+    }
+
+    private static long lastModifiedOf(Resource resource) {
+        try {
+            return resource.isFile() ? resource.lastModified() : 0L;
+        } catch (IOException e) {
+            return 0L;
+        }
+    }
+}
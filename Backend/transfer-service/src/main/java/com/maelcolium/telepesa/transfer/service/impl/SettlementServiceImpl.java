@@ -0,0 +1,193 @@
+package com.maelcolium.telepesa.transfer.service.impl;
+
+import com.maelcolium.telepesa.transfer.dto.SettlementBatchResponse;
+import com.maelcolium.telepesa.transfer.dto.SettlementRecord;
+import com.maelcolium.telepesa.transfer.entity.SettlementBatch;
+import com.maelcolium.telepesa.transfer.entity.Transfer;
+import com.maelcolium.telepesa.transfer.repository.SettlementBatchRepository;
+import com.maelcolium.telepesa.transfer.repository.TransferRepository;
+import com.maelcolium.telepesa.transfer.service.SettlementFileWriter;
+import com.maelcolium.telepesa.transfer.service.SettlementService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Batches outbound RTGS, SWIFT and PesaLink transfers per cut-off window into settlement files.
+ *
+ * <p>Transfers are claimed into a batch with a single bulk UPDATE, then streamed back in
+ * keyset-ordered pages of projections and written straight to the file, so memory use is
+ * bounded by the page size rather than the batch size. The local outbound directory stands
+ * in for the clearing house drop box.</p>
+ */
+@Service
+@Slf4j
+public class SettlementServiceImpl implements SettlementService {
+
+    static final List<Transfer.TransferType> OUTBOUND_RAILS = List.of(
+        Transfer.TransferType.RTGS,
+        Transfer.TransferType.SWIFT,
+        Transfer.TransferType.PESALINK
+    );
+    private static final List<Transfer.TransferStatus> SETTLEABLE_STATUSES = List.of(
+        Transfer.TransferStatus.PROCESSING,
+        Transfer.TransferStatus.COMPLETED
+    );
+    private static final DateTimeFormatter FILE_TIMESTAMP = DateTimeFormatter.ofPattern("yyyyMMdd_HHmmss");
+
+    private final TransferRepository transferRepository;
+    private final SettlementBatchRepository settlementBatchRepository;
+    private final Path outboundDirectory;
+    private final int pageSize;
+
+    public SettlementServiceImpl(TransferRepository transferRepository,
+                                 SettlementBatchRepository settlementBatchRepository,
+                                 @Value("${app.settlement.outbound-dir:${java.io.tmpdir}/telepesa/settlement/outbound}") String outboundDirectory,
+                                 @Value("${app.settlement.page-size:1000}") int pageSize) {
+        this.transferRepository = transferRepository;
+        this.settlementBatchRepository = settlementBatchRepository;
+        this.outboundDirectory = Paths.get(outboundDirectory);
+        this.pageSize = pageSize;
+    }
+
+    @Scheduled(cron = "${app.settlement.cutoff-cron:0 0 10,14 * * MON-FRI}")
+    public void scheduledCutoff() {
+        runCutoff(LocalDateTime.now());
+    }
+
+    @Override
+    public synchronized List<SettlementBatchResponse> runCutoff(LocalDateTime cutoff) {
+        log.info("Running settlement cut-off at {}", cutoff);
+        List<SettlementBatchResponse> results = new ArrayList<>();
+
+        // Batches left behind by a failed or interrupted run go out first
+        for (SettlementBatch pending : settlementBatchRepository.findByStatusIn(
+                List.of(SettlementBatch.SettlementStatus.CLAIMED, SettlementBatch.SettlementStatus.FAILED))) {
+            results.add(mapToResponse(writeBatch(pending)));
+        }
+
+        for (Transfer.TransferType rail : OUTBOUND_RAILS) {
+            SettlementBatchResponse batch = settle(rail, cutoff);
+            if (batch != null) {
+                results.add(batch);
+            }
+        }
+        return results;
+    }
+
+    @Override
+    public synchronized SettlementBatchResponse settle(Transfer.TransferType rail, LocalDateTime cutoff) {
+        if (!OUTBOUND_RAILS.contains(rail)) {
+            throw new IllegalArgumentException("Transfer type is not settled in batches: " + rail);
+        }
+
+        SettlementBatch batch = new SettlementBatch();
+        batch.setBatchReference(generateBatchReference());
+        batch.setRail(rail);
+        batch.setCutoffTime(cutoff);
+        batch.setStatus(SettlementBatch.SettlementStatus.CLAIMED);
+        batch = settlementBatchRepository.save(batch);
+
+        int claimed = transferRepository.claimForSettlement(batch.getId(), rail, SETTLEABLE_STATUSES, cutoff);
+        if (claimed == 0) {
+            log.info("No {} transfers to settle before {}", rail, cutoff);
+            settlementBatchRepository.delete(batch);
+            return null;
+        }
+        log.info("Claimed {} {} transfers into settlement batch {}", claimed, rail, batch.getBatchReference());
+        return mapToResponse(writeBatch(batch));
+    }
+
+    @Override
+    public synchronized SettlementBatchResponse regenerate(String batchId) {
+        SettlementBatch batch = settlementBatchRepository.findById(batchId)
+                .orElseThrow(() -> new IllegalArgumentException("Settlement batch not found: " + batchId));
+        if (batch.getStatus() == SettlementBatch.SettlementStatus.WRITTEN) {
+            throw new IllegalStateException("Settlement batch already written: " + batch.getBatchReference());
+        }
+        return mapToResponse(writeBatch(batch));
+    }
+
+    @Override
+    public Page<SettlementBatchResponse> getBatches(Pageable pageable) {
+        return settlementBatchRepository.findAllByOrderByCreatedAtDesc(pageable).map(this::mapToResponse);
+    }
+
+    private SettlementBatch writeBatch(SettlementBatch batch) {
+        String fileName = batch.getRail() + "_" + FILE_TIMESTAMP.format(batch.getCutoffTime()) + "_"
+                + batch.getBatchReference() + ".dat";
+        Path target = outboundDirectory.resolve(fileName);
+
+        try (SettlementFileWriter writer = SettlementFileWriter.open(
+                target, batch.getBatchReference(), batch.getRail(), batch.getCutoffTime())) {
+            String afterId = "";
+            Pageable page = PageRequest.of(0, pageSize);
+            List<SettlementRecord> records;
+            do {
+                records = transferRepository.findSettlementRecords(batch.getId(), afterId, page);
+                for (SettlementRecord record : records) {
+                    writer.write(record);
+                }
+                if (!records.isEmpty()) {
+                    afterId = records.get(records.size() - 1).id();
+                }
+            } while (records.size() == pageSize);
+
+            String checksum = writer.finish();
+            batch.setStatus(SettlementBatch.SettlementStatus.WRITTEN);
+            batch.setRecordCount(writer.getRecordCount());
+            batch.setTotalAmount(writer.getTotalAmount());
+            batch.setFileName(fileName);
+            batch.setChecksum(checksum);
+            batch.setFailureReason(null);
+            log.info("Wrote settlement file {} with {} records totalling {} (sha256 {})",
+                    target, writer.getRecordCount(), writer.getTotalAmount(), checksum);
+        } catch (IOException | RuntimeException e) {
+            log.error("Failed to write settlement batch {}: {}", batch.getBatchReference(), e.getMessage(), e);
+            batch.setStatus(SettlementBatch.SettlementStatus.FAILED);
+            batch.setFailureReason(failureReason(e));
+        }
+        return settlementBatchRepository.save(batch);
+    }
+
+    private static String failureReason(Exception e) {
+        // Exception messages can carry whole paths or SQL; the column holds 255 characters
+        String reason = e.getMessage() != null ? e.getMessage() : e.getClass().getSimpleName();
+        return reason.length() <= SettlementBatch.FAILURE_REASON_LENGTH
+                ? reason
+                : reason.substring(0, SettlementBatch.FAILURE_REASON_LENGTH - 3) + "...";
+    }
+
+    private String generateBatchReference() {
+        return "STL" + UUID.randomUUID().toString().replace("-", "").substring(0, 12).toUpperCase();
+    }
+
+    private SettlementBatchResponse mapToResponse(SettlementBatch batch) {
+        SettlementBatchResponse response = new SettlementBatchResponse();
+        response.setId(batch.getId());
+        response.setBatchReference(batch.getBatchReference());
+        response.setRail(batch.getRail());
+        response.setCutoffTime(batch.getCutoffTime());
+        response.setStatus(batch.getStatus());
+        response.setRecordCount(batch.getRecordCount());
+        response.setTotalAmount(batch.getTotalAmount());
+        response.setFileName(batch.getFileName());
+        response.setChecksum(batch.getChecksum());
+        response.setFailureReason(batch.getFailureReason());
+        response.setCreatedAt(batch.getCreatedAt());
+        return response;
+    }
+}
@@ -3,9 +3,12 @@ package com.maelcolium.telepesa.transfer.service.impl;
 import com.maelcolium.telepesa.transfer.client.AccountServiceClient;
 import com.maelcolium.telepesa.transfer.client.TransactionServiceClient;
 import com.maelcolium.telepesa.transfer.dto.CreateTransferRequest;
+import com.maelcolium.telepesa.transfer.dto.ScreeningResult;
 import com.maelcolium.telepesa.transfer.dto.TransferResponse;
 import com.maelcolium.telepesa.transfer.entity.Transfer;
 import com.maelcolium.telepesa.transfer.repository.TransferRepository;
+import com.maelcolium.telepesa.transfer.service.BankDirectoryService;
+import com.maelcolium.telepesa.transfer.service.SanctionsScreeningService;
 import com.maelcolium.telepesa.transfer.service.TransferService;
 import com.maelcolium.telepesa.transfer.service.TransferStatsResponse;
 import lombok.RequiredArgsConstructor;
@@ -21,6 +24,7 @@ import org.springframework.transaction.annotation.Transactional;
 import java.math.BigDecimal;
 import java.math.RoundingMode;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.UUID;
 
@@ -33,12 +37,20 @@ public class TransferServiceImpl implements TransferService {
     private final TransferRepository transferRepository;
     private final AccountServiceClient accountServiceClient;
     private final TransactionServiceClient transactionServiceClient;
+    private final BankDirectoryService bankDirectoryService;
+    private final SanctionsScreeningService sanctionsScreeningService;
+    
+    // Screening status of a transfer compliance released after review
+    private static final String SCREENING_RELEASED = "RELEASED";
     
     @Override
     public TransferResponse createTransfer(String senderAccountId, CreateTransferRequest request) {
         log.info("Creating transfer from {} to {} for amount {}", 
                 senderAccountId, request.getRecipientAccountId(), request.getAmount());
         
+        // Validate bank routing fields against the directory before touching other services
+        bankDirectoryService.validateRouting(request);
+        
         // Validate sender account exists
         AccountServiceClient.AccountResponse senderAccount = accountServiceClient.getAccountByNumber(senderAccountId);
         if ("UNAVAILABLE".equals(senderAccount.status())) {
@@ -93,6 +105,23 @@ public class TransferServiceImpl implements TransferService {
         transfer.setTransferFee(transferFee);
         transfer.setTotalAmount(totalAmount);
         
+        // Screen cross-border counterparties before any money moves
+        if (request.getTransferType() == Transfer.TransferType.SWIFT) {
+            ScreeningResult screening = sanctionsScreeningService.screenTransfer(request);
+            transfer.setScreeningStatus(screening.decision().name());
+            if (screening.decision() == ScreeningResult.Decision.BLOCK) {
+                log.warn("Transfer {} blocked by sanctions screening: {}", transfer.getTransferReference(), screening.summary());
+                transfer.setStatus(Transfer.TransferStatus.FAILED);
+                transfer.setFailureReason("Blocked by sanctions screening");
+                return mapToResponse(transferRepository.save(transfer));
+            }
+            if (screening.decision() == ScreeningResult.Decision.REVIEW) {
+                // Held as PENDING until compliance releases it; /process and /retry refuse it until then
+                log.warn("Transfer {} held for compliance review: {}", transfer.getTransferReference(), screening.summary());
+                return mapToResponse(transferRepository.save(transfer));
+            }
+        }
+        
         // Save transfer
         Transfer savedTransfer = transferRepository.save(transfer);
         
@@ -197,6 +226,7 @@ public class TransferServiceImpl implements TransferService {
             } else if (transfer.getStatus() != Transfer.TransferStatus.PENDING) {
                 log.warn("Transfer status is {} - will proceed with processing", transfer.getStatus());
             }
+            requireScreeningCleared(transfer);
             
             log.info("Setting transfer status to PROCESSING");
             transfer.setStatus(Transfer.TransferStatus.PROCESSING);
@@ -329,6 +359,7 @@ public class TransferServiceImpl implements TransferService {
         if (transfer.getStatus() != Transfer.TransferStatus.FAILED) {
             throw new IllegalStateException("Can only retry failed transfers");
         }
+        requireScreeningCleared(transfer);
         
         transfer.setStatus(Transfer.TransferStatus.PENDING);
         transfer.setFailureReason(null);
@@ -337,6 +368,24 @@ public class TransferServiceImpl implements TransferService {
         return processTransfer(transferId);
     }
     
+    @Override
+    @CacheEvict(value = {"transfers", "accountTransfers", "sentTransfers", "receivedTransfers"}, allEntries = true)
+    public TransferResponse releaseScreenedTransfer(String transferId) {
+        Transfer transfer = transferRepository.findById(transferId)
+                .orElseThrow(() -> new IllegalArgumentException("Transfer not found: " + transferId));
+        
+        if (!ScreeningResult.Decision.REVIEW.name().equals(transfer.getScreeningStatus())
+                || transfer.getStatus() != Transfer.TransferStatus.PENDING) {
+            throw new IllegalStateException("Only pending transfers held for compliance review can be released");
+        }
+        
+        log.warn("Transfer {} released from compliance review", transfer.getTransferReference());
+        transfer.setScreeningStatus(SCREENING_RELEASED);
+        transferRepository.save(transfer);
+        
+        return processTransfer(transferId);
+    }
+    
     @Override
     public List<TransferResponse> getTransfersByStatus(Transfer.TransferStatus status, int limit) {
         Pageable pageable = PageRequest.of(0, limit);
@@ -524,64 +573,40 @@ public class TransferServiceImpl implements TransferService {
             Long recipientAccountId = Long.parseLong(recipientAccount.id());
             Long recipientUserId = Long.parseLong(recipientAccount.userId());
             
-            // Create debit transaction for sender
-            log.info("=== CREATING DEBIT TRANSACTION ===");
-            log.info("Creating debit transaction for sender account ID: {} with amount: {}", 
-                senderAccountId, transfer.getAmount());
-            
-            TransactionServiceClient.CreateTransactionRequest debitRequest = new TransactionServiceClient.CreateTransactionRequest(
+            // Debit for the sender, plus a credit for the recipient on internal transfers. Both are
+            // recorded as COMPLETED in a single batch call, as the money has already moved.
+            List<TransactionServiceClient.CreateTransactionRequest> records = new ArrayList<>(2);
+            records.add(new TransactionServiceClient.CreateTransactionRequest(
                 senderAccountId,
                 recipientAccountId,
                 transfer.getAmount(),
                 com.maelcolium.telepesa.models.enums.TransactionType.TRANSFER,
                 "Transfer to " + transfer.getRecipientAccountId(),
                 senderUserId,
-                transfer.getTransferFee()
-            );
-            
-            log.info("Calling transaction service to create debit transaction...");
-            TransactionServiceClient.TransactionResponse debitResponse = transactionServiceClient.createTransaction(debitRequest);
-            log.info("=== DEBIT TRANSACTION CREATED SUCCESSFULLY ===");
-            log.info("Created debit transaction with ID: {}", debitResponse.transactionId());
-            try {
-                // Mark debit transaction as COMPLETED after successful debit
-                transactionServiceClient.updateTransactionStatus(debitResponse.id(), com.maelcolium.telepesa.models.enums.TransactionStatus.COMPLETED);
-                log.info("Marked debit transaction {} as COMPLETED", debitResponse.id());
-            } catch (Exception e) {
-                log.warn("Failed to update debit transaction status to COMPLETED: {}", e.getMessage());
-            }
-            
-            // Create credit transaction for recipient (only for internal transfers)
+                transfer.getTransferFee(),
+                com.maelcolium.telepesa.models.enums.TransactionStatus.COMPLETED
+            ));
             if (transfer.getTransferType() == Transfer.TransferType.INTERNAL) {
-                log.info("=== CREATING CREDIT TRANSACTION ===");
-                log.info("Creating credit transaction for recipient account ID: {} with amount: {}", 
-                    recipientAccountId, transfer.getAmount());
-                
-                TransactionServiceClient.CreateTransactionRequest creditRequest = new TransactionServiceClient.CreateTransactionRequest(
+                records.add(new TransactionServiceClient.CreateTransactionRequest(
                     recipientAccountId,
                     senderAccountId,
                     transfer.getAmount(),
                     com.maelcolium.telepesa.models.enums.TransactionType.TRANSFER,
                     "Transfer from " + transfer.getSenderName(),
                     recipientUserId,
-                    BigDecimal.ZERO
-                );
-                
-                log.info("Calling transaction service to create credit transaction...");
-                TransactionServiceClient.TransactionResponse creditResponse = transactionServiceClient.createTransaction(creditRequest);
-                log.info("=== CREDIT TRANSACTION CREATED SUCCESSFULLY ===");
-                log.info("Created credit transaction with ID: {}", creditResponse.transactionId());
-                try {
-                    // Mark credit transaction as COMPLETED after successful credit
-                    transactionServiceClient.updateTransactionStatus(creditResponse.id(), com.maelcolium.telepesa.models.enums.TransactionStatus.COMPLETED);
-                    log.info("Marked credit transaction {} as COMPLETED", creditResponse.id());
-                } catch (Exception e) {
-                    log.warn("Failed to update credit transaction status to COMPLETED: {}", e.getMessage());
-                }
+                    BigDecimal.ZERO,
+                    com.maelcolium.telepesa.models.enums.TransactionStatus.COMPLETED
+                ));
             } else {
                 log.info("Skipping credit transaction - Transfer type is: {}", transfer.getTransferType());
             }
             
+            log.info("Calling transaction service to create {} transaction records...", records.size());
+            List<TransactionServiceClient.TransactionResponse> created = transactionServiceClient.createTransactions(
+                new TransactionServiceClient.BatchCreateTransactionRequest(records));
+            log.info("Created transaction records with IDs: {}",
+                created.stream().map(TransactionServiceClient.TransactionResponse::transactionId).toList());
+            
             log.info("=== ALL TRANSACTION RECORDS CREATED SUCCESSFULLY ===");
             log.info("Successfully created transaction records for transfer {}", transfer.getId());
             
@@ -624,6 +649,20 @@ public class TransferServiceImpl implements TransferService {
         return "TXN" + UUID.randomUUID().toString().replace("-", "").substring(0, 12).toUpperCase();
     }
     
+    /**
+     * Cross-border transfers move money only once screening cleared them or compliance released them
+     */
+    private void requireScreeningCleared(Transfer transfer) {
+        if (transfer.getTransferType() != Transfer.TransferType.SWIFT) {
+            return;
+        }
+        String screening = transfer.getScreeningStatus();
+        if (!ScreeningResult.Decision.CLEAR.name().equals(screening) && !SCREENING_RELEASED.equals(screening)) {
+            log.warn("Refusing to process transfer {} with screening status {}", transfer.getTransferReference(), screening);
+            throw new IllegalStateException("Transfer has not cleared sanctions screening: " + transfer.getTransferReference());
+        }
+    }
+    
     private TransferResponse mapToResponse(Transfer transfer) {
         TransferResponse response = new TransferResponse();
         response.setId(transfer.getId());
@@ -646,6 +685,7 @@ public class TransferServiceImpl implements TransferService {
         response.setUpdatedAt(transfer.getUpdatedAt());
         response.setProcessedAt(transfer.getProcessedAt());
         response.setFailureReason(transfer.getFailureReason());
+        response.setScreeningStatus(transfer.getScreeningStatus());
         return response;
     }
 }
@@ -0,0 +1,24 @@
+-- Outbound settlement batching for RTGS, SWIFT and PesaLink transfers
+
+CREATE TABLE settlement_batches (
+    id VARCHAR(255) PRIMARY KEY,
+    batch_reference VARCHAR(20) NOT NULL UNIQUE,
+    rail VARCHAR(255) NOT NULL,
+    cutoff_time TIMESTAMP NOT NULL,
+    status VARCHAR(255) NOT NULL,
+    record_count BIGINT,
+    total_amount NUMERIC(19, 2),
+    file_name VARCHAR(255),
+    checksum VARCHAR(64),
+    failure_reason VARCHAR(255),
+    created_at TIMESTAMP NOT NULL,
+    updated_at TIMESTAMP NOT NULL
+);
+
+CREATE INDEX idx_settlement_batch_status ON settlement_batches(status);
+CREATE INDEX idx_settlement_batch_cutoff ON settlement_batches(cutoff_time);
+
+ALTER TABLE transfers ADD COLUMN settlement_batch_id VARCHAR(36);
+CREATE INDEX idx_settlement_batch ON transfers(settlement_batch_id, id);
+
+COMMENT ON COLUMN transfers.settlement_batch_id IS 'Settlement batch the transfer was claimed into at cut-off';
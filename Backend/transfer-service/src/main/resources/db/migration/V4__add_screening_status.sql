@@ -0,0 +1,5 @@
+-- Sanctions screening outcome for cross-border transfers
+
+ALTER TABLE transfers ADD COLUMN screening_status VARCHAR(10);
+
+COMMENT ON COLUMN transfers.screening_status IS 'Watch-list screening decision (CLEAR, REVIEW, BLOCK) for SWIFT transfers';
@@ -0,0 +1,87 @@
+package com.maelcolium.telepesa.transfer.security;
+
+import com.maelcolium.telepesa.security.GatewayIdentity;
+import com.maelcolium.telepesa.security.TokenPrincipal;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.http.HttpServletResponse;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+class GatewayIdentityFilterTest {
+
+    private static final long NOW = 1_760_000_000L;
+
+    private final GatewayIdentity gatewayIdentity = new GatewayIdentity("telepesa-test-gateway-identity-secret-0123456789", 30);
+    private final GatewayIdentityFilter filter =
+        new GatewayIdentityFilter(gatewayIdentity, Clock.fixed(Instant.ofEpochSecond(NOW), ZoneOffset.UTC));
+    private final FilterChain chain = mock(FilterChain.class);
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void doFilter_WithSignedHeaders_Authenticates() throws Exception {
+        MockHttpServletRequest request = signed("42", "alice", "USER,ADMIN", NOW - 5);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        filter.doFilter(request, response, chain);
+
+        verify(chain).doFilter(request, response);
+        assertEquals(new TokenPrincipal(42L, "alice", List.of("USER", "ADMIN")),
+            SecurityContextHolder.getContext().getAuthentication().getPrincipal());
+    }
+
+    @Test
+    void doFilter_WithoutIdentityHeaders_PassesThrough() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/v1/transfers");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        filter.doFilter(request, response, chain);
+
+        verify(chain).doFilter(request, response);
+        assertNull(SecurityContextHolder.getContext().getAuthentication());
+    }
+
+    @Test
+    void doFilter_RejectsForgedOrExpiredHeaders() throws Exception {
+        MockHttpServletRequest forged = signed("42", "alice", "USER", NOW);
+        forged.removeHeader(GatewayIdentity.USER_ID);
+        forged.addHeader(GatewayIdentity.USER_ID, "43");
+        MockHttpServletResponse forgedResponse = new MockHttpServletResponse();
+        filter.doFilter(forged, forgedResponse, chain);
+
+        MockHttpServletRequest expired = signed("42", "alice", "USER", NOW - 31);
+        MockHttpServletResponse expiredResponse = new MockHttpServletResponse();
+        filter.doFilter(expired, expiredResponse, chain);
+
+        assertEquals(HttpServletResponse.SC_UNAUTHORIZED, forgedResponse.getStatus());
+        assertEquals(HttpServletResponse.SC_UNAUTHORIZED, expiredResponse.getStatus());
+        verify(chain, never()).doFilter(any(), any());
+        assertNull(SecurityContextHolder.getContext().getAuthentication());
+    }
+
+    private MockHttpServletRequest signed(String userId, String username, String roles, long issuedAt) {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/v1/transfers");
+        request.addHeader(GatewayIdentity.USER_ID, userId);
+        request.addHeader(GatewayIdentity.USER_NAME, username);
+        request.addHeader(GatewayIdentity.USER_ROLES, roles);
+        request.addHeader(GatewayIdentity.AUTHENTICATED, "true");
+        request.addHeader(GatewayIdentity.ISSUED_AT, Long.toString(issuedAt));
+        request.addHeader(GatewayIdentity.SIGNATURE, gatewayIdentity.sign(userId, username, roles, issuedAt));
+        return request;
+    }
+}
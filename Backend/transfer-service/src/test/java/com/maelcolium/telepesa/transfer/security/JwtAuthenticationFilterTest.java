@@ -0,0 +1,60 @@
+package com.maelcolium.telepesa.transfer.security;
+
+import com.maelcolium.telepesa.security.JwtTokenUtil;
+import com.maelcolium.telepesa.security.TokenRevocations;
+import com.maelcolium.telepesa.security.TokenRevocations.Revocation;
+import jakarta.servlet.FilterChain;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Instant;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class JwtAuthenticationFilterTest {
+
+    private final JwtTokenUtil jwtTokenUtil = new JwtTokenUtil("telepesa-test-secret-key-that-is-long-enough-for-hs512-signing!", 3600);
+    private final TokenRevocations tokenRevocations = new TokenRevocations(3600);
+    private final JwtAuthenticationFilter filter = new JwtAuthenticationFilter();
+    private final FilterChain chain = mock(FilterChain.class);
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(filter, "jwtTokenUtil", jwtTokenUtil);
+        ReflectionTestUtils.setField(filter, "tokenRevocations", tokenRevocations);
+    }
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void doFilter_AuthenticatesUntilTheSubjectIsRevoked() throws Exception {
+        String token = jwtTokenUtil.generateToken("alice", 42L, List.of("USER"), "ACTIVE");
+
+        filter.doFilter(withToken(token), new MockHttpServletResponse(), chain);
+        assertNotNull(SecurityContextHolder.getContext().getAuthentication());
+        SecurityContextHolder.clearContext();
+
+        // As received from another instance on the revocation channel
+        tokenRevocations.apply(Revocation.parse(Revocation.ofSubject("alice", Instant.now().plusSeconds(1)).toMessage()));
+        filter.doFilter(withToken(token), new MockHttpServletResponse(), chain);
+
+        assertNull(SecurityContextHolder.getContext().getAuthentication());
+        verify(chain, times(2)).doFilter(any(), any());
+    }
+
+    private MockHttpServletRequest withToken(String token) {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/v1/transfers");
+        request.addHeader("Authorization", "Bearer " + token);
+        return request;
+    }
+}
@@ -0,0 +1,124 @@
+package com.maelcolium.telepesa.transfer.service;
+
+import com.maelcolium.telepesa.transfer.dto.CreateTransferRequest;
+import com.maelcolium.telepesa.transfer.entity.Transfer;
+import com.maelcolium.telepesa.transfer.service.impl.BankDirectoryServiceImpl;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.core.io.DefaultResourceLoader;
+import org.springframework.data.redis.core.StringRedisTemplate;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@SuppressWarnings("unchecked")
+class BankDirectoryServiceImplTest {
+
+    // No Redis in unit tests: there is no gateway cache to purge
+    private final ObjectProvider<StringRedisTemplate> redisTemplate = mock(ObjectProvider.class);
+    private BankDirectoryServiceImpl bankDirectoryService;
+
+    @BeforeEach
+    void setUp() {
+        bankDirectoryService = new BankDirectoryServiceImpl(new DefaultResourceLoader(), "classpath:banks/bank-directory.csv", redisTemplate);
+        bankDirectoryService.reload();
+    }
+
+    @Test
+    void getBanks_ReturnsCountryListingWithStableEtag() {
+        BankDirectory.CountryListing kenya = bankDirectoryService.getBanks("ke");
+
+        assertFalse(kenya.banks().isEmpty());
+        assertTrue(kenya.banks().stream().allMatch(b -> "KE".equals(b.getCountry())));
+        assertEquals(kenya.etag(), bankDirectoryService.reload().listing("KE").etag());
+        assertNotEquals(kenya.etag(), bankDirectoryService.getBanks("UG").etag());
+        assertTrue(bankDirectoryService.getBanks("ZZ").banks().isEmpty());
+    }
+
+    @Test
+    void findBySwift_ResolvesBic8AndBranchBic11() {
+        assertEquals("KCB", bankDirectoryService.findBySwift("KCBLKENX").orElseThrow().getBankCode());
+        assertEquals("KCB", bankDirectoryService.findBySwift("KCBLKENXMOI").orElseThrow().getBankCode());
+        assertEquals("KCB", bankDirectoryService.findBySwift("kcblkenxxxx").orElseThrow().getBankCode());
+        assertTrue(bankDirectoryService.findBySwift("NOPEKENX").isEmpty());
+    }
+
+    @Test
+    void validateRouting_AcceptsKnownRoutingCodes() {
+        assertDoesNotThrow(() -> bankDirectoryService.validateRouting(request(Transfer.TransferType.RTGS, r -> r.setSortCode("01100"))));
+        assertDoesNotThrow(() -> bankDirectoryService.validateRouting(request(Transfer.TransferType.PESALINK, r -> r.setPesalinkBankCode("68"))));
+        assertDoesNotThrow(() -> bankDirectoryService.validateRouting(request(Transfer.TransferType.SWIFT, r -> r.setSwiftCode("SCBLKENX"))));
+        // Countries outside the directory are only format checked
+        assertDoesNotThrow(() -> bankDirectoryService.validateRouting(request(Transfer.TransferType.SWIFT, r -> r.setSwiftCode("DEUTDEFF500"))));
+        assertDoesNotThrow(() -> bankDirectoryService.validateRouting(request(Transfer.TransferType.INTERNAL, r -> {})));
+    }
+
+    @Test
+    void validateRouting_RejectsUnknownOrMissingRoutingCodes() {
+        assertThrows(IllegalArgumentException.class,
+            () -> bankDirectoryService.validateRouting(request(Transfer.TransferType.RTGS, r -> r.setSortCode("99999"))));
+        assertThrows(IllegalArgumentException.class,
+            () -> bankDirectoryService.validateRouting(request(Transfer.TransferType.RTGS, r -> {})));
+        assertThrows(IllegalArgumentException.class,
+            () -> bankDirectoryService.validateRouting(request(Transfer.TransferType.PESALINK, r -> r.setPesalinkBankCode("99"))));
+        assertThrows(IllegalArgumentException.class,
+            () -> bankDirectoryService.validateRouting(request(Transfer.TransferType.SWIFT, r -> r.setSwiftCode("NOPEKENX"))));
+        assertThrows(IllegalArgumentException.class,
+            () -> bankDirectoryService.validateRouting(request(Transfer.TransferType.SWIFT, r -> r.setSwiftCode("BAD"))));
+        assertThrows(IllegalArgumentException.class,
+            () -> bankDirectoryService.validateRouting(request(Transfer.TransferType.SWIFT, r -> {
+                r.setSwiftCode("KCBLKENX");
+                r.setIntermediaryBankSwift("NOPEKENX");
+            })));
+    }
+
+    @Test
+    void reload_KeepsLastGoodSnapshotWhenSourceIsInvalid(@TempDir Path dir) throws IOException {
+        Path file = dir.resolve("banks.csv");
+        Files.writeString(file, "BANK,KE,KCB,01,KCBLKENX,Kenya Commercial Bank,KES,true,true,true,1000000,10\n");
+        BankDirectoryServiceImpl fileBacked = spy(new BankDirectoryServiceImpl(new DefaultResourceLoader(), file.toUri().toString(), redisTemplate));
+        fileBacked.reload();
+        assertEquals(1, fileBacked.current().bankCount());
+
+        Files.writeString(file, "BANK,KE,KCB,not-enough-columns\n");
+        assertThrows(IllegalStateException.class, fileBacked::reload);
+
+        assertEquals(1, fileBacked.current().bankCount());
+        assertTrue(fileBacked.findBySwift("KCBLKENX").isPresent());
+
+        // The broken file is not parsed again until it changes
+        clearInvocations(fileBacked);
+        fileBacked.reloadIfModified();
+        verify(fileBacked, never()).reload();
+    }
+
+    @Test
+    void reload_PurgesGatewayCacheOnlyOnSuccess(@TempDir Path dir) throws Exception {
+        StringRedisTemplate redis = mock(StringRedisTemplate.class);
+        ObjectProvider<StringRedisTemplate> provider = mock(ObjectProvider.class);
+        when(provider.getIfAvailable()).thenReturn(redis);
+        Path file = dir.resolve("banks.csv");
+        Files.writeString(file, "BANK,KE,KCB,not-enough-columns\n");
+        BankDirectoryServiceImpl fileBacked = new BankDirectoryServiceImpl(new DefaultResourceLoader(), file.toUri().toString(), provider);
+
+        assertThrows(IllegalStateException.class, fileBacked::reload);
+        verifyNoInteractions(redis);
+
+        Files.writeString(file, "BANK,KE,KCB,01,KCBLKENX,Kenya Commercial Bank,KES,true,true,true,1000000,10\n");
+        fileBacked.reload();
+        verify(redis).convertAndSend("gateway:response-cache-purges", "banks");
+    }
+
+    private CreateTransferRequest request(Transfer.TransferType type, java.util.function.Consumer<CreateTransferRequest> customizer) {
+        CreateTransferRequest request = new CreateTransferRequest();
+        request.setTransferType(type);
+        customizer.accept(request);
+        return request;
+    }
+}
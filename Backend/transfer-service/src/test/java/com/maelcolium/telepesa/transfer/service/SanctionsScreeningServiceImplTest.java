@@ -0,0 +1,62 @@
+package com.maelcolium.telepesa.transfer.service;
+
+import com.maelcolium.telepesa.transfer.dto.CreateTransferRequest;
+import com.maelcolium.telepesa.transfer.dto.ScreeningResult;
+import com.maelcolium.telepesa.transfer.service.impl.SanctionsScreeningServiceImpl;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.core.io.DefaultResourceLoader;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class SanctionsScreeningServiceImplTest {
+
+    private static final String ENTRY = "TP-0004,TELEPESA-TEST,ENTITY,Embargoed Commerce Bank,ECB Offshore,EMBGXXAA\n";
+
+    @Test
+    void screenTransfer_WhenNoListHasLoaded_HoldsForReview(@TempDir Path dir) throws IOException {
+        Path file = dir.resolve("watch-list.csv");
+        Files.writeString(file, "TP-0004,TELEPESA-TEST,not-enough-columns\n");
+        SanctionsScreeningServiceImpl screening = service(file);
+
+        assertThrows(IllegalStateException.class, screening::reload);
+
+        assertEquals(ScreeningResult.Decision.REVIEW, screening.screenTransfer(request("Jane Ordinary", "DEUTDEFF")).decision());
+        assertEquals(ScreeningResult.Decision.REVIEW, screening.screenName("Jane Ordinary").decision());
+    }
+
+    @Test
+    void reload_KeepsLastGoodListWhenSourceIsInvalid(@TempDir Path dir) throws IOException {
+        Path file = dir.resolve("watch-list.csv");
+        Files.writeString(file, ENTRY);
+        SanctionsScreeningServiceImpl screening = spy(service(file));
+        assertEquals(1, screening.reload());
+        assertEquals(ScreeningResult.Decision.CLEAR, screening.screenTransfer(request("Jane Ordinary", "DEUTDEFF")).decision());
+
+        Files.writeString(file, "TP-0004,TELEPESA-TEST,not-enough-columns\n");
+        assertThrows(IllegalStateException.class, screening::reload);
+
+        assertEquals(ScreeningResult.Decision.BLOCK, screening.screenTransfer(request("Jane Ordinary", "EMBGXXAA")).decision());
+
+        // The broken file is not parsed again until it changes
+        clearInvocations(screening);
+        screening.reloadIfModified();
+        verify(screening, never()).reload();
+    }
+
+    private SanctionsScreeningServiceImpl service(Path file) {
+        return new SanctionsScreeningServiceImpl(new DefaultResourceLoader(), file.toUri().toString(), 0.88, 0.97, 0.5);
+    }
+
+    private CreateTransferRequest request(String recipientName, String swiftCode) {
+        CreateTransferRequest request = new CreateTransferRequest();
+        request.setRecipientName(recipientName);
+        request.setSwiftCode(swiftCode);
+        return request;
+    }
+}
@@ -0,0 +1,125 @@
+package com.maelcolium.telepesa.transfer.service;
+
+import com.maelcolium.telepesa.transfer.dto.SettlementBatchResponse;
+import com.maelcolium.telepesa.transfer.entity.SettlementBatch;
+import com.maelcolium.telepesa.transfer.entity.Transfer;
+import com.maelcolium.telepesa.transfer.repository.SettlementBatchRepository;
+import com.maelcolium.telepesa.transfer.repository.TransferRepository;
+import com.maelcolium.telepesa.transfer.service.impl.SettlementServiceImpl;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.LocalDateTime;
+import java.util.HexFormat;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class SettlementServiceImplTest {
+
+    @Autowired
+    private TransferRepository transferRepository;
+
+    @Autowired
+    private SettlementBatchRepository settlementBatchRepository;
+
+    @TempDir
+    Path outbound;
+
+    private SettlementServiceImpl settlementService;
+
+    @BeforeEach
+    void setUp() {
+        transferRepository.deleteAll();
+        settlementBatchRepository.deleteAll();
+        // Small page size so the keyset paging crosses several pages
+        settlementService = new SettlementServiceImpl(transferRepository, settlementBatchRepository, outbound.toString(), 7);
+    }
+
+    @Test
+    void settle_WritesFixedWidthFileAndClaimsTransfersOnce() throws IOException, NoSuchAlgorithmException {
+        for (int i = 0; i < 25; i++) {
+            transferRepository.save(transfer(Transfer.TransferType.RTGS, Transfer.TransferStatus.COMPLETED, "100.50"));
+        }
+        transferRepository.save(transfer(Transfer.TransferType.RTGS, Transfer.TransferStatus.FAILED, "1.00"));
+        transferRepository.save(transfer(Transfer.TransferType.INTERNAL, Transfer.TransferStatus.COMPLETED, "1.00"));
+
+        SettlementBatchResponse batch = settlementService.settle(Transfer.TransferType.RTGS, LocalDateTime.now().plusMinutes(1));
+
+        assertEquals(SettlementBatch.SettlementStatus.WRITTEN, batch.getStatus());
+        assertEquals(25L, batch.getRecordCount());
+        assertEquals(0, new BigDecimal("2512.50").compareTo(batch.getTotalAmount()));
+
+        Path file = outbound.resolve(batch.getFileName());
+        byte[] content = Files.readAllBytes(file);
+        assertEquals(27L * SettlementFileWriter.RECORD_LENGTH, content.length);
+        List<String> lines = Files.readAllLines(file, StandardCharsets.US_ASCII);
+        assertTrue(lines.get(0).startsWith("H" + batch.getBatchReference()));
+        assertTrue(lines.get(1).startsWith("D00000001"));
+        assertTrue(lines.get(26).startsWith("T0000000025000000000000251250"));
+
+        String expected = HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(content));
+        assertEquals(expected, batch.getChecksum());
+        assertTrue(Files.readString(outbound.resolve(batch.getFileName() + ".sha256")).startsWith(expected));
+
+        // Everything is claimed, so the next cut-off has nothing to settle
+        assertNull(settlementService.settle(Transfer.TransferType.RTGS, LocalDateTime.now().plusMinutes(1)));
+    }
+
+    @Test
+    void runCutoff_SettlesEachOutboundRailSeparately() {
+        transferRepository.save(transfer(Transfer.TransferType.SWIFT, Transfer.TransferStatus.PROCESSING, "10.00"));
+        transferRepository.save(transfer(Transfer.TransferType.PESALINK, Transfer.TransferStatus.COMPLETED, "20.00"));
+        transferRepository.save(transfer(Transfer.TransferType.MPESA, Transfer.TransferStatus.COMPLETED, "30.00"));
+
+        List<SettlementBatchResponse> batches = settlementService.runCutoff(LocalDateTime.now().plusMinutes(1));
+
+        assertEquals(2, batches.size());
+        assertTrue(batches.stream().allMatch(b -> b.getRecordCount() == 1L));
+        assertEquals(2, settlementBatchRepository.count());
+    }
+
+    @Test
+    void settle_RecordsBoundedFailureReasonWhenFileCannotBeWritten() throws IOException {
+        // A regular file where a directory should be, under a path longer than the reason column
+        Path blocker = Files.createFile(outbound.resolve("blocker"));
+        Path unwritable = blocker.resolve("a".repeat(100)).resolve("b".repeat(100)).resolve("c".repeat(100));
+        settlementService = new SettlementServiceImpl(transferRepository, settlementBatchRepository, unwritable.toString(), 7);
+        transferRepository.save(transfer(Transfer.TransferType.RTGS, Transfer.TransferStatus.COMPLETED, "10.00"));
+
+        SettlementBatchResponse batch = settlementService.settle(Transfer.TransferType.RTGS, LocalDateTime.now().plusMinutes(1));
+
+        assertEquals(SettlementBatch.SettlementStatus.FAILED, batch.getStatus());
+        assertNotNull(batch.getFailureReason());
+        assertTrue(batch.getFailureReason().length() <= SettlementBatch.FAILURE_REASON_LENGTH);
+        assertEquals(SettlementBatch.SettlementStatus.FAILED,
+                settlementBatchRepository.findById(batch.getId()).orElseThrow().getStatus());
+    }
+
+    private Transfer transfer(Transfer.TransferType type, Transfer.TransferStatus status, String amount) {
+        Transfer transfer = new Transfer();
+        transfer.setTransferReference("TXN" + System.nanoTime());
+        transfer.setSenderAccountId("ACC-001");
+        transfer.setRecipientAccountId("ACC-002");
+        transfer.setRecipientName("Jane Doe");
+        transfer.setAmount(new BigDecimal(amount));
+        transfer.setTransferType(type);
+        transfer.setStatus(status);
+        transfer.setSortCode("01100");
+        return transfer;
+    }
+}
@@ -2,6 +2,7 @@ package com.maelcolium.telepesa.transfer.service;
 
 import com.maelcolium.telepesa.transfer.client.AccountServiceClient;
 import com.maelcolium.telepesa.transfer.dto.CreateTransferRequest;
+import com.maelcolium.telepesa.transfer.dto.ScreeningResult;
 import com.maelcolium.telepesa.transfer.dto.TransferResponse;
 import com.maelcolium.telepesa.transfer.entity.Transfer;
 import com.maelcolium.telepesa.transfer.repository.TransferRepository;
@@ -14,6 +15,7 @@ import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 
 import java.math.BigDecimal;
+import java.util.List;
 import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -31,6 +33,12 @@ class TransferServiceImplTest {
     @Mock
     private AccountServiceClient accountServiceClient;
 
+    @Mock
+    private BankDirectoryService bankDirectoryService;
+
+    @Mock
+    private SanctionsScreeningService sanctionsScreeningService;
+
     @InjectMocks
     private TransferServiceImpl transferService;
 
@@ -208,4 +216,91 @@ class TransferServiceImplTest {
         
         assertTrue(exception.getMessage().contains("Cannot cancel completed transfer"));
     }
+
+    @Test
+    void createTransfer_SwiftBlockedByScreening_FailsWithoutDebit() {
+        // Given
+        createTransferRequest.setTransferType(Transfer.TransferType.SWIFT);
+        when(accountServiceClient.getAccountByNumber("sender-123")).thenReturn(senderAccount);
+        when(accountServiceClient.getAccountByNumber("recipient-123")).thenReturn(recipientAccount);
+        when(sanctionsScreeningService.screenTransfer(createTransferRequest))
+            .thenReturn(new ScreeningResult(ScreeningResult.Decision.BLOCK, List.of()));
+        when(transferRepository.save(any(Transfer.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        // When
+        TransferResponse result = transferService.createTransfer("sender-123", createTransferRequest);
+
+        // Then
+        assertEquals(Transfer.TransferStatus.FAILED, result.getStatus());
+        assertEquals("BLOCK", result.getScreeningStatus());
+        verify(accountServiceClient, never()).debitAccount(anyString(), any());
+    }
+
+    @Test
+    void createTransfer_SwiftHeldForReview_StaysPendingWithoutDebit() {
+        // Given
+        createTransferRequest.setTransferType(Transfer.TransferType.SWIFT);
+        when(accountServiceClient.getAccountByNumber("sender-123")).thenReturn(senderAccount);
+        when(accountServiceClient.getAccountByNumber("recipient-123")).thenReturn(recipientAccount);
+        when(sanctionsScreeningService.screenTransfer(createTransferRequest))
+            .thenReturn(new ScreeningResult(ScreeningResult.Decision.REVIEW, List.of()));
+        when(transferRepository.save(any(Transfer.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        // When
+        TransferResponse result = transferService.createTransfer("sender-123", createTransferRequest);
+
+        // Then
+        assertEquals(Transfer.TransferStatus.PENDING, result.getStatus());
+        assertEquals("REVIEW", result.getScreeningStatus());
+        verify(accountServiceClient, never()).debitAccount(anyString(), any());
+    }
+
+    @Test
+    void processTransfer_SwiftHeldForReview_ThrowsException() {
+        // Given
+        transfer.setTransferType(Transfer.TransferType.SWIFT);
+        transfer.setScreeningStatus("REVIEW");
+        when(transferRepository.findById("transfer-123")).thenReturn(Optional.of(transfer));
+
+        // When & Then
+        assertThrows(IllegalStateException.class, () -> transferService.processTransfer("transfer-123"));
+        assertEquals(Transfer.TransferStatus.PENDING, transfer.getStatus());
+        verify(accountServiceClient, never()).debitAccount(anyString(), any());
+        verify(transferRepository, never()).save(any(Transfer.class));
+    }
+
+    @Test
+    void retryTransfer_SwiftBlockedByScreening_ThrowsException() {
+        // Given
+        transfer.setTransferType(Transfer.TransferType.SWIFT);
+        transfer.setScreeningStatus("BLOCK");
+        transfer.setStatus(Transfer.TransferStatus.FAILED);
+        when(transferRepository.findById("transfer-123")).thenReturn(Optional.of(transfer));
+
+        // When & Then
+        assertThrows(IllegalStateException.class, () -> transferService.retryTransfer("transfer-123"));
+        assertEquals(Transfer.TransferStatus.FAILED, transfer.getStatus());
+        verify(accountServiceClient, never()).debitAccount(anyString(), any());
+        verify(transferRepository, never()).save(any(Transfer.class));
+    }
+
+    @Test
+    void releaseScreenedTransfer_ReviewedSwift_ProcessesTransfer() {
+        // Given
+        transfer.setTransferType(Transfer.TransferType.SWIFT);
+        transfer.setScreeningStatus("REVIEW");
+        when(transferRepository.findById("transfer-123")).thenReturn(Optional.of(transfer));
+        when(transferRepository.save(any(Transfer.class))).thenAnswer(invocation -> invocation.getArgument(0));
+        when(accountServiceClient.debitAccount(anyString(), any())).thenReturn(
+            new AccountServiceClient.TransactionResponse("txn-1", "sender-123", new BigDecimal("1025.00"), BigDecimal.ZERO, "COMPLETED", "TXN123456789"));
+
+        // When
+        TransferResponse result = transferService.releaseScreenedTransfer("transfer-123");
+
+        // Then
+        assertEquals("RELEASED", result.getScreeningStatus());
+        assertEquals(Transfer.TransferStatus.COMPLETED, result.getStatus());
+        verify(accountServiceClient).debitAccount(anyString(), any());
+        assertThrows(IllegalStateException.class, () -> transferService.releaseScreenedTransfer("transfer-123"));
+    }
 }
@@ -0,0 +1,106 @@
+package com.maelcolium.telepesa.transfer.service;
+
+import com.maelcolium.telepesa.transfer.dto.CreateTransferRequest;
+import com.maelcolium.telepesa.transfer.dto.ScreeningResult;
+import com.maelcolium.telepesa.transfer.entity.Transfer;
+import com.maelcolium.telepesa.transfer.service.impl.SanctionsScreeningServiceImpl;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.DefaultResourceLoader;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class WatchListIndexTest {
+
+    private final WatchListIndex index = WatchListIndex.build(List.of(
+        new WatchListIndex.Entry("1", "TEST", "INDIVIDUAL", "Johnathan Blacklisted Doe", List.of("Jon Blacklist"), null),
+        new WatchListIndex.Entry("2", "TEST", "ENTITY", "Shadow Trading Company Limited", List.of(), "SHDWKENX"),
+        new WatchListIndex.Entry("3", "TEST", "INDIVIDUAL", "Müller Sanktion", List.of(), null)
+    ));
+
+    @Test
+    void search_FindsExactTypoReorderedAndAccentedNames() {
+        assertEquals("1", top("Johnathan Blacklisted Doe").entry().id());
+        assertEquals("1", top("Jonathan Blaklisted Doe").entry().id());
+        assertEquals("1", top("Doe Johnathan Blacklisted").entry().id());
+        assertEquals("2", top("SHADOW TRADING CO. LTD").entry().id());
+        assertEquals("3", top("Muller Sanktion").entry().id());
+        assertEquals(1.0, top("Jon Blacklist").score(), 1e-9);
+    }
+
+    @Test
+    void search_IgnoresUnrelatedNames() {
+        assertTrue(index.search("Grace Wanjiku Kamau", 0.88, 0.5, 5).isEmpty());
+        assertTrue(index.search("", 0.88, 0.5, 5).isEmpty());
+    }
+
+    @Test
+    void findByBic_MatchesOnBic8() {
+        assertEquals("2", index.findByBic("SHDWKENXXXX").id());
+        assertNull(index.findByBic("KCBLKENX"));
+    }
+
+    @Test
+    void search_FindsTargetInLargeList() {
+        Random random = new Random(42);
+        List<WatchListIndex.Entry> entries = new ArrayList<>();
+        for (int i = 0; i < 200_000; i++) {
+            entries.add(new WatchListIndex.Entry("E" + i, "BULK", "INDIVIDUAL", randomName(random), List.of(), null));
+        }
+        entries.add(new WatchListIndex.Entry("TARGET", "BULK", "INDIVIDUAL", "Ekaterina Zvyagintseva Orlova", List.of(), null));
+        WatchListIndex large = WatchListIndex.build(entries);
+
+        List<WatchListIndex.Match> matches = large.search("Ekaterina Zviagintseva Orlova", 0.88, 0.5, 5);
+
+        assertFalse(matches.isEmpty());
+        assertEquals("TARGET", matches.get(0).entry().id());
+    }
+
+    @Test
+    void screenTransfer_BlocksListedBicAndReviewsNearMatches() {
+        SanctionsScreeningServiceImpl service = new SanctionsScreeningServiceImpl(
+            new DefaultResourceLoader(), "classpath:screening/watch-list.csv", 0.88, 0.97, 0.5);
+        service.reload();
+
+        CreateTransferRequest blocked = swift("Alice Example", "EMBGXXAA");
+        assertEquals(ScreeningResult.Decision.BLOCK, service.screenTransfer(blocked).decision());
+
+        CreateTransferRequest review = swift("Marie Sanction", "DEUTDEFF");
+        ScreeningResult reviewResult = service.screenTransfer(review);
+        assertEquals(ScreeningResult.Decision.REVIEW, reviewResult.decision());
+        assertEquals("TP-0002", reviewResult.matches().get(0).entryId());
+
+        assertEquals(ScreeningResult.Decision.CLEAR, service.screenTransfer(swift("Alice Example", "DEUTDEFF")).decision());
+    }
+
+    private WatchListIndex.Match top(String query) {
+        List<WatchListIndex.Match> matches = index.search(query, 0.85, 0.5, 5);
+        assertFalse(matches.isEmpty(), "expected a match for " + query);
+        return matches.get(0);
+    }
+
+    private static CreateTransferRequest swift(String recipientName, String swiftCode) {
+        CreateTransferRequest request = new CreateTransferRequest();
+        request.setTransferType(Transfer.TransferType.SWIFT);
+        request.setRecipientName(recipientName);
+        request.setSwiftCode(swiftCode);
+        return request;
+    }
+
+    private static String randomName(Random random) {
+        StringBuilder name = new StringBuilder();
+        for (int token = 0; token < 3; token++) {
+            if (token > 0) {
+                name.append(' ');
+            }
+            int length = 4 + random.nextInt(6);
+            for (int i = 0; i < length; i++) {
+                name.append((char) ('a' + random.nextInt(26)));
+            }
+        }
+        return name.toString();
+    }
+}
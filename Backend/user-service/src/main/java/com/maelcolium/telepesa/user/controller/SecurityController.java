@@ -1,5 +1,6 @@
 package com.maelcolium.telepesa.user.controller;
 
+import com.maelcolium.telepesa.security.TokenPrincipal;
 import com.maelcolium.telepesa.user.dto.ChangePinRequest;
 import com.maelcolium.telepesa.user.dto.CreatePinRequest;
 import com.maelcolium.telepesa.user.dto.TransactionPinResponse;
@@ -31,6 +32,9 @@ public class SecurityController {
         if (authentication != null && authentication.isAuthenticated() &&
             !"anonymousUser".equals(authentication.getName())) {
             Object principal = authentication.getPrincipal();
+            if (principal instanceof TokenPrincipal tokenPrincipal && tokenPrincipal.userId() != null) {
+                return tokenPrincipal.userId();
+            }
             if (principal instanceof com.maelcolium.telepesa.user.security.UserPrincipal userPrincipal) {
                 return userPrincipal.getId();
             }
@@ -32,6 +32,7 @@ import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.core.userdetails.UserDetails;
 import com.maelcolium.telepesa.user.security.UserPrincipal;
+import com.maelcolium.telepesa.security.TokenPrincipal;
 
 /**
  * REST Controller for user management operations
@@ -409,7 +410,10 @@ public class UserController {
                     log.debug("Principal is null");
                 }
                 
-                if (principal instanceof UserPrincipal userPrincipal) {
+                if (principal instanceof TokenPrincipal tokenPrincipal && tokenPrincipal.userId() != null) {
+                    // Tokens carry the user ID as a claim
+                    return tokenPrincipal.userId();
+                } else if (principal instanceof UserPrincipal userPrincipal) {
                     // Directly get the user ID from UserPrincipal to avoid database calls
                     log.debug("Using UserPrincipal ID directly: {}", userPrincipal.getId());
                     return userPrincipal.getId();
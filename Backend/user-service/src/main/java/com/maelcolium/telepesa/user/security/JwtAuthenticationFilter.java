@@ -1,6 +1,10 @@
 package com.maelcolium.telepesa.user.security;
 
 import com.maelcolium.telepesa.security.JwtTokenUtil;
+import com.maelcolium.telepesa.security.TokenPrincipal;
+import com.maelcolium.telepesa.security.TokenRevocations;
+import com.maelcolium.telepesa.security.VerifiedToken;
+import io.jsonwebtoken.JwtException;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
@@ -9,8 +13,6 @@ import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.context.SecurityContextHolder;
-import org.springframework.security.core.userdetails.UserDetails;
-import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.web.authentication.WebAuthenticationDetailsSource;
 import org.springframework.util.StringUtils;
 import org.springframework.web.filter.OncePerRequestFilter;
@@ -25,7 +27,7 @@ import java.io.IOException;
 public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
     private final JwtTokenUtil jwtTokenUtil;
-    private final UserDetailsService userDetailsService;
+    private final TokenRevocations tokenRevocations;
 
     @Override
     protected void doFilterInternal(HttpServletRequest request, 
@@ -50,22 +52,21 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
             
             if (StringUtils.hasText(jwt)) {
                 log.debug("Validating JWT token...");
-                boolean isValid = jwtTokenUtil.validateToken(jwt);
-                log.debug("JWT token valid: {}", isValid);
+                VerifiedToken token = verify(jwt);
+                log.debug("JWT token valid: {}", token != null);
                 
-                if (isValid) {
-                    String username = jwtTokenUtil.getUsernameFromToken(jwt);
-                    log.debug("Extracted username from JWT: {}", username);
-                    
-                    UserDetails userDetails = userDetailsService.loadUserByUsername(username);
-                    log.debug("Loaded user details for: {}", username);
-                    
-                    UsernamePasswordAuthenticationToken authentication = 
-                        new UsernamePasswordAuthenticationToken(userDetails, null, userDetails.getAuthorities());
-                    authentication.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
-                    
-                    SecurityContextHolder.getContext().setAuthentication(authentication);
-                    log.debug("Set authentication in SecurityContext for user: {}", username);
+                if (token != null && tokenRevocations.isRevoked(token)) {
+                    log.debug("JWT token of {} was issued before its revocation", token.subject());
+                } else if (token != null) {
+                    // The principal is built from the token's claims, with no user lookup
+                    UsernamePasswordAuthenticationToken authentication = TokenPrincipal.authenticate(token);
+                    if (authentication != null) {
+                        authentication.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
+                        SecurityContextHolder.getContext().setAuthentication(authentication);
+                        log.debug("Set authentication in SecurityContext for user: {}", token.subject());
+                    } else {
+                        log.debug("JWT token of {} was issued to an inactive account", token.subject());
+                    }
                 } else {
                     log.warn("JWT token validation failed for request: {}", requestUri);
                 }
@@ -79,6 +80,15 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
         filterChain.doFilter(request, response);
     }
 
+    private VerifiedToken verify(String jwt) {
+        try {
+            return jwtTokenUtil.verify(jwt);
+        } catch (JwtException | IllegalArgumentException e) {
+            log.debug("JWT token rejected: {}", e.getMessage());
+            return null;
+        }
+    }
+
     private String getJwtFromRequest(HttpServletRequest request) {
         String bearerToken = request.getHeader("Authorization");
         if (StringUtils.hasText(bearerToken) && bearerToken.startsWith("Bearer ")) {
@@ -0,0 +1,62 @@
+package com.maelcolium.telepesa.user.security;
+
+import com.maelcolium.telepesa.security.TokenRevocations;
+import com.maelcolium.telepesa.security.TokenRevocations.Revocation;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Instant;
+
+/**
+ * Revokes a user's tokens when the account is locked, deactivated or deleted. Tokens carry the
+ * user's status from when they were issued, so without this they would stay usable until expiry.
+ *
+ * <p>The revocation is applied here and published to the other services and the gateway once the
+ * change commits. A publish that fails is logged; the revocation then only holds on this
+ * instance.</p>
+ */
+@Component
+@Slf4j
+public class TokenRevocationPublisher {
+
+    private final TokenRevocations tokenRevocations;
+    private final ObjectProvider<StringRedisTemplate> redisTemplate;
+
+    public TokenRevocationPublisher(TokenRevocations tokenRevocations, ObjectProvider<StringRedisTemplate> redisTemplate) {
+        this.tokenRevocations = tokenRevocations;
+        this.redisTemplate = redisTemplate;
+    }
+
+    /**
+     * Revoke every token of {@code username} issued until now
+     */
+    public void revokeUser(String username) {
+        Revocation revocation = Revocation.ofSubject(username, Instant.now());
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            publish(revocation);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                publish(revocation);
+            }
+        });
+    }
+
+    private void publish(Revocation revocation) {
+        tokenRevocations.apply(revocation);
+        try {
+            StringRedisTemplate template = redisTemplate.getIfAvailable();
+            if (template != null) {
+                template.convertAndSend(TokenRevocations.CHANNEL, revocation.toMessage());
+            }
+        } catch (RuntimeException e) {
+            log.warn("Failed to publish token revocation for {}; applied on this instance only", revocation.subject(), e);
+        }
+    }
+}
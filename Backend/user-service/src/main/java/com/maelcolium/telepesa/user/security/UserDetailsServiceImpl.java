@@ -53,16 +53,27 @@ public class UserDetailsServiceImpl implements UserDetailsService {
 
     private Collection<GrantedAuthority> mapAuthorities(User user) {
         List<GrantedAuthority> authorities = new ArrayList<>();
+        for (String role : roleNames(user)) {
+            authorities.add(new SimpleGrantedAuthority("ROLE_" + role));
+        }
+        return authorities;
+    }
+
+    /**
+     * Role names of a user without the ROLE_ prefix, as carried in the user's tokens
+     */
+    public static List<String> roleNames(User user) {
+        List<String> roles = new ArrayList<>();
         
         // Add default user role
-        authorities.add(new SimpleGrantedAuthority("ROLE_USER"));
+        roles.add("USER");
         
         // Add admin role if user is admin (this would typically come from a roles table)
         // For now, we'll check if username is "admin"
         if ("admin".equalsIgnoreCase(user.getUsername())) {
-            authorities.add(new SimpleGrantedAuthority("ROLE_ADMIN"));
+            roles.add("ADMIN");
         }
         
-        return authorities;
+        return roles;
     }
 } 
\ No newline at end of file
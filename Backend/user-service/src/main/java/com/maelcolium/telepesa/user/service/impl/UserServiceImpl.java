@@ -13,6 +13,8 @@ import com.maelcolium.telepesa.user.model.User;
 import com.maelcolium.telepesa.user.model.RefreshToken;
 import com.maelcolium.telepesa.user.repository.UserRepository;
 import com.maelcolium.telepesa.user.repository.RefreshTokenRepository;
+import com.maelcolium.telepesa.user.security.TokenRevocationPublisher;
+import com.maelcolium.telepesa.user.security.UserDetailsServiceImpl;
 import com.maelcolium.telepesa.user.service.AuditLogService;
 import com.maelcolium.telepesa.user.service.DeviceFingerprintService;
 import com.maelcolium.telepesa.user.service.UserService;
@@ -28,8 +30,6 @@ import org.springframework.cache.annotation.Cacheable;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.security.authentication.BadCredentialsException;
-import org.springframework.security.core.userdetails.UserDetails;
-import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -52,7 +52,7 @@ public class UserServiceImpl implements UserService {
     private final UserMapper userMapper;
     private final PasswordEncoder passwordEncoder;
     private final JwtTokenUtil jwtTokenUtil;
-    private final UserDetailsService userDetailsService;
+    private final TokenRevocationPublisher tokenRevocationPublisher;
     private final AuditLogService auditLogService;
     private final DeviceFingerprintService deviceFingerprintService;
     private final RefreshTokenRepository refreshTokenRepository;
@@ -68,7 +68,7 @@ public class UserServiceImpl implements UserService {
                           UserMapper userMapper,
                           PasswordEncoder passwordEncoder,
                           JwtTokenUtil jwtTokenUtil,
-                          UserDetailsService userDetailsService,
+                          TokenRevocationPublisher tokenRevocationPublisher,
                           AuditLogService auditLogService,
                           DeviceFingerprintService deviceFingerprintService,
                           RefreshTokenRepository refreshTokenRepository,
@@ -77,7 +77,7 @@ public class UserServiceImpl implements UserService {
         this.userMapper = userMapper;
         this.passwordEncoder = passwordEncoder;
         this.jwtTokenUtil = jwtTokenUtil;
-        this.userDetailsService = userDetailsService;
+        this.tokenRevocationPublisher = tokenRevocationPublisher;
         this.auditLogService = auditLogService;
         this.deviceFingerprintService = deviceFingerprintService;
         this.refreshTokenRepository = refreshTokenRepository;
@@ -227,8 +227,7 @@ public class UserServiceImpl implements UserService {
         }
 
         // Generate tokens
-        UserDetails userDetails = userDetailsService.loadUserByUsername(user.getUsername());
-        String accessToken = jwtTokenUtil.generateToken(userDetails);
+        String accessToken = issueAccessToken(user);
 
         // Revoke previous refresh tokens and issue a new one
         refreshTokenRepository.revokeAllByUser(user);
@@ -353,6 +352,11 @@ public class UserServiceImpl implements UserService {
 
         User user = existing.getUser();
 
+        // Tokens carry the account status, so a locked or deactivated user gets none
+        if (!user.isActive()) {
+            throw new BadCredentialsException("Account is not active");
+        }
+
         // Rotate: revoke current and issue new refresh token
         existing.setRevoked(true);
         RefreshToken rotated = RefreshToken.builder()
@@ -366,8 +370,7 @@ public class UserServiceImpl implements UserService {
         refreshTokenRepository.save(rotated);
 
         // Issue new access token
-        UserDetails userDetails = userDetailsService.loadUserByUsername(user.getUsername());
-        String accessToken = jwtTokenUtil.generateToken(userDetails);
+        String accessToken = issueAccessToken(user);
 
         return TokenRefreshResponse.builder()
             .accessToken(accessToken)
@@ -448,11 +451,11 @@ public class UserServiceImpl implements UserService {
     public void deleteUser(Long id) {
         log.info("Deleting user with ID: {}", id);
 
-        if (!userRepository.existsById(id)) {
-            throw new UserNotFoundException(id);
-        }
+        User user = userRepository.findById(id)
+            .orElseThrow(() -> new UserNotFoundException(id));
 
         userRepository.deleteById(id);
+        tokenRevocationPublisher.revokeUser(user.getUsername());
         log.info("User deleted successfully: {}", id);
     }
 
@@ -531,11 +534,11 @@ public class UserServiceImpl implements UserService {
     public void lockUserAccount(Long id) {
         log.info("Locking user account: {}", id);
 
-        if (!userRepository.existsById(id)) {
-            throw new UserNotFoundException(id);
-        }
+        User user = userRepository.findById(id)
+            .orElseThrow(() -> new UserNotFoundException(id));
 
         userRepository.lockUserAccount(id);
+        tokenRevocationPublisher.revokeUser(user.getUsername());
         log.info("User account locked: {}", id);
     }
 
@@ -561,11 +564,21 @@ public class UserServiceImpl implements UserService {
 
         if (newFailedAttempts >= maxFailedAttempts) {
             userRepository.lockUserAccount(user.getId());
+            tokenRevocationPublisher.revokeUser(user.getUsername());
             log.warn("User account locked due to {} failed attempts: {}", 
                     newFailedAttempts, user.getUsername());
         }
     }
 
+    /**
+     * Issue an access token carrying the user's id, roles and status, so services can
+     * authenticate its requests without looking the user up
+     */
+    private String issueAccessToken(User user) {
+        return jwtTokenUtil.generateToken(user.getUsername(), user.getId(),
+            UserDetailsServiceImpl.roleNames(user), user.getStatus().name());
+    }
+
     /**
      * Generate a secure random token
      */
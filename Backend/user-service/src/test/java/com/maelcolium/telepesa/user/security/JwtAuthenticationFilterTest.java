@@ -1,6 +1,10 @@
 package com.maelcolium.telepesa.user.security;
 
 import com.maelcolium.telepesa.security.JwtTokenUtil;
+import com.maelcolium.telepesa.security.TokenPrincipal;
+import com.maelcolium.telepesa.security.TokenRevocations;
+import com.maelcolium.telepesa.security.VerifiedToken;
+import io.jsonwebtoken.JwtException;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
@@ -13,10 +17,9 @@ import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.context.SecurityContextHolder;
-import org.springframework.security.core.userdetails.UserDetails;
-import org.springframework.security.core.userdetails.UserDetailsService;
 
 import java.io.IOException;
+import java.time.Instant;
 import java.util.List;
 
 import static org.assertj.core.api.Assertions.assertThat;
@@ -30,9 +33,6 @@ class JwtAuthenticationFilterTest {
     @Mock
     private JwtTokenUtil jwtTokenUtil;
 
-    @Mock
-    private UserDetailsService userDetailsService;
-
     @Mock
     private HttpServletRequest request;
 
@@ -42,14 +42,14 @@ class JwtAuthenticationFilterTest {
     @Mock
     private FilterChain filterChain;
 
-    @Mock
-    private UserDetails userDetails;
+    private TokenRevocations tokenRevocations;
 
     private JwtAuthenticationFilter jwtAuthenticationFilter;
 
     @BeforeEach
     void setUp() {
-        jwtAuthenticationFilter = new JwtAuthenticationFilter(jwtTokenUtil, userDetailsService);
+        tokenRevocations = new TokenRevocations(86400);
+        jwtAuthenticationFilter = new JwtAuthenticationFilter(jwtTokenUtil, tokenRevocations);
         // Clear security context before each test
         SecurityContextHolder.clearContext();
         // Mock request URI to prevent NullPointerException
@@ -64,10 +64,7 @@ class JwtAuthenticationFilterTest {
         String username = "testuser";
         
         when(request.getHeader("Authorization")).thenReturn("Bearer " + token);
-        when(jwtTokenUtil.validateToken(token)).thenReturn(true);
-        when(jwtTokenUtil.getUsernameFromToken(token)).thenReturn(username);
-        when(userDetailsService.loadUserByUsername(username)).thenReturn(userDetails);
-        when(userDetails.getAuthorities()).thenAnswer(invocation -> List.of(new SimpleGrantedAuthority("ROLE_USER")));
+        when(jwtTokenUtil.verify(token)).thenReturn(verifiedToken(username));
 
         // When
         jwtAuthenticationFilter.doFilterInternal(request, response, filterChain);
@@ -77,7 +74,7 @@ class JwtAuthenticationFilterTest {
         
         Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
         assertThat(authentication).isNotNull();
-        assertThat(authentication.getPrincipal()).isEqualTo(userDetails);
+        assertThat(authentication.getPrincipal()).isEqualTo(new TokenPrincipal(1L, username, List.of("USER")));
         boolean hasUserRole = authentication.getAuthorities().stream()
             .anyMatch(auth -> "ROLE_USER".equals(auth.getAuthority()));
         assertThat(hasUserRole).isTrue();
@@ -93,8 +90,7 @@ class JwtAuthenticationFilterTest {
 
         // Then
         verify(filterChain).doFilter(request, response);
-        verify(jwtTokenUtil, never()).validateToken(any());
-        verify(userDetailsService, never()).loadUserByUsername(any());
+        verify(jwtTokenUtil, never()).verify(any());
         
         Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
         assertThat(authentication).isNull();
@@ -110,8 +106,7 @@ class JwtAuthenticationFilterTest {
 
         // Then
         verify(filterChain).doFilter(request, response);
-        verify(jwtTokenUtil, never()).validateToken(any());
-        verify(userDetailsService, never()).loadUserByUsername(any());
+        verify(jwtTokenUtil, never()).verify(any());
         
         Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
         assertThat(authentication).isNull();
@@ -127,8 +122,7 @@ class JwtAuthenticationFilterTest {
 
         // Then
         verify(filterChain).doFilter(request, response);
-        verify(jwtTokenUtil, never()).validateToken(any());
-        verify(userDetailsService, never()).loadUserByUsername(any());
+        verify(jwtTokenUtil, never()).verify(any());
         
         Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
         assertThat(authentication).isNull();
@@ -140,14 +134,13 @@ class JwtAuthenticationFilterTest {
         String token = "invalid.jwt.token";
         
         when(request.getHeader("Authorization")).thenReturn("Bearer " + token);
-        when(jwtTokenUtil.validateToken(token)).thenReturn(false);
+        when(jwtTokenUtil.verify(token)).thenThrow(new JwtException("Invalid token"));
 
         // When
         jwtAuthenticationFilter.doFilterInternal(request, response, filterChain);
 
         // Then
         verify(filterChain).doFilter(request, response);
-        verify(userDetailsService, never()).loadUserByUsername(any());
         
         Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
         assertThat(authentication).isNull();
@@ -163,8 +156,7 @@ class JwtAuthenticationFilterTest {
 
         // Then
         verify(filterChain).doFilter(request, response);
-        verify(jwtTokenUtil, never()).validateToken(any());
-        verify(userDetailsService, never()).loadUserByUsername(any());
+        verify(jwtTokenUtil, never()).verify(any());
         
         Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
         assertThat(authentication).isNull();
@@ -180,8 +172,7 @@ class JwtAuthenticationFilterTest {
 
         // Then
         verify(filterChain).doFilter(request, response);
-        verify(jwtTokenUtil, never()).validateToken(any());
-        verify(userDetailsService, never()).loadUserByUsername(any());
+        verify(jwtTokenUtil, never()).verify(any());
         
         Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
         assertThat(authentication).isNull();
@@ -193,41 +184,76 @@ class JwtAuthenticationFilterTest {
         String token = "problematic.jwt.token";
         
         when(request.getHeader("Authorization")).thenReturn("Bearer " + token);
-        when(jwtTokenUtil.validateToken(token)).thenThrow(new RuntimeException("Token validation failed"));
+        when(jwtTokenUtil.verify(token)).thenThrow(new RuntimeException("Token validation failed"));
 
         // When
         jwtAuthenticationFilter.doFilterInternal(request, response, filterChain);
 
         // Then
         verify(filterChain).doFilter(request, response);
-        verify(userDetailsService, never()).loadUserByUsername(any());
         
         Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
         assertThat(authentication).isNull();
     }
 
     @Test
-    void doFilterInternal_WithExceptionInUserDetailsLoading_ShouldContinueFilter() throws ServletException, IOException {
+    void doFilterInternal_WithRevokedSubject_ShouldNotSetAuthentication() throws ServletException, IOException {
         // Given
         String token = "valid.jwt.token";
         String username = "testuser";
-        
+        VerifiedToken verified = verifiedToken(username);
+        tokenRevocations.revokeSubject(username, verified.issuedAt().plusSeconds(1));
+
         when(request.getHeader("Authorization")).thenReturn("Bearer " + token);
-        when(jwtTokenUtil.validateToken(token)).thenReturn(true);
-        when(jwtTokenUtil.getUsernameFromToken(token)).thenReturn(username);
-        when(userDetailsService.loadUserByUsername(username))
-            .thenThrow(new RuntimeException("User not found"));
+        when(jwtTokenUtil.verify(token)).thenReturn(verified);
 
         // When
         jwtAuthenticationFilter.doFilterInternal(request, response, filterChain);
 
         // Then
         verify(filterChain).doFilter(request, response);
-        
+
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        assertThat(authentication).isNull();
+    }
+
+    @Test
+    void doFilterInternal_WithTokenIssuedToLockedUser_ShouldNotSetAuthentication() throws ServletException, IOException {
+        // Given
+        String token = "valid.jwt.token";
+
+        when(request.getHeader("Authorization")).thenReturn("Bearer " + token);
+        when(jwtTokenUtil.verify(token)).thenReturn(new VerifiedToken("testuser", 1L, List.of("USER"), "LOCKED",
+            Instant.now(), Instant.now().plusSeconds(3600)));
+
+        // When
+        jwtAuthenticationFilter.doFilterInternal(request, response, filterChain);
+
+        // Then
+        verify(filterChain).doFilter(request, response);
+
         Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
         assertThat(authentication).isNull();
     }
 
+    @Test
+    void doFilterInternal_WithTokenWithoutClaims_ShouldDefaultToUserRole() throws ServletException, IOException {
+        // Given
+        String token = "legacy.jwt.token";
+
+        when(request.getHeader("Authorization")).thenReturn("Bearer " + token);
+        when(jwtTokenUtil.verify(token)).thenReturn(new VerifiedToken("testuser", null, null, null,
+            Instant.now(), Instant.now().plusSeconds(3600)));
+
+        // When
+        jwtAuthenticationFilter.doFilterInternal(request, response, filterChain);
+
+        // Then
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        assertThat(authentication).isNotNull();
+        assertThat(authentication.getPrincipal()).isEqualTo(new TokenPrincipal(null, "testuser", List.of("USER")));
+    }
+
     @Test
     void doFilterInternal_WithExistingAuthentication_ShouldNotOverrideIt() throws ServletException, IOException {
         // Given
@@ -242,10 +268,7 @@ class JwtAuthenticationFilterTest {
                 existingUser, null, existingUser.getAuthorities()));
         
         when(request.getHeader("Authorization")).thenReturn("Bearer " + token);
-        when(jwtTokenUtil.validateToken(token)).thenReturn(true);
-        when(jwtTokenUtil.getUsernameFromToken(token)).thenReturn(username);
-        when(userDetailsService.loadUserByUsername(username)).thenReturn(userDetails);
-        when(userDetails.getAuthorities()).thenAnswer(invocation -> List.of(new SimpleGrantedAuthority("ROLE_ADMIN")));
+        when(jwtTokenUtil.verify(token)).thenReturn(verifiedToken(username));
 
         // When
         jwtAuthenticationFilter.doFilterInternal(request, response, filterChain);
@@ -256,6 +279,10 @@ class JwtAuthenticationFilterTest {
         Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
         assertThat(authentication).isNotNull();
         // Authentication should be overridden with new token
-        assertThat(authentication.getPrincipal()).isEqualTo(userDetails);
+        assertThat(authentication.getPrincipal()).isEqualTo(new TokenPrincipal(1L, username, List.of("USER")));
+    }
+
+    private static VerifiedToken verifiedToken(String username) {
+        return new VerifiedToken(username, 1L, List.of("USER"), "ACTIVE", Instant.now(), Instant.now().plusSeconds(3600));
     }
 }
@@ -11,6 +11,7 @@ import com.maelcolium.telepesa.user.model.User;
 import com.maelcolium.telepesa.models.enums.UserStatus;
 import com.maelcolium.telepesa.user.repository.RefreshTokenRepository;
 import com.maelcolium.telepesa.user.repository.UserRepository;
+import com.maelcolium.telepesa.user.security.TokenRevocationPublisher;
 import com.maelcolium.telepesa.user.service.impl.UserServiceImpl;
 import com.maelcolium.telepesa.security.JwtTokenUtil;
 
@@ -23,15 +24,10 @@ import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.security.authentication.BadCredentialsException;
-import org.springframework.security.core.GrantedAuthority;
-import org.springframework.security.core.authority.SimpleGrantedAuthority;
-import org.springframework.security.core.userdetails.UserDetails;
-import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.crypto.password.PasswordEncoder;
 
 import java.time.LocalDateTime;
-import java.util.Collection;
-import java.util.Collections;
+import java.util.List;
 import java.util.Optional;
 
 import static org.assertj.core.api.Assertions.assertThat;
@@ -60,7 +56,7 @@ class UserServiceImplAdditionalTest {
     private JwtTokenUtil jwtTokenUtil;
 
     @Mock
-    private UserDetailsService userDetailsService;
+    private TokenRevocationPublisher tokenRevocationPublisher;
 
     @Mock
     private AuditLogService auditLogService;
@@ -120,15 +116,12 @@ class UserServiceImplAdditionalTest {
         TokenRefreshRequest request = new TokenRefreshRequest();
         request.setRefreshToken("valid-refresh-token");
 
-        UserDetails userDetails = createMockUserDetails("testuser");
         String newAccessToken = "new-access-token";
         String newRefreshToken = "new-refresh-token";
 
         when(refreshTokenRepository.findByToken("valid-refresh-token"))
                 .thenReturn(Optional.of(testRefreshToken));
-        when(userDetailsService.loadUserByUsername("testuser"))
-                .thenReturn(userDetails);
-        when(jwtTokenUtil.generateToken(userDetails))
+        when(jwtTokenUtil.generateToken("testuser", 1L, List.of("USER"), "ACTIVE"))
                 .thenReturn(newAccessToken);
 
         // The generateToken() method generates UUID tokens which we can't predict
@@ -197,6 +190,23 @@ class UserServiceImplAdditionalTest {
                 .hasMessage("Refresh token expired or revoked");
     }
 
+    @Test
+    @DisplayName("refreshToken - With locked account should throw BadCredentialsException")
+    void refreshToken_WithLockedAccount_ShouldThrowException() {
+        // Given
+        TokenRefreshRequest request = new TokenRefreshRequest();
+        request.setRefreshToken("valid-refresh-token");
+        testUser.setAccountLocked(true);
+
+        when(refreshTokenRepository.findByToken("valid-refresh-token"))
+                .thenReturn(Optional.of(testRefreshToken));
+
+        // When/Then
+        assertThatThrownBy(() -> userService.refreshToken(request))
+                .isInstanceOf(BadCredentialsException.class)
+                .hasMessage("Account is not active");
+    }
+
     @Test
     @DisplayName("refreshToken - With revoked token should throw BadCredentialsException")
     void refreshToken_WithRevokedToken_ShouldThrowException() {
@@ -366,7 +376,7 @@ class UserServiceImplAdditionalTest {
     void lockUserAccount_WithNonExistentUser_ShouldThrowException() {
         // Given
         Long userId = 999L;
-        when(userRepository.existsById(userId)).thenReturn(false);
+        when(userRepository.findById(userId)).thenReturn(Optional.empty());
 
         // When/Then
         assertThatThrownBy(() -> userService.lockUserAccount(userId))
@@ -461,43 +471,4 @@ class UserServiceImplAdditionalTest {
         verify(userRepository).markEmailAsVerified(userWithoutPhone.getId());
         verify(userRepository).updateUserStatus(userWithoutPhone.getId(), UserStatus.ACTIVE);
     }
-
-    private UserDetails createMockUserDetails(String username) {
-        return new UserDetails() {
-            @Override
-            public Collection<? extends GrantedAuthority> getAuthorities() {
-                return Collections.singletonList(new SimpleGrantedAuthority("ROLE_USER"));
-            }
-
-            @Override
-            public String getPassword() {
-                return "encoded_password";
-            }
-
-            @Override
-            public String getUsername() {
-                return username;
-            }
-
-            @Override
-            public boolean isAccountNonExpired() {
-                return true;
-            }
-
-            @Override
-            public boolean isAccountNonLocked() {
-                return true;
-            }
-
-            @Override
-            public boolean isCredentialsNonExpired() {
-                return true;
-            }
-
-            @Override
-            public boolean isEnabled() {
-                return true;
-            }
-        };
-    }
 }
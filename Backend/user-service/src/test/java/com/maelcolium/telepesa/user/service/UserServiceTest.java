@@ -12,6 +12,7 @@ import com.maelcolium.telepesa.user.mapper.UserMapper;
 import com.maelcolium.telepesa.user.model.User;
 import com.maelcolium.telepesa.user.repository.RefreshTokenRepository;
 import com.maelcolium.telepesa.user.repository.UserRepository;
+import com.maelcolium.telepesa.user.security.TokenRevocationPublisher;
 import com.maelcolium.telepesa.user.service.impl.UserServiceImpl;
 import jakarta.servlet.http.HttpServletRequest;
 import org.junit.jupiter.api.BeforeEach;
@@ -25,8 +26,6 @@ import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.security.authentication.BadCredentialsException;
-import org.springframework.security.core.userdetails.UserDetails;
-import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.crypto.password.PasswordEncoder;
 
 import java.time.LocalDateTime;
@@ -58,7 +57,7 @@ class UserServiceTest {
     private JwtTokenUtil jwtTokenUtil;
 
     @Mock
-    private UserDetailsService userDetailsService;
+    private TokenRevocationPublisher tokenRevocationPublisher;
 
     @Mock
     private AuditLogService auditLogService;
@@ -72,9 +71,6 @@ class UserServiceTest {
     @Mock
     private HttpServletRequest httpServletRequest;
 
-    @Mock
-    private UserDetails userDetails;
-
     @InjectMocks
     private UserServiceImpl userService;
 
@@ -212,8 +208,8 @@ class UserServiceTest {
         when(userRepository.findByUsernameOrEmail(loginRequest.getUsernameOrEmail()))
             .thenReturn(Optional.of(testUser));
         when(passwordEncoder.matches(loginRequest.getPassword(), testUser.getPassword())).thenReturn(true);
-        when(userDetailsService.loadUserByUsername(testUser.getUsername())).thenReturn(userDetails);
-        when(jwtTokenUtil.generateToken(userDetails)).thenReturn("jwt-token-123");
+        when(jwtTokenUtil.generateToken(testUser.getUsername(), testUser.getId(), List.of("USER"), "ACTIVE"))
+            .thenReturn("jwt-token-123");
         when(userMapper.toDto(testUser)).thenReturn(testUserDto); // Add missing mock
 
         // When
@@ -265,8 +261,8 @@ class UserServiceTest {
         when(userRepository.findByUsernameOrEmail(loginRequest.getUsernameOrEmail()))
             .thenReturn(Optional.of(testUser));
         when(passwordEncoder.matches(loginRequest.getPassword(), testUser.getPassword())).thenReturn(true);
-        when(userDetailsService.loadUserByUsername(testUser.getUsername())).thenReturn(userDetails);
-        when(jwtTokenUtil.generateToken(userDetails)).thenReturn("jwt-token-123");
+        when(jwtTokenUtil.generateToken(testUser.getUsername(), testUser.getId(), List.of("USER"), "ACTIVE"))
+            .thenReturn("jwt-token-123");
         when(userMapper.toDto(testUser)).thenReturn(testUserDto); // Add missing mock
         when(deviceFingerprintService.generateDeviceFingerprint(httpServletRequest)).thenReturn("device-fingerprint-123");
 
@@ -296,8 +292,8 @@ class UserServiceTest {
         when(userRepository.findByUsernameOrEmail(loginRequest.getUsernameOrEmail()))
             .thenReturn(Optional.of(testUser));
         when(passwordEncoder.matches(loginRequest.getPassword(), testUser.getPassword())).thenReturn(true);
-        when(userDetailsService.loadUserByUsername(testUser.getUsername())).thenReturn(userDetails);
-        when(jwtTokenUtil.generateToken(userDetails)).thenReturn("jwt-token-123");
+        when(jwtTokenUtil.generateToken(testUser.getUsername(), testUser.getId(), List.of("USER"), "ACTIVE"))
+            .thenReturn("jwt-token-123");
         when(userMapper.toDto(testUser)).thenReturn(testUserDto); // Add missing mock
         when(deviceFingerprintService.generateDeviceFingerprint(httpServletRequest)).thenReturn("device-fingerprint-123");
 
@@ -425,23 +421,24 @@ class UserServiceTest {
     // ===== USER DELETION TESTS =====
 
     @Test
-    void deleteUser_WithValidId_ShouldDeleteUser() {
+    void deleteUser_WithValidId_ShouldDeleteUserAndRevokeTokens() {
         // Given
         Long userId = 1L;
-        when(userRepository.existsById(userId)).thenReturn(true);
+        when(userRepository.findById(userId)).thenReturn(Optional.of(testUser));
 
         // When
         userService.deleteUser(userId);
 
         // Then
         verify(userRepository).deleteById(userId);
+        verify(tokenRevocationPublisher).revokeUser(testUser.getUsername());
     }
 
     @Test
     void deleteUser_WithInvalidId_ShouldThrowException() {
         // Given
         Long userId = 999L;
-        when(userRepository.existsById(userId)).thenReturn(false);
+        when(userRepository.findById(userId)).thenReturn(Optional.empty());
 
         // When & Then
         assertThrows(UserNotFoundException.class, () -> userService.deleteUser(userId));
@@ -476,16 +473,17 @@ class UserServiceTest {
     // ===== ACCOUNT MANAGEMENT TESTS =====
 
     @Test
-    void lockUserAccount_WithValidId_ShouldLockAccount() {
+    void lockUserAccount_WithValidId_ShouldLockAccountAndRevokeTokens() {
         // Given
         Long userId = 1L;
-        when(userRepository.existsById(userId)).thenReturn(true);
+        when(userRepository.findById(userId)).thenReturn(Optional.of(testUser));
 
         // When
         userService.lockUserAccount(userId);
 
         // Then
         verify(userRepository).lockUserAccount(userId);
+        verify(tokenRevocationPublisher).revokeUser(testUser.getUsername());
     }
 
     @Test